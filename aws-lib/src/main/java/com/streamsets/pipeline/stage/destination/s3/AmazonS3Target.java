@@ -126,6 +126,29 @@ public class AmazonS3Target extends BaseTarget {
     }
     if (!isErrorStage && getContext().getService(DataFormatGeneratorService.class).isWholeFileFormat()) {
       fileHelper = new WholeFileHelper(getContext(), s3TargetConfigBean, transferManager, issues);
+    } else if (s3TargetConfigBean.streamMultipartUploads) {
+      MultipartFileHelper multipartFileHelper = new MultipartFileHelper(
+          getContext(),
+          s3TargetConfigBean,
+          transferManager,
+          s3TargetConfigBean.s3Config.getS3Client(),
+          isErrorStage
+      );
+      // Buckets resolved from the records are recovered when they are first written to. Preview and validation
+      // run with the same runner id as the running pipeline, so they must not touch its uploads.
+      if (issues.isEmpty() && !getContext().isPreview() && !bucketTemplate.contains(EL_PREFIX)) {
+        try {
+          multipartFileHelper.recoverOrphanedUploads(bucketTemplate);
+        } catch (StageException e) {
+          issues.add(getContext().createConfigIssue(
+              Groups.S3.getLabel(),
+              S3TargetConfigBean.S3_CONFIG_PREFIX + BUCKET_TEMPLATE,
+              e.getErrorCode(),
+              e.getParams()
+          ));
+        }
+      }
+      fileHelper = multipartFileHelper;
     } else {
       fileHelper = new DefaultFileHelper(getContext(), s3TargetConfigBean, transferManager, isErrorStage);
     }
@@ -137,6 +160,14 @@ public class AmazonS3Target extends BaseTarget {
 
   @Override
   public void destroy() {
+    if (fileHelper != null) {
+      // discard objects of an unfinished batch while the client is still usable
+      try {
+        fileHelper.close();
+      } catch (IOException | StageException e) {
+        LOG.error("Error while discarding open objects: {}", e.toString(), e);
+      }
+    }
     s3TargetConfigBean.destroy();
     if (transferManager != null) {
       // don't shut down s3 client again since it's already closed by s3Config.destroy().
@@ -159,11 +190,14 @@ public class AmazonS3Target extends BaseTarget {
         );
         uploads.addAll(partitionUploads);
       }
+      uploads.addAll(fileHelper.completeOpenObjects());
 
       for (UploadMetadata upload : uploads) {
         try {
-          // Wait for given object to fully upload
-          upload.getUpload().waitForCompletion();
+          // Wait for given object to fully upload, objects streamed as multipart uploads are already complete
+          if (upload.getUpload() != null) {
+            upload.getUpload().waitForCompletion();
+          }
           if (!isErrorStage) {
             // Propagate events associated with this upload
             for (EventRecord event : upload.getEvents()) {
@@ -201,11 +235,7 @@ public class AmazonS3Target extends BaseTarget {
         keyPrefix += s3TargetConfigBean.s3Config.delimiter;
       }
     }
-    if (s3TargetConfigBean.fileNamePrefix != null && !s3TargetConfigBean.fileNamePrefix.isEmpty()) {
-      //Append "-" to the key prefix only if fileNamePrefix is not empty.
-      keyPrefix = keyPrefix + s3TargetConfigBean.fileNamePrefix + "-";
-    }
-    return keyPrefix;
+    return keyPrefix + s3TargetConfigBean.getObjectNamePrefix();
   }
 
   private static class Partition {
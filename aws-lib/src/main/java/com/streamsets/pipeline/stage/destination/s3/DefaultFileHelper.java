@@ -151,7 +151,7 @@ final class DefaultFileHelper extends FileHelper {
    * Note that the buffer size may be greater than the actual data. Therefore use {@link #size()} method to determine
    * the actual size of data.
    */
-  private static class ByRefByteArrayOutputStream extends ByteArrayOutputStream {
+  static class ByRefByteArrayOutputStream extends ByteArrayOutputStream {
     byte[] getInternalBuffer() {
       return buf;
     }
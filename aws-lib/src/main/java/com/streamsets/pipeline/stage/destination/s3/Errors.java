@@ -42,6 +42,8 @@ public enum Errors implements ErrorCode {
   S3_50("Compression Option not supported for Whole file Data format"),
   S3_51("Object Key {} already exists"),
   S3_52("Cannot Write Record : {}"),
+  S3_53("Minimum upload part size must be at least {} bytes to stream multipart uploads"),
+  S3_54("Unable to recover orphaned multipart upload of object '{}' in bucket '{}': {}"),
 
   ;
 
@@ -33,6 +33,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
@@ -58,6 +59,21 @@ abstract class FileHelper {
 
   abstract List<UploadMetadata> handle(Iterator<Record> recordIterator, String bucket, String keyPrefix) throws IOException, StageException;
 
+  /**
+   * Completes objects still open at the end of a batch, so that all its records are durable before the offset is
+   * committed. Helpers that upload one object per partition in handle() have nothing to complete.
+   */
+  List<UploadMetadata> completeOpenObjects() throws IOException, StageException {
+    return Collections.emptyList();
+  }
+
+  /**
+   * Discards objects that are still open because their batch did not finish, called when the stage is being
+   * destroyed.
+   */
+  void close() throws IOException, StageException {
+  }
+
   protected ObjectMetadata getObjectMetadata() throws StageException {
     ObjectMetadata metadata = null;
     if (s3TargetConfigBean.sseConfig.useSSE) {
@@ -0,0 +1,408 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.destination.s3;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.ListMultipartUploadsRequest;
+import com.amazonaws.services.s3.model.ListPartsRequest;
+import com.amazonaws.services.s3.model.MultipartUpload;
+import com.amazonaws.services.s3.model.MultipartUploadListing;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.PartListing;
+import com.amazonaws.services.s3.model.PartSummary;
+import com.amazonaws.services.s3.model.SSECustomerKey;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.transfer.TransferManager;
+import com.amazonaws.util.StringUtils;
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.Hashing;
+import com.streamsets.pipeline.api.EventRecord;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.Stage;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.api.Target;
+import com.streamsets.pipeline.api.base.OnRecordErrorException;
+import com.streamsets.pipeline.api.service.dataformats.DataFormatGeneratorService;
+import com.streamsets.pipeline.api.service.dataformats.DataGenerator;
+import com.streamsets.pipeline.api.service.dataformats.SdcRecordGeneratorService;
+import com.streamsets.pipeline.lib.aws.SseOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams the records of each partition into a multipart upload. Serialized records are buffered until the buffer
+ * reaches the upload part size and then sent as a part, so memory is bounded by the part size per open partition
+ * instead of by the batch size. Objects are rolled once they reach the maximum size or record count and all objects
+ * still open are completed at the end of the batch, so everything the batch wrote is durable before its offset is
+ * committed.
+ *
+ * Object names carry a tag identifying the Data Collector, pipeline and runner that initiated the upload. Uploads
+ * with this runner's tag that are still in progress when a bucket is first used can only be left over by a previous
+ * run that did not finish its batch, they are aborted (or completed with the parts that were already uploaded, in
+ * which case compressed objects lack the gzip trailer). Uploads of other pipelines and runners are never touched.
+ */
+final class MultipartFileHelper extends FileHelper {
+  private static final Logger LOG = LoggerFactory.getLogger(MultipartFileHelper.class);
+  private static final String GZIP_EXTENSION = ".gz";
+  private static final String DOT = ".";
+  private static final long MB = 1024L * 1024L;
+
+  private final AmazonS3 s3Client;
+  private final boolean isErrorStage;
+  private final long partSize;
+  private final long maxObjectSize;
+  private final String ownerTag;
+  private final boolean recoverOrphans;
+  private final Map<String, OpenObject> openObjects = new LinkedHashMap<>();
+  private final Set<String> recoveredBuckets = new HashSet<>();
+  private int fileCount = 0;
+
+  MultipartFileHelper(
+      Target.Context context,
+      S3TargetConfigBean s3TargetConfigBean,
+      TransferManager transferManager,
+      AmazonS3 s3Client,
+      boolean isErrorStage
+  ) {
+    super(context, s3TargetConfigBean, transferManager);
+    this.s3Client = s3Client;
+    this.isErrorStage = isErrorStage;
+    this.partSize = s3TargetConfigBean.tmConfig.minimumUploadPartSize;
+    this.maxObjectSize = s3TargetConfigBean.maxObjectSize * MB;
+    this.ownerTag = getOwnerTag(context);
+    this.recoverOrphans = !context.isPreview();
+  }
+
+  /**
+   * Returns the tag that identifies uploads of the given stage instance in the object names. It's stable across
+   * restarts and differs between Data Collectors, pipelines, pipeline runners and stages of the same pipeline
+   * (including its error stage).
+   */
+  static String getOwnerTag(Stage.Context context) {
+    String owner = context.getSdcId() + "-" + context.getPipelineId() + "-" + context.getRunnerId() + "-" +
+        context.getStageInfo().getInstanceName();
+    return Hashing.sha256().hashString(owner, StandardCharsets.UTF_8).toString().substring(0, 16);
+  }
+
+  @Override
+  public List<UploadMetadata> handle(
+      Iterator<Record> recordIterator,
+      String bucket,
+      String keyPrefix
+  ) throws IOException, StageException {
+    List<UploadMetadata> uploads = new ArrayList<>();
+    if (!recordIterator.hasNext()) {
+      return uploads;
+    }
+    recoverOrphanedUploads(bucket);
+
+    String partition = bucket + s3TargetConfigBean.s3Config.delimiter + keyPrefix;
+    OpenObject object = openObjects.get(partition);
+
+    while (recordIterator.hasNext()) {
+      Record currentRecord = recordIterator.next();
+      if (object == null) {
+        object = open(bucket, keyPrefix);
+        openObjects.put(partition, object);
+      }
+      try {
+        object.generator.write(currentRecord);
+        object.recordCount++;
+      } catch (StageException e) {
+        errorRecordHandler.onError(
+            new OnRecordErrorException(
+                currentRecord,
+                e.getErrorCode(),
+                e.getParams()
+            )
+        );
+      } catch (IOException e) {
+        errorRecordHandler.onError(
+            new OnRecordErrorException(
+                currentRecord,
+                Errors.S3_32,
+                currentRecord.getHeader().getSourceId(),
+                e.toString(),
+                e
+            )
+        );
+      }
+
+      if (object.buffer.size() >= partSize) {
+        // Flush what the generator keeps internally so that parts end on a record boundary
+        object.generator.flush();
+        uploadPart(object, false);
+      }
+
+      if (isObjectFull(object)) {
+        UploadMetadata upload = complete(object);
+        if (upload != null) {
+          uploads.add(upload);
+        }
+        openObjects.remove(partition);
+        object = null;
+      }
+    }
+
+    return uploads;
+  }
+
+  @Override
+  List<UploadMetadata> completeOpenObjects() throws IOException, StageException {
+    List<UploadMetadata> uploads = new ArrayList<>();
+    Iterator<OpenObject> iterator = openObjects.values().iterator();
+    while (iterator.hasNext()) {
+      OpenObject object = iterator.next();
+      iterator.remove();
+      UploadMetadata upload = complete(object);
+      if (upload != null) {
+        uploads.add(upload);
+      }
+    }
+    return uploads;
+  }
+
+  @Override
+  void close() throws IOException, StageException {
+    Iterator<OpenObject> iterator = openObjects.values().iterator();
+    while (iterator.hasNext()) {
+      OpenObject object = iterator.next();
+      iterator.remove();
+      // The batch that wrote these records did not finish and its offset was not committed, so they will be written
+      // again - don't leave them behind as a partial object
+      LOG.debug("Aborting upload of object '{}' in bucket '{}' of unfinished batch", object.key, object.bucket);
+      object.generator.close();
+      abort(object.bucket, object.key, object.uploadId);
+    }
+  }
+
+  private boolean isObjectFull(OpenObject object) {
+    return (maxObjectSize > 0 && object.uploadedBytes + object.buffer.size() >= maxObjectSize) ||
+        (s3TargetConfigBean.maxRecordsPerObject > 0 && object.recordCount >= s3TargetConfigBean.maxRecordsPerObject);
+  }
+
+  private OpenObject open(String bucket, String keyPrefix) throws IOException, StageException {
+    String key = getObjectKey(keyPrefix);
+    InitiateMultipartUploadRequest request = new InitiateMultipartUploadRequest(bucket, key, getObjectMetadata());
+    String uploadId;
+    try {
+      uploadId = s3Client.initiateMultipartUpload(request).getUploadId();
+    } catch (AmazonClientException e) {
+      LOG.error(Errors.S3_21.getMessage(), e.toString(), e);
+      throw new StageException(Errors.S3_21, e.toString(), e);
+    }
+    LOG.debug("Initiated multipart upload '{}' of object '{}' in bucket '{}'", uploadId, key, bucket);
+    return new OpenObject(bucket, key, uploadId);
+  }
+
+  private void uploadPart(OpenObject object, boolean lastPart) throws StageException {
+    UploadPartRequest request = new UploadPartRequest()
+        .withBucketName(object.bucket)
+        .withKey(object.key)
+        .withUploadId(object.uploadId)
+        .withPartNumber(object.partETags.size() + 1)
+        .withInputStream(new ByteArrayInputStream(object.buffer.getInternalBuffer(), 0, object.buffer.size()))
+        .withPartSize(object.buffer.size())
+        .withLastPart(lastPart);
+    if (s3TargetConfigBean.sseConfig.useSSE && s3TargetConfigBean.sseConfig.encryption == SseOption.CUSTOMER) {
+      request.setSSECustomerKey(new SSECustomerKey(s3TargetConfigBean.sseConfig.customerKey.get()));
+    }
+    try {
+      object.partETags.add(s3Client.uploadPart(request).getPartETag());
+    } catch (AmazonClientException e) {
+      LOG.error(Errors.S3_21.getMessage(), e.toString(), e);
+      throw new StageException(Errors.S3_21, e.toString(), e);
+    }
+    object.uploadedBytes += object.buffer.size();
+    object.buffer.reset();
+  }
+
+  private UploadMetadata complete(OpenObject object) throws IOException, StageException {
+    object.generator.close();
+
+    if (object.recordCount == 0) {
+      // Nothing was successfully written, don't leave an empty object behind
+      abort(object.bucket, object.key, object.uploadId);
+      return null;
+    }
+
+    if (object.buffer.size() > 0 || object.partETags.isEmpty()) {
+      uploadPart(object, true);
+    }
+    try {
+      s3Client.completeMultipartUpload(
+          new CompleteMultipartUploadRequest(object.bucket, object.key, object.uploadId, object.partETags)
+      );
+    } catch (AmazonClientException e) {
+      LOG.error(Errors.S3_21.getMessage(), e.toString(), e);
+      throw new StageException(Errors.S3_21, e.toString(), e);
+    }
+    LOG.debug(
+        "Completed object '{}' in bucket '{}' with {} records in {} parts",
+        object.key,
+        object.bucket,
+        object.recordCount,
+        object.partETags.size()
+    );
+
+    EventRecord eventRecord = S3Events.S3_OBJECT_WRITTEN
+        .create(context)
+        .with(BUCKET, object.bucket)
+        .with(OBJECT_KEY, object.key)
+        .with(RECORD_COUNT, object.recordCount)
+        .create();
+    return new UploadMetadata(null, object.bucket, Collections.emptyList(), ImmutableList.of(eventRecord));
+  }
+
+  private void abort(String bucket, String key, String uploadId) throws StageException {
+    try {
+      s3Client.abortMultipartUpload(new AbortMultipartUploadRequest(bucket, key, uploadId));
+    } catch (AmazonClientException e) {
+      LOG.error(Errors.S3_21.getMessage(), e.toString(), e);
+      throw new StageException(Errors.S3_21, e.toString(), e);
+    }
+  }
+
+  /**
+   * Aborts or completes uploads of this runner left over in the given bucket by a previous run. Runs only once per
+   * bucket, before this helper initiates any upload in it, and never in preview.
+   */
+  void recoverOrphanedUploads(String bucket) throws StageException {
+    if (!recoverOrphans || !recoveredBuckets.add(bucket)) {
+      return;
+    }
+
+    ListMultipartUploadsRequest request = new ListMultipartUploadsRequest(bucket)
+        .withPrefix(s3TargetConfigBean.s3Config.commonPrefix);
+    MultipartUploadListing listing;
+    do {
+      try {
+        listing = s3Client.listMultipartUploads(request);
+      } catch (AmazonClientException e) {
+        LOG.error(Errors.S3_21.getMessage(), e.toString(), e);
+        throw new StageException(Errors.S3_21, e.toString(), e);
+      }
+      for (MultipartUpload upload : listing.getMultipartUploads()) {
+        if (isOrphaned(upload)) {
+          recoverOrphanedUpload(bucket, upload);
+        }
+      }
+      request.setKeyMarker(listing.getNextKeyMarker());
+      request.setUploadIdMarker(listing.getNextUploadIdMarker());
+    } while (listing.isTruncated());
+  }
+
+  private boolean isOrphaned(MultipartUpload upload) {
+    String key = upload.getKey();
+    String objectName = key.substring(key.lastIndexOf(s3TargetConfigBean.s3Config.delimiter) + 1);
+    return objectName.startsWith(s3TargetConfigBean.getObjectNamePrefix() + ownerTag + "-");
+  }
+
+  private void recoverOrphanedUpload(String bucket, MultipartUpload upload) throws StageException {
+    String key = upload.getKey();
+    try {
+      List<PartETag> partETags = new ArrayList<>();
+      ListPartsRequest request = new ListPartsRequest(bucket, key, upload.getUploadId());
+      PartListing partListing;
+      do {
+        partListing = s3Client.listParts(request);
+        for (PartSummary part : partListing.getParts()) {
+          partETags.add(new PartETag(part.getPartNumber(), part.getETag()));
+        }
+        request.setPartNumberMarker(partListing.getNextPartNumberMarker());
+      } while (partListing.isTruncated());
+
+      if (s3TargetConfigBean.completeOrphanedUploads && !partETags.isEmpty()) {
+        LOG.info("Completing orphaned upload of object '{}' in bucket '{}' with {} parts", key, bucket, partETags.size());
+        s3Client.completeMultipartUpload(
+            new CompleteMultipartUploadRequest(bucket, key, upload.getUploadId(), partETags)
+        );
+      } else {
+        LOG.info("Aborting orphaned upload of object '{}' in bucket '{}'", key, bucket);
+        s3Client.abortMultipartUpload(new AbortMultipartUploadRequest(bucket, key, upload.getUploadId()));
+      }
+    } catch (AmazonClientException e) {
+      LOG.error(Errors.S3_54.getMessage(), key, bucket, e.toString(), e);
+      throw new StageException(Errors.S3_54, key, bucket, e.toString(), e);
+    }
+  }
+
+  private String getObjectKey(String keyPrefix) {
+    fileCount++;
+    StringBuilder fileName = new StringBuilder();
+    fileName.append(keyPrefix)
+        .append(ownerTag)
+        .append("-")
+        .append(System.currentTimeMillis())
+        .append("-")
+        .append(fileCount);
+
+    if (!StringUtils.isNullOrEmpty(s3TargetConfigBean.fileNameSuffix)) {
+      fileName.append(DOT);
+      fileName.append(s3TargetConfigBean.fileNameSuffix);
+    }
+
+    if (s3TargetConfigBean.compress) {
+      fileName.append(GZIP_EXTENSION);
+    }
+    return fileName.toString();
+  }
+
+  /**
+   * State of an object whose multipart upload is still in progress.
+   */
+  private class OpenObject {
+    final String bucket;
+    final String key;
+    final String uploadId;
+    final List<PartETag> partETags = new ArrayList<>();
+    final DefaultFileHelper.ByRefByteArrayOutputStream buffer = new DefaultFileHelper.ByRefByteArrayOutputStream();
+    final DataGenerator generator;
+    long uploadedBytes;
+    long recordCount;
+
+    OpenObject(String bucket, String key, String uploadId) throws IOException, StageException {
+      this.bucket = bucket;
+      this.key = key;
+      this.uploadId = uploadId;
+      // sync flush so that flushing the generator also pushes everything compressed so far into the buffer
+      OutputStream out = s3TargetConfigBean.compress ? new GZIPOutputStream(buffer, true) : buffer;
+      if (isErrorStage) {
+        generator = context.getService(SdcRecordGeneratorService.class).getGenerator(out);
+      } else {
+        generator = context.getService(DataFormatGeneratorService.class).getGenerator(out);
+      }
+    }
+  }
+}
@@ -34,6 +34,7 @@ public class S3TargetConfigBean {
   public static final String S3_CONFIG_PREFIX = S3_TARGET_CONFIG_BEAN_PREFIX + "s3Config.";
   public static final String S3_SSE_CONFIG_PREFIX = S3_TARGET_CONFIG_BEAN_PREFIX + "sseConfig.";
   public static final String S3_TM_CONFIG_PREFIX = S3_TARGET_CONFIG_BEAN_PREFIX + "tmConfig.";
+  private static final long MIN_MULTIPART_PART_SIZE = 5 * 1024 * 1024;
 
   @ConfigDefBean(groups = {"S3", "ADVANCED"})
   public S3ConnectionTargetConfig s3Config;
@@ -118,6 +119,66 @@ public class S3TargetConfigBean {
   )
   public boolean compress;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.BOOLEAN,
+      defaultValue = "false",
+      label = "Stream Multipart Uploads",
+      description = "Streams records of each partition into a multipart upload part by part, so that memory use is " +
+          "bounded by the upload part size. Objects are rolled when they reach the maximum size or record count and " +
+          "are completed at the end of each batch.",
+      displayPosition = 240,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "S3"
+  )
+  public boolean streamMultipartUploads;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "128",
+      label = "Max Object Size (MB)",
+      description = "Completes the object once it reaches this size. Use 0 to opt out.",
+      displayPosition = 250,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "S3",
+      dependsOn = "streamMultipartUploads",
+      triggeredByValue = "true",
+      min = 0
+  )
+  public long maxObjectSize;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "0",
+      label = "Max Records in Object",
+      description = "Completes the object once it contains this number of records. Use 0 to opt out.",
+      displayPosition = 260,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "S3",
+      dependsOn = "streamMultipartUploads",
+      triggeredByValue = "true",
+      min = 0
+  )
+  public long maxRecordsPerObject;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.BOOLEAN,
+      defaultValue = "false",
+      label = "Complete Orphaned Uploads",
+      description = "Completes multipart uploads that a previous run of this pipeline left unfinished with the parts " +
+          "that were already uploaded, instead of aborting them. Their records are written again, compressed " +
+          "objects completed this way are truncated.",
+      displayPosition = 270,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "S3",
+      dependsOn = "streamMultipartUploads",
+      triggeredByValue = "true"
+  )
+  public boolean completeOrphanedUploads;
+
   public List<Stage.ConfigIssue> init(Stage.Context context, List<Stage.ConfigIssue> issues, boolean isErrorStage) {
     boolean isWholeFileFormat;
     if (isErrorStage) {
@@ -153,9 +214,32 @@ public class S3TargetConfigBean {
       );
     }
 
+    // Amazon S3 rejects multipart uploads whose parts, except the last one, are smaller than 5 MB
+    if (!isWholeFileFormat && streamMultipartUploads && tmConfig.minimumUploadPartSize < MIN_MULTIPART_PART_SIZE) {
+      issues.add(
+          context.createConfigIssue(
+              Groups.ADVANCED.getLabel(),
+              S3TargetConfigBean.S3_TM_CONFIG_PREFIX + "minimumUploadPartSize",
+              Errors.S3_53,
+              MIN_MULTIPART_PART_SIZE
+          )
+      );
+    }
+
     return issues;
   }
 
+  /**
+   * Returns the start of the object names written by the stage, the file name prefix followed by "-" or an empty
+   * string when there is no prefix.
+   */
+  String getObjectNamePrefix() {
+    if (fileNamePrefix == null || fileNamePrefix.isEmpty()) {
+      return "";
+    }
+    return fileNamePrefix + "-";
+  }
+
   public void destroy() {
     s3Config.destroy();
   }
@@ -16,6 +16,7 @@
 package com.streamsets.pipeline.stage.origin.s3;
 
 import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.streamsets.pipeline.api.InterfaceAudience;
 import com.streamsets.pipeline.api.InterfaceStability;
 import com.streamsets.pipeline.api.StageException;
@@ -30,6 +31,7 @@ import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.stream.IntStream;
 
@@ -45,6 +47,7 @@ public abstract class AbstractAmazonS3Source extends BasePushSource {
   private int numberOfThreads;
 
   private ExecutorService executorService;
+  private ExecutorService rangedReadExecutor;
 
   private AmazonS3Source amazonS3Source;
 
@@ -78,6 +81,14 @@ public abstract class AbstractAmazonS3Source extends BasePushSource {
       spooler.init();
     }
 
+    // preview reads only the beginning of each object
+    if (issues.isEmpty() && s3ConfigBean.rangedReadParts > 0 && !getContext().isPreview()) {
+      rangedReadExecutor = Executors.newFixedThreadPool(
+          numberOfThreads * s3ConfigBean.rangedReadParts,
+          new ThreadFactoryBuilder().setNameFormat("Amazon S3 Ranged Read - %d").setDaemon(true).build()
+      );
+    }
+
     return issues;
   }
 
@@ -87,6 +98,9 @@ public abstract class AbstractAmazonS3Source extends BasePushSource {
     if (spooler != null) {
       spooler.destroy();
     }
+    if (rangedReadExecutor != null) {
+      rangedReadExecutor.shutdownNow();
+    }
     super.destroy();
   }
 
@@ -146,6 +160,7 @@ public abstract class AbstractAmazonS3Source extends BasePushSource {
                                         .spooler(spooler)
                                         .amazonS3Source(amazonS3Source)
                                         .threadNumber(threadNumber)
+                                        .rangedReadExecutor(rangedReadExecutor)
                                         .build();
   }
 }
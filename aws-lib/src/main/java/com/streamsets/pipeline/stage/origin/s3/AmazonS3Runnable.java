@@ -49,7 +49,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 
 public class AmazonS3Runnable implements Runnable {
@@ -73,6 +75,8 @@ public class AmazonS3Runnable implements Runnable {
 
   private S3ObjectSummary currentObject;
 
+  private final ExecutorService rangedReadExecutor;
+
   public AmazonS3Runnable(
       PushSource.Context context,
       int batchSize,
@@ -81,6 +85,19 @@ public class AmazonS3Runnable implements Runnable {
       S3Spooler spooler,
       AmazonS3Source amazonS3Source
   ) {
+    this(context, batchSize, threadNumber, s3ConfigBean, spooler, amazonS3Source, null);
+  }
+
+  public AmazonS3Runnable(
+      PushSource.Context context,
+      int batchSize,
+      int threadNumber,
+      S3ConfigBean s3ConfigBean,
+      S3Spooler spooler,
+      AmazonS3Source amazonS3Source,
+      ExecutorService rangedReadExecutor
+  ) {
+    this.rangedReadExecutor = rangedReadExecutor;
     this.context = context;
     this.runnerId = threadNumber;
     this.batchSize = batchSize;
@@ -175,6 +192,7 @@ public class AmazonS3Runnable implements Runnable {
           } else {
             //Get S3 object instead of stream because we want to call close on the object when we close the
             // parser (and stream)
+            InputStream content = null;
             if (context.isPreview()) {
               long fetchSize = s3Object.getSize() > S3Constants.DEFAULT_FETCH_SIZE
                                ? S3Constants.DEFAULT_FETCH_SIZE
@@ -198,6 +216,8 @@ public class AmazonS3Runnable implements Runnable {
                     s3ConfigBean.sseConfig.customerKeyMd5
                 );
               }
+            } else if (useRangedReads(s3Object)) {
+              content = openRangedObject(s3Object);
             } else {
               object = AmazonS3Util.getObject(s3Client,
                   s3ConfigBean.s3Config.bucket,
@@ -207,7 +227,10 @@ public class AmazonS3Runnable implements Runnable {
                   s3ConfigBean.sseConfig.customerKeyMd5
               );
             }
-            parser = dataParser.getParser(recordId, object.getObjectContent(), offset.getOffset());
+            if (content == null) {
+              content = object.getObjectContent();
+            }
+            parser = dataParser.getParser(recordId, content, offset.getOffset());
           }
           sendLineageEvent(s3Object);
           //we don't use S3 GetObject range capabilities to skip the already process offset because the parsers cannot
@@ -317,6 +340,43 @@ public class AmazonS3Runnable implements Runnable {
     return offset;
   }
 
+  private boolean useRangedReads(S3ObjectSummary s3ObjectSummary) {
+    return rangedReadExecutor != null && s3ObjectSummary.getSize() > 2 * getRangedReadPartSize();
+  }
+
+  private long getRangedReadPartSize() {
+    return s3ConfigBean.rangedReadPartSize * 1024L * 1024L;
+  }
+
+  /**
+   * Fetches the first range of the object, kept in {@link #object} for the record header attributes, and returns a
+   * stream reading the rest of the object with parallel ranged GETs.
+   */
+  private InputStream openRangedObject(S3ObjectSummary s3ObjectSummary) throws StageException, IOException {
+    object = AmazonS3Util.getObjectRange(s3Client,
+        s3ConfigBean.s3Config.bucket,
+        s3ObjectSummary.getKey(),
+        getRangedReadPartSize() - 1,
+        s3ConfigBean.sseConfig.useCustomerSSEKey,
+        s3ConfigBean.sseConfig.customerKey,
+        s3ConfigBean.sseConfig.customerKeyMd5
+    );
+    // Headers should describe the whole object, not just the first range
+    object.getObjectMetadata().setContentLength(s3ObjectSummary.getSize());
+    return new S3RangedInputStream(
+        s3Client,
+        object,
+        s3ObjectSummary.getSize(),
+        getRangedReadPartSize(),
+        s3ConfigBean.rangedReadParts,
+        s3ConfigBean.sseConfig.useCustomerSSEKey ? AmazonS3Util.getSSECustomerKey(
+            s3ConfigBean.sseConfig.customerKey,
+            s3ConfigBean.sseConfig.customerKeyMd5
+        ) : null,
+        rangedReadExecutor
+    );
+  }
+
   //For whole file we do not care whether it is a preview or not,
   //as the record is just the metadata along with file ref.
   private void handleWholeFileDataFormat(S3ObjectSummary s3ObjectSummary, String recordId) throws StageException {
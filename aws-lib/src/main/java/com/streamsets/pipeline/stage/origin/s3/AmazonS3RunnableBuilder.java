@@ -18,6 +18,8 @@ package com.streamsets.pipeline.stage.origin.s3;
 
 import com.streamsets.pipeline.api.PushSource;
 
+import java.util.concurrent.ExecutorService;
+
 public class AmazonS3RunnableBuilder {
   private PushSource.Context context;
   private int batchSize;
@@ -25,6 +27,7 @@ public class AmazonS3RunnableBuilder {
   private S3Spooler spooler;
   private AmazonS3Source amazonS3Source;
   private int threadNumber;
+  private ExecutorService rangedReadExecutor;
 
   public AmazonS3RunnableBuilder() {
   }
@@ -59,7 +62,20 @@ public class AmazonS3RunnableBuilder {
     return this;
   }
 
+  public AmazonS3RunnableBuilder rangedReadExecutor(ExecutorService rangedReadExecutor) {
+    this.rangedReadExecutor = rangedReadExecutor;
+    return this;
+  }
+
   public AmazonS3Runnable build() {
-    return new AmazonS3Runnable(context, batchSize, threadNumber, s3ConfigBean, spooler, amazonS3Source);
+    return new AmazonS3Runnable(
+        context,
+        batchSize,
+        threadNumber,
+        s3ConfigBean,
+        spooler,
+        amazonS3Source,
+        rangedReadExecutor
+    );
   }
 }
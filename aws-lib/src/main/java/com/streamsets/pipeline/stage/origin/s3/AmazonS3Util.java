@@ -15,6 +15,7 @@
  */
 package com.streamsets.pipeline.stage.origin.s3;
 
+import com.amazonaws.AbortedException;
 import com.amazonaws.AmazonClientException;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.Headers;
@@ -24,10 +25,12 @@ import com.amazonaws.services.s3.model.DeleteObjectRequest;
 import com.amazonaws.services.s3.model.GetObjectRequest;
 import com.amazonaws.services.s3.model.ListObjectsRequest;
 import com.amazonaws.services.s3.model.ObjectListing;
+import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.S3Object;
 import com.amazonaws.services.s3.model.S3ObjectSummary;
 import com.amazonaws.services.s3.model.SSECustomerKey;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
 import com.streamsets.pipeline.api.InterfaceAudience;
 import com.streamsets.pipeline.api.InterfaceStability;
 import com.streamsets.pipeline.api.StageException;
@@ -37,17 +40,32 @@ import org.jetbrains.annotations.NotNull;
 import org.json.JSONObject;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 @InterfaceAudience.Private
 @InterfaceStability.Unstable
 public class AmazonS3Util {
 
   public static final int BATCH_SIZE = 1000;
+  private static final int MAX_SHARD_DEPTH = 3;
+
+  private static final Comparator<S3ObjectSummary> CHRONOLOGICAL_ORDER = (o1, o2) -> {
+    int result = o1.getLastModified().compareTo(o2.getLastModified());
+    if(result != 0) {
+      return result;
+    }
+    //same modified time. Use name to sort
+    return o1.getKey().compareTo(o2.getKey());
+  };
 
   private AmazonS3Util() {}
 
@@ -149,14 +167,7 @@ public class AmazonS3Util {
     //Algorithm:
     // - Full scan all objects that match the file name pattern and which are later than the file in the offset
     // - Select the oldest "fetchSize" number of files and return them.
-    TreeSet<S3ObjectSummary> treeSet = new TreeSet<>((o1, o2) -> {
-      int result = o1.getLastModified().compareTo(o2.getLastModified());
-      if(result != 0) {
-        //same modified time. Use name to sort
-        return result;
-      }
-      return o1.getKey().compareTo(o2.getKey());
-    });
+    TreeSet<S3ObjectSummary> treeSet = new TreeSet<>(CHRONOLOGICAL_ORDER);
 
     S3Objects s3ObjectSummaries = S3Objects
       .withPrefix(s3Client, s3ConfigBean.s3Config.bucket, s3ConfigBean.s3Config.commonPrefix);
@@ -186,6 +197,238 @@ public class AmazonS3Util {
     return new ArrayList<>(treeSet);
   }
 
+  /**
+   * Lists objects in lexicographical order like {@link #listObjectsLexicographically}, but lists the key prefixes
+   * below the common prefix in parallel.
+   *
+   * Shards are disjoint and sorted, so they are listed in waves of as many shards as there are listing threads until
+   * enough objects were found: all keys of a shard that wasn't listed yet sort after the keys already found.
+   *
+   * @param executor executor to list shards with
+   * @param listingThreads number of shards to list at the same time
+   * @throws AmazonClientException
+   */
+  static List<S3ObjectSummary> listObjectsLexicographically(
+      AmazonS3 s3Client,
+      S3ConfigBean s3ConfigBean,
+      AntPathMatcher pathMatcher,
+      S3Offset s3Offset,
+      int fetchSize,
+      ExecutorService executor,
+      int listingThreads
+  ) {
+    List<S3ObjectSummary> list = new ArrayList<>(fetchSize);
+    String marker = s3Offset.getKey();
+    if (marker != null && !marker.isEmpty() && parseOffset(s3Offset) != -1) {
+      list.add(getObjectSummary(s3Client, s3ConfigBean.s3Config.bucket, marker));
+    }
+
+    List<S3ObjectSummary> directObjects = new ArrayList<>();
+    List<String> shards = getShardPrefixes(s3Client, s3ConfigBean, listingThreads, directObjects);
+
+    Comparator<S3ObjectSummary> byKey = Comparator.comparing(S3ObjectSummary::getKey);
+    TreeSet<S3ObjectSummary> found = new TreeSet<>(byKey);
+    for (S3ObjectSummary s : directObjects) {
+      if ((marker == null || s.getKey().compareTo(marker) > 0) && matches(s3ConfigBean, pathMatcher, s)) {
+        found.add(s);
+      }
+    }
+
+    int remaining = fetchSize - list.size();
+    int listedMatches = 0;
+    for (int i = 0; i < shards.size() && listedMatches < remaining; i += listingThreads) {
+      List<Future<List<S3ObjectSummary>>> futures = new ArrayList<>();
+      for (String shard : shards.subList(i, Math.min(i + listingThreads, shards.size()))) {
+        futures.add(executor.submit(() -> listShardLexicographically(
+            s3Client,
+            s3ConfigBean,
+            pathMatcher,
+            shard,
+            marker,
+            remaining
+        )));
+      }
+      for (List<S3ObjectSummary> shardObjects : getAll(futures)) {
+        listedMatches += shardObjects.size();
+        found.addAll(shardObjects);
+      }
+    }
+
+    for (S3ObjectSummary s : found) {
+      if (list.size() == fetchSize) {
+        break;
+      }
+      list.add(s);
+    }
+    return list;
+  }
+
+  private static List<S3ObjectSummary> listShardLexicographically(
+      AmazonS3 s3Client,
+      S3ConfigBean s3ConfigBean,
+      AntPathMatcher pathMatcher,
+      String shard,
+      String marker,
+      int fetchSize
+  ) {
+    List<S3ObjectSummary> list = new ArrayList<>();
+    ListObjectsRequest listObjectsRequest = new ListObjectsRequest();
+    listObjectsRequest.setBucketName(s3ConfigBean.s3Config.bucket);
+    listObjectsRequest.setPrefix(shard);
+    listObjectsRequest.setMaxKeys(BATCH_SIZE);
+    if (marker != null && marker.compareTo(shard) > 0) {
+      if (!marker.startsWith(shard)) {
+        // The whole shard sorts before the marker
+        return list;
+      }
+      listObjectsRequest.setMarker(marker);
+    }
+
+    ObjectListing objectListing = s3Client.listObjects(listObjectsRequest);
+    while (true) {
+      for (S3ObjectSummary s : objectListing.getObjectSummaries()) {
+        if (matches(s3ConfigBean, pathMatcher, s)) {
+          list.add(s);
+          if (list.size() == fetchSize) {
+            return list;
+          }
+        }
+      }
+      if (!objectListing.isTruncated()) {
+        return list;
+      }
+      objectListing = s3Client.listNextBatchOfObjects(objectListing);
+    }
+  }
+
+  /**
+   * Lists objects in chronological order like {@link #listObjectsChronologically}, but scans the key prefixes below
+   * the common prefix in parallel. Each shard keeps its own oldest "fetchSize" objects which are then merged.
+   *
+   * @param executor executor to list shards with
+   * @param listingThreads minimum number of shards to split the common prefix into
+   * @throws AmazonClientException
+   */
+  static List<S3ObjectSummary> listObjectsChronologically(
+      AmazonS3 s3Client,
+      S3ConfigBean s3ConfigBean,
+      AntPathMatcher pathMatcher,
+      S3Offset s3Offset,
+      int fetchSize,
+      ExecutorService executor,
+      int listingThreads
+  ) {
+    List<S3ObjectSummary> directObjects = new ArrayList<>();
+    List<String> shards = getShardPrefixes(s3Client, s3ConfigBean, listingThreads, directObjects);
+
+    List<Future<TreeSet<S3ObjectSummary>>> futures = new ArrayList<>(shards.size());
+    for (String shard : shards) {
+      futures.add(executor.submit(() -> {
+        TreeSet<S3ObjectSummary> treeSet = new TreeSet<>(CHRONOLOGICAL_ORDER);
+        for (S3ObjectSummary s : S3Objects.withPrefix(s3Client, s3ConfigBean.s3Config.bucket, shard)) {
+          addEligible(treeSet, s, s3ConfigBean, pathMatcher, s3Offset, fetchSize);
+        }
+        return treeSet;
+      }));
+    }
+
+    TreeSet<S3ObjectSummary> treeSet = new TreeSet<>(CHRONOLOGICAL_ORDER);
+    for (S3ObjectSummary s : directObjects) {
+      addEligible(treeSet, s, s3ConfigBean, pathMatcher, s3Offset, fetchSize);
+    }
+    for (TreeSet<S3ObjectSummary> shardObjects : getAll(futures)) {
+      for (S3ObjectSummary s : shardObjects) {
+        treeSet.add(s);
+        if (treeSet.size() > fetchSize) {
+          treeSet.pollLast();
+        }
+      }
+    }
+    return new ArrayList<>(treeSet);
+  }
+
+  private static void addEligible(
+      TreeSet<S3ObjectSummary> treeSet,
+      S3ObjectSummary s,
+      S3ConfigBean s3ConfigBean,
+      AntPathMatcher pathMatcher,
+      S3Offset s3Offset,
+      int fetchSize
+  ) {
+    if (matches(s3ConfigBean, pathMatcher, s) && isEligible(s, s3Offset)) {
+      treeSet.add(s);
+      if (treeSet.size() > fetchSize) {
+        treeSet.pollLast();
+      }
+    }
+  }
+
+  private static boolean matches(S3ConfigBean s3ConfigBean, AntPathMatcher pathMatcher, S3ObjectSummary s) {
+    String remainingPrefix = s.getKey().substring(s3ConfigBean.s3Config.commonPrefix.length());
+    return !remainingPrefix.isEmpty() && pathMatcher.match(s3ConfigBean.s3FileConfig.prefixPattern, remainingPrefix);
+  }
+
+  /**
+   * Splits the common prefix into disjoint key prefixes that can be listed independently. Prefixes are expanded one
+   * delimiter level at a time until there are at least minShards of them or nothing is left to expand. Objects that
+   * live directly under an expanded prefix are not part of any shard and are returned in directObjects instead.
+   *
+   * @return shard prefixes in lexicographical order
+   */
+  @VisibleForTesting
+  static List<String> getShardPrefixes(
+      AmazonS3 s3Client,
+      S3ConfigBean s3ConfigBean,
+      int minShards,
+      List<S3ObjectSummary> directObjects
+  ) {
+    List<String> shards = new ArrayList<>();
+    shards.add(s3ConfigBean.s3Config.commonPrefix);
+
+    for (int depth = 0; depth < MAX_SHARD_DEPTH && shards.size() < minShards; depth++) {
+      List<String> expanded = new ArrayList<>();
+      for (String prefix : shards) {
+        ListObjectsRequest listObjectsRequest = new ListObjectsRequest()
+            .withBucketName(s3ConfigBean.s3Config.bucket)
+            .withPrefix(prefix)
+            .withDelimiter(s3ConfigBean.s3Config.delimiter)
+            .withMaxKeys(BATCH_SIZE);
+        ObjectListing objectListing = s3Client.listObjects(listObjectsRequest);
+        while (true) {
+          directObjects.addAll(objectListing.getObjectSummaries());
+          expanded.addAll(objectListing.getCommonPrefixes());
+          if (!objectListing.isTruncated()) {
+            break;
+          }
+          objectListing = s3Client.listNextBatchOfObjects(objectListing);
+        }
+      }
+      Collections.sort(expanded);
+      shards = expanded;
+    }
+    return shards;
+  }
+
+  private static <T> List<T> getAll(List<Future<T>> futures) {
+    List<T> results = new ArrayList<>(futures.size());
+    try {
+      for (Future<T> future : futures) {
+        results.add(future.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new AbortedException(e);
+    } catch (ExecutionException e) {
+      Throwables.propagateIfPossible(e.getCause());
+      throw new AmazonClientException(e.getCause());
+    } finally {
+      for (Future<T> future : futures) {
+        future.cancel(true);
+      }
+    }
+    return results;
+  }
+
   private static boolean isEligible(S3ObjectSummary s, S3Offset s3Offset) {
 
     //The object is eligible if
@@ -235,9 +478,7 @@ public class AmazonS3Util {
   ) throws StageException {
     GetObjectRequest getObjectRequest = new GetObjectRequest(bucket, objectKey);
     if (useSSE) {
-      SSECustomerKey sseCustomerKey = new SSECustomerKey(customerKey.get());
-      sseCustomerKey.setMd5(customerKeyMd5.get());
-      getObjectRequest.setSSECustomerKey(sseCustomerKey);
+      getObjectRequest.setSSECustomerKey(getSSECustomerKey(customerKey, customerKeyMd5));
     }
     return s3Client.getObject(getObjectRequest);
   }
@@ -280,23 +521,29 @@ public class AmazonS3Util {
   ) throws StageException {
     GetObjectRequest getObjectRequest = new GetObjectRequest(bucket, objectKey).withRange(0, range);
     if (useSSE) {
-      SSECustomerKey sseCustomerKey = new SSECustomerKey(customerKey.get());
-      sseCustomerKey.setMd5(customerKeyMd5.get());
-      getObjectRequest.setSSECustomerKey(sseCustomerKey);
+      getObjectRequest.setSSECustomerKey(getSSECustomerKey(customerKey, customerKeyMd5));
     }
     return s3Client.getObject(getObjectRequest);
   }
 
+  static SSECustomerKey getSSECustomerKey(CredentialValue customerKey, CredentialValue customerKeyMd5)
+      throws StageException {
+    SSECustomerKey sseCustomerKey = new SSECustomerKey(customerKey.get());
+    sseCustomerKey.setMd5(customerKeyMd5.get());
+    return sseCustomerKey;
+  }
+
   @NotNull
   private static S3ObjectSummary getObjectSummary(AmazonS3 s3Client, String bucket, String key) {
-    S3Object currentObject = s3Client.getObject(bucket, key);
+    // Only the metadata is needed, don't open (and leak) the object content
+    ObjectMetadata metadata = s3Client.getObjectMetadata(bucket, key);
     S3ObjectSummary currentObjectSummary = new S3ObjectSummary();
-    currentObjectSummary.setBucketName(currentObject.getBucketName());
-    currentObjectSummary.setKey(currentObject.getKey());
-    currentObjectSummary.setETag(currentObject.getObjectMetadata().getETag());
-    currentObjectSummary.setSize(currentObject.getObjectMetadata().getContentLength());
-    currentObjectSummary.setLastModified(currentObject.getObjectMetadata().getLastModified());
-    currentObjectSummary.setStorageClass(currentObject.getObjectMetadata().getStorageClass());
+    currentObjectSummary.setBucketName(bucket);
+    currentObjectSummary.setKey(key);
+    currentObjectSummary.setETag(metadata.getETag());
+    currentObjectSummary.setSize(metadata.getContentLength());
+    currentObjectSummary.setLastModified(metadata.getLastModified());
+    currentObjectSummary.setStorageClass(metadata.getStorageClass());
     return currentObjectSummary;
   }
 
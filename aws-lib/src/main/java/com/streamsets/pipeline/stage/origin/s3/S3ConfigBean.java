@@ -83,6 +83,47 @@ public class S3ConfigBean {
   )
   public int numberOfThreads = 1;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "1",
+      label = "Listing Threads",
+      description = "Number of threads listing key prefixes below the common prefix in parallel. With timestamp " +
+          "ordering, objects found by a parallel scan are also kept to serve the next listings",
+      displayPosition = 70,
+      group = "ADVANCED",
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      min = 1
+  )
+  public int listingThreads = 1;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "0",
+      label = "Ranged Read-Ahead Parts",
+      description = "Number of byte ranges of a large object fetched in parallel ahead of the parser. " +
+          "Use 0 to read each object with a single request",
+      displayPosition = 80,
+      group = "ADVANCED",
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      min = 0
+  )
+  public int rangedReadParts = 0;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "8",
+      label = "Ranged Read Part Size (MB)",
+      description = "Size of each byte range. Objects smaller than two parts are read with a single request",
+      displayPosition = 90,
+      group = "ADVANCED",
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      min = 1
+  )
+  public int rangedReadPartSize = 8;
+
   public void init(Stage.Context context, List<Stage.ConfigIssue> issues) {
     s3FileConfig.init(context, issues);
     basicConfig.init(context, Groups.S3.name(), BASIC_CONFIG_PREFIX, issues);
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.s3;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.SSECustomerKey;
+import com.streamsets.pipeline.api.impl.Utils;
+import org.apache.commons.io.IOUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Reads an object as consecutive byte ranges, keeping a number of ranged GETs in flight ahead of the reader so that
+ * the parser doesn't wait on a single connection's throughput. Every range is requested with the ETag of the first
+ * one, so an object that is overwritten while it's being read fails instead of mixing two versions.
+ */
+final class S3RangedInputStream extends InputStream {
+  private static final byte[] EMPTY = new byte[0];
+
+  private final AmazonS3 s3Client;
+  private final String bucket;
+  private final String key;
+  private final String eTag;
+  private final SSECustomerKey sseCustomerKey;
+  private final long length;
+  private final long partSize;
+  private final int readAheadParts;
+  private final ExecutorService executor;
+  private final Deque<Future<byte[]>> pendingParts = new ArrayDeque<>();
+
+  private long nextPartStart;
+  private byte[] currentPart;
+  private int position;
+
+  /**
+   * @param firstPart already fetched first range of the object, its content is consumed and closed
+   * @param length total length of the object
+   */
+  S3RangedInputStream(
+      AmazonS3 s3Client,
+      S3Object firstPart,
+      long length,
+      long partSize,
+      int readAheadParts,
+      SSECustomerKey sseCustomerKey,
+      ExecutorService executor
+  ) throws IOException {
+    this.s3Client = s3Client;
+    this.bucket = firstPart.getBucketName();
+    this.key = firstPart.getKey();
+    this.eTag = firstPart.getObjectMetadata().getETag();
+    this.sseCustomerKey = sseCustomerKey;
+    this.length = length;
+    this.partSize = partSize;
+    this.readAheadParts = readAheadParts;
+    this.executor = executor;
+    try (InputStream content = firstPart.getObjectContent()) {
+      currentPart = IOUtils.toByteArray(content);
+    }
+    nextPartStart = currentPart.length;
+    scheduleParts();
+  }
+
+  private void scheduleParts() {
+    while (pendingParts.size() < readAheadParts && nextPartStart < length) {
+      final long start = nextPartStart;
+      final long end = Math.min(start + partSize, length) - 1;
+      pendingParts.add(executor.submit(() -> fetchPart(start, end)));
+      nextPartStart = end + 1;
+    }
+  }
+
+  private byte[] fetchPart(long start, long end) throws IOException {
+    GetObjectRequest request = new GetObjectRequest(bucket, key)
+        .withRange(start, end)
+        .withMatchingETagConstraint(eTag);
+    if (sseCustomerKey != null) {
+      request.setSSECustomerKey(sseCustomerKey);
+    }
+    S3Object object = s3Client.getObject(request);
+    if (object == null) {
+      // Constraint not met, the object was overwritten
+      throw new IOException(Utils.format("Object '{}' was modified while being read", key));
+    }
+    try (InputStream content = object.getObjectContent()) {
+      byte[] part = IOUtils.toByteArray(content);
+      if (part.length != end - start + 1) {
+        throw new IOException(Utils.format(
+            "Expected {} bytes from offset {} of object '{}', got {}",
+            end - start + 1,
+            start,
+            key,
+            part.length
+        ));
+      }
+      return part;
+    }
+  }
+
+  private boolean nextPart() throws IOException {
+    Future<byte[]> future = pendingParts.poll();
+    if (future == null) {
+      return false;
+    }
+    try {
+      currentPart = future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException(Utils.format("Interrupted while reading object '{}'", key));
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      if (e.getCause() instanceof AmazonClientException) {
+        throw (AmazonClientException) e.getCause();
+      }
+      throw new IOException(e.getCause());
+    }
+    position = 0;
+    scheduleParts();
+    return true;
+  }
+
+  @Override
+  public int read() throws IOException {
+    while (position >= currentPart.length) {
+      if (!nextPart()) {
+        return -1;
+      }
+    }
+    return currentPart[position++] & 0xFF;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    while (position >= currentPart.length) {
+      if (!nextPart()) {
+        return -1;
+      }
+    }
+    int read = Math.min(len, currentPart.length - position);
+    System.arraycopy(currentPart, position, b, off, read);
+    position += read;
+    return read;
+  }
+
+  @Override
+  public int available() {
+    return currentPart.length - position;
+  }
+
+  @Override
+  public void close() {
+    for (Future<byte[]> future : pendingParts) {
+      future.cancel(true);
+    }
+    pendingParts.clear();
+    nextPartStart = length;
+    currentPart = EMPTY;
+    position = 0;
+  }
+}
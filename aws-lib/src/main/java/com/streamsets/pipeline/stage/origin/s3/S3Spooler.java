@@ -24,6 +24,7 @@ import com.amazonaws.services.s3.model.S3ObjectSummary;
 import com.codahale.metrics.Meter;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.streamsets.pipeline.api.BatchContext;
 import com.streamsets.pipeline.api.PushSource;
 import com.streamsets.pipeline.api.impl.Utils;
@@ -33,16 +34,23 @@ import com.streamsets.pipeline.stage.lib.aws.AWSUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.Deque;
 import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class S3Spooler {
 
   private static final Logger LOG = LoggerFactory.getLogger(S3Spooler.class);
+  // With parallel listing, a timestamp ordered scan keeps this many pools worth of objects for the next cycles
+  private static final int LISTING_CURSOR_POOLS = 10;
 
   private final PushSource.Context context;
   private final S3ConfigBean s3ConfigBean;
@@ -63,6 +71,9 @@ public class S3Spooler {
   private volatile S3ObjectSummary currentObject;
   private ArrayBlockingQueue<S3ObjectSummary> objectQueue;
   private Meter spoolQueueMeter;
+  private ExecutorService listingExecutor;
+  // Objects already found by the last timestamp ordered scan that didn't fit into the queue yet
+  private final Deque<S3ObjectSummary> listingCursor = new ArrayDeque<>();
 
   public void init() {
     try {
@@ -70,6 +81,12 @@ public class S3Spooler {
       objectQueue = new ArrayBlockingQueue<>(s3ConfigBean.s3FileConfig.poolSize);
       spoolQueueMeter = context.createMeter("spoolQueue");
       pathMatcher = new AntPathMatcher(s3ConfigBean.s3Config.delimiter);
+      if (s3ConfigBean.listingThreads > 1) {
+        listingExecutor = Executors.newFixedThreadPool(
+            s3ConfigBean.listingThreads,
+            new ThreadFactoryBuilder().setNameFormat("Amazon S3 Listing - %d").setDaemon(true).build()
+        );
+      }
     } catch (Exception ex) {
       throw new RuntimeException(ex);
     }
@@ -80,6 +97,11 @@ public class S3Spooler {
       objectQueue.clear();
       objectQueue = null;
     }
+    if (listingExecutor != null) {
+      listingExecutor.shutdownNow();
+      listingExecutor = null;
+    }
+    listingCursor.clear();
   }
 
   private void findAndQueueObjects(
@@ -106,20 +128,35 @@ public class S3Spooler {
       ObjectOrdering objectOrdering = s3ConfigBean.s3FileConfig.objectOrdering;
       switch (objectOrdering) {
         case TIMESTAMP:
-          s3ObjectSummaries = AmazonS3Util.listObjectsChronologically(s3Client,
-              s3ConfigBean,
-              pathMatcher,
-              s3offset,
-              objectQueue.remainingCapacity()
-          );
+          if (listingExecutor != null) {
+            s3ObjectSummaries = listObjectsChronologicallyFromCursor(s3offset, objectQueue.remainingCapacity());
+          } else {
+            s3ObjectSummaries = AmazonS3Util.listObjectsChronologically(s3Client,
+                s3ConfigBean,
+                pathMatcher,
+                s3offset,
+                objectQueue.remainingCapacity()
+            );
+          }
           break;
         case LEXICOGRAPHICAL:
-          s3ObjectSummaries = AmazonS3Util.listObjectsLexicographically(s3Client,
-              s3ConfigBean,
-              pathMatcher,
-              s3offset,
-              objectQueue.remainingCapacity()
-          );
+          if (listingExecutor != null) {
+            s3ObjectSummaries = AmazonS3Util.listObjectsLexicographically(s3Client,
+                s3ConfigBean,
+                pathMatcher,
+                s3offset,
+                objectQueue.remainingCapacity(),
+                listingExecutor,
+                s3ConfigBean.listingThreads
+            );
+          } else {
+            s3ObjectSummaries = AmazonS3Util.listObjectsLexicographically(s3Client,
+                s3ConfigBean,
+                pathMatcher,
+                s3offset,
+                objectQueue.remainingCapacity()
+            );
+          }
           break;
         default:
           throw new IllegalArgumentException("Unknown ordering: " + objectOrdering.getLabel());
@@ -156,6 +193,29 @@ public class S3Spooler {
     }
   }
 
+  /**
+   * A timestamp ordered listing has to scan the whole common prefix, so a parallel scan keeps the oldest few pools
+   * worth of objects and serves the following cycles from them. Objects uploaded meanwhile are newer than all of
+   * them and are picked up by the next scan, once the cursor is drained.
+   */
+  private List<S3ObjectSummary> listObjectsChronologicallyFromCursor(S3Offset s3offset, int fetchSize) {
+    if (listingCursor.isEmpty()) {
+      listingCursor.addAll(AmazonS3Util.listObjectsChronologically(s3Client,
+          s3ConfigBean,
+          pathMatcher,
+          s3offset,
+          (int) Math.min((long) fetchSize * LISTING_CURSOR_POOLS, Integer.MAX_VALUE),
+          listingExecutor,
+          s3ConfigBean.listingThreads
+      ));
+    }
+    List<S3ObjectSummary> s3ObjectSummaries = new ArrayList<>(fetchSize);
+    while (s3ObjectSummaries.size() < fetchSize && !listingCursor.isEmpty()) {
+      s3ObjectSummaries.add(listingCursor.poll());
+    }
+    return s3ObjectSummaries;
+  }
+
   private void addObjectToQueue(S3ObjectSummary objectSummary) {
   Preconditions.checkNotNull(objectSummary, "file cannot be null");
   if (objectSummary.getKey().endsWith("/")) {
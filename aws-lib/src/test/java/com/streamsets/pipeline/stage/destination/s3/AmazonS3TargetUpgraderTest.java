@@ -15,7 +15,11 @@
  */
 package com.streamsets.pipeline.stage.destination.s3;
 
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.config.upgrade.UpgraderTestUtils;
 import com.streamsets.pipeline.stage.common.S3CommonUpgraderTest;
+import org.junit.Test;
+import org.mockito.Mockito;
 
 public class AmazonS3TargetUpgraderTest extends S3CommonUpgraderTest {
 
@@ -38,4 +42,17 @@ public class AmazonS3TargetUpgraderTest extends S3CommonUpgraderTest {
   protected String getPrefix() {
     return "s3TargetConfigBean.";
   }
+
+  @Test
+  public void testV13ToV14Upgrade() throws StageException {
+    Mockito.doReturn(13).when(context).getFromVersion();
+    Mockito.doReturn(14).when(context).getToVersion();
+
+    configs = upgrader.upgrade(configs, context);
+
+    UpgraderTestUtils.assertExists(configs, getPrefix() + "streamMultipartUploads", false);
+    UpgraderTestUtils.assertExists(configs, getPrefix() + "maxObjectSize", 128);
+    UpgraderTestUtils.assertExists(configs, getPrefix() + "maxRecordsPerObject", 0);
+    UpgraderTestUtils.assertExists(configs, getPrefix() + "completeOrphanedUploads", false);
+  }
 }
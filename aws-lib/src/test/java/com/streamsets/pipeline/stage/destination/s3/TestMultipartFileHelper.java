@@ -0,0 +1,415 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.destination.s3;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadResult;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
+import com.amazonaws.services.s3.model.ListMultipartUploadsRequest;
+import com.amazonaws.services.s3.model.ListPartsRequest;
+import com.amazonaws.services.s3.model.MultipartUpload;
+import com.amazonaws.services.s3.model.MultipartUploadListing;
+import com.amazonaws.services.s3.model.PartListing;
+import com.amazonaws.services.s3.model.PartSummary;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
+import com.google.common.base.Strings;
+import com.streamsets.pipeline.api.EventRecord;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.Stage;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.api.Target;
+import com.streamsets.pipeline.api.service.dataformats.DataFormatGeneratorService;
+import com.streamsets.pipeline.sdk.RecordCreator;
+import com.streamsets.pipeline.sdk.TargetRunner;
+import com.streamsets.pipeline.sdk.service.SdkJsonDataFormatGeneratorService;
+import com.streamsets.pipeline.stage.common.TestUtil;
+import com.streamsets.pipeline.stage.common.s3.AwsS3Connection;
+import com.streamsets.pipeline.stage.lib.aws.AWSConfig;
+import com.streamsets.pipeline.stage.lib.aws.AwsRegion;
+import com.streamsets.pipeline.stage.lib.aws.ProxyConfig;
+import com.streamsets.pipeline.stage.lib.aws.TransferManagerConfig;
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class TestMultipartFileHelper {
+
+  private static final String BUCKET_NAME = "mybucket";
+  private static final String PREFIX = "multipart";
+
+  // uploadId -> key and uploaded parts of uploads in progress, key -> content of completed objects
+  private Map<String, String> uploadKeys;
+  private Map<String, List<byte[]>> uploadParts;
+  private Map<String, byte[]> objects;
+  private Map<String, List<byte[]>> objectParts;
+  private AmazonS3 s3Client;
+
+  @Before
+  public void setUp() throws Exception {
+    uploadKeys = new LinkedHashMap<>();
+    uploadParts = new LinkedHashMap<>();
+    objectParts = new LinkedHashMap<>();
+    objects = new LinkedHashMap<>();
+    s3Client = Mockito.mock(AmazonS3.class);
+
+    Mockito.doAnswer(invocation -> {
+      InitiateMultipartUploadRequest request = (InitiateMultipartUploadRequest) invocation.getArguments()[0];
+      String uploadId = "upload-" + uploadKeys.size();
+      uploadKeys.put(uploadId, request.getKey());
+      uploadParts.put(uploadId, new ArrayList<>());
+      InitiateMultipartUploadResult result = new InitiateMultipartUploadResult();
+      result.setUploadId(uploadId);
+      return result;
+    }).when(s3Client).initiateMultipartUpload(Mockito.any(InitiateMultipartUploadRequest.class));
+
+    Mockito.doAnswer(invocation -> {
+      UploadPartRequest request = (UploadPartRequest) invocation.getArguments()[0];
+      List<byte[]> parts = uploadParts.get(request.getUploadId());
+      Assert.assertEquals(parts.size() + 1, request.getPartNumber());
+      parts.add(IOUtils.toByteArray(request.getInputStream()));
+      UploadPartResult result = new UploadPartResult();
+      result.setPartNumber(request.getPartNumber());
+      result.setETag("etag-" + request.getPartNumber());
+      return result;
+    }).when(s3Client).uploadPart(Mockito.any(UploadPartRequest.class));
+
+    Mockito.doAnswer(invocation -> {
+      CompleteMultipartUploadRequest request = (CompleteMultipartUploadRequest) invocation.getArguments()[0];
+      List<byte[]> parts = uploadParts.remove(request.getUploadId());
+      Assert.assertEquals(parts.size(), request.getPartETags().size());
+      ByteArrayOutputStream content = new ByteArrayOutputStream();
+      for (byte[] part : parts) {
+        content.write(part);
+      }
+      String key = uploadKeys.remove(request.getUploadId());
+      objects.put(key, content.toByteArray());
+      objectParts.put(key, parts);
+      return new CompleteMultipartUploadResult();
+    }).when(s3Client).completeMultipartUpload(Mockito.any(CompleteMultipartUploadRequest.class));
+
+    Mockito.doAnswer(invocation -> {
+      AbortMultipartUploadRequest request = (AbortMultipartUploadRequest) invocation.getArguments()[0];
+      uploadParts.remove(request.getUploadId());
+      uploadKeys.remove(request.getUploadId());
+      return null;
+    }).when(s3Client).abortMultipartUpload(Mockito.any(AbortMultipartUploadRequest.class));
+
+    Mockito.doAnswer(invocation -> {
+      ListMultipartUploadsRequest request = (ListMultipartUploadsRequest) invocation.getArguments()[0];
+      List<MultipartUpload> uploads = new ArrayList<>();
+      for (Map.Entry<String, String> entry : uploadKeys.entrySet()) {
+        if (entry.getValue().startsWith(request.getPrefix())) {
+          MultipartUpload upload = new MultipartUpload();
+          upload.setUploadId(entry.getKey());
+          upload.setKey(entry.getValue());
+          uploads.add(upload);
+        }
+      }
+      MultipartUploadListing listing = new MultipartUploadListing();
+      listing.setMultipartUploads(uploads);
+      return listing;
+    }).when(s3Client).listMultipartUploads(Mockito.any(ListMultipartUploadsRequest.class));
+
+    Mockito.doAnswer(invocation -> {
+      ListPartsRequest request = (ListPartsRequest) invocation.getArguments()[0];
+      List<PartSummary> parts = new ArrayList<>();
+      for (int i = 1; i <= uploadParts.get(request.getUploadId()).size(); i++) {
+        PartSummary part = new PartSummary();
+        part.setPartNumber(i);
+        part.setETag("etag-" + i);
+        parts.add(part);
+      }
+      PartListing listing = new PartListing();
+      listing.setParts(parts);
+      return listing;
+    }).when(s3Client).listParts(Mockito.any(ListPartsRequest.class));
+  }
+
+  @Test
+  public void testObjectsCompletedAtEndOfBatch() throws Exception {
+    TargetRunner targetRunner = createRunner(createConfig(0, 0, 5 * 1024 * 1024));
+    targetRunner.runInit();
+    String ownerTag = MultipartFileHelper.getOwnerTag(targetRunner.getContext());
+
+    targetRunner.runWrite(TestUtil.createStringRecords(BUCKET_NAME));
+
+    // Everything the batch wrote is durable before its offset gets committed
+    Assert.assertTrue(uploadKeys.isEmpty());
+    Assert.assertEquals(1, objects.size());
+    Assert.assertEquals(1, targetRunner.getEventRecords().size());
+
+    targetRunner.runWrite(TestUtil.createStringRecords(BUCKET_NAME));
+
+    Assert.assertTrue(uploadKeys.isEmpty());
+    Assert.assertEquals(2, objects.size());
+    for (String key : objects.keySet()) {
+      Assert.assertTrue(key.startsWith(PREFIX + "/sdc-" + ownerTag + "-"));
+      Assert.assertTrue(key.endsWith(".txt"));
+      Assert.assertEquals(9, getLines(key).size());
+    }
+
+    targetRunner.runDestroy();
+    Assert.assertEquals(2, objects.size());
+  }
+
+  @Test
+  public void testRollOnRecordCount() throws Exception {
+    TargetRunner targetRunner = createRunner(createConfig(0, 5, 5 * 1024 * 1024));
+    targetRunner.runInit();
+
+    targetRunner.runWrite(TestUtil.createStringRecords(BUCKET_NAME));
+
+    Assert.assertEquals(2, objects.size());
+    List<EventRecord> events = targetRunner.getEventRecords();
+    Assert.assertEquals(2, events.size());
+    Assert.assertEquals(5, events.get(0).get("/recordCount").getValueAsLong());
+    Assert.assertEquals(5, getLines(events.get(0).get("/objectKey").getValueAsString()).size());
+    Assert.assertEquals(4, events.get(1).get("/recordCount").getValueAsLong());
+    Assert.assertEquals(4, getLines(events.get(1).get("/objectKey").getValueAsString()).size());
+
+    targetRunner.runDestroy();
+  }
+
+  @Test
+  public void testPartsEndOnRecordBoundary() throws Exception {
+    TargetRunner targetRunner = createRunner(createConfig(0, 0, 5 * 1024 * 1024));
+    targetRunner.runInit();
+
+    // 2 MB records, a part is cut after every third record
+    targetRunner.runWrite(createLargeRecords(4, 2 * 1024 * 1024));
+
+    String key = objects.keySet().iterator().next();
+    List<byte[]> parts = objectParts.get(key);
+    Assert.assertEquals(2, parts.size());
+    for (byte[] part : parts) {
+      // every record is a quoted JSON string, a part never ends in the middle of one
+      Assert.assertEquals('"', part[part.length - 1]);
+    }
+    Assert.assertEquals(4, getLines(key).size());
+
+    targetRunner.runDestroy();
+  }
+
+  @Test
+  public void testMinimumPartSize() throws Exception {
+    TargetRunner targetRunner = createRunner(createConfig(0, 0, 1024));
+    List<Stage.ConfigIssue> issues = targetRunner.runValidateConfigs();
+    Assert.assertEquals(1, issues.size());
+    Assert.assertTrue(issues.get(0).toString().contains(Errors.S3_53.name()));
+  }
+
+  @Test
+  public void testOrphanedUploadAborted() throws Exception {
+    testOrphanedUpload(false);
+  }
+
+  @Test
+  public void testOrphanedUploadCompleted() throws Exception {
+    testOrphanedUpload(true);
+  }
+
+  private void testOrphanedUpload(boolean completeOrphanedUploads) throws Exception {
+    S3TargetConfigBean config = createConfig(0, 0, 5 * 1024 * 1024);
+    config.s3Config.bucketTemplate = BUCKET_NAME;
+    config.completeOrphanedUploads = completeOrphanedUploads;
+    TargetRunner targetRunner = createRunner(config);
+    String orphanKey = PREFIX + "/sdc-" + MultipartFileHelper.getOwnerTag(targetRunner.getContext()) + "-1-1.txt";
+    addUpload("orphan", orphanKey, "\"orphaned\"\n");
+    // In progress uploads of other pipelines and runners writing to the same prefix
+    addUpload("sibling", PREFIX + "/sdc-0123456789abcdef-1-1.txt", "\"sibling\"\n");
+    addUpload("other", PREFIX + "/other-1-1.txt", "\"other\"\n");
+
+    // A bucket that doesn't depend on the records is recovered before the first batch
+    targetRunner.runInit();
+
+    Assert.assertFalse(uploadKeys.containsKey("orphan"));
+    Assert.assertEquals(completeOrphanedUploads, objects.containsKey(orphanKey));
+    Assert.assertTrue(uploadKeys.containsKey("sibling"));
+    Assert.assertTrue(uploadKeys.containsKey("other"));
+
+    targetRunner.runDestroy();
+  }
+
+  @Test
+  public void testOrphanedUploadWithoutFileNamePrefix() throws Exception {
+    S3TargetConfigBean config = createConfig(0, 0, 5 * 1024 * 1024);
+    config.fileNamePrefix = "";
+    Target.Context context = createContext("s3_1");
+    String orphanKey = PREFIX + "/" + MultipartFileHelper.getOwnerTag(context) + "-1-1.txt";
+    addUpload("orphan", orphanKey, "\"orphaned\"\n");
+
+    new MultipartFileHelper(context, config, null, s3Client, false).recoverOrphanedUploads(BUCKET_NAME);
+
+    Assert.assertFalse(uploadKeys.containsKey("orphan"));
+  }
+
+  @Test
+  public void testStagesOfSamePipelineKeepTheirUploads() throws Exception {
+    S3TargetConfigBean config = createConfig(0, 0, 5 * 1024 * 1024);
+    Target.Context context = createContext("s3_1");
+    Target.Context otherContext = createContext("s3_2");
+    Target.Context errorContext = createContext("errorStage");
+    Assert.assertNotEquals(MultipartFileHelper.getOwnerTag(context), MultipartFileHelper.getOwnerTag(otherContext));
+    Assert.assertNotEquals(MultipartFileHelper.getOwnerTag(context), MultipartFileHelper.getOwnerTag(errorContext));
+
+    addUpload("orphan", PREFIX + "/sdc-" + MultipartFileHelper.getOwnerTag(context) + "-1-1.txt", "\"orphaned\"\n");
+    addUpload("live", PREFIX + "/sdc-" + MultipartFileHelper.getOwnerTag(otherContext) + "-1-1.txt", "\"live\"\n");
+    addUpload("error", PREFIX + "/sdc-" + MultipartFileHelper.getOwnerTag(errorContext) + "-1-1.txt", "\"error\"\n");
+
+    new MultipartFileHelper(context, config, null, s3Client, false).recoverOrphanedUploads(BUCKET_NAME);
+
+    Assert.assertFalse(uploadKeys.containsKey("orphan"));
+    Assert.assertTrue(uploadKeys.containsKey("live"));
+    Assert.assertTrue(uploadKeys.containsKey("error"));
+  }
+
+  @Test
+  public void testNoRecoveryInPreview() throws Exception {
+    S3TargetConfigBean config = createConfig(0, 0, 5 * 1024 * 1024);
+    config.s3Config.bucketTemplate = BUCKET_NAME;
+    TargetRunner targetRunner = new TargetRunner.Builder(AmazonS3DTarget.class, new AmazonS3Target(config, false))
+        .addService(DataFormatGeneratorService.class, new SdkJsonDataFormatGeneratorService())
+        .setPreview(true)
+        .build();
+    String key = PREFIX + "/sdc-" + MultipartFileHelper.getOwnerTag(targetRunner.getContext()) + "-1-1.txt";
+    // Upload of the running pipeline that is being previewed at the same time
+    addUpload("running", key, "\"running\"\n");
+
+    targetRunner.runInit();
+    Assert.assertTrue(uploadKeys.containsKey("running"));
+    new MultipartFileHelper((Target.Context) targetRunner.getContext(), config, null, s3Client, false)
+        .recoverOrphanedUploads(BUCKET_NAME);
+    Assert.assertTrue(uploadKeys.containsKey("running"));
+
+    targetRunner.runDestroy();
+  }
+
+  @Test
+  public void testUnfinishedBatchAbortedOnRestart() throws Exception {
+    Mockito.doThrow(new AmazonClientException("failure"))
+        .when(s3Client).completeMultipartUpload(Mockito.any(CompleteMultipartUploadRequest.class));
+
+    TargetRunner targetRunner = createRunner(createConfig(0, 0, 5 * 1024 * 1024));
+    targetRunner.runInit();
+    try {
+      targetRunner.runWrite(TestUtil.createStringRecords(BUCKET_NAME));
+      Assert.fail("Write should fail when the object can't be completed");
+    } catch (StageException e) {
+      Assert.assertEquals(Errors.S3_21, e.getErrorCode());
+    }
+    targetRunner.runDestroy();
+    Assert.assertEquals(1, uploadKeys.size());
+
+    // The next run of the same runner discards the upload of the batch that failed before writing it again
+    targetRunner = createRunner(createConfig(0, 0, 5 * 1024 * 1024));
+    targetRunner.runInit();
+    targetRunner.runWrite(Collections.singletonList(TestUtil.createStringRecords(BUCKET_NAME).get(0)));
+    Assert.assertTrue(uploadKeys.isEmpty());
+    targetRunner.runDestroy();
+  }
+
+  private void addUpload(String uploadId, String key, String content) {
+    uploadKeys.put(uploadId, key);
+    uploadParts.put(uploadId, new ArrayList<>(Collections.singletonList(content.getBytes(StandardCharsets.UTF_8))));
+  }
+
+  private static Target.Context createContext(String instanceName) {
+    Stage.Info info = Mockito.mock(Stage.Info.class);
+    Mockito.when(info.getInstanceName()).thenReturn(instanceName);
+    Target.Context context = Mockito.mock(Target.Context.class);
+    Mockito.when(context.getStageInfo()).thenReturn(info);
+    Mockito.when(context.getSdcId()).thenReturn("sdc");
+    Mockito.when(context.getPipelineId()).thenReturn("pipeline");
+    Mockito.when(context.getRunnerId()).thenReturn(0);
+    return context;
+  }
+
+  private List<Record> createLargeRecords(int count, int size) {
+    List<Record> records = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      Record record = RecordCreator.create();
+      record.set(Field.create(Strings.repeat(String.valueOf(i), size)));
+      record.getHeader().setAttribute("bucket", BUCKET_NAME);
+      records.add(record);
+    }
+    return records;
+  }
+
+  private List<String> getLines(String key) {
+    String content = new String(objects.get(key), StandardCharsets.UTF_8);
+    return content.isEmpty() ? Collections.emptyList() : Arrays.stream(content.split("\n")).collect(Collectors.toList());
+  }
+
+  private TargetRunner createRunner(S3TargetConfigBean config) {
+    return new TargetRunner.Builder(AmazonS3DTarget.class, new AmazonS3Target(config, false))
+        .addService(DataFormatGeneratorService.class, new SdkJsonDataFormatGeneratorService())
+        .build();
+  }
+
+  private S3TargetConfigBean createConfig(long maxObjectSize, long maxRecords, long partSize) {
+    S3ConnectionTargetConfig s3Config = new S3ConnectionTargetConfig() {
+      @Override
+      public AmazonS3 getS3Client() {
+        return s3Client;
+      }
+    };
+    s3Config.connection = new AwsS3Connection();
+    s3Config.connection.useRegion = true;
+    s3Config.connection.region = AwsRegion.OTHER;
+    s3Config.connection.endpoint = "http://localhost:1";
+    s3Config.bucketTemplate = "${record:attribute('bucket')}";
+    s3Config.connection.awsConfig = new AWSConfig();
+    s3Config.connection.awsConfig.awsAccessKeyId = () -> "foo";
+    s3Config.connection.awsConfig.awsSecretAccessKey = () -> "bar";
+    s3Config.commonPrefix = PREFIX;
+    s3Config.delimiter = "/";
+    s3Config.connection.proxyConfig = new ProxyConfig();
+
+    S3TargetConfigBean s3TargetConfigBean = new S3TargetConfigBean();
+    s3TargetConfigBean.partitionTemplate = "";
+    s3TargetConfigBean.fileNamePrefix = "sdc";
+    s3TargetConfigBean.fileNameSuffix = "txt";
+    s3TargetConfigBean.timeDriverTemplate = "${time:now()}";
+    s3TargetConfigBean.timeZoneID = "UTC";
+    s3TargetConfigBean.s3Config = s3Config;
+    s3TargetConfigBean.sseConfig = new S3TargetSSEConfigBean();
+    s3TargetConfigBean.tmConfig = new TransferManagerConfig();
+    s3TargetConfigBean.tmConfig.threadPoolSize = 1;
+    s3TargetConfigBean.tmConfig.minimumUploadPartSize = partSize;
+    s3TargetConfigBean.streamMultipartUploads = true;
+    s3TargetConfigBean.maxObjectSize = maxObjectSize;
+    s3TargetConfigBean.maxRecordsPerObject = maxRecords;
+    return s3TargetConfigBean;
+  }
+}
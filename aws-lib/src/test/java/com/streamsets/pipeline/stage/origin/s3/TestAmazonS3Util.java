@@ -0,0 +1,197 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.s3;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.ListObjectsRequest;
+import com.amazonaws.services.s3.model.ObjectListing;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.streamsets.pipeline.lib.util.AntPathMatcher;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+public class TestAmazonS3Util {
+
+  private static final String BUCKET = "bucket";
+
+  private TreeMap<String, S3ObjectSummary> objects;
+  private AmazonS3 s3Client;
+  private ExecutorService executor;
+  private S3ConfigBean config;
+  private AntPathMatcher pathMatcher;
+
+  @Before
+  public void setUp() {
+    objects = new TreeMap<>();
+    // key, last modified
+    addObject("data/a.txt", 5);
+    addObject("data/2020/01/x1.txt", 1);
+    addObject("data/2020/01/x2.txt", 7);
+    addObject("data/2020/02/x3.txt", 3);
+    addObject("data/2020/02/x4.csv", 2);
+    addObject("data/2021/01/y1.txt", 6);
+    addObject("data/2021/01/y2.txt", 2);
+    addObject("data/2021/z.txt", 4);
+    addObject("other/b.txt", 0);
+
+    s3Client = Mockito.mock(AmazonS3.class);
+    Mockito.when(s3Client.listObjects(Mockito.any(ListObjectsRequest.class))).thenAnswer(invocation -> {
+      ListObjectsRequest request = (ListObjectsRequest) invocation.getArguments()[0];
+      return list(request);
+    });
+    executor = Executors.newFixedThreadPool(4);
+
+    config = new S3ConfigBean();
+    config.s3FileConfig = new S3FileConfig();
+    config.s3FileConfig.prefixPattern = "**/*.txt";
+    config.s3Config = new S3ConnectionSourceConfig();
+    config.s3Config.bucket = BUCKET;
+    config.s3Config.commonPrefix = "data/";
+    config.s3Config.delimiter = "/";
+    pathMatcher = new AntPathMatcher("/");
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  private void addObject(String key, long lastModified) {
+    S3ObjectSummary summary = new S3ObjectSummary();
+    summary.setBucketName(BUCKET);
+    summary.setKey(key);
+    summary.setLastModified(new Date(lastModified));
+    summary.setETag(key);
+    objects.put(key, summary);
+  }
+
+  // In memory listing that honors prefix, marker and delimiter, always in a single page
+  private ObjectListing list(ListObjectsRequest request) {
+    ObjectListing listing = new ObjectListing();
+    TreeSet<String> commonPrefixes = new TreeSet<>();
+    for (S3ObjectSummary summary : objects.values()) {
+      String key = summary.getKey();
+      if (!key.startsWith(request.getPrefix())
+          || (request.getMarker() != null && key.compareTo(request.getMarker()) <= 0)) {
+        continue;
+      }
+      String rest = key.substring(request.getPrefix().length());
+      if (request.getDelimiter() != null && rest.contains(request.getDelimiter())) {
+        commonPrefixes.add(request.getPrefix() + rest.substring(0, rest.indexOf(request.getDelimiter()) + 1));
+      } else {
+        listing.getObjectSummaries().add(summary);
+      }
+    }
+    listing.setCommonPrefixes(new ArrayList<>(commonPrefixes));
+    listing.setTruncated(false);
+    return listing;
+  }
+
+  private static List<String> keys(List<S3ObjectSummary> summaries) {
+    return summaries.stream().map(S3ObjectSummary::getKey).collect(Collectors.toList());
+  }
+
+  @Test
+  public void testGetShardPrefixes() {
+    List<S3ObjectSummary> directObjects = new ArrayList<>();
+    List<String> shards = AmazonS3Util.getShardPrefixes(s3Client, config, 3, directObjects);
+
+    Assert.assertEquals(Arrays.asList("data/2020/01/", "data/2020/02/", "data/2021/01/"), shards);
+    Assert.assertEquals(Arrays.asList("data/a.txt", "data/2021/z.txt"), keys(directObjects));
+
+    directObjects.clear();
+    Assert.assertEquals(
+        Arrays.asList("data/"),
+        AmazonS3Util.getShardPrefixes(s3Client, config, 1, directObjects)
+    );
+    Assert.assertTrue(directObjects.isEmpty());
+  }
+
+  @Test
+  public void testParallelListingChronologically() {
+    S3Offset offset = new S3Offset(null, S3Constants.ZERO, null, S3Constants.ZERO);
+    for (int fetchSize : new int[] {1, 3, 10}) {
+      List<S3ObjectSummary> expected = AmazonS3Util.listObjectsChronologically(
+          s3Client,
+          config,
+          pathMatcher,
+          offset,
+          fetchSize
+      );
+      List<S3ObjectSummary> actual = AmazonS3Util.listObjectsChronologically(
+          s3Client,
+          config,
+          pathMatcher,
+          offset,
+          fetchSize,
+          executor,
+          3
+      );
+      Assert.assertEquals(keys(expected), keys(actual));
+    }
+
+    // Only objects after the one in the offset
+    offset = new S3Offset("data/2021/01/y2.txt", S3Constants.MINUS_ONE, "data/2021/01/y2.txt", "2");
+    Assert.assertEquals(
+        Arrays.asList("data/2020/02/x3.txt", "data/2021/z.txt", "data/a.txt", "data/2021/01/y1.txt", "data/2020/01/x2.txt"),
+        keys(AmazonS3Util.listObjectsChronologically(s3Client, config, pathMatcher, offset, 10, executor, 3))
+    );
+  }
+
+  @Test
+  public void testParallelListingLexicographically() {
+    List<S3Offset> offsets = Arrays.asList(
+        new S3Offset("", S3Constants.ZERO, null, S3Constants.ZERO),
+        new S3Offset("data/2020/01/x2.txt", S3Constants.MINUS_ONE, null, S3Constants.ZERO),
+        new S3Offset("data/2021/01/y2.txt", S3Constants.MINUS_ONE, null, S3Constants.ZERO),
+        new S3Offset("data/a.txt", S3Constants.MINUS_ONE, null, S3Constants.ZERO)
+    );
+    for (S3Offset offset : offsets) {
+      for (int fetchSize : new int[] {1, 2, 10}) {
+        List<S3ObjectSummary> expected = AmazonS3Util.listObjectsLexicographically(
+            s3Client,
+            config,
+            pathMatcher,
+            offset,
+            fetchSize
+        );
+        List<S3ObjectSummary> actual = AmazonS3Util.listObjectsLexicographically(
+            s3Client,
+            config,
+            pathMatcher,
+            offset,
+            fetchSize,
+            executor,
+            2
+        );
+        Assert.assertEquals(offset.getKey() + " / " + fetchSize, keys(expected), keys(actual));
+      }
+    }
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.s3;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.Headers;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.S3Object;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class TestS3RangedInputStream {
+
+  private static final String BUCKET = "bucket";
+  private static final String KEY = "key";
+
+  private byte[] data;
+  private String eTag;
+  private List<String> requestedRanges;
+  private AmazonS3 s3Client;
+  private ExecutorService executor;
+
+  @Before
+  public void setUp() {
+    data = new byte[1000];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (byte) i;
+    }
+    eTag = "etag-1";
+    requestedRanges = Collections.synchronizedList(new ArrayList<>());
+    executor = Executors.newFixedThreadPool(3);
+
+    s3Client = Mockito.mock(AmazonS3.class);
+    Mockito.when(s3Client.getObject(Mockito.any(GetObjectRequest.class))).thenAnswer(invocation -> {
+      GetObjectRequest request = (GetObjectRequest) invocation.getArguments()[0];
+      if (!request.getMatchingETagConstraints().isEmpty() && !request.getMatchingETagConstraints().contains(eTag)) {
+        return null;
+      }
+      long[] range = request.getRange();
+      int end = (int) Math.min(range[1], data.length - 1);
+      requestedRanges.add(range[0] + "-" + end);
+      return createObject(Arrays.copyOfRange(data, (int) range[0], end + 1));
+    });
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  private S3Object createObject(byte[] content) {
+    S3Object object = new S3Object();
+    object.setBucketName(BUCKET);
+    object.setKey(KEY);
+    ObjectMetadata metadata = new ObjectMetadata();
+    metadata.setHeader(Headers.ETAG, eTag);
+    object.setObjectMetadata(metadata);
+    object.setObjectContent(new ByteArrayInputStream(content));
+    return object;
+  }
+
+  private InputStream open(long partSize, int readAheadParts) throws IOException {
+    S3Object firstPart = s3Client.getObject(new GetObjectRequest(BUCKET, KEY).withRange(0, partSize - 1));
+    return new S3RangedInputStream(s3Client, firstPart, data.length, partSize, readAheadParts, null, executor);
+  }
+
+  @Test
+  public void testReadWholeObject() throws Exception {
+    try (InputStream is = open(128, 3)) {
+      Assert.assertArrayEquals(data, IOUtils.toByteArray(is));
+    }
+    Assert.assertEquals(8, requestedRanges.size());
+    Assert.assertTrue(requestedRanges.contains("896-999"));
+  }
+
+  @Test
+  public void testSingleByteReads() throws Exception {
+    try (InputStream is = open(300, 1)) {
+      for (byte b : data) {
+        Assert.assertEquals(b & 0xFF, is.read());
+      }
+      Assert.assertEquals(-1, is.read());
+    }
+  }
+
+  @Test
+  public void testReadAheadIsBounded() throws Exception {
+    try (InputStream is = open(100, 2)) {
+      Assert.assertEquals(100, is.read(new byte[100]));
+      // first part plus the two parts requested ahead
+      Thread.sleep(100);
+      Assert.assertEquals(3, requestedRanges.size());
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testObjectModifiedWhileReading() throws Exception {
+    try (InputStream is = open(100, 1)) {
+      Assert.assertEquals(100, is.read(new byte[100]));
+      eTag = "etag-2";
+      IOUtils.toByteArray(is);
+    }
+  }
+}
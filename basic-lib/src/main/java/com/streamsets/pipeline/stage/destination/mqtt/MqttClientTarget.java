@@ -27,8 +27,8 @@ import com.streamsets.pipeline.api.el.ELEvalException;
 import com.streamsets.pipeline.api.el.ELVars;
 import com.streamsets.pipeline.lib.el.ELUtils;
 import com.streamsets.pipeline.lib.el.RecordEL;
-import com.streamsets.pipeline.lib.generator.DataGenerator;
 import com.streamsets.pipeline.lib.generator.DataGeneratorFactory;
+import com.streamsets.pipeline.lib.generator.RecordSerializer;
 import com.streamsets.pipeline.lib.http.HttpClientCommon;
 import com.streamsets.pipeline.lib.mqtt.Errors;
 import com.streamsets.pipeline.lib.mqtt.Groups;
@@ -44,7 +44,6 @@ import org.eclipse.paho.client.mqttv3.MqttMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayOutputStream;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -59,6 +58,7 @@ public class MqttClientTarget extends BaseTarget implements MqttCallback {
   private final MqttClientTargetConfigBean publisherConf;
   private final MqttClientCommon mqttClientCommon;
   private DataGeneratorFactory generatorFactory;
+  private RecordSerializer recordSerializer;
   private ErrorRecordHandler errorRecordHandler;
   private MqttClient mqttClient = null;
 
@@ -86,6 +86,7 @@ public class MqttClientTarget extends BaseTarget implements MqttCallback {
           issues
       );
       generatorFactory = publisherConf.dataGeneratorFormatConfig.getDataGeneratorFactory();
+      recordSerializer = new RecordSerializer(generatorFactory);
 
       try {
         this.mqttClientCommon.init(getContext(), issues);
@@ -191,11 +192,8 @@ public class MqttClientTarget extends BaseTarget implements MqttCallback {
       Iterator<Record> records = batch.getRecords();
       while (records.hasNext()) {
         Record record = records.next();
-        ByteArrayOutputStream byteBufferOutputStream = new ByteArrayOutputStream();
-        try (DataGenerator dataGenerator = generatorFactory.getGenerator(byteBufferOutputStream)) {
-          dataGenerator.write(record);
-          dataGenerator.flush();
-          MqttMessage message = new MqttMessage(byteBufferOutputStream.toByteArray());
+        try {
+          MqttMessage message = new MqttMessage(recordSerializer.serialize(record));
           message.setQos(commonConf.qos.getValue());
           message.setRetained(publisherConf.retained);
           mqttClient.publish(getTopic(record), message);
@@ -226,6 +224,9 @@ public class MqttClientTarget extends BaseTarget implements MqttCallback {
   @Override
   public void destroy() {
     super.destroy();
+    if (recordSerializer != null) {
+      recordSerializer.close();
+    }
     if (mqttClient != null) {
       try {
         mqttClient.disconnect();
@@ -30,6 +30,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.util.ArrayList;
@@ -39,6 +40,7 @@ import java.util.List;
 
 public class SdcIpcTarget extends BaseTarget {
   private static final Logger LOG = LoggerFactory.getLogger(SdcIpcTarget.class);
+  private static final int DRAIN_BUFFER_SIZE = 4096;
 
   private final Configs config;
   private ErrorRecordHandler errorRecordHandler;
@@ -121,9 +123,26 @@ public class SdcIpcTarget extends BaseTarget {
     conn.setDefaultUseCaches(false);
     conn.setDoOutput(true);
     conn.setDoInput(true);
+    // stream the records as they are written instead of buffering the whole batch to compute its length
+    conn.setChunkedStreamingMode(0);
     return conn;
   }
 
+  // the JDK keeps the socket alive for the next batch only if the response has been fully read and closed
+  static void releaseConnection(HttpURLConnection conn, boolean ok) throws IOException {
+    InputStream is = (ok) ? conn.getInputStream() : conn.getErrorStream();
+    if (is != null) {
+      try {
+        byte[] buffer = new byte[DRAIN_BUFFER_SIZE];
+        while (is.read(buffer) > -1) {
+          // NOP
+        }
+      } finally {
+        is.close();
+      }
+    }
+  }
+
   @Override
   public void write(Batch batch) throws StageException {
     ContextExtensions ext = (ContextExtensions) getContext();
@@ -160,6 +179,7 @@ public class SdcIpcTarget extends BaseTarget {
         } else {
           LOG.debug("Batch for entity '{}' and offset '{}' written out on retry '{}'", batch.getSourceEntity(), batch.getSourceOffset(), retryCount);
         }
+        releaseConnection(conn, ok);
       } catch (IOException ex) {
         errorReason = ex.toString();
         LOG.warn("Batch for entity '{}' and offset '{}' could not be written out: {}", batch.getSourceEntity(), batch.getSourceOffset(), errorReason, ex);
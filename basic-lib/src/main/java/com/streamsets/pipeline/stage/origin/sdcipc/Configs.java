@@ -75,6 +75,21 @@ public class Configs extends HttpConfigs {
   )
   public int maxWaitTimeSecs;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "10",
+      label = "Max Concurrent Requests",
+      description = "Maximum number of SDC RPC requests processed at the same time. Each request is processed by " +
+          "its own pipeline runner.",
+      displayPosition = 40,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "RPC",
+      min = 1,
+      max = 200
+  )
+  public int maxConcurrentRequests = 10;
+
   @ConfigDef(
       required = true,
       type = ConfigDef.Type.NUMBER,
@@ -100,7 +115,7 @@ public class Configs extends HttpConfigs {
 
   @Override
   public int getMaxConcurrentRequests() {
-    return 100;
+    return maxConcurrentRequests;
   }
 
   @Override
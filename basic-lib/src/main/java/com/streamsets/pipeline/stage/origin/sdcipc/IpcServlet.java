@@ -15,8 +15,9 @@
  */
 package com.streamsets.pipeline.stage.origin.sdcipc;
 
+import com.streamsets.pipeline.api.BatchContext;
+import com.streamsets.pipeline.api.PushSource;
 import com.streamsets.pipeline.api.Record;
-import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.ext.ContextExtensions;
 import com.streamsets.pipeline.api.ext.RecordReader;
@@ -32,28 +33,24 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 @SuppressWarnings({"squid:S2226", "squid:S1989", "squid:S1948"})
 public class IpcServlet extends HttpServlet {
   private static final Logger LOG = LoggerFactory.getLogger(IpcServlet.class);
 
-  private final Stage.Context context;
+  private final PushSource.Context context;
   private final Configs configs;
   private final int maxObjectLen;
-  private final BlockingQueue<List<Record>> queue;
-  private volatile boolean batchDone;
-  private volatile boolean batchCancelled;
+  private final AtomicInteger postsInProgress = new AtomicInteger();
+  private final AtomicLong lastBatchTime = new AtomicLong();
   private volatile boolean shuttingDown;
-  private volatile boolean inPost;
 
-  public IpcServlet(Stage.Context context, Configs configs, BlockingQueue<List<Record>> queue) {
+  public IpcServlet(PushSource.Context context, Configs configs) {
     this.context = context;
     this.configs = configs;
     maxObjectLen = this.configs.maxRecordSize * 1000 * 1000;
-    this.queue = queue;
   }
 
   private String resolveAppId() throws IOException {
@@ -78,9 +75,9 @@ public class IpcServlet extends HttpServlet {
   }
 
   @Override
-  protected synchronized void doPost(HttpServletRequest req, HttpServletResponse resp)
+  protected void doPost(HttpServletRequest req, HttpServletResponse resp)
       throws ServletException, IOException {
-    inPost = true;
+    postsInProgress.incrementAndGet();
     LOG.debug("Got connection from '{}'", req.getRemoteAddr());
 
     try {
@@ -115,46 +112,37 @@ public class IpcServlet extends HttpServlet {
               }
             }
             if (processRequest) {
+              // records are read straight into the batch of the runner serving this connection
+              BatchContext batchContext = context.startBatch();
               RecordReader reader = ((ContextExtensions) context).createRecordReader(is, 0, maxObjectLen);
-
-              List<Record> records = new ArrayList<>();
+              int count = 0;
               Record record = reader.readRecord();
               while (record != null) {
-                records.add(record);
+                batchContext.getBatchMaker().addRecord(record);
+                count++;
                 record = reader.readRecord();
               }
-              LOG.debug("Got '{}' records from '{}'", records.size(), req.getRemoteAddr());
-              batchDone = false;
-              batchCancelled = false;
-              queue.add(records);
-              synchronized (queue) {
-                LOG.debug("Waiting for signal of batch completion");
-                while (!(batchDone || batchCancelled)) {
-                  queue.wait();
-                }
-                if (batchDone) {
-                  LOG.debug("Batch done");
-                  resp.setStatus(HttpServletResponse.SC_OK);
-                } else {
-                  // Batch cancelled
-                  LOG.debug("Batch cancelled: {}", batchCancelled);
-                  resp.setStatus(HttpServletResponse.SC_GONE);
-                }
+              LOG.debug("Got '{}' records from '{}'", count, req.getRemoteAddr());
+              if (context.processBatch(batchContext)) {
+                LOG.debug("Batch done");
+                resp.setStatus(HttpServletResponse.SC_OK);
+              } else if (shuttingDown || context.isStopped()) {
+                LOG.debug("Batch from '{}' not completed, pipeline is stopping", req.getRemoteAddr());
+                resp.setStatus(HttpServletResponse.SC_GONE);
+              } else {
+                LOG.warn("Batch from '{}' could not be processed", req.getRemoteAddr());
+                resp.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Batch could not be processed");
               }
+              lastBatchTime.set(System.currentTimeMillis());
             }
           } catch (IOException ex) {
             LOG.warn("Error while reading records: {}", ex.toString(), ex);
             resp.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, ex.toString());
-          } catch (InterruptedException ex) {
-            LOG.warn("Pipeline stopped while waiting for completion for batch from '{}'", req.getRemoteAddr());
-            resp.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
-                "Pipeline stopped while waiting for batch completion");
-            Thread.currentThread().interrupt();
           }
         }
       }
     } finally {
-      inPost = false;
+      postsInProgress.decrementAndGet();
     }
   }
 
@@ -162,16 +150,12 @@ public class IpcServlet extends HttpServlet {
     shuttingDown = true;
   }
 
-  public void batchDone() {
-    batchDone = true;
-  }
-
-  public void batchCancelled() {
-    batchCancelled = true;
+  public boolean isInPost() {
+    return postsInProgress.get() > 0;
   }
 
-  public boolean isInPost() {
-    return inPost;
+  public long getLastBatchTime() {
+    return lastBatchTime.get();
   }
 
 }
@@ -20,12 +20,12 @@ import com.streamsets.pipeline.api.ConfigGroups;
 import com.streamsets.pipeline.api.ExecutionMode;
 import com.streamsets.pipeline.api.GenerateResourceBundle;
 import com.streamsets.pipeline.api.HideConfigs;
-import com.streamsets.pipeline.api.Source;
+import com.streamsets.pipeline.api.PushSource;
 import com.streamsets.pipeline.api.StageDef;
-import com.streamsets.pipeline.api.base.configurablestage.DSourceOffsetCommitter;
+import com.streamsets.pipeline.api.base.configurablestage.DPushSource;
 
 @StageDef(
-    version = 3,
+    version = 4,
     label = "SDC RPC",
     execution = ExecutionMode.STANDALONE,
     description = "Receives records via SDC RPC from a Data Collector pipeline that uses an SDC RPC destination",
@@ -45,13 +45,13 @@ import com.streamsets.pipeline.api.base.configurablestage.DSourceOffsetCommitter
     "configs.tlsConfigBean.trustStoreAlgorithm"
 })
 @GenerateResourceBundle
-public class SdcIpcDSource extends DSourceOffsetCommitter {
+public class SdcIpcDSource extends DPushSource {
 
   @ConfigDefBean
   public Configs configs;
 
   @Override
-  protected Source createSource() {
+  protected PushSource createPushSource() {
     return new SdcIpcSource(configs);
   }
 }
@@ -15,23 +15,26 @@
  */
 package com.streamsets.pipeline.stage.origin.sdcipc;
 
-import com.streamsets.pipeline.api.BatchMaker;
-import com.streamsets.pipeline.api.OffsetCommitter;
-import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.api.StageException;
-import com.streamsets.pipeline.api.base.BaseSource;
+import com.streamsets.pipeline.api.base.BasePushSource;
+import com.streamsets.pipeline.lib.util.ThreadUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
+import java.util.Map;
 
-public class SdcIpcSource extends BaseSource implements OffsetCommitter {
+/**
+ * Receives batches from SDC RPC destinations. Every request is turned into a batch by the Jetty thread serving the
+ * connection, so up to {@link Configs#maxConcurrentRequests} senders are processed by their own pipeline runners.
+ */
+public class SdcIpcSource extends BasePushSource {
   private static final Logger LOG = LoggerFactory.getLogger(SdcIpcSource.class);
+  private static final long PRODUCE_LOOP_INTERVAL_MS = 100;
 
   private final Configs configs;
   private IpcServer ipcServer;
-  private long counter;
 
   public SdcIpcSource(Configs configs) {
     this.configs = configs;
@@ -63,28 +66,22 @@ public class SdcIpcSource extends BaseSource implements OffsetCommitter {
   }
 
   @Override
-  public String produce(String lastSourceOffset, int maxBatchSize, BatchMaker batchMaker) throws StageException {
-    try {
-      List<Record> records = ipcServer.poll(configs.maxWaitTimeSecs);
-      if (records != null) {
-        LOG.debug("Got '{}' records", records.size());
-        for (Record record : records) {
-          batchMaker.addRecord(record);
-        }
-      } else {
-        LOG.debug("No records after '{}'secs, dispatching empty batch", configs.maxWaitTimeSecs);
-      }
-    } catch (InterruptedException ex) {
-      LOG.debug("Interrupted while waiting for records");
-      ipcServer.cancelBatch();
-    }
-    return "::ipc::" + (counter++) + System.currentTimeMillis();
+  public int getNumberOfThreads() {
+    return configs.getMaxConcurrentRequests();
   }
 
   @Override
-  public void commit(String offset) throws StageException {
-    LOG.debug("Notifying IpcServer that batch is done");
-    ipcServer.doneWithBatch();
+  public void produce(Map<String, String> lastOffsets, int maxBatchSize) throws StageException {
+    long lastEmptyBatch = System.currentTimeMillis();
+    while (!getContext().isStopped()) {
+      long idleSince = Math.max(ipcServer.getLastBatchTime(), lastEmptyBatch);
+      if (System.currentTimeMillis() - idleSince >= configs.maxWaitTimeSecs * 1000L) {
+        LOG.debug("No records after '{}'secs, dispatching empty batch", configs.maxWaitTimeSecs);
+        getContext().processBatch(getContext().startBatch());
+        lastEmptyBatch = System.currentTimeMillis();
+      }
+      ThreadUtil.sleep(PRODUCE_LOOP_INTERVAL_MS);
+    }
   }
 
 }
@@ -27,7 +27,7 @@ import com.streamsets.pipeline.api.base.configurablestage.DSourceOffsetCommitter
 import com.streamsets.pipeline.stage.origin.sdcipc.Configs;
 
 @StageDef(
-    version = 4,
+    version = 5,
     label = "Dev SDC RPC with Buffering",
     description = "Receives records via SDC RPC from a Data Collector pipeline that uses an SDC RPC destination. " +
         "It buffers records in memory/disk. In case of failure/stop records may be lost.",
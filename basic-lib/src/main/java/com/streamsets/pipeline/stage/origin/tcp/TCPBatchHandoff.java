@@ -0,0 +1,82 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.tcp;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hands completed batches from the Netty event loops over to the pipeline runner threads.
+ *
+ * Both sides only go through non-blocking queues: event loops never wait on a monitor while offering a batch, and an
+ * idle runner parks itself until a batch is offered or the given timeout expires. Backpressure is applied by the
+ * connection handlers themselves (by turning off auto read), so the queue never holds more than one outstanding
+ * batch per connection plus whatever is flushed when connections close.
+ */
+public class TCPBatchHandoff {
+
+  private final Queue<Runnable> batches = new ConcurrentLinkedQueue<>();
+  private final Queue<Thread> idleRunners = new ConcurrentLinkedQueue<>();
+
+  /**
+   * Offers a batch, waking up one idle runner if there is any. Never blocks.
+   */
+  public void offer(Runnable batch) {
+    batches.offer(batch);
+    Thread idleRunner = idleRunners.poll();
+    if (idleRunner != null) {
+      LockSupport.unpark(idleRunner);
+    }
+  }
+
+  /**
+   * Returns the next batch, parking the calling runner for at most the given time if there is none.
+   *
+   * @return the next batch or null if none was offered before the timeout expired
+   */
+  public Runnable take(long timeoutMillis) {
+    Runnable batch = batches.poll();
+    if (batch == null) {
+      Thread runner = Thread.currentThread();
+      idleRunners.offer(runner);
+      // check again, a batch could have been offered before this runner was registered as idle
+      batch = batches.poll();
+      if (batch == null) {
+        LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+        batch = batches.poll();
+      }
+      idleRunners.remove(runner);
+    }
+    return batch;
+  }
+
+  /**
+   * Runs all the batches offered so far on the calling thread.
+   *
+   * @return number of batches run
+   */
+  public int drain() {
+    int count = 0;
+    Runnable batch;
+    while ((batch = batches.poll()) != null) {
+      batch.run();
+      count++;
+    }
+    return count;
+  }
+}
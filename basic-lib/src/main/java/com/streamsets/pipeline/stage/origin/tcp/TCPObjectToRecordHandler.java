@@ -34,6 +34,7 @@ import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.EventLoop;
 import io.netty.handler.codec.DecoderException;
 import io.netty.handler.timeout.ReadTimeoutException;
 import io.netty.util.concurrent.ScheduledFuture;
@@ -52,69 +53,86 @@ import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
 import java.util.TimeZone;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 public class TCPObjectToRecordHandler extends ChannelInboundHandlerAdapter {
 
   private static final Logger LOG = LoggerFactory.getLogger(TCPObjectToRecordHandler.class);
 
   /*
-   * This runnable is scheduled to handle the timeout to force a batch.
-   * The runnable is synchronized with the TCPObjectToRecordHandler instance, same as the addRecord()
-   * To handle the case that the addRecord() is executing and runs the batch and the scheduler starts the runnable
-   * while the addRecord() is still running, we have the skip() method that will make the runnable to do a No-Op
-   * when it obtains the synchronized lock. The addRecord(), on running the batch will call skip() on the runnable.
+   * Batch built by the event loop of a connection and processed by one of the pipeline runners. Records and error
+   * records are only collected here, the batch context is started and processed by the runner thread.
    */
-  private class TimeoutBatchRunnable implements Runnable {
-    private final ChannelHandlerContext context;
-    private volatile boolean skip;
-    private volatile boolean stopScheduling;
-
-    public TimeoutBatchRunnable(ChannelHandlerContext context) {
-      this.context = context;
-      skip = false;
-      stopScheduling = false;
-    }
-
-    public void skip() {
-      skip = true;
-    }
-
-    public boolean stoppedScheduling() {
-      return stopScheduling;
-    }
-
-    public void stopScheduling() {
-      this.stopScheduling = true;
+  private class ConnectionBatch implements Runnable {
+    private final List<Record> records;
+    private final List<Consumer<BatchContext>> errors;
+    private final boolean sendBatchCompletedAck;
+    // runs once this batch is processed, set when the connection closes while the batch is in flight
+    private final AtomicReference<Runnable> onProcessed = new AtomicReference<>();
+
+    private ConnectionBatch(List<Record> records, List<Consumer<BatchContext>> errors, boolean sendBatchCompletedAck) {
+      this.records = records;
+      this.errors = errors;
+      this.sendBatchCompletedAck = sendBatchCompletedAck;
     }
 
     @Override
     public void run() {
-      synchronized (TCPObjectToRecordHandler.this) { // synchronizing with newBatch
-        // send batch if not yet sent by addRecord due to max batch size
-        if (!skip) {
-          newBatch(this.context, false);
-        } else {
-          LOG.debug(
-              "Skipping scheduled timeout newBatch(). It can be due to running it in addRecord as max batch size was " +
-                  "reached or channel innactive was called");
+      try {
+        BatchContext batchContext = context.startBatch();
+        for (Record record : records) {
+          batchContext.getBatchMaker().addRecord(record);
+        }
+        for (Consumer<BatchContext> error : errors) {
+          error.accept(batchContext);
+        }
+        context.processBatch(batchContext);
+
+        if (sendBatchCompletedAck) {
+          // only one batch per connection is processed at a time, so the batch ack variables are not shared
+          batchCompletedAckVars.addVariable("batchSize", records.size());
+          evaluateElAndSendResponse(
+              batchCompletedAckEval,
+              batchCompletedAckVars,
+              batchCompletedAckExpr,
+              channelContext,
+              ackResponseCharset,
+              false,
+              "batch completed",
+              records.isEmpty() ? null : records.get(records.size() - 1)
+          );
         }
-        // reschedule timeout
-        if (!timeoutBatchRunnable.stoppedScheduling()) {
-          // we are scheduling a new timeout run, we need the new runnable
-          timeoutBatchRunnable = scheduleTimeoutBatch(this.context, maxWaitTime);
+      } finally {
+        Runnable following = onProcessed.getAndSet(PROCESSED);
+        if (following != null) {
+          following.run();
         }
+        executeOnEventLoop(TCPObjectToRecordHandler.this::batchProcessed);
       }
     }
 
+    /**
+     * Hands off the given batch of the same connection once this one is processed, or right away when it already
+     * was. Doesn't depend on the event loop, which may be gone by the time this batch is done.
+     */
+    private void handOffAfter(ConnectionBatch batch) {
+      if (!onProcessed.compareAndSet(null, () -> batchHandoff.offer(batch))) {
+        batchHandoff.offer(batch);
+      }
+    }
   }
 
+  private static final Runnable PROCESSED = () -> {};
+
   // can't figure out any cleaner way to detect peer reset via Netty
   public static final String RST_PACKET_MESSAGE = "Connection reset by peer";
   public static final String LOG_DATE_FORMAT_STR = "yyyy-MM-dd'T'HH:mm:ss.SSSZ";
 
   private final PushSource.Context context;
+  private final TCPBatchHandoff batchHandoff;
   private final int maxBatchSize;
   private final long maxWaitTime;
   private final StopPipelineHandler stopPipelineHandler;
@@ -128,16 +146,20 @@ public class TCPObjectToRecordHandler extends ChannelInboundHandlerAdapter {
   private final String timeZoneId;
   private final Charset ackResponseCharset;
 
+  // all of the state below is only accessed from the event loop of the channel
   private long totalRecordCount = 0;
   private long lastChannelStart = 0;
-  private BatchContext batchContext = null;
+  private ChannelHandlerContext channelContext;
   private ScheduledFuture<?> maxWaitTimeFlush;
-  private TimeoutBatchRunnable timeoutBatchRunnable;
-  private ArrayBlockingQueue<Record> recordsQueue;
-  private boolean firstBatch;
+  private List<Record> records;
+  private List<Consumer<BatchContext>> errors;
+  private ConnectionBatch batchInFlight;
+  private boolean flushDue;
+  private boolean channelClosed;
 
   public TCPObjectToRecordHandler(
       PushSource.Context context,
+      TCPBatchHandoff batchHandoff,
       int maxBatchSize,
       long maxWaitTime,
       StopPipelineHandler stopPipelineHandler,
@@ -151,8 +173,10 @@ public class TCPObjectToRecordHandler extends ChannelInboundHandlerAdapter {
       Charset ackResponseCharset
   ) {
     Utils.checkNotNull(context, "context");
+    Utils.checkNotNull(batchHandoff, "batchHandoff");
     Utils.checkNotNull(stopPipelineHandler, "stopPipelineHandler");
     this.context = context;
+    this.batchHandoff = batchHandoff;
     this.maxBatchSize = maxBatchSize;
     this.maxWaitTime = maxWaitTime;
     this.stopPipelineHandler = stopPipelineHandler;
@@ -164,21 +188,23 @@ public class TCPObjectToRecordHandler extends ChannelInboundHandlerAdapter {
     this.batchCompletedAckExpr = batchCompletedAckExpr;
     this.timeZoneId = timeZoneId;
     this.ackResponseCharset = ackResponseCharset;
-    this.recordsQueue = new ArrayBlockingQueue<>(3*this.maxBatchSize);
-    firstBatch = true;
+    this.records = new ArrayList<>(maxBatchSize);
+    this.errors = new ArrayList<>();
   }
 
   @Override
   public void channelActive(ChannelHandlerContext ctx) throws Exception {
     // client connection opened
     super.channelActive(ctx);
-    firstBatch = true;
+    channelContext = ctx;
     lastChannelStart = getCurrentTime();
-    recordsQueue.clear();
+    records.clear();
+    errors.clear();
     totalRecordCount = 0;
-    batchContext = context.startBatch();
-    long delay = this.maxWaitTime;
-    timeoutBatchRunnable = scheduleTimeoutBatch(ctx, delay);
+    batchInFlight = null;
+    flushDue = false;
+    channelClosed = false;
+    scheduleMaxWaitTimeFlush();
     if (LOG.isDebugEnabled()) {
       LOG.debug(
           "Client at {} (established) connected to TCP server at {}",
@@ -188,24 +214,29 @@ public class TCPObjectToRecordHandler extends ChannelInboundHandlerAdapter {
     }
   }
 
-  private TimeoutBatchRunnable scheduleTimeoutBatch(ChannelHandlerContext ctx, long delay) {
-    TimeoutBatchRunnable timeoutBatchRunnable = new TimeoutBatchRunnable(ctx);
-    maxWaitTimeFlush = ctx.channel().eventLoop().schedule(
-        timeoutBatchRunnable,
-        Math.max(delay, 0),
+  private void scheduleMaxWaitTimeFlush() {
+    cancelMaxWaitTimeFlush();
+    maxWaitTimeFlush = channelContext.channel().eventLoop().schedule(
+        this::flushOnMaxWaitTime,
+        Math.max(maxWaitTime, 0),
         TimeUnit.MILLISECONDS
     );
-    return timeoutBatchRunnable;
   }
 
-  private void cancelMaxWaitTimeTask() {
+  private void cancelMaxWaitTimeFlush() {
     if (maxWaitTimeFlush != null) {
-      // we need to synchronize this as we want to make sure current timeoutBatchRunnable will run with the correct
-      // stopScheduling and skip values
-      synchronized (this) {
-        timeoutBatchRunnable.stopScheduling();
-        timeoutBatchRunnable.skip();
-      }
+      maxWaitTimeFlush.cancel(false);
+      maxWaitTimeFlush = null;
+    }
+  }
+
+  private void flushOnMaxWaitTime() {
+    maxWaitTimeFlush = null;
+    if (batchInFlight != null) {
+      // sent as soon as the batch in flight is done, keeping the batches of the connection in order
+      flushDue = true;
+    } else {
+      handOffBatch(true);
     }
   }
 
@@ -220,15 +251,19 @@ public class TCPObjectToRecordHandler extends ChannelInboundHandlerAdapter {
           totalRecordCount
       );
     }
-    cancelMaxWaitTimeTask();
-    //firstBatch needed to send first record to error if there is an exception processing the first record
-    while(!recordsQueue.isEmpty() || firstBatch) {
-      newBatch(ctx, true);
-      firstBatch = false;
+    channelClosed = true;
+    cancelMaxWaitTimeFlush();
+    // everything that is left follows the batch in flight, keeping the records of the connection in order
+    ConnectionBatch previous = batchInFlight;
+    while (!records.isEmpty() || !errors.isEmpty()) {
+      ConnectionBatch batch = createBatch(false);
+      if (previous == null) {
+        batchHandoff.offer(batch);
+      } else {
+        previous.handOffAfter(batch);
+      }
+      previous = batch;
     }
-    // we null the runnable, just to avoid problems in case channel object is reused by netty for next clients
-    timeoutBatchRunnable = null;
-    maxWaitTimeFlush = null;
     super.channelInactive(ctx);
   }
 
@@ -252,7 +287,7 @@ public class TCPObjectToRecordHandler extends ChannelInboundHandlerAdapter {
   }
 
   private void addRecord(ChannelHandlerContext ctx, Record record) {
-    recordsQueue.add(record);
+    records.add(record);
     evaluateElAndSendResponse(
         recordProcessedAckEval,
         recordProcessedAckVars,
@@ -263,59 +298,69 @@ public class TCPObjectToRecordHandler extends ChannelInboundHandlerAdapter {
         "record processed",
         record
     );
+    flushIfFull();
+  }
 
-    if (recordsQueue.size() >= maxBatchSize) {
-      boolean shouldSendBatch = false;
-      synchronized (this) {
-        // we are holding the synchronized block, so even if the runnable is being executed, it will be locked
-        // until this block finishes, as here we are checking if runnable should skip the sned batch
-        if (recordsQueue.size() >= maxBatchSize) {
-          shouldSendBatch = true;
-          timeoutBatchRunnable.skip();
-          timeoutBatchRunnable.stopScheduling();
-        }
+  private void flushIfFull() {
+    if (records.size() >= maxBatchSize) {
+      if (batchInFlight == null) {
+        handOffBatch(true);
       }
-
-      if (shouldSendBatch) {
-        newBatch(ctx, false);
-        // cancel current timeout
-        maxWaitTimeFlush.cancel(false);
-        // reschedule timeout
-        timeoutBatchRunnable = scheduleTimeoutBatch(ctx, this.maxWaitTime);
+      if (records.size() >= maxBatchSize) {
+        // the runners are behind, stop reading from the socket until the batch in flight is done
+        channelContext.channel().config().setAutoRead(false);
       }
     }
   }
 
-  private void newBatch(ChannelHandlerContext ctx, boolean channelInactive) {
-    List<Record> recordsToProcess = new ArrayList<>(maxBatchSize);
-    Record lastRecord = null;
+  private void handOffBatch(boolean sendBatchCompletedAck) {
+    batchInFlight = createBatch(sendBatchCompletedAck);
+    flushDue = false;
+    scheduleMaxWaitTimeFlush();
+    batchHandoff.offer(batchInFlight);
+  }
 
-    int batchSize = recordsQueue.drainTo(recordsToProcess, maxBatchSize);
-    if (!recordsToProcess.isEmpty()) {
-      lastRecord = recordsToProcess.get(recordsToProcess.size() -1);
-    }
-    for (Record record : recordsToProcess) {
-      batchContext.getBatchMaker().addRecord(record);
+  private ConnectionBatch createBatch(boolean sendBatchCompletedAck) {
+    List<Record> batchRecords;
+    if (records.size() <= maxBatchSize) {
+      batchRecords = records;
+      records = new ArrayList<>(maxBatchSize);
+    } else {
+      List<Record> head = records.subList(0, maxBatchSize);
+      batchRecords = new ArrayList<>(head);
+      head.clear();
     }
+    ConnectionBatch batch = new ConnectionBatch(batchRecords, errors, sendBatchCompletedAck);
+    errors = new ArrayList<>();
+    return batch;
+  }
 
-    context.processBatch(batchContext);
-
-    if (!channelInactive) {
-      batchCompletedAckVars.addVariable("batchSize", batchSize);
-      evaluateElAndSendResponse(
-          batchCompletedAckEval,
-          batchCompletedAckVars,
-          batchCompletedAckExpr,
-          ctx,
-          ackResponseCharset,
-          false,
-          "batch completed",
-          lastRecord
-      );
-
+  private void batchProcessed() {
+    batchInFlight = null;
+    if (channelClosed) {
+      return;
+    }
+    if (flushDue) {
+      handOffBatch(true);
+    } else {
+      flushIfFull();
     }
+    if (records.size() < maxBatchSize) {
+      channelContext.channel().config().setAutoRead(true);
+    }
+  }
 
-    batchContext = context.startBatch();
+  private void executeOnEventLoop(Runnable task) {
+    EventLoop eventLoop = channelContext.channel().eventLoop();
+    if (eventLoop.inEventLoop()) {
+      task.run();
+    } else if (!eventLoop.isShuttingDown()) {
+      try {
+        eventLoop.execute(task);
+      } catch (RejectedExecutionException e) {
+        LOG.debug("Event loop already shut down, ignoring completed batch of closed connection", e);
+      }
+    }
   }
 
   private void evaluateElAndSendResponse(
@@ -368,7 +413,12 @@ public class TCPObjectToRecordHandler extends ChannelInboundHandlerAdapter {
             break;
           case TO_ERROR:
             Record errorRecord = lastRecord != null ? lastRecord : context.createRecord(generateRecordId());
-            batchContext.toError(errorRecord, Errors.TCP_36, expressionDescription, exception);
+            errors.add(batchContext -> batchContext.toError(
+                errorRecord,
+                Errors.TCP_36,
+                expressionDescription,
+                exception
+            ));
             break;
         }
       } else {
@@ -426,7 +476,8 @@ public class TCPObjectToRecordHandler extends ChannelInboundHandlerAdapter {
             stopPipelineHandler.stopPipeline(context.getPipelineId(), errorEx);
             break;
           case TO_ERROR:
-            batchContext.toError(context.createRecord(generateRecordId()), errorEx);
+            Record errorRecord = context.createRecord(generateRecordId());
+            errors.add(batchContext -> batchContext.toError(errorRecord, errorEx));
             break;
         }
       } else {
@@ -25,6 +25,7 @@ import com.streamsets.pipeline.api.el.ELVars;
 import com.streamsets.pipeline.lib.el.ELUtils;
 import com.streamsets.pipeline.lib.el.RecordEL;
 import com.streamsets.pipeline.lib.el.TimeEL;
+import com.streamsets.pipeline.lib.executor.SafeScheduledExecutorService;
 import com.streamsets.pipeline.lib.parser.DataParserFactory;
 import com.streamsets.pipeline.lib.parser.net.DataFormatParserDecoder;
 import com.streamsets.pipeline.lib.parser.net.DelimitedLengthFieldBasedFrameDecoder;
@@ -62,6 +63,7 @@ import java.util.Map;
 import java.util.TimeZone;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 
 public class TCPServerSource extends BasePushSource {
@@ -84,6 +86,10 @@ public class TCPServerSource extends BasePushSource {
   private final ConcurrentMap<String, StageException> pipelineIdsToFail = new ConcurrentHashMap<>();
 
   private static final long PRODUCE_LOOP_INTERVAL_MS = 1000;
+  private static final long RUNNER_IDLE_WAIT_MS = 100;
+
+  private final TCPBatchHandoff batchHandoff = new TCPBatchHandoff();
+  private volatile boolean runnersStopped;
 
   public TCPServerSource(TCPServerSourceConfig config) {
     this.config = config;
@@ -208,6 +214,7 @@ public class TCPServerSource extends BasePushSource {
                 // next, handle MessageToRecord instances to build SDC records and errors
                 new TCPObjectToRecordHandler(
                     getContext(),
+                    batchHandoff,
                     config.batchSize,
                     config.maxWaitTime,
                     pipelineIdsToFail::put,
@@ -533,13 +540,51 @@ public class TCPServerSource extends BasePushSource {
 
   @Override
   public void produce(Map<String, String> lastOffsets, int maxBatchSize) throws StageException {
-    while (!getContext().isStopped()) {
-      stopPipelinesIfError();
-      ThreadUtil.sleep(PRODUCE_LOOP_INTERVAL_MS);
+    SafeScheduledExecutorService runners = null;
+    if (tcpServer != null) {
+      // batches are built by the event loops and processed by these runners, so a slow pipeline only pauses reads
+      runnersStopped = false;
+      runners = new SafeScheduledExecutorService(config.numThreads, "TCP_Server_Runner_");
+      for (int i = 0; i < config.numThreads; i++) {
+        runners.submit(this::runBatches);
+      }
     }
 
-    if (tcpServer != null) {
-      tcpServer.close();
+    try {
+      while (!getContext().isStopped()) {
+        stopPipelinesIfError();
+        ThreadUtil.sleep(PRODUCE_LOOP_INTERVAL_MS);
+      }
+    } finally {
+      if (runners != null) {
+        runnersStopped = true;
+        runners.shutdown();
+        try {
+          runners.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+          LOG.warn("InterruptedException attempting to wait for TCP server runners to finish", e);
+          Thread.currentThread().interrupt();
+        }
+      }
+      if (tcpServer != null && getContext().isStopped()) {
+        tcpServer.close();
+        // process what the connections flushed while being closed
+        batchHandoff.drain();
+      }
+    }
+  }
+
+  private void runBatches() {
+    while (!runnersStopped) {
+      Runnable batch = batchHandoff.take(RUNNER_IDLE_WAIT_MS);
+      if (batch != null) {
+        try {
+          batch.run();
+        } catch (RuntimeException e) {
+          LOG.error("Exception while processing TCP server batch: {}", e.toString(), e);
+          getContext().reportError(e);
+        }
+      }
     }
   }
 
@@ -26,7 +26,7 @@ import com.streamsets.pipeline.api.base.configurablestage.DPushSource;
 import com.streamsets.pipeline.api.impl.Utils;
 
 @StageDef(
-    version = 1,
+    version = 2,
     label = "UDP Multithreaded Source",
     description = "Listens for UDP messages on one or more port(s) and queues incoming packets on an intermediate" +
         " queue, from which multiple worker threads can process them",
@@ -70,6 +70,34 @@ public class MultithreadedUDPDSource extends DPushSource {
   )
   public int numWorkerThreads;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.BOOLEAN,
+      label = "Process on Receiver Threads",
+      description = "With native transports (epoll), parses and batches packets on the receiver thread of each" +
+          " socket, which runs its own pipeline runner. The intermediate queue and worker threads are not used.",
+      defaultValue = "false",
+      group = "UDP",
+      displayPosition = 220,
+      displayMode = ConfigDef.DisplayMode.ADVANCED
+  )
+  public boolean processOnReceiverThreads;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      label = "Socket Receive Buffer (KB)",
+      description = "Kernel receive buffer requested for each socket. Use 0 for the system default. The operating" +
+          " system may cap the size, for example with net.core.rmem_max on Linux.",
+      defaultValue = "0",
+      group = "UDP",
+      min = 0,
+      max = Integer.MAX_VALUE / 1024,
+      displayPosition = 230,
+      displayMode = ConfigDef.DisplayMode.ADVANCED
+  )
+  public int receiveBufferSizeKB;
+
   @Override
   protected PushSource createPushSource() {
     Utils.checkNotNull(configs.dataFormat, "Data format cannot be null");
@@ -78,7 +106,9 @@ public class MultithreadedUDPDSource extends DPushSource {
     return new MultithreadedUDPSource(
         configs,
         packetQueueSize,
-        numWorkerThreads
+        numWorkerThreads,
+        processOnReceiverThreads,
+        receiveBufferSizeKB * 1024
     );
   }
 }
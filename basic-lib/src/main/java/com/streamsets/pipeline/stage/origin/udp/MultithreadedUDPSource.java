@@ -26,6 +26,8 @@ import com.streamsets.pipeline.lib.parser.udp.AbstractParser;
 import com.streamsets.pipeline.lib.udp.PacketQueueUDPHandler;
 import com.streamsets.pipeline.lib.udp.UDPConsumingServer;
 import com.streamsets.pipeline.lib.util.ThreadUtil;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInitializer;
 import io.netty.channel.socket.DatagramPacket;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,10 +38,12 @@ import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 
 
@@ -48,6 +52,7 @@ public class MultithreadedUDPSource extends BasePushSource {
   private static final boolean IS_TRACE_ENABLED = LOG.isTraceEnabled();
   private static final boolean IS_DEBUG_ENABLED = LOG.isDebugEnabled();
   public static final String PACKET_QUEUE_GAUGE_NAME = "Packet Queue";
+  public static final String RECEIVER_GAUGE_NAME_PREFIX = "Receiver Socket ";
 
   private final SafeScheduledExecutorService executorService;
   private long recordCount;
@@ -55,19 +60,34 @@ public class MultithreadedUDPSource extends BasePushSource {
   private AbstractParser parser;
 
   private PacketQueueUDPHandler handler;
+  private final List<ReceiverUDPHandler> receivers = new CopyOnWriteArrayList<>();
 
   private final UDPSourceConfigBean configs;
   private final int packetQueueSize;
   private final int numWorkerThreads;
+  private final boolean processOnReceiverThreads;
+  private final int receiveBufferSize;
 
   public MultithreadedUDPSource(
       UDPSourceConfigBean configs,
       int packetQueueSize,
       int numWorkerThreads
+  ) {
+    this(configs, packetQueueSize, numWorkerThreads, false, 0);
+  }
+
+  public MultithreadedUDPSource(
+      UDPSourceConfigBean configs,
+      int packetQueueSize,
+      int numWorkerThreads,
+      boolean processOnReceiverThreads,
+      int receiveBufferSize
   ) {
     this.configs = configs;
     this.packetQueueSize = packetQueueSize;
     this.numWorkerThreads = numWorkerThreads;
+    this.processOnReceiverThreads = processOnReceiverThreads;
+    this.receiveBufferSize = receiveBufferSize;
 
     executorService = new SafeScheduledExecutorService(this.numWorkerThreads, "UDP_Source_Worker_");
 
@@ -83,9 +103,25 @@ public class MultithreadedUDPSource extends BasePushSource {
       parser = configs.getParser();
       final List<InetSocketAddress> addresses = configs.getAddresses();
       if (!addresses.isEmpty()) {
-        final Map<String, Object> gaugeMap = getContext().createGauge(PACKET_QUEUE_GAUGE_NAME).getValue();
-        handler = new PacketQueueUDPHandler(gaugeMap, packetQueueSize);
-        udpServer = new UDPConsumingServer(configs.enableEpoll, configs.numThreads, addresses, handler);
+        if (isShardedByReceiver()) {
+          udpServer = new UDPConsumingServer(
+              true,
+              configs.numThreads,
+              addresses,
+              createReceiverInitializer(addresses.size() * configs.numThreads),
+              receiveBufferSize
+          );
+        } else {
+          final Map<String, Object> gaugeMap = getContext().createGauge(PACKET_QUEUE_GAUGE_NAME).getValue();
+          handler = new PacketQueueUDPHandler(gaugeMap, packetQueueSize);
+          udpServer = new UDPConsumingServer(
+              configs.enableEpoll,
+              configs.numThreads,
+              addresses,
+              handler,
+              receiveBufferSize
+          );
+        }
         try {
           udpServer.listen();
           udpServer.start();
@@ -126,8 +162,40 @@ public class MultithreadedUDPSource extends BasePushSource {
     return Long.toString(recordCount);
   }
 
+  /**
+   * With native transports every SO_REUSEPORT socket can run its own pipeline runner, the kernel spreads the
+   * packets across the sockets.
+   */
+  private boolean isShardedByReceiver() {
+    return processOnReceiverThreads && configs.enableEpoll;
+  }
+
+  private ChannelInitializer<Channel> createReceiverInitializer(int numberOfReceivers) {
+    final List<Map<String, Object>> gaugeMaps = new ArrayList<>(numberOfReceivers);
+    for (int i = 1; i <= numberOfReceivers; i++) {
+      gaugeMaps.add(getContext().createGauge(RECEIVER_GAUGE_NAME_PREFIX + i).getValue());
+    }
+    final AtomicInteger receiverIndex = new AtomicInteger();
+    return new ChannelInitializer<Channel>() {
+      @Override
+      protected void initChannel(Channel channel) {
+        ReceiverUDPHandler receiver = new ReceiverUDPHandler(
+            getContext(),
+            parser,
+            configs.maxWaitTime,
+            gaugeMaps.get(receiverIndex.getAndIncrement())
+        );
+        receivers.add(receiver);
+        channel.pipeline().addLast(receiver);
+      }
+    };
+  }
+
   @Override
   public int getNumberOfThreads() {
+    if (isShardedByReceiver()) {
+      return configs.ports.size() * configs.numThreads;
+    }
     return numWorkerThreads;
   }
 
@@ -138,6 +206,19 @@ public class MultithreadedUDPSource extends BasePushSource {
     final int finalMaxBatchSize = Math.min(configs.batchSize, maxBatchSize);
 
     try {
+      if (isShardedByReceiver()) {
+        for (ReceiverUDPHandler receiver : receivers) {
+          receiver.start(finalMaxBatchSize);
+        }
+        while (!getContext().isStopped()) {
+          ThreadUtil.sleep(101);
+        }
+        for (ReceiverUDPHandler receiver : receivers) {
+          receiver.stop().awaitUninterruptibly();
+        }
+        return;
+      }
+
       ExecutorCompletionService<Future> completionService = new ExecutorCompletionService<>(executorService);
 
       List<Future> allFutures = new LinkedList<>();
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.udp;
+
+import com.streamsets.pipeline.api.BatchContext;
+import com.streamsets.pipeline.api.PushSource;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.base.OnRecordErrorException;
+import com.streamsets.pipeline.lib.parser.udp.AbstractParser;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.socket.DatagramPacket;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.ScheduledFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Handler of a single receiver socket when packets are processed on the receiver threads.
+ * <p/>
+ * Everything runs on the event loop thread of the socket: packets are parsed into the batch of the runner owned by
+ * the socket and the batch goes through the pipeline once full or once the batch wait time expires. While the
+ * pipeline runs the socket is not read, pending packets wait in its kernel receive buffer. When the origin stops, the
+ * partially filled batch still goes through the pipeline before produce returns.
+ */
+class ReceiverUDPHandler extends SimpleChannelInboundHandler<DatagramPacket> {
+  private static final Logger LOG = LoggerFactory.getLogger(ReceiverUDPHandler.class);
+
+  static final String GAUGE_RECEIVED_PACKETS = "Received Packets";
+  static final String GAUGE_DROPPED_PACKETS = "Dropped Packets";
+  static final String GAUGE_PARSE_ERRORS = "Parse Errors";
+  static final String GAUGE_RECORDS = "Records";
+
+  private final PushSource.Context context;
+  private final AbstractParser parser;
+  private final long maxWaitTimeMs;
+  private final Map<String, Object> gaugeMap;
+
+  private Channel channel;
+  private int maxBatchSize;
+  private ScheduledFuture<?> flushTask;
+  private BatchContext batchContext;
+  private int batchRecords;
+  private long batchStart;
+
+  private long receivedPackets;
+  private long droppedPackets;
+  private long parseErrors;
+  private long records;
+
+  ReceiverUDPHandler(
+      PushSource.Context context,
+      AbstractParser parser,
+      long maxWaitTimeMs,
+      Map<String, Object> gaugeMap
+  ) {
+    this.context = context;
+    this.parser = parser;
+    this.maxWaitTimeMs = maxWaitTimeMs;
+    this.gaugeMap = gaugeMap;
+  }
+
+  @Override
+  public void handlerAdded(ChannelHandlerContext ctx) {
+    channel = ctx.channel();
+    // nothing is read until the origin starts producing
+    channel.config().setAutoRead(false);
+  }
+
+  /**
+   * Starts reading the socket, called from the produce thread.
+   */
+  void start(int maxBatchSize) {
+    channel.eventLoop().execute(() -> {
+      this.maxBatchSize = maxBatchSize;
+      batchStart = System.currentTimeMillis();
+      // the timer shares the event loop with the reads, the batch is never accessed concurrently
+      flushTask = channel.eventLoop().scheduleAtFixedRate(
+          this::flushIfExpired,
+          maxWaitTimeMs,
+          maxWaitTimeMs,
+          TimeUnit.MILLISECONDS
+      );
+      channel.config().setAutoRead(true);
+    });
+  }
+
+  /**
+   * Stops reading the socket and sends the partially filled batch through the pipeline, called from the produce
+   * thread once the origin is stopped and before produce returns.
+   */
+  Future<?> stop() {
+    return channel.eventLoop().submit(() -> {
+      channel.config().setAutoRead(false);
+      if (flushTask != null) {
+        flushTask.cancel(false);
+        flushTask = null;
+      }
+      if (batchRecords > 0) {
+        flush();
+      }
+    });
+  }
+
+  @Override
+  protected void channelRead0(ChannelHandlerContext ctx, DatagramPacket packet) {
+    receivedPackets++;
+    if (context.isStopped()) {
+      droppedPackets++;
+    } else {
+      try {
+        List<Record> parsed = parser.parse(packet.content(), packet.recipient(), packet.sender());
+        if (parsed != null) {
+          for (Record record : parsed) {
+            if (batchContext == null) {
+              batchContext = context.startBatch();
+            }
+            batchContext.getBatchMaker().addRecord(record);
+            records++;
+            if (++batchRecords >= maxBatchSize) {
+              flush();
+            }
+          }
+        }
+      } catch (OnRecordErrorException ex) {
+        parseErrors++;
+        context.reportError(ex.getErrorCode(), ex.getParams());
+      } catch (Exception ex) {
+        parseErrors++;
+        context.reportError(ex);
+      }
+    }
+    updateGauges();
+  }
+
+  private void flushIfExpired() {
+    if (!context.isStopped() && System.currentTimeMillis() - batchStart >= maxWaitTimeMs) {
+      flush();
+    }
+  }
+
+  private void flush() {
+    if (batchContext == null) {
+      batchContext = context.startBatch();
+    }
+    context.processBatch(batchContext);
+    batchContext = null;
+    batchRecords = 0;
+    batchStart = System.currentTimeMillis();
+  }
+
+  private void updateGauges() {
+    gaugeMap.put(GAUGE_RECEIVED_PACKETS, receivedPackets);
+    gaugeMap.put(GAUGE_DROPPED_PACKETS, droppedPackets);
+    gaugeMap.put(GAUGE_PARSE_ERRORS, parseErrors);
+    gaugeMap.put(GAUGE_RECORDS, records);
+  }
+
+  @Override
+  public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+    if (flushTask != null) {
+      flushTask.cancel(false);
+    }
+    super.channelInactive(ctx);
+  }
+
+  @Override
+  public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+    LOG.error("Uncaught throwable in UDP receiver: {}", cause.toString(), cause);
+  }
+}
@@ -133,7 +133,7 @@ public class ExpressionProcessor extends SingleLaneRecordProcessor {
       }
 
       if(FieldRegexUtil.hasWildCards(fieldToSet)) {
-        for(String field : FieldRegexUtil.getMatchingFieldPaths(fieldToSet, record.getEscapedFieldPaths())) {
+        for(String field : FieldRegexUtil.getMatchingFieldPaths(fieldToSet, record)) {
           record.set(field, newField);
         }
       } else {
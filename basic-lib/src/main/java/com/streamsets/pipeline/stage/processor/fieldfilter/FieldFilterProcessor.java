@@ -57,8 +57,6 @@ public class FieldFilterProcessor extends SingleLaneRecordProcessor {
 
   @Override
   protected void process(Record record, SingleLaneBatchMaker batchMaker) throws StageException {
-    // use List to preserve the order of list fieldPaths - need to watch out for duplicates though
-    List<String> allFieldPaths = record.getEscapedFieldPathsOrdered();
     // use LinkedHashSet to preserve order and dedupe as we go
     LinkedHashSet<String> fieldsToRemove;
     switch(filterOperation) {
@@ -69,8 +67,7 @@ public class FieldFilterProcessor extends SingleLaneRecordProcessor {
               field,
               fieldPathEval,
               fieldPathVars,
-              record,
-              allFieldPaths
+              record
           );
           fieldsToRemove.addAll(matchingFieldPaths);
         }
@@ -82,8 +79,7 @@ public class FieldFilterProcessor extends SingleLaneRecordProcessor {
               field,
               fieldPathEval,
               fieldPathVars,
-              record,
-              allFieldPaths
+              record
           );
           for (String fieldPath : matchingFieldPaths) {
             if (record.has(fieldPath) && record.get(fieldPath).getValue() == null) {
@@ -99,8 +95,7 @@ public class FieldFilterProcessor extends SingleLaneRecordProcessor {
               field,
               fieldPathEval,
               fieldPathVars,
-              record,
-              allFieldPaths
+              record
           );
           for (String fieldPath : matchingFieldPaths) {
             if (record.has(fieldPath)
@@ -117,8 +112,7 @@ public class FieldFilterProcessor extends SingleLaneRecordProcessor {
               field,
               fieldPathEval,
               fieldPathVars,
-              record,
-              allFieldPaths
+              record
           );
           for (String fieldPath : matchingFieldPaths) {
             if (record.has(fieldPath)
@@ -135,8 +129,7 @@ public class FieldFilterProcessor extends SingleLaneRecordProcessor {
               field,
               fieldPathEval,
               fieldPathVars,
-              record,
-              allFieldPaths
+              record
           );
           for (String fieldPath : matchingFieldPaths) {
             if (record.has(fieldPath)
@@ -156,6 +149,8 @@ public class FieldFilterProcessor extends SingleLaneRecordProcessor {
         //
         // - Keep fieldsToRemove in order - sorting is too costly
         //List all the possible field paths in this record
+        // use List to preserve the order of list fieldPaths - need to watch out for duplicates though
+        List<String> allFieldPaths = record.getEscapedFieldPathsOrdered();
         fieldsToRemove = new LinkedHashSet<>(allFieldPaths);
         for(String field : fields) {
           //Keep parent fields
@@ -256,8 +256,7 @@ public class FieldHasherProcessor extends SingleLaneRecordProcessor {
             fieldToHash,
             fieldPathEval,
             fieldPathVars,
-            record,
-            record.getEscapedFieldPaths()
+            record
         );
         matchingFieldsForTheConfig.addAll(matchingFieldsPath);
       }
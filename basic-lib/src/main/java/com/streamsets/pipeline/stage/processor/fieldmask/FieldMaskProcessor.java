@@ -118,7 +118,6 @@ public class FieldMaskProcessor extends SingleLaneRecordProcessor {
 
   @Override
   protected void process(Record record, SingleLaneBatchMaker batchMaker) throws StageException {
-    Set<String> fieldPaths = record.getEscapedFieldPaths();
     List<String> nonStringFields = new ArrayList<>();
     // For each individual configuration entry
     for(FieldMaskConfig fieldMaskConfig : activeFieldMaskConfigs) {
@@ -129,8 +128,7 @@ public class FieldMaskProcessor extends SingleLaneRecordProcessor {
             toMask,
             fieldPathEval,
             fieldPathVars,
-            record,
-            fieldPaths
+            record
         )) {
           if (record.has(matchingFieldPath)) {
             Field field = record.get(matchingFieldPath);
@@ -63,8 +63,7 @@ public class FieldReplacerProcessor extends SingleLaneRecordProcessor {
         rule.fields,
         pathEval,
         vars,
-        record,
-        record.getEscapedFieldPaths()
+        record
       );
 
       if(fieldPaths.isEmpty() && conf.onStagePreConditionFailure == OnStagePreConditionFailure.TO_ERROR) {
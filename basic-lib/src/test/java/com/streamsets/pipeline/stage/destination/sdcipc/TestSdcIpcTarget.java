@@ -278,6 +278,25 @@ public class TestSdcIpcTarget {
     testWriteError(false, true);
   }
 
+  @Test
+  public void testReleaseConnectionDrainsResponse() throws Exception {
+    HttpURLConnection conn = Mockito.mock(MockHttpURLConnection.class);
+    InputStream is = Mockito.spy(new ByteArrayInputStream(new byte[10000]));
+    Mockito.when(conn.getInputStream()).thenReturn(is);
+
+    SdcIpcTarget.releaseConnection(conn, true);
+
+    Assert.assertEquals(0, is.available());
+    Mockito.verify(is).close();
+    Mockito.verify(conn, Mockito.never()).disconnect();
+
+    // error responses are read from the error stream, a missing one is ignored
+    Mockito.reset(conn);
+    SdcIpcTarget.releaseConnection(conn, false);
+    Mockito.verify(conn).getErrorStream();
+    Mockito.verify(conn, Mockito.never()).getInputStream();
+  }
+
   private static class ReceiverServlet extends HttpServlet {
     boolean compressedData;
 
@@ -17,14 +17,14 @@ package com.streamsets.pipeline.stage.origin.sdcipc;
 
 import com.google.common.collect.ImmutableList;
 import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.PushSource;
 import com.streamsets.pipeline.api.Record;
-import com.streamsets.pipeline.api.Source;
 import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.api.credential.CredentialValue;
 import com.streamsets.pipeline.api.ext.ContextExtensions;
 import com.streamsets.pipeline.api.ext.RecordWriter;
+import com.streamsets.pipeline.sdk.PushSourceRunner;
 import com.streamsets.pipeline.sdk.RecordCreator;
-import com.streamsets.pipeline.sdk.SourceRunner;
 import com.streamsets.pipeline.sdk.StageRunner;
 import com.streamsets.pipeline.stage.destination.sdcipc.Constants;
 import com.streamsets.pipeline.stage.util.tls.TLSTestUtils;
@@ -40,11 +40,14 @@ import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.security.KeyPair;
 import java.security.cert.Certificate;
+import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
@@ -76,11 +79,21 @@ public class TestSdcIpcSource {
     configs.tlsConfigBean.keyStorePassword = () -> "keystore";
     configs.port = randomPort;
     configs.maxWaitTimeSecs = 2;
-    Source source = new SdcIpcSource(configs);
-    final SourceRunner runner = new SourceRunner.Builder(SdcIpcDSource.class, source).addOutputLane("lane").build();
+    PushSource source = new SdcIpcSource(configs);
+    final PushSourceRunner runner = new PushSourceRunner.Builder(SdcIpcDSource.class, source)
+        .addOutputLane("lane")
+        .build();
     try {
       runner.runInit();
 
+      // empty batches are dispatched every maxWaitTimeSecs, only keep the ones carrying records
+      final BlockingQueue<StageRunner.Output> outputs = new LinkedBlockingQueue<>();
+      runner.runProduce(Collections.emptyMap(), 10, output -> {
+        if (!output.getRecords().get("lane").isEmpty()) {
+          outputs.add(output);
+        }
+      });
+
       ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
 
       //valid init
@@ -113,8 +126,8 @@ public class TestSdcIpcSource {
                              trustStore.toString(), "truststore", compressed, records);
         }
       });
-      StageRunner.Output output = runner.runProduce(null, 10);
-      Assert.assertNotNull(output.getNewOffset());
+      StageRunner.Output output = outputs.poll(5, TimeUnit.SECONDS);
+      Assert.assertNotNull(output);
       Assert.assertEquals(2, output.getRecords().get("lane").size());
       Assert.assertTrue(runner.getErrorRecords().isEmpty());
       Assert.assertTrue(runner.getErrors().isEmpty());
@@ -145,6 +158,9 @@ public class TestSdcIpcSource {
                                              trustStore.toString(), "truststore");
       Assert.assertEquals(HttpURLConnection.HTTP_OK, conn.getResponseCode());
 
+      runner.setStop();
+      runner.waitOnProduce();
+      Assert.assertTrue(outputs.isEmpty());
     } finally {
       runner.runDestroy();
     }
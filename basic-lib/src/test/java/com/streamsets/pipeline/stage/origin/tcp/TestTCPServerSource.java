@@ -16,8 +16,12 @@
 package com.streamsets.pipeline.stage.origin.tcp;
 
 import com.google.common.primitives.Bytes;
+import com.streamsets.pipeline.api.BatchContext;
+import com.streamsets.pipeline.api.BatchMaker;
 import com.streamsets.pipeline.api.ErrorCode;
+import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.OnRecordError;
+import com.streamsets.pipeline.api.PushSource;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.api.StageException;
@@ -28,6 +32,7 @@ import com.streamsets.pipeline.lib.parser.net.syslog.SyslogMessage;
 import com.streamsets.pipeline.lib.parser.text.TextDataParserFactory;
 import com.streamsets.pipeline.lib.tls.TlsConfigErrors;
 import com.streamsets.pipeline.sdk.PushSourceRunner;
+import com.streamsets.pipeline.sdk.RecordCreator;
 import com.streamsets.pipeline.stage.common.DataFormatErrors;
 import com.streamsets.pipeline.stage.util.tls.TLSTestUtils;
 import com.streamsets.testing.NetworkUtils;
@@ -53,6 +58,7 @@ import org.apache.flume.source.avro.AvroSourceProtocol;
 import org.apache.flume.source.avro.Status;
 import org.junit.Assert;
 import org.junit.Test;
+import org.mockito.Mockito;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -63,6 +69,7 @@ import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.security.KeyPair;
 import java.security.cert.Certificate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -300,6 +307,113 @@ public class TestTCPServerSource {
     assertThat(actualAcks, equalTo(expectedAcks));
   }
 
+  @Test
+  public void runManyBatchesInConnectionOrder() throws Exception {
+    final int numRecords = 500;
+    final int batchSize = 7;
+    final StringBuilder data = new StringBuilder();
+    for (int i = 0; i < numRecords; i++) {
+      data.append("record").append(i).append('\n');
+    }
+
+    final Charset charset = Charsets.ISO_8859_1;
+    final TCPServerSourceConfig configBean = createConfigBean(charset);
+    configBean.dataFormat = DataFormat.TEXT;
+    configBean.tcpMode = TCPMode.DELIMITED_RECORDS;
+    configBean.recordSeparatorStr = "\n";
+    configBean.ports = NetworkUtils.getRandomPorts(1);
+    configBean.numThreads = 3;
+    configBean.recordProcessedAckMessage = "";
+    configBean.batchCompletedAckMessage = "";
+    configBean.batchSize = batchSize;
+
+    final TCPServerSource source = new TCPServerSource(configBean);
+    final String outputLane = "lane";
+    final PushSourceRunner runner = new PushSourceRunner.Builder(TCPServerDSource.class, source)
+        .addOutputLane(outputLane)
+        .build();
+
+    final List<Record> records = Collections.synchronizedList(new LinkedList<>());
+    runner.runInit();
+
+    EventLoopGroup workerGroup = new NioEventLoopGroup();
+    // batches of the connection start to pile up before the runners are started
+    ChannelFuture channelFuture = startTcpClient(configBean, workerGroup, data.toString().getBytes(charset), true);
+
+    runner.runProduce(new HashMap<>(), batchSize, output -> {
+      List<Record> batch = output.getRecords().get(outputLane);
+      assertThat(batch.size() <= batchSize, equalTo(true));
+      records.addAll(batch);
+      if (records.size() >= numRecords) {
+        runner.setStop();
+      }
+    });
+    runner.waitOnProduce();
+
+    channelFuture.channel().close();
+    workerGroup.shutdownGracefully();
+
+    assertThat(records, hasSize(numRecords));
+    for (int i = 0; i < numRecords; i++) {
+      assertThat(records.get(i).get("/text").getValueAsString(), equalTo("record" + i));
+    }
+  }
+
+  @Test
+  public void leftoverRecordsFollowBatchInFlightOnClose() throws Exception {
+    final List<String> processed = new ArrayList<>();
+    BatchMaker batchMaker = Mockito.mock(BatchMaker.class);
+    Mockito.doAnswer(invocation -> {
+      processed.add(((Record) invocation.getArguments()[0]).get().getValueAsString());
+      return null;
+    }).when(batchMaker).addRecord(Mockito.any(Record.class));
+    BatchContext batchContext = Mockito.mock(BatchContext.class);
+    Mockito.when(batchContext.getBatchMaker()).thenReturn(batchMaker);
+    PushSource.Context context = Mockito.mock(PushSource.Context.class);
+    Mockito.when(context.startBatch()).thenReturn(batchContext);
+
+    TCPBatchHandoff batchHandoff = new TCPBatchHandoff();
+    TCPObjectToRecordHandler handler = new TCPObjectToRecordHandler(
+        context,
+        batchHandoff,
+        2,
+        60000,
+        (pipelineId, e) -> {},
+        null,
+        null,
+        "",
+        null,
+        null,
+        "",
+        "UTC",
+        Charsets.UTF_8
+    );
+    EmbeddedChannel channel = new EmbeddedChannel(handler);
+    for (int i = 0; i < 5; i++) {
+      Record record = RecordCreator.create();
+      record.set(Field.create("record" + i));
+      channel.writeInbound(record);
+    }
+    // first batch is in flight, the remaining three records are still with the connection when it closes
+    channel.close();
+
+    Runnable first = batchHandoff.take(0);
+    Assert.assertNotNull(first);
+    // leftover batches are only handed off once the batch before them is processed
+    Assert.assertNull(batchHandoff.take(0));
+    first.run();
+    Runnable second = batchHandoff.take(0);
+    Assert.assertNotNull(second);
+    Assert.assertNull(batchHandoff.take(0));
+    second.run();
+    Runnable third = batchHandoff.take(0);
+    Assert.assertNotNull(third);
+    third.run();
+    Assert.assertNull(batchHandoff.take(0));
+
+    assertThat(processed, equalTo(Arrays.asList("record0", "record1", "record2", "record3", "record4")));
+  }
+
   @Test
   public void errorHandling() throws StageException, IOException, ExecutionException, InterruptedException {
 
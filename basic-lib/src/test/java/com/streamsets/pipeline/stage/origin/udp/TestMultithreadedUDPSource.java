@@ -20,18 +20,165 @@ import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.config.DatagramMode;
 import com.streamsets.pipeline.sdk.PushSourceRunner;
 import com.streamsets.pipeline.sdk.StageRunner;
+import com.streamsets.testing.NetworkUtils;
+import io.netty.channel.epoll.Epoll;
+import org.awaitility.Duration;
 import org.junit.Assert;
 import org.junit.Ignore;
+import org.junit.Test;
 
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
-@Ignore
+import static org.awaitility.Awaitility.await;
+import static org.junit.Assume.assumeTrue;
+
 public class TestMultithreadedUDPSource extends BaseUDPSourceTest {
+  private static final String SYSLOG_MESSAGE = "<34>1 2003-10-11T22:14:15.003Z mymachine.example.com some syslog data";
+
   private PushSourceRunner pushRunner;
   private MultithreadedUDPSource multithreadedSource;
 
+  @Ignore
+  @Test
+  @Override
+  public void testBasic() throws Exception {
+    super.testBasic();
+  }
+
+  @Ignore
+  @Test
+  @Override
+  public void testBasicEpoll() throws Exception {
+    super.testBasicEpoll();
+  }
+
+  @Test
+  public void testReceiverFlushesFullBatches() throws Exception {
+    assumeTrue(Epoll.isAvailable());
+    String port = NetworkUtils.getRandomPort() + "";
+    PushSourceRunner runner = createReceiverRunner(port, 5, 60000);
+    List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+    try {
+      runner.runProduce(new HashMap<>(), 5, output -> batchSizes.add(getBatchSize(output)));
+      sendPackets(port, "not syslog", 1);
+      sendPackets(port, SYSLOG_MESSAGE, 12);
+
+      // full batches go through the pipeline right away, the wait time is far off
+      await().atMost(Duration.TEN_SECONDS).until(() -> getReceiverGauge(runner, ReceiverUDPHandler.GAUGE_RECEIVED_PACKETS) == 13L);
+      Assert.assertEquals(Arrays.asList(5, 5), batchSizes);
+
+      // the remaining records go through the pipeline on stop
+      runner.setStop();
+      runner.waitOnProduce();
+      Assert.assertEquals(Arrays.asList(5, 5, 2), batchSizes);
+
+      Assert.assertEquals(12L, getReceiverGauge(runner, ReceiverUDPHandler.GAUGE_RECORDS));
+      Assert.assertEquals(1L, getReceiverGauge(runner, ReceiverUDPHandler.GAUGE_PARSE_ERRORS));
+      Assert.assertEquals(0L, getReceiverGauge(runner, ReceiverUDPHandler.GAUGE_DROPPED_PACKETS));
+      Assert.assertEquals(1, runner.getErrors().size());
+    } finally {
+      runner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testReceiverFlushesOnBatchWaitTime() throws Exception {
+    assumeTrue(Epoll.isAvailable());
+    String port = NetworkUtils.getRandomPort() + "";
+    PushSourceRunner runner = createReceiverRunner(port, 100, 200);
+    AtomicInteger produced = new AtomicInteger();
+    try {
+      runner.runProduce(new HashMap<>(), 100, output -> produced.addAndGet(getBatchSize(output)));
+      sendPackets(port, SYSLOG_MESSAGE, 3);
+
+      // the batch is far from full, only the wait time sends it through the pipeline
+      await().atMost(Duration.TEN_SECONDS).until(() -> produced.get() == 3);
+
+      runner.setStop();
+      runner.waitOnProduce();
+      Assert.assertEquals(3, produced.get());
+      Assert.assertEquals(3L, getReceiverGauge(runner, ReceiverUDPHandler.GAUGE_RECEIVED_PACKETS));
+      Assert.assertEquals(3L, getReceiverGauge(runner, ReceiverUDPHandler.GAUGE_RECORDS));
+    } finally {
+      runner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testReceiverFlushesPartialBatchOnStop() throws Exception {
+    assumeTrue(Epoll.isAvailable());
+    String port = NetworkUtils.getRandomPort() + "";
+    PushSourceRunner runner = createReceiverRunner(port, 100, 60000);
+    List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+    try {
+      runner.runProduce(new HashMap<>(), 100, output -> batchSizes.add(getBatchSize(output)));
+      sendPackets(port, SYSLOG_MESSAGE, 3);
+
+      await().atMost(Duration.TEN_SECONDS).until(() -> getReceiverGauge(runner, ReceiverUDPHandler.GAUGE_RECORDS) == 3L);
+      Assert.assertTrue(batchSizes.isEmpty());
+
+      runner.setStop();
+      runner.waitOnProduce();
+      Assert.assertEquals(Collections.singletonList(3), batchSizes);
+      Assert.assertEquals(0L, getReceiverGauge(runner, ReceiverUDPHandler.GAUGE_DROPPED_PACKETS));
+      Assert.assertEquals(0L, getReceiverGauge(runner, ReceiverUDPHandler.GAUGE_PARSE_ERRORS));
+    } finally {
+      runner.runDestroy();
+    }
+  }
+
+  private PushSourceRunner createReceiverRunner(String port, int batchSize, long maxWaitTime) throws StageException {
+    final UDPSourceConfigBean conf = new UDPSourceConfigBean();
+    conf.ports = Collections.singletonList(port);
+    conf.enableEpoll = true;
+    conf.numThreads = 1;
+    conf.dataFormat = DatagramMode.SYSLOG;
+    conf.maxWaitTime = maxWaitTime;
+    conf.batchSize = batchSize;
+    conf.collectdCharset = UTF8;
+    conf.syslogCharset = UTF8;
+    conf.rawDataCharset = UTF8;
+
+    PushSourceRunner runner = new PushSourceRunner.Builder(
+        MultithreadedUDPDSource.class,
+        new MultithreadedUDPSource(conf, 500, 1, true, 0)
+    ).addOutputLane(OUTPUT_LANE).build();
+    runner.runInit();
+    return runner;
+  }
+
+  private void sendPackets(String port, String message, int count) throws Exception {
+    byte[] bytes = message.getBytes(UTF8);
+    try (DatagramSocket clientSocket = new DatagramSocket()) {
+      InetAddress address = InetAddress.getLoopbackAddress();
+      for (int i = 0; i < count; i++) {
+        clientSocket.send(new DatagramPacket(bytes, bytes.length, address, Integer.parseInt(port)));
+      }
+    }
+  }
+
+  private int getBatchSize(StageRunner.Output output) {
+    List<Record> records = getOutputRecords(output);
+    return records == null ? 0 : records.size();
+  }
+
+  private long getReceiverGauge(PushSourceRunner runner, String name) {
+    Map<String, Object> gauge = runner.getContext()
+        .getGauge(MultithreadedUDPSource.RECEIVER_GAUGE_NAME_PREFIX + 1)
+        .getValue();
+    Object value = gauge.get(name);
+    return value == null ? 0 : (Long) value;
+  }
+
   @Override
   protected void initializeRunner(UDPSourceConfigBean conf, int numThreads) throws StageException {
     multithreadedSource = new MultithreadedUDPSource(
@@ -25,12 +25,14 @@ import com.datastax.driver.core.HostDistance;
 import com.datastax.driver.core.KeyspaceMetadata;
 import com.datastax.driver.core.PlainTextAuthProvider;
 import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.ProtocolVersion;
 import com.datastax.driver.core.QueryLogger;
 import com.datastax.driver.core.QueryOptions;
 import com.datastax.driver.core.RemoteEndpointAwareJdkSSLOptions;
 import com.datastax.driver.core.ResultSetFuture;
 import com.datastax.driver.core.Session;
 import com.datastax.driver.core.SocketOptions;
+import com.datastax.driver.core.Statement;
 import com.datastax.driver.core.TableMetadata;
 import com.datastax.driver.core.TypeCodec;
 import com.datastax.driver.core.exceptions.AuthenticationException;
@@ -46,7 +48,6 @@ import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Sets;
 import com.streamsets.pipeline.api.Batch;
 import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.Record;
@@ -65,18 +66,21 @@ import javax.annotation.Nullable;
 import javax.security.auth.Subject;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
 import java.security.AccessControlContext;
 import java.security.AccessController;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
-import java.util.SortedSet;
 import java.util.TreeMap;
-import java.util.TreeSet;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
@@ -108,7 +112,13 @@ public class CassandraTarget extends BaseTarget {
   private Session session;
 
   private SortedMap<String, String> columnMappings;
-  private LoadingCache<SortedSet<String>, PreparedStatement> statementCache;
+  // Column names and their field paths in the same order as in columnMappings, used to bind records to statements
+  private String[] columnNames;
+  private String[] fieldPaths;
+  // Prepared statements keyed by the indexes (into columnNames) of the columns that are present in the record
+  private LoadingCache<BitSet, PreparedStatement> statementCache;
+  // Limits the number of requests that are in flight at any given time
+  private Semaphore inFlightRequests;
   private ErrorRecordHandler errorRecordHandler;
 
   public CassandraTarget(CassandraTargetConfig conf) {
@@ -202,21 +212,21 @@ public class CassandraTarget extends BaseTarget {
       try {
         cluster = getCluster();
         session = cluster.connect();
+        inFlightRequests = new Semaphore(getMaxConnections());
+
+        columnNames = columnMappings.keySet().toArray(new String[0]);
+        fieldPaths = columnMappings.values().toArray(new String[0]);
 
         statementCache = CacheBuilder.newBuilder()
             // No expiration as prepared statements are good for the entire session.
             .build(
-                new CacheLoader<SortedSet<String>, PreparedStatement>() {
+                new CacheLoader<BitSet, PreparedStatement>() {
                   @Override
-                  public PreparedStatement load(@NotNull SortedSet<String> columns) {
+                  public PreparedStatement load(@NotNull BitSet columns) {
                     // The INSERT query we're going to perform (parameterized).
-                    SortedSet<String> statementColumns = new TreeSet<>();
-                    for (String fieldPath : columnMappings.keySet()) {
-                      final String fieldName = fieldPath.replaceAll("/", "");
-                      if (columns.contains(fieldName)) {
-                        statementColumns.add(fieldName);
-                      }
-                    }
+                    List<String> statementColumns = columns.stream()
+                        .mapToObj(i -> columnNames[i])
+                        .collect(Collectors.toList());
                     final String query = String.format(
                         "INSERT INTO %s (%s) VALUES (%s);",
                         conf.qualifiedTableName,
@@ -315,51 +325,64 @@ public class CassandraTarget extends BaseTarget {
    */
   public void writeUnbatchedInsert(Batch batch) throws StageException {
     Iterator<Record> records = batch.getRecords();
-    Map<BoundStatement, Record> statementsToExecute = new HashMap<>();
-    Map<ResultSetFuture, Record> tasks = new HashMap<>();
+    Map<ResultSetFuture, List<Record>> tasks = new LinkedHashMap<>();
 
     while (records.hasNext()) {
       final Record record = records.next();
       BoundStatement boundStatement = recordToBoundStatement(record);
       if (boundStatement != null) {
-        statementsToExecute.put(boundStatement, record);
+        executeAsync(boundStatement, Collections.singletonList(record), tasks);
       }
     }
 
-    for (BoundStatement statement : statementsToExecute.keySet()) {
-      tasks.put(session.executeAsync(statement), statementsToExecute.get(statement));
-      if (tasks.size() == getMaxConnections()) {
-        getTaskResult(tasks);
-      }
-    }
+    getTaskResult(tasks);
+  }
 
-    if (tasks.size() > 0) {
-      getTaskResult(tasks);
+  /**
+   * Submits the statement once there is a free slot in the window of in-flight requests. The slot is released as
+   * soon as the request completes, so a single slow request doesn't hold back submission of the following ones.
+   */
+  private void executeAsync(Statement statement, List<Record> records, Map<ResultSetFuture, List<Record>> tasks) {
+    inFlightRequests.acquireUninterruptibly();
+    ResultSetFuture future;
+    try {
+      future = session.executeAsync(statement);
+    } catch (RuntimeException e) {
+      inFlightRequests.release();
+      throw e;
     }
+    future.addListener(inFlightRequests::release, Runnable::run);
+    tasks.put(future, records);
   }
 
-  private void getTaskResult(Map<ResultSetFuture, Record> tasks) {
-    for (ResultSetFuture task : tasks.keySet()) {
+  private void getTaskResult(Map<ResultSetFuture, List<Record>> tasks) throws StageException {
+    for (Map.Entry<ResultSetFuture, List<Record>> task : tasks.entrySet()) {
       try {
-        task.getUninterruptibly(conf.writeTimeout, TimeUnit.MILLISECONDS);
+        task.getKey().getUninterruptibly(conf.writeTimeout, TimeUnit.MILLISECONDS);
       } catch (TimeoutException e) {
         LOG.debug(Errors.CASSANDRA_11.getMessage(), conf.writeTimeout, e);
-        Record errorRecord = tasks.get(task);
-        errorRecordHandler.onError(
-            new OnRecordErrorException(
-                errorRecord,
-                Errors.CASSANDRA_11,
-                conf.writeTimeout,
-                e.toString(),
-                e
-            )
-        );
+        for (Record errorRecord : task.getValue()) {
+          errorRecordHandler.onError(
+              new OnRecordErrorException(
+                  errorRecord,
+                  Errors.CASSANDRA_11,
+                  conf.writeTimeout,
+                  e.toString(),
+                  e
+              )
+          );
+        }
       }
     }
     tasks.clear();
   }
 
   public void writeBatchInsert(Batch batch) throws StageException {
+    if (conf.groupBatchesByPartition) {
+      writePartitionGroupedBatchInsert(batch);
+      return;
+    }
+
     // The batch holding the current batch to INSERT.
     BatchStatement batchedStatement = new BatchStatement(conf.batchType);
     Iterator<Record> records = batch.getRecords();
@@ -375,7 +398,7 @@ public class CassandraTarget extends BaseTarget {
         // this latest statement to it.
         if (batchedStatement.size() == conf.maxBatchSize) {
           session.execute(batchedStatement);
-          batchedStatement = new BatchStatement();
+          batchedStatement = new BatchStatement(conf.batchType);
         }
         batchedStatement.add(boundStmt);
       }
@@ -388,50 +411,72 @@ public class CassandraTarget extends BaseTarget {
   }
 
   /**
-   * Convert a Record into a fully-bound statement.
+   * Groups the statements by their partition key so that each batch targets a single partition (and thus a single
+   * replica set) and submits the batches concurrently through the window of in-flight requests.
    */
-  @SuppressWarnings("unchecked")
-  private BoundStatement recordToBoundStatement(Record record) throws StageException {
-    ImmutableList.Builder<Object> values = new ImmutableList.Builder<>();
-    SortedSet<String> columnsPresent = Sets.newTreeSet(columnMappings.keySet());
-    for (Map.Entry<String, String> mapping : columnMappings.entrySet()) {
-      String columnName = mapping.getKey();
-      String fieldPath = mapping.getValue();
+  private void writePartitionGroupedBatchInsert(Batch batch) throws StageException {
+    ProtocolVersion protocolVersion = cluster.getConfiguration().getProtocolOptions().getProtocolVersion();
+    CodecRegistry codecRegistry = cluster.getConfiguration().getCodecRegistry();
 
-      // If we're missing fields, skip them.
-      // If a field is present, but null, also remove it from columnsPresent since we can't write nulls.
-      if (!record.has(fieldPath) || record.get(fieldPath).getValue() == null) {
-        columnsPresent.remove(columnName);
+    Map<ByteBuffer, BatchStatement> partitionBatches = new LinkedHashMap<>();
+    Map<ByteBuffer, List<Record>> partitionRecords = new HashMap<>();
+    Map<ResultSetFuture, List<Record>> tasks = new LinkedHashMap<>();
+
+    Iterator<Record> records = batch.getRecords();
+    while (records.hasNext()) {
+      final Record record = records.next();
+      BoundStatement boundStmt = recordToBoundStatement(record);
+      if (boundStmt == null) {
         continue;
       }
 
-      final Object value = record.get(fieldPath).getValue();
-      // Special cases for handling SDC Lists and Maps,
-      // basically unpacking them into raw types.
-      if (value instanceof List) {
-        List<Object> unpackedList = new ArrayList<>();
-        for (Field item : (List<Field>) value) {
-          unpackedList.add(item.getValue());
-        }
-        values.add(unpackedList);
-      } else if (value instanceof Map) {
-        Map<Object, Object> unpackedMap = new HashMap<>();
-        for (Map.Entry<String, Field> entry : ((Map<String, Field>) value).entrySet()) {
-          unpackedMap.put(entry.getKey(), entry.getValue().getValue());
-        }
-        values.add(unpackedMap);
-      } else {
-        values.add(value);
+      ByteBuffer routingKey = boundStmt.getRoutingKey(protocolVersion, codecRegistry);
+      BatchStatement batchedStatement = partitionBatches.computeIfAbsent(
+          routingKey,
+          key -> new BatchStatement(conf.batchType)
+      );
+      List<Record> batchedRecords = partitionRecords.computeIfAbsent(routingKey, key -> new ArrayList<>());
+      if (batchedStatement.size() == conf.maxBatchSize) {
+        executeAsync(batchedStatement, batchedRecords, tasks);
+        batchedStatement = new BatchStatement(conf.batchType);
+        batchedRecords = new ArrayList<>();
+        partitionBatches.put(routingKey, batchedStatement);
+        partitionRecords.put(routingKey, batchedRecords);
       }
+      batchedStatement.add(boundStmt);
+      batchedRecords.add(record);
+    }
+
+    for (Map.Entry<ByteBuffer, BatchStatement> entry : partitionBatches.entrySet()) {
+      executeAsync(entry.getValue(), partitionRecords.get(entry.getKey()), tasks);
     }
 
+    getTaskResult(tasks);
+  }
+
+  /**
+   * Convert a Record into a fully-bound statement.
+   */
+  private BoundStatement recordToBoundStatement(Record record) throws StageException {
+    BitSet columnsPresent = new BitSet(columnNames.length);
+    Object[] values = new Object[columnNames.length];
+    int valueCount = 0;
+    for (int i = 0; i < columnNames.length; i++) {
+      // If we're missing fields, skip them.
+      // If a field is present, but null, also skip it since we can't write nulls.
+      Field field = record.get(fieldPaths[i]);
+      if (field == null || field.getValue() == null) {
+        continue;
+      }
+
+      columnsPresent.set(i);
+      values[valueCount++] = toCassandraValue(field.getValue());
+    }
 
     PreparedStatement stmt = statementCache.getUnchecked(columnsPresent);
-    // .toArray required to pass in a list to a varargs method.
-    Object[] valuesArray = values.build().toArray();
     BoundStatement boundStmt = null;
     try {
-      boundStmt = stmt.bind(valuesArray);
+      boundStmt = stmt.bind(valueCount == values.length ? values : Arrays.copyOf(values, valueCount));
     } catch (CodecNotFoundException | InvalidTypeException | NullPointerException e) {
       // NPE can occur if one of the values is a collection type with a null value inside it. Thus, it's a record
       // error. Note that this runs the risk of mistakenly treating a bug as a record error.
@@ -450,6 +495,27 @@ public class CassandraTarget extends BaseTarget {
     return boundStmt;
   }
 
+  /**
+   * Special cases for handling SDC Lists and Maps, basically unpacking them into raw types.
+   */
+  @SuppressWarnings("unchecked")
+  private static Object toCassandraValue(Object value) {
+    if (value instanceof List) {
+      List<Object> unpackedList = new ArrayList<>();
+      for (Field item : (List<Field>) value) {
+        unpackedList.add(item.getValue());
+      }
+      return unpackedList;
+    } else if (value instanceof Map) {
+      Map<Object, Object> unpackedMap = new HashMap<>();
+      for (Map.Entry<String, Field> entry : ((Map<String, Field>) value).entrySet()) {
+        unpackedMap.put(entry.getKey(), entry.getValue().getValue());
+      }
+      return unpackedMap;
+    }
+    return value;
+  }
+
   private Cluster getCluster() throws StageException {
     RemoteEndpointAwareJdkSSLOptions sslOptions = null;
 
@@ -134,6 +134,21 @@ public class CassandraTargetConfig {
   @ValueChooserModel(BatchTypeChooserValues.class)
   public BatchStatement.Type batchType = BatchStatement.Type.LOGGED;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.BOOLEAN,
+      defaultValue = "false",
+      label = "Group Batches by Partition",
+      description = "Groups records with the same partition key into their own batch and writes the batches" +
+          " concurrently, so that each batch is handled by the replicas owning the partition.",
+      displayPosition = 65,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "CASSANDRA",
+      dependsOn = "batchType",
+      triggeredByValue = "UNLOGGED"
+  )
+  public boolean groupBatchesByPartition = false;
+
   @ConfigDef(
       required = true,
       type = ConfigDef.Type.NUMBER,
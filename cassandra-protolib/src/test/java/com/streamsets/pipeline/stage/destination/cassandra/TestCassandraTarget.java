@@ -15,6 +15,7 @@
  */
 package com.streamsets.pipeline.stage.destination.cassandra;
 
+import com.datastax.driver.core.BatchStatement;
 import com.datastax.driver.core.Cluster;
 import com.datastax.driver.core.LocalDate;
 import com.datastax.driver.core.ProtocolVersion;
@@ -569,6 +570,62 @@ public class TestCassandraTarget {
     Assert.assertEquals(1000, allRows.size());
   }
 
+  @Test
+  public void testPartitionGroupedBatching() throws Exception {
+    final String tableName = "test.trips";
+    List<CassandraFieldMappingConfig> fieldMappings = ImmutableList.of(
+        new CassandraFieldMappingConfig("[0]", "driver_id"),
+        new CassandraFieldMappingConfig("[1]", "trip_id"),
+        new CassandraFieldMappingConfig("[2]", "time"),
+        new CassandraFieldMappingConfig("[3]", "x"),
+        new CassandraFieldMappingConfig("[4]", "y"),
+        new CassandraFieldMappingConfig("[5]", "time_id"),
+        new CassandraFieldMappingConfig("[6]", "unique_id")
+    );
+
+    CassandraTargetConfig conf = new CassandraTargetConfig();
+    conf.contactPoints.add(cassandra.getContainerIpAddress());
+    conf.port = cassandra.getMappedPort(CASSANDRA_NATIVE_PORT);
+    conf.protocolVersion = ProtocolVersion.V4;
+    conf.authProviderOption = AuthProviderOption.NONE;
+    conf.compression = CassandraCompressionCodec.NONE;
+    conf.columnNames = fieldMappings;
+    conf.qualifiedTableName = tableName;
+    conf.batchType = BatchStatement.Type.UNLOGGED;
+    conf.groupBatchesByPartition = true;
+    conf.maxBatchSize = 35;
+
+    Target target = new CassandraTarget(conf);
+    TargetRunner targetRunner = new TargetRunner.Builder(CassandraDTarget.class, target).build();
+
+    // 10 partitions (drivers) with 100 trips each, every partition spans several batches
+    List<Record> records = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      Record record = RecordCreator.create();
+      List<Field> fields = new ArrayList<>();
+      fields.add(Field.create(i % 10));
+      fields.add(Field.create(i));
+      fields.add(Field.create(3));
+      fields.add(Field.create(4.0));
+      fields.add(Field.create(5.0));
+      fields.add(Field.create(SAMPLE_TIMEUUID));
+      fields.add(Field.create(SAMPLE_UUID));
+      record.set(Field.create(fields));
+      records.add(record);
+    }
+    targetRunner.runInit();
+    targetRunner.runWrite(records);
+
+    Assert.assertTrue(targetRunner.getErrorRecords().isEmpty());
+    Assert.assertTrue(targetRunner.getErrors().isEmpty());
+
+    targetRunner.runDestroy();
+
+    ResultSet resultSet = session.execute("SELECT * FROM test.trips");
+    List<Row> allRows = resultSet.all();
+    Assert.assertEquals(1000, allRows.size());
+  }
+
   @Test
   public void testWriteNullValuedColumns() throws Exception {
     final String tableName = "test.test_null_values";
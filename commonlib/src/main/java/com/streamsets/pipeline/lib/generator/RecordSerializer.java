@@ -0,0 +1,89 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.generator;
+
+import com.streamsets.pipeline.api.Record;
+import org.apache.commons.io.IOUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+/**
+ * Serializes records into one message each for producers sending a message per record.
+ * <p/>
+ * The serializer owns a growable buffer that is rewound for every record and, when the factory generators are
+ * {@link ResettableDataGenerator}s, a single generator serving all the records. Other generators are created and
+ * closed per record as before, as they are for charsets writing a byte order mark only at the start of a stream.
+ * Instances are not thread safe, stages keep one per instance (that is per runner).
+ */
+public class RecordSerializer {
+  private static final int INITIAL_BUFFER_SIZE = 1024;
+
+  private final DataGeneratorFactory factory;
+  private final ByteArrayOutputStream buffer;
+  private DataGenerator generator;
+  private boolean reuseGenerator;
+
+  public RecordSerializer(DataGeneratorFactory factory) {
+    this(factory, INITIAL_BUFFER_SIZE);
+  }
+
+  public RecordSerializer(DataGeneratorFactory factory, int initialBufferSize) {
+    this.factory = factory;
+    buffer = new ByteArrayOutputStream(initialBufferSize);
+  }
+
+  /**
+   * Returns the message for the given record, the returned array is not reused.
+   */
+  public byte[] serialize(Record record) throws IOException, DataGeneratorException {
+    buffer.reset();
+    boolean done = false;
+    try {
+      if (generator == null) {
+        generator = factory.getGenerator(buffer);
+        reuseGenerator = generator instanceof ResettableDataGenerator &&
+            !writesByteOrderMark(factory.getSettings().getCharset());
+      }
+      generator.write(record);
+      if (reuseGenerator) {
+        ((ResettableDataGenerator) generator).reset();
+      } else {
+        generator.close();
+        generator = null;
+      }
+      done = true;
+    } finally {
+      if (!done) {
+        // the generator may be left in the middle of a message
+        IOUtils.closeQuietly(generator);
+        generator = null;
+      }
+    }
+    return buffer.toByteArray();
+  }
+
+  public void close() {
+    IOUtils.closeQuietly(generator);
+    generator = null;
+  }
+
+  static boolean writesByteOrderMark(Charset charset) {
+    return charset != null && "a".getBytes(charset).length * 2 != "aa".getBytes(charset).length;
+  }
+
+}
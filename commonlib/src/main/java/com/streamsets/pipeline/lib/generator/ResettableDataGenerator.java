@@ -0,0 +1,31 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.generator;
+
+import java.io.IOException;
+
+/**
+ * Data generator that can produce many consecutive messages on the same output stream.
+ * <p/>
+ * {@link #reset()} completes the current message, writing out any trailer and flushing it to the output stream, so
+ * the caller can take the bytes and rewind its buffer. The next {@link #write} starts a new message that is
+ * identical to what a freshly created generator would produce, while writers, encoders and schemas are kept.
+ */
+public interface ResettableDataGenerator extends DataGenerator {
+
+  void reset() throws IOException;
+
+}
@@ -18,6 +18,7 @@ package com.streamsets.pipeline.lib.generator.avro;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.lib.generator.DataGeneratorException;
+import com.streamsets.pipeline.lib.generator.ResettableDataGenerator;
 import com.streamsets.pipeline.lib.util.AvroSchemaHelper;
 import com.streamsets.pipeline.lib.util.AvroTypeUtil;
 import org.apache.avro.Schema;
@@ -32,7 +33,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Map;
 
-public class AvroMessageGenerator extends BaseAvroDataGenerator {
+public class AvroMessageGenerator extends BaseAvroDataGenerator implements ResettableDataGenerator {
 
   private DatumWriter<Object> datumWriter;
   private BinaryEncoder binaryEncoder;
@@ -81,6 +82,11 @@ public class AvroMessageGenerator extends BaseAvroDataGenerator {
     }
   }
 
+  @Override
+  public void reset() throws IOException {
+    completeMessage();
+  }
+
   @Override
   protected Flushable getFlushable() {
     return binaryEncoder;
@@ -115,6 +115,11 @@ abstract public class BaseAvroDataGenerator implements DataGenerator {
   }
   private State state;
 
+  /**
+   * True once a message has been completed with {@link #completeMessage()} and until the next record is written.
+   */
+  private boolean messageCompleted;
+
   public BaseAvroDataGenerator(
       boolean schemaInHeader,
       Schema schema,
@@ -166,7 +171,11 @@ abstract public class BaseAvroDataGenerator implements DataGenerator {
         initializeSchemaFromRecord(record);
       } else {
         String newAvroSchema = AvroTypeUtil.getAvroSchemaFromHeader(record, AVRO_SCHEMA_HEADER);
-        if (schemaHashCode != newAvroSchema.hashCode()) {
+        if (schemaHashCode != newAvroSchema.hashCode() && messageCompleted) {
+          // a new message can use a different schema, it starts with its own preamble
+          messageCompleted = false;
+          initializeSchemaFromRecord(record);
+        } else if (schemaHashCode != newAvroSchema.hashCode()) {
           LOG.error(
               "Record {} has a different schema. Expected: {}  Actual(Initialized): {}",
               record.getHeader().getSourceId(),
@@ -186,9 +195,24 @@ abstract public class BaseAvroDataGenerator implements DataGenerator {
       throw new IOException("generator has been closed");
     }
 
+    if (messageCompleted) {
+      messageCompleted = false;
+      postInitialize();
+    }
+
     writeRecord(record);
   }
 
+  /**
+   * Flushes the current message, the next record written starts a new message reusing the schema and writers.
+   */
+  protected void completeMessage() throws IOException {
+    flush();
+    if (state == State.OPENED) {
+      messageCompleted = true;
+    }
+  }
+
   @Override
   public void flush() throws IOException {
     if (state == State.CLOSED) {
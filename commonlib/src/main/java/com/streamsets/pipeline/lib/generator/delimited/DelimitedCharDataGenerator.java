@@ -18,8 +18,8 @@ package com.streamsets.pipeline.lib.generator.delimited;
 import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.config.CsvHeader;
-import com.streamsets.pipeline.lib.generator.DataGenerator;
 import com.streamsets.pipeline.lib.generator.DataGeneratorException;
+import com.streamsets.pipeline.lib.generator.ResettableDataGenerator;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
 
@@ -30,7 +30,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Set;
 
-public class DelimitedCharDataGenerator implements DataGenerator {
+public class DelimitedCharDataGenerator implements ResettableDataGenerator {
   private final CSVFormat format;
   private final CsvHeader header;
   private final String headerKey;
@@ -155,6 +155,13 @@ public class DelimitedCharDataGenerator implements DataGenerator {
     printer.flush();
   }
 
+  @Override
+  public void reset() throws IOException {
+    flush();
+    // every message carries its own header
+    firstRecord = true;
+  }
+
   @Override
   public void close() throws IOException {
     closed = true;
@@ -21,21 +21,33 @@ import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.ext.ContextExtensions;
 import com.streamsets.pipeline.api.ext.JsonRecordWriter;
 import com.streamsets.pipeline.api.ext.json.Mode;
-import com.streamsets.pipeline.lib.generator.DataGenerator;
 import com.streamsets.pipeline.lib.generator.DataGeneratorException;
+import com.streamsets.pipeline.lib.generator.ResettableDataGenerator;
 
+import java.io.FilterWriter;
 import java.io.IOException;
 import java.io.Writer;
 
-public class JsonCharDataGenerator implements DataGenerator {
+public class JsonCharDataGenerator implements ResettableDataGenerator {
 
-  private final JsonRecordWriter recordWriter;
+  private final ContextExtensions ext;
+  private final Writer writer;
+  private final Writer messageWriter;
   private final Mode mode;
+  private JsonRecordWriter recordWriter;
 
   public JsonCharDataGenerator(ProtoConfigurableEntity.Context context, Writer writer, Mode mode) throws IOException {
     this.mode = mode;
-    ContextExtensions ext = ((ContextExtensions) context);
-    recordWriter = ext.createJsonRecordWriter(writer, mode);
+    this.writer = writer;
+    // the record writer of a message closes its target, the writer (and its charset encoder) outlives the message
+    messageWriter = new FilterWriter(writer) {
+      @Override
+      public void close() throws IOException {
+        flush();
+      }
+    };
+    ext = ((ContextExtensions) context);
+    recordWriter = ext.createJsonRecordWriter(messageWriter, mode);
   }
 
   @VisibleForTesting
@@ -62,7 +74,17 @@ public class JsonCharDataGenerator implements DataGenerator {
   }
 
   @Override
-  public void close() throws IOException {
+  public void reset() throws IOException {
     recordWriter.close();
+    recordWriter = ext.createJsonRecordWriter(messageWriter, mode);
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      recordWriter.close();
+    } finally {
+      writer.close();
+    }
   }
 }
@@ -18,8 +18,8 @@ package com.streamsets.pipeline.lib.generator.protobuf;
 import com.google.protobuf.Descriptors;
 import com.google.protobuf.DynamicMessage;
 import com.streamsets.pipeline.api.Record;
-import com.streamsets.pipeline.lib.generator.DataGenerator;
 import com.streamsets.pipeline.lib.generator.DataGeneratorException;
+import com.streamsets.pipeline.lib.generator.ResettableDataGenerator;
 import com.streamsets.pipeline.lib.util.ProtobufTypeUtil;
 
 import java.io.IOException;
@@ -27,7 +27,7 @@ import java.io.OutputStream;
 import java.util.Map;
 import java.util.Set;
 
-public class ProtobufDataGenerator implements DataGenerator {
+public class ProtobufDataGenerator implements ResettableDataGenerator {
 
   private final OutputStream outputStream;
   private final Descriptors.Descriptor descriptor;
@@ -76,6 +76,11 @@ public class ProtobufDataGenerator implements DataGenerator {
     outputStream.flush();
   }
 
+  @Override
+  public void reset() throws IOException {
+    flush();
+  }
+
   @Override
   public void close() throws IOException {
     closed = true;
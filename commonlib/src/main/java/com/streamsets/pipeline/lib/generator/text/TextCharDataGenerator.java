@@ -18,13 +18,13 @@ package com.streamsets.pipeline.lib.generator.text;
 import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.config.TextFieldMissingAction;
-import com.streamsets.pipeline.lib.generator.DataGenerator;
 import com.streamsets.pipeline.lib.generator.DataGeneratorException;
+import com.streamsets.pipeline.lib.generator.ResettableDataGenerator;
 
 import java.io.IOException;
 import java.io.Writer;
 
-public class TextCharDataGenerator implements DataGenerator {
+public class TextCharDataGenerator implements ResettableDataGenerator {
   private final String fieldPath;
   private final boolean recordSeparatorIfNull;
   private final Writer writer;
@@ -97,6 +97,11 @@ public class TextCharDataGenerator implements DataGenerator {
     writer.flush();
   }
 
+  @Override
+  public void reset() throws IOException {
+    flush();
+  }
+
   @Override
   public void close() throws IOException {
     closed = true;
@@ -25,9 +25,12 @@ import com.streamsets.pipeline.lib.parser.DataParser;
 import com.streamsets.pipeline.lib.parser.DataParserException;
 import com.streamsets.pipeline.lib.parser.DataParserFactory;
 import com.streamsets.pipeline.lib.parser.Errors;
+import com.streamsets.pipeline.lib.util.AvroFieldDecoder;
 import com.streamsets.pipeline.lib.util.AvroSchemaHelper;
 import com.streamsets.pipeline.lib.util.SchemaRegistryException;
 import org.apache.avro.Schema;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.DecoderFactory;
 import org.apache.commons.io.IOUtils;
 
 import java.io.ByteArrayInputStream;
@@ -66,6 +69,7 @@ import static org.apache.commons.lang.StringUtils.isEmpty;
 public class AvroDataParserFactory extends DataParserFactory {
   public static final Map<String, Object> CONFIGS;
   private static final OriginAvroSchemaSource SCHEMA_SOURCE_DEFAULT = OriginAvroSchemaSource.INLINE;
+  private static final byte[] EMPTY_MESSAGE = new byte[0];
 
   static {
     Map<String, Object> configs = new HashMap<>();
@@ -87,7 +91,11 @@ public class AvroDataParserFactory extends DataParserFactory {
   private final AvroSchemaHelper schemaHelper;
   private Schema schema;
   LoadingCache<Integer, Schema> schemas;
+  // Compiled decoders, keyed by the identity of the schema instances held above (weak keys compare by identity)
+  LoadingCache<Schema, Optional<AvroFieldDecoder>> fieldDecoders;
   private final boolean skipAvroUnionIndexes;
+  // Messages are parsed one after the other, so the decoder of the last finished message is kept for the next one
+  private BinaryDecoder spareDecoder;
 
   public AvroDataParserFactory(Settings settings) throws SchemaRegistryException {
     super(settings);
@@ -107,6 +115,15 @@ public class AvroDataParserFactory extends DataParserFactory {
           return schemaHelper.loadFromRegistry(schemaId);
         }
       });
+    fieldDecoders = CacheBuilder.newBuilder()
+      .weakKeys()
+      .maximumSize(100)
+      .build(new CacheLoader<Schema, Optional<AvroFieldDecoder>>() {
+        @Override
+        public Optional<AvroFieldDecoder> load(Schema schema) {
+          return Optional.ofNullable(AvroFieldDecoder.compile(schema));
+        }
+      });
 
     switch (schemaSource) {
       // Load from the registry now if it was specified automatically,
@@ -178,18 +195,55 @@ public class AvroDataParserFactory extends DataParserFactory {
         } else {
           remaining = data;
         }
-        return new AvroMessageParser(getSettings().getContext(), recordSchema, remaining, id, schemaSource, skipAvroUnionIndexes);
+        return new AvroMessageParser(
+            getSettings().getContext(),
+            recordSchema,
+            remaining,
+            id,
+            schemaSource,
+            skipAvroUnionIndexes,
+            getFieldDecoder(recordSchema),
+            this
+        );
       } catch (IOException | ExecutionException e) {
         throw new DataParserException(Errors.DATA_PARSER_03, e.toString(), e);
       }
     }
     try {
-      return new AvroMessageParser(getSettings().getContext(), schema, data, id, schemaSource, skipAvroUnionIndexes);
+      return new AvroMessageParser(
+          getSettings().getContext(),
+          schema,
+          data,
+          id,
+          schemaSource,
+          skipAvroUnionIndexes,
+          getFieldDecoder(schema),
+          this
+      );
     } catch (IOException e) {
       throw new DataParserException(Errors.DATA_PARSER_01, e.toString(), e);
     }
   }
 
+  synchronized BinaryDecoder takeSpareDecoder() {
+    BinaryDecoder decoder = spareDecoder;
+    spareDecoder = null;
+    return decoder;
+  }
+
+  synchronized void returnSpareDecoder(BinaryDecoder decoder) {
+    // The decoder is pointed to an empty message so that it doesn't keep the finished one in memory
+    spareDecoder = DecoderFactory.get().binaryDecoder(EMPTY_MESSAGE, decoder);
+  }
+
+  private AvroFieldDecoder getFieldDecoder(Schema schema) {
+    // messages with an embedded schema are read with it and don't use a decoder compiled ahead of time
+    if (schema == null || schemaSource == OriginAvroSchemaSource.SOURCE) {
+      return null;
+    }
+    return fieldDecoders.getUnchecked(schema).orElse(null);
+  }
+
   @Override
   public DataParser getParser(File file, String fileOffset)
     throws DataParserException {
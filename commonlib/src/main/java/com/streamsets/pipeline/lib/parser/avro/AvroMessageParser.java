@@ -20,6 +20,7 @@ import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.config.OriginAvroSchemaSource;
 import com.streamsets.pipeline.lib.parser.AbstractDataParser;
 import com.streamsets.pipeline.lib.parser.DataParserException;
+import com.streamsets.pipeline.lib.util.AvroFieldDecoder;
 import com.streamsets.pipeline.lib.util.AvroTypeUtil;
 import com.streamsets.pipeline.stage.common.HeaderAttributeConstants;
 import org.apache.avro.Schema;
@@ -32,13 +33,13 @@ import org.apache.avro.io.BinaryDecoder;
 import org.apache.avro.io.DatumReader;
 import org.apache.avro.io.DecoderFactory;
 
-import java.io.ByteArrayInputStream;
 import java.io.EOFException;
 import java.io.IOException;
 
 public class AvroMessageParser extends AbstractDataParser {
 
   private final OriginAvroSchemaSource schemaSource;
+  private final AvroFieldDecoder fieldDecoder;
   private DatumReader<GenericRecord> datumReader;
   private DataFileReader<GenericRecord> dataFileReader;
   private BinaryDecoder decoder;
@@ -47,6 +48,7 @@ public class AvroMessageParser extends AbstractDataParser {
   private final ProtoConfigurableEntity.Context context;
   private final String messageId;
   private final boolean skipAvroUnionIndexes;
+  private final AvroDataParserFactory factory;
 
   public AvroMessageParser(
       ProtoConfigurableEntity.Context context,
@@ -55,23 +57,66 @@ public class AvroMessageParser extends AbstractDataParser {
       final String messageId,
       final OriginAvroSchemaSource schemaSource,
       boolean skipAvroUnionIndexes
+  ) throws IOException {
+    this(context, schema, message, messageId, schemaSource, skipAvroUnionIndexes, null);
+  }
+
+  /**
+   * @param fieldDecoder decoder compiled from the schema, if given messages without an embedded schema are read
+   *   directly into fields with it instead of going through a generic record
+   */
+  public AvroMessageParser(
+      ProtoConfigurableEntity.Context context,
+      final Schema schema,
+      final byte[] message,
+      final String messageId,
+      final OriginAvroSchemaSource schemaSource,
+      boolean skipAvroUnionIndexes,
+      final AvroFieldDecoder fieldDecoder
+  ) throws IOException {
+    this(context, schema, message, messageId, schemaSource, skipAvroUnionIndexes, fieldDecoder, null);
+  }
+
+  /**
+   * @param factory factory that created the parser, the binary decoder is taken from it and given back once the
+   *   whole message was read
+   */
+  AvroMessageParser(
+      ProtoConfigurableEntity.Context context,
+      final Schema schema,
+      final byte[] message,
+      final String messageId,
+      final OriginAvroSchemaSource schemaSource,
+      boolean skipAvroUnionIndexes,
+      final AvroFieldDecoder fieldDecoder,
+      final AvroDataParserFactory factory
   ) throws IOException {
     this.context = context;
+    this.factory = factory;
     this.messageId = messageId;
     this.schemaSource = schemaSource;
     this.skipAvroUnionIndexes = skipAvroUnionIndexes;
 
-    datumReader = new GenericDatumReader<>(schema); //Reader schema argument is optional
     if(schemaSource == OriginAvroSchemaSource.SOURCE) {
+      this.fieldDecoder = null;
+      datumReader = new GenericDatumReader<>(schema); //Reader schema argument is optional
       dataFileReader = new DataFileReader<>(new SeekableByteArrayInput(message), datumReader);
     } else {
-      decoder = DecoderFactory.get().binaryDecoder(new ByteArrayInputStream(message), null);
-      avroRecord = new GenericData.Record(schema);
+      this.fieldDecoder = fieldDecoder;
+      if (fieldDecoder == null) {
+        datumReader = new GenericDatumReader<>(schema);
+        avroRecord = new GenericData.Record(schema);
+      }
+      BinaryDecoder spare = factory == null ? null : factory.takeSpareDecoder();
+      decoder = DecoderFactory.get().binaryDecoder(message, spare);
     }
   }
 
   @Override
   public Record parse() throws IOException, DataParserException {
+    if (fieldDecoder != null) {
+      return parseMessageWithFieldDecoder();
+    }
     GenericRecord genericRecord;
     Record record = null;
     if(schemaSource == OriginAvroSchemaSource.SOURCE) {
@@ -96,14 +141,46 @@ public class AvroMessageParser extends AbstractDataParser {
   }
 
   private GenericRecord parseMessageWithoutSchema() throws IOException {
+    if (eof) {
+      // the decoder may already be in use by another message
+      return null;
+    }
     try {
       return datumReader.read(avroRecord, decoder);
     } catch (EOFException e) {
-      eof = true;
+      endOfMessage();
     }
     return null;
   }
 
+  private Record parseMessageWithFieldDecoder() throws IOException {
+    if (eof) {
+      return null;
+    }
+    if (decoder.isEnd()) {
+      endOfMessage();
+      return null;
+    }
+    Record record = context.createRecord(messageId);
+    try {
+      record.set(fieldDecoder.read(record, decoder, skipAvroUnionIndexes));
+    } catch (EOFException e) {
+      endOfMessage();
+      return null;
+    }
+    record.getHeader().setAttribute(HeaderAttributeConstants.AVRO_SCHEMA, fieldDecoder.getSchemaString());
+    return record;
+  }
+
+  private void endOfMessage() {
+    if (!eof) {
+      eof = true;
+      if (factory != null) {
+        factory.returnSpareDecoder(decoder);
+      }
+    }
+  }
+
   @Override
   public String getOffset() throws DataParserException {
     return eof ? String.valueOf(-1) : messageId;
@@ -18,6 +18,7 @@ package com.streamsets.pipeline.lib.udp;
 import com.streamsets.pipeline.lib.network.BaseNettyServer;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.SimpleChannelInboundHandler;
@@ -33,7 +34,8 @@ import java.util.List;
 
 public class UDPConsumingServer extends BaseNettyServer {
 
-  private final SimpleChannelInboundHandler<DatagramPacket> handler;
+  private final ChannelHandler handler;
+  private final int receiveBufferSize;
 
   public UDPConsumingServer(
       boolean enableEpoll,
@@ -54,6 +56,20 @@ public class UDPConsumingServer extends BaseNettyServer {
       int numThreads,
       List<InetSocketAddress> addresses,
       SimpleChannelInboundHandler<DatagramPacket> handler
+  ) {
+    this(enableEpoll, numThreads, addresses, (ChannelHandler) handler, 0);
+  }
+
+  /**
+   * @param handler handler, or channel initializer, of the bound sockets
+   * @param receiveBufferSize SO_RCVBUF in bytes for every socket, 0 keeps the system default
+   */
+  public UDPConsumingServer(
+      boolean enableEpoll,
+      int numThreads,
+      List<InetSocketAddress> addresses,
+      ChannelHandler handler,
+      int receiveBufferSize
   ) {
     super(
         enableEpoll,
@@ -61,10 +77,19 @@ public class UDPConsumingServer extends BaseNettyServer {
         addresses
     );
     this.handler = handler;
+    this.receiveBufferSize = receiveBufferSize;
   }
 
   @Override
   protected Bootstrap bootstrap(boolean enableEpoll) {
+    Bootstrap bootstrap = createBootstrap(enableEpoll);
+    if (receiveBufferSize > 0) {
+      bootstrap.option(ChannelOption.SO_RCVBUF, receiveBufferSize);
+    }
+    return bootstrap;
+  }
+
+  private Bootstrap createBootstrap(boolean enableEpoll) {
     if (enableEpoll) {
       // Direct buffers required for Epoll
       enableDirectBuffers();
@@ -0,0 +1,341 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.util;
+
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.stage.common.HeaderAttributeConstants;
+import org.apache.avro.Schema;
+import org.apache.avro.io.Decoder;
+import org.codehaus.jackson.JsonNode;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads Avro binary data straight into {@link Field} trees.
+ * <p/>
+ * The decoder is compiled once from the schema the data was written with, and produces the same fields, field
+ * attributes and union index header attributes as reading a {@code GenericRecord} with a {@code GenericDatumReader}
+ * and converting it with {@link AvroTypeUtil#avroToSdcField(Record, Schema, Object, boolean)}, without building the
+ * intermediate generic record. Map fields keep the order in which the entries were written.
+ * <p/>
+ * Instances are immutable and can be shared between threads.
+ */
+public final class AvroFieldDecoder {
+
+  private final Schema schema;
+  private final String schemaString;
+  private final Node root;
+
+  private AvroFieldDecoder(Schema schema, Node root) {
+    this.schema = schema;
+    this.schemaString = schema.toString();
+    this.root = root;
+  }
+
+  /**
+   * Compiles a decoder for data written with the given record schema.
+   *
+   * @return the decoder, or null if the schema uses constructs this decoder does not handle (a non record top level
+   *   type, or logical types with unexpected physical types or missing properties), in which case the data should be
+   *   read with a {@code GenericDatumReader} and converted with {@link AvroTypeUtil}.
+   */
+  public static AvroFieldDecoder compile(Schema schema) {
+    if (schema.getType() != Schema.Type.RECORD) {
+      return null;
+    }
+    Node root = compile(schema, new IdentityHashMap<>());
+    return root == null ? null : new AvroFieldDecoder(schema, root);
+  }
+
+  public Schema getSchema() {
+    return schema;
+  }
+
+  /**
+   * @return the schema as JSON, as set in the {@link HeaderAttributeConstants#AVRO_SCHEMA} record header attribute
+   */
+  public String getSchemaString() {
+    return schemaString;
+  }
+
+  /**
+   * Reads the next datum from the decoder.
+   *
+   * @param record the record the field will be set on, union indexes are set in its header
+   * @param in the decoder to read from
+   * @param skipAvroUnionIndexes if union index header attributes should not be set
+   * @return the root field of the datum
+   * @throws IOException if the data can't be read, {@link java.io.EOFException} if it ends before the datum does
+   */
+  public Field read(Record record, Decoder in, boolean skipAvroUnionIndexes) throws IOException {
+    return root.read(record, !skipAvroUnionIndexes && root.hasUnion ? "" : null, in);
+  }
+
+  private static Node compile(Schema schema, Map<Schema, Node> records) {
+    if (schema.getType() == Schema.Type.RECORD && records.containsKey(schema)) {
+      // recursive reference to a record being compiled, its fields are filled in once it is complete
+      return records.get(schema);
+    }
+    Node node = new Node(schema);
+    node.hasUnion = hasUnion(schema, Collections.newSetFromMap(new IdentityHashMap<>()));
+    String logicalType = schema.getProp(AvroTypeUtil.LOGICAL_TYPE);
+    if (logicalType != null && !logicalType.isEmpty()) {
+      switch (logicalType) {
+        case AvroTypeUtil.LOGICAL_TYPE_DECIMAL:
+          JsonNode scale = schema.getJsonProp(AvroTypeUtil.LOGICAL_TYPE_ATTR_SCALE);
+          JsonNode precision = schema.getJsonProp(AvroTypeUtil.LOGICAL_TYPE_ATTR_PRECISION);
+          if (schema.getType() != Schema.Type.BYTES || scale == null || precision == null) {
+            return null;
+          }
+          node.scale = scale.getIntValue();
+          node.scaleAttribute = String.valueOf(scale.getIntValue());
+          node.precisionAttribute = String.valueOf(precision.getIntValue());
+          node.logicalType = logicalType;
+          break;
+        case AvroTypeUtil.LOGICAL_TYPE_DATE:
+        case AvroTypeUtil.LOGICAL_TYPE_TIME_MILLIS:
+          if (schema.getType() != Schema.Type.INT) {
+            return null;
+          }
+          node.logicalType = logicalType;
+          break;
+        case AvroTypeUtil.LOGICAL_TYPE_TIME_MICROS:
+        case AvroTypeUtil.LOGICAL_TYPE_TIMESTAMP_MILLIS:
+        case AvroTypeUtil.LOGICAL_TYPE_TIMESTAMP_MICROS:
+          if (schema.getType() != Schema.Type.LONG) {
+            return null;
+          }
+          node.logicalType = logicalType;
+          break;
+        default:
+          // unknown logical types are read as their physical type
+          break;
+      }
+    }
+
+    switch (schema.getType()) {
+      case ARRAY:
+        node.element = compile(schema.getElementType(), records);
+        return node.element == null ? null : node;
+      case MAP:
+        node.element = compile(schema.getValueType(), records);
+        return node.element == null ? null : node;
+      case RECORD:
+        records.put(schema, node);
+        List<Schema.Field> fields = schema.getFields();
+        node.fieldNames = new String[fields.size()];
+        node.fields = new Node[fields.size()];
+        for (int i = 0; i < fields.size(); i++) {
+          node.fieldNames[i] = fields.get(i).name();
+          node.fields[i] = compile(fields.get(i).schema(), records);
+          if (node.fields[i] == null) {
+            return null;
+          }
+        }
+        return node;
+      case UNION:
+        List<Schema> types = schema.getTypes();
+        node.branches = new Node[types.size()];
+        for (int i = 0; i < types.size(); i++) {
+          node.branches[i] = compile(types.get(i), records);
+          if (node.branches[i] == null) {
+            return null;
+          }
+        }
+        // unions of [null, actual type] don't get a union index attribute when the value is null
+        node.optional = types.size() == 2 && types.get(0).getType() == Schema.Type.NULL;
+        return node;
+      case ENUM:
+        node.symbols = schema.getEnumSymbols();
+        return node;
+      case FIXED:
+        node.fixedSize = schema.getFixedSize();
+        return node;
+      case BOOLEAN:
+      case BYTES:
+      case DOUBLE:
+      case FLOAT:
+      case INT:
+      case LONG:
+      case NULL:
+      case STRING:
+        return node;
+      default:
+        return null;
+    }
+  }
+
+  private static boolean hasUnion(Schema schema, Set<Schema> visited) {
+    switch (schema.getType()) {
+      case UNION:
+        return true;
+      case ARRAY:
+        return hasUnion(schema.getElementType(), visited);
+      case MAP:
+        return hasUnion(schema.getValueType(), visited);
+      case RECORD:
+        if (visited.add(schema)) {
+          for (Schema.Field field : schema.getFields()) {
+            if (hasUnion(field.schema(), visited)) {
+              return true;
+            }
+          }
+        }
+        return false;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Compiled reader for a single schema, mirrors the conversion done by AvroTypeUtil.avroToSdcField.
+   */
+  private static final class Node {
+    private final Schema.Type type;
+    private final Field.Type fieldType;
+    private boolean hasUnion;
+    private String logicalType;
+    private int scale;
+    private String scaleAttribute;
+    private String precisionAttribute;
+    // array elements and map values
+    private Node element;
+    private String[] fieldNames;
+    private Node[] fields;
+    private Node[] branches;
+    private boolean optional;
+    private List<String> symbols;
+    private int fixedSize;
+
+    private Node(Schema schema) {
+      this.type = schema.getType();
+      this.fieldType = type == Schema.Type.UNION ? null : AvroTypeUtil.getFieldType(schema);
+    }
+
+    /**
+     * @param fieldPath path of this field for union index header attributes, null if they are not needed below here
+     */
+    private Field read(Record record, String fieldPath, Decoder in) throws IOException {
+      switch (type) {
+        case UNION:
+          int typeIndex = in.readIndex();
+          Node branch = branches[typeIndex];
+          if (optional && typeIndex == 0) {
+            Field field = Field.create(branches[1].fieldType, null);
+            if (AvroTypeUtil.LOGICAL_TYPE_DECIMAL.equals(branches[1].logicalType)) {
+              field.setAttribute(HeaderAttributeConstants.ATTR_SCALE, branches[1].scaleAttribute);
+              field.setAttribute(HeaderAttributeConstants.ATTR_PRECISION, branches[1].precisionAttribute);
+            }
+            return field;
+          }
+          if (fieldPath != null) {
+            record.getHeader().setAttribute(
+                AvroTypeUtil.AVRO_UNION_TYPE_INDEX_PREFIX + fieldPath,
+                String.valueOf(typeIndex)
+            );
+          }
+          return branch.read(record, fieldPath, in);
+        case NULL:
+          in.readNull();
+          return Field.create(fieldType, null);
+        case BOOLEAN:
+          return Field.create(Field.Type.BOOLEAN, in.readBoolean());
+        case INT:
+          int intValue = in.readInt();
+          if (logicalType == null) {
+            return Field.create(Field.Type.INTEGER, intValue);
+          } else if (AvroTypeUtil.LOGICAL_TYPE_DATE.equals(logicalType)) {
+            return withLogicalType(Field.create(Field.Type.DATE, new Date(AvroTypeUtil.daysToMillis(intValue))));
+          } else {
+            return withLogicalType(Field.create(Field.Type.TIME, (long) intValue));
+          }
+        case LONG:
+          long longValue = in.readLong();
+          if (AvroTypeUtil.LOGICAL_TYPE_TIMESTAMP_MILLIS.equals(logicalType)) {
+            return withLogicalType(Field.create(Field.Type.DATETIME, longValue));
+          }
+          return withLogicalType(Field.create(Field.Type.LONG, longValue));
+        case FLOAT:
+          return Field.create(Field.Type.FLOAT, in.readFloat());
+        case DOUBLE:
+          return Field.create(Field.Type.DOUBLE, in.readDouble());
+        case STRING:
+          return Field.create(Field.Type.STRING, in.readString(null).toString());
+        case BYTES:
+          byte[] bytes = in.readBytes(null).array();
+          if (logicalType == null) {
+            return Field.create(Field.Type.BYTE_ARRAY, bytes);
+          }
+          Field decimal = withLogicalType(
+              Field.create(Field.Type.DECIMAL, AvroTypeUtil.bigDecimalFromBytes(bytes, scale))
+          );
+          decimal.setAttribute(HeaderAttributeConstants.ATTR_SCALE, scaleAttribute);
+          decimal.setAttribute(HeaderAttributeConstants.ATTR_PRECISION, precisionAttribute);
+          return decimal;
+        case FIXED:
+          byte[] fixed = new byte[fixedSize];
+          in.readFixed(fixed);
+          return Field.create(Field.Type.BYTE_ARRAY, fixed);
+        case ENUM:
+          return Field.create(Field.Type.STRING, symbols.get(in.readEnum()));
+        case ARRAY:
+          List<Field> list = new ArrayList<>();
+          for (long n = in.readArrayStart(); n > 0; n = in.arrayNext()) {
+            for (long i = 0; i < n; i++) {
+              String elementPath = element.hasUnion && fieldPath != null ? fieldPath + "[" + list.size() + "]" : null;
+              list.add(element.read(record, elementPath, in));
+            }
+          }
+          return Field.create(list);
+        case MAP:
+          Map<String, Field> map = new LinkedHashMap<>();
+          for (long n = in.readMapStart(); n > 0; n = in.mapNext()) {
+            for (long i = 0; i < n; i++) {
+              String key = in.readString(null).toString();
+              String valuePath = element.hasUnion && fieldPath != null ? fieldPath + "/" + key : null;
+              map.put(key, element.read(record, valuePath, in));
+            }
+          }
+          return Field.create(map);
+        case RECORD:
+          LinkedHashMap<String, Field> recordMap = new LinkedHashMap<>();
+          for (int i = 0; i < fields.length; i++) {
+            String childPath = fields[i].hasUnion && fieldPath != null ? fieldPath + "/" + fieldNames[i] : null;
+            recordMap.put(fieldNames[i], fields[i].read(record, childPath, in));
+          }
+          return Field.createListMap(recordMap);
+        default:
+          throw new IllegalStateException("Unexpected schema type " + type);
+      }
+    }
+
+    private Field withLogicalType(Field field) {
+      if (logicalType != null) {
+        field.setAttribute(AvroTypeUtil.FIELD_ATTRIBUTE_TYPE, logicalType);
+      }
+      return field;
+    }
+  }
+}
@@ -598,7 +598,7 @@ public class AvroTypeUtil {
     return node;
   }
 
-  private static Field.Type getFieldType(Schema schema) {
+  static Field.Type getFieldType(Schema schema) {
     String logicalType = schema.getProp(LOGICAL_TYPE);
     if(logicalType != null && !logicalType.isEmpty()) {
       switch (logicalType) {
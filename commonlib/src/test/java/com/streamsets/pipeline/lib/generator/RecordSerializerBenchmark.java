@@ -0,0 +1,120 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.generator;
+
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.OnRecordError;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.Stage;
+import com.streamsets.pipeline.api.ext.json.Mode;
+import com.streamsets.pipeline.config.CsvHeader;
+import com.streamsets.pipeline.config.CsvMode;
+import com.streamsets.pipeline.config.DestinationAvroSchemaSource;
+import com.streamsets.pipeline.lib.generator.avro.BaseAvroDataGenerator;
+import com.streamsets.pipeline.sdk.ContextInfoCreator;
+import com.streamsets.pipeline.sdk.RecordCreator;
+import com.streamsets.testing.MicroBenchmark;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import static com.streamsets.pipeline.lib.util.AvroSchemaHelper.INCLUDE_SCHEMA_KEY;
+import static com.streamsets.pipeline.lib.util.AvroSchemaHelper.SCHEMA_SOURCE_KEY;
+
+/**
+ * Per record cost of serializing one message per record, with a new generator and buffer per record as the
+ * destinations did before, and with a {@link RecordSerializer}. Runs with the benchmark profile only.
+ */
+public class RecordSerializerBenchmark {
+  private static final int RECORDS = 50_000;
+  private static final String SCHEMA = "{\"type\":\"record\",\"name\":\"a\",\"fields\":[" +
+      "{\"name\":\"name\",\"type\":\"string\"},{\"name\":\"age\",\"type\":\"int\"}]}";
+
+  private final List<Record> records = createRecords();
+
+  private static List<Record> createRecords() {
+    List<Record> records = new ArrayList<>(RECORDS);
+    for (int i = 0; i < RECORDS; i++) {
+      Record record = RecordCreator.create();
+      LinkedHashMap<String, Field> map = new LinkedHashMap<>();
+      map.put("name", Field.create("name-" + i));
+      map.put("age", Field.create(i));
+      record.set(Field.createListMap(map));
+      record.getHeader().setAttribute(BaseAvroDataGenerator.AVRO_SCHEMA_HEADER, SCHEMA);
+      records.add(record);
+    }
+    return records;
+  }
+
+  private static Stage.Context getContext() {
+    return ContextInfoCreator.createTargetContext("i", false, OnRecordError.TO_ERROR);
+  }
+
+  @Test
+  public void benchmarkJson() throws Exception {
+    benchmark("JSON", new DataGeneratorFactoryBuilder(getContext(), DataGeneratorFormat.JSON)
+        .setMode(Mode.MULTIPLE_OBJECTS)
+        .setCharset(StandardCharsets.UTF_8)
+        .build());
+  }
+
+  @Test
+  public void benchmarkDelimited() throws Exception {
+    benchmark("delimited", new DataGeneratorFactoryBuilder(getContext(), DataGeneratorFormat.DELIMITED)
+        .setMode(CsvMode.CSV)
+        .setMode(CsvHeader.NO_HEADER)
+        .build());
+  }
+
+  @Test
+  public void benchmarkAvro() throws Exception {
+    benchmark("Avro", new DataGeneratorFactoryBuilder(getContext(), DataGeneratorFormat.AVRO)
+        .setConfig(SCHEMA_SOURCE_KEY, DestinationAvroSchemaSource.HEADER)
+        .setConfig(INCLUDE_SCHEMA_KEY, false)
+        .build());
+  }
+
+  private void benchmark(String format, DataGeneratorFactory factory) throws Exception {
+    MicroBenchmark benchmark = new MicroBenchmark(format + " serialization", RECORDS);
+    benchmark.measure("new generator per record", () -> {
+      byte[] last = null;
+      for (Record record : records) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(1024);
+        DataGenerator generator = factory.getGenerator(baos);
+        generator.write(record);
+        generator.close();
+        last = baos.toByteArray();
+      }
+      return last;
+    });
+    RecordSerializer serializer = new RecordSerializer(factory);
+    try {
+      benchmark.measure("record serializer", () -> {
+        byte[] last = null;
+        for (Record record : records) {
+          last = serializer.serialize(record);
+        }
+        return last;
+      });
+    } finally {
+      serializer.close();
+    }
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.generator;
+
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.OnRecordError;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.Stage;
+import com.streamsets.pipeline.api.ext.json.Mode;
+import com.streamsets.pipeline.config.CsvHeader;
+import com.streamsets.pipeline.config.CsvMode;
+import com.streamsets.pipeline.config.DestinationAvroSchemaSource;
+import com.streamsets.pipeline.lib.generator.avro.BaseAvroDataGenerator;
+import com.streamsets.pipeline.lib.generator.text.TextDataGeneratorFactory;
+import com.streamsets.pipeline.sdk.ContextInfoCreator;
+import com.streamsets.pipeline.sdk.RecordCreator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import static com.streamsets.pipeline.lib.util.AvroSchemaHelper.INCLUDE_SCHEMA_KEY;
+import static com.streamsets.pipeline.lib.util.AvroSchemaHelper.SCHEMA_SOURCE_KEY;
+
+public class TestRecordSerializer {
+  private static final String SCHEMA_A = "{\"type\":\"record\",\"name\":\"a\",\"fields\":[" +
+      "{\"name\":\"name\",\"type\":\"string\"},{\"name\":\"age\",\"type\":\"int\"}]}";
+  private static final String SCHEMA_B = "{\"type\":\"record\",\"name\":\"b\",\"fields\":[" +
+      "{\"name\":\"age\",\"type\":\"int\"},{\"name\":\"name\",\"type\":\"string\"}]}";
+
+  private Stage.Context getContext() {
+    return ContextInfoCreator.createTargetContext("i", false, OnRecordError.TO_ERROR);
+  }
+
+  private static List<Record> createRecords(int count) {
+    List<Record> records = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      Record record = RecordCreator.create();
+      LinkedHashMap<String, Field> map = new LinkedHashMap<>();
+      map.put("name", Field.create("name-" + i));
+      map.put("age", Field.create(i));
+      record.set(Field.createListMap(map));
+      record.getHeader().setAttribute(BaseAvroDataGenerator.AVRO_SCHEMA_HEADER, (i % 3 == 0) ? SCHEMA_B : SCHEMA_A);
+      records.add(record);
+    }
+    return records;
+  }
+
+  private static byte[] serializeWithNewGenerator(DataGeneratorFactory factory, Record record) throws Exception {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream(1024);
+    DataGenerator generator = factory.getGenerator(baos);
+    generator.write(record);
+    generator.close();
+    return baos.toByteArray();
+  }
+
+  private static void assertSameMessages(DataGeneratorFactory factory) throws Exception {
+    RecordSerializer serializer = new RecordSerializer(factory);
+    try {
+      for (Record record : createRecords(10)) {
+        Assert.assertArrayEquals(serializeWithNewGenerator(factory, record), serializer.serialize(record));
+      }
+    } finally {
+      serializer.close();
+    }
+  }
+
+  private DataGeneratorFactory createJsonFactory(Mode mode, Charset charset) {
+    return new DataGeneratorFactoryBuilder(getContext(), DataGeneratorFormat.JSON)
+        .setMode(mode)
+        .setCharset(charset)
+        .build();
+  }
+
+  @Test
+  public void testJson() throws Exception {
+    assertSameMessages(createJsonFactory(Mode.MULTIPLE_OBJECTS, StandardCharsets.UTF_8));
+    assertSameMessages(createJsonFactory(Mode.ARRAY_OBJECTS, StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testByteOrderMarkCharset() throws Exception {
+    Assert.assertTrue(RecordSerializer.writesByteOrderMark(StandardCharsets.UTF_16));
+    Assert.assertFalse(RecordSerializer.writesByteOrderMark(StandardCharsets.UTF_16LE));
+    Assert.assertFalse(RecordSerializer.writesByteOrderMark(StandardCharsets.UTF_8));
+    assertSameMessages(createJsonFactory(Mode.MULTIPLE_OBJECTS, StandardCharsets.UTF_16));
+  }
+
+  @Test
+  public void testDelimited() throws Exception {
+    assertSameMessages(new DataGeneratorFactoryBuilder(getContext(), DataGeneratorFormat.DELIMITED)
+        .setMode(CsvMode.CSV)
+        .setMode(CsvHeader.WITH_HEADER)
+        .build());
+  }
+
+  @Test
+  public void testText() throws Exception {
+    assertSameMessages(new DataGeneratorFactoryBuilder(getContext(), DataGeneratorFormat.TEXT)
+        .setConfig(TextDataGeneratorFactory.FIELD_PATH_KEY, "/name")
+        .build());
+  }
+
+  @Test
+  public void testAvroSchemaFromHeader() throws Exception {
+    // records alternate between two schemas, every message is written with its own
+    assertSameMessages(new DataGeneratorFactoryBuilder(getContext(), DataGeneratorFormat.AVRO)
+        .setConfig(SCHEMA_SOURCE_KEY, DestinationAvroSchemaSource.HEADER)
+        .setConfig(INCLUDE_SCHEMA_KEY, false)
+        .build());
+  }
+
+  @Test
+  public void testGeneratorDiscardedOnError() throws Exception {
+    RecordSerializer serializer = new RecordSerializer(
+        new DataGeneratorFactoryBuilder(getContext(), DataGeneratorFormat.DELIMITED)
+            .setMode(CsvMode.CSV)
+            .setMode(CsvHeader.WITH_HEADER)
+            .build()
+    );
+    Record good = createRecords(1).get(0);
+    byte[] expected = serializer.serialize(good);
+    Record bad = RecordCreator.create();
+    bad.set(Field.create(true));
+    try {
+      serializer.serialize(bad);
+      Assert.fail();
+    } catch (DataGeneratorException ex) {
+      Assert.assertEquals(com.streamsets.pipeline.lib.generator.delimited.Errors.DELIMITED_GENERATOR_00, ex.getErrorCode());
+    }
+    Assert.assertArrayEquals(expected, serializer.serialize(good));
+    serializer.close();
+  }
+}
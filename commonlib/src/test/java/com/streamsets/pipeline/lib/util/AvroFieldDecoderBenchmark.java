@@ -0,0 +1,76 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.util;
+
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.sdk.RecordCreator;
+import com.streamsets.testing.MicroBenchmark;
+import org.apache.avro.Schema;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.DecoderFactory;
+import org.junit.Test;
+
+import static com.streamsets.pipeline.lib.util.TestAvroFieldDecoder.SCHEMA;
+import static com.streamsets.pipeline.lib.util.TestAvroFieldDecoder.createOrder;
+
+/**
+ * Per message cost of decoding an Avro binary message into a record, through a generic record and the conversion to
+ * fields, and directly with the compiled decoder with a new and with a reused binary decoder. Runs with the
+ * benchmark profile only.
+ */
+public class AvroFieldDecoderBenchmark {
+  private static final int MESSAGES = 20_000;
+
+  @Test
+  public void benchmarkDecoding() throws Exception {
+    Schema schema = AvroTypeUtil.parseSchema(SCHEMA);
+    AvroFieldDecoder fieldDecoder = AvroFieldDecoder.compile(schema);
+    byte[] data = AvroTypeUtil.getBinaryEncodedAvroRecord(createOrder(schema, 1));
+
+    MicroBenchmark benchmark = new MicroBenchmark("Avro message decoding", MESSAGES);
+    benchmark.measure("generic record and conversion", () -> {
+      Record record = null;
+      for (int i = 0; i < MESSAGES; i++) {
+        record = RecordCreator.create();
+        record.set(AvroTypeUtil.avroToSdcField(
+            record,
+            schema,
+            AvroTypeUtil.getAvroRecordFromBinaryEncoding(schema, data),
+            false
+        ));
+      }
+      return record;
+    });
+    benchmark.measure("direct, new binary decoder", () -> {
+      Record record = null;
+      for (int i = 0; i < MESSAGES; i++) {
+        record = RecordCreator.create();
+        record.set(fieldDecoder.read(record, DecoderFactory.get().binaryDecoder(data, null), false));
+      }
+      return record;
+    });
+    benchmark.measure("direct, reused binary decoder", () -> {
+      Record record = null;
+      BinaryDecoder decoder = null;
+      for (int i = 0; i < MESSAGES; i++) {
+        decoder = DecoderFactory.get().binaryDecoder(data, decoder);
+        record = RecordCreator.create();
+        record.set(fieldDecoder.read(record, decoder, false));
+      }
+      return record;
+    });
+  }
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.util;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.OnRecordError;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.Stage;
+import com.streamsets.pipeline.config.OriginAvroSchemaSource;
+import com.streamsets.pipeline.lib.parser.avro.AvroMessageParser;
+import com.streamsets.pipeline.sdk.ContextInfoCreator;
+import com.streamsets.pipeline.sdk.RecordCreator;
+import com.streamsets.pipeline.stage.common.HeaderAttributeConstants;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.DecoderFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+public class TestAvroFieldDecoder {
+
+  static final String SCHEMA = "{\"type\": \"record\", \"name\": \"Order\", \"fields\": [" +
+      "{\"name\": \"id\", \"type\": \"long\"}," +
+      "{\"name\": \"name\", \"type\": \"string\"}," +
+      "{\"name\": \"flag\", \"type\": \"boolean\"}," +
+      "{\"name\": \"ratio\", \"type\": \"float\"}," +
+      "{\"name\": \"weight\", \"type\": \"double\"}," +
+      "{\"name\": \"raw\", \"type\": \"bytes\"}," +
+      "{\"name\": \"price\", \"type\": {\"type\": \"bytes\", \"logicalType\": \"decimal\", \"precision\": 10, " +
+      "\"scale\": 2}}," +
+      "{\"name\": \"day\", \"type\": {\"type\": \"int\", \"logicalType\": \"date\"}}," +
+      "{\"name\": \"time\", \"type\": {\"type\": \"int\", \"logicalType\": \"time-millis\"}}," +
+      "{\"name\": \"ts\", \"type\": {\"type\": \"long\", \"logicalType\": \"timestamp-millis\"}}," +
+      "{\"name\": \"micros\", \"type\": {\"type\": \"long\", \"logicalType\": \"timestamp-micros\"}}," +
+      "{\"name\": \"optNull\", \"type\": [\"null\", \"string\"]}," +
+      "{\"name\": \"optSet\", \"type\": [\"null\", \"string\"]}," +
+      "{\"name\": \"optDecimal\", \"type\": [\"null\", {\"type\": \"bytes\", \"logicalType\": \"decimal\", " +
+      "\"precision\": 5, \"scale\": 1}]}," +
+      "{\"name\": \"choice\", \"type\": [\"int\", \"string\", \"null\"]}," +
+      "{\"name\": \"noChoice\", \"type\": [\"int\", \"string\", \"null\"]}," +
+      "{\"name\": \"color\", \"type\": {\"type\": \"enum\", \"name\": \"Color\", \"symbols\": [\"RED\", \"BLUE\"]}}," +
+      "{\"name\": \"hash\", \"type\": {\"type\": \"fixed\", \"name\": \"Hash\", \"size\": 4}}," +
+      "{\"name\": \"tags\", \"type\": {\"type\": \"array\", \"items\": \"string\"}}," +
+      "{\"name\": \"attrs\", \"type\": {\"type\": \"map\", \"values\": [\"null\", \"long\"]}}," +
+      "{\"name\": \"child\", \"type\": {\"type\": \"record\", \"name\": \"Child\", \"fields\": [" +
+      "  {\"name\": \"n\", \"type\": \"int\"}," +
+      "  {\"name\": \"next\", \"type\": [\"null\", \"Child\"]}" +
+      "]}}," +
+      "{\"name\": \"items\", \"type\": {\"type\": \"array\", \"items\": [\"null\", {\"type\": \"record\", " +
+      "\"name\": \"Item\", \"fields\": [{\"name\": \"sku\", \"type\": \"string\"}]}]}}" +
+      "]}";
+
+  static GenericRecord createOrder(Schema schema, long id) {
+    Schema childSchema = schema.getField("child").schema();
+    GenericRecord leaf = new GenericData.Record(childSchema);
+    leaf.put("n", 2);
+    GenericRecord child = new GenericData.Record(childSchema);
+    child.put("n", 1);
+    child.put("next", leaf);
+    Schema itemSchema = schema.getField("items").schema().getElementType().getTypes().get(1);
+    GenericRecord item = new GenericData.Record(itemSchema);
+    item.put("sku", "sku-" + id);
+
+    GenericRecord order = new GenericData.Record(schema);
+    order.put("id", id);
+    order.put("name", "order " + id);
+    order.put("flag", true);
+    order.put("ratio", 0.5f);
+    order.put("weight", 12.25);
+    order.put("raw", ByteBuffer.wrap(new byte[] {1, 2, 3}));
+    order.put("price", ByteBuffer.wrap(new BigDecimal("1234.56").unscaledValue().toByteArray()));
+    order.put("day", 17000);
+    order.put("time", 3600000);
+    order.put("ts", 1500000000000L);
+    order.put("micros", 1500000000000000L);
+    order.put("optSet", "set");
+    order.put("choice", "two");
+    order.put("color", new GenericData.EnumSymbol(schema.getField("color").schema(), "BLUE"));
+    order.put("hash", new GenericData.Fixed(schema.getField("hash").schema(), new byte[] {9, 8, 7, 6}));
+    order.put("tags", ImmutableList.of("a", "b"));
+    order.put("attrs", ImmutableMap.of("k", 10L));
+    order.put("child", child);
+    order.put("items", Arrays.asList(item, null));
+    return order;
+  }
+
+  @Test
+  public void testSameFieldsAsGenericRecord() throws Exception {
+    Schema schema = AvroTypeUtil.parseSchema(SCHEMA);
+    AvroFieldDecoder fieldDecoder = AvroFieldDecoder.compile(schema);
+    Assert.assertNotNull(fieldDecoder);
+    Assert.assertEquals(schema.toString(), fieldDecoder.getSchemaString());
+
+    byte[] data = AvroTypeUtil.getBinaryEncodedAvroRecord(createOrder(schema, 1));
+
+    for (boolean skipAvroUnionIndexes : new boolean[] {false, true}) {
+      Record expected = RecordCreator.create();
+      GenericRecord genericRecord = AvroTypeUtil.getAvroRecordFromBinaryEncoding(schema, data);
+      expected.set(AvroTypeUtil.avroToSdcField(expected, schema, genericRecord, skipAvroUnionIndexes));
+
+      Record actual = RecordCreator.create();
+      actual.set(fieldDecoder.read(actual, DecoderFactory.get().binaryDecoder(data, null), skipAvroUnionIndexes));
+
+      assertSameField("", expected.get(), actual.get());
+      Assert.assertEquals(expected.getHeader().getAttributeNames(), actual.getHeader().getAttributeNames());
+      for (String name : expected.getHeader().getAttributeNames()) {
+        Assert.assertEquals(name, expected.getHeader().getAttribute(name), actual.getHeader().getAttribute(name));
+      }
+    }
+
+    Record record = RecordCreator.create();
+    record.set(fieldDecoder.read(record, DecoderFactory.get().binaryDecoder(data, null), false));
+    Assert.assertEquals(new BigDecimal("1234.56"), record.get("/price").getValueAsDecimal());
+    Assert.assertEquals("2", record.get("/price").getAttribute(HeaderAttributeConstants.ATTR_SCALE));
+    Assert.assertEquals("date", record.get("/day").getAttribute(AvroTypeUtil.FIELD_ATTRIBUTE_TYPE));
+    Assert.assertEquals(Field.Type.DECIMAL, record.get("/optDecimal").getType());
+    Assert.assertEquals("1", record.get("/optDecimal").getAttribute(HeaderAttributeConstants.ATTR_SCALE));
+    Assert.assertEquals("BLUE", record.get("/color").getValueAsString());
+    Assert.assertEquals(2, record.get("/child/next/n").getValueAsInteger());
+    Assert.assertEquals("1", record.getHeader().getAttribute(AvroTypeUtil.AVRO_UNION_TYPE_INDEX_PREFIX + "/choice"));
+    Assert.assertEquals("2", record.getHeader().getAttribute(AvroTypeUtil.AVRO_UNION_TYPE_INDEX_PREFIX + "/noChoice"));
+    Assert.assertEquals("1", record.getHeader().getAttribute(AvroTypeUtil.AVRO_UNION_TYPE_INDEX_PREFIX + "/attrs/k"));
+    Assert.assertEquals(
+        "1",
+        record.getHeader().getAttribute(AvroTypeUtil.AVRO_UNION_TYPE_INDEX_PREFIX + "/child/next")
+    );
+    Assert.assertEquals("1", record.getHeader().getAttribute(AvroTypeUtil.AVRO_UNION_TYPE_INDEX_PREFIX + "/items[0]"));
+    Assert.assertNull(record.getHeader().getAttribute(AvroTypeUtil.AVRO_UNION_TYPE_INDEX_PREFIX + "/items[1]"));
+  }
+
+  @Test
+  public void testUnsupportedSchemas() {
+    Assert.assertNull(AvroFieldDecoder.compile(Schema.create(Schema.Type.STRING)));
+    Assert.assertNull(AvroFieldDecoder.compile(AvroTypeUtil.parseSchema("{\"type\": \"record\", \"name\": \"R\", " +
+        "\"fields\": [{\"name\": \"d\", \"type\": {\"type\": \"fixed\", \"name\": \"F\", \"size\": 8, " +
+        "\"logicalType\": \"decimal\", \"precision\": 10, \"scale\": 2}}]}")));
+  }
+
+  @Test
+  public void testMessageParser() throws Exception {
+    Schema schema = AvroTypeUtil.parseSchema(SCHEMA);
+    AvroFieldDecoder fieldDecoder = AvroFieldDecoder.compile(schema);
+    Stage.Context context = ContextInfoCreator.createSourceContext("i", false, OnRecordError.TO_ERROR,
+        ImmutableList.of("a"));
+
+    // two datums in the same message
+    ByteArrayOutputStream message = new ByteArrayOutputStream();
+    message.write(AvroTypeUtil.getBinaryEncodedAvroRecord(createOrder(schema, 1)));
+    message.write(AvroTypeUtil.getBinaryEncodedAvroRecord(createOrder(schema, 2)));
+    byte[] data = message.toByteArray();
+
+    // parse twice with each parser, so the second parsers reuse the decoders of the first ones
+    for (int i = 0; i < 2; i++) {
+      AvroMessageParser genericParser =
+          new AvroMessageParser(context, schema, data, "id", OriginAvroSchemaSource.INLINE, false);
+      AvroMessageParser directParser =
+          new AvroMessageParser(context, schema, data, "id", OriginAvroSchemaSource.INLINE, false, fieldDecoder);
+      for (long id = 1; id <= 2; id++) {
+        Record expected = genericParser.parse();
+        Record actual = directParser.parse();
+        Assert.assertEquals(id, actual.get("/id").getValueAsLong());
+        assertSameField("", expected.get(), actual.get());
+        Assert.assertEquals(
+            expected.getHeader().getAttribute(HeaderAttributeConstants.AVRO_SCHEMA),
+            actual.getHeader().getAttribute(HeaderAttributeConstants.AVRO_SCHEMA)
+        );
+        Assert.assertEquals("id", directParser.getOffset());
+      }
+      Assert.assertNull(genericParser.parse());
+      Assert.assertNull(directParser.parse());
+      Assert.assertNull(directParser.parse());
+      Assert.assertEquals("-1", directParser.getOffset());
+      genericParser.close();
+      directParser.close();
+    }
+  }
+
+  private static void assertSameField(String path, Field expected, Field actual) {
+    Assert.assertEquals(path, expected.getType(), actual.getType());
+    Assert.assertEquals(path, expected.getAttributes(), actual.getAttributes());
+    if (expected.getValue() == null) {
+      Assert.assertNull(path, actual.getValue());
+      return;
+    }
+    switch (expected.getType()) {
+      case LIST:
+        List<Field> expectedList = expected.getValueAsList();
+        List<Field> actualList = actual.getValueAsList();
+        Assert.assertEquals(path, expectedList.size(), actualList.size());
+        for (int i = 0; i < expectedList.size(); i++) {
+          assertSameField(path + "[" + i + "]", expectedList.get(i), actualList.get(i));
+        }
+        break;
+      case MAP:
+      case LIST_MAP:
+        Map<String, Field> expectedMap = expected.getValueAsMap();
+        Map<String, Field> actualMap = actual.getValueAsMap();
+        Assert.assertEquals(path, expectedMap.keySet(), actualMap.keySet());
+        for (String key : expectedMap.keySet()) {
+          assertSameField(path + "/" + key, expectedMap.get(key), actualMap.get(key));
+        }
+        break;
+      case BYTE_ARRAY:
+        Assert.assertArrayEquals(path, expected.getValueAsByteArray(), actual.getValueAsByteArray());
+        break;
+      default:
+        Assert.assertEquals(path, expected.getValue(), actual.getValue());
+        break;
+    }
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.creation;
+
+import com.streamsets.pipeline.api.ConfigDef;
+import com.streamsets.pipeline.api.ConfigDefBean;
+import com.streamsets.pipeline.api.ConnectionDef;
+import org.apache.commons.lang3.StringUtils;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Precomputed injection metadata for a class and config prefix: the configuration fields with their full config
+ * names, annotations and bean constructors. Stage and service beans are created once per stage per runner and
+ * preview, so the reflective walk is done only once per class rather than for every created instance.
+ *
+ * Plans are attached to the class itself (ClassValue), so they are dropped together with the stage class loader.
+ */
+final class ConfigInjectionPlan {
+
+  private static final ClassValue<Map<String, ConfigInjectionPlan>> PLANS =
+      new ClassValue<Map<String, ConfigInjectionPlan>>() {
+    @Override
+    protected Map<String, ConfigInjectionPlan> computeValue(Class<?> type) {
+      return new ConcurrentHashMap<>();
+    }
+  };
+
+  /**
+   * Return plan for given class where all config names are prefixed with given prefix.
+   */
+  static ConfigInjectionPlan get(Class<?> klass, String configPrefix) {
+    return PLANS.get(klass).computeIfAbsent(configPrefix, prefix -> new ConfigInjectionPlan(klass, prefix));
+  }
+
+  /**
+   * Single field that is either configuration or configuration bean.
+   */
+  static final class FieldPlan {
+    private final Field field;
+    private final String configName;
+    private final String beanPrefix;
+    private final boolean configDef;
+    private final boolean connectionTypeConfig;
+    private final boolean configDefBean;
+    private final ConnectionDef connectionDef;
+    private final Constructor<?> beanConstructor;
+
+    private FieldPlan(Field field, String configName, ConfigDef configDef, ConfigDefBean configDefBean) {
+      this.field = field;
+      this.configName = configName;
+      this.beanPrefix = configName + ".";
+      this.configDef = configDef != null;
+      this.connectionTypeConfig = configDef != null && StringUtils.isNotEmpty(configDef.connectionType());
+      this.configDefBean = configDefBean != null;
+      this.connectionDef = configDefBean != null ? field.getType().getAnnotation(ConnectionDef.class) : null;
+      this.beanConstructor = configDefBean != null ? getConstructor(field.getType()) : null;
+    }
+
+    private static Constructor<?> getConstructor(Class<?> klass) {
+      try {
+        return klass.getConstructor();
+      } catch (NoSuchMethodException | SecurityException e) {
+        // Creating the bean will fail and report issue the same way as before
+        return null;
+      }
+    }
+
+    Field getField() {
+      return field;
+    }
+
+    String getConfigName() {
+      return configName;
+    }
+
+    /**
+     * Prefix of configs inside the bean stored in this field.
+     */
+    String getBeanPrefix() {
+      return beanPrefix;
+    }
+
+    boolean isConfigDef() {
+      return configDef;
+    }
+
+    boolean isConnectionTypeConfig() {
+      return connectionTypeConfig;
+    }
+
+    boolean isConfigDefBean() {
+      return configDefBean;
+    }
+
+    ConnectionDef getConnectionDef() {
+      return connectionDef;
+    }
+
+    Object newBean() throws ReflectiveOperationException {
+      if (beanConstructor != null) {
+        return beanConstructor.newInstance();
+      }
+      return field.getType().newInstance();
+    }
+  }
+
+  private final List<FieldPlan> fields;
+
+  private ConfigInjectionPlan(Class<?> klass, String configPrefix) {
+    List<FieldPlan> fields = new ArrayList<>();
+    for (Field field : klass.getFields()) {
+      ConfigDef configDef = field.getAnnotation(ConfigDef.class);
+      ConfigDefBean configDefBean = field.getAnnotation(ConfigDefBean.class);
+      // Fields without config annotations are never touched by the injector
+      if (configDef != null || configDefBean != null) {
+        fields.add(new FieldPlan(field, configPrefix + field.getName(), configDef, configDefBean));
+      }
+    }
+    this.fields = Collections.unmodifiableList(fields);
+  }
+
+  List<FieldPlan> getFields() {
+    return fields;
+  }
+}
@@ -40,7 +40,6 @@ import com.streamsets.pipeline.api.Dependency;
 import com.streamsets.pipeline.api.ErrorCode;
 import com.streamsets.pipeline.api.credential.CredentialValue;
 import com.streamsets.pipeline.api.impl.Utils;
-import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -478,23 +477,22 @@ public class ConfigInjector {
 
   public boolean createConfigBeans(Object obj, String configPrefix, Context context) {
     boolean ok = true;
-    Class klass = obj.getClass();
-    for (Field field : klass.getFields()) {
-      String configName = configPrefix + field.getName();
-      if (field.getAnnotation(ConfigDefBean.class) != null) {
+    for (ConfigInjectionPlan.FieldPlan fieldPlan : ConfigInjectionPlan.get(obj.getClass(), configPrefix).getFields()) {
+      Field field = fieldPlan.getField();
+      String configName = fieldPlan.getConfigName();
+      if (fieldPlan.isConfigDefBean()) {
         try {
-          Object bean = field.getType().newInstance();
-          ok &= createConfigBeans(bean, configName + ".", context);
+          Object bean = fieldPlan.newBean();
+          ok &= createConfigBeans(bean, fieldPlan.getBeanPrefix(), context);
           if (ok) {
             field.set(obj, bean);
           }
-        } catch (InstantiationException | IllegalAccessException ex) {
+        } catch (ReflectiveOperationException ex) {
           ok = false;
           context.createIssue(CreationError.CREATION_001, field.getType().getSimpleName(), ex.toString());
         }
       // if field is ConfigDef with a non-empty connection type, we need to do extra processing
-      } else if (field.getAnnotation(ConfigDef.class) != null
-              && StringUtils.isNotEmpty(field.getAnnotation(ConfigDef.class).connectionType())) {
+      } else if (fieldPlan.isConnectionTypeConfig()) {
         // if the value of this connectionType config is anything other than 'MANUAL' we assume it's a connection ID
         Object configValue = context.getConfigValue(configName);
         if (context.getUser() != null && context.getConnections() != null && configValue != null
@@ -516,9 +514,10 @@ public class ConfigInjector {
   }
 
   public void injectConfigs(Object obj, String configPrefix, Context context) {
-    for (Field field : obj.getClass().getFields()) {
-      String configName = configPrefix + field.getName();
-      if (field.getAnnotation(ConfigDef.class) != null) {
+    for (ConfigInjectionPlan.FieldPlan fieldPlan : ConfigInjectionPlan.get(obj.getClass(), configPrefix).getFields()) {
+      Field field = fieldPlan.getField();
+      String configName = fieldPlan.getConfigName();
+      if (fieldPlan.isConfigDef()) {
         ConfigDefinition configDef = context.getConfigDefinition(configName);
         // if there is no config def, we ignore it, it can be the case when the config is a @HideConfig
         if (configDef != null) {
@@ -530,10 +529,10 @@ public class ConfigInjector {
             injectConfigValue(obj, field, value, configDef, context);
           }
         }
-      } else if (field.getAnnotation(ConfigDefBean.class) != null) {
+      } else if (fieldPlan.isConfigDefBean()) {
         boolean injected = false;
         // if ConfigDefBean is also a ConnectionDef, check if we need to handle it
-        ConnectionDef connectionDef = field.getType().getAnnotation(ConnectionDef.class);
+        ConnectionDef connectionDef = fieldPlan.getConnectionDef();
         if (connectionDef != null) {
           // Figure out the ConnectionId that this ConnectionDef is associated with
           String connectionId = getConnectionId(obj, field, context);
@@ -552,7 +551,7 @@ public class ConfigInjector {
                 context.addIssues(issues);
                 if (issues.isEmpty()) {
                   // Inject the connection's configs into the stage's configs
-                  String connConfigPrefix = configName + ".";
+                  String connConfigPrefix = fieldPlan.getBeanPrefix();
                   Context connContext = new ConnectionOverlayInjectorContext(context,
                       connConfigPrefix,
                       cc.getConfiguration()
@@ -571,7 +570,7 @@ public class ConfigInjector {
 
         if (!injected) {
           try {
-            injectConfigs(field.get(obj), configName + ".", context);
+            injectConfigs(field.get(obj), fieldPlan.getBeanPrefix(), context);
           } catch (IllegalArgumentException | IllegalAccessException ex) {
             context.createIssue(CreationError.CREATION_003, ex.toString());
           }
@@ -698,6 +697,18 @@ public class ConfigInjector {
     } else {
       boolean error = false;
       List<Object> list = new ArrayList<>();
+      //We support list of String and enums.
+      //If the field type is enum and the element is String, convert to enum
+      Class<?> enumType = null;
+      if(field != null) {
+        Type type = field.getGenericType();
+        if (type instanceof ParameterizedType) {
+          Type type1 = ((ParameterizedType) type).getActualTypeArguments()[0];
+          if(type1 instanceof Class && ((Class<?>)type1).isEnum()) {
+            enumType = (Class<?>)type1;
+          }
+        }
+      }
       for (Object element : (List) value) {
         if (element == null) {
           context.createIssue(groupName, configName,  CreationError.CREATION_021);
@@ -705,16 +716,8 @@ public class ConfigInjector {
         } else {
           element = resolveIfImplicitEL(element, configDef, context);
           if (element != null) {
-            //We support list of String and enums.
-            //If the field type is enum and the element is String, convert to enum
-            if(field != null) {
-              Type type = field.getGenericType();
-              if (type instanceof ParameterizedType) {
-                Type type1 = ((ParameterizedType) type).getActualTypeArguments()[0];
-                if(type1 instanceof Class && ((Class<?>)type1).isEnum()) {
-                  element = toEnum((Class<?>)type1, element, groupName, configName, context);
-                }
-              }
+            if(enumType != null) {
+              element = toEnum(enumType, element, groupName, configName, context);
             }
             list.add(element);
           } else {
@@ -17,10 +17,13 @@ package com.streamsets.datacollector.execution;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 import com.streamsets.datacollector.alerts.AlertEventListener;
 import com.streamsets.datacollector.execution.alerts.AlertInfo;
 import com.streamsets.datacollector.json.ObjectMapperFactory;
+import com.streamsets.datacollector.metrics.MetricsDeltaEncoder;
 import com.streamsets.datacollector.metrics.MetricsEventListener;
 import com.streamsets.datacollector.restapi.bean.BeanHelper;
 import com.streamsets.dc.execution.manager.standalone.ThreadUsage;
@@ -28,18 +31,24 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class EventListenerManager {
   private static final Logger LOG = LoggerFactory.getLogger(EventListenerManager.class);
   private final Map<String, List<MetricsEventListener>> metricsEventListenerMap;
+  // delta encoded listeners that have not received a snapshot frame yet
+  private final Set<MetricsEventListener> metricsListenersAwaitingSnapshot;
   private final List<StateEventListener> stateEventListenerList;
   private final List<AlertEventListener> alertEventListenerList;
 
   public EventListenerManager() {
     metricsEventListenerMap = new HashMap<>();
+    metricsListenersAwaitingSnapshot = Collections.newSetFromMap(new ConcurrentHashMap<>());
     stateEventListenerList = new ArrayList<>();
     alertEventListenerList = new ArrayList<>();
   }
@@ -67,6 +76,9 @@ public class EventListenerManager {
         metricsEventListeners = new ArrayList<>();
         metricsEventListenerMap.put(pipelineName, metricsEventListeners);
       }
+      if (metricsEventListener.isDeltaEncoded()) {
+        metricsListenersAwaitingSnapshot.add(metricsEventListener);
+      }
       metricsEventListeners.add(metricsEventListener);
     }
   }
@@ -76,6 +88,7 @@ public class EventListenerManager {
       if(metricsEventListenerMap.containsKey(pipelineName)) {
         metricsEventListenerMap.get(pipelineName).remove(metricsEventListener);
       }
+      metricsListenersAwaitingSnapshot.remove(metricsEventListener);
     }
   }
 
@@ -95,6 +108,20 @@ public class EventListenerManager {
     return metricsEventListenerMap.get(pipelineName) != null &&  metricsEventListenerMap.get(pipelineName).size() > 0;
   }
 
+  public boolean hasDeltaMetricEventListeners(String pipelineName) {
+    synchronized (metricsEventListenerMap) {
+      List<MetricsEventListener> metricsEventListeners = metricsEventListenerMap.get(pipelineName);
+      if (metricsEventListeners != null) {
+        for (MetricsEventListener metricsEventListener : metricsEventListeners) {
+          if (metricsEventListener.isDeltaEncoded()) {
+            return true;
+          }
+        }
+      }
+      return false;
+    }
+  }
+
   public void broadcastAlerts(AlertInfo alertInfo) {
     if(alertEventListenerList.size() > 0) {
       try {
@@ -148,15 +175,39 @@ public class EventListenerManager {
   }
 
   public void broadcastMetrics(String pipelineName, String metricsJSONStr) {
+    broadcastMetrics(pipelineName, Suppliers.ofInstance(metricsJSONStr), null);
+  }
+
+  /**
+   * Broadcasts one refresh of the pipeline metrics. Listeners that did not opt into delta encoding get the full
+   * metrics, delta encoded listeners get the shared delta frame or, if they (re)joined or the frame is a snapshot
+   * frame, the full metrics wrapped in a snapshot frame. Each payload is serialized at most once per broadcast.
+   *
+   * @param frame encoded frame for this refresh, or null when the metrics are not part of the delta sequence (e.g.
+   * the final metrics on pipeline stop) in which case delta listeners get a snapshot and resync on the next frame.
+   */
+  public void broadcastMetrics(String pipelineName, Supplier<String> metricsJSONStr, MetricsDeltaEncoder.Frame frame) {
     if(metricsEventListenerMap.containsKey(pipelineName) && metricsEventListenerMap.get(pipelineName).size() > 0) {
       List<MetricsEventListener> metricsEventListenerListCopy;
       synchronized (metricsEventListenerMap) {
         metricsEventListenerListCopy = new ArrayList<>(metricsEventListenerMap.get(pipelineName));
       }
 
+      Supplier<String> fullMetrics = Suppliers.memoize(metricsJSONStr);
+      Supplier<String> snapshotFrame = Suppliers.memoize(() -> frame != null ?
+          frame.toSnapshotJson(fullMetrics.get()) : MetricsDeltaEncoder.snapshotFrame(-1, fullMetrics.get()));
       for(MetricsEventListener metricsEventListener : metricsEventListenerListCopy) {
         try {
-          metricsEventListener.notification(metricsJSONStr);
+          if (!metricsEventListener.isDeltaEncoded()) {
+            metricsEventListener.notification(fullMetrics.get());
+          } else if (frame == null) {
+            metricsEventListener.notification(snapshotFrame.get());
+            metricsListenersAwaitingSnapshot.add(metricsEventListener);
+          } else if (metricsListenersAwaitingSnapshot.remove(metricsEventListener) || frame.isSnapshot()) {
+            metricsEventListener.notification(snapshotFrame.get());
+          } else {
+            metricsEventListener.notification(frame.getDeltaJson());
+          }
         } catch(Exception ex) {
           LOG.warn("Error while notifying metrics, {}", ex.toString(), ex);
         }
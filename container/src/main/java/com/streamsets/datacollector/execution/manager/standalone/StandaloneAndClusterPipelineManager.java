@@ -37,6 +37,7 @@ import com.streamsets.datacollector.execution.StatsCollectorRunner;
 import com.streamsets.datacollector.execution.manager.PipelineManagerException;
 import com.streamsets.datacollector.execution.manager.PreviewerProvider;
 import com.streamsets.datacollector.execution.manager.RunnerProvider;
+import com.streamsets.datacollector.execution.preview.common.PreviewSessionCache;
 import com.streamsets.datacollector.main.RuntimeInfo;
 import com.streamsets.datacollector.metrics.MetricsCache;
 import com.streamsets.datacollector.metrics.MetricsConfigurator;
@@ -100,6 +101,7 @@ public class StandaloneAndClusterPipelineManager extends AbstractTask implements
   @Inject @Named("managerExecutor") SafeScheduledExecutorService managerExecutor;
   @Inject RunnerProvider runnerProvider;
   @Inject PreviewerProvider previewerProvider;
+  @Inject PreviewSessionCache previewSessionCache;
   @Inject ResourceManager resourceManager;
   @Inject EventListenerManager eventListenerManager;
   @Inject StatsCollector statsCollector;
@@ -250,6 +252,7 @@ public class StandaloneAndClusterPipelineManager extends AbstractTask implements
 
   @Override
   public void runTask() {
+    previewSessionCache.run();
     previewerCache = new MetricsCache<>(
       runtimeInfo.getMetrics(),
       "manager-previewer-cache",
@@ -387,6 +390,9 @@ public class StandaloneAndClusterPipelineManager extends AbstractTask implements
 
   @Override
   protected void initTask() {
+    previewSessionCache.init();
+    // Warm preview sessions of changed or deleted pipelines are useless
+    pipelineStore.registerChangeListener(previewSessionCache::invalidate);
     if (RuntimeInfo.SDC_PRODUCT.equals(runtimeInfo.getProductName())) {
       LOG.debug("Initializing task for Data Collector; attempting to clean any existing Kafka temp keytab directory");
       cleanUpKafkaKeytabDir();
@@ -428,6 +434,7 @@ public class StandaloneAndClusterPipelineManager extends AbstractTask implements
     if(previewerCache != null) {
       previewerCache.invalidateAll();
     }
+    previewSessionCache.stop();
     if(runnerExpiryFuture != null) {
       runnerExpiryFuture.cancel(true);
     }
@@ -16,8 +16,13 @@
 package com.streamsets.datacollector.execution.metrics;
 
 import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.base.Stopwatch;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.streamsets.datacollector.callback.CallbackInfo;
 import com.streamsets.datacollector.callback.CallbackObjectType;
@@ -35,6 +40,7 @@ import com.streamsets.datacollector.execution.runner.standalone.StandaloneRunner
 import com.streamsets.datacollector.http.SnappyWriterInterceptor;
 import com.streamsets.datacollector.json.ObjectMapperFactory;
 import com.streamsets.datacollector.main.RuntimeInfo;
+import com.streamsets.datacollector.metrics.MetricsDeltaEncoder;
 import com.streamsets.datacollector.event.json.CounterJson;
 import com.streamsets.datacollector.event.json.MeterJson;
 import com.streamsets.datacollector.event.json.MetricRegistryJson;
@@ -75,6 +81,8 @@ public class MetricsEventRunnable implements Runnable {
 
   public static final String REFRESH_INTERVAL_PROPERTY = "ui.refresh.interval.ms";
   public static final int REFRESH_INTERVAL_PROPERTY_DEFAULT = 2000;
+  public static final String DELTA_SNAPSHOT_INTERVAL_PROPERTY = "ui.metrics.delta.snapshot.interval";
+  public static final int DELTA_SNAPSHOT_INTERVAL_PROPERTY_DEFAULT = 15;
   private static final String DPM_PIPELINE_COMMIT_ID = "dpm.pipeline.commitId";
   private static final String DPM_JOB_ID = "dpm.job.id";
   private static final String REMOTE_TIMESERIES_URL = "REMOTE_TIMESERIES_URL";
@@ -96,6 +104,7 @@ public class MetricsEventRunnable implements Runnable {
   private final int scheduledDelay;
   private final Configuration configuration;
   private final RuntimeInfo runtimeInfo;
+  private final MetricsDeltaEncoder deltaEncoder;
   private BlockingQueue<Record> statsQueue;
   private PipelineConfiguration pipelineConfiguration;
   private MetricRegistryJson metricRegistryJson;
@@ -133,6 +142,10 @@ public class MetricsEventRunnable implements Runnable {
     this.scheduledDelay = configuration.get(REFRESH_INTERVAL_PROPERTY, REFRESH_INTERVAL_PROPERTY_DEFAULT);
     this.configuration = configuration;
     this.runtimeInfo = runtimeInfo;
+    this.deltaEncoder = new MetricsDeltaEncoder(
+        ObjectMapperFactory.get(),
+        configuration.get(DELTA_SNAPSHOT_INTERVAL_PROPERTY, DELTA_SNAPSHOT_INTERVAL_PROPERTY_DEFAULT)
+    );
 
     PipelineBeanCreator.prepareForConnections(configuration, runtimeInfo);
   }
@@ -193,20 +206,31 @@ public class MetricsEventRunnable implements Runnable {
           (isDPMPipeline && (isWriteStatsToDPMDirectlyEnabled() || isStatAggregationEnabled()))) {
         // compute aggregated metrics in case of cluster mode pipeline
         // get individual pipeline metrics if non cluster mode pipeline
-        String metricsJSONStr;
+        Object metrics;
         if (state.getExecutionMode() == ExecutionMode.CLUSTER_BATCH
           || state.getExecutionMode() == ExecutionMode.CLUSTER_YARN_STREAMING
           || state.getExecutionMode() == ExecutionMode.CLUSTER_MESOS_STREAMING) {
-          MetricRegistryJson json = getAggregatedMetrics();
-          metricsJSONStr = objectMapper.writer().writeValueAsString(json);
+          metrics = getAggregatedMetrics();
         } else if ((state.getExecutionMode() == ExecutionMode.BATCH
             || state.getExecutionMode() == ExecutionMode.STREAMING) && metricRegistryJson != null) {
-          metricsJSONStr = objectMapper.writer().writeValueAsString(metricRegistryJson);
+          metrics = metricRegistryJson;
         } else {
-          metricsJSONStr = objectMapper.writer().writeValueAsString(metricRegistry);
+          metrics = metricRegistry;
+        }
+        // the full metrics are serialized at most once per run and only if some consumer needs them, delta encoded
+        // listeners usually only need the (much smaller) delta frame
+        Supplier<String> metricsJSONStr;
+        MetricsDeltaEncoder.Frame frame = null;
+        if (hasMetricEventListeners(state) && eventListenerManager.hasDeltaMetricEventListeners(name)) {
+          ObjectNode metricsTree = objectMapper.valueToTree(metrics);
+          frame = deltaEncoder.encode(metricsTree);
+          metricsJSONStr = Suppliers.memoize(() -> serialize(objectMapper, metricsTree));
+        } else {
+          deltaEncoder.reset();
+          metricsJSONStr = Suppliers.ofInstance(objectMapper.writer().writeValueAsString(metrics));
         }
         if (hasMetricEventListeners(state)) {
-          eventListenerManager.broadcastMetrics(name, metricsJSONStr);
+          eventListenerManager.broadcastMetrics(name, metricsJSONStr, frame);
         }
         // don't queue stats record when pipeline is stopped as runner is not going to process any more batches
         if (isStatAggregationEnabled() && !isPipelineStopped) {
@@ -218,7 +242,7 @@ public class MetricsEventRunnable implements Runnable {
                 false, // isAggregated - no its not aggregated
                 timeSeriesAnalysis,
                 false,
-                metricsJSONStr
+                metricsJSONStr.get()
             ),
             statsQueue,
             configuration
@@ -226,7 +250,7 @@ public class MetricsEventRunnable implements Runnable {
         } else if (isDPMPipeline && isWriteStatsToDPMDirectlyEnabled() &&
             state.getExecutionMode() != ExecutionMode.SLAVE) {
           // Write Stats to Control hub is not supported for slave nodes
-          sendMetricsToDPM(pipelineConfiguration, metricsJSONStr);
+          sendMetricsToDPM(pipelineConfiguration, metrics, metricsJSONStr.get());
         }
       }
     } catch (IOException ex) {
@@ -236,6 +260,14 @@ public class MetricsEventRunnable implements Runnable {
     }
   }
 
+  private static String serialize(ObjectMapper objectMapper, ObjectNode metrics) {
+    try {
+      return objectMapper.writer().writeValueAsString(metrics);
+    } catch (JsonProcessingException ex) {
+      throw Throwables.propagate(ex);
+    }
+  }
+
   public MetricRegistryJson getAggregatedMetrics() {
     MetricRegistryJson aggregatedMetrics = new MetricRegistryJson();
     Map<String, CounterJson> aggregatedCounters = new HashMap<>();
@@ -367,6 +399,7 @@ public class MetricsEventRunnable implements Runnable {
 
   private void sendMetricsToDPM(
       PipelineConfiguration pipelineConfiguration,
+      Object metrics,
       String metricsJSONStr
   ) throws IOException {
     if (stopwatch == null || stopwatch.elapsed(TimeUnit.MILLISECONDS) > waitTimeBetweenUpdates || isPipelineStopped) {
@@ -377,6 +410,8 @@ public class MetricsEventRunnable implements Runnable {
       sdcMetricsJson.setMasterSdcId(runtimeInfo.getMasterSDCId());
       if (metricRegistryJson != null) {
         sdcMetricsJson.setMetrics(metricRegistryJson);
+      } else if (metrics instanceof MetricRegistryJson) {
+        sdcMetricsJson.setMetrics((MetricRegistryJson) metrics);
       } else {
         sdcMetricsJson.setMetrics(ObjectMapperFactory.get().readValue(metricsJSONStr, MetricRegistryJson.class));
       }
@@ -0,0 +1,353 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.execution.preview.common;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.streamsets.datacollector.config.ConnectionConfiguration;
+import com.streamsets.datacollector.config.PipelineConfiguration;
+import com.streamsets.datacollector.config.ServiceConfiguration;
+import com.streamsets.datacollector.config.StageConfiguration;
+import com.streamsets.datacollector.event.dto.PipelineStartEvent;
+import com.streamsets.datacollector.execution.runner.common.PipelineStopReason;
+import com.streamsets.datacollector.runner.PipelineRuntimeException;
+import com.streamsets.datacollector.runner.StageOutput;
+import com.streamsets.datacollector.runner.preview.PreviewPipeline;
+import com.streamsets.datacollector.runner.preview.PreviewPipelineOutput;
+import com.streamsets.datacollector.task.AbstractTask;
+import com.streamsets.datacollector.util.Configuration;
+import com.streamsets.pipeline.api.Config;
+import com.streamsets.pipeline.api.StageException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Warm preview sessions - keeps initialized preview pipeline and origin output of the last preview of given pipeline
+ * by given user, so that the next preview doesn't have to initialize all the stages and read the origin again.
+ *
+ * The cached pipeline is reused only when nothing changed in the pipeline and preview parameters, the cached origin
+ * output is replayed when only stages after the origin changed. Sessions are evicted and their pipelines destroyed
+ * when their time to live passes, when the pipeline is saved or deleted, when there are more sessions than configured
+ * (the least recently used one is evicted first) and when the task is stopped.
+ */
+public class PreviewSessionCache extends AbstractTask {
+  private static final Logger LOG = LoggerFactory.getLogger(PreviewSessionCache.class);
+
+  public static final String SESSION_TTL_KEY = "preview.session.ttl.secs";
+  public static final long SESSION_TTL_DEFAULT = 0;
+  public static final String MAX_SESSIONS_KEY = "preview.session.max";
+  public static final int MAX_SESSIONS_DEFAULT = 10;
+
+  private static final long EVICTION_INTERVAL_SECS = 5;
+
+  private final int maxSessions;
+  // Sessions in the order in which they were returned to the cache, the least recently used one is first
+  private final LinkedHashMap<String, Session> sessions;
+  private ScheduledExecutorService evictionExecutor;
+
+  @Inject
+  public PreviewSessionCache(Configuration configuration) {
+    super("PreviewSessionCache");
+    this.maxSessions = configuration.get(MAX_SESSIONS_KEY, MAX_SESSIONS_DEFAULT);
+    this.sessions = new LinkedHashMap<>();
+  }
+
+  /**
+   * Single preview session.
+   */
+  public static class Session {
+    private final String originFingerprint;
+    private final String fingerprint;
+    private final List<StageOutput> originOutput;
+    private final PreviewPipeline pipeline;
+    private final long expiresAt;
+    private String pipelineName;
+
+    public Session(
+        String originFingerprint,
+        String fingerprint,
+        List<StageOutput> originOutput,
+        PreviewPipeline pipeline,
+        long expiresAt
+    ) {
+      this.originFingerprint = originFingerprint;
+      this.fingerprint = fingerprint;
+      this.originOutput = originOutput;
+      this.pipeline = pipeline;
+      this.expiresAt = expiresAt;
+    }
+
+    public String getOriginFingerprint() {
+      return originFingerprint;
+    }
+
+    public String getFingerprint() {
+      return fingerprint;
+    }
+
+    public List<StageOutput> getOriginOutput() {
+      return originOutput;
+    }
+
+    public PreviewPipeline getPipeline() {
+      return pipeline;
+    }
+
+    /**
+     * Time when the session expires, it's not extended when the session is used again.
+     */
+    public long getExpiresAt() {
+      return expiresAt;
+    }
+
+    public void destroy() {
+      if (pipeline == null) {
+        return;
+      }
+      try {
+        pipeline.destroy(PipelineStopReason.FINISHED);
+      } catch (StageException|PipelineRuntimeException e) {
+        LOG.error("Error destroying preview session pipeline", e);
+      }
+    }
+  }
+
+  @Override
+  protected void initTask() {
+    evictionExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+        .setNameFormat("Preview Session Eviction")
+        .setDaemon(true)
+        .build()
+    );
+    evictionExecutor.scheduleWithFixedDelay(
+        this::evictExpired,
+        EVICTION_INTERVAL_SECS,
+        EVICTION_INTERVAL_SECS,
+        TimeUnit.SECONDS
+    );
+  }
+
+  @Override
+  protected void stopTask() {
+    if (evictionExecutor != null) {
+      evictionExecutor.shutdownNow();
+    }
+    invalidateAll();
+  }
+
+  private static String getKey(String name, String rev, String user) {
+    return name + "::" + rev + "::" + user;
+  }
+
+  /**
+   * Remove session from the cache and return it, the caller becomes owner of the session (and it's pipeline).
+   *
+   * @return Session or null if there is no session or it already expired
+   */
+  public Session take(String name, String rev, String user) {
+    Session session;
+    synchronized (sessions) {
+      session = sessions.remove(getKey(name, rev, user));
+    }
+    if (session != null && session.expiresAt <= System.currentTimeMillis()) {
+      session.destroy();
+      return null;
+    }
+    return session;
+  }
+
+  /**
+   * Return session to the cache, it will be destroyed if it's not used before it expires. Session is destroyed right
+   * away when the cache is not running.
+   */
+  public void put(String name, String rev, String user, Session session) {
+    session.pipelineName = name;
+    List<Session> evicted = new ArrayList<>();
+    synchronized (sessions) {
+      if (getStatus() != Status.RUNNING) {
+        evicted.add(session);
+      } else {
+        // Two concurrent previews of the same pipeline, the last one wins
+        Session replaced = sessions.put(getKey(name, rev, user), session);
+        if (replaced != null && replaced != session) {
+          evicted.add(replaced);
+        }
+        Iterator<Session> iterator = sessions.values().iterator();
+        while (sessions.size() > maxSessions && iterator.hasNext()) {
+          evicted.add(iterator.next());
+          iterator.remove();
+        }
+      }
+    }
+    // Destroying pipeline can take a while, so we do it outside of the lock
+    evicted.forEach(Session::destroy);
+  }
+
+  /**
+   * Destroy all sessions that were not used within their time to live.
+   */
+  public void evictExpired() {
+    long now = System.currentTimeMillis();
+    evict(session -> session.expiresAt <= now);
+  }
+
+  /**
+   * Destroy all sessions of given pipeline (all revisions and users).
+   */
+  public void invalidate(String name) {
+    evict(session -> name.equals(session.pipelineName));
+  }
+
+  /**
+   * Destroy all sessions.
+   */
+  public void invalidateAll() {
+    evict(session -> true);
+  }
+
+  private void evict(Predicate<Session> predicate) {
+    List<Session> evicted = new ArrayList<>();
+    synchronized (sessions) {
+      Iterator<Session> iterator = sessions.values().iterator();
+      while (iterator.hasNext()) {
+        Session session = iterator.next();
+        if (predicate.test(session)) {
+          evicted.add(session);
+          iterator.remove();
+        }
+      }
+    }
+    evicted.forEach(Session::destroy);
+  }
+
+  /**
+   * Extract output of given origin from each batch of the preview output.
+   */
+  public static List<StageOutput> getOriginOutput(PreviewPipelineOutput output, String originInstanceName) {
+    List<StageOutput> originOutput = new ArrayList<>();
+    for (List<StageOutput> batch : output.getBatchesOutput()) {
+      for (StageOutput stageOutput : batch) {
+        if (stageOutput.getInstanceName().equals(originInstanceName)) {
+          originOutput.add(stageOutput.copy());
+          break;
+        }
+      }
+    }
+    return originOutput;
+  }
+
+  /**
+   * Fingerprint of everything that determines what the origin produces.
+   */
+  public static String getOriginFingerprint(
+      PipelineConfiguration pipelineConf,
+      int batches,
+      int batchSize,
+      boolean testOrigin,
+      Map<String, ConnectionConfiguration> connections
+  ) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("batches=").append(batches).append(",batchSize=").append(batchSize).append(",testOrigin=")
+        .append(testOrigin).append(';');
+    appendConfigs(sb, pipelineConf.getConfiguration());
+    if (connections != null) {
+      connections.forEach((id, connection) -> {
+        sb.append("connection=").append(id).append(':').append(connection.getType()).append(':')
+            .append(connection.getVersion());
+        appendConfigs(sb, connection.getConfiguration());
+      });
+    }
+    if (testOrigin) {
+      appendStage(sb, pipelineConf.getTestOriginStage());
+    }
+    if (!pipelineConf.getStages().isEmpty()) {
+      appendStage(sb, pipelineConf.getStages().get(0));
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Fingerprint of the whole preview - pipeline and all preview parameters.
+   */
+  public static String getFingerprint(
+      String originFingerprint,
+      PipelineConfiguration pipelineConf,
+      String stopStage,
+      boolean skipTargets,
+      List<PipelineStartEvent.InterceptorConfiguration> interceptorConfs
+  ) {
+    StringBuilder sb = new StringBuilder(originFingerprint);
+    sb.append("stopStage=").append(stopStage).append(",skipTargets=").append(skipTargets).append(';');
+    if (interceptorConfs != null) {
+      for (PipelineStartEvent.InterceptorConfiguration interceptorConf : interceptorConfs) {
+        sb.append("interceptor=").append(interceptorConf.getStageLibrary()).append(':')
+            .append(interceptorConf.getInterceptorClassName()).append(':').append(interceptorConf.getParameters())
+            .append(';');
+      }
+    }
+    for (StageConfiguration stageConf : pipelineConf.getStages()) {
+      appendStage(sb, stageConf);
+    }
+    appendStage(sb, pipelineConf.getErrorStage());
+    appendStage(sb, pipelineConf.getStatsAggregatorStage());
+    if (pipelineConf.getStartEventStages() != null) {
+      pipelineConf.getStartEventStages().forEach(stageConf -> appendStage(sb, stageConf));
+    }
+    if (pipelineConf.getStopEventStages() != null) {
+      pipelineConf.getStopEventStages().forEach(stageConf -> appendStage(sb, stageConf));
+    }
+    return sb.toString();
+  }
+
+  private static void appendStage(StringBuilder sb, StageConfiguration stageConf) {
+    if (stageConf == null) {
+      return;
+    }
+    // UI info (position on canvas, ...) doesn't affect preview and hence is intentionally ignored
+    sb.append("stage=").append(stageConf.getInstanceName()).append(':').append(stageConf.getLibrary()).append(':')
+        .append(stageConf.getStageName()).append(':').append(stageConf.getStageVersion())
+        .append(",in=").append(stageConf.getInputLanes())
+        .append(",out=").append(stageConf.getOutputLanes())
+        .append(",events=").append(stageConf.getEventLanes()).append(';');
+    appendConfigs(sb, stageConf.getConfiguration());
+    if (stageConf.getServices() != null) {
+      for (ServiceConfiguration serviceConf : stageConf.getServices()) {
+        sb.append("service=").append(serviceConf.getService().getName()).append(':')
+            .append(serviceConf.getServiceVersion()).append(';');
+        appendConfigs(sb, serviceConf.getConfiguration());
+      }
+    }
+  }
+
+  private static void appendConfigs(StringBuilder sb, List<Config> configs) {
+    if (configs == null) {
+      return;
+    }
+    for (Config config : configs) {
+      sb.append(config.getName()).append('=').append(config.getValue()).append(';');
+    }
+  }
+}
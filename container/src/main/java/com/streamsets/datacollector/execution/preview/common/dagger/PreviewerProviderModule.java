@@ -17,7 +17,9 @@ package com.streamsets.datacollector.execution.preview.common.dagger;
 
 import com.streamsets.datacollector.execution.executor.ExecutorModule;
 import com.streamsets.datacollector.execution.manager.PreviewerProvider;
+import com.streamsets.datacollector.execution.preview.common.PreviewSessionCache;
 import com.streamsets.datacollector.execution.preview.common.PreviewerProviderImpl;
+import com.streamsets.datacollector.util.Configuration;
 
 import dagger.Module;
 import dagger.Provides;
@@ -25,9 +27,9 @@ import dagger.Provides;
 import javax.inject.Singleton;
 
 /**
- * Provides a singleton instance of PreviewerProvider.
+ * Provides a singleton instance of PreviewerProvider and of the cache of warm preview sessions.
  */
-@Module(injects = PreviewerProvider.class, includes = {ExecutorModule.class})
+@Module(injects = PreviewerProvider.class, includes = {ExecutorModule.class}, library = true)
 public class PreviewerProviderModule {
 
   @Provides @Singleton
@@ -35,4 +37,9 @@ public class PreviewerProviderModule {
     return previewerProvider;
   }
 
+  @Provides @Singleton
+  public PreviewSessionCache providePreviewSessionCache(Configuration configuration) {
+    return new PreviewSessionCache(configuration);
+  }
+
 }
@@ -33,6 +33,7 @@ import com.streamsets.datacollector.execution.PreviewerListener;
 import com.streamsets.datacollector.execution.RawPreview;
 import com.streamsets.datacollector.execution.preview.common.PreviewError;
 import com.streamsets.datacollector.execution.preview.common.PreviewOutputImpl;
+import com.streamsets.datacollector.execution.preview.common.PreviewSessionCache;
 import com.streamsets.datacollector.execution.preview.common.RawPreviewImpl;
 import com.streamsets.datacollector.execution.runner.common.PipelineStopReason;
 import com.streamsets.datacollector.lineage.LineagePublisherTask;
@@ -75,6 +76,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 public class SyncPreviewer implements Previewer {
@@ -100,6 +102,7 @@ public class SyncPreviewer implements Previewer {
   @Inject BlobStoreTask blobStoreTask;
   @Inject LineagePublisherTask lineagePublisherTask;
   @Inject StatsCollector statsCollector;
+  @Inject PreviewSessionCache previewSessionCache;
   private volatile PreviewStatus previewStatus;
   private volatile PreviewOutput previewOutput;
   private volatile PreviewPipeline previewPipeline;
@@ -234,8 +237,22 @@ public class SyncPreviewer implements Previewer {
   ) throws PipelineException {
     changeState(PreviewStatus.RUNNING, null);
     try {
-      previewPipeline = buildPreviewPipeline(batches, batchSize, stopStage, skipTargets, skipLifecycleEvents, testOrigin);
-      PreviewPipelineOutput output = previewPipeline.run(stagesOverride);
+      PreviewPipelineOutput output;
+      long sessionTtl = configuration.get(PreviewSessionCache.SESSION_TTL_KEY, PreviewSessionCache.SESSION_TTL_DEFAULT);
+      // Warm sessions are not used when lifecycle events should run or when user provided custom stage output
+      if (sessionTtl > 0 && skipLifecycleEvents && (stagesOverride == null || stagesOverride.isEmpty())) {
+        output = runInSession(
+            batches,
+            batchSize,
+            skipTargets,
+            stopStage,
+            testOrigin,
+            TimeUnit.SECONDS.toMillis(sessionTtl)
+        );
+      } else {
+        previewPipeline = buildPreviewPipeline(batches, batchSize, stopStage, skipTargets, skipLifecycleEvents, testOrigin);
+        output = previewPipeline.run(stagesOverride);
+      }
       changeState(PreviewStatus.FINISHED, new PreviewOutputImpl(PreviewStatus.FINISHED, output.getIssues(),
           output.getBatchesOutput()));
     } catch (PipelineRuntimeException e) {
@@ -266,19 +283,112 @@ public class SyncPreviewer implements Previewer {
       changeState(PreviewStatus.RUN_ERROR, new PreviewOutputImpl(PreviewStatus.RUN_ERROR, e));
       throw new PipelineException(PreviewError.PREVIEW_0003, e.toString(), e);
     } finally {
-      if (previewPipeline != null) {
+      PreviewPipeline pipeline = takePreviewPipeline();
+      if (pipeline != null) {
         try {
-          previewPipeline.destroy(PipelineStopReason.FINISHED);
+          pipeline.destroy(PipelineStopReason.FINISHED);
         } catch (StageException e) {
           throw new PipelineException(PreviewError.PREVIEW_0003, e.toString(), e);
         }
-        previewPipeline = null;
       }
       PipelineEL.unsetConstantsInContext();
       JobEL.unsetConstantsInContext();
     }
   }
 
+  /**
+   * Run preview re-using initialized pipeline or origin output from the previous preview of the same pipeline by the
+   * same user. On success the pipeline is kept initialized in the session rather than destroyed.
+   *
+   * When nothing changed, the initialized pipeline is run again including its origin, so that the preview shows new
+   * data. When only stages after the origin changed, the origin output of the previous preview is replayed through a
+   * new pipeline that doesn't initialize the origin at all, so that the changes can be compared on the same data.
+   * Such pipeline keeps replaying the same origin output while its session lives. Session created from a previous one
+   * keeps its expiration time, so neither the pipeline nor the replayed data are kept longer than the time to live.
+   */
+  private PreviewPipelineOutput runInSession(
+      int batches,
+      int batchSize,
+      boolean skipTargets,
+      String stopStage,
+      boolean testOrigin,
+      long sessionTtl
+  ) throws PipelineException, StageException {
+    PipelineConfiguration pipelineConf = pipelineStore.load(name, rev);
+    String originFingerprint = PreviewSessionCache.getOriginFingerprint(
+        pipelineConf,
+        batches,
+        batchSize,
+        testOrigin,
+        connections
+    );
+    String fingerprint = PreviewSessionCache.getFingerprint(
+        originFingerprint,
+        pipelineConf,
+        stopStage,
+        skipTargets,
+        interceptorConfs
+    );
+    String user = userContext.getUser();
+
+    long expiresAt = System.currentTimeMillis() + sessionTtl;
+    List<StageOutput> originOutput = null;
+    PreviewSessionCache.Session session = previewSessionCache.take(name, rev, user);
+    if (session != null) {
+      if (session.getFingerprint().equals(fingerprint)) {
+        LOG.debug("Re-using initialized pipeline from preview session");
+        previewPipeline = session.getPipeline();
+        expiresAt = session.getExpiresAt();
+        if (!previewPipeline.isOriginInitialized()) {
+          // Pipeline was created to replay origin output and its origin can't run
+          originOutput = session.getOriginOutput();
+        }
+        PipelineEL.setConstantsInContext(pipelineConf, userContext, System.currentTimeMillis());
+        JobEL.setConstantsInContext(null);
+      } else {
+        session.destroy();
+        if (session.getOriginFingerprint().equals(originFingerprint)) {
+          LOG.debug("Re-using origin output from preview session");
+          originOutput = session.getOriginOutput();
+          expiresAt = session.getExpiresAt();
+        }
+      }
+    }
+    if (previewPipeline == null) {
+      previewPipeline = buildPreviewPipeline(batches, batchSize, stopStage, skipTargets, true, testOrigin);
+    }
+    PreviewPipeline pipeline = previewPipeline;
+
+    pipeline.setOriginReplay(originOutput);
+    PreviewPipelineOutput output = pipeline.run(Collections.emptyList());
+    if (originOutput == null) {
+      originOutput = PreviewSessionCache.getOriginOutput(output, pipeline.getOriginInstanceName());
+    }
+
+    // Under the same lock as stop(), so that a pipeline destroyed by it never gets to the cache
+    synchronized (this) {
+      if (previewPipeline == pipeline) {
+        previewPipeline = null;
+        previewSessionCache.put(
+            name,
+            rev,
+            user,
+            new PreviewSessionCache.Session(originFingerprint, fingerprint, originOutput, pipeline, expiresAt)
+        );
+      }
+    }
+    return output;
+  }
+
+  /**
+   * Take the current preview pipeline, the caller becomes responsible for destroying it.
+   */
+  private synchronized PreviewPipeline takePreviewPipeline() {
+    PreviewPipeline pipeline = previewPipeline;
+    previewPipeline = null;
+    return pipeline;
+  }
+
   @Override
   public void stop() {
     //state is active then call cancelling otherwise just destroy
@@ -322,16 +432,16 @@ public class SyncPreviewer implements Previewer {
   }
 
   private void destroyPipeline(PipelineStopReason reason) {
-    if(previewPipeline == null) {
+    PreviewPipeline pipeline = takePreviewPipeline();
+    if(pipeline == null) {
       return;
     }
 
     try {
-      previewPipeline.destroy(reason);
+      pipeline.destroy(reason);
     } catch (StageException|PipelineRuntimeException e) {
       LOG.error("Error destroying pipeline", e);
     }
-    previewPipeline = null;
   }
 
 
@@ -26,6 +26,8 @@ public class Constants {
   public static final String PIPELINE_CLUSTER_TOKEN_KEY = "pipeline.cluster.token";
   public static final String MAX_BATCH_SIZE_KEY = "production.maxBatchSize";
   public static final int MAX_BATCH_SIZE_DEFAULT = 50000;
+  public static final String MAX_BATCHES_IN_FLIGHT_KEY = "production.maxBatchesInFlight";
+  public static final int MAX_BATCHES_IN_FLIGHT_DEFAULT = 1;
   public static final String DELIVERY_GUARANTEE = "deliveryGuarantee";
   public static final String MAX_ERROR_FILE_SIZE_KEY = "production.maxErrorFileSize";
   public static final String MAX_ERROR_FILE_SIZE_DEFAULT = "1024MB";
@@ -33,6 +35,10 @@ public class Constants {
   public static final int MAX_BACKUP_INDEX_DEFAULT = 5;
   public static final String MAX_ERROR_RECORDS_PER_STAGE_KEY = "production.maxErrorRecordsPerStage";
   public static final int MAX_ERROR_RECORDS_PER_STAGE_DEFAULT = 100;
+  public static final String MAX_ERROR_RECORDS_MEMORY_PER_STAGE_MB_KEY = "production.maxErrorRecordsMemoryPerStageMB";
+  public static final int MAX_ERROR_RECORDS_MEMORY_PER_STAGE_MB_DEFAULT = 10;
+  public static final String ERROR_RECORDS_SPILL_PER_STAGE_MB_KEY = "production.errorRecordsSpillPerStageMB";
+  public static final int ERROR_RECORDS_SPILL_PER_STAGE_MB_DEFAULT = 0;
   public static final String MAX_PIPELINE_ERRORS_KEY = "production.maxPipelineErrors";
   public static final int MAX_PIPELINE_ERRORS_DEFAULT = 100;
   public static final String OBSERVER_QUEUE_SIZE_KEY = "observer.queue.size";
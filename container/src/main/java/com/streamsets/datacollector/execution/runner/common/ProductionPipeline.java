@@ -106,6 +106,9 @@ public class ProductionPipeline {
           throw new PipelineRuntimeException(ContainerError.CONTAINER_0702, e.toString(), e);
         }
         if (issues.isEmpty()) {
+          if (pipeline.getElasticMinRunners() > 0) {
+            pipelineRunner.setElasticRunners(pipeline.getElasticMinRunners(), pipeline::addRunner);
+          }
           try {
             stateChanged(PipelineStatus.RUNNING, null, null);
             LOG.debug("Running");
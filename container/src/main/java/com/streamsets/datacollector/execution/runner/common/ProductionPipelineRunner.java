@@ -22,12 +22,13 @@ import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Throwables;
-import com.google.common.collect.EvictingQueue;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
 import com.streamsets.datacollector.bundles.SupportBundleManager;
 import com.streamsets.datacollector.config.PipelineConfiguration;
 import com.streamsets.datacollector.creation.PipelineConfigBean;
@@ -73,6 +74,7 @@ import com.streamsets.datacollector.usagestats.StatsCollector;
 import com.streamsets.datacollector.util.AggregatorUtil;
 import com.streamsets.datacollector.util.Configuration;
 import com.streamsets.datacollector.util.ContainerError;
+import com.streamsets.datacollector.util.PipelineDirectoryUtil;
 import com.streamsets.datacollector.util.PipelineException;
 import com.streamsets.datacollector.util.ValidationUtil;
 import com.streamsets.pipeline.api.Batch;
@@ -80,6 +82,7 @@ import com.streamsets.pipeline.api.BatchContext;
 import com.streamsets.pipeline.api.DeliveryGuarantee;
 import com.streamsets.pipeline.api.ErrorListener;
 import com.streamsets.pipeline.api.OffsetCommitTrigger;
+import com.streamsets.pipeline.api.OffsetCommitter;
 import com.streamsets.pipeline.api.PushSource;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.Source;
@@ -90,12 +93,15 @@ import com.streamsets.pipeline.api.impl.ErrorMessage;
 import com.streamsets.pipeline.api.impl.Utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import java.io.File;
 import java.time.LocalDateTime;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -103,16 +109,22 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 
 public class ProductionPipelineRunner implements PipelineRunner, PushSourceContextDelegate, ReportErrorDelegate {
 
   private static final Logger LOG = LoggerFactory.getLogger(ProductionPipelineRunner.class);
+  private static final String ERROR_RECORDS_SPILL_DIR = "errorRecords";
 
   private final BuildInfo buildInfo;
   private final RuntimeInfo runtimeInfo;
@@ -130,6 +142,13 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
   private SourcePipe originPipe;
   private List<PipeRunner> pipes;
   private RunnerPool<PipeRunner> runnerPool;
+  // Runs parts of the batch on additional source-less pipes of single threaded origin, null if there are none
+  private ExecutorService dataParallelExecutor;
+  // Creates additional source-less pipes in elastic mode, null otherwise
+  private Supplier<PipeRunner> elasticRunnerFactory;
+  private int elasticMinRunners;
+  // Runners taken out of the pool in elastic mode, they are still initialized and will be reused first
+  private final Deque<PipeRunner> retiredRunners = new ArrayDeque<>();
   private BadRecordsHandler badRecordsHandler;
   private StatsAggregationHandler statsAggregationHandler;
 
@@ -170,10 +189,8 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
   private volatile int snapshotBatchSize;
   // Exception thrown while executing the pipeline
   private volatile Throwable exceptionFromExecution = null;
-  /*Cache last N error records per stage in memory*/
-  private final Map<String, EvictingQueue<Record>> stageToErrorRecordsMap;
-  /*Cache last N error messages in memory*/
-  private final Map<String, EvictingQueue<ErrorMessage>> stageToErrorMessagesMap;
+  /*Cache last N error records and error messages per stage*/
+  private final StageErrorRetention stageErrorRetention;
   /**/
   private BlockingQueue<Object> observeRequests;
   private Observer observer;
@@ -211,8 +228,19 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
     this.pipelineName = pipelineName;
     this.revision = revision;
     this.supportBundleManager = supportBundleManager;
-    stageToErrorRecordsMap = new HashMap<>();
-    stageToErrorMessagesMap = new HashMap<>();
+    stageErrorRetention = new StageErrorRetention(
+        configuration.get(Constants.MAX_ERROR_RECORDS_PER_STAGE_KEY, Constants.MAX_ERROR_RECORDS_PER_STAGE_DEFAULT),
+        configuration.get(Constants.MAX_PIPELINE_ERRORS_KEY, Constants.MAX_PIPELINE_ERRORS_DEFAULT),
+        configuration.get(
+            Constants.MAX_ERROR_RECORDS_MEMORY_PER_STAGE_MB_KEY,
+            Constants.MAX_ERROR_RECORDS_MEMORY_PER_STAGE_MB_DEFAULT
+        ) * 1024L * 1024L,
+        new File(PipelineDirectoryUtil.getPipelineDir(runtimeInfo, pipelineName, revision), ERROR_RECORDS_SPILL_DIR),
+        configuration.get(
+            Constants.ERROR_RECORDS_SPILL_PER_STAGE_MB_KEY,
+            Constants.ERROR_RECORDS_SPILL_PER_STAGE_MB_DEFAULT
+        ) * 1024L * 1024L
+    );
     this.errorListeners = new ArrayList<>();
     this.statsCollector = statsCollector;
 
@@ -312,6 +340,15 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
     this.parameters = parameters;
   }
 
+  /**
+   * Enable elastic mode - the number of runners in the pool will change between minRunners and whatever number of
+   * runners the given factory is able to create.
+   */
+  public void setElasticRunners(int minRunners, Supplier<PipeRunner> runnerFactory) {
+    this.elasticMinRunners = minRunners;
+    this.elasticRunnerFactory = runnerFactory;
+  }
+
   public void setThreadHealthReporter(ThreadHealthReporter threadHealthReporter) {
     this.threadHealthReporter = threadHealthReporter;
   }
@@ -396,6 +433,8 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
       LOG.debug("Staring pipeline with offset: {}", offsetTracker.getOffsets());
       if (originPipe.getStage().getStage() instanceof PushSource) {
         runPushSource();
+      } else if (pipes.size() > 1) {
+        runPollSourceWithDataParallelRunners();
       } else {
         runPollSource();
       }
@@ -554,7 +593,23 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
 
   @Override
   public void commitOffset(String entity, String offset) {
-    offsetTracker.commitOffset(entity, offset);
+    commitOffsetInTracker(entity, offset);
+  }
+
+  /**
+   * Offset tracker is shared between the origin and the batch writer thread when batches are in flight (and between
+   * runners of multi-threaded origins), so all access to it from the batch processing goes through this lock.
+   */
+  private void commitOffsetInTracker(String entity, String offset) {
+    synchronized (offsetTracker) {
+      offsetTracker.commitOffset(entity, offset);
+    }
+  }
+
+  private long getLastBatchTime() {
+    synchronized (offsetTracker) {
+      return offsetTracker.getLastBatchTime();
+    }
   }
 
   @Override
@@ -571,6 +626,12 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
   }
 
   public void runPollSource() throws StageException, PipelineException {
+    int maxBatchesInFlight = configuration.get(Constants.MAX_BATCHES_IN_FLIGHT_KEY, Constants.MAX_BATCHES_IN_FLIGHT_DEFAULT);
+    if (maxBatchesInFlight > 1 && canOverlapBatches()) {
+      runPollSourceWithBatchesInFlight(maxBatchesInFlight);
+      return;
+    }
+
     while (!offsetTracker.isFinished() && !stop && !finished) {
       if (threadHealthReporter != null) {
         threadHealthReporter.reportHealth(ProductionPipelineRunnable.RUNNABLE_NAME, -1, System.currentTimeMillis());
@@ -601,44 +662,226 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
         stageBatchMetrics
       );
 
-      // Since the origin already run, the FullPipeBatch will have a new offset
-      String newOffset = pipeBatch.getNewOffset();
+      // Run rest of the pipeline, the FullPipeBatch already has the new offset since the origin already run
+      runPolledBatch(start, pipeBatch, memoryConsumedByStage, stageBatchMetrics);
 
-      try {
-        // Run rest of the pipeline
-        runSourceLessBatch(
-          start,
+      for (BatchListener batchListener : batchListenerList) {
+        batchListener.postBatch();
+      }
+    }
+  }
+
+  /**
+   * Variant of runPollSource() for single threaded origin with multiple source-less pipes.
+   *
+   * Each batch produced by the origin is split into parts that go through processors of all the source-less pipes in
+   * parallel. The parts are then merged back in their original order and destinations and executors get the merged
+   * batch on the first source-less pipe, so they see the same records in the same order as with a single pipe and
+   * the offset is committed only once the whole batch was written.
+   */
+  private void runPollSourceWithDataParallelRunners() throws StageException, PipelineException {
+    LOG.debug("Running pipeline with {} data parallel runners", pipes.size());
+    dataParallelExecutor = Executors.newFixedThreadPool(pipes.size() - 1, new ThreadFactoryBuilder()
+      .setNameFormat("ProductionPipelineRunner Data Parallel Runner - " + pipelineName + " - %d")
+      .setDaemon(true)
+      .build()
+    );
+    try {
+      runPollSource();
+    } finally {
+      dataParallelExecutor.shutdownNow();
+      dataParallelExecutor = null;
+    }
+  }
+
+  /**
+   * Variant of runPollSource() that overlaps the origin with the rest of the pipeline.
+   *
+   * Origin keeps producing on the current thread while the rest of the pipeline (processors and destinations) runs on
+   * a single writer thread, with up to maxBatchesInFlight batches handed over and not yet fully written. Since there
+   * is only one writer thread, batches are written and their offsets committed strictly in the order in which the
+   * origin produced them. When a batch fails, no other batch is written or committed, so the committed offset stays
+   * at the last batch that was fully written and the origin will resume from there.
+   */
+  private void runPollSourceWithBatchesInFlight(int maxBatchesInFlight) throws StageException, PipelineException {
+    LOG.debug("Running pipeline with up to {} batches in flight", maxBatchesInFlight);
+    ExecutorService writerExecutor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+      .setNameFormat("ProductionPipelineRunner Batch Writer - " + pipelineName + " - %d")
+      .setDaemon(true)
+      .build()
+    );
+    Deque<Future<?>> batchesInFlight = new ArrayDeque<>();
+    AtomicBoolean abandonWrites = new AtomicBoolean(false);
+
+    // Origin is ahead of the committed offset, so we have to track the offset that it produced last
+    String lastProducedOffset = offsetTracker.getOffsets().get(Source.POLL_SOURCE_OFFSET_KEY);
+    boolean originFinished = offsetTracker.isFinished();
+
+    try {
+      while (!originFinished && !stop && !finished) {
+        if (threadHealthReporter != null) {
+          threadHealthReporter.reportHealth(ProductionPipelineRunnable.RUNNABLE_NAME, -1, System.currentTimeMillis());
+        }
+
+        // Snapshot capture needs the batch to go through the whole pipeline on its own
+        boolean captureBatch = batchesToCapture > 0;
+        if (captureBatch) {
+          awaitBatchesInFlight(batchesInFlight, 0);
+        }
+
+        for (BatchListener batchListener : batchListenerList) {
+          batchListener.preBatch();
+        }
+
+        if(observer != null) {
+          observer.reconfigure();
+        }
+
+        // Start of the batch execution
+        long start = System.currentTimeMillis();
+        FullPipeBatch pipeBatch = createFullPipeBatch(Source.POLL_SOURCE_OFFSET_KEY, lastProducedOffset);
+
+        // Run origin
+        Map<String, Long> memoryConsumedByStage = new HashMap<>();
+        Map<String, Object> stageBatchMetrics = new HashMap<>();
+        processPipe(
+          originPipe,
           pipeBatch,
-          Source.POLL_SOURCE_OFFSET_KEY,
-          newOffset,
+          false,
+          null,
+          null,
           memoryConsumedByStage,
           stageBatchMetrics
         );
-      } catch (Throwable t) {
-        // We try to create partial batch on processing failure
-        createFailureBatch(pipeBatch);
-
-        // If applicable record the error codes
-        if(statsCollector != null) {
-          if(exceptionFromExecution instanceof StageException) {
-            statsCollector.errorCode(((StageException) exceptionFromExecution).getErrorCode());
+
+        lastProducedOffset = pipeBatch.getNewOffset();
+        originFinished = lastProducedOffset == null;
+
+        // Block the origin until there is room for another batch (failure of any previous batch is thrown here)
+        awaitBatchesInFlight(batchesInFlight, maxBatchesInFlight - 1);
+        batchesInFlight.add(writerExecutor.submit(() -> {
+          if (abandonWrites.get()) {
+            return null;
           }
-          if(exceptionFromExecution instanceof PipelineRuntimeException) {
-            statsCollector.errorCode(((PipelineRuntimeException) exceptionFromExecution).getErrorCode());
+          // PipelineEL and JobEL constants are thread local, so they need to be available on the writer thread as well
+          PipelineEL.setConstantsInContext(
+            pipelineConfiguration,
+            originPipe.getStage().getContext().getUserContext(),
+            pipelineStartTime
+          );
+          JobEL.setConstantsInContext(parameters);
+          try {
+            runPolledBatch(start, pipeBatch, memoryConsumedByStage, stageBatchMetrics);
+          } catch (Throwable t) {
+            abandonWrites.set(true);
+            throw t;
+          } finally {
+            PipelineEL.unsetConstantsInContext();
+            JobEL.unsetConstantsInContext();
           }
+          return null;
+        }));
+
+        if (captureBatch) {
+          awaitBatchesInFlight(batchesInFlight, 0);
         }
 
-        Throwables.propagateIfInstanceOf(t, StageException.class);
-        Throwables.propagateIfInstanceOf(t, PipelineRuntimeException.class);
-        Throwables.propagate(t);
+        for (BatchListener batchListener : batchListenerList) {
+          batchListener.postBatch();
+        }
       }
 
-      for (BatchListener batchListener : batchListenerList) {
-        batchListener.postBatch();
+      // Let all remaining batches finish (and commit their offsets) before we return and the pipeline gets destroyed
+      awaitBatchesInFlight(batchesInFlight, 0);
+    } finally {
+      // If we're leaving on exception, batches that are still waiting must not be written out of order
+      abandonWrites.set(true);
+      writerExecutor.shutdown();
+      try {
+        while (!writerExecutor.awaitTermination(1, TimeUnit.SECONDS)) {
+          LOG.debug("Waiting on batch writer thread to finish");
+        }
+      } catch (InterruptedException e) {
+        LOG.warn("Interrupted while waiting on batch writer thread to finish");
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * Waits until at most maxRemaining batches are in flight, propagating failure of any batch that has finished.
+   */
+  private void awaitBatchesInFlight(
+    Deque<Future<?>> batchesInFlight,
+    int maxRemaining
+  ) throws StageException, PipelineException {
+    while (!batchesInFlight.isEmpty() && (batchesInFlight.size() > maxRemaining || batchesInFlight.peekFirst().isDone())) {
+      try {
+        batchesInFlight.pollFirst().get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw Throwables.propagate(e);
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        Throwables.propagateIfInstanceOf(cause, StageException.class);
+        Throwables.propagateIfInstanceOf(cause, PipelineException.class);
+        Throwables.propagate(cause);
       }
     }
   }
 
+  /**
+   * Batches can only be overlapped when offset commit is fully under control of this runner. Origins that commit
+   * offsets on their own and destinations that trigger the commit need every batch to finish before next one starts.
+   */
+  private boolean canOverlapBatches() {
+    if (originPipe.getStage().getStage() instanceof OffsetCommitter) {
+      return false;
+    }
+    for (PipeRunner pipeRunner : pipes) {
+      if (pipeRunner.getOffsetCommitTrigger() != null) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void runPolledBatch(
+    long start,
+    FullPipeBatch pipeBatch,
+    Map<String, Long> memoryConsumedByStage,
+    Map<String, Object> stageBatchMetrics
+  ) throws StageException, PipelineException {
+    try {
+      runSourceLessBatch(
+        start,
+        pipeBatch,
+        Source.POLL_SOURCE_OFFSET_KEY,
+        pipeBatch.getNewOffset(),
+        memoryConsumedByStage,
+        stageBatchMetrics
+      );
+    } catch (Throwable t) {
+      // We try to create partial batch on processing failure
+      createFailureBatch(pipeBatch);
+
+      // If applicable record the error codes, exceptionFromExecution is only used by push origins so it's not
+      // consulted here - this might be running on the batch writer thread
+      if(statsCollector != null) {
+        if(t instanceof StageException) {
+          statsCollector.errorCode(((StageException) t).getErrorCode());
+        }
+        if(t instanceof PipelineRuntimeException) {
+          statsCollector.errorCode(((PipelineRuntimeException) t).getErrorCode());
+        }
+      }
+
+      Throwables.propagateIfInstanceOf(t, StageException.class);
+      Throwables.propagateIfInstanceOf(t, PipelineRuntimeException.class);
+      Throwables.propagate(t);
+    }
+  }
+
   @Override
   public void errorNotification(SourcePipe originPipe, List<PipeRunner> pipes, Throwable throwable) {
     Set<ErrorListener> listeners = Sets.newIdentityHashSet();
@@ -794,6 +1037,7 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
         statsAggregationHandler.handle(null, null, stats);
       }
     } finally {
+        stageErrorRetention.close();
         destroyLock.unlock();
     }
   }
@@ -849,7 +1093,7 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
   ) throws PipelineRuntimeException, StageException {
 
     // Set the last batch time in the stage context of each pipe
-    ((StageContext)pipe.getStage().getContext()).setLastBatchTime(offsetTracker.getLastBatchTime());
+    ((StageContext)pipe.getStage().getContext()).setLastBatchTime(getLastBatchTime());
 
     if(!pipeBatch.isIdleBatch()) {
       if (deliveryGuarantee == DeliveryGuarantee.AT_MOST_ONCE
@@ -857,7 +1101,7 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
         && !committed
       ) {
         // target cannot control offset commit in AT_MOST_ONCE mode
-        offsetTracker.commitOffset(entityName, newOffset);
+        commitOffsetInTracker(entityName, newOffset);
         committed = true;
       }
     }
@@ -880,18 +1124,176 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
     Map<String, Object> stageBatchMetrics
   ) throws PipelineException, StageException {
     PipeRunner pipeRunner = null;
+    List<PipeRunner> dataParallelRunners = new ArrayList<>();
+    int fromIndex = 0;
     try {
-      pipeRunner = runnerPool.getRunner();
-      executeRunner(pipeRunner, start, pipeBatch, entityName, newOffset, memoryConsumedByStage, stageBatchMetrics);
+      if (dataParallelExecutor != null) {
+        // Only the first runner has destinations and executors, the other ones end in front of them
+        for (int i = 0; i < pipes.size(); i++) {
+          dataParallelRunners.add(runnerPool.getRunner());
+        }
+        pipeRunner = pipes.get(0);
+        dataParallelRunners.remove(pipeRunner);
+        dataParallelRunners.add(0, pipeRunner);
+        if (canSplitBatch(pipeRunner, pipeBatch)) {
+          runDataParallel(dataParallelRunners, start, pipeBatch, entityName, newOffset, stageBatchMetrics);
+          fromIndex = pipeRunner.getFirstTargetOrExecutorIndex();
+        }
+      } else {
+        pipeRunner = runnerPool.getRunner();
+      }
+      executeRunner(pipeRunner, fromIndex, start, pipeBatch, entityName, newOffset, memoryConsumedByStage, stageBatchMetrics);
     } finally {
-      if(pipeRunner != null) {
-        runnerPool.returnRunner(pipeRunner);
+      if (dataParallelRunners.isEmpty()) {
+        if (pipeRunner != null) {
+          runnerPool.returnRunner(pipeRunner);
+        }
+      } else {
+        for (PipeRunner dataParallelRunner : dataParallelRunners) {
+          runnerPool.returnRunner(dataParallelRunner);
+        }
+      }
+    }
+  }
+
+  /**
+   * Batch is worth splitting only if there are processors in front of the destinations and executors and there are
+   * enough records for each of the source-less pipes. Snapshot capture needs the batch to go through a single pipe.
+   */
+  private boolean canSplitBatch(PipeRunner pipeRunner, FullPipeBatch pipeBatch) {
+    if (dataParallelExecutor == null || pipeBatch.isIdleBatch() || pipeBatch.getSnapshotsOfAllStagesOutput() != null) {
+      return false;
+    }
+    if (pipeBatch.getInputRecords() < pipes.size()) {
+      return false;
+    }
+    int splitIndex = pipeRunner.getFirstTargetOrExecutorIndex();
+    for (int i = 0; i < splitIndex; i++) {
+      if (pipeRunner.get(i) instanceof StagePipe) {
+        return true;
       }
     }
+    return false;
+  }
+
+  /**
+   * Run all pipes in front of the first destination or executor on given runners in parallel, each runner with its
+   * own part of the batch. The parts are merged back to the batch in order, so that the first runner can continue
+   * from there.
+   */
+  private void runDataParallel(
+    List<PipeRunner> runners,
+    long start,
+    FullPipeBatch pipeBatch,
+    String entityName,
+    String newOffset,
+    Map<String, Object> stageBatchMetrics
+  ) throws PipelineException, StageException {
+    int splitIndex = runners.get(0).getFirstTargetOrExecutorIndex();
+    List<FullPipeBatch> parts = pipeBatch.split(runners.size());
+    List<Map<String, Object>> partBatchMetrics = new ArrayList<>(runners.size());
+    for (int i = 0; i < runners.size(); i++) {
+      partBatchMetrics.add(new HashMap<>());
+    }
+
+    // PipelineEL and JobEL constants as well as the logging context are thread local
+    Map<String, String> loggingContext = MDC.getCopyOfContextMap();
+    List<Future<?>> futures = new ArrayList<>(runners.size() - 1);
+    for (int i = 1; i < runners.size(); i++) {
+      PipeRunner runner = runners.get(i);
+      FullPipeBatch part = parts.get(i);
+      Map<String, Object> batchMetrics = partBatchMetrics.get(i);
+      futures.add(dataParallelExecutor.submit(() -> {
+        if (loggingContext != null) {
+          MDC.setContextMap(loggingContext);
+        }
+        PipelineEL.setConstantsInContext(
+          pipelineConfiguration,
+          originPipe.getStage().getContext().getUserContext(),
+          pipelineStartTime
+        );
+        JobEL.setConstantsInContext(parameters);
+        try {
+          runDataParallelPart(runner, splitIndex, start, part, entityName, newOffset, batchMetrics);
+        } finally {
+          PipelineEL.unsetConstantsInContext();
+          JobEL.unsetConstantsInContext();
+          MDC.clear();
+        }
+        return null;
+      }));
+    }
+
+    Throwable failure = null;
+    try {
+      runDataParallelPart(runners.get(0), splitIndex, start, parts.get(0), entityName, newOffset, partBatchMetrics.get(0));
+    } catch (Throwable t) {
+      failure = t;
+    }
+
+    // All parts must be done before any of the runners can be used again
+    for (Future<?> future : futures) {
+      try {
+        Uninterruptibles.getUninterruptibly(future);
+      } catch (ExecutionException e) {
+        if (failure == null) {
+          failure = e.getCause();
+        }
+      }
+    }
+
+    // Merge even on failure, so that the failure snapshot has as much data as possible
+    pipeBatch.merge(parts);
+    if (failure != null) {
+      Throwables.propagateIfInstanceOf(failure, StageException.class);
+      Throwables.propagateIfInstanceOf(failure, PipelineException.class);
+      Throwables.propagate(failure);
+    }
+
+    if (isStatsAggregationEnabled()) {
+      partBatchMetrics.forEach(batchMetrics -> mergeBatchMetrics(stageBatchMetrics, batchMetrics));
+    }
+  }
+
+  private void runDataParallelPart(
+    PipeRunner runner,
+    int splitIndex,
+    long start,
+    FullPipeBatch part,
+    String entityName,
+    String newOffset,
+    Map<String, Object> stageBatchMetrics
+  ) throws PipelineException, StageException {
+    // There are no destinations in front of the split, so nothing can commit offset here
+    runner.executeBatch(entityName, newOffset, start, 0, splitIndex, pipe ->
+      processPipe(pipe, part, false, entityName, newOffset, new HashMap<>(), stageBatchMetrics)
+    );
+  }
+
+  /**
+   * Add metrics of the same stage(s) computed on different parts of the batch - numbers are summed up.
+   */
+  @SuppressWarnings("unchecked")
+  private static void mergeBatchMetrics(Map<String, Object> into, Map<String, Object> from) {
+    from.forEach((key, value) -> into.merge(key, value, (a, b) -> {
+      if (a instanceof Map && b instanceof Map) {
+        Map<String, Object> merged = new HashMap<>((Map<String, Object>) a);
+        mergeBatchMetrics(merged, (Map<String, Object>) b);
+        return merged;
+      }
+      if (a instanceof Integer && b instanceof Integer) {
+        return (Integer) a + (Integer) b;
+      }
+      if (a instanceof Number && b instanceof Number) {
+        return ((Number) a).longValue() + ((Number) b).longValue();
+      }
+      return b;
+    }));
   }
 
   private void executeRunner(
     PipeRunner pipeRunner,
+    int fromIndex,
     long start,
     FullPipeBatch pipeBatch,
     String entityName,
@@ -904,7 +1306,7 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
 
     OffsetCommitTrigger offsetCommitTrigger = pipeRunner.getOffsetCommitTrigger();
 
-    pipeRunner.executeBatch(entityName, newOffset, start, pipe -> {
+    pipeRunner.executeBatch(entityName, newOffset, start, fromIndex, pipeRunner.size(), pipe -> {
       committed.set(processPipe(pipe, pipeBatch, committed.get(), entityName, newOffset, memoryConsumedByStage, stageBatchMetrics));
 
     });
@@ -916,7 +1318,7 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
         // 1. There is no offset commit trigger for this pipeline or
         // 2. there is a commit trigger and it is on
         if (offsetCommitTrigger == null || offsetCommitTrigger.commit()) {
-          offsetTracker.commitOffset(entityName, newOffset);
+          commitOffsetInTracker(entityName, newOffset);
         }
       }
     }
@@ -1040,6 +1442,7 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
 
           executeRunner(
             runner,
+            0,
             System.currentTimeMillis(),
             pipeBatch,
             null,
@@ -1060,6 +1463,73 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
     return counter;
   }
 
+  /**
+   * This method should be called periodically from a scheduler when the pipeline runs in elastic mode.
+   *
+   * When any caller had to wait for a runner for more than scaleUpWaitTime since the last call, one runner is added to
+   * the pool (previously retired runners are reused before new ones are created). Otherwise one runner that was idle
+   * for at least idleTime is retired, unless the pool is already at its minimal size. New runners are created and
+   * initialized without holding the destroy lock, so that batches and pipeline stop are not blocked meanwhile.
+   *
+   * @param scaleUpWaitTime Number of milliseconds of waiting for a runner after which new runner is added
+   * @param idleTime Number of milliseconds after which a runner is considered "idle"
+   * @return Change in number of runners in the pool (1, 0 or -1)
+   */
+  public int scaleRunners(long scaleUpWaitTime, long idleTime) throws PipelineException {
+    if (elasticRunnerFactory == null) {
+      return 0;
+    }
+
+    long maxWaitTime;
+    try {
+      destroyLock.lock();
+      if (!running) {
+        return 0;
+      }
+
+      maxWaitTime = runnerPool.getAndResetMaxWaitTime();
+      if (maxWaitTime <= scaleUpWaitTime) {
+        if (runnerPool.getTotalRunners() > elasticMinRunners) {
+          PipeRunner runner = runnerPool.retireIdleRunner(idleTime);
+          if (runner != null) {
+            LOG.debug("Retiring idle runner {}", runner.getRunnerId());
+            retiredRunners.addFirst(runner);
+            return -1;
+          }
+        }
+        return 0;
+      }
+
+      PipeRunner runner = retiredRunners.pollFirst();
+      if (runner != null) {
+        LOG.debug("Reusing runner {} as batches waited up to {} ms for a runner", runner.getRunnerId(), maxWaitTime);
+        runnerPool.addRunner(runner);
+        return 1;
+      }
+    } finally {
+      destroyLock.unlock();
+    }
+
+    PipeRunner runner = elasticRunnerFactory.get();
+    if (runner == null) {
+      return 0;
+    }
+
+    try {
+      destroyLock.lock();
+      // If the pipeline stopped in the meantime, the new runner is destroyed together with the rest of the pipeline
+      if (!running) {
+        return 0;
+      }
+
+      LOG.debug("Adding runner {} as batches waited up to {} ms for a runner", runner.getRunnerId(), maxWaitTime);
+      runnerPool.addRunner(runner);
+      return 1;
+    } finally {
+      destroyLock.unlock();
+    }
+  }
+
   private void sendPipelineErrorNotificationRequest(Throwable throwable) {
     boolean offered = false;
     try {
@@ -1079,69 +1549,19 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
   }
 
   private void retainErrorMessagesInMemory(Map<String, List<ErrorMessage>> errorMessages) {
-    // Shortcut to avoid synchronization
-    if(errorMessages.isEmpty()) {
-      return;
-    }
-
-    synchronized (stageToErrorMessagesMap) {
-      for (Map.Entry<String, List<ErrorMessage>> e : errorMessages.entrySet()) {
-        EvictingQueue<ErrorMessage> errorMessageList = stageToErrorMessagesMap.computeIfAbsent(e.getKey(),
-            k -> EvictingQueue.create(configuration.get(Constants.MAX_PIPELINE_ERRORS_KEY,
-                Constants.MAX_PIPELINE_ERRORS_DEFAULT
-            ))
-        );
-        errorMessageList.addAll(errorMessages.get(e.getKey()));
-      }
-    }
+    stageErrorRetention.retainErrorMessages(errorMessages);
   }
 
   private void retainErrorRecordsInMemory(Map<String, List<Record>> errorRecords) {
-    // Shortcut to avoid synchronization
-    if(errorRecords.isEmpty()) {
-      return;
-    }
-
-    synchronized (stageToErrorRecordsMap) {
-      for (Map.Entry<String, List<Record>> e : errorRecords.entrySet()) {
-        EvictingQueue<Record> errorRecordList = stageToErrorRecordsMap.computeIfAbsent(e.getKey(),
-            k -> EvictingQueue.create(configuration.get(Constants.MAX_ERROR_RECORDS_PER_STAGE_KEY,
-                Constants.MAX_ERROR_RECORDS_PER_STAGE_DEFAULT
-            ))
-        );
-        // replace with a data structure with an upper cap
-        errorRecordList.addAll(errorRecords.get(e.getKey()));
-      }
-    }
+    stageErrorRetention.retainErrorRecords(errorRecords);
   }
 
-  @SuppressWarnings("unchecked")
   public List<Record> getErrorRecords(String instanceName, int size) {
-    synchronized (stageToErrorRecordsMap) {
-      if (stageToErrorRecordsMap == null || stageToErrorRecordsMap.isEmpty()
-        || stageToErrorRecordsMap.get(instanceName) == null || stageToErrorRecordsMap.get(instanceName).isEmpty()) {
-        return Collections.emptyList();
-      }
-      if (stageToErrorRecordsMap.get(instanceName).size() > size) {
-        return new CopyOnWriteArrayList<>(stageToErrorRecordsMap.get(instanceName)).subList(0, size);
-      } else {
-        return new CopyOnWriteArrayList<>(stageToErrorRecordsMap.get(instanceName));
-      }
-    }
+    return stageErrorRetention.getErrorRecords(instanceName, size);
   }
 
   public List<ErrorMessage> getErrorMessages(String instanceName, int size) {
-    synchronized (stageToErrorMessagesMap) {
-      if (stageToErrorMessagesMap == null || stageToErrorMessagesMap.isEmpty()
-        || stageToErrorMessagesMap.get(instanceName) == null || stageToErrorMessagesMap.get(instanceName).isEmpty()) {
-        return Collections.emptyList();
-      }
-      if (stageToErrorMessagesMap.get(instanceName).size() > size) {
-        return new CopyOnWriteArrayList<>(stageToErrorMessagesMap.get(instanceName)).subList(0, size);
-      } else {
-        return new CopyOnWriteArrayList<>(stageToErrorMessagesMap.get(instanceName));
-      }
-    }
+    return stageErrorRetention.getErrorMessages(instanceName, size);
   }
 
   /**
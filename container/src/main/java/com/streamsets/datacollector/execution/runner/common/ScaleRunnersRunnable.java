@@ -0,0 +1,65 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.execution.runner.common;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This runnable can be scheduled to run periodically with an instance of ProductionPipelineRunner to call the method
+ * scaleRunners() - e.g. to add or retire runners in elastic mode based on how long batches wait for a runner.
+ */
+public class ScaleRunnersRunnable implements Runnable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ScaleRunnersRunnable.class);
+
+  /**
+   * Pipeline Runner responsible for running this pipeline.
+   */
+  private final ProductionPipelineRunner pipelineRunner;
+
+  /**
+   * Wait time for a runner in ms after which new runner is added.
+   */
+  private final long scaleUpWaitTime;
+
+  /**
+   * Idle time in ms after which a runner is retired.
+   */
+  private final long idleTime;
+
+  public ScaleRunnersRunnable(
+    ProductionPipelineRunner pipelineRunner,
+    long scaleUpWaitTime,
+    long idleTime
+  ) {
+    this.pipelineRunner = pipelineRunner;
+    this.scaleUpWaitTime = scaleUpWaitTime;
+    this.idleTime = idleTime;
+  }
+
+  @Override
+  public void run() {
+    String originalName = Thread.currentThread().getName();
+    Thread.currentThread().setName("Pipeline Elastic Runners");
+    try {
+      pipelineRunner.scaleRunners(scaleUpWaitTime, idleTime);
+    } catch (Exception e) {
+      LOG.error("Error when scaling pipeline runners: " + e.toString(), e);
+    }
+    Thread.currentThread().setName(originalName);
+  }
+}
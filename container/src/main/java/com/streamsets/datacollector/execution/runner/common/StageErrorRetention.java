@@ -0,0 +1,435 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.execution.runner.common;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.streamsets.datacollector.record.io.RecordEncoding;
+import com.streamsets.datacollector.record.io.RecordWriterReaderFactory;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.ext.RecordReader;
+import com.streamsets.pipeline.api.ext.RecordWriter;
+import com.streamsets.pipeline.api.impl.ErrorMessage;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Retains last error records and error messages of each stage so that they can be shown in UI and REST API.
+ *
+ * Each stage has lock-free ring buffers, so runner threads never block each other when retaining errors. Error records
+ * are kept serialized and only deserialized when they are requested. Serialized records of each stage are kept within
+ * a byte budget; when it's exceeded, the oldest records are moved to a file-backed ring (if a spill directory was
+ * given) or dropped. Only one thread at a time moves records of a given stage out of memory, so that no record is
+ * spilled twice.
+ */
+public class StageErrorRetention {
+  private static final Logger LOG = LoggerFactory.getLogger(StageErrorRetention.class);
+
+  private final int maxRecordsPerStage;
+  private final int maxMessagesPerStage;
+  private final long maxRecordBytesPerStage;
+  private final File spillDir;
+  private final long spillBytesPerStage;
+  private final ConcurrentMap<String, Ring> records;
+  private final ConcurrentMap<String, Ring> messages;
+  private final ConcurrentMap<String, SpillFile> spillFiles;
+  private final AtomicInteger spillFileCounter;
+
+  /**
+   * @param maxRecordsPerStage Number of error records retained per stage
+   * @param maxMessagesPerStage Number of error messages retained per stage
+   * @param maxRecordBytesPerStage Maximal size of serialized error records kept in memory per stage
+   * @param spillDir Directory for file-backed rings of error records, null to drop records over the budget
+   * @param spillBytesPerStage Size of the file-backed ring per stage
+   */
+  public StageErrorRetention(
+      int maxRecordsPerStage,
+      int maxMessagesPerStage,
+      long maxRecordBytesPerStage,
+      File spillDir,
+      long spillBytesPerStage
+  ) {
+    this.maxRecordsPerStage = maxRecordsPerStage;
+    this.maxMessagesPerStage = maxMessagesPerStage;
+    this.maxRecordBytesPerStage = maxRecordBytesPerStage;
+    this.spillDir = spillBytesPerStage > 0 ? spillDir : null;
+    this.spillBytesPerStage = spillBytesPerStage;
+    this.records = new ConcurrentHashMap<>();
+    this.messages = new ConcurrentHashMap<>();
+    this.spillFiles = new ConcurrentHashMap<>();
+    this.spillFileCounter = new AtomicInteger();
+  }
+
+  public void retainErrorRecords(Map<String, List<Record>> errorRecords) {
+    if (maxRecordsPerStage <= 0) {
+      return;
+    }
+    for (Map.Entry<String, List<Record>> e : errorRecords.entrySet()) {
+      Ring ring = records.computeIfAbsent(e.getKey(), k -> new Ring(maxRecordsPerStage));
+      for (Record record : e.getValue()) {
+        byte[] serialized;
+        try {
+          serialized = serialize(record);
+        } catch (IOException ex) {
+          LOG.warn("Can't retain error record from stage '{}': {}", e.getKey(), ex.toString(), ex);
+          continue;
+        }
+        ring.add(serialized, serialized.length);
+      }
+      if (ring.getMemoryBytes() > maxRecordBytesPerStage) {
+        releaseMemory(e.getKey(), ring);
+      }
+    }
+  }
+
+  public void retainErrorMessages(Map<String, List<ErrorMessage>> errorMessages) {
+    if (maxMessagesPerStage <= 0) {
+      return;
+    }
+    for (Map.Entry<String, List<ErrorMessage>> e : errorMessages.entrySet()) {
+      Ring ring = messages.computeIfAbsent(e.getKey(), k -> new Ring(maxMessagesPerStage));
+      for (ErrorMessage errorMessage : e.getValue()) {
+        ring.add(errorMessage, 0);
+      }
+    }
+  }
+
+  /**
+   * Returns up to size oldest retained error records of given stage.
+   */
+  public List<Record> getErrorRecords(String stage, int size) {
+    Ring ring = records.get(stage);
+    if (ring == null) {
+      return Collections.emptyList();
+    }
+    List<Record> result = new ArrayList<>();
+    for (Slot slot : ring.snapshot()) {
+      if (result.size() >= size) {
+        break;
+      }
+      byte[] serialized;
+      if (slot.payload instanceof SpillFile.Region) {
+        serialized = spillFiles.get(stage).read((SpillFile.Region) slot.payload);
+      } else {
+        serialized = (byte[]) slot.payload;
+      }
+      if (serialized == null) {
+        // Spilled record was already overwritten or the spill file was closed
+        continue;
+      }
+      try {
+        result.add(deserialize(serialized));
+      } catch (IOException ex) {
+        LOG.warn("Can't read retained error record of stage '{}': {}", stage, ex.toString(), ex);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns up to size oldest retained error messages of given stage.
+   */
+  public List<ErrorMessage> getErrorMessages(String stage, int size) {
+    Ring ring = messages.get(stage);
+    if (ring == null) {
+      return Collections.emptyList();
+    }
+    List<ErrorMessage> result = new ArrayList<>();
+    for (Slot slot : ring.snapshot()) {
+      if (result.size() >= size) {
+        break;
+      }
+      result.add((ErrorMessage) slot.payload);
+    }
+    return result;
+  }
+
+  /**
+   * Deletes spill files. Error messages and records that are still in memory remain available, so that errors of
+   * a pipeline that is no longer running can still be inspected.
+   */
+  public void close() {
+    for (SpillFile spillFile : spillFiles.values()) {
+      spillFile.close();
+    }
+  }
+
+  @VisibleForTesting
+  long getMemoryBytes(String stage) {
+    Ring ring = records.get(stage);
+    return ring == null ? 0 : ring.getMemoryBytes();
+  }
+
+  /**
+   * Moves oldest records that are still in memory to the spill file (or drops them) until the ring fits the budget.
+   */
+  private void releaseMemory(String stage, Ring ring) {
+    SpillFile spillFile = getSpillFile(stage);
+    // Writers stay lock-free, but two threads releasing memory of the same ring would spill the same slots
+    synchronized (ring.releaseLock) {
+      long end = ring.next.get();
+      long seq = Math.max(0, end - ring.capacity);
+      for (; seq < end && ring.getMemoryBytes() > maxRecordBytesPerStage; seq++) {
+        Slot slot = ring.get(seq);
+        if (slot == null || !(slot.payload instanceof byte[])) {
+          continue;
+        }
+        Slot replacement = null;
+        if (spillFile != null) {
+          SpillFile.Region region = spillFile.write((byte[]) slot.payload);
+          if (region != null) {
+            replacement = new Slot(seq, region, 0);
+          }
+        }
+        ring.replace(seq, slot, replacement);
+      }
+    }
+  }
+
+  private SpillFile getSpillFile(String stage) {
+    if (spillDir == null) {
+      return null;
+    }
+    return spillFiles.computeIfAbsent(stage, k -> {
+      File file = new File(spillDir, "stage-" + spillFileCounter.incrementAndGet() + ".ring");
+      try {
+        return new SpillFile(file, spillBytesPerStage);
+      } catch (IOException ex) {
+        LOG.warn(
+            "Can't create error records spill file '{}', records will be dropped instead: {}",
+            file,
+            ex.toString(),
+            ex
+        );
+        return null;
+      }
+    });
+  }
+
+  private static byte[] serialize(Record record) throws IOException {
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    RecordWriter writer = RecordWriterReaderFactory.createRecordWriter(RecordEncoding.JSON1, os);
+    writer.write(record);
+    writer.close();
+    return os.toByteArray();
+  }
+
+  private static Record deserialize(byte[] serialized) throws IOException {
+    RecordReader reader = RecordWriterReaderFactory.createRecordReader(
+        new ByteArrayInputStream(serialized),
+        0,
+        serialized.length
+    );
+    try {
+      return reader.readRecord();
+    } finally {
+      reader.close();
+    }
+  }
+
+  /**
+   * Retained value with its sequence number in the ring and number of bytes it holds in memory.
+   */
+  private static class Slot {
+    private final long seq;
+    private final Object payload;
+    private final int bytes;
+
+    private Slot(long seq, Object payload, int bytes) {
+      this.seq = seq;
+      this.payload = payload;
+      this.bytes = bytes;
+    }
+  }
+
+  /**
+   * Lock-free ring keeping last capacity values. Every change of a slot is done with compare-and-set, so the memory
+   * accounting stays exact even with concurrent writers.
+   */
+  private static class Ring {
+    private final int capacity;
+    private final AtomicReferenceArray<Slot> slots;
+    private final AtomicLong next;
+    private final AtomicLong memoryBytes;
+    private final Object releaseLock;
+
+    private Ring(int capacity) {
+      this.capacity = capacity;
+      this.slots = new AtomicReferenceArray<>(capacity);
+      this.next = new AtomicLong();
+      this.memoryBytes = new AtomicLong();
+      this.releaseLock = new Object();
+    }
+
+    private void add(Object payload, int bytes) {
+      long seq = next.getAndIncrement();
+      Slot slot = new Slot(seq, payload, bytes);
+      int index = (int) (seq % capacity);
+      while (true) {
+        Slot current = slots.get(index);
+        if (current != null && current.seq > seq) {
+          // Another writer lapped us, our value is already too old to be retained
+          return;
+        }
+        if (slots.compareAndSet(index, current, slot)) {
+          memoryBytes.addAndGet(bytes - (current == null ? 0 : current.bytes));
+          return;
+        }
+      }
+    }
+
+    private Slot get(long seq) {
+      Slot slot = slots.get((int) (seq % capacity));
+      return slot != null && slot.seq == seq ? slot : null;
+    }
+
+    private void replace(long seq, Slot expected, Slot replacement) {
+      if (slots.compareAndSet((int) (seq % capacity), expected, replacement)) {
+        memoryBytes.addAndGet((replacement == null ? 0 : replacement.bytes) - expected.bytes);
+      }
+    }
+
+    private List<Slot> snapshot() {
+      long end = next.get();
+      List<Slot> snapshot = new ArrayList<>();
+      for (long seq = Math.max(0, end - capacity); seq < end; seq++) {
+        Slot slot = get(seq);
+        if (slot != null) {
+          snapshot.add(slot);
+        }
+      }
+      return snapshot;
+    }
+
+    private long getMemoryBytes() {
+      return memoryBytes.get();
+    }
+  }
+
+  /**
+   * Fixed size file used as a ring of serialized records. Regions are claimed atomically and written with positional
+   * writes, a region is valid for as long as the ring haven't wrapped over it.
+   */
+  private static class SpillFile {
+    private static class Region {
+      private final long position;
+      private final int length;
+
+      private Region(long position, int length) {
+        this.position = position;
+        this.length = length;
+      }
+    }
+
+    private final File file;
+    private final FileChannel channel;
+    private final long size;
+    private final AtomicLong written;
+    private volatile boolean closed;
+
+    private SpillFile(File file, long size) throws IOException {
+      FileUtils.forceMkdir(file.getParentFile());
+      this.file = file;
+      this.channel = FileChannel.open(
+          file.toPath(),
+          StandardOpenOption.CREATE,
+          StandardOpenOption.TRUNCATE_EXISTING,
+          StandardOpenOption.READ,
+          StandardOpenOption.WRITE
+      );
+      this.size = size;
+      this.written = new AtomicLong();
+    }
+
+    private Region write(byte[] data) {
+      if (closed || data.length > size) {
+        return null;
+      }
+      long position = written.getAndAdd(data.length);
+      try {
+        transfer(ByteBuffer.wrap(data), position, true);
+      } catch (IOException ex) {
+        LOG.warn("Can't spill error record to '{}': {}", file, ex.toString(), ex);
+        return null;
+      }
+      return new Region(position, data.length);
+    }
+
+    private byte[] read(Region region) {
+      if (closed || !isValid(region)) {
+        return null;
+      }
+      ByteBuffer buffer = ByteBuffer.allocate(region.length);
+      try {
+        transfer(buffer, region.position, false);
+      } catch (IOException ex) {
+        LOG.warn("Can't read spilled error record from '{}': {}", file, ex.toString(), ex);
+        return null;
+      }
+      // Writer might have wrapped over the region while we were reading it
+      return isValid(region) ? buffer.array() : null;
+    }
+
+    private boolean isValid(Region region) {
+      return region.position >= written.get() - size;
+    }
+
+    private void transfer(ByteBuffer buffer, long position, boolean write) throws IOException {
+      while (buffer.hasRemaining()) {
+        long filePosition = position % size;
+        int chunk = (int) Math.min(buffer.remaining(), size - filePosition);
+        ByteBuffer slice = buffer.duplicate();
+        slice.limit(slice.position() + chunk);
+        while (slice.hasRemaining()) {
+          int transferred = write ? channel.write(slice, filePosition) : channel.read(slice, filePosition);
+          if (transferred < 0) {
+            throw new IOException("Unexpected end of file");
+          }
+          filePosition += transferred;
+        }
+        buffer.position(buffer.position() + chunk);
+        position += chunk;
+      }
+    }
+
+    private void close() {
+      closed = true;
+      try {
+        channel.close();
+      } catch (IOException ex) {
+        LOG.warn("Can't close '{}': {}", file, ex.toString(), ex);
+      }
+      FileUtils.deleteQuietly(file);
+    }
+  }
+}
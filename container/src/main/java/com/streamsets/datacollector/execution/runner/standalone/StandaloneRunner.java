@@ -56,6 +56,7 @@ import com.streamsets.datacollector.execution.runner.common.ProductionPipelineBu
 import com.streamsets.datacollector.execution.runner.common.ProductionPipelineRunnable;
 import com.streamsets.datacollector.execution.runner.common.ProductionPipelineRunner;
 import com.streamsets.datacollector.execution.runner.common.RulesConfigLoader;
+import com.streamsets.datacollector.execution.runner.common.ScaleRunnersRunnable;
 import com.streamsets.datacollector.execution.runner.common.SampledRecord;
 import com.streamsets.datacollector.execution.runner.common.ThreadHealthReporter;
 import com.streamsets.datacollector.execution.runner.common.dagger.PipelineProviderModule;
@@ -944,6 +945,23 @@ public class StandaloneRunner extends AbstractRunner implements StateListener {
           taskBuilder.add(idleRunnersFuture);
         }
 
+        // Schedule a task to add or retire runners in elastic mode
+        if(getConfiguration().get(Pipeline.ELASTIC_MIN_RUNNERS_CONFIG_KEY, Pipeline.ELASTIC_MIN_RUNNERS_DEFAULT) > 0) {
+          ScaleRunnersRunnable scaleRunnersRunnable = new ScaleRunnersRunnable(
+            runner,
+            getConfiguration().get(Pipeline.ELASTIC_SCALE_UP_WAIT_CONFIG_KEY, Pipeline.ELASTIC_SCALE_UP_WAIT_DEFAULT),
+            getConfiguration().get(Pipeline.ELASTIC_RETIRE_IDLE_CONFIG_KEY, Pipeline.ELASTIC_RETIRE_IDLE_DEFAULT) * 1000
+          );
+
+          ScheduledFuture<?> scaleRunnersFuture = runnerExecutor.scheduleWithFixedDelay(
+            scaleRunnersRunnable,
+            1,
+            1,
+            TimeUnit.SECONDS
+          );
+          taskBuilder.add(scaleRunnersFuture);
+        }
+
         observerRunnable.setRequestQueue(productionObserveRequests);
         observerRunnable.setStatsQueue(statsQueue);
         Future<?> observerFuture = runnerExecutor.submit(observerRunnable);
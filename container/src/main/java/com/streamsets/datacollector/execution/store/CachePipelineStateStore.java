@@ -21,6 +21,7 @@ import com.google.common.cache.LoadingCache;
 import com.streamsets.datacollector.execution.PipelineState;
 import com.streamsets.datacollector.execution.PipelineStateStore;
 import com.streamsets.datacollector.execution.PipelineStatus;
+import com.streamsets.datacollector.store.PipelineCatalog;
 import com.streamsets.datacollector.store.PipelineStoreException;
 import com.streamsets.datacollector.util.Configuration;
 import com.streamsets.datacollector.util.ContainerError;
@@ -45,12 +46,18 @@ public class CachePipelineStateStore implements PipelineStateStore {
   private final Configuration configuration;
   private LoadingCache<String, PipelineState> pipelineStateCache;
   private final PipelineStateStore pipelineStateStore;
+  private final PipelineCatalog catalog;
   private static final String NAME_AND_REV_SEPARATOR = "::";
 
-  @Inject
   public CachePipelineStateStore(PipelineStateStore pipelineStateStore, Configuration conf) {
+    this(pipelineStateStore, conf, null);
+  }
+
+  @Inject
+  public CachePipelineStateStore(PipelineStateStore pipelineStateStore, Configuration conf, PipelineCatalog catalog) {
    this.pipelineStateStore = pipelineStateStore;
     this.configuration = conf;
+    this.catalog = catalog;
   }
 
   @Override
@@ -68,10 +75,16 @@ public class CachePipelineStateStore implements PipelineStateStore {
       }
     });
     pipelineStateStore.init();
+    if (catalog != null) {
+      catalog.setStateLoader(this::getState);
+    }
   }
 
   @Override
   public void destroy() {
+    if (catalog != null) {
+      catalog.setStateLoader(null);
+    }
     pipelineStateCache.invalidateAll();
     pipelineStateStore.destroy();
   }
@@ -84,6 +97,9 @@ public class CachePipelineStateStore implements PipelineStateStore {
     PipelineState pipelineState = pipelineStateStore.edited(user, name, rev, executionMode, isRemote, metadata);
     if (pipelineState != null) {
       pipelineStateCache.put(getNameAndRevString(name, rev), pipelineState);
+      if (catalog != null) {
+        catalog.stateChanged(name, pipelineState);
+      }
     }
     return pipelineState;
   }
@@ -92,6 +108,9 @@ public class CachePipelineStateStore implements PipelineStateStore {
   public void delete(String name, String rev) throws PipelineStoreException {
     pipelineStateStore.delete(name, rev);
     pipelineStateCache.invalidate(getNameAndRevString(name, rev));
+    if (catalog != null) {
+      catalog.stateDeleted(name);
+    }
   }
 
   @Override
@@ -101,6 +120,9 @@ public class CachePipelineStateStore implements PipelineStateStore {
     PipelineState pipelineState = pipelineStateStore.saveState(
         user, name, rev, status, message, attributes, executionMode, metrics, retryAttempt, nextRetryTimeStamp);
     pipelineStateCache.put(getNameAndRevString(name, rev), pipelineState);
+    if (catalog != null) {
+      catalog.stateChanged(name, pipelineState);
+    }
     return pipelineState;
   }
 
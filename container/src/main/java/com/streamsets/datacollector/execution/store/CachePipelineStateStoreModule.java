@@ -18,6 +18,7 @@ package com.streamsets.datacollector.execution.store;
 import com.streamsets.datacollector.execution.PipelineStateStore;
 import com.streamsets.datacollector.main.RuntimeInfo;
 import com.streamsets.datacollector.main.RuntimeModule;
+import com.streamsets.datacollector.store.PipelineCatalog;
 import com.streamsets.datacollector.util.Configuration;
 
 import dagger.Module;
@@ -32,7 +33,16 @@ import javax.inject.Singleton;
 public class CachePipelineStateStoreModule {
 
   @Provides @Singleton
-  public PipelineStateStore providePipelineStateStore(RuntimeInfo runtimeInfo, Configuration configuration) {
-    return new CachePipelineStateStore(new FilePipelineStateStore(runtimeInfo, configuration), configuration);
+  public PipelineCatalog providePipelineCatalog() {
+    return new PipelineCatalog();
+  }
+
+  @Provides @Singleton
+  public PipelineStateStore providePipelineStateStore(
+      RuntimeInfo runtimeInfo,
+      Configuration configuration,
+      PipelineCatalog catalog
+  ) {
+    return new CachePipelineStateStore(new FilePipelineStateStore(runtimeInfo, configuration), configuration, catalog);
   }
 }
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.metrics;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Encodes successive metric registry snapshots as delta frames for subscribers that opted into the delta protocol.
+ *
+ * A snapshot frame carries the complete metrics:
+ * <pre>{"type":"SNAPSHOT","sequence":7,"metrics":{...}}</pre>
+ * A delta frame carries, per metric section (counters, meters, ...), only the metrics whose serialized value changed
+ * since the previous frame together with the names of the metrics that went away:
+ * <pre>{"type":"DELTA","sequence":8,"baseSequence":7,"changed":{"counters":{...}},"removed":{"meters":["..."]}}</pre>
+ * A client applies a delta only when its {@code baseSequence} matches the sequence of the last frame it applied and
+ * otherwise waits for the next snapshot, which is emitted every {@code snapshotInterval} frames.
+ *
+ * Instances are not thread safe, the metrics runnable owns one encoder per pipeline.
+ */
+public class MetricsDeltaEncoder {
+  public static final String TYPE = "type";
+  public static final String SEQUENCE = "sequence";
+  public static final String BASE_SEQUENCE = "baseSequence";
+  public static final String METRICS = "metrics";
+  public static final String CHANGED = "changed";
+  public static final String REMOVED = "removed";
+  public static final String SNAPSHOT_TYPE = "SNAPSHOT";
+  public static final String DELTA_TYPE = "DELTA";
+
+  private final ObjectMapper objectMapper;
+  private final int snapshotInterval;
+  private ObjectNode previous;
+  private long sequence;
+  private int framesSinceSnapshot;
+
+  public MetricsDeltaEncoder(ObjectMapper objectMapper, int snapshotInterval) {
+    this.objectMapper = objectMapper;
+    this.snapshotInterval = Math.max(1, snapshotInterval);
+  }
+
+  /**
+   * Result of encoding one tick. The delta frame is serialized once and shared by all delta subscribers; the snapshot
+   * frame is only produced for subscribers that need to (re)synchronize.
+   */
+  public static class Frame {
+    private final long sequence;
+    private final boolean snapshot;
+    private final String deltaJson;
+
+    Frame(long sequence, boolean snapshot, String deltaJson) {
+      this.sequence = sequence;
+      this.snapshot = snapshot;
+      this.deltaJson = deltaJson;
+    }
+
+    public long getSequence() {
+      return sequence;
+    }
+
+    /**
+     * Returns true if every delta subscriber must receive a snapshot frame for this tick.
+     */
+    public boolean isSnapshot() {
+      return snapshot;
+    }
+
+    /**
+     * Serialized delta frame, null when this tick is a snapshot tick.
+     */
+    public String getDeltaJson() {
+      return deltaJson;
+    }
+
+    public String toSnapshotJson(String metricsJson) {
+      return snapshotFrame(sequence, metricsJson);
+    }
+  }
+
+  /**
+   * Wraps an already serialized metric registry in a snapshot frame without parsing it again.
+   */
+  public static String snapshotFrame(long sequence, String metricsJson) {
+    return "{\"" + TYPE + "\":\"" + SNAPSHOT_TYPE + "\",\"" + SEQUENCE + "\":" + sequence + ",\"" + METRICS + "\":" +
+        metricsJson + "}";
+  }
+
+  /**
+   * Encodes the given metrics tree against the previously encoded one and makes it the new base.
+   */
+  public Frame encode(ObjectNode current) throws JsonProcessingException {
+    long baseSequence = sequence;
+    sequence++;
+    framesSinceSnapshot++;
+    Frame frame;
+    if (previous == null || framesSinceSnapshot >= snapshotInterval) {
+      framesSinceSnapshot = 0;
+      frame = new Frame(sequence, true, null);
+    } else {
+      ObjectNode delta = objectMapper.createObjectNode();
+      delta.put(TYPE, DELTA_TYPE);
+      delta.put(SEQUENCE, sequence);
+      delta.put(BASE_SEQUENCE, baseSequence);
+      ObjectNode changed = delta.putObject(CHANGED);
+      ObjectNode removed = delta.putObject(REMOVED);
+      diff(previous, current, changed, removed);
+      frame = new Frame(sequence, false, objectMapper.writeValueAsString(delta));
+    }
+    previous = current;
+    return frame;
+  }
+
+  /**
+   * Forgets the base so that the next frame is a snapshot.
+   */
+  public void reset() {
+    previous = null;
+  }
+
+  private static void diff(ObjectNode before, ObjectNode after, ObjectNode changed, ObjectNode removed) {
+    Iterator<Map.Entry<String, JsonNode>> fields = after.fields();
+    while (fields.hasNext()) {
+      Map.Entry<String, JsonNode> field = fields.next();
+      JsonNode old = before.get(field.getKey());
+      JsonNode section = field.getValue();
+      if (section.isObject() && old != null && old.isObject()) {
+        ObjectNode changedSection = null;
+        Iterator<Map.Entry<String, JsonNode>> metrics = section.fields();
+        while (metrics.hasNext()) {
+          Map.Entry<String, JsonNode> metric = metrics.next();
+          if (!metric.getValue().equals(old.get(metric.getKey()))) {
+            if (changedSection == null) {
+              changedSection = changed.putObject(field.getKey());
+            }
+            changedSection.set(metric.getKey(), metric.getValue());
+          }
+        }
+        ArrayNode removedSection = null;
+        Iterator<String> oldNames = old.fieldNames();
+        while (oldNames.hasNext()) {
+          String name = oldNames.next();
+          if (!section.has(name)) {
+            if (removedSection == null) {
+              removedSection = removed.putArray(field.getKey());
+            }
+            removedSection.add(name);
+          }
+        }
+      } else if (!section.equals(old)) {
+        // top level value such as the registry version or the list of workers
+        changed.set(field.getKey(), section);
+      }
+    }
+    Iterator<String> oldSections = before.fieldNames();
+    while (oldSections.hasNext()) {
+      String name = oldSections.next();
+      if (!after.has(name)) {
+        // an empty list removes the whole top level entry
+        removed.putArray(name);
+      }
+    }
+  }
+
+}
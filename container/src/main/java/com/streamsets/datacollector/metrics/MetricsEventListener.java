@@ -21,4 +21,12 @@ public interface MetricsEventListener extends EventListener {
 
   void notification(String metrics);
 
+  /**
+   * Returns true if the listener wants {@link MetricsDeltaEncoder} frames instead of the full metrics on every
+   * refresh.
+   */
+  default boolean isDeltaEncoded() {
+    return false;
+  }
+
 }
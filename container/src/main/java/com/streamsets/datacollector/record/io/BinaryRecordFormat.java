@@ -0,0 +1,79 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.record.io;
+
+import com.streamsets.pipeline.api.Field;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Wire constants of the {@link RecordEncoding#BINARY1} encoding.
+ * <p/>
+ * Each record is written as a 4 byte length followed by the record body. The body holds the header attributes and
+ * then the root field, each field being its type code, its attributes and its value. Type codes are fixed here, not
+ * taken from the enum ordinals, so that data collectors running different API versions can exchange records.
+ */
+final class BinaryRecordFormat {
+
+  static final byte NULL = 0;
+  static final byte STRING = 1;
+  static final byte LONG = 2;
+  static final byte BYTE_ARRAY = 3;
+
+  static final byte ABSENT = 0;
+  static final byte PRESENT = 1;
+
+  private static final Field.Type[] TYPES = {
+      Field.Type.BOOLEAN,
+      Field.Type.CHAR,
+      Field.Type.BYTE,
+      Field.Type.SHORT,
+      Field.Type.INTEGER,
+      Field.Type.LONG,
+      Field.Type.FLOAT,
+      Field.Type.DOUBLE,
+      Field.Type.DATE,
+      Field.Type.DATETIME,
+      Field.Type.TIME,
+      Field.Type.ZONED_DATETIME,
+      Field.Type.DECIMAL,
+      Field.Type.STRING,
+      Field.Type.BYTE_ARRAY,
+      Field.Type.MAP,
+      Field.Type.LIST,
+      Field.Type.LIST_MAP,
+  };
+
+  private static final Map<Field.Type, Byte> TYPE_CODES = new EnumMap<>(Field.Type.class);
+
+  static {
+    for (int i = 0; i < TYPES.length; i++) {
+      TYPE_CODES.put(TYPES[i], (byte) i);
+    }
+  }
+
+  private BinaryRecordFormat() {}
+
+  static Byte getTypeCode(Field.Type type) {
+    return TYPE_CODES.get(type);
+  }
+
+  static Field.Type getType(byte code) {
+    return (code >= 0 && code < TYPES.length) ? TYPES[code] : null;
+  }
+
+}
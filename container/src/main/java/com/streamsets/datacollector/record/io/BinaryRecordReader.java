@@ -0,0 +1,240 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.record.io;
+
+import com.streamsets.datacollector.record.HeaderImpl;
+import com.streamsets.datacollector.record.RecordImpl;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.ext.RecordReader;
+import com.streamsets.pipeline.api.impl.Utils;
+import org.apache.commons.io.IOUtils;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class BinaryRecordReader implements RecordReader {
+  private final DataInputStream input;
+  private final int maxObjectLen;
+  private long position;
+  private DataInputStream body;
+  private boolean closed;
+
+  public BinaryRecordReader(InputStream inputStream, long initialPosition, int maxObjectLen) throws IOException {
+    IOUtils.skipFully(inputStream, initialPosition);
+    input = new DataInputStream(new BufferedInputStream(inputStream));
+    this.maxObjectLen = maxObjectLen;
+    position = initialPosition;
+  }
+
+  @Override
+  public String getEncoding() {
+    return RecordEncoding.BINARY1.name();
+  }
+
+  @Override
+  public long getPosition() {
+    return position;
+  }
+
+  @Override
+  public Record readRecord() throws IOException {
+    if (closed) {
+      throw new IOException("input has been closed");
+    }
+    // end of stream is only valid on a record boundary, so the first byte of the length is read on its own
+    int first = input.read();
+    if (first == -1) {
+      return null;
+    }
+    int length = (first << 24) | (input.readUnsignedByte() << 16) | (input.readUnsignedByte() << 8)
+        | input.readUnsignedByte();
+    if (length < 0 || (maxObjectLen > 0 && length > maxObjectLen)) {
+      throw new IOException(Utils.format(
+          "Record at position '{}' has length '{}', exceeding the maximum of '{}'",
+          position,
+          length,
+          maxObjectLen
+      ));
+    }
+    byte[] bytes = new byte[length];
+    input.readFully(bytes);
+    body = new DataInputStream(new ByteArrayInputStream(bytes));
+    try {
+      HeaderImpl header = readHeader();
+      Field value = readField();
+      position += 4 + length;
+      return new RecordImpl(header, value);
+    } catch (EOFException ex) {
+      throw new IOException(Utils.format("Truncated record at position '{}'", position), ex);
+    } finally {
+      body = null;
+    }
+  }
+
+  private HeaderImpl readHeader() throws IOException {
+    int count = body.readInt();
+    Map<String, Object> attributes = new HashMap<>();
+    for (int i = 0; i < count; i++) {
+      String key = readString();
+      byte tag = body.readByte();
+      switch (tag) {
+        case BinaryRecordFormat.NULL:
+          attributes.put(key, null);
+          break;
+        case BinaryRecordFormat.STRING:
+          attributes.put(key, readString());
+          break;
+        case BinaryRecordFormat.LONG:
+          attributes.put(key, body.readLong());
+          break;
+        case BinaryRecordFormat.BYTE_ARRAY:
+          attributes.put(key, readBytes());
+          break;
+        default:
+          throw new IOException(Utils.format("Unsupported tag '{}' for header attribute '{}'", tag, key));
+      }
+    }
+    HeaderImpl header = new HeaderImpl();
+    try {
+      header.overrideUserAndSystemAttributes(attributes);
+    } catch (IllegalArgumentException ex) {
+      throw new IOException(Utils.format("Invalid record header at position '{}': {}", position, ex), ex);
+    }
+    header.setSourceRecord(null);
+    return header;
+  }
+
+  private Field readField() throws IOException {
+    if (body.readByte() == BinaryRecordFormat.ABSENT) {
+      return null;
+    }
+    byte typeCode = body.readByte();
+    Field.Type type = BinaryRecordFormat.getType(typeCode);
+    if (type == null) {
+      throw new IOException(Utils.format("Unsupported field type code '{}'", typeCode));
+    }
+
+    int attributeCount = body.readInt();
+    Map<String, String> attributes = null;
+    if (attributeCount > 0) {
+      attributes = new LinkedHashMap<>();
+      for (int i = 0; i < attributeCount; i++) {
+        attributes.put(readString(), readString());
+      }
+    }
+
+    Object value = null;
+    if (body.readByte() == BinaryRecordFormat.PRESENT) {
+      value = readValue(type);
+    }
+    Field field = Field.create(type, value);
+    if (attributes != null) {
+      for (Map.Entry<String, String> entry : attributes.entrySet()) {
+        field.setAttribute(entry.getKey(), entry.getValue());
+      }
+    }
+    return field;
+  }
+
+  private Object readValue(Field.Type type) throws IOException {
+    switch (type) {
+      case BOOLEAN:
+        return body.readBoolean();
+      case CHAR:
+        return body.readChar();
+      case BYTE:
+        return body.readByte();
+      case SHORT:
+        return body.readShort();
+      case INTEGER:
+        return body.readInt();
+      case LONG:
+        return body.readLong();
+      case FLOAT:
+        return body.readFloat();
+      case DOUBLE:
+        return body.readDouble();
+      case DATE:
+      case DATETIME:
+      case TIME:
+        return new Date(body.readLong());
+      case ZONED_DATETIME:
+        return ZonedDateTime.parse(readString());
+      case DECIMAL:
+        int scale = body.readInt();
+        return new BigDecimal(new BigInteger(readBytes()), scale);
+      case STRING:
+        return readString();
+      case BYTE_ARRAY:
+        return readBytes();
+      case MAP:
+      case LIST_MAP:
+        int size = body.readInt();
+        LinkedHashMap<String, Field> map = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+          map.put(readString(), readField());
+        }
+        return map;
+      case LIST:
+        int length = body.readInt();
+        List<Field> list = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+          list.add(readField());
+        }
+        return list;
+      default:
+        throw new IOException(Utils.format("Unsupported field type '{}'", type));
+    }
+  }
+
+  private String readString() throws IOException {
+    return new String(readBytes(), StandardCharsets.UTF_8);
+  }
+
+  private byte[] readBytes() throws IOException {
+    int length = body.readInt();
+    if (length < 0 || length > body.available()) {
+      throw new IOException(Utils.format("Invalid length '{}' in record at position '{}'", length, position));
+    }
+    byte[] bytes = new byte[length];
+    body.readFully(bytes);
+    return bytes;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (!closed) {
+      closed = true;
+      input.close();
+    }
+  }
+
+}
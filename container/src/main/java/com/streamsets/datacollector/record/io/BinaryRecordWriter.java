@@ -0,0 +1,229 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.record.io;
+
+import com.streamsets.datacollector.record.HeaderImpl;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.ext.RecordWriter;
+import com.streamsets.pipeline.api.impl.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+public class BinaryRecordWriter implements RecordWriter {
+  private static final Logger LOG = LoggerFactory.getLogger(BinaryRecordWriter.class);
+
+  private final DataOutputStream output;
+  private final ByteArrayOutputStream buffer;
+  private final DataOutputStream body;
+  private boolean closed;
+
+  public BinaryRecordWriter(OutputStream outputStream) {
+    output = new DataOutputStream(new BufferedOutputStream(outputStream));
+    buffer = new ByteArrayOutputStream();
+    body = new DataOutputStream(buffer);
+  }
+
+  @Override
+  public String getEncoding() {
+    return RecordEncoding.BINARY1.name();
+  }
+
+  @Override
+  public void write(Record record) throws IOException {
+    if (closed) {
+      throw new IOException("output has been closed");
+    }
+    Utils.checkNotNull(record, "record");
+    buffer.reset();
+    writeHeader(((HeaderImpl) record.getHeader()).getAllAttributes());
+    writeField(record.get());
+    body.flush();
+    output.writeInt(buffer.size());
+    buffer.writeTo(output);
+  }
+
+  private void writeHeader(Map<String, Object> attributes) throws IOException {
+    int count = 0;
+    for (Object value : attributes.values()) {
+      if (!(value instanceof Record)) {
+        count++;
+      }
+    }
+    body.writeInt(count);
+    for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+      Object value = entry.getValue();
+      // the source record is not serialized by any record encoding
+      if (value instanceof Record) {
+        continue;
+      }
+      writeString(entry.getKey());
+      if (value == null) {
+        body.writeByte(BinaryRecordFormat.NULL);
+      } else if (value instanceof String) {
+        body.writeByte(BinaryRecordFormat.STRING);
+        writeString((String) value);
+      } else if (value instanceof Long) {
+        body.writeByte(BinaryRecordFormat.LONG);
+        body.writeLong((Long) value);
+      } else if (value instanceof byte[]) {
+        body.writeByte(BinaryRecordFormat.BYTE_ARRAY);
+        writeBytes((byte[]) value);
+      } else {
+        throw new IOException(Utils.format(
+            "Unsupported type '{}' for header attribute '{}'",
+            value.getClass().getName(),
+            entry.getKey()
+        ));
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void writeField(Field field) throws IOException {
+    if (field == null) {
+      body.writeByte(BinaryRecordFormat.ABSENT);
+      return;
+    }
+    Byte typeCode = BinaryRecordFormat.getTypeCode(field.getType());
+    if (typeCode == null) {
+      throw new IOException(Utils.format("Unsupported field type '{}'", field.getType()));
+    }
+    body.writeByte(BinaryRecordFormat.PRESENT);
+    body.writeByte(typeCode);
+
+    Map<String, String> attributes = field.getAttributes();
+    if (attributes == null) {
+      body.writeInt(0);
+    } else {
+      body.writeInt(attributes.size());
+      for (Map.Entry<String, String> entry : attributes.entrySet()) {
+        writeString(entry.getKey());
+        writeString(entry.getValue());
+      }
+    }
+
+    Object value = field.getValue();
+    if (value == null) {
+      body.writeByte(BinaryRecordFormat.ABSENT);
+      return;
+    }
+    body.writeByte(BinaryRecordFormat.PRESENT);
+    switch (field.getType()) {
+      case BOOLEAN:
+        body.writeBoolean((Boolean) value);
+        break;
+      case CHAR:
+        body.writeChar((Character) value);
+        break;
+      case BYTE:
+        body.writeByte((Byte) value);
+        break;
+      case SHORT:
+        body.writeShort((Short) value);
+        break;
+      case INTEGER:
+        body.writeInt((Integer) value);
+        break;
+      case LONG:
+        body.writeLong((Long) value);
+        break;
+      case FLOAT:
+        body.writeFloat((Float) value);
+        break;
+      case DOUBLE:
+        body.writeDouble((Double) value);
+        break;
+      case DATE:
+      case DATETIME:
+      case TIME:
+        body.writeLong(((Date) value).getTime());
+        break;
+      case ZONED_DATETIME:
+        writeString(value.toString());
+        break;
+      case DECIMAL:
+        BigDecimal decimal = (BigDecimal) value;
+        body.writeInt(decimal.scale());
+        writeBytes(decimal.unscaledValue().toByteArray());
+        break;
+      case STRING:
+        writeString((String) value);
+        break;
+      case BYTE_ARRAY:
+        writeBytes((byte[]) value);
+        break;
+      case MAP:
+      case LIST_MAP:
+        Map<String, Field> map = (Map<String, Field>) value;
+        body.writeInt(map.size());
+        for (Map.Entry<String, Field> entry : map.entrySet()) {
+          writeString(entry.getKey());
+          writeField(entry.getValue());
+        }
+        break;
+      case LIST:
+        List<Field> list = (List<Field>) value;
+        body.writeInt(list.size());
+        for (Field element : list) {
+          writeField(element);
+        }
+        break;
+      default:
+        throw new IOException(Utils.format("Unsupported field type '{}'", field.getType()));
+    }
+  }
+
+  private void writeString(String value) throws IOException {
+    writeBytes(value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private void writeBytes(byte[] value) throws IOException {
+    body.writeInt(value.length);
+    body.write(value);
+  }
+
+  @Override
+  public void flush() throws IOException {
+    if (closed) {
+      throw new IOException("output has been closed");
+    }
+    output.flush();
+  }
+
+  @Override
+  public void close() {
+    if (!closed) {
+      closed = true;
+      try {
+        output.close();
+      } catch (IOException ex) {
+        LOG.warn("Error on close: {}", ex, ex);
+      }
+    }
+  }
+}
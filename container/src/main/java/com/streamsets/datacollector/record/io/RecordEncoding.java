@@ -27,6 +27,8 @@ class RecordEncodingConstants {
   static final byte KRYO1_MAGIC_NUMBER = BASE_MAGIC_NUMBER | (byte) 0x02;
   //10100001
   static final byte JSON1_MAGIC_NUMBER = BASE_MAGIC_NUMBER | (byte) 0x01;
+  //10100003
+  static final byte BINARY1_MAGIC_NUMBER = BASE_MAGIC_NUMBER | (byte) 0x03;
 
   private RecordEncodingConstants() {}
 }
@@ -34,6 +36,7 @@ class RecordEncodingConstants {
 public enum RecordEncoding {
   JSON1(RecordEncodingConstants.JSON1_MAGIC_NUMBER),
   KRYO1(RecordEncodingConstants.KRYO1_MAGIC_NUMBER),
+  BINARY1(RecordEncodingConstants.BINARY1_MAGIC_NUMBER),
 
   ;
 
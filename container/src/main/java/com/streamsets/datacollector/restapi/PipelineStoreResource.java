@@ -60,6 +60,7 @@ import com.streamsets.datacollector.restapi.bean.StageConfigurationJson;
 import com.streamsets.datacollector.restapi.bean.UserJson;
 import com.streamsets.datacollector.stagelibrary.StageLibraryTask;
 import com.streamsets.datacollector.store.AclStoreTask;
+import com.streamsets.datacollector.store.PipelineCatalog;
 import com.streamsets.datacollector.store.PipelineInfo;
 import com.streamsets.datacollector.store.PipelineStoreException;
 import com.streamsets.datacollector.store.PipelineStoreTask;
@@ -124,6 +125,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.BiPredicate;
 import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
@@ -213,6 +215,7 @@ public class PipelineStoreResource {
   private final Configuration configuration;
   private final Manager manager;
   private final PipelineStoreTask store;
+  private final PipelineCatalog catalog;
   private final StageLibraryTask stageLibrary;
   private final CredentialStoresTask credentialStoresTask;
   private final URI uri;
@@ -257,6 +260,7 @@ public class PipelineStoreResource {
     } else {
       this.store = store;
     }
+    this.catalog = store.getCatalog();
   }
 
   @Path("/pipelines/count")
@@ -324,6 +328,10 @@ public class PipelineStoreResource {
   ) throws PipelineException {
     RestAPIUtils.injectPipelineInMDC("*");
 
+    if (catalog != null && catalog.isQueryable() && !SYSTEM_SAMPLE_PIPELINES.equals(label)) {
+      return getPipelinesFromCatalog(filterText, label, offset, len, orderBy, order, includeStatus);
+    }
+
     final List<PipelineInfo> pipelineInfoList;
     if (SYSTEM_SAMPLE_PIPELINES.equals(label)) {
       pipelineInfoList = store.getSamplePipelines();
@@ -349,57 +357,11 @@ public class PipelineStoreResource {
       }
       if (label != null) {
         try {
-          Map<String, Object> metadata = pipelineInfo.getMetadata();
-          switch (label) {
-            case SYSTEM_ALL_PIPELINES:
-            case SYSTEM_SAMPLE_PIPELINES:
-              return true;
-            case SYSTEM_EDGE_PIPELINES:
-              PipelineState state = manager.getPipelineState(pipelineInfo.getPipelineId(), pipelineInfo.getLastRev());
-              pipelineStateCache.put(pipelineInfo.getPipelineId(), state);
-              return state.getExecutionMode().equals(ExecutionMode.EDGE);
-            case SYSTEM_MICROSERVICE_PIPELINES:
-              return metadata != null && metadata.containsKey(MICROSERVICE);
-            case SYSTEM_RUNNING_PIPELINES:
-              state = manager.getPipelineState(pipelineInfo.getPipelineId(), pipelineInfo.getLastRev());
-              pipelineStateCache.put(pipelineInfo.getPipelineId(), state);
-              return state.getStatus().isActive();
-            case SYSTEM_NON_RUNNING_PIPELINES:
-              state = manager.getPipelineState(pipelineInfo.getPipelineId(), pipelineInfo.getLastRev());
-              pipelineStateCache.put(pipelineInfo.getPipelineId(), state);
-              return !state.getStatus().isActive();
-            case SYSTEM_INVALID_PIPELINES:
-              return !pipelineInfo.isValid();
-            case SYSTEM_ERROR_PIPELINES:
-              state = manager.getPipelineState(pipelineInfo.getPipelineId(), pipelineInfo.getLastRev());
-              pipelineStateCache.put(pipelineInfo.getPipelineId(), state);
-              PipelineStatus status = state.getStatus();
-              return status == PipelineStatus.START_ERROR ||
-                  status == PipelineStatus.RUNNING_ERROR ||
-                  status == PipelineStatus.RUN_ERROR ||
-                  status == PipelineStatus.CONNECT_ERROR;
-            case SYSTEM_PUBLISHED_PIPELINES:
-              state = manager.getPipelineState(pipelineInfo.getPipelineId(), pipelineInfo.getLastRev());
-              pipelineStateCache.put(pipelineInfo.getPipelineId(), state);
-              return !isRemotePipeline(state) && metadata != null && metadata.containsKey(DPM_PIPELINE_ID);
-            case SYSTEM_DPM_CONTROLLED_PIPELINES:
-              state = manager.getPipelineState(pipelineInfo.getPipelineId(), pipelineInfo.getLastRev());
-              pipelineStateCache.put(pipelineInfo.getPipelineId(), state);
-              return isRemotePipeline(state);
-            case SYSTEM_LOCAL_PIPELINES:
-              return metadata == null || !metadata.containsKey(DPM_PIPELINE_ID);
-            case SHARED_WITH_ME_PIPELINES:
-              return !pipelineInfo.getCreator().equals(user);
-            default:
-              if (metadata != null && metadata.containsKey("labels")) {
-                List<String> labels = (List<String>) metadata.get("labels");
-                if (!labels.contains(label)) {
-                  return false;
-                }
-              } else {
-                return false;
-              }
-          }
+          return isInLabel(pipelineInfo, label, () -> {
+            PipelineState state = manager.getPipelineState(pipelineInfo.getPipelineId(), pipelineInfo.getLastRev());
+            pipelineStateCache.put(pipelineInfo.getPipelineId(), state);
+            return state;
+          });
         } catch (PipelineException e) {
           e.printStackTrace();
         }
@@ -510,6 +472,73 @@ public class PipelineStoreResource {
         .build();
   }
 
+  /**
+   * Serves the pipeline list from the pipeline catalog, only the requested page is ever materialized.
+   */
+  private Response getPipelinesFromCatalog(
+      String filterText,
+      String label,
+      int offset,
+      int len,
+      PipelineOrderByFields orderBy,
+      Order order,
+      boolean includeStatus
+  ) {
+    boolean userLabel = label != null
+        && !SYSTEM_PIPELINE_LABELS.contains(label)
+        && !DPM_ENABLED_SYSTEM_PIPELINE_LABELS.contains(label);
+    boolean systemLabelFilter = label != null
+        && !userLabel
+        && !SYSTEM_ALL_PIPELINES.equals(label)
+        && !SYSTEM_SAMPLE_PIPELINES.equals(label);
+
+    // Without a filter the catalog serves the page without evaluating every pipeline
+    BiPredicate<PipelineInfo, PipelineState> filter = null;
+    if (store instanceof AclPipelineStoreTask || systemLabelFilter) {
+      filter = (pipelineInfo, state) -> {
+        if (store instanceof AclPipelineStoreTask && !((AclPipelineStoreTask) store).isReadPermitted(pipelineInfo)) {
+          return false;
+        }
+        if (systemLabelFilter) {
+          try {
+            return isInLabel(pipelineInfo, label, () -> state);
+          } catch (PipelineException e) {
+            LOG.error("Can't evaluate label '{}' for pipeline '{}': {}", label, pipelineInfo.getPipelineId(), e, e);
+          }
+        }
+        return true;
+      };
+    }
+
+    PipelineCatalog.Page page = catalog.query(
+        filterText,
+        userLabel ? label : null,
+        filter,
+        PipelineCatalog.OrderBy.valueOf(orderBy.name()),
+        order.equals(Order.DESC),
+        offset,
+        len
+    );
+
+    List<PipelineInfoJson> pipelineInfoJsons = BeanHelper.wrapPipelineInfo(page.getPipelines());
+    Object responseData;
+    if (includeStatus) {
+      List<PipelineStateJson> statusList = new ArrayList<>(page.getStates().size());
+      for (PipelineState state : page.getStates()) {
+        statusList.add(BeanHelper.wrapPipelineState(state, true));
+      }
+      responseData = ImmutableList.of(pipelineInfoJsons, statusList);
+    } else {
+      responseData = pipelineInfoJsons;
+    }
+
+    return Response.ok()
+        .type(MediaType.APPLICATION_JSON)
+        .entity(responseData)
+        .header("TOTAL_COUNT", page.getTotalCount())
+        .build();
+  }
+
   @Path("/pipelines/delete")
   @POST
   @ApiOperation(value = "Deletes Pipelines", response = PipelineInfoJson.class,
@@ -1518,6 +1547,56 @@ public class PipelineStoreResource {
         .entity(new MultiStatusResponseJson<>(successEntities, errorMessages)).build();
   }
 
+  @FunctionalInterface
+  private interface PipelineStateSupplier {
+    PipelineState get() throws PipelineException;
+  }
+
+  @SuppressWarnings("unchecked")
+  private boolean isInLabel(
+      PipelineInfo pipelineInfo,
+      String label,
+      PipelineStateSupplier stateSupplier
+  ) throws PipelineException {
+    Map<String, Object> metadata = pipelineInfo.getMetadata();
+    switch (label) {
+      case SYSTEM_ALL_PIPELINES:
+      case SYSTEM_SAMPLE_PIPELINES:
+        return true;
+      case SYSTEM_EDGE_PIPELINES:
+        return stateSupplier.get().getExecutionMode().equals(ExecutionMode.EDGE);
+      case SYSTEM_MICROSERVICE_PIPELINES:
+        return metadata != null && metadata.containsKey(MICROSERVICE);
+      case SYSTEM_RUNNING_PIPELINES:
+        return stateSupplier.get().getStatus().isActive();
+      case SYSTEM_NON_RUNNING_PIPELINES:
+        return !stateSupplier.get().getStatus().isActive();
+      case SYSTEM_INVALID_PIPELINES:
+        return !pipelineInfo.isValid();
+      case SYSTEM_ERROR_PIPELINES:
+        PipelineStatus status = stateSupplier.get().getStatus();
+        return status == PipelineStatus.START_ERROR ||
+            status == PipelineStatus.RUNNING_ERROR ||
+            status == PipelineStatus.RUN_ERROR ||
+            status == PipelineStatus.CONNECT_ERROR;
+      case SYSTEM_PUBLISHED_PIPELINES:
+        return !isRemotePipeline(stateSupplier.get()) && metadata != null && metadata.containsKey(DPM_PIPELINE_ID);
+      case SYSTEM_DPM_CONTROLLED_PIPELINES:
+        return isRemotePipeline(stateSupplier.get());
+      case SYSTEM_LOCAL_PIPELINES:
+        return metadata == null || !metadata.containsKey(DPM_PIPELINE_ID);
+      case SHARED_WITH_ME_PIPELINES:
+        return !pipelineInfo.getCreator().equals(user);
+      default:
+        if (metadata != null && metadata.containsKey("labels")) {
+          List<String> labels = (List<String>) metadata.get("labels");
+          return labels.contains(label);
+        } else {
+          return false;
+        }
+    }
+  }
+
   private boolean isRemotePipeline(PipelineState state) {
     Object isRemote = state.getAttributes().get(RemoteDataCollector.IS_REMOTE_PIPELINE);
     return isRemote != null && (boolean) isRemote;
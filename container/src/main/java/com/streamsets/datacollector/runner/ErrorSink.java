@@ -75,6 +75,15 @@ public class ErrorSink implements ReportErrorDelegate {
     totalErrorRecords++;
   }
 
+  /**
+   * Append all errors (and interceptors registered for their stages) from other sink.
+   */
+  public void merge(ErrorSink other) {
+    other.interceptors.forEach(this.interceptors::putIfAbsent);
+    other.errorRecords.forEach((stage, records) -> records.forEach(record -> addRecord(stage, record)));
+    other.stageErrors.forEach((stage, errors) -> errors.forEach(error -> reportError(stage, error)));
+  }
+
   public Map<String, List<ErrorMessage>> getStageErrors() {
     return stageErrors;
   }
@@ -52,6 +52,14 @@ public class EventSink {
     events.add(event);
   }
 
+  /**
+   * Append all events (and interceptors registered for their stages) from other sink.
+   */
+  public void merge(EventSink other) {
+    other.interceptors.forEach(this.interceptors::putIfAbsent);
+    other.eventRecords.forEach((stage, events) -> events.forEach(event -> addEvent(stage, event)));
+  }
+
   public List<EventRecord> getStageEventsAsEventRecords(String stage) throws StageException {
     Preconditions.checkState(interceptors.containsKey(stage), Utils.format("No interceptors registered for stage '{}'", stage));
     return intercept(
@@ -299,6 +299,58 @@ public class FullPipeBatch implements PipeBatch {
     return stageOutputSnapshot;
   }
 
+  /**
+   * Split records of all lanes that are currently in this batch into given number of new batches.
+   *
+   * Each lane is cut into consecutive chunks of (almost) the same size, so concatenating the chunks in the order of the
+   * returned batches gives back the original lane. Records of the split lanes are removed from this batch. The new
+   * batches never keep snapshot of the stage output.
+   */
+  public List<FullPipeBatch> split(int parts) {
+    Preconditions.checkArgument(parts > 0, "Number of parts must be positive");
+    List<FullPipeBatch> batches = new ArrayList<>(parts);
+    for (int i = 0; i < parts; i++) {
+      FullPipeBatch batch = new FullPipeBatch(sourceEntity, lastOffset, batchSize, false);
+      batch.setNewOffset(newOffset);
+      batch.processedStages.addAll(processedStages);
+      batches.add(batch);
+    }
+
+    for (Map.Entry<String, List<Record>> entry : fullPayload.entrySet()) {
+      List<Record> records = entry.getValue() == null ? Collections.emptyList() : entry.getValue();
+      int size = records.size();
+      for (int i = 0; i < parts; i++) {
+        List<Record> chunk = records.subList((int) ((long) size * i / parts), (int) ((long) size * (i + 1) / parts));
+        batches.get(i).fullPayload.put(entry.getKey(), new ArrayList<>(chunk));
+      }
+    }
+    fullPayload.clear();
+
+    return batches;
+  }
+
+  /**
+   * Merge batches that were previously created by split(int) back into this one.
+   *
+   * Records of each lane are concatenated in the order of the given batches, errors, events and processed records are
+   * appended to the sinks of this batch.
+   */
+  public void merge(List<FullPipeBatch> parts) {
+    for (FullPipeBatch part : parts) {
+      for (Map.Entry<String, List<Record>> entry : part.fullPayload.entrySet()) {
+        List<Record> records = fullPayload.computeIfAbsent(entry.getKey(), lane -> new ArrayList<>());
+        if (entry.getValue() != null) {
+          records.addAll(entry.getValue());
+        }
+      }
+      processedStages.addAll(part.processedStages);
+      errorSink.merge(part.errorSink);
+      eventSink.merge(part.eventSink);
+      processedSink.merge(part.processedSink);
+      outputRecords += part.outputRecords;
+    }
+  }
+
   @Override
   public ErrorSink getErrorSink() {
     return errorSink;
@@ -24,6 +24,7 @@ import com.streamsets.pipeline.api.OffsetCommitTrigger;
 import com.streamsets.pipeline.api.OnRecordError;
 import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.api.StageType;
 import com.streamsets.pipeline.api.Target;
 import com.streamsets.pipeline.lib.log.LogConstants;
 import org.slf4j.Logger;
@@ -123,24 +124,43 @@ public class PipeRunner {
       String offsetValue,
       long batchStartTime,
       ThrowingConsumer<Pipe> consumer
+  ) throws PipelineRuntimeException, StageException {
+    executeBatch(offsetKey, offsetValue, batchStartTime, 0, pipes.size(), consumer);
+  }
+
+  /**
+   * Run batch with given consumer only for pipes from fromIndex (inclusive) to toIndex (exclusive).
+   *
+   * Used when only part of the batch is processed by this runner. The batch is counted as finished only when the
+   * range includes the last pipe.
+   */
+  public void executeBatch(
+      String offsetKey,
+      String offsetValue,
+      long batchStartTime,
+      int fromIndex,
+      int toIndex,
+      ThrowingConsumer<Pipe> consumer
   ) throws PipelineRuntimeException, StageException {
     this.runtimeMetricGauge.put(METRIC_STATE, "Processing Batch");
     this.runtimeMetricGauge.put(METRIC_BATCH_START_TIME, batchStartTime);
     this.runtimeMetricGauge.put(METRIC_OFFSET_KEY, Optional.ofNullable(offsetKey).orElse(""));
     this.runtimeMetricGauge.put(METRIC_OFFSET_VALUE, Optional.ofNullable(offsetValue).orElse(""));
 
-    forEachInternal(consumer);
+    forEachInternal(pipes.subList(fromIndex, toIndex), consumer);
 
     // We've successfully finished batch
-    this.runtimeMetricGauge.computeIfPresent(METRIC_BATCH_COUNT, (key, value) -> ((long)value) + 1);
+    if (toIndex == pipes.size()) {
+      this.runtimeMetricGauge.computeIfPresent(METRIC_BATCH_COUNT, (key, value) -> ((long)value) + 1);
+    }
   }
 
-  private void forEachInternal(ThrowingConsumer<Pipe> consumer) throws PipelineRuntimeException {
+  private void forEachInternal(List<Pipe> pipesToRun, ThrowingConsumer<Pipe> consumer) throws PipelineRuntimeException {
     MDC.put(LogConstants.RUNNER, String.valueOf(runnerId));
 
     try {
       // Run one pipe at a time
-      for(Pipe p : pipes) {
+      for(Pipe p : pipesToRun) {
         String instanceName = p.getStage().getInfo().getInstanceName();
         this.runtimeMetricGauge.put(METRIC_STAGE_START_TIME, System.currentTimeMillis());
         this.runtimeMetricGauge.put(METRIC_CURRENT_STAGE, instanceName);
@@ -177,12 +197,31 @@ public class PipeRunner {
     this.runtimeMetricGauge.put(METRIC_STATE, reportedState);
     this.runtimeMetricGauge.put(METRIC_BATCH_START_TIME, System.currentTimeMillis());
     try {
-      forEachInternal(consumer);
+      forEachInternal(pipes, consumer);
     } catch (PipelineException|StageException e) {
       throw new RuntimeException(e);
     }
   }
 
+  /**
+   * Index of the first pipe of a destination or an executor, size() if there is no such pipe.
+   */
+  public int getFirstTargetOrExecutorIndex() {
+    return getFirstTargetOrExecutorIndex(pipes);
+  }
+
+  /**
+   * Index of the first pipe of a destination or an executor in given pipes, size() if there is no such pipe.
+   */
+  public static int getFirstTargetOrExecutorIndex(List<Pipe> pipes) {
+    for (int i = 0; i < pipes.size(); i++) {
+      if (pipes.get(i).getStage().getDefinition().getType().isOneOf(StageType.TARGET, StageType.EXECUTOR)) {
+        return i;
+      }
+    }
+    return pipes.size();
+  }
+
   /**
    * Retrieve OffsetCommitTrigger pipe.
    *
@@ -19,6 +19,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.streamsets.datacollector.antennadoctor.AntennaDoctor;
 import com.streamsets.datacollector.antennadoctor.engine.context.AntennaDoctorStageContext;
 import com.streamsets.datacollector.blobstore.BlobStoreTask;
@@ -64,6 +65,7 @@ import com.streamsets.pipeline.api.lineage.LineageEvent;
 import com.streamsets.pipeline.api.lineage.LineageEventType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -73,7 +75,13 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class Pipeline {
   private static final Logger LOG = LoggerFactory.getLogger(Pipeline.class);
@@ -81,6 +89,18 @@ public class Pipeline {
   private static final String DELIVERY_GUARANTEE_CONFIG_KEY = "deliveryGuarantee";
   public static final String MAX_RUNNERS_CONFIG_KEY = "pipeline.max.runners.count";
   public static final int MAX_RUNNERS_DEFAULT = 50;
+  public static final String DATA_PARALLEL_RUNNERS_CONFIG_KEY = "production.dataParallelRunners";
+  public static final int DATA_PARALLEL_RUNNERS_DEFAULT = 1;
+  public static final String RUNNERS_INIT_THREADS_CONFIG_KEY = "pipeline.runners.init.threads";
+  public static final int RUNNERS_INIT_THREADS_DEFAULT = 1;
+  public static final String ELASTIC_MIN_RUNNERS_CONFIG_KEY = "pipeline.runners.elastic.min";
+  public static final int ELASTIC_MIN_RUNNERS_DEFAULT = 0;
+  public static final String ELASTIC_SCALE_UP_WAIT_CONFIG_KEY = "pipeline.runners.elastic.scaleUpWaitMs";
+  public static final long ELASTIC_SCALE_UP_WAIT_DEFAULT = 100;
+  public static final String ELASTIC_RETIRE_IDLE_CONFIG_KEY = "pipeline.runners.elastic.retireIdleSecs";
+  public static final long ELASTIC_RETIRE_IDLE_DEFAULT = 30;
+  private static final long ELASTIC_ADD_BACKOFF_MIN_MILLIS = 10_000;
+  private static final long ELASTIC_ADD_BACKOFF_MAX_MILLIS = 600_000;
   private static final String FRAMEWORK_NAME = "Framework";
 
   private final StageLibraryTask stageLib;
@@ -111,6 +131,16 @@ public class Pipeline {
   private final StageRuntime stopEventStage;
   private final Map<String, ConnectionConfiguration> connections;
   private boolean stopEventStageInitialized;
+  private boolean originInitialized;
+  private PipeContext pipeContext;
+  private int runnerCount;
+  private int elasticMinRunners = 0;
+  private int elasticMaxRunners = 0;
+  // After a runner fails to be created or initialized, no new runner is added until this time
+  private long elasticAddBackoffUntil = 0;
+  private long elasticAddBackoff = ELASTIC_ADD_BACKOFF_MIN_MILLIS;
+  // Set when destroy starts, no runners can be added after that
+  private boolean destroyed = false;
   private String controlHubJobId = null;
   private String controlHubJobName = null;
 
@@ -235,8 +265,19 @@ public class Pipeline {
     return runtimeParameters;
   }
 
-  @SuppressWarnings("unchecked")
+  public boolean isOriginInitialized() {
+    return originInitialized;
+  }
+
   public List<Issue> init(boolean productionExecution) {
+    return init(productionExecution, true);
+  }
+
+  /**
+   * @param initOrigin Whether to initialize the origin, preview that replays recorded origin output never runs it
+   */
+  @SuppressWarnings("unchecked")
+  public List<Issue> init(boolean productionExecution, boolean initOrigin) {
     PipeContext pipeContext = new PipeContext();
     this.runner.setRuntimeConfiguration(
       pipeContext,
@@ -311,11 +352,15 @@ public class Pipeline {
     }
 
     // Initialize origin
-    issues.addAll(initPipe(originPipe, pipeContext));
+    if (initOrigin) {
+      issues.addAll(initPipe(originPipe, pipeContext));
+      originInitialized = true;
+    }
     int runnerCount = 1;
 
-    // If it's a push source, we need to initialize the remaining source-less pipes
-    if(originPipe.getStage().getStage() instanceof PushSource) {
+    // If it's a push source, we need to initialize the remaining source-less pipes. Replayed origin output is
+    // processed batch by batch by the first runner, so it doesn't need them.
+    if(initOrigin && originPipe.getStage().getStage() instanceof PushSource) {
       Preconditions.checkArgument(pipes.size() == 1, "There are already more runners then expected");
 
       // Effective number of runners - either number of source threads or predefined value from user, whatever is *less*
@@ -325,80 +370,40 @@ public class Pipeline {
         runnerCount = Math.min(runnerCount, pipelineRunnerCount);
       }
 
-      // Ensure that it doesn't go over configured threshold
-      int sdcRunnerMax = configuration.get(MAX_RUNNERS_CONFIG_KEY, MAX_RUNNERS_DEFAULT);
-      boolean createAdditionalRunners = true;
-      if (runnerCount > sdcRunnerMax) {
-        createAdditionalRunners = false;
-        issues.add(IssueCreator.getPipeline().create(ContainerError.CONTAINER_0705, runnerCount, sdcRunnerMax));
+      // In elastic mode we start with the minimal number of runners and the pipeline runner adds the rest on demand
+      int initialRunnerCount = runnerCount;
+      int elasticMinRunners = configuration.get(ELASTIC_MIN_RUNNERS_CONFIG_KEY, ELASTIC_MIN_RUNNERS_DEFAULT);
+      if (productionExecution && !runner.isPreview() && elasticMinRunners > 0 && elasticMinRunners < runnerCount) {
+        initialRunnerCount = elasticMinRunners;
+        this.elasticMinRunners = elasticMinRunners;
+        this.elasticMaxRunners = runnerCount;
       }
 
-      // Unless the request number of runners is invalid, let's create them
-      if (createAdditionalRunners) {
-        try {
-          for (int runnerId = 1; runnerId < runnerCount; runnerId++) {
-            List<Issue> localIssues = new ArrayList<>();
-
-            // Create list of Stage beans
-            PipelineStageBeans beans = PipelineBeanCreator.get().duplicatePipelineStageBeans(
-              stageLib,
-              pipelineBean.getPipelineStageBeans(),
-              interceptorContextBuilder,
-              originPipe.getStage().getConstants(),
-              userContext.getUser(),
-              connections,
-              localIssues
-            );
-
-            // If there was an issue creating the beans, don't continue
-            if(!localIssues.isEmpty()) {
-              issues.addAll(localIssues);
-
-              // To create the beans, we've already got class loaders, so we need to release them (they would leak otherwise
-              // as the beans object is not persisted anywhere).
-              beans.getStages().forEach(StageBean::releaseClassLoader);
-
-              break;
-            }
-
-            // Initialize and convert them to source-less pipeline runner
-            pipes.add(createSourceLessRunner(
-              stageLib,
-              name,
-              rev,
-              configuration,
-              pipelineConf,
-              runner,
-              stageInfos,
-              userContext,
-              pipelineBean,
-              originPipe.getStage(),
-              runnerId,
-              beans,
-              observer,
-              scheduledExecutor,
-              runnerSharedMaps,
-              startTime,
-              blobStore,
-              lineagePublisherTask,
-              statsCollector
-            ));
-          }
-        } catch (PipelineRuntimeException e) {
-          LOG.error("Can't create additional source-less pipeline runner number {}: {}", runnerCount, e.toString(), e);
-          issues.add(IssueCreator.getPipeline().create(ContainerError.CONTAINER_0704, e.toString()));
-        }
+      createAdditionalRunners(runnerCount, initialRunnerCount, false, issues);
+    } else if(productionExecution && !runner.isPreview()) {
+      // Single threaded origin can still have its batches split among multiple source-less pipes
+      int dataParallelRunners = configuration.get(DATA_PARALLEL_RUNNERS_CONFIG_KEY, DATA_PARALLEL_RUNNERS_DEFAULT);
+      if (dataParallelRunners > 1) {
+        Preconditions.checkArgument(pipes.size() == 1, "There are already more runners then expected");
+        runnerCount = dataParallelRunners;
+        createAdditionalRunners(runnerCount, runnerCount, true, issues);
       }
     }
 
-    // Initialize all source-less pipeline runners
-    final int finalRunnerCount = runnerCount;
-    for(PipeRunner pipeRunner: pipes) {
-      pipeRunner.forEach("Starting", pipe -> {
-        ((StageContext)pipe.getStage().getContext()).setPipelineFinisherDelegate((PipelineFinisherDelegate)runner);
-        ((StageContext)pipe.getStage().getContext()).setRunnerCount(finalRunnerCount);
-        issues.addAll(initPipe(pipe, pipeContext));
-      });
+    // Initialize all source-less pipeline runners - the first one on its own as its stages might prepare state shared
+    // by all runners, the remaining ones in parallel
+    this.pipeContext = pipeContext;
+    this.runnerCount = runnerCount;
+    issues.addAll(initRunner(pipes.get(0)));
+    List<Callable<List<Issue>>> initTasks = new ArrayList<>();
+    for (PipeRunner pipeRunner : pipes.subList(1, pipes.size())) {
+      initTasks.add(() -> initRunner(pipeRunner));
+    }
+    try {
+      invokeInParallel(initTasks).forEach(issues::addAll);
+    } catch (PipelineRuntimeException e) {
+      LOG.error("Can't initialize additional source-less pipeline runners: {}", e.toString(), e);
+      issues.add(IssueCreator.getPipeline().create(ContainerError.CONTAINER_0704, e.toString()));
     }
     ((StageContext)originPipe.getStage().getContext()).setRunnerCount(runnerCount);
     ((StageContext)originPipe.getStage().getContext()).setPipelineFinisherDelegate((PipelineFinisherDelegate)runner);
@@ -406,6 +411,241 @@ public class Pipeline {
     return issues;
   }
 
+  /**
+   * Create source-less pipes for runners 1 to initialRunnerCount - 1, the first one is always created by the builder.
+   * Runners are created in parallel.
+   *
+   * @param dataParallel Whether the runners only process parts of batches in front of the first destination or
+   * executor, in which case they don't get destinations, executors and anything after them.
+   */
+  private void createAdditionalRunners(
+    int runnerCount,
+    int initialRunnerCount,
+    boolean dataParallel,
+    List<Issue> issues
+  ) {
+    // Ensure that it doesn't go over configured threshold
+    int sdcRunnerMax = configuration.get(MAX_RUNNERS_CONFIG_KEY, MAX_RUNNERS_DEFAULT);
+    if (runnerCount > sdcRunnerMax) {
+      issues.add(IssueCreator.getPipeline().create(ContainerError.CONTAINER_0705, runnerCount, sdcRunnerMax));
+      return;
+    }
+
+    // Unless the request number of runners is invalid, let's create them
+    List<List<Issue>> runnerIssues = new ArrayList<>();
+    List<Callable<PipeRunner>> createTasks = new ArrayList<>();
+    for (int runnerId = 1; runnerId < initialRunnerCount; runnerId++) {
+      final int id = runnerId;
+      List<Issue> localIssues = new ArrayList<>();
+      runnerIssues.add(localIssues);
+      createTasks.add(() -> createRunner(id, dataParallel, localIssues));
+    }
+
+    try {
+      for (PipeRunner pipeRunner : invokeInParallel(createTasks)) {
+        if (pipeRunner != null) {
+          pipes.add(pipeRunner);
+        }
+      }
+    } catch (PipelineRuntimeException e) {
+      LOG.error("Can't create additional source-less pipeline runner number {}: {}", runnerCount, e.toString(), e);
+      issues.add(IssueCreator.getPipeline().create(ContainerError.CONTAINER_0704, e.toString()));
+    }
+    runnerIssues.forEach(issues::addAll);
+  }
+
+  /**
+   * Create source-less pipe for given runner id, null if the stage beans could not be created.
+   */
+  private PipeRunner createRunner(
+    int runnerId,
+    boolean dataParallel,
+    List<Issue> issues
+  ) throws PipelineRuntimeException {
+    List<Issue> localIssues = new ArrayList<>();
+
+    // Create list of Stage beans
+    PipelineStageBeans beans = PipelineBeanCreator.get().duplicatePipelineStageBeans(
+      stageLib,
+      pipelineBean.getPipelineStageBeans(),
+      interceptorContextBuilder,
+      originPipe.getStage().getConstants(),
+      userContext.getUser(),
+      connections,
+      localIssues
+    );
+
+    // If there was an issue creating the beans, don't continue
+    if(!localIssues.isEmpty()) {
+      issues.addAll(localIssues);
+
+      // To create the beans, we've already got class loaders, so we need to release them (they would leak otherwise
+      // as the beans object is not persisted anywhere).
+      beans.getStages().forEach(StageBean::releaseClassLoader);
+
+      return null;
+    }
+
+    // Initialize and convert them to source-less pipeline runner
+    return createSourceLessRunner(
+      stageLib,
+      name,
+      rev,
+      configuration,
+      pipelineConf,
+      runner,
+      stageInfos,
+      userContext,
+      pipelineBean,
+      originPipe.getStage(),
+      runnerId,
+      beans,
+      observer,
+      scheduledExecutor,
+      runnerSharedMaps,
+      startTime,
+      blobStore,
+      lineagePublisherTask,
+      statsCollector,
+      dataParallel
+    );
+  }
+
+  private List<Issue> initRunner(PipeRunner pipeRunner) {
+    List<Issue> issues = new ArrayList<>();
+    pipeRunner.forEach("Starting", pipe -> {
+      ((StageContext)pipe.getStage().getContext()).setPipelineFinisherDelegate((PipelineFinisherDelegate)runner);
+      ((StageContext)pipe.getStage().getContext()).setRunnerCount(runnerCount);
+      issues.addAll(initPipe(pipe, pipeContext));
+    });
+    return issues;
+  }
+
+  /**
+   * Run given tasks on up to configured number of threads and return their results in the same order.
+   */
+  private <T> List<T> invokeInParallel(List<Callable<T>> tasks) throws PipelineRuntimeException {
+    if (tasks.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    int threads = Math.max(1, Math.min(tasks.size(), configuration.get(RUNNERS_INIT_THREADS_CONFIG_KEY, RUNNERS_INIT_THREADS_DEFAULT)));
+    ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder()
+      .setNameFormat("Pipeline Runner Initialization - " + name + " - %d")
+      .setDaemon(true)
+      .build()
+    );
+
+    // Logging context is thread local
+    Map<String, String> loggingContext = MDC.getCopyOfContextMap();
+    List<Callable<T>> wrappedTasks = new ArrayList<>(tasks.size());
+    for (Callable<T> task : tasks) {
+      wrappedTasks.add(() -> {
+        if (loggingContext != null) {
+          MDC.setContextMap(loggingContext);
+        }
+        try {
+          return task.call();
+        } finally {
+          MDC.clear();
+        }
+      });
+    }
+
+    try {
+      List<T> results = new ArrayList<>(tasks.size());
+      for (Future<T> future : executor.invokeAll(wrappedTasks)) {
+        results.add(future.get());
+      }
+      return results;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new PipelineRuntimeException(ContainerError.CONTAINER_0801, e);
+    } catch (ExecutionException e) {
+      Throwables.propagateIfInstanceOf(e.getCause(), PipelineRuntimeException.class);
+      throw Throwables.propagate(e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Minimal number of runners in elastic mode, 0 if the pipeline is not running in elastic mode.
+   */
+  public int getElasticMinRunners() {
+    return elasticMinRunners;
+  }
+
+  /**
+   * Create and initialize one more source-less runner while the pipeline is running (in elastic mode only), up to
+   * the number of runners requested by the origin.
+   *
+   * Runner that fails to initialize is destroyed right away and no other runner is added for a while (the wait time
+   * doubles with every consecutive failure).
+   *
+   * @return New runner or null if no more runners can be added or the new runner failed to initialize
+   */
+  public synchronized PipeRunner addRunner() {
+    if (destroyed || pipes.size() >= elasticMaxRunners || System.currentTimeMillis() < elasticAddBackoffUntil) {
+      return null;
+    }
+
+    int runnerId = pipes.size();
+    List<Issue> issues = new ArrayList<>();
+    PipeRunner pipeRunner;
+    try {
+      pipeRunner = createRunner(runnerId, false, issues);
+    } catch (PipelineRuntimeException e) {
+      LOG.error("Can't create additional source-less pipeline runner number {}: {}", runnerId, e.toString(), e);
+      backOffAddingRunners();
+      return null;
+    }
+    if (pipeRunner == null) {
+      LOG.error("Can't create additional source-less pipeline runner number {}: {}", runnerId, issues);
+      backOffAddingRunners();
+      return null;
+    }
+
+    issues.addAll(initRunner(pipeRunner));
+    if (!issues.isEmpty()) {
+      LOG.error("Can't initialize additional source-less pipeline runner number {}: {}", runnerId, issues);
+      destroyRunner(pipeRunner);
+      backOffAddingRunners();
+      return null;
+    }
+
+    pipes.add(pipeRunner);
+    elasticAddBackoff = ELASTIC_ADD_BACKOFF_MIN_MILLIS;
+    LOG.info("Added source-less pipeline runner number {}", runnerId);
+    return pipeRunner;
+  }
+
+  private void backOffAddingRunners() {
+    LOG.info("Not adding any source-less pipeline runners for the next {} ms", elasticAddBackoff);
+    elasticAddBackoffUntil = System.currentTimeMillis() + elasticAddBackoff;
+    elasticAddBackoff = Math.min(2 * elasticAddBackoff, ELASTIC_ADD_BACKOFF_MAX_MILLIS);
+  }
+
+  /**
+   * Destroy runner that was never added to the pipeline (e.g. because it failed to initialize).
+   *
+   * The runner didn't process any batch, so whatever its stages generate while being destroyed is dropped.
+   */
+  private void destroyRunner(PipeRunner pipeRunner) {
+    FullPipeBatch pipeBatch = new FullPipeBatch(null, null, 0, false);
+    pipeRunner.forEach("Destroying", pipe -> {
+      if (pipe instanceof StagePipe) {
+        stageInfos.remove(pipe.getStage().getInfo());
+      }
+      pipeBatch.skipStage(pipe);
+      try {
+        pipe.destroy(pipeBatch);
+      } catch (Exception e) {
+        LOG.warn("Exception throw while destroying pipe", e);
+      }
+    });
+  }
+
   private List<Issue> initPipe(Pipe pipe, PipeContext pipeContext) {
     try {
       return pipe.init(pipeContext);
@@ -428,6 +668,11 @@ public class Pipeline {
   public void destroy(boolean productionExecution, PipelineStopReason stopReason) throws StageException, PipelineRuntimeException {
     LOG.info("Destroying pipeline with reason={}", stopReason.name());
 
+    // Wait for runner that is being added (if any), so that it's destroyed with the others
+    synchronized (this) {
+      destroyed = true;
+    }
+
     // Ensure that all stages are properly stopped. This method is usually called by the framework when a pipeline
     // stops properly (in order to force the pipeline to stop). However if the pipeline is failing (random runtime
     // exception), then we need to make sure of that ourselves here.
@@ -627,7 +872,7 @@ public class Pipeline {
     public Pipeline build(PipelineRunner runner, Map<String, Object> runtimeParameters) throws PipelineRuntimeException {
       Pipeline pipeline = null;
       errors = new ArrayList<>();
-      List<Stage.Info> stageInfos = new ArrayList<>();
+      List<Stage.Info> stageInfos = new CopyOnWriteArrayList<>();
       PipelineBean pipelineBean = PipelineBeanCreator.get().create(
           true,
           stageLib,
@@ -640,7 +885,8 @@ public class Pipeline {
       );
       StageRuntime errorStage;
       StageRuntime statsAggregator;
-      List<PipeRunner> pipes = new ArrayList<>();
+      // Runners and stage infos can be added concurrently (while initializing or in elastic mode while running)
+      List<PipeRunner> pipes = new CopyOnWriteArrayList<>();
       List<Map<String, Object>> runnerSharedMaps = new ArrayList<>();
       if (pipelineBean != null) {
         // Origin runtime and pipe
@@ -692,7 +938,8 @@ public class Pipeline {
           startTime,
           blobStore,
           lineagePublisherTask,
-          statsCollector
+          statsCollector,
+          false
         ));
 
         // Error stage handling
@@ -886,7 +1133,8 @@ public class Pipeline {
     long startTime,
     BlobStoreTask blobStore,
     LineagePublisherTask lineagePublisherTask,
-    StatsCollector statsCollector
+    StatsCollector statsCollector,
+    boolean upToFirstTargetOrExecutor
   ) throws PipelineRuntimeException {
     Preconditions.checkArgument(beans.size() == sharedRunnerMaps.size(),
       Utils.format("New runner have different number of states then original one! ({} != {})", beans.size(), sharedRunnerMaps.size()));
@@ -920,18 +1168,24 @@ public class Pipeline {
       ));
     }
 
+    // Lanes are resolved on the whole pipeline, so that the truncated pipes produce the same lanes as the full ones
+    List<Pipe> pipes = createPipes(
+      pipelineName,
+      rev,
+      stages,
+      runner,
+      observer
+    );
+    if (upToFirstTargetOrExecutor) {
+      pipes = pipes.subList(0, PipeRunner.getFirstTargetOrExecutorIndex(pipes));
+    }
+
     return new PipeRunner(
       pipelineName,
       rev,
       runnerId,
       runner.getMetrics(),
-      createPipes(
-        pipelineName,
-        rev,
-        stages,
-        runner,
-        observer
-      )
+      pipes
     );
   }
 
@@ -48,6 +48,13 @@ public class ProcessedSink {
     r.addAll(records);
   }
 
+  /**
+   * Append all processed records from other sink.
+   */
+  public void merge(ProcessedSink other) {
+    other.processedRecords.forEach(this::addRecords);
+  }
+
   public Optional<List<Record>> getProcessedRecords(String stage) {
     return Optional.ofNullable(processedRecords.get(stage));
   }
@@ -22,6 +22,7 @@ import org.jetbrains.annotations.NotNull;
 import java.util.List;
 import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Small abstraction on top of blocking queue to model a pool of runners.
@@ -73,6 +74,11 @@ public class RunnerPool <T> {
    */
   private final AtomicBoolean destroyed;
 
+  /**
+   * Longest time (in milliseconds) that a caller had to wait for a runner since last call to getAndResetMaxWaitTime().
+   */
+  private final AtomicLong maxWaitTime;
+
   /**
    * Create new runner pool.
    *
@@ -87,6 +93,7 @@ public class RunnerPool <T> {
     this.runtimeStats.setAvailableRunners(queue.size());
     this.histogram = histogram;
     this.destroyed = new AtomicBoolean(false);
+    this.maxWaitTime = new AtomicLong(0);
   }
 
   /**
@@ -99,7 +106,13 @@ public class RunnerPool <T> {
     validateNotDestroyed();
 
     try {
-      return queue.take().runner;
+      QueueItem<T> item = queue.poll();
+      if(item == null) {
+        long start = System.currentTimeMillis();
+        item = queue.take();
+        maxWaitTime.accumulateAndGet(System.currentTimeMillis() - start, Math::max);
+      }
+      return item.runner;
     } catch (InterruptedException e) {
       throw new PipelineRuntimeException(ContainerError.CONTAINER_0801, e);
     } finally {
@@ -134,6 +147,51 @@ public class RunnerPool <T> {
     return item.runner;
   }
 
+  /**
+   * Add new runner to the pool, increasing total number of runners.
+   *
+   * @param runner Runner that was not managed by this pool before
+   */
+  public void addRunner(T runner) throws PipelineRuntimeException {
+    validateNotDestroyed();
+
+    queue.add(new QueueItem<>(runner));
+    runtimeStats.setTotalRunners(runtimeStats.getTotalRunners() + 1);
+    runtimeStats.setAvailableRunners(queue.size());
+    histogram.update(queue.size());
+  }
+
+  /**
+   * Remove a runner that haven't been used at least for the configured number of milliseconds from the pool,
+   * decreasing total number of runners.
+   *
+   * @param idleTime Number of milliseconds when a runner is considered an "idle"
+   * @return Runner that is no longer managed by this pool or null if there is no idle runner
+   */
+  public T retireIdleRunner(long idleTime) {
+    T runner = getIdleRunner(idleTime);
+    if(runner != null) {
+      runtimeStats.setTotalRunners(runtimeStats.getTotalRunners() - 1);
+      runtimeStats.setAvailableRunners(queue.size());
+      histogram.update(queue.size());
+    }
+    return runner;
+  }
+
+  /**
+   * Total number of runners currently managed by this pool.
+   */
+  public int getTotalRunners() {
+    return (int) runtimeStats.getTotalRunners();
+  }
+
+  /**
+   * Return longest time (in milliseconds) that getRunner() had to wait for a runner since the last call of this method.
+   */
+  public long getAndResetMaxWaitTime() {
+    return maxWaitTime.getAndSet(0);
+  }
+
   /**
    * Return given runner back to the pool.
    *
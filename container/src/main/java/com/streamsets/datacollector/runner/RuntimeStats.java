@@ -27,13 +27,14 @@ public class RuntimeStats implements GaugeValue {
 
   private final AtomicLong batchCount;
   private final AtomicLong idleBatchCount;
-  private long timeOfLastReceivedRecord;
-  private long lastBatchInputRecordsCount;
-  private long lastBatchOutputRecordsCount;
-  private long lastBatchErrorRecordsCount;
-  private long lastBatchErrorMessagesCount;
-  private long totalRunners;
-  private long availableRunners;
+  // Updated from origin, batch writer and runner threads, read by the metrics gauge
+  private volatile long timeOfLastReceivedRecord;
+  private volatile long lastBatchInputRecordsCount;
+  private volatile long lastBatchOutputRecordsCount;
+  private volatile long lastBatchErrorRecordsCount;
+  private volatile long lastBatchErrorMessagesCount;
+  private volatile long totalRunners;
+  private volatile long availableRunners;
   // SHOULD ALWAYS BE ACCESS FROM SYNCHRONIZED METHODS ONLY
   private final Set<String> currentStages;
 
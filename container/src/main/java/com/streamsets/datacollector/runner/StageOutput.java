@@ -15,11 +15,14 @@
  */
 package com.streamsets.datacollector.runner;
 
+import com.streamsets.datacollector.record.RecordImpl;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.impl.ErrorMessage;
 import com.streamsets.pipeline.api.impl.Utils;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -80,6 +83,27 @@ public class StageOutput {
     return eventRecords;
   }
 
+  /**
+   * Create copy of this output with cloned records, so that the copy can be processed again without affecting
+   * this instance.
+   */
+  public StageOutput copy() {
+    Map<String, List<Record>> outputCopy = new LinkedHashMap<>();
+    output.forEach((lane, records) -> outputCopy.put(lane, copy(records)));
+    return new StageOutput(instanceName, outputCopy, copy(errorRecords), stageErrors, copy(eventRecords));
+  }
+
+  private static List<Record> copy(List<Record> records) {
+    if (records == null) {
+      return null;
+    }
+    List<Record> copy = new ArrayList<>(records.size());
+    for (Record record : records) {
+      copy.add(((RecordImpl) record).clone());
+    }
+    return copy;
+  }
+
   @Override
   public String toString() {
     return Utils.format("StageOutput[instance='{}' lanes='{}']", instanceName, output.keySet());
@@ -31,6 +31,8 @@ public class PreviewPipeline {
   private final String rev;
   private final Pipeline pipeline;
   private final Issues issues;
+  private boolean initialized;
+  private boolean originReplayed;
 
   public PreviewPipeline(String name, String rev, Pipeline pipeline, Issues issues) {
     this.name = name;
@@ -46,16 +48,40 @@ public class PreviewPipeline {
 
   public PreviewPipelineOutput run(List<StageOutput> stageOutputsToOverride)
       throws StageException, PipelineRuntimeException{
-    List<Issue> initIssues = pipeline.init(true);
-    if (initIssues.isEmpty()) {
-      pipeline.run(stageOutputsToOverride);
-    } else {
-      issues.addAll(initIssues);
-      throw new PipelineRuntimeException(issues);
+    // Pipeline that was already initialized (warm preview session) is simply run again
+    if (!initialized) {
+      // Origin is not initialized when its recorded output is replayed
+      List<Issue> initIssues = originReplayed ? pipeline.init(true, false) : pipeline.init(true);
+      if (!initIssues.isEmpty()) {
+        issues.addAll(initIssues);
+        throw new PipelineRuntimeException(issues);
+      }
+      initialized = true;
     }
+    pipeline.run(stageOutputsToOverride);
     return new PreviewPipelineOutput(issues, pipeline.getRunner());
   }
 
+  /**
+   * Replay given origin output (one per batch) rather than running the origin on next run.
+   */
+  public void setOriginReplay(List<StageOutput> originReplay) {
+    originReplayed = originReplay != null;
+    ((PreviewPipelineRunner) pipeline.getRunner()).setOriginReplay(originReplay);
+  }
+
+  /**
+   * Whether the origin was initialized, pipeline that was created to replay origin output can only replay it.
+   */
+  public boolean isOriginInitialized() {
+    return pipeline.isOriginInitialized();
+  }
+
+  public String getOriginInstanceName() {
+    // Origin (or test origin that replaced it) is always the first stage
+    return pipeline.getPipelineConf().getStages().get(0).getInstanceName();
+  }
+
   public List<Issue> validateConfigs() throws StageException {
     return pipeline.validateConfigs();
   }
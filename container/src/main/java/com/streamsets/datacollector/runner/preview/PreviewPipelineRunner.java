@@ -92,7 +92,7 @@ public class PreviewPipelineRunner implements PipelineRunner, PushSourceContextD
   private final boolean skipLifecycleEvents;
   private final boolean testOrigin;
   private final MetricRegistry metrics;
-  private final List<List<StageOutput>> batchesOutput;
+  private volatile List<List<StageOutput>> batchesOutput;
   private final String name;
   private final String rev;
   private final Timer processingTimer;
@@ -109,6 +109,8 @@ public class PreviewPipelineRunner implements PipelineRunner, PushSourceContextD
   private Map<String, StageOutput> stagesToSkip;
   private AtomicInteger batchesProcessed;
   private PipelineConfiguration pipelineConfiguration;
+  // Origin output (one per batch) that should be used instead of running the origin
+  private List<StageOutput> originReplay;
 
   public PreviewPipelineRunner(
       String name,
@@ -218,6 +220,13 @@ public class PreviewPipelineRunner implements PipelineRunner, PushSourceContextD
     this.statsAggregationHandler = statsAggregationHandler;
     this.runnerPool = new RunnerPool<>(pipes, new RuntimeStats(), new Histogram(new ExponentiallyDecayingReservoir()));
 
+    // The same pipeline can be run more than once (warm preview session), output of each run is independent
+    batchesOutput = Collections.synchronizedList(new ArrayList<>());
+    exceptionFromExecution = null;
+    synchronized (reportedErrors) {
+      reportedErrors.clear();
+    }
+
     // Counter of batches that were already processed
     batchesProcessed = new AtomicInteger(0);
 
@@ -237,7 +246,7 @@ public class PreviewPipelineRunner implements PipelineRunner, PushSourceContextD
     // This object will receive delegated calls from the push origin callbacks
     originPipe.getStage().setPushSourceContextDelegate(this);
 
-    if(stagesToSkip.containsKey(originPipe.getStage().getInfo().getInstanceName())) {
+    if(originReplay != null || stagesToSkip.containsKey(originPipe.getStage().getInfo().getInstanceName())) {
       // We're skipping the origin's execution, so let's run the pipeline in "usual" manner
       runPollSource();
     } else {
@@ -321,7 +330,13 @@ public class PreviewPipelineRunner implements PipelineRunner, PushSourceContextD
   }
 
   private void runPollSource() throws StageException, PipelineRuntimeException {
+    int replayIndex = 0;
     while(batchesProcessed.get() < batches) {
+      // When replaying origin output we can't produce more batches than what was recorded
+      if(originReplay != null && replayIndex >= originReplay.size()) {
+        break;
+      }
+
       FullPipeBatch pipeBatch = new FullPipeBatch(
         Source.POLL_SOURCE_OFFSET_KEY,
         offsetTracker.getOffsets().get(Source.POLL_SOURCE_OFFSET_KEY),
@@ -333,6 +348,10 @@ public class PreviewPipelineRunner implements PipelineRunner, PushSourceContextD
 
         // Process origin data
         StageOutput originOutput = stagesToSkip.get(originPipe.getStage().getInfo().getInstanceName());
+        if(originOutput == null && originReplay != null) {
+          // Records will be modified by the rest of the pipeline, so we have to work on a copy
+          originOutput = originReplay.get(replayIndex++).copy();
+        }
         if(originOutput == null) {
           originPipe.process(pipeBatch);
         } else {
@@ -457,6 +476,14 @@ public class PreviewPipelineRunner implements PipelineRunner, PushSourceContextD
     return batchesOutput;
   }
 
+  /**
+   * Use given origin output (one per batch) instead of running the origin on next run. Passing null will run the
+   * origin again.
+   */
+  public void setOriginReplay(List<StageOutput> originReplay) {
+    this.originReplay = originReplay;
+  }
+
   @Override
   public void setObserver(Observer observer) {
 
@@ -71,9 +71,10 @@ public class CachePipelineStoreModule {
   public PipelineStoreTask provideStore(
       FilePipelineStoreTask store,
       LockCache<String> lockCache,
+      PipelineCatalog catalog,
       StatsCollector statsCollector
   ) {
-    return new StatsCollectorPipelineStoreTask(new CachePipelineStoreTask(store, lockCache), statsCollector);
+    return new StatsCollectorPipelineStoreTask(new CachePipelineStoreTask(store, lockCache, catalog), statsCollector);
   }
 
 }
@@ -0,0 +1,412 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.store;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.streamsets.datacollector.execution.PipelineState;
+import com.streamsets.datacollector.execution.PipelineStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/**
+ * In-memory index of all pipelines known to this Data Collector, used to answer the pipeline list queries without
+ * loading, filtering and sorting the whole list on every request.
+ *
+ * Pipeline info is maintained by the pipeline store and pipeline state by the pipeline state store. Pipelines are kept
+ * in one sorted set per supported order, plus label and title (trigram) indexes, so that a page can be served by
+ * walking a sorted set or by sorting only the (small) set of candidates coming out of an index.
+ *
+ * All updates are serialized, reads are lock-free and see the catalog as of some point during the query. The number
+ * of listed pipelines is maintained on update, so an unfiltered page is served without walking past its end.
+ */
+public class PipelineCatalog {
+  private static final Logger LOG = LoggerFactory.getLogger(PipelineCatalog.class);
+
+  private static final String LABELS = "labels";
+  private static final int TRIGRAM = 3;
+  // When an index narrows the query down to less than 1/CANDIDATES_RATIO of all pipelines, we sort the candidates
+  // rather than walking the whole sorted set.
+  private static final int CANDIDATES_RATIO = 8;
+
+  /**
+   * Supported orders. Apart from STATUS they mirror what the REST API used to do, including LAST_MODIFIED and CREATED
+   * returning most recent pipelines first in ascending order.
+   */
+  public enum OrderBy {
+    NAME(key(e -> e.info.getPipelineId())),
+    TITLE(key(e -> e.title)),
+    LAST_MODIFIED(key((Entry e) -> e.info.getLastModified()).reversed()),
+    CREATED(key((Entry e) -> e.info.getCreated()).reversed()),
+    CREATOR(key(e -> e.info.getCreator())),
+    STATUS(key(e -> e.state == null ? null : e.state.getStatus())),
+    ;
+
+    private final Comparator<Entry> comparator;
+
+    OrderBy(Comparator<Entry> comparator) {
+      // Pipeline id breaks ties so that the sorted sets can hold pipelines with equal keys
+      this.comparator = comparator.thenComparing(e -> e.info.getPipelineId());
+    }
+
+    private static <T extends Comparable<? super T>> Comparator<Entry> key(Function<Entry, T> extractor) {
+      return Comparator.comparing(extractor, Comparator.nullsFirst(Comparator.naturalOrder()));
+    }
+  }
+
+  /**
+   * Loads state of a pipeline that the catalog haven't seen yet (e.g. pipelines that were loaded on start).
+   */
+  public interface StateLoader {
+    PipelineState load(String name, String rev) throws PipelineStoreException;
+  }
+
+  /**
+   * One page of a query result.
+   */
+  public static class Page {
+    private final List<PipelineInfo> pipelines;
+    private final List<PipelineState> states;
+    private final int totalCount;
+
+    Page(List<PipelineInfo> pipelines, List<PipelineState> states, int totalCount) {
+      this.pipelines = pipelines;
+      this.states = states;
+      this.totalCount = totalCount;
+    }
+
+    public List<PipelineInfo> getPipelines() {
+      return pipelines;
+    }
+
+    public List<PipelineState> getStates() {
+      return states;
+    }
+
+    public int getTotalCount() {
+      return totalCount;
+    }
+  }
+
+  /**
+   * Immutable snapshot of pipeline info and state with precomputed keys, replaced (never mutated) on every change.
+   */
+  private static class Entry {
+    private final PipelineInfo info;
+    private final PipelineState state;
+    private final String title;
+    private final String lowerCaseTitle;
+    private final List<String> labels;
+
+    private Entry(PipelineInfo info, PipelineState state) {
+      this.info = info;
+      this.state = state;
+      this.title = info.getTitle() != null ? info.getTitle() : info.getPipelineId();
+      this.lowerCaseTitle = title.toLowerCase();
+      this.labels = getLabels(info);
+    }
+  }
+
+  private final ConcurrentMap<String, Entry> entries;
+  private final ConcurrentMap<String, PipelineState> states;
+  private final Set<String> pendingStates;
+  private final Map<OrderBy, NavigableSet<Entry>> orders;
+  private final ConcurrentMap<String, Set<String>> labelIndex;
+  private final ConcurrentMap<String, Set<String>> trigramIndex;
+  private volatile StateLoader stateLoader;
+  // Number of entries with a state, i.e. of pipelines that are listed; only updated under the catalog lock
+  private volatile int listedCount;
+
+  public PipelineCatalog() {
+    entries = new ConcurrentHashMap<>();
+    states = new ConcurrentHashMap<>();
+    pendingStates = ConcurrentHashMap.newKeySet();
+    orders = new EnumMap<>(OrderBy.class);
+    for (OrderBy orderBy : OrderBy.values()) {
+      orders.put(orderBy, new ConcurrentSkipListSet<>(orderBy.comparator));
+    }
+    labelIndex = new ConcurrentHashMap<>();
+    trigramIndex = new ConcurrentHashMap<>();
+  }
+
+  public void setStateLoader(StateLoader stateLoader) {
+    this.stateLoader = stateLoader;
+  }
+
+  /**
+   * Whether the catalog can serve queries, e.g. whether pipeline state is tracked.
+   */
+  public boolean isQueryable() {
+    return stateLoader != null;
+  }
+
+  public synchronized void pipelineSaved(PipelineInfo info) {
+    String name = info.getPipelineId();
+    PipelineState state = states.get(name);
+    if (state == null) {
+      pendingStates.add(name);
+    }
+    replace(name, new Entry(info, state));
+  }
+
+  public synchronized void pipelineDeleted(String name) {
+    pendingStates.remove(name);
+    states.remove(name);
+    replace(name, null);
+  }
+
+  public synchronized void stateChanged(String name, PipelineState state) {
+    states.put(name, state);
+    pendingStates.remove(name);
+    Entry entry = entries.get(name);
+    if (entry != null) {
+      replace(name, new Entry(entry.info, state));
+    }
+  }
+
+  public synchronized void stateDeleted(String name) {
+    states.remove(name);
+    Entry entry = entries.get(name);
+    if (entry != null) {
+      pendingStates.add(name);
+      replace(name, new Entry(entry.info, null));
+    }
+  }
+
+  public synchronized void clear() {
+    entries.clear();
+    states.clear();
+    pendingStates.clear();
+    orders.values().forEach(Set::clear);
+    labelIndex.clear();
+    trigramIndex.clear();
+    listedCount = 0;
+  }
+
+  /**
+   * Returns one page of pipelines matching all given criteria.
+   *
+   * @param filterText Case insensitive substring of the pipeline title, empty or null for all pipelines
+   * @param label User label that the pipeline must have, null for all pipelines
+   * @param filter Any additional filter, pipeline state is never null here
+   * @param orderBy Order of the result
+   * @param descending Whether the order should be reversed
+   * @param offset Index of first pipeline to return
+   * @param len Maximal number of pipelines to return, -1 for all
+   */
+  public Page query(
+      String filterText,
+      String label,
+      BiPredicate<PipelineInfo, PipelineState> filter,
+      OrderBy orderBy,
+      boolean descending,
+      int offset,
+      int len
+  ) {
+    resolvePendingStates();
+
+    String text = filterText == null ? "" : filterText.toLowerCase();
+    Set<String> candidates = null;
+    if (label != null) {
+      candidates = labelIndex.getOrDefault(label, Collections.emptySet());
+    }
+    if (text.length() >= TRIGRAM) {
+      for (String trigram : getTrigrams(text)) {
+        Set<String> posting = trigramIndex.getOrDefault(trigram, Collections.emptySet());
+        if (candidates == null || posting.size() < candidates.size()) {
+          candidates = posting;
+        }
+      }
+    }
+
+    final Set<String> finalCandidates = candidates;
+    BiPredicate<Entry, Boolean> matches = (entry, viaCandidates) ->
+        entry.state != null
+        && (viaCandidates || finalCandidates == null || finalCandidates.contains(entry.info.getPipelineId()))
+        && (text.isEmpty() || entry.lowerCaseTitle.contains(text))
+        && (label == null || entry.labels.contains(label))
+        && (filter == null || filter.test(entry.info, entry.state));
+
+    int end = len < 0 ? Integer.MAX_VALUE : offset + len;
+    List<PipelineInfo> pipelines = new ArrayList<>();
+    List<PipelineState> pageStates = new ArrayList<>();
+    int totalCount = 0;
+
+    if (candidates != null && (long) candidates.size() * CANDIDATES_RATIO < entries.size()) {
+      List<Entry> matching = new ArrayList<>(candidates.size());
+      for (String name : candidates) {
+        Entry entry = entries.get(name);
+        if (entry != null && matches.test(entry, true)) {
+          matching.add(entry);
+        }
+      }
+      matching.sort(descending ? orderBy.comparator.reversed() : orderBy.comparator);
+      totalCount = matching.size();
+      for (int i = offset; i < Math.min(end, totalCount); i++) {
+        pipelines.add(matching.get(i).info);
+        pageStates.add(matching.get(i).state);
+      }
+    } else if (candidates == null && text.isEmpty() && filter == null) {
+      // Nothing to filter on, the total is known upfront and the walk can stop at the end of the page
+      NavigableSet<Entry> sorted = orders.get(orderBy);
+      int index = 0;
+      for (Entry entry : descending ? sorted.descendingSet() : sorted) {
+        if (index >= end) {
+          break;
+        }
+        if (entry.state != null) {
+          if (index >= offset) {
+            pipelines.add(entry.info);
+            pageStates.add(entry.state);
+          }
+          index++;
+        }
+      }
+      totalCount = listedCount;
+    } else {
+      NavigableSet<Entry> sorted = orders.get(orderBy);
+      for (Entry entry : descending ? sorted.descendingSet() : sorted) {
+        if (matches.test(entry, false)) {
+          if (totalCount >= offset && totalCount < end) {
+            pipelines.add(entry.info);
+            pageStates.add(entry.state);
+          }
+          totalCount++;
+        }
+      }
+    }
+
+    return new Page(pipelines, pageStates, totalCount);
+  }
+
+  @VisibleForTesting
+  int size() {
+    return entries.size();
+  }
+
+  @VisibleForTesting
+  int getListedCount() {
+    return listedCount;
+  }
+
+  /**
+   * Loads state for pipelines that were added without one. State store events are authoritative, so a loaded state is
+   * only used if no event arrived while it was being loaded.
+   */
+  private void resolvePendingStates() {
+    StateLoader loader = stateLoader;
+    if (loader == null || pendingStates.isEmpty()) {
+      return;
+    }
+    for (String name : new ArrayList<>(pendingStates)) {
+      Entry entry = entries.get(name);
+      if (entry == null) {
+        continue;
+      }
+      try {
+        PipelineState state = loader.load(name, entry.info.getLastRev());
+        synchronized (this) {
+          Entry current = entries.get(name);
+          if (current != null && pendingStates.remove(name)) {
+            states.put(name, state);
+            replace(name, new Entry(current.info, state));
+          }
+        }
+      } catch (Exception e) {
+        // Same as before this index existed, pipelines without state are not listed
+        LOG.error("State file not found for pipeline {}", entry.title, e);
+        synchronized (this) {
+          pendingStates.remove(name);
+        }
+      }
+    }
+  }
+
+  private void replace(String name, Entry entry) {
+    Entry previous = entry == null ? entries.remove(name) : entries.put(name, entry);
+    int listed = listedCount;
+    if (previous != null && previous.state != null) {
+      listed--;
+    }
+    if (entry != null && entry.state != null) {
+      listed++;
+    }
+    listedCount = listed;
+    if (previous != null) {
+      for (NavigableSet<Entry> order : orders.values()) {
+        order.remove(previous);
+      }
+      for (String label : previous.labels) {
+        removeFromIndex(labelIndex, label, name);
+      }
+      for (String trigram : getTrigrams(previous.lowerCaseTitle)) {
+        removeFromIndex(trigramIndex, trigram, name);
+      }
+    }
+    if (entry != null) {
+      for (NavigableSet<Entry> order : orders.values()) {
+        order.add(entry);
+      }
+      for (String label : entry.labels) {
+        labelIndex.computeIfAbsent(label, k -> ConcurrentHashMap.newKeySet()).add(name);
+      }
+      for (String trigram : getTrigrams(entry.lowerCaseTitle)) {
+        trigramIndex.computeIfAbsent(trigram, k -> ConcurrentHashMap.newKeySet()).add(name);
+      }
+    }
+  }
+
+  private static void removeFromIndex(ConcurrentMap<String, Set<String>> index, String key, String name) {
+    Set<String> names = index.get(key);
+    if (names != null) {
+      names.remove(name);
+      if (names.isEmpty()) {
+        index.remove(key);
+      }
+    }
+  }
+
+  private static Set<String> getTrigrams(String text) {
+    Set<String> trigrams = new HashSet<>();
+    for (int i = 0; i + TRIGRAM <= text.length(); i++) {
+      trigrams.add(text.substring(i, i + TRIGRAM));
+    }
+    return trigrams;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<String> getLabels(PipelineInfo info) {
+    Map<String, Object> metadata = info.getMetadata();
+    if (metadata != null && metadata.get(LABELS) instanceof List) {
+      return new ArrayList<>((List<String>) metadata.get(LABELS));
+    }
+    return Collections.emptyList();
+  }
+}
@@ -86,6 +86,13 @@ public interface PipelineStoreTask extends Task {
 
   void registerStateListener(StateEventListener stateListener);
 
+  /**
+   * Register listener that is notified whenever a pipeline is saved or deleted, stores that don't support it ignore the
+   * listener.
+   */
+  default void registerChangeListener(PipelineChangeListener changeListener) {
+  }
+
   PipelineFragmentConfiguration createPipelineFragment(
       String user,
       String pipelineId,
@@ -98,4 +105,11 @@ public interface PipelineStoreTask extends Task {
 
   PipelineEnvelopeJson loadSamplePipeline(String samplePipelineId) throws PipelineException;
 
+  /**
+   * Returns index of all pipelines that can be used to serve pipeline listing, null if this store doesn't maintain one.
+   */
+  default PipelineCatalog getCatalog() {
+    return null;
+  }
+
 }
@@ -62,6 +62,11 @@ public class StatsCollectorPipelineStoreTask implements PipelineStoreTask {
     return store.getPipelines();
   }
 
+  @Override
+  public PipelineCatalog getCatalog() {
+    return store.getCatalog();
+  }
+
   @Override
   public PipelineInfo getInfo(String name) throws PipelineException {
     return store.getInfo(name);
@@ -139,6 +144,11 @@ public class StatsCollectorPipelineStoreTask implements PipelineStoreTask {
     store.registerStateListener(stateListener);
   }
 
+  @Override
+  public void registerChangeListener(PipelineChangeListener changeListener) {
+    store.registerChangeListener(changeListener);
+  }
+
   @Override
   public PipelineFragmentConfiguration createPipelineFragment(
       String user,
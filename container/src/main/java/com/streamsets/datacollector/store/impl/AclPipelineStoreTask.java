@@ -25,6 +25,7 @@ import com.streamsets.datacollector.execution.StateEventListener;
 import com.streamsets.datacollector.restapi.bean.PipelineEnvelopeJson;
 import com.streamsets.datacollector.restapi.bean.UserJson;
 import com.streamsets.datacollector.store.AclStoreTask;
+import com.streamsets.datacollector.store.PipelineChangeListener;
 import com.streamsets.datacollector.store.PipelineInfo;
 import com.streamsets.datacollector.store.PipelineRevInfo;
 import com.streamsets.datacollector.store.PipelineStoreException;
@@ -204,6 +205,11 @@ public class AclPipelineStoreTask implements PipelineStoreTask {
     pipelineStore.registerStateListener(stateListener);
   }
 
+  @Override
+  public void registerChangeListener(PipelineChangeListener changeListener) {
+    pipelineStore.registerChangeListener(changeListener);
+  }
+
   @Override
   public boolean isRemotePipeline(String name, String rev) throws PipelineStoreException {
     return pipelineStore.isRemotePipeline(name, rev);
@@ -213,16 +219,20 @@ public class AclPipelineStoreTask implements PipelineStoreTask {
     return Collections2.filter(pipelineStore.getPipelines(), new Predicate<PipelineInfo>() {
       @Override
       public boolean apply(PipelineInfo pipelineInfo) {
-        try {
-          return aclStore.isPermissionGranted(pipelineInfo.getPipelineId(), EnumSet.of(Action.READ), currentUser);
-        } catch (PipelineException e) {
-          LOG.warn("Failed to validate ACL");
-        }
-        return false;
+        return isReadPermitted(pipelineInfo);
       }
     });
   }
 
+  public boolean isReadPermitted(PipelineInfo pipelineInfo) {
+    try {
+      return aclStore.isPermissionGranted(pipelineInfo.getPipelineId(), EnumSet.of(Action.READ), currentUser);
+    } catch (PipelineException e) {
+      LOG.warn("Failed to validate ACL");
+    }
+    return false;
+  }
+
   @Override
   public PipelineFragmentConfiguration createPipelineFragment(
       String user,
@@ -21,6 +21,8 @@ import com.streamsets.datacollector.config.PipelineFragmentConfiguration;
 import com.streamsets.datacollector.config.RuleDefinitions;
 import com.streamsets.datacollector.execution.StateEventListener;
 import com.streamsets.datacollector.restapi.bean.PipelineEnvelopeJson;
+import com.streamsets.datacollector.store.PipelineCatalog;
+import com.streamsets.datacollector.store.PipelineChangeListener;
 import com.streamsets.datacollector.store.PipelineInfo;
 import com.streamsets.datacollector.store.PipelineRevInfo;
 import com.streamsets.datacollector.store.PipelineStoreException;
@@ -29,6 +31,8 @@ import com.streamsets.datacollector.util.ContainerError;
 import com.streamsets.datacollector.util.LockCache;
 import com.streamsets.datacollector.util.PipelineException;
 import com.streamsets.pipeline.api.impl.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
 import java.util.ArrayList;
@@ -37,19 +41,29 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class CachePipelineStoreTask implements PipelineStoreTask {
+  private static final Logger LOG = LoggerFactory.getLogger(CachePipelineStoreTask.class);
 
   private final PipelineStoreTask pipelineStore;
   private final ConcurrentMap<String, PipelineInfo> pipelineInfoMap;
   private final LockCache<String> lockCache;
+  private final PipelineCatalog catalog;
+  private final List<PipelineChangeListener> changeListeners;
   private List<PipelineInfo> samplePipelines;
 
-  @Inject
   public CachePipelineStoreTask(PipelineStoreTask pipelineStore, LockCache<String> lockCache) {
+    this(pipelineStore, lockCache, new PipelineCatalog());
+  }
+
+  @Inject
+  public CachePipelineStoreTask(PipelineStoreTask pipelineStore, LockCache<String> lockCache, PipelineCatalog catalog) {
     this.pipelineStore = pipelineStore;
     pipelineInfoMap = new ConcurrentHashMap<>();
     this.lockCache = lockCache;
+    this.catalog = catalog;
+    this.changeListeners = new CopyOnWriteArrayList<>();
   }
 
   @Override
@@ -63,6 +77,7 @@ public class CachePipelineStoreTask implements PipelineStoreTask {
     try {
       for (PipelineInfo info: pipelineStore.getPipelines()) {
         pipelineInfoMap.put(info.getPipelineId(), info);
+        catalog.pipelineSaved(info);
       }
       samplePipelines = pipelineStore.getSamplePipelines();
     } catch (PipelineStoreException e) {
@@ -84,6 +99,7 @@ public class CachePipelineStoreTask implements PipelineStoreTask {
   public void stop() {
     pipelineStore.stop();
     pipelineInfoMap.clear();
+    catalog.clear();
   }
 
   @Override
@@ -106,6 +122,7 @@ public class CachePipelineStoreTask implements PipelineStoreTask {
           .create(user, pipelineId, pipelineTitle, description, isRemote, draft, metadata);
       if (!draft) {
         pipelineInfoMap.put(pipelineConf.getInfo().getPipelineId(), pipelineConf.getInfo());
+        catalog.pipelineSaved(pipelineConf.getInfo());
       }
       return pipelineConf;
     }
@@ -116,7 +133,9 @@ public class CachePipelineStoreTask implements PipelineStoreTask {
     synchronized (lockCache.getLock(name)) {
       pipelineStore.delete(name);
       pipelineInfoMap.remove(name);
+      catalog.pipelineDeleted(name);
     }
+    pipelineChanged(name);
   }
 
   @Override
@@ -124,6 +143,11 @@ public class CachePipelineStoreTask implements PipelineStoreTask {
     return Collections.unmodifiableList(new ArrayList<>(pipelineInfoMap.values()));
   }
 
+  @Override
+  public PipelineCatalog getCatalog() {
+    return catalog;
+  }
+
   @Override
   public PipelineInfo getInfo(String name) throws PipelineStoreException {
     PipelineInfo pipelineInfo = pipelineInfoMap.get(name);
@@ -142,11 +166,14 @@ public class CachePipelineStoreTask implements PipelineStoreTask {
   @Override
   public PipelineConfiguration save(String user, String name, String tag, String tagDescription,
     PipelineConfiguration pipeline, boolean encryptCredentials) throws PipelineException {
+    PipelineConfiguration pipelineConf;
     synchronized (lockCache.getLock(name)) {
-      PipelineConfiguration pipelineConf = pipelineStore.save(user, name, tag, tagDescription, pipeline, encryptCredentials);
+      pipelineConf = pipelineStore.save(user, name, tag, tagDescription, pipeline, encryptCredentials);
       pipelineInfoMap.put(name, pipelineConf.getInfo());
-      return pipelineConf;
+      catalog.pipelineSaved(pipelineConf.getInfo());
     }
+    pipelineChanged(name);
+    return pipelineConf;
   }
 
   @Override
@@ -199,6 +226,7 @@ public class CachePipelineStoreTask implements PipelineStoreTask {
     synchronized (lockCache.getLock(name)) {
       PipelineConfiguration pipelineConf = pipelineStore.saveMetadata(user, name, rev, metadata);
       pipelineInfoMap.put(name, pipelineConf.getInfo());
+      catalog.pipelineSaved(pipelineConf.getInfo());
       return pipelineConf;
     }
   }
@@ -208,6 +236,21 @@ public class CachePipelineStoreTask implements PipelineStoreTask {
     pipelineStore.registerStateListener(stateListener);
   }
 
+  @Override
+  public void registerChangeListener(PipelineChangeListener changeListener) {
+    changeListeners.add(changeListener);
+  }
+
+  private void pipelineChanged(String name) {
+    for (PipelineChangeListener changeListener : changeListeners) {
+      try {
+        changeListener.onPipelineChange(name);
+      } catch (RuntimeException e) {
+        LOG.warn("Pipeline change listener failed for pipeline '{}': {}", name, e.toString(), e);
+      }
+    }
+  }
+
   @Override
   public boolean isRemotePipeline(String name, String rev) throws PipelineStoreException {
     return pipelineStore.isRemotePipeline(name, rev);
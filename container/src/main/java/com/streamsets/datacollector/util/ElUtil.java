@@ -15,6 +15,11 @@
  */
 package com.streamsets.datacollector.util;
 
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.streamsets.datacollector.config.ConfigDefinition;
 import com.streamsets.datacollector.credential.ClearCredentialValue;
 import com.streamsets.datacollector.definition.ConcreteELDefinitionExtractor;
@@ -29,6 +34,7 @@ import com.streamsets.pipeline.lib.el.StringEL;
 
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -37,6 +43,20 @@ public class ElUtil {
   private static final String EL_PREFIX = "${";
   private static final String CONSTANTS = "constants";
 
+  /**
+   * Evaluators for implicit EL configs without pipeline constants. Creating an evaluator walks all methods and fields
+   * of the config's EL definition classes, so it's done once per config definition, and every evaluation only copies
+   * it with the pipeline constants. Weak keys drop the evaluators together with the stage library definitions.
+   */
+  private static final LoadingCache<ConfigDefinition, ELEvaluator> IMPLICIT_EVALUATORS = CacheBuilder.newBuilder()
+      .weakKeys()
+      .build(new CacheLoader<ConfigDefinition, ELEvaluator>() {
+        @Override
+        public ELEvaluator load(ConfigDefinition configDefinition) {
+          return createElEval(configDefinition.getName(), Collections.emptyMap(), getElDefs(configDefinition));
+        }
+      });
+
   private ElUtil() {}
 
   public static Object evaluate(
@@ -48,7 +68,7 @@ public class ElUtil {
     if(configDefinition.getEvaluation() == ConfigDef.Evaluation.IMPLICIT) {
       if(isElString(value)) {
         //its an EL expression, try to evaluate it.
-        ELEvaluator elEvaluator = createElEval(configDefinition.getName(), constants, getElDefs(configDefinition));
+        ELEvaluator elEvaluator = new ELEvaluator(getImplicitEvaluator(configDefinition), constants);
         Type genericType = configDefinition.getConfigField().getGenericType();
         Class<?> klass;
         if(genericType instanceof ParameterizedType) {
@@ -83,6 +103,16 @@ public class ElUtil {
     return value;
   }
 
+  private static ELEvaluator getImplicitEvaluator(ConfigDefinition configDefinition) {
+    try {
+      return IMPLICIT_EVALUATORS.getUnchecked(configDefinition);
+    } catch (UncheckedExecutionException ex) {
+      // invalid EL definitions fail the same way as when the evaluator is created directly
+      Throwables.propagateIfPossible(ex.getCause());
+      throw ex;
+    }
+  }
+
   public static boolean isElString(Object value) {
     if(value instanceof String && ((String) value).contains(EL_PREFIX)) {
       return true;
@@ -21,9 +21,26 @@ import java.util.Queue;
 
 public class MetricsWebSocket extends BaseWebSocket implements MetricsEventListener {
   public static final String TYPE = "metrics";
+  public static final String DELTA_PARAM = "delta";
+
+  private final boolean deltaEncoded;
 
   public MetricsWebSocket(ListenerManager<MetricsEventListener> listenerManager, Queue<WebSocketMessage> queue) {
+    this(listenerManager, queue, false);
+  }
+
+  public MetricsWebSocket(
+      ListenerManager<MetricsEventListener> listenerManager,
+      Queue<WebSocketMessage> queue,
+      boolean deltaEncoded
+  ) {
     super(TYPE, listenerManager, queue);
+    this.deltaEncoded = deltaEncoded;
+  }
+
+  @Override
+  public boolean isDeltaEncoded() {
+    return deltaEncoded;
   }
 
 }
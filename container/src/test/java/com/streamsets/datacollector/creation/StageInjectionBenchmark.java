@@ -0,0 +1,195 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.creation;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.streamsets.datacollector.config.ConfigDefinition;
+import com.streamsets.datacollector.config.ConnectionConfiguration;
+import com.streamsets.datacollector.config.StageDefinition;
+import com.streamsets.datacollector.config.StageLibraryDefinition;
+import com.streamsets.datacollector.definition.StageDefinitionExtractor;
+import com.streamsets.datacollector.el.ELEvaluator;
+import com.streamsets.datacollector.el.ELVariables;
+import com.streamsets.datacollector.util.ElUtil;
+import com.streamsets.datacollector.validation.Issue;
+import com.streamsets.pipeline.api.BatchMaker;
+import com.streamsets.pipeline.api.ConfigDef;
+import com.streamsets.pipeline.api.ConfigDefBean;
+import com.streamsets.pipeline.api.ErrorCode;
+import com.streamsets.pipeline.api.StageDef;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.api.base.BaseSource;
+import com.streamsets.testing.MicroBenchmark;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cost of injecting the configuration of a stage instance, as done for every stage of every runner and preview, and
+ * of evaluating an implicit EL config with a new evaluator per evaluation compared to {@link ElUtil#evaluate}.
+ * Runs with the benchmark profile only.
+ */
+public class StageInjectionBenchmark {
+  private static final int INSTANCES = 10_000;
+
+  private static final Map<String, Object> CONSTANTS = ImmutableMap.of("HOST", "localhost", "PORT", 9000);
+  private static final Map<String, Object> VALUES = ImmutableMap.<String, Object>builder()
+      .put("host", "${str:toUpper(HOST)}")
+      .put("port", "${PORT}")
+      .put("topics", ImmutableList.of("a", "b", "c"))
+      .put("bean.timeout", "${PORT * 2}")
+      .put("bean.user", "sdc")
+      .build();
+
+  public static class Bean {
+    @ConfigDef(label = "L", type = ConfigDef.Type.NUMBER, defaultValue = "1000", required = true)
+    public int timeout;
+
+    @ConfigDef(label = "L", type = ConfigDef.Type.STRING, required = true)
+    public String user;
+
+    @ConfigDef(label = "L", type = ConfigDef.Type.STRING, defaultValue = "default", required = false)
+    public String role;
+  }
+
+  @StageDef(version = 1, label = "L", onlineHelpRefUrl = "")
+  public static class BenchmarkSource extends BaseSource {
+    @ConfigDef(label = "L", type = ConfigDef.Type.STRING, required = true)
+    public String host;
+
+    @ConfigDef(label = "L", type = ConfigDef.Type.NUMBER, required = true)
+    public int port;
+
+    @ConfigDef(label = "L", type = ConfigDef.Type.NUMBER, defaultValue = "1000", required = true)
+    public int batchSize;
+
+    @ConfigDef(label = "L", type = ConfigDef.Type.LIST, required = true)
+    public List<String> topics;
+
+    @ConfigDef(label = "L", type = ConfigDef.Type.MAP, defaultValue = "{\"a\" : \"1\"}", required = false)
+    public Map<String, String> properties;
+
+    @ConfigDefBean
+    public Bean bean;
+
+    @Override
+    public String produce(String lastSourceOffset, int maxBatchSize, BatchMaker batchMaker) throws StageException {
+      return null;
+    }
+  }
+
+  private static StageDefinition stageDef;
+
+  @BeforeClass
+  public static void setUp() {
+    StageLibraryDefinition libraryDef = Mockito.mock(StageLibraryDefinition.class);
+    Mockito.when(libraryDef.getClassLoader()).thenReturn(Thread.currentThread().getContextClassLoader());
+    stageDef = StageDefinitionExtractor.get().extract(libraryDef, BenchmarkSource.class, "");
+  }
+
+  @Test
+  public void benchmarkStageInjection() throws Exception {
+    ConfigInjector.Context context = new BenchmarkContext();
+    BenchmarkSource injected = new BenchmarkSource();
+    ConfigInjector.get().injectConfigsToObject(injected, context);
+    Assert.assertEquals("LOCALHOST", injected.host);
+    Assert.assertEquals(18000, injected.bean.timeout);
+
+    new MicroBenchmark("Stage injection", INSTANCES).measure("injectConfigsToObject", () -> {
+      BenchmarkSource stage = null;
+      for (int i = 0; i < INSTANCES; i++) {
+        stage = new BenchmarkSource();
+        ConfigInjector.get().injectConfigsToObject(stage, context);
+      }
+      return stage;
+    });
+  }
+
+  @Test
+  public void benchmarkImplicitEl() throws Exception {
+    ConfigDefinition configDef = stageDef.getConfigDefinition("host");
+    String el = (String) VALUES.get("host");
+
+    MicroBenchmark benchmark = new MicroBenchmark("Implicit EL evaluation", INSTANCES);
+    benchmark.measure("new evaluator per evaluation", () -> {
+      Object value = null;
+      for (int i = 0; i < INSTANCES; i++) {
+        ELEvaluator evaluator = ElUtil.createElEval(configDef.getName(), CONSTANTS, ElUtil.getElDefs(configDef));
+        value = evaluator.eval(new ELVariables(CONSTANTS), el, String.class);
+      }
+      return value;
+    });
+    benchmark.measure("ElUtil.evaluate", () -> {
+      Object value = null;
+      for (int i = 0; i < INSTANCES; i++) {
+        value = ElUtil.evaluate("benchmark", el, configDef, CONSTANTS);
+      }
+      return value;
+    });
+  }
+
+  private static class BenchmarkContext implements ConfigInjector.Context {
+    @Override
+    public ConfigDefinition getConfigDefinition(String configName) {
+      return stageDef.getConfigDefinition(configName);
+    }
+
+    @Override
+    public Object getConfigValue(String configName) {
+      return VALUES.get(configName);
+    }
+
+    @Override
+    public void createIssue(ErrorCode error, Object... args) {
+      Assert.fail("Unexpected issue " + error.getCode());
+    }
+
+    @Override
+    public void createIssue(String configGroup, String configName, ErrorCode error, Object... args) {
+      Assert.fail("Unexpected issue " + error.getCode() + " for " + configName);
+    }
+
+    @Override
+    public void addIssues(List<Issue> issues) {
+      Assert.assertTrue(issues.isEmpty());
+    }
+
+    @Override
+    public String errorDescription() {
+      return "Stage 'benchmark'";
+    }
+
+    @Override
+    public Map<String, Object> getPipelineConstants() {
+      return CONSTANTS;
+    }
+
+    @Override
+    public Map<String, ConnectionConfiguration> getConnections() {
+      return null;
+    }
+
+    @Override
+    public String getUser() {
+      return null;
+    }
+  }
+}
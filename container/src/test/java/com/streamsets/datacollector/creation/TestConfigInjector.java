@@ -58,6 +58,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 @SuppressWarnings("unchecked")
 public class TestConfigInjector {
@@ -914,4 +915,28 @@ public class TestConfigInjector {
         "Encountered error when trying to extract ID: java.lang.NoSuchFieldException: doesNotExist"
     );
   }
+
+  @Test
+  public void testInjectionPlan() {
+    ConfigInjectionPlan plan = ConfigInjectionPlan.get(MySource.class, "");
+    Assert.assertSame(plan, ConfigInjectionPlan.get(MySource.class, ""));
+
+    Map<String, ConfigInjectionPlan.FieldPlan> fields = plan.getFields().stream()
+        .collect(Collectors.toMap(ConfigInjectionPlan.FieldPlan::getConfigName, f -> f));
+    Assert.assertTrue(fields.get("connectionSelection").isConnectionTypeConfig());
+    Assert.assertNotNull(fields.get("myConnection").getConnectionDef());
+    Assert.assertTrue(fields.get("bean").isConfigDefBean());
+    Assert.assertEquals("bean.", fields.get("bean").getBeanPrefix());
+    Assert.assertTrue(fields.get("intValue").isConfigDef());
+    Assert.assertFalse(fields.get("intValue").isConfigDefBean());
+
+    // Same class used with different prefix has it's own plan
+    ConfigInjectionPlan beanPlan = ConfigInjectionPlan.get(Bean.class, "bean.");
+    Assert.assertNotSame(beanPlan, ConfigInjectionPlan.get(Bean.class, "other."));
+    Assert.assertEquals(
+        ImmutableList.of("bean.beanInt", "bean.beanSubBean"),
+        beanPlan.getFields().stream().map(ConfigInjectionPlan.FieldPlan::getConfigName).sorted()
+            .collect(Collectors.toList())
+    );
+  }
 }
@@ -24,6 +24,7 @@ import com.streamsets.datacollector.execution.PreviewStatus;
 import com.streamsets.datacollector.execution.Previewer;
 import com.streamsets.datacollector.execution.PreviewerListener;
 import com.streamsets.datacollector.execution.RawPreview;
+import com.streamsets.datacollector.execution.preview.common.PreviewSessionCache;
 import com.streamsets.datacollector.execution.preview.sync.SyncPreviewer;
 import com.streamsets.datacollector.lineage.LineagePublisherTask;
 import com.streamsets.datacollector.main.BuildInfo;
@@ -55,6 +56,7 @@ import com.streamsets.pipeline.api.base.SingleLaneRecordProcessor;
 import dagger.Module;
 import dagger.ObjectGraph;
 import dagger.Provides;
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -84,6 +86,7 @@ public abstract class TestPreviewer {
   protected StageLibraryTask stageLibrary;
   protected PipelineStoreTask pipelineStore;
   protected ObjectGraph objectGraph;
+  protected PreviewSessionCache previewSessionCache;
 
   @Module(
     injects = {
@@ -95,7 +98,8 @@ public abstract class TestPreviewer {
       SyncPreviewer.class,
       BlobStoreTask.class,
       LineagePublisherTask.class,
-      StatsCollector.class
+      StatsCollector.class,
+      PreviewSessionCache.class
     },
     library = true
   )
@@ -152,6 +156,12 @@ public abstract class TestPreviewer {
       return Mockito.mock(BlobStoreTask.class);
     }
 
+    @Provides
+    @Singleton
+    public PreviewSessionCache providesPreviewSessionCache(Configuration configuration) {
+      return new PreviewSessionCache(configuration);
+    }
+
   }
 
   //Mock Error Code implementation
@@ -203,7 +213,14 @@ public abstract class TestPreviewer {
     configuration = objectGraph.get(Configuration.class);
     stageLibrary = objectGraph.get(StageLibraryTask.class);
     pipelineStore = objectGraph.get(PipelineStoreTask.class);
+    previewSessionCache = objectGraph.get(PreviewSessionCache.class);
+    previewSessionCache.init();
+    previewSessionCache.run();
+  }
 
+  @After
+  public void tearDown() {
+    previewSessionCache.stop();
   }
 
   protected abstract Previewer createPreviewer();
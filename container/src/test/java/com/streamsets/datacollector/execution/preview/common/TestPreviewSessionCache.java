@@ -0,0 +1,111 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.execution.preview.common;
+
+import com.streamsets.datacollector.execution.runner.common.PipelineStopReason;
+import com.streamsets.datacollector.runner.preview.PreviewPipeline;
+import com.streamsets.datacollector.util.Configuration;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Collections;
+
+public class TestPreviewSessionCache {
+
+  private PreviewSessionCache cache;
+
+  @Before
+  public void setUp() {
+    Configuration configuration = new Configuration();
+    configuration.set(PreviewSessionCache.MAX_SESSIONS_KEY, 2);
+    cache = new PreviewSessionCache(configuration);
+    cache.init();
+    cache.run();
+  }
+
+  @After
+  public void tearDown() {
+    cache.stop();
+  }
+
+  private static PreviewSessionCache.Session createSession(PreviewPipeline pipeline, long expiresAt) {
+    return new PreviewSessionCache.Session("origin", "all", Collections.emptyList(), pipeline, expiresAt);
+  }
+
+  @Test
+  public void testTakeAndPut() throws Exception {
+    PreviewPipeline pipeline = Mockito.mock(PreviewPipeline.class);
+    PreviewSessionCache.Session session = createSession(pipeline, Long.MAX_VALUE);
+
+    cache.put("p1", "0", "user", session);
+    Assert.assertNull(cache.take("p1", "0", "other"));
+    Assert.assertSame(session, cache.take("p1", "0", "user"));
+    Assert.assertNull(cache.take("p1", "0", "user"));
+    Mockito.verify(pipeline, Mockito.never()).destroy(Mockito.any(PipelineStopReason.class));
+  }
+
+  @Test
+  public void testExpiredSession() throws Exception {
+    PreviewPipeline pipeline = Mockito.mock(PreviewPipeline.class);
+    cache.put("p1", "0", "user", createSession(pipeline, System.currentTimeMillis() - 1));
+
+    Assert.assertNull(cache.take("p1", "0", "user"));
+    Mockito.verify(pipeline).destroy(PipelineStopReason.FINISHED);
+  }
+
+  @Test
+  public void testMaxSessions() throws Exception {
+    PreviewPipeline pipeline1 = Mockito.mock(PreviewPipeline.class);
+    PreviewPipeline pipeline2 = Mockito.mock(PreviewPipeline.class);
+    PreviewPipeline pipeline3 = Mockito.mock(PreviewPipeline.class);
+
+    cache.put("p1", "0", "user", createSession(pipeline1, Long.MAX_VALUE));
+    cache.put("p2", "0", "user", createSession(pipeline2, Long.MAX_VALUE));
+    // The least recently used session is evicted
+    cache.put("p1", "0", "user", cache.take("p1", "0", "user"));
+    cache.put("p3", "0", "user", createSession(pipeline3, Long.MAX_VALUE));
+
+    Mockito.verify(pipeline2).destroy(PipelineStopReason.FINISHED);
+    Assert.assertNull(cache.take("p2", "0", "user"));
+    Assert.assertNotNull(cache.take("p1", "0", "user"));
+    Assert.assertNotNull(cache.take("p3", "0", "user"));
+  }
+
+  @Test
+  public void testInvalidate() throws Exception {
+    PreviewPipeline pipeline1 = Mockito.mock(PreviewPipeline.class);
+    PreviewPipeline pipeline2 = Mockito.mock(PreviewPipeline.class);
+    cache.put("p1", "0", "user", createSession(pipeline1, Long.MAX_VALUE));
+    cache.put("p2", "0", "user", createSession(pipeline2, Long.MAX_VALUE));
+
+    cache.invalidate("p1");
+    Mockito.verify(pipeline1).destroy(PipelineStopReason.FINISHED);
+    Mockito.verify(pipeline2, Mockito.never()).destroy(Mockito.any(PipelineStopReason.class));
+    Assert.assertNull(cache.take("p1", "0", "user"));
+
+    // Stopped cache destroys all remaining sessions and doesn't take any new ones
+    cache.stop();
+    Mockito.verify(pipeline2).destroy(PipelineStopReason.FINISHED);
+
+    PreviewPipeline pipeline3 = Mockito.mock(PreviewPipeline.class);
+    cache.put("p3", "0", "user", createSession(pipeline3, Long.MAX_VALUE));
+    Mockito.verify(pipeline3).destroy(PipelineStopReason.FINISHED);
+    Assert.assertNull(cache.take("p3", "0", "user"));
+  }
+}
@@ -15,20 +15,38 @@
  */
 package com.streamsets.datacollector.execution.preview.sync;
 
+import com.streamsets.datacollector.config.PipelineConfiguration;
+import com.streamsets.datacollector.execution.PreviewOutput;
 import com.streamsets.datacollector.execution.Previewer;
 import com.streamsets.datacollector.execution.preview.TestPreviewer;
+import com.streamsets.datacollector.execution.preview.common.PreviewSessionCache;
 import com.streamsets.datacollector.execution.runner.common.PipelineStopReason;
+import com.streamsets.datacollector.runner.MockStages;
 import com.streamsets.datacollector.runner.Pipeline;
+import com.streamsets.datacollector.runner.StageOutput;
 import com.streamsets.datacollector.runner.preview.PreviewPipeline;
 import com.streamsets.datacollector.runner.preview.PreviewPipelineRunner;
 import com.streamsets.datacollector.validation.Issue;
 import com.streamsets.datacollector.validation.Issues;
+import com.streamsets.pipeline.api.Batch;
+import com.streamsets.pipeline.api.BatchMaker;
+import com.streamsets.pipeline.api.Config;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.api.base.BaseSource;
+import com.streamsets.pipeline.api.base.BaseTarget;
+import com.streamsets.pipeline.api.base.SingleLaneRecordProcessor;
+import org.junit.Assert;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class TestSyncPreviewer extends TestPreviewer {
 
@@ -46,6 +64,103 @@ public class TestSyncPreviewer extends TestPreviewer {
     );
   }
 
+  @Test
+  public void testWarmPreviewSession() throws Exception {
+    configuration.set(PreviewSessionCache.SESSION_TTL_KEY, 60);
+    PipelineConfiguration pipelineConf = MockStages.createPipelineConfigurationSourceProcessorTarget();
+    Mockito.when(pipelineStore.load(Mockito.anyString(), Mockito.anyString())).thenReturn(pipelineConf);
+
+    AtomicInteger initialized = new AtomicInteger();
+    AtomicInteger produced = new AtomicInteger();
+    AtomicInteger destroyed = new AtomicInteger();
+    MockStages.setSourceCapture(new BaseSource() {
+      @Override
+      protected List<ConfigIssue> init() {
+        initialized.incrementAndGet();
+        return super.init();
+      }
+
+      @Override
+      public String produce(String lastSourceOffset, int maxBatchSize, BatchMaker batchMaker) throws StageException {
+        Record record = getContext().createRecord("x");
+        record.set(Field.create(produced.incrementAndGet()));
+        batchMaker.addRecord(record);
+        return "1";
+      }
+
+      @Override
+      public void destroy() {
+        destroyed.incrementAndGet();
+      }
+    });
+    MockStages.setProcessorCapture(new SingleLaneRecordProcessor() {
+      @Override
+      protected void process(Record record, SingleLaneBatchMaker batchMaker) throws StageException {
+        record.set(Field.create(record.get().getValueAsInteger() * 10));
+        batchMaker.addRecord(record);
+      }
+    });
+    MockStages.setTargetCapture(new BaseTarget() {
+      @Override
+      public void write(Batch batch) throws StageException {
+      }
+    });
+
+    for (int i = 0; i < 3; i++) {
+      Previewer previewer = createPreviewer();
+      previewer.start(2, 10, false, true, null, new ArrayList<StageOutput>(), 5000, false);
+
+      // Nothing changed, so the same pipeline runs again including the origin and each preview shows new data
+      PreviewOutput previewOutput = previewer.getOutput();
+      for (int batch = 0; batch < 2; batch++) {
+        List<StageOutput> output = previewOutput.getOutput().get(batch);
+        Assert.assertEquals(2 * i + batch + 1, output.get(0).getOutput().get("s").get(0).get().getValue());
+        Assert.assertEquals((2 * i + batch + 1) * 10, output.get(1).getOutput().get("p").get(0).get().getValue());
+      }
+    }
+
+    // Pipeline was never destroyed
+    Assert.assertEquals(1, initialized.get());
+    Assert.assertEquals(6, produced.get());
+    Assert.assertEquals(0, destroyed.get());
+
+    // Stage after origin changed, new pipeline replays the last origin output
+    pipelineConf.getErrorStage().addConfig(new Config("errorTargetConfName", "/SDC_HOME/otherErrorDir"));
+    Previewer previewer = createPreviewer();
+    previewer.start(2, 10, false, true, null, new ArrayList<StageOutput>(), 5000, false);
+    Assert.assertEquals(1, destroyed.get());
+    Assert.assertEquals(6, produced.get());
+    // Origin of the new pipeline is not initialized at all
+    Assert.assertEquals(1, initialized.get());
+    for (int batch = 0; batch < 2; batch++) {
+      List<StageOutput> output = previewer.getOutput().getOutput().get(batch);
+      Assert.assertEquals(5 + batch, output.get(0).getOutput().get("s").get(0).get().getValue());
+    }
+
+    // Pipeline created to replay the origin output keeps replaying it
+    previewer = createPreviewer();
+    previewer.start(2, 10, false, true, null, new ArrayList<StageOutput>(), 5000, false);
+    Assert.assertEquals(1, destroyed.get());
+    Assert.assertEquals(6, produced.get());
+    Assert.assertEquals(1, initialized.get());
+    for (int batch = 0; batch < 2; batch++) {
+      List<StageOutput> output = previewer.getOutput().getOutput().get(batch);
+      Assert.assertEquals(5 + batch, output.get(0).getOutput().get("s").get(0).get().getValue());
+      Assert.assertEquals((5 + batch) * 10, output.get(1).getOutput().get("p").get(0).get().getValue());
+    }
+
+    // Different preview parameters need new pipeline, but the origin can't be replayed either
+    previewer = createPreviewer();
+    previewer.start(1, 5, false, true, null, new ArrayList<StageOutput>(), 5000, false);
+    Assert.assertEquals(2, destroyed.get());
+    Assert.assertEquals(7, produced.get());
+    Assert.assertEquals(2, initialized.get());
+
+    // Saving or deleting the pipeline destroys its sessions
+    previewSessionCache.invalidate(NAME);
+    Assert.assertEquals(3, destroyed.get());
+  }
+
   @Test
   public void testDestroyNotCalledTwice() throws Exception {
     SyncPreviewer previewer = (SyncPreviewer)createPreviewer();
@@ -18,6 +18,7 @@ package com.streamsets.datacollector.execution.runner.common;
 import com.codahale.metrics.MetricRegistry;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Uninterruptibles;
 import com.streamsets.datacollector.blobstore.BlobStoreTask;
 import com.streamsets.datacollector.config.PipelineConfiguration;
 import com.streamsets.datacollector.creation.PipelineConfigBean;
@@ -86,12 +87,17 @@ import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Exchanger;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class TestProductionPipeline {
 
@@ -382,6 +388,16 @@ public class TestProductionPipeline {
   }
 
   private ProductionPipeline createProductionPipeline(DeliveryGuarantee deliveryGuarantee, boolean captureNextBatch, long rateLimit, PipelineType type) throws Exception {
+    return createProductionPipeline(deliveryGuarantee, captureNextBatch, rateLimit, type, new Configuration());
+  }
+
+  private ProductionPipeline createProductionPipeline(
+    DeliveryGuarantee deliveryGuarantee,
+    boolean captureNextBatch,
+    long rateLimit,
+    PipelineType type,
+    Configuration config
+  ) throws Exception {
     SourceOffsetTracker tracker = new TestUtil.SourceOffsetTrackerImpl(Collections.singletonMap(Source.POLL_SOURCE_OFFSET_KEY, "1"));
     SnapshotStore snapshotStore = Mockito.mock(FileSnapshotStore.class);
 
@@ -389,7 +405,6 @@ public class TestProductionPipeline {
         new SnapshotInfoImpl("user", "SNAPSHOT_NAME", "SNAPSHOT LABEL", PIPELINE_NAME, REVISION,
             System.currentTimeMillis(), false, 0, false));
     BlockingQueue<Object> productionObserveRequests = new ArrayBlockingQueue<>(100, true /* FIFO */);
-    Configuration config = new Configuration();
     ProductionPipelineRunner runner = new ProductionPipelineRunner(
       PIPELINE_NAME,
       REVISION,
@@ -454,6 +469,190 @@ public class TestProductionPipeline {
     return pipeline;
   }
 
+  private static class SequenceSource extends BaseSource {
+    public List<String> lastSourceOffsets = new ArrayList<>();
+    public int count;
+
+    @Override
+    public String produce(String lastSourceOffset, int maxBatchSize, BatchMaker batchMaker) throws StageException {
+      lastSourceOffsets.add(lastSourceOffset);
+      Record record = getContext().createRecord("s" + count);
+      record.set(Field.create(count));
+      batchMaker.addRecord(record);
+      return (++count < 5) ? "o::" + count : null;
+    }
+  }
+
+  private static class SequenceTarget extends BaseTarget {
+    public List<Integer> values = new ArrayList<>();
+    public int failOnBatch = -1;
+    public int batches;
+
+    @Override
+    public void write(Batch batch) throws StageException {
+      if (batches++ == failOnBatch) {
+        throw new StageException(TestErrors.ERROR_P);
+      }
+      Iterator<Record> it = batch.getRecords();
+      while (it.hasNext()) {
+        values.add(it.next().get().getValueAsInteger());
+      }
+    }
+  }
+
+  @Test
+  public void testProductionRunWithBatchesInFlight() throws Exception {
+    SequenceSource source = new SequenceSource();
+    MockStages.setSourceCapture(source);
+    SequenceTarget target = new SequenceTarget();
+    MockStages.setTargetCapture(target);
+
+    Configuration config = new Configuration();
+    config.set(Constants.MAX_BATCHES_IN_FLIGHT_KEY, 3);
+    ProductionPipeline pipeline = createProductionPipeline(DeliveryGuarantee.AT_LEAST_ONCE, false, -1L, PipelineType.DEFAULT, config);
+    pipeline.registerStatusListener(new MyStateListener());
+    pipeline.run();
+
+    // Origin is driven by the offsets it produced rather than by the committed ones
+    Assert.assertEquals(ImmutableList.of("1", "o::1", "o::2", "o::3", "o::4"), source.lastSourceOffsets);
+    // All batches written in order and final (null) offset committed
+    Assert.assertEquals(ImmutableList.of(0, 1, 2, 3, 4), target.values);
+    Assert.assertTrue(pipeline.getCommittedOffsets().isEmpty());
+  }
+
+  @Test
+  public void testProductionRunWithBatchesInFlightFailure() throws Exception {
+    SequenceSource source = new SequenceSource();
+    MockStages.setSourceCapture(source);
+    SequenceTarget target = new SequenceTarget();
+    target.failOnBatch = 2;
+    MockStages.setTargetCapture(target);
+
+    Configuration config = new Configuration();
+    config.set(Constants.MAX_BATCHES_IN_FLIGHT_KEY, 3);
+    ProductionPipeline pipeline = createProductionPipeline(DeliveryGuarantee.AT_LEAST_ONCE, false, -1L, PipelineType.DEFAULT, config);
+    pipeline.registerStatusListener(new MyStateListener());
+    try {
+      pipeline.run();
+      Assert.fail("Expected exception thrown by the pipeline");
+    } catch (Exception e) {
+      // Expected
+    }
+
+    // Nothing after the failed batch was written and the committed offset is the one of the last written batch
+    Assert.assertEquals(ImmutableList.of(0, 1), target.values);
+    Assert.assertEquals("o::2", lastCreatedRunner.getCommittedOffsets().get(Source.POLL_SOURCE_OFFSET_KEY));
+  }
+
+  private static class BlockingSequenceSource extends SequenceSource {
+    private final CountDownLatch writerFailed;
+
+    BlockingSequenceSource(CountDownLatch writerFailed) {
+      this.writerFailed = writerFailed;
+    }
+
+    @Override
+    public String produce(String lastSourceOffset, int maxBatchSize, BatchMaker batchMaker) throws StageException {
+      // Third batch is being produced while the writer fails the first one
+      if (count == 2 && !Uninterruptibles.awaitUninterruptibly(writerFailed, 10, TimeUnit.SECONDS)) {
+        throw new StageException(TestErrors.ERROR_S);
+      }
+      return super.produce(lastSourceOffset, maxBatchSize, batchMaker);
+    }
+  }
+
+  @Test
+  public void testProductionRunWithBatchesInFlightWriterFailsWhileProducing() throws Exception {
+    CountDownLatch writerFailed = new CountDownLatch(1);
+    BlockingSequenceSource source = new BlockingSequenceSource(writerFailed);
+    MockStages.setSourceCapture(source);
+    SequenceTarget target = new SequenceTarget() {
+      @Override
+      public void write(Batch batch) throws StageException {
+        try {
+          super.write(batch);
+        } finally {
+          writerFailed.countDown();
+        }
+      }
+    };
+    target.failOnBatch = 0;
+    MockStages.setTargetCapture(target);
+
+    Configuration config = new Configuration();
+    config.set(Constants.MAX_BATCHES_IN_FLIGHT_KEY, 3);
+    ProductionPipeline pipeline = createProductionPipeline(DeliveryGuarantee.AT_LEAST_ONCE, false, -1L, PipelineType.DEFAULT, config);
+    pipeline.registerStatusListener(new MyStateListener());
+    try {
+      pipeline.run();
+      Assert.fail("Expected exception thrown by the pipeline");
+    } catch (Exception e) {
+      // Expected
+    }
+
+    // Writer error stopped the origin, batches produced meanwhile were neither written nor committed
+    Assert.assertTrue(source.count >= 3 && source.count < 5);
+    Assert.assertEquals(1, target.batches);
+    Assert.assertTrue(target.values.isEmpty());
+    Assert.assertEquals("1", lastCreatedRunner.getCommittedOffsets().get(Source.POLL_SOURCE_OFFSET_KEY));
+  }
+
+  private static class HundredRecordsSource extends BaseSource {
+    public int count;
+
+    @Override
+    public String produce(String lastSourceOffset, int maxBatchSize, BatchMaker batchMaker) throws StageException {
+      for (int i = 0; i < 100; i++) {
+        Record record = getContext().createRecord("s" + count);
+        record.set(Field.create(count++));
+        batchMaker.addRecord(record);
+      }
+      return (count < 300) ? "o::" + count : null;
+    }
+  }
+
+  private static class ThreadTrackingProcessor extends BaseProcessor {
+    public Set<String> threads = ConcurrentHashMap.newKeySet();
+    public AtomicInteger batches = new AtomicInteger();
+
+    @Override
+    public void process(Batch batch, BatchMaker batchMaker) throws StageException {
+      threads.add(Thread.currentThread().getName());
+      batches.incrementAndGet();
+      Iterator<Record> it = batch.getRecords();
+      while (it.hasNext()) {
+        batchMaker.addRecord(it.next());
+      }
+    }
+  }
+
+  @Test
+  public void testProductionRunWithDataParallelRunners() throws Exception {
+    HundredRecordsSource source = new HundredRecordsSource();
+    MockStages.setSourceCapture(source);
+    ThreadTrackingProcessor processor = new ThreadTrackingProcessor();
+    MockStages.setProcessorCapture(processor);
+    SequenceTarget target = new SequenceTarget();
+    MockStages.setTargetCapture(target);
+
+    Configuration config = new Configuration();
+    config.set(Pipeline.DATA_PARALLEL_RUNNERS_CONFIG_KEY, 4);
+    ProductionPipeline pipeline = createProductionPipeline(DeliveryGuarantee.AT_LEAST_ONCE, false, -1L, PipelineType.DEFAULT, config);
+    pipeline.registerStatusListener(new MyStateListener());
+    pipeline.run();
+
+    // Each batch was processed in 4 parts, but destination got all of them at once and in the original order
+    Assert.assertEquals(12, processor.batches.get());
+    Assert.assertTrue(processor.threads.size() > 1);
+    Assert.assertEquals(3, target.batches);
+    List<Integer> expected = new ArrayList<>();
+    for (int i = 0; i < 300; i++) {
+      expected.add(i);
+    }
+    Assert.assertEquals(expected, target.values);
+    Assert.assertTrue(pipeline.getCommittedOffsets().isEmpty());
+  }
+
   private static class SourceValidateConfigFailureCapture implements Source {
     public int count;
     public String offset;
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.execution.runner.common;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.streamsets.datacollector.record.RecordImpl;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.impl.ErrorMessage;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+public class TestStageErrorRetention {
+
+  private File spillDir;
+
+  @Before
+  public void setUp() {
+    spillDir = new File("target", UUID.randomUUID().toString());
+  }
+
+  @After
+  public void tearDown() {
+    FileUtils.deleteQuietly(spillDir);
+  }
+
+  private static Record createRecord(int i, int size) {
+    Record record = new RecordImpl("s", "r" + i, null, null);
+    record.set(Field.create(ImmutableMap.of(
+        "i", Field.create(i),
+        "padding", Field.create(Strings.repeat("x", size))
+    )));
+    return record;
+  }
+
+  private static List<Integer> values(List<Record> records) {
+    return records.stream().map(r -> r.get("/i").getValueAsInteger()).collect(Collectors.toList());
+  }
+
+  private static void retain(StageErrorRetention retention, int from, int to, int size) {
+    List<Record> records = new ArrayList<>();
+    for (int i = from; i < to; i++) {
+      records.add(createRecord(i, size));
+    }
+    retention.retainErrorRecords(ImmutableMap.of("s", records));
+  }
+
+  @Test
+  public void testRetainsLastRecords() {
+    StageErrorRetention retention = new StageErrorRetention(3, 3, 1024 * 1024, null, 0);
+    retain(retention, 0, 5, 10);
+
+    List<Record> records = retention.getErrorRecords("s", 10);
+    Assert.assertEquals(ImmutableList.of(2, 3, 4), values(records));
+    Assert.assertEquals("r2", records.get(0).getHeader().getSourceId());
+    Assert.assertEquals(ImmutableList.of(2, 3), values(retention.getErrorRecords("s", 2)));
+    Assert.assertTrue(retention.getErrorRecords("unknown", 10).isEmpty());
+  }
+
+  @Test
+  public void testRetainsLastMessages() {
+    StageErrorRetention retention = new StageErrorRetention(3, 2, 1024 * 1024, null, 0);
+    retention.retainErrorMessages(ImmutableMap.of("s", ImmutableList.of(
+        new ErrorMessage("e1", "m1", 1),
+        new ErrorMessage("e2", "m2", 2),
+        new ErrorMessage("e3", "m3", 3)
+    )));
+
+    List<ErrorMessage> messages = retention.getErrorMessages("s", 10);
+    Assert.assertEquals(2, messages.size());
+    Assert.assertEquals("e2", messages.get(0).getErrorCode());
+    Assert.assertEquals("e3", messages.get(1).getErrorCode());
+  }
+
+  @Test
+  public void testMemoryBudgetWithoutSpill() {
+    StageErrorRetention retention = new StageErrorRetention(10, 10, 5000, null, 0);
+    retain(retention, 0, 10, 1000);
+
+    // Only the newest records fit into the budget
+    List<Integer> values = values(retention.getErrorRecords("s", 10));
+    Assert.assertTrue(values.size() < 10);
+    Assert.assertEquals(9, (int) values.get(values.size() - 1));
+    Assert.assertTrue(retention.getMemoryBytes("s") <= 5000);
+  }
+
+  @Test
+  public void testMemoryBudgetWithSpill() {
+    StageErrorRetention retention = new StageErrorRetention(10, 10, 5000, spillDir, 1024 * 1024);
+    try {
+      retain(retention, 0, 10, 1000);
+
+      Assert.assertEquals(ImmutableList.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), values(retention.getErrorRecords("s", 10)));
+      Assert.assertTrue(retention.getMemoryBytes("s") <= 5000);
+    } finally {
+      retention.close();
+    }
+    // Spilled records are gone with the spill file, the ones in memory are still there
+    List<Integer> values = values(retention.getErrorRecords("s", 10));
+    Assert.assertFalse(values.isEmpty());
+    Assert.assertEquals(9, (int) values.get(values.size() - 1));
+  }
+
+  @Test
+  public void testSpillFileWrapsAround() {
+    // Spill file holds only few records
+    StageErrorRetention retention = new StageErrorRetention(20, 10, 3000, spillDir, 5000);
+    try {
+      retain(retention, 0, 20, 1000);
+
+      List<Integer> values = values(retention.getErrorRecords("s", 20));
+      Assert.assertTrue(values.size() < 20);
+      Assert.assertEquals(19, (int) values.get(values.size() - 1));
+      // Whatever is returned is returned intact and in order
+      for (int i = 1; i < values.size(); i++) {
+        Assert.assertEquals(values.get(i - 1) + 1, (int) values.get(i));
+      }
+    } finally {
+      retention.close();
+    }
+  }
+
+  @Test
+  public void testConcurrentRetention() throws Exception {
+    StageErrorRetention retention = new StageErrorRetention(50, 50, 20000, spillDir, 1024 * 1024);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+        int base = t * 1000;
+        futures.add(executor.submit(() -> retain(retention, base, base + 200, 100)));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+      Assert.assertEquals(50, retention.getErrorRecords("s", 100).size());
+      Assert.assertTrue(retention.getMemoryBytes("s") <= 20000);
+    } finally {
+      executor.shutdownNow();
+      retention.close();
+    }
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.metrics;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.base.Suppliers;
+import com.streamsets.datacollector.execution.EventListenerManager;
+import com.streamsets.datacollector.json.ObjectMapperFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestMetricsDeltaEncoder {
+
+  private static class Listener implements MetricsEventListener {
+    private final boolean delta;
+    private final List<String> received = new ArrayList<>();
+
+    Listener(boolean delta) {
+      this.delta = delta;
+    }
+
+    @Override
+    public void notification(String metrics) {
+      received.add(metrics);
+    }
+
+    @Override
+    public boolean isDeltaEncoded() {
+      return delta;
+    }
+  }
+
+  private static ObjectNode tree(ObjectMapper objectMapper, MetricRegistry registry) {
+    return objectMapper.valueToTree(registry);
+  }
+
+  @Test
+  public void testDeltaFrames() throws Exception {
+    ObjectMapper objectMapper = ObjectMapperFactory.get();
+    MetricRegistry registry = new MetricRegistry();
+    Counter a = registry.counter("a");
+    registry.counter("b");
+    MetricsDeltaEncoder encoder = new MetricsDeltaEncoder(objectMapper, 3);
+
+    MetricsDeltaEncoder.Frame frame = encoder.encode(tree(objectMapper, registry));
+    Assert.assertTrue(frame.isSnapshot());
+    Assert.assertEquals(1, frame.getSequence());
+    JsonNode snapshot = objectMapper.readTree(frame.toSnapshotJson(objectMapper.writeValueAsString(registry)));
+    Assert.assertEquals(MetricsDeltaEncoder.SNAPSHOT_TYPE, snapshot.get(MetricsDeltaEncoder.TYPE).asText());
+    Assert.assertEquals(1, snapshot.get(MetricsDeltaEncoder.SEQUENCE).asLong());
+    Assert.assertTrue(snapshot.get(MetricsDeltaEncoder.METRICS).get("counters").has("b"));
+
+    a.inc();
+    registry.remove("b");
+    registry.counter("c");
+    frame = encoder.encode(tree(objectMapper, registry));
+    Assert.assertFalse(frame.isSnapshot());
+    JsonNode delta = objectMapper.readTree(frame.getDeltaJson());
+    Assert.assertEquals(MetricsDeltaEncoder.DELTA_TYPE, delta.get(MetricsDeltaEncoder.TYPE).asText());
+    Assert.assertEquals(2, delta.get(MetricsDeltaEncoder.SEQUENCE).asLong());
+    Assert.assertEquals(1, delta.get(MetricsDeltaEncoder.BASE_SEQUENCE).asLong());
+    JsonNode changedCounters = delta.get(MetricsDeltaEncoder.CHANGED).get("counters");
+    Assert.assertEquals(2, changedCounters.size());
+    Assert.assertEquals(1, changedCounters.get("a").get("count").asLong());
+    Assert.assertTrue(changedCounters.has("c"));
+    Assert.assertEquals("b", delta.get(MetricsDeltaEncoder.REMOVED).get("counters").get(0).asText());
+    Assert.assertFalse(delta.get(MetricsDeltaEncoder.CHANGED).has("gauges"));
+
+    // nothing changed
+    frame = encoder.encode(tree(objectMapper, registry));
+    delta = objectMapper.readTree(frame.getDeltaJson());
+    Assert.assertEquals(0, delta.get(MetricsDeltaEncoder.CHANGED).size());
+    Assert.assertEquals(0, delta.get(MetricsDeltaEncoder.REMOVED).size());
+
+    // periodic snapshot
+    frame = encoder.encode(tree(objectMapper, registry));
+    Assert.assertTrue(frame.isSnapshot());
+    Assert.assertEquals(4, frame.getSequence());
+
+    encoder.reset();
+    Assert.assertTrue(encoder.encode(tree(objectMapper, registry)).isSnapshot());
+  }
+
+  @Test
+  public void testBroadcastFrames() throws Exception {
+    ObjectMapper objectMapper = ObjectMapperFactory.get();
+    MetricRegistry registry = new MetricRegistry();
+    Counter counter = registry.counter("a");
+    MetricsDeltaEncoder encoder = new MetricsDeltaEncoder(objectMapper, 100);
+    EventListenerManager manager = new EventListenerManager();
+    Listener full = new Listener(false);
+    Listener delta = new Listener(true);
+    manager.addMetricsEventListener("p", full);
+    manager.addMetricsEventListener("p", delta);
+    Assert.assertTrue(manager.hasDeltaMetricEventListeners("p"));
+    Assert.assertFalse(manager.hasDeltaMetricEventListeners("q"));
+
+    // first frame is a snapshot
+    encoder.encode(tree(objectMapper, registry));
+    counter.inc();
+    ObjectNode metrics = tree(objectMapper, registry);
+    MetricsDeltaEncoder.Frame frame = encoder.encode(metrics);
+    String metricsJson = objectMapper.writeValueAsString(metrics);
+    manager.broadcastMetrics("p", Suppliers.ofInstance(metricsJson), frame);
+    Assert.assertEquals(metricsJson, full.received.get(0));
+    // a newly registered delta listener gets a snapshot even though the frame is a delta
+    Assert.assertEquals(frame.toSnapshotJson(metricsJson), delta.received.get(0));
+
+    manager.removeMetricsEventListener("p", full);
+    counter.inc();
+    metrics = tree(objectMapper, registry);
+    frame = encoder.encode(metrics);
+    manager.broadcastMetrics("p", () -> {
+      throw new IllegalStateException("Full metrics should not be serialized for delta listeners");
+    }, frame);
+    Assert.assertEquals(frame.getDeltaJson(), delta.received.get(1));
+
+    // metrics outside of the delta sequence force a resync
+    manager.broadcastMetrics("p", metricsJson);
+    Assert.assertEquals(MetricsDeltaEncoder.snapshotFrame(-1, metricsJson), delta.received.get(2));
+    frame = encoder.encode(metrics);
+    manager.broadcastMetrics("p", Suppliers.ofInstance(metricsJson), frame);
+    Assert.assertEquals(frame.toSnapshotJson(metricsJson), delta.received.get(3));
+
+    manager.removeMetricsEventListener("p", delta);
+    Assert.assertFalse(manager.hasDeltaMetricEventListeners("p"));
+  }
+
+}
@@ -25,6 +25,7 @@ import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.api.ext.RecordReader;
 import com.streamsets.pipeline.api.ext.RecordWriter;
+import com.streamsets.pipeline.api.impl.ErrorMessage;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -35,7 +36,10 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigDecimal;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -86,6 +90,7 @@ public  class TestRecordWriterReaderFactory {
     testEncodingSelection(null, RecordEncodingConstants.JSON1_MAGIC_NUMBER);
     testEncodingSelection(RecordEncoding.JSON1.name(), RecordEncodingConstants.JSON1_MAGIC_NUMBER);
     testEncodingSelection(RecordEncoding.KRYO1.name(), RecordEncodingConstants.KRYO1_MAGIC_NUMBER);
+    testEncodingSelection(RecordEncoding.BINARY1.name(), RecordEncodingConstants.BINARY1_MAGIC_NUMBER);
   }
 
   private void testRecordWriterReader(RecordEncoding encoding) throws IOException {
@@ -204,6 +209,11 @@ public  class TestRecordWriterReaderFactory {
     testRecordWriterReader(RecordEncoding.KRYO1);
   }
 
+  @Test
+  public void testBinaryRecordWriter() throws IOException {
+    testRecordWriterReader(RecordEncoding.BINARY1);
+  }
+
   @Test
   public void testJsonRecorWithOffset() throws IOException {
     testRecordReaderWithOffset(RecordEncoding.JSON1);
@@ -214,6 +224,104 @@ public  class TestRecordWriterReaderFactory {
     testRecordReaderWithOffset(RecordEncoding.KRYO1);
   }
 
+  @Test
+  public void testBinaryRecordWithOffset() throws IOException {
+    testRecordReaderWithOffset(RecordEncoding.BINARY1);
+  }
+
+  @Test
+  public void testBinaryAllTypes() throws IOException {
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    RecordWriter writer = RecordWriterReaderFactory.createRecordWriter(RecordEncoding.BINARY1, os);
+    RecordImpl record1 = new RecordImpl("stage", "source", new byte[] { 0, 1, 2}, "mode");
+    record1.getHeader().setStagesPath("stagePath");
+    record1.getHeader().setTrackingId("trackingId");
+    record1.getHeader().setAttribute("user", "value");
+    record1.getHeader().setErrorContext("sdc", "pipeline");
+    record1.getHeader().setError("errorStage", "errorStageLabel", new ErrorMessage("e1", "m1", 1));
+    record1.getHeader().setSourceRecord(new RecordImpl("stage", "source", null, null));
+
+    Date date = new Date();
+    LinkedHashMap<String, Field> map = new LinkedHashMap<>();
+    map.put("boolean", Field.create(true));
+    map.put("char", Field.create('c'));
+    map.put("byte", Field.create((byte) 1));
+    map.put("short", Field.create((short) 2));
+    map.put("integer", Field.create(3));
+    map.put("long", Field.create(4L));
+    map.put("float", Field.create(5.5f));
+    map.put("double", Field.create(6.5d));
+    map.put("date", Field.create(Field.Type.DATE, date));
+    map.put("datetime", Field.create(Field.Type.DATETIME, date));
+    map.put("time", Field.create(Field.Type.TIME, date));
+    map.put("zoned", Field.createZonedDateTime(ZonedDateTime.now(ZoneId.of("America/Los_Angeles"))));
+    map.put("decimal", Field.create(new BigDecimal("-36.7147")));
+    map.put("string", Field.create("Hello \u00e9\u4e16"));
+    map.put("null", Field.create(Field.Type.STRING, null));
+    map.put("list", Field.create(Arrays.asList(Field.create(1), Field.create(Field.Type.MAP, null))));
+    map.put("map", Field.create(new HashMap<String, Field>()));
+    record1.set(Field.createListMap(map));
+    writer.write(record1);
+
+    RecordImpl record2 = new RecordImpl("stage2", "source2", null, null);
+    record2.set(Field.create(new byte[] { 3, 4, 5}));
+    writer.write(record2);
+    writer.close();
+
+    RecordReader reader = RecordWriterReaderFactory.createRecordReader(
+        new ByteArrayInputStream(os.toByteArray()),
+        0,
+        10000
+    );
+    Record read = reader.readRecord();
+    Assert.assertEquals(record1, read);
+    Assert.assertNull(read.getHeader().getSourceRecord());
+    Assert.assertEquals("value", read.getHeader().getAttribute("user"));
+    Assert.assertEquals(Field.Type.LIST_MAP, read.get().getType());
+    Assert.assertEquals(new BigDecimal("-36.7147"), read.get("/decimal").getValueAsDecimal());
+    Assert.assertEquals(record1.getHeader().getErrorTimestamp(), read.getHeader().getErrorTimestamp());
+    read = reader.readRecord();
+    Assert.assertEquals(record2.getHeader(), read.getHeader());
+    Assert.assertArrayEquals(new byte[] { 3, 4, 5}, read.get().getValueAsByteArray());
+    Assert.assertNull(reader.readRecord());
+    reader.close();
+  }
+
+  @Test(expected = IOException.class)
+  public void testBinaryMaxObjectLen() throws IOException {
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    RecordWriter writer = RecordWriterReaderFactory.createRecordWriter(RecordEncoding.BINARY1, os);
+    RecordImpl record = new RecordImpl("stage", "source", null, null);
+    record.set(Field.create(new String(new char[1000])));
+    writer.write(record);
+    writer.close();
+
+    RecordReader reader = RecordWriterReaderFactory.createRecordReader(
+        new ByteArrayInputStream(os.toByteArray()),
+        0,
+        100
+    );
+    reader.readRecord();
+  }
+
+  @Test(expected = IOException.class)
+  public void testBinaryTruncatedRecord() throws IOException {
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    RecordWriter writer = RecordWriterReaderFactory.createRecordWriter(RecordEncoding.BINARY1, os);
+    RecordImpl record = new RecordImpl("stage", "source", null, null);
+    record.set(Field.create("Hello"));
+    writer.write(record);
+    writer.close();
+
+    byte[] bytes = os.toByteArray();
+    RecordReader reader = RecordWriterReaderFactory.createRecordReader(
+        new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length - 2)),
+        0,
+        1000
+    );
+    reader.readRecord();
+  }
+
   @Test
   public void testDecimal() throws IOException {
     // We've picked this number because if it's casted to double, then it will lead to 36.7147000000000000483...
@@ -20,10 +20,12 @@ import com.streamsets.datacollector.config.PipelineConfiguration;
 import com.streamsets.datacollector.creation.InterceptorBean;
 import com.streamsets.datacollector.creation.PipelineBean;
 import com.streamsets.datacollector.creation.PipelineBeanCreator;
+import com.streamsets.datacollector.record.EventRecordImpl;
 import com.streamsets.datacollector.record.RecordImpl;
 import com.streamsets.datacollector.stagelibrary.StageLibraryTask;
 import com.streamsets.datacollector.validation.Issue;
 import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.impl.ErrorMessage;
 
 import com.streamsets.pipeline.api.interceptor.BaseInterceptor;
 import org.junit.Assert;
@@ -450,4 +452,132 @@ public class TestPipeBatch {
     // completing target
     pipeBatch.completeStage(batchMaker);
   }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testSplitAndMerge() throws Exception {
+    FullPipeBatch pipeBatch = new FullPipeBatch(null, null, -1, false);
+
+    PipelineBean pipelineBean = getPipelineBean();
+    StageRuntime[] stages = {
+      new StageRuntime(pipelineBean, pipelineBean.getOrigin(), Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), null, null),
+      new StageRuntime(pipelineBean, pipelineBean.getPipelineStageBeans().getStages().get(0), Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), null, null)
+    };
+
+    StageContext context = Mockito.mock(StageContext.class);
+    Mockito.when(context.isPreview()).thenReturn(false);
+    stages[0].setContext(context);
+    stages[1].setContext(context);
+
+    List<String> stageOutputLanes = stages[0].getConfiguration().getOutputLanes();
+    StagePipe sourcePipe = new StagePipe(stages[0], Collections.EMPTY_LIST,
+      LaneResolver.getPostFixed(stageOutputLanes, LaneResolver.STAGE_OUT), Collections.EMPTY_LIST);
+    StagePipe targetPipe = new StagePipe(stages[1], LaneResolver.getPostFixed(stageOutputLanes, LaneResolver.STAGE_OUT),
+      Collections.EMPTY_LIST, Collections.EMPTY_LIST);
+
+    // source produces 5 records
+    BatchMakerImpl batchMaker = pipeBatch.startStage(sourcePipe);
+    for (int i = 0; i < 5; i++) {
+      Record record = new RecordImpl("i", "source" + i, null, null);
+      batchMaker.addRecord(record, stageOutputLanes.get(0));
+    }
+    pipeBatch.completeStage(batchMaker);
+    pipeBatch.setNewOffset("offset");
+
+    String lane = sourcePipe.getOutputLanes().get(0);
+    List<Record> original = new ArrayList<>(pipeBatch.getFullPayload().get(lane));
+    pipeBatch.getFullPayload().put("empty", Collections.emptyList());
+    pipeBatch.getFullPayload().put("null", null);
+
+    List<FullPipeBatch> parts = pipeBatch.split(2);
+    assertEquals(2, parts.size());
+    Assert.assertTrue(pipeBatch.getFullPayload().isEmpty());
+
+    // lanes are cut in consecutive chunks, empty lanes are kept in every part
+    assertEquals(original.subList(0, 2), parts.get(0).getFullPayload().get(lane));
+    assertEquals(original.subList(2, 5), parts.get(1).getFullPayload().get(lane));
+    for (FullPipeBatch part : parts) {
+      assertEquals("offset", part.getNewOffset());
+      assertEquals(Collections.emptyList(), part.getFullPayload().get("empty"));
+      assertEquals(Collections.emptyList(), part.getFullPayload().get("null"));
+      Assert.assertNull(part.getSnapshotsOfAllStagesOutput());
+      // source was processed already before the split
+      try {
+        part.startStage(sourcePipe);
+        Assert.fail();
+      } catch (IllegalStateException ex) {
+        //expected
+      }
+    }
+
+    // every part runs the target and reports errors, events and processed records
+    for (int i = 0; i < parts.size(); i++) {
+      FullPipeBatch part = parts.get(i);
+      part.completeStage(part.startStage(targetPipe));
+      Record record = original.get(2 * i);
+      part.getErrorSink().addRecord("t", record);
+      part.getErrorSink().reportError("t", new ErrorMessage("e" + i, "m" + i, i));
+      part.getEventSink().addEvent("t", new EventRecordImpl("event" + i, 1, "t", "event" + i, null, null));
+      part.getProcessedSink().addRecord("t", record);
+    }
+
+    pipeBatch.merge(parts);
+
+    // target consumed the lane in all parts, the other lanes are merged back in order
+    Assert.assertFalse(pipeBatch.getFullPayload().containsKey(lane));
+    assertEquals(Collections.emptyList(), pipeBatch.getFullPayload().get("empty"));
+    assertEquals(Collections.emptyList(), pipeBatch.getFullPayload().get("null"));
+
+    List<Record> errorRecords = pipeBatch.getErrorSink().getErrorRecords("t");
+    assertEquals(2, errorRecords.size());
+    Assert.assertSame(original.get(0), errorRecords.get(0));
+    Assert.assertSame(original.get(2), errorRecords.get(1));
+    assertEquals(2, pipeBatch.getErrorSink().getStageErrors("t").size());
+    assertEquals("e0", pipeBatch.getErrorSink().getStageErrors("t").get(0).getErrorCode());
+    assertEquals("e1", pipeBatch.getErrorSink().getStageErrors("t").get(1).getErrorCode());
+    assertEquals(4, pipeBatch.getErrorSink().size());
+
+    List<Record> events = pipeBatch.getEventSink().getStageEvents("t");
+    assertEquals(2, events.size());
+    assertEquals("event0", events.get(0).getHeader().getSourceId());
+    assertEquals("event1", events.get(1).getHeader().getSourceId());
+
+    List<Record> processed = pipeBatch.getProcessedSink().getProcessedRecords("t").get();
+    assertEquals(ImmutableList.of(original.get(0), original.get(2)), processed);
+
+    // stages processed in any of the parts are processed in the merged batch
+    for (StagePipe pipe : ImmutableList.of(sourcePipe, targetPipe)) {
+      try {
+        pipeBatch.startStage(pipe);
+        Assert.fail();
+      } catch (IllegalStateException ex) {
+        //expected
+      }
+    }
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testSplitAndMergeKeepLaneOrder() throws Exception {
+    FullPipeBatch pipeBatch = new FullPipeBatch(null, null, -1, false);
+    List<Record> records = new ArrayList<>();
+    for (int i = 0; i < 7; i++) {
+      records.add(new RecordImpl("i", "source" + i, null, null));
+    }
+    pipeBatch.getFullPayload().put("a", new ArrayList<>(records));
+    pipeBatch.getFullPayload().put("b", new ArrayList<>(records.subList(0, 2)));
+
+    // more parts than records in lane 'b' leaves some of its chunks empty
+    List<FullPipeBatch> parts = pipeBatch.split(3);
+    int total = 0;
+    for (FullPipeBatch part : parts) {
+      assertNotNull(part.getFullPayload().get("b"));
+      total += part.getFullPayload().get("a").size();
+    }
+    assertEquals(7, total);
+
+    pipeBatch.merge(parts);
+    assertEquals(records, pipeBatch.getFullPayload().get("a"));
+    assertEquals(records.subList(0, 2), pipeBatch.getFullPayload().get("b"));
+  }
 }
@@ -27,6 +27,7 @@ import com.streamsets.datacollector.runner.production.BadRecordsHandler;
 import com.streamsets.datacollector.runner.production.StatsAggregationHandler;
 import com.streamsets.datacollector.stagelibrary.StageLibraryTask;
 import com.streamsets.datacollector.store.PipelineStoreTask;
+import com.streamsets.datacollector.util.Configuration;
 import com.streamsets.pipeline.api.Config;
 import com.streamsets.pipeline.api.DeliveryGuarantee;
 import com.streamsets.pipeline.api.ExecutionMode;
@@ -674,4 +675,142 @@ public class TestPipeline {
     Assert.assertEquals(5, pipeline.getRunners().size());
   }
 
+  @Test
+  public void testElasticRunnersOnInit() throws Exception {
+    StageLibraryTask lib = MockStages.createStageLibrary();
+    List<StageConfiguration> stageDefs = ImmutableList.of(
+        MockStages.createPushSource("s", ImmutableList.of("p")),
+        MockStages.createTarget("t", ImmutableList.of("p"))
+    );
+    List<Config> pipelineConfigs = new ArrayList<>(2);
+    pipelineConfigs.add(new Config("deliveryGuarantee", DeliveryGuarantee.AT_LEAST_ONCE));
+    pipelineConfigs.add(new Config("stopPipelineOnError", false));
+    pipelineConfigs.add(new Config("executionMode", ExecutionMode.STANDALONE));
+
+    PipelineConfiguration pipelineConf = new PipelineConfiguration(
+      PipelineStoreTask.SCHEMA_VERSION,
+      PipelineConfigBean.VERSION,
+        "pipelineId",
+      UUID.randomUUID(),
+      null,
+      "",
+      pipelineConfigs,
+      null,
+      stageDefs,
+      MockStages.getErrorStageConfig(),
+      MockStages.getStatsAggregatorStageConfig(),
+      Collections.emptyList(),
+      Collections.emptyList()
+    );
+    Configuration configuration = new Configuration();
+    configuration.set(Pipeline.ELASTIC_MIN_RUNNERS_CONFIG_KEY, 2);
+    Pipeline.Builder builder = new MockPipelineBuilder()
+      .withStageLib(lib)
+      .withPipelineConf(pipelineConf)
+      .withConfiguration(configuration)
+      .build();
+
+    PipelineRunner runner = Mockito.mock(PipelineRunner.class);
+    Mockito.when(runner.getMetrics()).thenReturn(new MetricRegistry());
+    Mockito.when(runner.getRuntimeInfo()).thenReturn(Mockito.mock(RuntimeInfo.class));
+
+    // Origin reports 4 threads
+    PushSource source = Mockito.mock(PushSource.class);
+    Mockito.when(source.getNumberOfThreads()).thenReturn(4);
+
+    Target target = Mockito.mock(Target.class);
+    MockStages.setPushSourceCapture(source);
+    MockStages.setTargetCapture(target);
+
+    Pipeline pipeline = builder.build(runner);
+
+    Assert.assertTrue(pipeline.init(true).isEmpty());
+    Assert.assertEquals(2, pipeline.getElasticMinRunners());
+
+    // Only the minimal number of runners is created on start
+    Mockito.verify(target, Mockito.times(2)).init(Mockito.any(Stage.Info.class), Mockito.any(Target.Context.class));
+    Assert.assertEquals(2, pipeline.getRunners().size());
+
+    // The rest is added on demand up to the number of origin threads
+    Assert.assertNotNull(pipeline.addRunner());
+    Assert.assertNotNull(pipeline.addRunner());
+    Assert.assertNull(pipeline.addRunner());
+    Mockito.verify(target, Mockito.times(4)).init(Mockito.any(Stage.Info.class), Mockito.any(Target.Context.class));
+    Assert.assertEquals(4, pipeline.getRunners().size());
+
+    // Runner count always reflects the maximal number of runners
+    for(PipeRunner pipeRunner : pipeline.getRunners()) {
+      for(Pipe pipe : pipeRunner.getPipes()) {
+        Assert.assertEquals(4, pipe.getStage().getContext().getRunnerCount());
+      }
+    }
+  }
+
+  @Test
+  public void testElasticRunnerFailedToInitialize() throws Exception {
+    StageLibraryTask lib = MockStages.createStageLibrary();
+    List<StageConfiguration> stageDefs = ImmutableList.of(
+        MockStages.createPushSource("s", ImmutableList.of("p")),
+        MockStages.createTarget("t", ImmutableList.of("p"))
+    );
+    List<Config> pipelineConfigs = new ArrayList<>(2);
+    pipelineConfigs.add(new Config("deliveryGuarantee", DeliveryGuarantee.AT_LEAST_ONCE));
+    pipelineConfigs.add(new Config("stopPipelineOnError", false));
+    pipelineConfigs.add(new Config("executionMode", ExecutionMode.STANDALONE));
+
+    PipelineConfiguration pipelineConf = new PipelineConfiguration(
+      PipelineStoreTask.SCHEMA_VERSION,
+      PipelineConfigBean.VERSION,
+        "pipelineId",
+      UUID.randomUUID(),
+      null,
+      "",
+      pipelineConfigs,
+      null,
+      stageDefs,
+      MockStages.getErrorStageConfig(),
+      MockStages.getStatsAggregatorStageConfig(),
+      Collections.emptyList(),
+      Collections.emptyList()
+    );
+    Configuration configuration = new Configuration();
+    configuration.set(Pipeline.ELASTIC_MIN_RUNNERS_CONFIG_KEY, 2);
+    Pipeline.Builder builder = new MockPipelineBuilder()
+      .withStageLib(lib)
+      .withPipelineConf(pipelineConf)
+      .withConfiguration(configuration)
+      .build();
+
+    PipelineRunner runner = Mockito.mock(PipelineRunner.class);
+    Mockito.when(runner.getMetrics()).thenReturn(new MetricRegistry());
+    Mockito.when(runner.getRuntimeInfo()).thenReturn(Mockito.mock(RuntimeInfo.class));
+
+    // Origin reports 4 threads
+    PushSource source = Mockito.mock(PushSource.class);
+    Mockito.when(source.getNumberOfThreads()).thenReturn(4);
+
+    Target target = Mockito.mock(Target.class);
+    MockStages.setPushSourceCapture(source);
+    MockStages.setTargetCapture(target);
+
+    // Third runner fails to initialize
+    Mockito.when(target.init(Mockito.any(Stage.Info.class), Mockito.any(Target.Context.class)))
+      .thenReturn(Collections.emptyList())
+      .thenReturn(Collections.emptyList())
+      .thenThrow(new RuntimeException("Can't connect"));
+
+    Pipeline pipeline = builder.build(runner);
+    Assert.assertTrue(pipeline.init(true).isEmpty());
+    Assert.assertEquals(2, pipeline.getRunners().size());
+
+    // Failed runner is destroyed right away and not added to the pipeline
+    Assert.assertNull(pipeline.addRunner());
+    Mockito.verify(target, Mockito.times(3)).init(Mockito.any(Stage.Info.class), Mockito.any(Target.Context.class));
+    Mockito.verify(target, Mockito.times(1)).destroy();
+    Assert.assertEquals(2, pipeline.getRunners().size());
+
+    // And no other runner is created for a while
+    Assert.assertNull(pipeline.addRunner());
+    Mockito.verify(target, Mockito.times(3)).init(Mockito.any(Stage.Info.class), Mockito.any(Target.Context.class));
+  }
 }
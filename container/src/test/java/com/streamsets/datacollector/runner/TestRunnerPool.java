@@ -82,4 +82,40 @@ public class TestRunnerPool {
     Assert.assertEquals("a", runnerPool.getRunner());
     Assert.assertEquals("b", runnerPool.getRunner());
   }
+
+  @Test
+  public void testAddAndRetireRunner() throws Exception {
+    runnerPool.addRunner("c");
+    Assert.assertEquals(3, runnerPool.getTotalRunners());
+
+    // Retiring runner removes it from the pool for good, so destroy doesn't expect it back
+    Thread.sleep(10);
+    Assert.assertNull(runnerPool.retireIdleRunner(60*60*1000));
+    Assert.assertNotNull(runnerPool.retireIdleRunner(5));
+    Assert.assertEquals(2, runnerPool.getTotalRunners());
+    runnerPool.destroy();
+  }
+
+  @Test
+  public void testMaxWaitTime() throws Exception {
+    // Runners are available, so nobody had to wait
+    String a = runnerPool.getRunner();
+    Assert.assertNotNull(runnerPool.getRunner());
+    Assert.assertEquals(0, runnerPool.getAndResetMaxWaitTime());
+
+    Thread returner = new Thread(() -> {
+      try {
+        Thread.sleep(50);
+        runnerPool.returnRunner(a);
+      } catch (Exception e) {
+        throw new RuntimeException(e);
+      }
+    });
+    returner.start();
+    Assert.assertEquals(a, runnerPool.getRunner());
+    returner.join();
+
+    Assert.assertTrue(runnerPool.getAndResetMaxWaitTime() >= 40);
+    Assert.assertEquals(0, runnerPool.getAndResetMaxWaitTime());
+  }
 }
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.store;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.streamsets.datacollector.execution.PipelineState;
+import com.streamsets.datacollector.execution.PipelineStatus;
+import com.streamsets.datacollector.util.ContainerError;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+public class TestPipelineCatalog {
+
+  private PipelineCatalog catalog;
+
+  @Before
+  public void setUp() {
+    catalog = new PipelineCatalog();
+    catalog.setStateLoader((name, rev) -> {
+      if (name.startsWith("missing")) {
+        throw new PipelineStoreException(ContainerError.CONTAINER_0209, name);
+      }
+      return createState(name, PipelineStatus.EDITED);
+    });
+  }
+
+  private static PipelineInfo createInfo(String name, String title, long lastModified, String... labels) {
+    Map<String, Object> metadata = labels.length == 0 ? null : ImmutableMap.of("labels", ImmutableList.copyOf(labels));
+    return new PipelineInfo(name, title, null, new Date(0), new Date(lastModified), "admin", "admin", "0",
+        UUID.randomUUID(), true, metadata, "3.20.0", "sdc");
+  }
+
+  private static PipelineState createState(String name, PipelineStatus status) {
+    PipelineState state = Mockito.mock(PipelineState.class);
+    Mockito.when(state.getPipelineId()).thenReturn(name);
+    Mockito.when(state.getStatus()).thenReturn(status);
+    return state;
+  }
+
+  private static List<String> names(PipelineCatalog.Page page) {
+    return page.getPipelines().stream().map(PipelineInfo::getPipelineId).collect(Collectors.toList());
+  }
+
+  private PipelineCatalog.Page query(String text, String label, PipelineCatalog.OrderBy orderBy, int offset, int len) {
+    return catalog.query(text, label, null, orderBy, false, offset, len);
+  }
+
+  @Test
+  public void testOrderAndPaging() {
+    catalog.pipelineSaved(createInfo("c", "Gamma", 1));
+    catalog.pipelineSaved(createInfo("a", "Beta", 3));
+    catalog.pipelineSaved(createInfo("b", "Alpha", 2));
+
+    Assert.assertEquals(ImmutableList.of("a", "b", "c"), names(query(null, null, PipelineCatalog.OrderBy.NAME, 0, -1)));
+    Assert.assertEquals(ImmutableList.of("b", "a", "c"), names(query(null, null, PipelineCatalog.OrderBy.TITLE, 0, -1)));
+    // Most recently modified first, as REST API always did
+    Assert.assertEquals(
+        ImmutableList.of("a", "b", "c"),
+        names(query(null, null, PipelineCatalog.OrderBy.LAST_MODIFIED, 0, -1))
+    );
+    Assert.assertEquals(
+        ImmutableList.of("c", "b", "a"),
+        names(catalog.query(null, null, null, PipelineCatalog.OrderBy.NAME, true, 0, -1))
+    );
+
+    PipelineCatalog.Page page = query(null, null, PipelineCatalog.OrderBy.NAME, 1, 1);
+    Assert.assertEquals(ImmutableList.of("b"), names(page));
+    Assert.assertEquals(3, page.getTotalCount());
+  }
+
+  @Test
+  public void testUpdatesAndDelete() {
+    catalog.pipelineSaved(createInfo("a", "Alpha", 1));
+    catalog.pipelineSaved(createInfo("b", "Beta", 2));
+
+    catalog.pipelineSaved(createInfo("a", "Zeta", 3));
+    Assert.assertEquals(ImmutableList.of("b", "a"), names(query(null, null, PipelineCatalog.OrderBy.TITLE, 0, -1)));
+    Assert.assertEquals(0, query("alpha", null, PipelineCatalog.OrderBy.NAME, 0, -1).getTotalCount());
+
+    catalog.pipelineDeleted("b");
+    Assert.assertEquals(ImmutableList.of("a"), names(query(null, null, PipelineCatalog.OrderBy.NAME, 0, -1)));
+    Assert.assertEquals(1, catalog.size());
+  }
+
+  @Test
+  public void testListedCount() {
+    catalog.pipelineSaved(createInfo("a", "A", 1));
+    catalog.pipelineSaved(createInfo("b", "B", 2));
+    catalog.pipelineSaved(createInfo("c", "C", 3));
+    catalog.pipelineSaved(createInfo("missing", "Missing", 4));
+    // States are not loaded yet
+    Assert.assertEquals(0, catalog.getListedCount());
+
+    PipelineCatalog.Page page = query(null, null, PipelineCatalog.OrderBy.NAME, 0, 2);
+    Assert.assertEquals(ImmutableList.of("a", "b"), names(page));
+    Assert.assertEquals(3, page.getTotalCount());
+    Assert.assertEquals(3, catalog.getListedCount());
+
+    // Filtered and unfiltered queries agree on the total
+    page = catalog.query(null, null, (info, state) -> true, PipelineCatalog.OrderBy.NAME, false, 0, 2);
+    Assert.assertEquals(3, page.getTotalCount());
+
+    catalog.stateChanged("a", createState("a", PipelineStatus.RUNNING));
+    catalog.pipelineSaved(createInfo("b", "Beta", 5));
+    Assert.assertEquals(3, catalog.getListedCount());
+
+    catalog.stateDeleted("c");
+    catalog.pipelineDeleted("a");
+    page = query(null, null, PipelineCatalog.OrderBy.NAME, 1, 10);
+    Assert.assertEquals(ImmutableList.of("c"), names(page));
+    Assert.assertEquals(2, page.getTotalCount());
+
+    catalog.clear();
+    Assert.assertEquals(0, catalog.getListedCount());
+  }
+
+  @Test
+  public void testTextAndLabelFilters() {
+    catalog.pipelineSaved(createInfo("a", "Kafka to HDFS", 1, "prod"));
+    catalog.pipelineSaved(createInfo("b", "kafka to S3", 2, "prod", "s3"));
+    catalog.pipelineSaved(createInfo("c", "JDBC to S3", 3, "dev"));
+
+    Assert.assertEquals(ImmutableList.of("a", "b"), names(query("KAFKA", null, PipelineCatalog.OrderBy.NAME, 0, -1)));
+    Assert.assertEquals(ImmutableList.of("b", "c"), names(query(" s3", null, PipelineCatalog.OrderBy.NAME, 0, -1)));
+    Assert.assertEquals(ImmutableList.of("a", "b", "c"), names(query("to", null, PipelineCatalog.OrderBy.NAME, 0, -1)));
+    Assert.assertEquals(ImmutableList.of("a", "b"), names(query(null, "prod", PipelineCatalog.OrderBy.NAME, 0, -1)));
+    Assert.assertEquals(ImmutableList.of("b"), names(query("s3", "prod", PipelineCatalog.OrderBy.NAME, 0, -1)));
+    Assert.assertEquals(Collections.emptyList(), names(query(null, "unknown", PipelineCatalog.OrderBy.NAME, 0, -1)));
+  }
+
+  @Test
+  public void testStatus() {
+    catalog.pipelineSaved(createInfo("a", "A", 1));
+    catalog.pipelineSaved(createInfo("b", "B", 2));
+    catalog.pipelineSaved(createInfo("missing", "Missing", 3));
+
+    // Pipeline state is loaded lazily and pipelines without state are not listed
+    PipelineCatalog.Page page = query(null, null, PipelineCatalog.OrderBy.STATUS, 0, -1);
+    Assert.assertEquals(ImmutableList.of("a", "b"), names(page));
+    Assert.assertEquals(PipelineStatus.EDITED, page.getStates().get(0).getStatus());
+
+    catalog.stateChanged("a", createState("a", PipelineStatus.RUNNING));
+    page = catalog.query(
+        null,
+        null,
+        (info, state) -> state.getStatus().isActive(),
+        PipelineCatalog.OrderBy.STATUS,
+        false,
+        0,
+        -1
+    );
+    Assert.assertEquals(ImmutableList.of("a"), names(page));
+    Assert.assertEquals(ImmutableList.of("b", "a"), names(query(null, null, PipelineCatalog.OrderBy.STATUS, 0, -1)));
+
+    // State known before the pipeline shows up (pipeline being created)
+    catalog.stateChanged("missing2", createState("missing2", PipelineStatus.FINISHED));
+    catalog.pipelineSaved(createInfo("missing2", "Missing 2", 4));
+    Assert.assertEquals(
+        ImmutableList.of("b", "a", "missing2"),
+        names(query(null, null, PipelineCatalog.OrderBy.STATUS, 0, -1))
+    );
+  }
+}
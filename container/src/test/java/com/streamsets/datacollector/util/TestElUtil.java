@@ -37,11 +37,14 @@ import java.util.List;
 
 public class TestElUtil {
   public CredentialValue credentialValue;
+  public String stringValue;
   private static final Field CV_FIELD;
+  private static final Field STRING_FIELD;
 
   static {
     try {
       CV_FIELD = TestElUtil.class.getField("credentialValue");
+      STRING_FIELD = TestElUtil.class.getField("stringValue");
     } catch (Exception ex) {
       throw new RuntimeException(ex);
     }
@@ -101,4 +104,19 @@ public class TestElUtil {
     Assert.assertEquals("secret", ((CredentialValue)evaluated).get());
   }
 
+  @Test
+  public void testPipelineConstantsPerEvaluation() throws Exception {
+    ConfigDefinition cd = Mockito.mock(ConfigDefinition.class);
+    Mockito.when(cd.getEvaluation()).thenReturn(ConfigDef.Evaluation.IMPLICIT);
+    Mockito.when(cd.getName()).thenReturn("config");
+    Mockito.when(cd.getElDefs()).thenReturn(Collections.emptyList());
+    Mockito.when(cd.getConfigField()).thenReturn(STRING_FIELD);
+    Mockito.when(cd.getType()).thenReturn(ConfigDef.Type.STRING);
+
+    // the evaluator of the config is reused, the constants are the ones of each pipeline
+    Assert.assertEquals("ONE", ElUtil.evaluate("Test", "${str:toUpper(a)}", cd, ImmutableMap.of("a", "one")));
+    Assert.assertEquals("TWO", ElUtil.evaluate("Test", "${str:toUpper(a)}", cd, ImmutableMap.of("a", "two")));
+    Mockito.verify(cd, Mockito.times(1)).getElDefs();
+  }
+
 }
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.util;
+
+import com.streamsets.datacollector.record.RecordImpl;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.testing.MicroBenchmark;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per record cost of matching wildcard field paths on 500 field records, with the regular expression over all
+ * escaped field paths of the record and with the structural matcher. Runs with the benchmark profile only.
+ */
+public class FieldPathMatchingBenchmark {
+  private static final int RECORDS = 2000;
+
+  private static Record createRecord() {
+    // 50 maps of 10 fields each
+    Map<String, Field> root = new LinkedHashMap<>();
+    for (int i = 0; i < 50; i++) {
+      Map<String, Field> map = new LinkedHashMap<>();
+      for (int j = 0; j < 10; j++) {
+        map.put("field" + j, Field.create("value" + j));
+      }
+      root.put("map" + i, Field.create(map));
+    }
+    Record record = new RecordImpl("FieldPathMatchingBenchmark", "record", null, null);
+    record.set(Field.create(root));
+    return record;
+  }
+
+  @Test
+  public void benchmarkWildcardInMiddle() throws Exception {
+    benchmark("/*/field3", 50);
+  }
+
+  @Test
+  public void benchmarkWildcardAtEnd() throws Exception {
+    benchmark("/map7/*", 10);
+  }
+
+  private void benchmark(String path, int expectedMatches) throws Exception {
+    Record record = createRecord();
+    Assert.assertEquals(
+        FieldRegexUtil.getMatchingFieldPaths(path, record.getEscapedFieldPaths()),
+        FieldRegexUtil.getMatchingFieldPaths(path, record)
+    );
+    Assert.assertEquals(expectedMatches, FieldRegexUtil.getMatchingFieldPaths(path, record).size());
+
+    MicroBenchmark benchmark = new MicroBenchmark("Matching " + path + " on 500 field records", RECORDS);
+    benchmark.measure("regex over escaped paths", () -> {
+      List<String> matches = null;
+      for (int i = 0; i < RECORDS; i++) {
+        matches = FieldRegexUtil.getMatchingFieldPaths(path, record.getEscapedFieldPaths());
+      }
+      return matches;
+    });
+    benchmark.measure("structural", () -> {
+      List<String> matches = null;
+      for (int i = 0; i < RECORDS; i++) {
+        matches = FieldRegexUtil.getMatchingFieldPaths(path, record);
+      }
+      return matches;
+    });
+  }
+}
@@ -20,6 +20,7 @@ import com.streamsets.datacollector.definition.ConcreteELDefinitionExtractor;
 import com.streamsets.datacollector.el.ELEvaluator;
 import com.streamsets.datacollector.el.ELVariables;
 import com.streamsets.datacollector.record.RecordImpl;
+import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.el.ELEval;
 import com.streamsets.pipeline.api.el.ELEvalException;
@@ -28,9 +29,14 @@ import com.streamsets.pipeline.lib.el.FieldEL;
 import com.streamsets.pipeline.lib.el.RecordEL;
 import com.streamsets.pipeline.lib.el.TimeNowEL;
 import com.streamsets.testing.fieldbuilder.MapFieldBuilder;
+import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
@@ -121,6 +127,80 @@ public class TestFieldPathExpressionUtil {
     );
   }
 
+  @Test
+  public void testStructuralMatchingSameAsRegex() throws ELEvalException {
+    ELEval eval = new ELEvaluator("testStructuralMatchingSameAsRegex",
+        ConcreteELDefinitionExtractor.get(), TimeNowEL.class, RecordEL.class, FieldEL.class);
+    ELVars variables = new ELVariables();
+
+    Map<String, Field> item = new LinkedHashMap<>();
+    item.put("sku", Field.create("a1"));
+    item.put("qty", Field.create(2));
+    item.put("with space", Field.create("x"));
+    item.put("with/slash", Field.create("y"));
+    item.put("with[bracket", Field.create("z"));
+    item.put("quote's", Field.create("q"));
+    item.put("", Field.create("empty"));
+    List<Field> items = new ArrayList<>();
+    items.add(Field.create(item));
+    items.add(Field.create(Field.Type.LIST_MAP, new LinkedHashMap<>(item)));
+    items.add(Field.create("not a map"));
+    Map<String, Field> order = new LinkedHashMap<>();
+    order.put("id", Field.create(1));
+    order.put("items", Field.create(items));
+    List<Field> matrix = new ArrayList<>();
+    matrix.add(Field.create(items));
+    matrix.add(Field.create(new ArrayList<Field>()));
+    order.put("matrix", Field.create(matrix));
+    Map<String, Field> root = new LinkedHashMap<>();
+    root.put("order", Field.create(order));
+    root.put("other", Field.create(order));
+    root.put("nullMap", Field.create(Field.Type.MAP, null));
+
+    Record record = new RecordImpl("testStructuralMatchingSameAsRegex", "record", null, null);
+    record.set(Field.create(root));
+    Set<String> escapedFieldPaths = record.getEscapedFieldPaths();
+
+    String[] structuralPaths = {
+        "/*", "/*/*", "/*/*/*", "/order/*", "/order/items[*]", "/order/items[*]/*", "/order/items[1]/*",
+        "/*/items[*]/sku", "/order/matrix[*][*]/*", "/order/matrix[0][2]", "/order/items[5]/*", "/nullMap/*",
+        "/order/id/*", "[*]"
+    };
+    for (String path : structuralPaths) {
+      Assert.assertTrue(path, FieldPathMatcher.get(path).isStructural());
+      Assert.assertEquals(path,
+          FieldRegexUtil.getMatchingFieldPaths(path, escapedFieldPaths),
+          FieldRegexUtil.getMatchingFieldPaths(path, record)
+      );
+      Assert.assertEquals(path,
+          FieldRegexUtil.getMatchingFieldPaths(path, escapedFieldPaths),
+          FieldPathExpressionUtil.evaluateMatchingFieldPaths(path, eval, variables, record)
+      );
+    }
+    // names with / or [ are never matched by /*, same as with the regular expression
+    Assert.assertEquals(8, FieldRegexUtil.getMatchingFieldPaths("/order/items[*]/*", record).size());
+    Assert.assertEquals(
+        "/order/items[0]/'with space'",
+        FieldRegexUtil.getMatchingFieldPaths("/order/items[0]/*", record).get(2)
+    );
+
+    // everything else still goes through the regular expression
+    String[] regexPaths = {
+        "/order/item?", "/order/i*", "/*/items[(*)]/sku", "/order/items[*]/s.u", "/order/items[01]/*"
+    };
+    for (String path : regexPaths) {
+      Assert.assertFalse(path, FieldPathMatcher.get(path).isStructural());
+      Assert.assertEquals(path,
+          FieldRegexUtil.getMatchingFieldPaths(path, escapedFieldPaths),
+          FieldRegexUtil.getMatchingFieldPaths(path, record)
+      );
+    }
+    Assert.assertEquals(
+        FieldRegexUtil.getMatchingFieldPaths("/order/i*", escapedFieldPaths),
+        FieldPathExpressionUtil.evaluateMatchingFieldPaths("/order/i*", eval, variables, record, escapedFieldPaths)
+    );
+  }
+
   private static void assertExpressionMatches(
       String expression,
       ELEval eval,
@@ -52,8 +52,8 @@ angular
     var destroyed = false;
     var pageHidden = false;
     var isWebSocketSupported;
-    var webSocketMetricsURL = $rootScope.common.webSocketBaseURL + 'rest/v1/webSocket?type=metrics&pipelineName=' +
-      routeParamPipelineName;
+    var webSocketMetricsURL = $rootScope.common.webSocketBaseURL + 'rest/v1/webSocket?type=metrics&delta=true' +
+      '&pipelineName=' + routeParamPipelineName;
     var metricsWebSocket;
     var undoLimit = 10;
     var archive = [];
@@ -1811,6 +1811,29 @@ angular
       }, 1000);
     };
 
+    /**
+     * Returns new metrics object with the given delta frame applied, sections that did not change are shared.
+     *
+     */
+    var applyMetricsDelta = function(metrics, frame) {
+      var result = _.clone(metrics);
+      _.each(frame.changed, function(changedSection, sectionName) {
+        if (_.isObject(changedSection) && !_.isArray(changedSection) && _.isObject(result[sectionName])) {
+          result[sectionName] = _.extend(_.clone(result[sectionName]), changedSection);
+        } else {
+          result[sectionName] = changedSection;
+        }
+      });
+      _.each(frame.removed, function(removedNames, sectionName) {
+        if (removedNames.length === 0) {
+          delete result[sectionName];
+        } else if (result[sectionName]) {
+          result[sectionName] = _.omit(result[sectionName], removedNames);
+        }
+      });
+      return result;
+    };
+
     /**
      * Fetch the Pipeline Status for every configured refresh interval.
      *
@@ -1826,15 +1849,29 @@ angular
           metricsWebSocket.close();
         }
 
-        // WebSocket to get Pipeline Metrics
+        // WebSocket to get Pipeline Metrics, full snapshot first and then only metrics that changed
         metricsWebSocket = new WebSocket(webSocketMetricsURL);
+        var webSocketMetrics = null;
+        var webSocketMetricsSequence = null;
 
         metricsWebSocket.onmessage = function (evt) {
-          var received_msg = evt.data;
+          var frame = JSON.parse(evt.data);
+
+          if (frame.type === 'SNAPSHOT') {
+            webSocketMetrics = frame.metrics;
+          } else if (frame.type === 'DELTA' && webSocketMetrics && frame.baseSequence === webSocketMetricsSequence) {
+            webSocketMetrics = applyMetricsDelta(webSocketMetrics, frame);
+          } else {
+            // Missed a frame, wait for the next snapshot
+            webSocketMetrics = null;
+            webSocketMetricsSequence = null;
+            return;
+          }
+          webSocketMetricsSequence = frame.sequence;
 
           if (!$scope.monitoringPaused) {
             $rootScope.$apply(function() {
-              $rootScope.common.pipelineMetrics = JSON.parse(received_msg);
+              $rootScope.common.pipelineMetrics = webSocketMetrics;
             });
 
           }
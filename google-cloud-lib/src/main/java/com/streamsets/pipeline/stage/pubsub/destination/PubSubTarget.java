@@ -31,9 +31,9 @@ import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.base.BaseTarget;
 import com.streamsets.pipeline.api.base.OnRecordErrorException;
-import com.streamsets.pipeline.lib.generator.DataGenerator;
 import com.streamsets.pipeline.lib.generator.DataGeneratorException;
 import com.streamsets.pipeline.lib.generator.DataGeneratorFactory;
+import com.streamsets.pipeline.lib.generator.RecordSerializer;
 import com.streamsets.pipeline.stage.common.DefaultErrorRecordHandler;
 import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
 import com.streamsets.pipeline.stage.pubsub.lib.Errors;
@@ -42,7 +42,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.threeten.bp.Duration;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -58,6 +57,7 @@ public class PubSubTarget extends BaseTarget {
 
   private Publisher publisher;
   private DataGeneratorFactory generatorFactory;
+  private RecordSerializer recordSerializer;
   private List<PendingMessage> pendingMessages = new ArrayList<>();
   private ErrorRecordHandler errorRecordHandler;
   private CredentialsProvider credentialsProvider;
@@ -99,6 +99,7 @@ public class PubSubTarget extends BaseTarget {
         issues
     )) {
       generatorFactory = conf.dataFormatConfig.getDataGeneratorFactory();
+      recordSerializer = new RecordSerializer(generatorFactory);
     }
 
     ProjectTopicName topic = ProjectTopicName.of(conf.credentials.getProjectId(), conf.topicId);
@@ -162,6 +163,9 @@ public class PubSubTarget extends BaseTarget {
         LOG.warn("Error shutting down PubSub publisher: '{}'", e.toString(), e);
       }
     }
+    if (recordSerializer != null) {
+      recordSerializer.close();
+    }
   }
 
   @Override
@@ -204,16 +208,14 @@ public class PubSubTarget extends BaseTarget {
   }
 
   private void publish(Record record) throws StageException {
-    ByteArrayOutputStream os = new ByteArrayOutputStream();
-    try (DataGenerator generator = generatorFactory.getGenerator(os)) {
-      generator.write(record);
+    ByteString data;
+    try {
+      data = ByteString.copyFrom(recordSerializer.serialize(record));
     } catch (IOException | DataGeneratorException e) {
       errorRecordHandler.onError(new OnRecordErrorException(record, Errors.PUBSUB_06, e.toString(), e));
       return;
     }
 
-    ByteString data = ByteString.copyFrom(os.toByteArray());
-
     Map<String, String> attributes = new HashMap<>();
     Record.Header header = record.getHeader();
     header.getAttributeNames().forEach(k -> attributes.put(k, header.getAttribute(k)));
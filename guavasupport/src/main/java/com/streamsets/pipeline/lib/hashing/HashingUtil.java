@@ -29,7 +29,6 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.Set;
 
 /**
  * This is a refactored code for hashing using Guavas Library which is currently used by FieldHasher
@@ -106,11 +105,10 @@ public final class HashingUtil {
     }
 
     protected List<String> getFieldsToHash(Record record) {
-      Set<String> fieldPaths = record.getEscapedFieldPaths();
       List<String> fields = new ArrayList<>();
       if (fieldsToHash != null) {
         for(String field : fieldsToHash) {
-          List<String> matchingFieldPaths = FieldRegexUtil.getMatchingFieldPaths(field, fieldPaths);
+          List<String> matchingFieldPaths = FieldRegexUtil.getMatchingFieldPaths(field, record);
           Collections.sort(matchingFieldPaths);
           fields.addAll(matchingFieldPaths);
         }
@@ -183,7 +183,7 @@ public class HiveConfigBean {
   /**
    * Returns valid connection to Hive or throws StageException.
    */
-  public Connection getHiveConnection() throws StageException {
+  public synchronized Connection getHiveConnection() throws StageException {
     if(!HiveMetastoreUtil.isHiveConnectionValid(hiveConnection, loginUgi)) {
       LOG.info("Connection to Hive become stale, reconnecting.");
       if(hiveConnection != null) {
@@ -199,6 +199,18 @@ public class HiveConfigBean {
     return hiveConnection;
   }
 
+  /**
+   * Opens a new connection to Hive that is not shared with the stage. The caller owns the returned connection and
+   * is responsible for closing it.
+   */
+  public Connection openHiveConnection() throws StageException {
+    return HiveMetastoreUtil.getHiveConnection(hiveJDBCUrl, loginUgi, driverProperties);
+  }
+
+  public boolean isHiveConnectionValid(Connection connection) {
+    return HiveMetastoreUtil.isHiveConnectionValid(connection, loginUgi);
+  }
+
   /**
    * This is for testing purpose
    * @param config: Configuration to set
@@ -31,6 +31,7 @@ import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
@@ -85,6 +86,10 @@ public final class HiveQueryExecutor {
   private final Timer selectTimer;
   private final Meter updateMeter;
   private final Timer updateTimer;
+  // Executor that owns the shared stage connection, this executor itself unless it's a dedicated one
+  private final HiveQueryExecutor stageExecutor;
+  // Connection owned by a dedicated executor, always null for the stage executor
+  private Connection dedicatedConnection;
 
   public HiveQueryExecutor(HiveConfigBean hiveConfigBean, Stage.Context context) {
     this.hiveConfigBean = hiveConfigBean;
@@ -93,6 +98,59 @@ public final class HiveQueryExecutor {
     this.selectTimer = context.createTimer("Select Queries");
     this.updateMeter = context.createMeter("Update Queries");
     this.updateTimer = context.createTimer("Update Queries");
+    this.stageExecutor = this;
+  }
+
+  private HiveQueryExecutor(HiveQueryExecutor stageExecutor) {
+    this.hiveConfigBean = stageExecutor.hiveConfigBean;
+    this.selectMeter = stageExecutor.selectMeter;
+    this.selectTimer = stageExecutor.selectTimer;
+    this.updateMeter = stageExecutor.updateMeter;
+    this.updateTimer = stageExecutor.updateTimer;
+    this.stageExecutor = stageExecutor;
+  }
+
+  /**
+   * Creates executor that shares metrics with this one, but runs its queries over its own connection to Hive so that
+   * it can be used concurrently with other executors. The connection is opened lazily and has to be released with
+   * {@link #close()}. A dedicated executor must be used by one thread at a time.
+   */
+  public HiveQueryExecutor newDedicatedExecutor() {
+    return new HiveQueryExecutor(stageExecutor);
+  }
+
+  /**
+   * Returns the executor running over the shared stage connection - objects that outlive the current call (such as
+   * cached partition information) must hold this one rather than a dedicated executor.
+   */
+  public HiveQueryExecutor getStageExecutor() {
+    return stageExecutor;
+  }
+
+  /**
+   * Closes the connection of a dedicated executor, no-op for the stage executor whose connection is owned by
+   * {@link HiveConfigBean}.
+   */
+  public synchronized void close() {
+    if (dedicatedConnection != null) {
+      try {
+        dedicatedConnection.close();
+      } catch (SQLException e) {
+        LOG.warn("Error closing Hive connection: {}", e.toString(), e);
+      }
+      dedicatedConnection = null;
+    }
+  }
+
+  private synchronized Connection getConnection() throws StageException {
+    if (stageExecutor == this) {
+      return hiveConfigBean.getHiveConnection();
+    }
+    if (!hiveConfigBean.isHiveConnectionValid(dedicatedConnection)) {
+      close();
+      dedicatedConnection = hiveConfigBean.openHiveConnection();
+    }
+    return dedicatedConnection;
   }
 
   // Internal interface for wrapping work that needs to happen with given result set
@@ -637,7 +695,7 @@ public final class HiveQueryExecutor {
   private void execute(String query) throws StageException {
     LOG.debug("Executing SQL: {}", query);
     Timer.Context t = updateTimer.time();
-    try(Statement statement = hiveConfigBean.getHiveConnection().createStatement()) {
+    try(Statement statement = getConnection().createStatement()) {
       statement.execute(query);
     } catch (Exception e) {
       LOG.error("Exception while processing query: {}", query, e);
@@ -662,7 +720,7 @@ public final class HiveQueryExecutor {
     LOG.debug("Executing SQL:  {}", query);
     Timer.Context t = selectTimer.time();
     try(
-      Statement statement = hiveConfigBean.getHiveConnection().createStatement();
+      Statement statement = getConnection().createStatement();
       ResultSet rs = statement.executeQuery(query);
     ) {
       // Stop timer immediately so that we're calculating only query execution time and not the processing time
@@ -24,13 +24,20 @@ import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.impl.Utils;
 import com.streamsets.pipeline.stage.lib.hive.Errors;
 import com.streamsets.pipeline.stage.lib.hive.HiveQueryExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -40,6 +47,8 @@ import java.util.concurrent.locks.ReentrantLock;
  * which it is supposed to support.
  */
 public class HMSCache {
+  private static final Logger LOG = LoggerFactory.getLogger(HMSCache.class);
+
   /**
    * Internal map with all the sub-caches for various different entities
    */
@@ -153,6 +162,62 @@ public class HMSCache {
     }
   }
 
+  /**
+   * Loads all given tables for all given {@link HMSCacheType}s that are not yet present in the cache. The loading
+   * queries are submitted to the given executor so that they can run against HiveServer2 concurrently, this method
+   * returns once all of them have finished. Each query borrows one of the given query executors for its duration, so
+   * that concurrent queries never share a connection.
+   *
+   * Any failure is only logged - the entry simply stays absent from the cache and the caller will retry the load
+   * through {@link #getOrLoad(HMSCacheType, String, HiveQueryExecutor)} with its usual error handling.
+   *
+   * @param hmsCacheTypes {@link HMSCacheType}s that should be loaded
+   * @param qualifiedTableNames qualified table names
+   * @param queryExecutors pool of dedicated {@link HiveQueryExecutor}s used to load the missing entries
+   * @param executorService executor on which the loading queries will run
+   * @throws StageException if any of the {@link HMSCacheType} is not supported by {@link HMSCache}
+   */
+  public void loadAll(
+      Collection<HMSCacheType> hmsCacheTypes,
+      Collection<String> qualifiedTableNames,
+      BlockingQueue<HiveQueryExecutor> queryExecutors,
+      ExecutorService executorService
+  ) throws StageException {
+    List<Future<?>> futures = new ArrayList<>();
+    for (HMSCacheType hmsCacheType : hmsCacheTypes) {
+      if (!cacheMap.containsKey(hmsCacheType)) {
+        throw new StageException(Errors.HIVE_16, hmsCacheType);
+      }
+      Cache<String, Optional<HMSCacheSupport.HMSCacheInfo>> typeCache = cacheMap.get(hmsCacheType);
+      for (String qualifiedTableName : qualifiedTableNames) {
+        // Tables that are known not to exist are cached as absent values and don't need to be loaded again
+        if (typeCache.getIfPresent(qualifiedTableName) != null) {
+          continue;
+        }
+        futures.add(executorService.submit(() -> {
+          HiveQueryExecutor queryExecutor = queryExecutors.take();
+          try {
+            getOrLoad(hmsCacheType, qualifiedTableName, queryExecutor);
+          } finally {
+            queryExecutors.offer(queryExecutor);
+          }
+          return null;
+        }));
+      }
+    }
+
+    for (Future<?> future : futures) {
+      try {
+        future.get();
+      } catch (ExecutionException e) {
+        LOG.warn("Can't pre-load metadata: {}", e.getCause().toString(), e.getCause());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
   /**
    * Puts/ updates the {@link HMSCache} with {@link HMSCacheSupport.HMSCacheInfo} for corresponding
    * {@link HMSCacheType} and qualified table name.
@@ -193,6 +258,8 @@ public class HMSCache {
   public static final class Builder {
     Set<HMSCacheType> cacheTypes = new HashSet<>();
     long maxCacheSize = -1;
+    long expireAfterWrite = -1;
+    TimeUnit expireAfterWriteUnit = TimeUnit.SECONDS;
 
     private Builder() {}
 
@@ -206,6 +273,19 @@ public class HMSCache {
       return this;
     }
 
+    /**
+     * Determines how long an entry is kept in the underlying cache(s) after it was loaded or put, after that time
+     * it will be loaded again from Hive.
+     * @param duration duration after which the entry expires, non-positive value means that entries never expire
+     * @param unit unit of the duration
+     * @return {@link Builder}
+     */
+    public Builder expireAfterWrite(long duration, TimeUnit unit) {
+      this.expireAfterWrite = duration;
+      this.expireAfterWriteUnit = unit;
+      return this;
+    }
+
     /**
      * Adds support to {@link HMSCacheType}
      * @param cacheType {@link HMSCacheType}
@@ -244,6 +324,10 @@ public class HMSCache {
         cacheBuilder.maximumSize(maxCacheSize);
       }
 
+      if (expireAfterWrite > 0) {
+        cacheBuilder.expireAfterWrite(expireAfterWrite, expireAfterWriteUnit);
+      }
+
       for (HMSCacheType type : cacheTypes) {
         cacheMap.put(type, cacheBuilder.build());
       }
@@ -20,11 +20,19 @@ import com.streamsets.pipeline.stage.lib.hive.Errors;
 import com.streamsets.pipeline.stage.lib.hive.HiveQueryExecutor;
 import com.streamsets.pipeline.stage.lib.hive.exceptions.HiveStageCheckedException;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * Cache Support for Different set of Partition Values.
@@ -32,6 +40,7 @@ import java.util.Set;
 public class PartitionInfoCacheSupport
     implements HMSCacheSupport<PartitionInfoCacheSupport.PartitionInfo,
     PartitionInfoCacheSupport.PartitionInfoCacheLoader> {
+  private static final Logger LOG = LoggerFactory.getLogger(PartitionInfoCacheSupport.class);
 
   private static final String LOCATION_NOT_LOADED = "LOCATION_NOT_LOADED";
 
@@ -98,6 +107,50 @@ public class PartitionInfoCacheSupport
       return this.partitionsToBeRolled.remove(partition);
     }
 
+    /**
+     * Loads locations of the given partitions that are known to exist in Hive but whose location was not loaded yet.
+     * The queries are submitted to the given executor and thus can run concurrently, each of them over one of the
+     * given query executors, the state is updated from the calling thread once they finish. Partitions that fail to
+     * load are left untouched and will be loaded lazily by {@link #getDiff(Map)}.
+     *
+     * @param partitions partitions whose location should be loaded
+     * @param queryExecutors pool of dedicated {@link HiveQueryExecutor}s used to run the queries
+     * @param executorService executor on which the loading queries will run
+     */
+    public void loadLocations(
+        Collection<PartitionValues> partitions,
+        BlockingQueue<HiveQueryExecutor> queryExecutors,
+        ExecutorService executorService
+    ) {
+      Map<PartitionValues, Future<String>> futures = new HashMap<>();
+      for (PartitionValues partitionVals : partitions) {
+        if (LOCATION_NOT_LOADED.equals(state.get(partitionVals)) && !futures.containsKey(partitionVals)) {
+          futures.put(partitionVals, executorService.submit(() -> {
+            HiveQueryExecutor queryExecutor = queryExecutors.take();
+            try {
+              return queryExecutor.executeDescFormattedPartitionAndGetLocation(
+                  qualifiedTableName,
+                  partitionVals.getPartitionValues()
+              );
+            } finally {
+              queryExecutors.offer(queryExecutor);
+            }
+          }));
+        }
+      }
+
+      for (Map.Entry<PartitionValues, Future<String>> entry : futures.entrySet()) {
+        try {
+          state.put(entry.getKey(), entry.getValue().get());
+        } catch (ExecutionException e) {
+          LOG.warn("Can't pre-load partition location for table {}: {}", qualifiedTableName, e.getCause().toString());
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+
     @Override
     public Map<PartitionValues, String> getDiff(Map<PartitionValues, String> newState) throws StageException {
       Map<PartitionValues, String> diff = new HashMap<>();
@@ -142,7 +195,8 @@ public class PartitionInfoCacheSupport
       for (PartitionValues partitionVals : partitionValSet) {
         partitionValuesToLocationMap.put(partitionVals, LOCATION_NOT_LOADED);
       }
-      return new PartitionInfo(partitionValuesToLocationMap, executor, qualifiedTableName);
+      // The cached info outlives this load and thus must not hold on to a dedicated executor
+      return new PartitionInfo(partitionValuesToLocationMap, executor.getStageExecutor(), qualifiedTableName);
     }
   }
 }
@@ -36,7 +36,7 @@ import java.util.Map;
 import java.util.TimeZone;
 
 @StageDef(
-    version = 3,
+    version = 4,
     label="Hive Metadata",
     description = "Generates Hive metadata and write information for HDFS",
     icon="metadata.png",
@@ -214,6 +214,33 @@ public class HiveMetadataDProcessor extends DProcessor {
   @ListBeanModel
   public Map<String, String> metadataHeaderAttributeConfigs;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "3600",
+      label = "Cache Expiration (secs)",
+      description = "Time after which cached table and partition information is loaded again from Hive." +
+          " Use -1 to keep the information in the cache until it's evicted based on the cache size.",
+      displayPosition = 130,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "ADVANCED"
+  )
+  public long cacheExpirationTime = 3600;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "1",
+      label = "Metastore Query Threads",
+      description = "Number of threads used to load missing table and partition information for all records in" +
+          " the batch before the batch is processed.",
+      min = 1,
+      displayPosition = 140,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "ADVANCED"
+  )
+  public int metastoreQueryThreads = 1;
+
   @ConfigDef(
       required = true,
       type = ConfigDef.Type.MODEL,
@@ -240,7 +267,9 @@ public class HiveMetadataDProcessor extends DProcessor {
       convertTimesToString,
       dataFormat,
       commentExpression,
-      metadataHeaderAttributeConfigs
+      metadataHeaderAttributeConfigs,
+      cacheExpirationTime,
+      metastoreQueryThreads
     );
   }
 
@@ -20,6 +20,8 @@ import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.streamsets.pipeline.api.Batch;
 import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.Field;
@@ -55,12 +57,21 @@ import org.slf4j.LoggerFactory;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TimeZone;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 public class HiveMetadataProcessor extends RecordProcessor {
   private static final Logger LOG = LoggerFactory.getLogger(HiveMetadataProcessor.class.getCanonicalName());
@@ -94,6 +105,8 @@ public class HiveMetadataProcessor extends RecordProcessor {
   private final HMPDataFormat dataFormat;
   private final String commentExpression;
   private final Map<String, String> metadataHeaderAttributeConfigs;
+  private final long cacheExpirationTime;
+  private final int metastoreQueryThreads;
 
   private boolean metadataHeadersToAddExist;
 
@@ -123,6 +136,27 @@ public class HiveMetadataProcessor extends RecordProcessor {
   private HiveMetadataProcessorELEvals elEvals = new HiveMetadataProcessorELEvals();
   private HiveQueryExecutor queryExecutor;
 
+  // Runs the queries that load missing table and partition information for the whole batch
+  private ExecutorService metastoreExecutor;
+  // Query executors with their own connection, one per metastore query thread
+  private BlockingQueue<HiveQueryExecutor> metastoreQueryExecutors;
+
+  // Database, table and partition values resolved while pre-loading the metadata for the current batch
+  private final Map<Record, ResolvedRecord> resolvedRecords = new IdentityHashMap<>();
+
+  private static class ResolvedRecord {
+    private final ELVars variables;
+    private final String dbName;
+    private final String tableName;
+    private LinkedHashMap<String, String> partitionValues;
+
+    private ResolvedRecord(ELVars variables, String dbName, String tableName) {
+      this.variables = variables;
+      this.dbName = dbName;
+      this.tableName = tableName;
+    }
+  }
+
   private static class HiveMetadataProcessorELEvals {
     private ELEval dbNameELEval;
     private ELEval tableNameELEval;
@@ -163,7 +197,9 @@ public class HiveMetadataProcessor extends RecordProcessor {
       boolean convertTimesToString,
       HMPDataFormat dataFormat,
       String commentExpression,
-      Map<String, String> metadataHeaderAttributeConfigs
+      Map<String, String> metadataHeaderAttributeConfigs,
+      long cacheExpirationTime,
+      int metastoreQueryThreads
   ) {
     this.databaseEL = databaseEL;
     this.tableEL = tableEL;
@@ -182,6 +218,8 @@ public class HiveMetadataProcessor extends RecordProcessor {
     this.dataFormat = dataFormat;
     this.commentExpression = commentExpression;
     this.metadataHeaderAttributeConfigs = metadataHeaderAttributeConfigs;
+    this.cacheExpirationTime = cacheExpirationTime;
+    this.metastoreQueryThreads = metastoreQueryThreads;
   }
 
   @Override
@@ -264,6 +302,7 @@ public class HiveMetadataProcessor extends RecordProcessor {
           } else {
             cache = HMSCache.newCacheBuilder()
               .maxCacheSize(hiveConfigBean.maxCacheSize)
+              .expireAfterWrite(cacheExpirationTime, TimeUnit.SECONDS)
               .addCacheTypeSupport(ImmutableList.of(
                 HMSCacheType.TBLPROPERTIES_INFO,
                 HMSCacheType.TYPE_INFO,
@@ -275,6 +314,15 @@ public class HiveMetadataProcessor extends RecordProcessor {
           }
         }
 
+        metastoreExecutor = Executors.newFixedThreadPool(
+            metastoreQueryThreads,
+            new ThreadFactoryBuilder().setNameFormat("Hive Metadata Processor Query Thread - %d").setDaemon(true).build()
+        );
+        metastoreQueryExecutors = new ArrayBlockingQueue<>(metastoreQueryThreads);
+        for (int i = 0; i < metastoreQueryThreads; i++) {
+          metastoreQueryExecutors.add(queryExecutor.newDedicatedExecutor());
+        }
+
         databaseCache = CacheBuilder
           .newBuilder()
           .maximumSize(50)
@@ -319,6 +367,12 @@ public class HiveMetadataProcessor extends RecordProcessor {
 
   @Override
   public void destroy() {
+    if (metastoreExecutor != null) {
+      metastoreExecutor.shutdownNow();
+    }
+    if (metastoreQueryExecutors != null) {
+      metastoreQueryExecutors.forEach(HiveQueryExecutor::close);
+    }
     hiveConfigBean.destroy();
     super.destroy();
   }
@@ -344,8 +398,7 @@ public class HiveMetadataProcessor extends RecordProcessor {
     record.set(Field.create(newFieldMap));
   }
 
-  @Override
-  protected void process(Record record, BatchMaker batchMaker) throws StageException {
+  private ELVars createRecordVariables(Record record) throws ELEvalException {
     ELVars variables = getContext().createELVars();
     RecordEL.setRecordInContext(variables, record);
     TimeEL.setCalendarInContext(variables, Calendar.getInstance());
@@ -356,9 +409,95 @@ public class HiveMetadataProcessor extends RecordProcessor {
     Calendar calendar = Calendar.getInstance(timeZone);
     calendar.setTime(timeBasis);
     TimeEL.setCalendarInContext(variables, calendar);
+    return variables;
+  }
+
+  @Override
+  public void process(Batch batch, BatchMaker batchMaker) throws StageException {
+    try {
+      loadMetadataForBatch(batch);
+      super.process(batch, batchMaker);
+    } finally {
+      resolvedRecords.clear();
+    }
+  }
+
+  /**
+   * Resolves tables and partitions of all records in the batch upfront and loads all information that is not yet
+   * cached with concurrent queries, so that the per record processing is served from the cache. Records that can't
+   * be resolved are skipped here, they will be sent to error when processed. The resolved values are kept for the
+   * record processing so that the expressions are evaluated only once per record.
+   */
+  private void loadMetadataForBatch(Batch batch) throws StageException {
+    Map<String, Set<PartitionInfoCacheSupport.PartitionValues>> tablePartitions = new HashMap<>();
+    Iterator<Record> records = batch.getRecords();
+    while (records.hasNext()) {
+      Record record = records.next();
+      try {
+        ELVars variables = createRecordVariables(record);
+        String dbName = HiveMetastoreUtil.resolveEL(elEvals.dbNameELEval, variables, databaseEL);
+        String tableName = HiveMetastoreUtil.resolveEL(elEvals.tableNameELEval, variables, tableEL);
+        ResolvedRecord resolved = new ResolvedRecord(variables, dbName, tableName);
+        resolvedRecords.put(record, resolved);
+        if (dbName.isEmpty()) {
+          dbName = DEFAULT_DB;
+        }
+        validateNames(dbName, tableName);
+
+        Set<PartitionInfoCacheSupport.PartitionValues> partitions = tablePartitions.computeIfAbsent(
+            HiveMetastoreUtil.getQualifiedTableName(dbName, tableName),
+            qualifiedName -> new HashSet<>()
+        );
+        if (partitioned) {
+          resolved.partitionValues = getPartitionValuesFromRecord(variables);
+          partitions.add(new PartitionInfoCacheSupport.PartitionValues(resolved.partitionValues));
+        }
+      } catch (StageException e) {
+        LOG.trace("Skipping metadata pre-load for record {}: {}", record.getHeader().getSourceId(), e.toString());
+      }
+    }
+
+    if (tablePartitions.isEmpty()) {
+      return;
+    }
 
-    String dbName = HiveMetastoreUtil.resolveEL(elEvals.dbNameELEval, variables, databaseEL);
-    String tableName = HiveMetastoreUtil.resolveEL(elEvals.tableNameELEval,variables,tableEL);
+    cache.loadAll(
+        partitioned ?
+            ImmutableList.of(HMSCacheType.TBLPROPERTIES_INFO, HMSCacheType.TYPE_INFO, HMSCacheType.PARTITION_VALUE_INFO) :
+            ImmutableList.of(HMSCacheType.TBLPROPERTIES_INFO, HMSCacheType.TYPE_INFO),
+        tablePartitions.keySet(),
+        metastoreQueryExecutors,
+        metastoreExecutor
+    );
+
+    if (partitioned) {
+      for (Map.Entry<String, Set<PartitionInfoCacheSupport.PartitionValues>> entry : tablePartitions.entrySet()) {
+        PartitionInfoCacheSupport.PartitionInfo pCache = cache.getIfPresent(
+            HMSCacheType.PARTITION_VALUE_INFO,
+            entry.getKey()
+        );
+        if (pCache != null) {
+          pCache.loadLocations(entry.getValue(), metastoreQueryExecutors, metastoreExecutor);
+        }
+      }
+    }
+  }
+
+  @Override
+  protected void process(Record record, BatchMaker batchMaker) throws StageException {
+    ResolvedRecord resolved = resolvedRecords.get(record);
+    ELVars variables;
+    String dbName;
+    String tableName;
+    if (resolved != null) {
+      variables = resolved.variables;
+      dbName = resolved.dbName;
+      tableName = resolved.tableName;
+    } else {
+      variables = createRecordVariables(record);
+      dbName = HiveMetastoreUtil.resolveEL(elEvals.dbNameELEval, variables, databaseEL);
+      tableName = HiveMetastoreUtil.resolveEL(elEvals.tableNameELEval,variables,tableEL);
+    }
     String targetPath;
     String avroSchema;
     String partitionStr = "";
@@ -376,7 +515,8 @@ public class HiveMetadataProcessor extends RecordProcessor {
         throw new HiveStageCheckedException(Errors.HIVE_METADATA_03, "table name", tableName);
       }
 
-      partitionValMap = getPartitionValuesFromRecord(variables);
+      partitionValMap = resolved != null && resolved.partitionValues != null ?
+          resolved.partitionValues : getPartitionValuesFromRecord(variables);
 
       if (partitioned) {
         partitionStr = externalTable ?
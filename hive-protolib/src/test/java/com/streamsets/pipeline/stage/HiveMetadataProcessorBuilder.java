@@ -40,6 +40,8 @@ public class HiveMetadataProcessorBuilder {
   private String commentEL;
   private Map<String, String> metadataHeaderAttributeConfig;
   private boolean convertTimesToString;
+  private long cacheExpirationTime;
+  private int metastoreQueryThreads;
 
   public HiveMetadataProcessorBuilder() {
     database = "default";
@@ -57,6 +59,8 @@ public class HiveMetadataProcessorBuilder {
     commentEL = "${field:field()}";
     metadataHeaderAttributeConfig = Collections.emptyMap();
     convertTimesToString = false;
+    cacheExpirationTime = -1;
+    metastoreQueryThreads = 1;
   }
 
   public HiveMetadataProcessorBuilder database(String database) {
@@ -137,6 +141,16 @@ public class HiveMetadataProcessorBuilder {
     return this;
   }
 
+  public HiveMetadataProcessorBuilder cacheExpirationTime(long cacheExpirationTime) {
+    this.cacheExpirationTime = cacheExpirationTime;
+    return this;
+  }
+
+  public HiveMetadataProcessorBuilder metastoreQueryThreads(int metastoreQueryThreads) {
+    this.metastoreQueryThreads = metastoreQueryThreads;
+    return this;
+  }
+
   public HiveMetadataProcessor build() {
     return new HiveMetadataProcessor(
       database,
@@ -152,7 +166,9 @@ public class HiveMetadataProcessorBuilder {
       convertTimesToString,
       dataFormat,
       commentEL,
-      metadataHeaderAttributeConfig
+      metadataHeaderAttributeConfig,
+      cacheExpirationTime,
+      metastoreQueryThreads
     );
   }
 }
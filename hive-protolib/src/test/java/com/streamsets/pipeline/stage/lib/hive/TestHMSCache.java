@@ -16,6 +16,7 @@
 package com.streamsets.pipeline.stage.lib.hive;
 
 import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.stage.lib.hive.cache.AvroSchemaInfoCacheSupport;
 import com.streamsets.pipeline.stage.lib.hive.cache.HMSCache;
@@ -40,6 +41,10 @@ import java.lang.reflect.Method;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 @RunWith(PowerMockRunner.class)
 @PrepareForTest({
@@ -486,4 +491,60 @@ public class TestHMSCache {
       Assert.assertEquals("Error code mismatch", Errors.HIVE_01, e.getErrorCode());
     }
   }
+
+  @Test
+  public void testExpireAfterWrite() throws Exception {
+    HMSCacheType cacheType = HMSCacheType.TBLPROPERTIES_INFO;
+    hmsCache = HMSCache.newCacheBuilder()
+        .addCacheTypeSupport(cacheType)
+        .expireAfterWrite(100, TimeUnit.MILLISECONDS)
+        .build();
+
+    hmsCache.put(
+        cacheType,
+        qualifiedTableName,
+        new TBLPropertiesInfoCacheSupport.TBLPropertiesInfo(
+            new TBLPropertiesInfoCacheSupport.TBLProperties(false, false, HiveMetastoreUtil.AVRO_SERDE)
+        )
+    );
+    Assert.assertNotNull(hmsCache.getIfPresent(cacheType, qualifiedTableName));
+
+    Thread.sleep(200);
+    Assert.assertNull(hmsCache.getIfPresent(cacheType, qualifiedTableName));
+  }
+
+  @Test
+  public void testLoadAll() throws Exception {
+    hmsCache = HMSCache.newCacheBuilder()
+        .addCacheTypeSupport(ImmutableList.of(HMSCacheType.TBLPROPERTIES_INFO, HMSCacheType.TYPE_INFO))
+        .build();
+
+    LinkedHashMap<String, HiveTypeInfo> columnTypeInfo = getDefaultColumnTypeInfo();
+    setMockForHMSCacheLoader(columnTypeInfo, EMPTY_TYPE_INFO, EMPTY_PARTITION_INFO, true, true);
+
+    final String table1 = qualifiedTableName + "_1";
+    final String table2 = qualifiedTableName + "_2";
+
+    ExecutorService executorService = Executors.newFixedThreadPool(2);
+    try {
+      hmsCache.loadAll(
+          ImmutableList.of(HMSCacheType.TBLPROPERTIES_INFO, HMSCacheType.TYPE_INFO),
+          ImmutableList.of(table1, table2),
+          new ArrayBlockingQueue<>(2, false, ImmutableList.of(queryExecutor, queryExecutor)),
+          executorService
+      );
+    } finally {
+      executorService.shutdownNow();
+    }
+
+    for (String table : ImmutableList.of(table1, table2)) {
+      checkCacheType(
+          TBLPropertiesInfoCacheSupport.TBLPropertiesInfo.class,
+          hmsCache.getIfPresent(HMSCacheType.TBLPROPERTIES_INFO, table)
+      );
+      TypeInfoCacheSupport.TypeInfo typeInfo = hmsCache.getIfPresent(HMSCacheType.TYPE_INFO, table);
+      Assert.assertNotNull(typeInfo);
+      Assert.assertEquals("Column Size mismatch", columnTypeInfo.size(), typeInfo.getColumnTypeInfo().size());
+    }
+  }
 }
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.jdbc;
+
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+
+/**
+ * Converts the rows of a single result set to fields. Created by
+ * {@link JdbcUtil#createRowReader(ResultSet, int, int, java.util.Map, UnknownTypeAction, java.util.Set, boolean,
+ * com.streamsets.pipeline.lib.jdbc.multithread.DatabaseVendor)}, which inspects the result set metadata once and
+ * resolves a reader for each column, so reading a row does not touch the metadata at all.
+ * <p/>
+ * Instances are not thread safe, as the result sets they read are not either.
+ */
+public final class JdbcRowReader {
+  private static final Logger LOG = LoggerFactory.getLogger(JdbcRowReader.class);
+
+  @FunctionalInterface
+  interface ColumnReader {
+    Field read(ResultSet rs, int columnIndex) throws SQLException, IOException, StageException;
+  }
+
+  private final ResultSet resultSet;
+  private final int columnCount;
+  private final int[] columnIndexes;
+  private final String[] columnLabels;
+  private final String[] columnNames;
+  private final int[] columnTypes;
+  private final ColumnReader[] readers;
+
+  JdbcRowReader(
+      ResultSet resultSet,
+      int columnCount,
+      int[] columnIndexes,
+      String[] columnLabels,
+      String[] columnNames,
+      int[] columnTypes,
+      ColumnReader[] readers
+  ) {
+    this.resultSet = resultSet;
+    this.columnCount = columnCount;
+    this.columnIndexes = columnIndexes;
+    this.columnLabels = columnLabels;
+    this.columnNames = columnNames;
+    this.columnTypes = columnTypes;
+    this.readers = readers;
+  }
+
+  /**
+   * @return true if this reader was created for the given result set and can be used to read its rows.
+   */
+  public boolean isReaderFor(ResultSet rs) {
+    return resultSet == rs;
+  }
+
+  /**
+   * @return number of columns in the result set, including the ones not converted to fields.
+   */
+  public int getColumnCount() {
+    return columnCount;
+  }
+
+  /**
+   * Converts the current row of the result set. Columns that can not be read are reported to the error record
+   * handler and left out of the returned map.
+   */
+  public LinkedHashMap<String, Field> read(ResultSet rs, ErrorRecordHandler errorRecordHandler)
+      throws SQLException, StageException {
+    LinkedHashMap<String, Field> fields = new LinkedHashMap<>(columnIndexes.length * 4 / 3 + 1);
+    for (int c = 0; c < columnIndexes.length; c++) {
+      int i = columnIndexes[c];
+      try {
+        fields.put(columnLabels[c], readers[c].read(rs, i));
+      } catch (IOException|SQLException e) {
+        LOG.debug("Can't read from JDBC: {}", e.getMessage(), e);
+        errorRecordHandler.onError(JdbcErrors.JDBC_03, columnNames[c], columnTypes[c], rs.getObject(i), e);
+      }
+    }
+    return fields;
+  }
+}
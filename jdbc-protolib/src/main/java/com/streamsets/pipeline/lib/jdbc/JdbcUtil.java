@@ -355,6 +355,32 @@ public class JdbcUtil {
     return keys;
   }
 
+  /**
+   * Returns the row count the database keeps in its statistics for a table, as reported through
+   * {@link java.sql.DatabaseMetaData#getIndexInfo(String, String, String, boolean, boolean)}.
+   *
+   * @param connection An open JDBC connection
+   * @param schema schema name
+   * @param tableName table name
+   * @return approximate number of rows in the table, or -1 if the driver does not expose table statistics
+   */
+  public long getApproximateRowCount(Connection connection, String schema, String tableName) {
+    try {
+      DatabaseMetaData metadata = connection.getMetaData();
+      try (ResultSet result = metadata.getIndexInfo(getCatalog(connection, schema), schema, tableName, false, true)) {
+        while (result.next()) {
+          if (result.getShort("TYPE") == DatabaseMetaData.tableIndexStatistic) {
+            final long cardinality = result.getLong("CARDINALITY");
+            return result.wasNull() ? -1 : cardinality;
+          }
+        }
+      }
+    } catch (SQLException e) {
+      LOG.debug("Could not read table statistics for {}.{}: {}", schema, tableName, e.toString(), e);
+    }
+    return -1;
+  }
+
   public static Map<String, String> getMinimumOffsetValues(
       DatabaseVendor vendor,
       Connection connection,
@@ -640,182 +666,217 @@ public class JdbcUtil {
       boolean timestampToString,
       DatabaseVendor vendor
   ) throws SQLException, IOException, StageException {
-      Field field;
-      if (userSpecifiedType != DataType.USE_COLUMN_TYPE) {
-        // If user specifies the data type, overwrite the column type returned by database.
-        field = Field.create(Field.Type.valueOf(userSpecifiedType.getLabel()), rs.getObject(columnIndex));
-      } else {
-        // Firstly resolve some vendor specific types - we are careful in case that someone will be clashing
-        if(vendor == DatabaseVendor.ORACLE) {
-          switch (md.getColumnType(columnIndex)) {
-            case TableContextUtil.TYPE_ORACLE_BINARY_FLOAT:
-              float floatValue = rs.getFloat(columnIndex);
-              return Field.create(Field.Type.FLOAT, rs.wasNull() ? null : floatValue);
-            case TableContextUtil.TYPE_ORACLE_BINARY_DOUBLE:
-              double doubleValue = rs.getDouble(columnIndex);
-              return Field.create(Field.Type.DOUBLE, rs.wasNull() ? null : doubleValue);
-            case TableContextUtil.TYPE_ORACLE_TIMESTAMP_WITH_TIME_ZONE:
-            case TableContextUtil.TYPE_ORACLE_TIMESTAMP_WITH_LOCAL_TIME_ZONE:
-              OffsetDateTime offsetDateTime = rs.getObject(columnIndex, OffsetDateTime.class);
-              if (offsetDateTime == null) {
-                return timestampToString ?
-                    Field.create(Field.Type.STRING, null) :
-                    Field.create(Field.Type.ZONED_DATETIME, null);
-              }
-              if (timestampToString) {
-                return Field.create(Field.Type.STRING, offsetDateTime.toZonedDateTime().toString());
-              }
-              // Zoned Datetime can handle high precision
-              return Field.create(Field.Type.ZONED_DATETIME, offsetDateTime.toZonedDateTime());
-            case Types.SQLXML:
-              SQLXML xml = rs.getSQLXML(columnIndex);
-              return Field.create(Field.Type.STRING, xml == null ? null : xml.getString());
-          }
-        } else if (vendor == DatabaseVendor.SQL_SERVER) {
-          if (md.getColumnType(columnIndex) == TableContextUtil.TYPE_SQL_SERVER_DATETIMEOFFSET) {
-              DateTimeOffset dateTimeOffset = rs.getObject(columnIndex, DateTimeOffset.class);
-              if (dateTimeOffset == null) {
-                return timestampToString ?
-                    Field.create(Field.Type.STRING, null) :
-                    Field.create(Field.Type.ZONED_DATETIME, null);
-              }
-              if (timestampToString) {
-                return Field.create(Field.Type.STRING, dateTimeOffset.toString());
-              }
-              return Field.create(Field.Type.ZONED_DATETIME, dateTimeOffset.getOffsetDateTime().toZonedDateTime());
+    return compileColumnReader(
+        md,
+        columnIndex,
+        maxClobSize,
+        maxBlobSize,
+        userSpecifiedType,
+        unknownTypeAction,
+        timestampToString,
+        vendor
+    ).read(rs, columnIndex);
+  }
+
+  /**
+   * Resolves the conversion of the given column to a {@link Field} once, from the result set metadata, so that it
+   * does not need to be looked up again for every row.
+   */
+  JdbcRowReader.ColumnReader compileColumnReader(
+      ResultSetMetaData md,
+      int columnIndex,
+      int maxClobSize,
+      int maxBlobSize,
+      DataType userSpecifiedType,
+      UnknownTypeAction unknownTypeAction,
+      boolean timestampToString,
+      DatabaseVendor vendor
+  ) throws SQLException {
+    if (userSpecifiedType != DataType.USE_COLUMN_TYPE) {
+      // If user specifies the data type, overwrite the column type returned by database.
+      Field.Type type = Field.Type.valueOf(userSpecifiedType.getLabel());
+      return (rs, i) -> Field.create(type, rs.getObject(i));
+    }
+
+    final int columnType = md.getColumnType(columnIndex);
+
+    // Firstly resolve some vendor specific types - we are careful in case that someone will be clashing
+    if (vendor == DatabaseVendor.ORACLE) {
+      switch (columnType) {
+        case TableContextUtil.TYPE_ORACLE_BINARY_FLOAT:
+          return (rs, i) -> {
+            float floatValue = rs.getFloat(i);
+            return Field.create(Field.Type.FLOAT, rs.wasNull() ? null : floatValue);
+          };
+        case TableContextUtil.TYPE_ORACLE_BINARY_DOUBLE:
+          return (rs, i) -> {
+            double doubleValue = rs.getDouble(i);
+            return Field.create(Field.Type.DOUBLE, rs.wasNull() ? null : doubleValue);
+          };
+        case TableContextUtil.TYPE_ORACLE_TIMESTAMP_WITH_TIME_ZONE:
+        case TableContextUtil.TYPE_ORACLE_TIMESTAMP_WITH_LOCAL_TIME_ZONE:
+          return (rs, i) -> {
+            OffsetDateTime offsetDateTime = rs.getObject(i, OffsetDateTime.class);
+            if (offsetDateTime == null) {
+              return timestampToString ?
+                  Field.create(Field.Type.STRING, null) :
+                  Field.create(Field.Type.ZONED_DATETIME, null);
+            }
+            if (timestampToString) {
+              return Field.create(Field.Type.STRING, offsetDateTime.toZonedDateTime().toString());
+            }
+            // Zoned Datetime can handle high precision
+            return Field.create(Field.Type.ZONED_DATETIME, offsetDateTime.toZonedDateTime());
+          };
+        case Types.SQLXML:
+          return (rs, i) -> {
+            SQLXML xml = rs.getSQLXML(i);
+            return Field.create(Field.Type.STRING, xml == null ? null : xml.getString());
+          };
+      }
+    } else if (vendor == DatabaseVendor.SQL_SERVER) {
+      if (columnType == TableContextUtil.TYPE_SQL_SERVER_DATETIMEOFFSET) {
+        return (rs, i) -> {
+          DateTimeOffset dateTimeOffset = rs.getObject(i, DateTimeOffset.class);
+          if (dateTimeOffset == null) {
+            return timestampToString ?
+                Field.create(Field.Type.STRING, null) :
+                Field.create(Field.Type.ZONED_DATETIME, null);
           }
-        } else if (vendor.isOneOf(DatabaseVendor.MYSQL, DatabaseVendor.MARIADB)) {
-          // For MySQL we have to deal with unsigned types since the JDBC driver won't transfer them properly for us
-          // Tinyint and mediumint (unsigned) are alright since MySQL will auto expand them for purpose of JDBC.
-          int columnType = md.getColumnType(columnIndex);
-          String columnTypeName = md.getColumnTypeName(columnIndex);
-          if(columnType == Types.SMALLINT && columnTypeName.endsWith("UNSIGNED")) {
-            int value = rs.getInt(columnIndex);
-            return Field.create(Field.Type.INTEGER, rs.wasNull() ? null : value);
+          if (timestampToString) {
+            return Field.create(Field.Type.STRING, dateTimeOffset.toString());
           }
-          if(columnType == Types.INTEGER && columnTypeName.endsWith("UNSIGNED")) {
-            long value = rs.getLong(columnIndex);
-            return Field.create(Field.Type.LONG, rs.wasNull() ? null : value);
+          return Field.create(Field.Type.ZONED_DATETIME, dateTimeOffset.getOffsetDateTime().toZonedDateTime());
+        };
+      }
+    } else if (vendor.isOneOf(DatabaseVendor.MYSQL, DatabaseVendor.MARIADB)) {
+      // For MySQL we have to deal with unsigned types since the JDBC driver won't transfer them properly for us
+      // Tinyint and mediumint (unsigned) are alright since MySQL will auto expand them for purpose of JDBC.
+      String columnTypeName = md.getColumnTypeName(columnIndex);
+      if(columnType == Types.SMALLINT && columnTypeName.endsWith("UNSIGNED")) {
+        return (rs, i) -> {
+          int value = rs.getInt(i);
+          return Field.create(Field.Type.INTEGER, rs.wasNull() ? null : value);
+        };
+      }
+      if(columnType == Types.INTEGER && columnTypeName.endsWith("UNSIGNED")) {
+        return (rs, i) -> {
+          long value = rs.getLong(i);
+          return Field.create(Field.Type.LONG, rs.wasNull() ? null : value);
+        };
+      }
+      if(columnType == Types.BIGINT && columnTypeName.endsWith("UNSIGNED")) {
+        return (rs, i) -> {
+          BigDecimal value = rs.getBigDecimal(i);
+          return Field.create(Field.Type.DECIMAL, rs.wasNull() ? null : value);
+        };
+      }
+    }
+
+    // All types as of JDBC 2.0 are here:
+    // https://docs.oracle.com/javase/8/docs/api/constant-values.html#java.sql.Types.ARRAY
+    // Good source of recommended mappings is here:
+    // http://www.cs.mun.ca/java-api-1.5/guide/jdbc/getstart/mapping.html
+    switch (columnType) {
+      case Types.BIGINT:
+        return (rs, i) -> Field.create(Field.Type.LONG, rs.getObject(i));
+      case Types.BINARY:
+      case Types.LONGVARBINARY:
+      case Types.VARBINARY:
+        return (rs, i) -> Field.create(Field.Type.BYTE_ARRAY, rs.getBytes(i));
+      case Types.BIT:
+      case Types.BOOLEAN:
+        return (rs, i) -> Field.create(Field.Type.BOOLEAN, rs.getObject(i));
+      case Types.CHAR:
+      case Types.LONGNVARCHAR:
+      case Types.LONGVARCHAR:
+      case Types.NCHAR:
+      case Types.NVARCHAR:
+      case Types.VARCHAR:
+        return (rs, i) -> Field.create(Field.Type.STRING, rs.getObject(i));
+      case Types.CLOB:
+      case Types.NCLOB:
+        return (rs, i) -> Field.create(Field.Type.STRING, getClobString(rs.getClob(i), maxClobSize));
+      case Types.BLOB:
+        return (rs, i) -> Field.create(Field.Type.BYTE_ARRAY, getBlobBytes(rs.getBlob(i), maxBlobSize));
+      case Types.DATE:
+        return (rs, i) -> Field.create(Field.Type.DATE, rs.getDate(i));
+      case Types.DECIMAL:
+      case Types.NUMERIC:
+        final String scale = String.valueOf(md.getScale(columnIndex));
+        final String precision = String.valueOf(md.getPrecision(columnIndex));
+        return (rs, i) -> {
+          Field field = Field.create(Field.Type.DECIMAL, rs.getBigDecimal(i));
+          field.setAttribute(HeaderAttributeConstants.ATTR_SCALE, scale);
+          field.setAttribute(HeaderAttributeConstants.ATTR_PRECISION, precision);
+          return field;
+        };
+      case Types.DOUBLE:
+        return (rs, i) -> Field.create(Field.Type.DOUBLE, rs.getObject(i));
+      case Types.FLOAT:
+      case Types.REAL:
+        return (rs, i) -> Field.create(Field.Type.FLOAT, rs.getObject(i));
+      case Types.INTEGER:
+        return (rs, i) -> Field.create(Field.Type.INTEGER, rs.getObject(i));
+      case Types.ROWID:
+        return (rs, i) -> Field.create(Field.Type.STRING, rs.getRowId(i).toString());
+      case Types.SMALLINT:
+      case Types.TINYINT:
+        return (rs, i) -> Field.create(Field.Type.SHORT, rs.getObject(i));
+      case Types.TIME:
+        return (rs, i) -> Field.create(Field.Type.TIME, rs.getObject(i));
+      case Types.TIMESTAMP:
+        return (rs, i) -> {
+          final Timestamp timestamp = rs.getTimestamp(i);
+          if (timestampToString) {
+            return Field.create(Field.Type.STRING, timestamp == null ? null : timestamp.toString());
           }
-          if(columnType == Types.BIGINT && columnTypeName.endsWith("UNSIGNED")) {
-            BigDecimal value = rs.getBigDecimal(columnIndex);
-            return Field.create(Field.Type.DECIMAL, rs.wasNull() ? null : value);
+          Field field = Field.create(Field.Type.DATETIME, timestamp);
+          if (timestamp != null) {
+            setNanosecondsinAttribute(timestamp.getNanos(), field);
           }
+          return field;
+        };
+      // Ugly hack until we can support LocalTime, LocalDate, LocalDateTime, etc.
+      case Types.TIME_WITH_TIMEZONE:
+        return (rs, i) -> {
+          OffsetTime offsetTime = rs.getObject(i, OffsetTime.class);
+          return Field.create(Field.Type.TIME, Date.from(offsetTime.atDate(LocalDate.MIN).toInstant()));
+        };
+      case Types.TIMESTAMP_WITH_TIMEZONE:
+        return (rs, i) -> {
+          OffsetDateTime offsetDateTime = rs.getObject(i, OffsetDateTime.class);
+          return Field.create(Field.Type.ZONED_DATETIME, offsetDateTime.toZonedDateTime());
+        };
+      //case Types.REF_CURSOR: // JDK8 only
+      case Types.SQLXML:
+      case Types.STRUCT:
+      case Types.ARRAY:
+      case Types.DATALINK:
+      case Types.DISTINCT:
+      case Types.JAVA_OBJECT:
+      case Types.NULL:
+      case Types.OTHER:
+      case Types.REF:
+      default:
+        if(unknownTypeAction == null) {
+          return (rs, i) -> null;
         }
-
-        // All types as of JDBC 2.0 are here:
-        // https://docs.oracle.com/javase/8/docs/api/constant-values.html#java.sql.Types.ARRAY
-        // Good source of recommended mappings is here:
-        // http://www.cs.mun.ca/java-api-1.5/guide/jdbc/getstart/mapping.html
-        switch (md.getColumnType(columnIndex)) {
-          case Types.BIGINT:
-            field = Field.create(Field.Type.LONG, rs.getObject(columnIndex));
-            break;
-          case Types.BINARY:
-          case Types.LONGVARBINARY:
-          case Types.VARBINARY:
-            field = Field.create(Field.Type.BYTE_ARRAY, rs.getBytes(columnIndex));
-            break;
-          case Types.BIT:
-          case Types.BOOLEAN:
-            field = Field.create(Field.Type.BOOLEAN, rs.getObject(columnIndex));
-            break;
-          case Types.CHAR:
-          case Types.LONGNVARCHAR:
-          case Types.LONGVARCHAR:
-          case Types.NCHAR:
-          case Types.NVARCHAR:
-          case Types.VARCHAR:
-            field = Field.create(Field.Type.STRING, rs.getObject(columnIndex));
-            break;
-          case Types.CLOB:
-          case Types.NCLOB:
-            field = Field.create(Field.Type.STRING, getClobString(rs.getClob(columnIndex), maxClobSize));
-            break;
-          case Types.BLOB:
-            field = Field.create(Field.Type.BYTE_ARRAY, getBlobBytes(rs.getBlob(columnIndex), maxBlobSize));
-            break;
-          case Types.DATE:
-            field = Field.create(Field.Type.DATE, rs.getDate(columnIndex));
-            break;
-          case Types.DECIMAL:
-          case Types.NUMERIC:
-            field = Field.create(Field.Type.DECIMAL, rs.getBigDecimal(columnIndex));
-            field.setAttribute(HeaderAttributeConstants.ATTR_SCALE, String.valueOf(rs.getMetaData().getScale(columnIndex)));
-            field.setAttribute(HeaderAttributeConstants.ATTR_PRECISION, String.valueOf(rs.getMetaData().getPrecision(columnIndex)));
-            break;
-          case Types.DOUBLE:
-            field = Field.create(Field.Type.DOUBLE, rs.getObject(columnIndex));
-            break;
-          case Types.FLOAT:
-          case Types.REAL:
-            field = Field.create(Field.Type.FLOAT, rs.getObject(columnIndex));
-            break;
-          case Types.INTEGER:
-            field = Field.create(Field.Type.INTEGER, rs.getObject(columnIndex));
-            break;
-          case Types.ROWID:
-            field = Field.create(Field.Type.STRING, rs.getRowId(columnIndex).toString());
-            break;
-          case Types.SMALLINT:
-          case Types.TINYINT:
-            field = Field.create(Field.Type.SHORT, rs.getObject(columnIndex));
-            break;
-          case Types.TIME:
-            field = Field.create(Field.Type.TIME, rs.getObject(columnIndex));
-            break;
-          case Types.TIMESTAMP:
-            final Timestamp timestamp = rs.getTimestamp(columnIndex);
-            if (timestampToString) {
-              field = Field.create(Field.Type.STRING, timestamp == null ? null : timestamp.toString());
-            } else {
-              field = Field.create(Field.Type.DATETIME, timestamp);
-              if (timestamp != null) {
-                setNanosecondsinAttribute(timestamp.getNanos(), field);
-              }
-            }
-            break;
-          // Ugly hack until we can support LocalTime, LocalDate, LocalDateTime, etc.
-          case Types.TIME_WITH_TIMEZONE:
-            OffsetTime offsetTime = rs.getObject(columnIndex, OffsetTime.class);
-            field = Field.create(Field.Type.TIME, Date.from(offsetTime.atDate(LocalDate.MIN).toInstant()));
-            break;
-          case Types.TIMESTAMP_WITH_TIMEZONE:
-            OffsetDateTime offsetDateTime = rs.getObject(columnIndex, OffsetDateTime.class);
-            field = Field.create(Field.Type.ZONED_DATETIME, offsetDateTime.toZonedDateTime());
-            break;
-          //case Types.REF_CURSOR: // JDK8 only
-          case Types.SQLXML:
-          case Types.STRUCT:
-          case Types.ARRAY:
-          case Types.DATALINK:
-          case Types.DISTINCT:
-          case Types.JAVA_OBJECT:
-          case Types.NULL:
-          case Types.OTHER:
-          case Types.REF:
+        switch (unknownTypeAction) {
+          case STOP_PIPELINE:
+            final String columnLabel = md.getColumnLabel(columnIndex);
+            return (rs, i) -> {
+              throw new StageException(JdbcErrors.JDBC_37, columnType, columnLabel);
+            };
+          case CONVERT_TO_STRING:
+            return (rs, i) -> {
+              Object value = rs.getObject(i);
+              return Field.create(Field.Type.STRING, value == null ? null : value.toString());
+            };
           default:
-            if(unknownTypeAction == null) {
-              return null;
-            }
-            switch (unknownTypeAction) {
-              case STOP_PIPELINE:
-                throw new StageException(JdbcErrors.JDBC_37, md.getColumnType(columnIndex), md.getColumnLabel(columnIndex));
-              case CONVERT_TO_STRING:
-                Object value = rs.getObject(columnIndex);
-                if(value != null) {
-                  field = Field.create(Field.Type.STRING, rs.getObject(columnIndex).toString());
-                } else {
-                  field = Field.create(Field.Type.STRING, null);
-                }
-                break;
-              default:
-                throw new IllegalStateException("Unknown action: " + unknownTypeAction);
-            }
+            throw new IllegalStateException("Unknown action: " + unknownTypeAction);
         }
-      }
-
-      return field;
+    }
   }
 
   public static void setNanosecondsinAttribute(int nanoseconds, Field field) {
@@ -898,33 +959,84 @@ public class JdbcUtil {
       boolean timestampToString,
       DatabaseVendor vendor
   ) throws SQLException, StageException {
+    return createRowReader(
+        rs,
+        maxClobSize,
+        maxBlobSize,
+        columnsToTypes,
+        unknownTypeAction,
+        recordHeader,
+        timestampToString,
+        vendor
+    ).read(rs, errorRecordHandler);
+  }
+
+  public JdbcRowReader createRowReader(
+      ResultSet rs,
+      CommonSourceConfigBean commonSourceBean,
+      UnknownTypeAction unknownTypeAction,
+      Set<String> recordHeader,
+      DatabaseVendor vendor
+  ) throws SQLException {
+    return createRowReader(
+        rs,
+        commonSourceBean.maxClobSize,
+        commonSourceBean.maxBlobSize,
+        Collections.emptyMap(),
+        unknownTypeAction,
+        recordHeader,
+        commonSourceBean.convertTimestampToString,
+        vendor
+    );
+  }
+
+  /**
+   * Creates a reader converting the rows of the given result set to fields. Column types, labels and the
+   * conversion of each column are resolved once here, readers should be reused for all rows of the result set.
+   */
+  public JdbcRowReader createRowReader(
+      ResultSet rs,
+      int maxClobSize,
+      int maxBlobSize,
+      Map<String, DataType> columnsToTypes,
+      UnknownTypeAction unknownTypeAction,
+      Set<String> recordHeader,
+      boolean timestampToString,
+      DatabaseVendor vendor
+  ) throws SQLException {
     ResultSetMetaData md = rs.getMetaData();
-    LinkedHashMap<String, Field> fields = new LinkedHashMap<>(md.getColumnCount());
-
-    for (int i = 1; i <= md.getColumnCount(); i++) {
-      try {
-        if (recordHeader == null || !recordHeader.contains(md.getColumnName(i))) {
-          DataType dataType = columnsToTypes.get(md.getColumnName(i));
-          Field field = resultToField(
-              md,
-              rs,
-              i,
-              maxClobSize,
-              maxBlobSize,
-              dataType == null ? DataType.USE_COLUMN_TYPE : dataType,
-              unknownTypeAction,
-              timestampToString,
-              vendor
-          );
-          fields.put(md.getColumnLabel(i), field);
-        }
-      } catch (IOException|SQLException e) {
-        LOG.debug("Can't read from JDBC: {}", e.getMessage(), e);
-        errorRecordHandler.onError(JdbcErrors.JDBC_03, md.getColumnName(i), md.getColumnType(i), rs.getObject(i), e);
+    int columnCount = md.getColumnCount();
+    List<Integer> indexes = new ArrayList<>(columnCount);
+    for (int i = 1; i <= columnCount; i++) {
+      if (recordHeader == null || !recordHeader.contains(md.getColumnName(i))) {
+        indexes.add(i);
       }
     }
 
-    return fields;
+    int[] columnIndexes = new int[indexes.size()];
+    String[] columnLabels = new String[columnIndexes.length];
+    String[] columnNames = new String[columnIndexes.length];
+    int[] columnTypes = new int[columnIndexes.length];
+    JdbcRowReader.ColumnReader[] readers = new JdbcRowReader.ColumnReader[columnIndexes.length];
+    for (int c = 0; c < columnIndexes.length; c++) {
+      int i = indexes.get(c);
+      columnIndexes[c] = i;
+      columnLabels[c] = md.getColumnLabel(i);
+      columnNames[c] = md.getColumnName(i);
+      columnTypes[c] = md.getColumnType(i);
+      DataType dataType = columnsToTypes.get(columnNames[c]);
+      readers[c] = compileColumnReader(
+          md,
+          i,
+          maxClobSize,
+          maxBlobSize,
+          dataType == null ? DataType.USE_COLUMN_TYPE : dataType,
+          unknownTypeAction,
+          timestampToString,
+          vendor
+      );
+    }
+    return new JdbcRowReader(rs, columnCount, columnIndexes, columnLabels, columnNames, columnTypes, readers);
   }
 
   private HikariConfig createDataSourceConfig(
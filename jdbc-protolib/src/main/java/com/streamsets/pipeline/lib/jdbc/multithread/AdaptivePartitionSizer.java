@@ -0,0 +1,228 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.jdbc.multithread;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.streamsets.pipeline.api.impl.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.sql.Types;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Adjusts the partition size of a partitioned table so that each partition holds roughly a target number of rows,
+ * instead of covering a fixed range of offset column values.
+ *
+ * <p>The initial size is derived from the min and max values of the offset column and the row count kept in the
+ * table statistics, when the database exposes one; otherwise the configured partition size is used as the
+ * starting point. Every time a partition is read to the end, the number of rows it contained is used to move the
+ * size of the partitions created afterwards toward the target.</p>
+ *
+ * <p>The current size is published through {@link TableContext#getOffsetColumnToPartitionOffsetAdjustments()},
+ * so partitions are still created by {@link TableRuntimeContext#createNextPartition(TableRuntimeContext)}. Existing
+ * partitions are never resized, since their boundaries are part of their offset keys.</p>
+ */
+public class AdaptivePartitionSizer {
+  private static final Logger LOG = LoggerFactory.getLogger(AdaptivePartitionSizer.class);
+
+  @VisibleForTesting
+  static final BigDecimal MAX_ADJUSTMENT_FACTOR = BigDecimal.valueOf(4);
+
+  private static final BigDecimal TWO = BigDecimal.valueOf(2);
+  private static final MathContext MATH_CONTEXT = MathContext.DECIMAL64;
+
+  private static final Set<Integer> INT_TYPES = ImmutableSet.of(
+      Types.TINYINT,
+      Types.SMALLINT,
+      Types.INTEGER
+  );
+
+  private static final Set<Integer> LONG_TYPES = ImmutableSet.of(
+      Types.BIGINT,
+      Types.TIME,
+      Types.DATE,
+      Types.TIMESTAMP
+  );
+
+  private static final Set<Integer> DECIMAL_TYPES = ImmutableSet.of(
+      Types.FLOAT,
+      Types.REAL,
+      Types.DOUBLE,
+      Types.NUMERIC,
+      Types.DECIMAL
+  );
+
+  private final TableContext tableContext;
+  private final String offsetColumn;
+  private final int offsetColumnType;
+  private final BigDecimal targetRowsPerPartition;
+  private final BigDecimal configuredSize;
+  private BigDecimal currentSize;
+
+  public AdaptivePartitionSizer(TableContext tableContext, int targetRowsPerPartition, long approximateRowCount) {
+    Utils.checkArgument(targetRowsPerPartition > 0, "targetRowsPerPartition must be greater than zero");
+    Utils.checkArgument(
+        canSize(tableContext),
+        Utils.format("Partition size of table {} cannot be adjusted", tableContext.getQualifiedName())
+    );
+    this.tableContext = tableContext;
+    this.offsetColumn = Iterables.getOnlyElement(tableContext.getOffsetColumns());
+    this.offsetColumnType = tableContext.getOffsetColumnToType().get(offsetColumn);
+    this.targetRowsPerPartition = BigDecimal.valueOf(targetRowsPerPartition);
+    this.configuredSize = new BigDecimal(tableContext.getOffsetColumnToPartitionOffsetAdjustments().get(offsetColumn));
+
+    final BigDecimal span = getOffsetSpan();
+    if (span != null && approximateRowCount > 0) {
+      currentSize = bound(
+          span.multiply(this.targetRowsPerPartition).divide(BigDecimal.valueOf(approximateRowCount), MATH_CONTEXT)
+      );
+    } else {
+      currentSize = bound(configuredSize);
+    }
+    publish();
+
+    LOG.info(
+        "Table {} will use adaptive partitioning with a target of {} rows per partition; approximate row count {}," +
+            " initial partition size {}",
+        tableContext.getQualifiedName(),
+        targetRowsPerPartition,
+        approximateRowCount,
+        getPartitionSize()
+    );
+  }
+
+  /**
+   * Returns whether the partition size of the given table can be adjusted, that is, whether the table is
+   * partitionable and the distance between two values of its offset column can be measured.
+   */
+  public static boolean canSize(TableContext tableContext) {
+    if (!tableContext.isPartitionable() || tableContext.getOffsetColumns().size() != 1) {
+      return false;
+    }
+    final int type = tableContext.getOffsetColumnToType().values().iterator().next();
+    return INT_TYPES.contains(type) || LONG_TYPES.contains(type) || DECIMAL_TYPES.contains(type);
+  }
+
+  /**
+   * Called once a partition has been read to the end (i.e. it is marked as having no more data).
+   */
+  public synchronized void partitionFinished(TableRuntimeContext partition) {
+    if (!partition.isPartitioned() || !partition.getInitialStoredOffsets().isEmpty()) {
+      // partitions resumed from a stored offset were partially read before, so their row count is incomplete
+      return;
+    }
+    final BigDecimal start = toNumericValue(partition.getPartitionOffsetStart().get(offsetColumn));
+    final BigDecimal end = toNumericValue(partition.getPartitionOffsetEnd().get(offsetColumn));
+    if (start == null || end == null || end.compareTo(start) <= 0) {
+      return;
+    }
+    final long rows = partition.getRowsRead();
+    if (rows == 0 && TableContextUtil.allOffsetsBeyondMaxValues(tableContext, partition.getPartitionOffsetStart())) {
+      // an empty partition past the end of the table says nothing about how dense the data is
+      return;
+    }
+
+    final BigDecimal width = end.subtract(start);
+    BigDecimal desired = width.multiply(targetRowsPerPartition)
+        .divide(BigDecimal.valueOf(Math.max(rows, 1)), MATH_CONTEXT);
+    desired = desired.min(width.multiply(MAX_ADJUSTMENT_FACTOR))
+        .max(width.divide(MAX_ADJUSTMENT_FACTOR, MATH_CONTEXT));
+
+    // partitions finish out of order and with different densities, so only move halfway toward each observation
+    currentSize = bound(currentSize.add(desired).divide(TWO, MATH_CONTEXT));
+    publish();
+
+    if (LOG.isDebugEnabled()) {
+      LOG.debug(
+          "Partition {} had {} rows over a range of {}; partition size for table {} is now {}",
+          partition.getPartitionSequence(),
+          rows,
+          width.toPlainString(),
+          tableContext.getQualifiedName(),
+          getPartitionSize()
+      );
+    }
+  }
+
+  public synchronized String getPartitionSize() {
+    return tableContext.getOffsetColumnToPartitionOffsetAdjustments().get(offsetColumn);
+  }
+
+  private void publish() {
+    final String size;
+    if (DECIMAL_TYPES.contains(offsetColumnType)) {
+      size = currentSize.toPlainString();
+    } else {
+      size = currentSize.setScale(0, RoundingMode.HALF_UP).toPlainString();
+    }
+    tableContext.getOffsetColumnToPartitionOffsetAdjustments().put(offsetColumn, size);
+  }
+
+  /**
+   * Keeps the size positive, within what the offset column type can hold, and no larger than the range of values
+   * currently in the table (or the configured size, if that is larger).
+   */
+  private BigDecimal bound(BigDecimal size) {
+    BigDecimal upper = configuredSize;
+    final BigDecimal span = getOffsetSpan();
+    if (span != null) {
+      upper = upper.max(span);
+    }
+    if (INT_TYPES.contains(offsetColumnType)) {
+      upper = upper.min(BigDecimal.valueOf(Integer.MAX_VALUE));
+    } else if (LONG_TYPES.contains(offsetColumnType)) {
+      upper = upper.min(BigDecimal.valueOf(Long.MAX_VALUE));
+    }
+    BigDecimal bounded = size.min(upper);
+    if (!DECIMAL_TYPES.contains(offsetColumnType)) {
+      bounded = bounded.max(BigDecimal.ONE);
+    }
+    return bounded;
+  }
+
+  private BigDecimal getOffsetSpan() {
+    final Map<String, String> minValues = tableContext.getOffsetColumnToMinValues();
+    final Map<String, String> maxValues = tableContext.getOffsetColumnToMaxValues();
+    final BigDecimal min = toNumericValue(minValues.get(offsetColumn));
+    final BigDecimal max = toNumericValue(maxValues.get(offsetColumn));
+    if (min == null || max == null || max.compareTo(min) <= 0) {
+      return null;
+    }
+    return max.subtract(min);
+  }
+
+  private BigDecimal toNumericValue(String offset) {
+    if (offset == null) {
+      return null;
+    }
+    try {
+      if (offsetColumnType == Types.TIMESTAMP) {
+        return BigDecimal.valueOf(TableContextUtil.getTimestampForOffsetValue(offset).getTime());
+      }
+      return new BigDecimal(offset);
+    } catch (IllegalArgumentException e) {
+      LOG.debug("Offset value '{}' of table {} is not numeric", offset, tableContext.getQualifiedName(), e);
+      return null;
+    }
+  }
+}
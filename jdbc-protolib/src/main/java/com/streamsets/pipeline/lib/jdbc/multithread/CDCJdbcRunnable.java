@@ -103,14 +103,8 @@ public class CDCJdbcRunnable extends JdbcBaseRunnable {
   ) throws SQLException, StageException {
     ResultSetMetaData md = rs.getMetaData();
 
-    LinkedHashMap<String, Field> fields = jdbcUtil.resultSetToFields(
-        rs,
-        commonSourceConfigBean,
-        errorRecordHandler,
-        tableJdbcConfigBean.unknownTypeAction,
-        recordHeader,
-        DatabaseVendor.SQL_SERVER
-    );
+    LinkedHashMap<String, Field> fields = getRowReader(rs, recordHeader, DatabaseVendor.SQL_SERVER)
+        .read(rs, errorRecordHandler);
 
     Map<String, String> columnOffsets = new HashMap<>();
 
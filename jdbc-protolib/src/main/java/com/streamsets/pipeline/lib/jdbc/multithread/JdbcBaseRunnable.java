@@ -27,6 +27,7 @@ import com.streamsets.pipeline.api.PushSource;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.ToErrorContext;
 import com.streamsets.pipeline.lib.jdbc.JdbcErrors;
+import com.streamsets.pipeline.lib.jdbc.JdbcRowReader;
 import com.streamsets.pipeline.lib.jdbc.JdbcUtil;
 import com.streamsets.pipeline.lib.jdbc.UtilsProvider;
 import com.streamsets.pipeline.lib.jdbc.multithread.cache.JdbcTableReadContextInvalidationListener;
@@ -50,6 +51,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.TimeZone;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -94,6 +96,7 @@ public abstract class JdbcBaseRunnable implements Runnable, JdbcRunnable {
   private boolean isReconnect;
 
   protected final JdbcUtil jdbcUtil;
+  private JdbcRowReader rowReader;
 
   private enum Status {
     WAITING_FOR_RATE_LIMIT_PERMIT,
@@ -537,4 +540,24 @@ public abstract class JdbcBaseRunnable implements Runnable, JdbcRunnable {
     return connectionManager.getVendor();
   }
 
+  /**
+   * Returns the reader for the rows of the given result set, creating it on the first row of a new result set.
+   */
+  protected JdbcRowReader getRowReader(
+      ResultSet rs,
+      Set<String> recordHeader,
+      DatabaseVendor vendor
+  ) throws SQLException {
+    if (rowReader == null || !rowReader.isReaderFor(rs)) {
+      rowReader = jdbcUtil.createRowReader(
+          rs,
+          commonSourceConfigBean,
+          tableJdbcConfigBean.unknownTypeAction,
+          recordHeader,
+          vendor
+      );
+    }
+    return rowReader;
+  }
+
 }
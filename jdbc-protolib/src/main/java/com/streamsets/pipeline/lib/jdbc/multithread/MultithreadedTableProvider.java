@@ -739,7 +739,14 @@ public final class MultithreadedTableProvider {
 
     final boolean noMoreData = recordCount == 0 || resultSetEndReached;
 
+    tableRuntimeContext.addRowsRead(recordCount);
     if (noMoreData) {
+      final AdaptivePartitionSizer partitionSizer = sourceContext.getPartitionSizer();
+      if (partitionSizer != null && !tableRuntimeContext.isMarkedNoMoreData()) {
+        synchronized (partitionStateLock) {
+          partitionSizer.partitionFinished(tableRuntimeContext);
+        }
+      }
       tableRuntimeContext.setMarkedNoMoreData(true);
     }
 
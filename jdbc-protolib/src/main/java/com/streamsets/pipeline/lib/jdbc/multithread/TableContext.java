@@ -50,6 +50,7 @@ public class TableContext {
   // optionally store all column labels and types
   private Map<String, Integer> columnToType = new LinkedHashMap<>();
   private long offset;
+  private AdaptivePartitionSizer partitionSizer;
 
   public TableContext(
       DatabaseVendor vendor,
@@ -162,6 +163,18 @@ public class TableContext {
     return offsetColumnToPartitionOffsetAdjustments;
   }
 
+  /**
+   * Returns the sizer adjusting {@link #getOffsetColumnToPartitionOffsetAdjustments()} for this table, or null if the
+   * table uses a fixed partition size.
+   */
+  public AdaptivePartitionSizer getPartitionSizer() {
+    return partitionSizer;
+  }
+
+  public void setPartitionSizer(AdaptivePartitionSizer partitionSizer) {
+    this.partitionSizer = partitionSizer;
+  }
+
   public Map<String, String> getOffsetColumnToMinValues() {
     return Collections.unmodifiableMap(offsetColumnToMinValues);
   }
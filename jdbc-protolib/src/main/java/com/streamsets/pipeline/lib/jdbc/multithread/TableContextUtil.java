@@ -322,7 +322,7 @@ public class TableContextUtil {
     final Map<String, String> offsetAdjustments = new HashMap<>();
     offsetColumnToType.keySet().forEach(c -> offsetAdjustments.put(c, tableConfigBean.getPartitionSize()));
 
-    return new TableContext(
+    final TableContext tableContext = new TableContext(
         vendor,
         quoteChar,
         schemaName,
@@ -337,6 +337,27 @@ public class TableContextUtil {
         tableConfigBean.getMaxNumActivePartitions(),
         tableConfigBean.getExtraOffsetColumnConditions()
     );
+
+    if (tableConfigBean.getPartitioningMode() != PartitioningMode.DISABLED
+        && tableConfigBean.getTargetRowsPerPartition() > 0
+        && tableContext.isPartitionable()) {
+      if (AdaptivePartitionSizer.canSize(tableContext)) {
+        tableContext.setPartitionSizer(new AdaptivePartitionSizer(
+            tableContext,
+            tableConfigBean.getTargetRowsPerPartition(),
+            jdbcUtil.getApproximateRowCount(connection, schemaName, tableName)
+        ));
+      } else {
+        LOG.info(
+            "Table {} will use the fixed partition size {} since its offset column type does not support adaptive" +
+                " partitioning",
+            qualifiedTableName,
+            tableConfigBean.getPartitionSize()
+        );
+      }
+    }
+
+    return tableContext;
   }
 
   /**
@@ -23,6 +23,7 @@ import com.streamsets.pipeline.api.PushSource;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.lib.jdbc.JdbcErrors;
+import com.streamsets.pipeline.lib.jdbc.JdbcRowReader;
 import com.streamsets.pipeline.stage.origin.jdbc.CommonSourceConfigBean;
 import com.streamsets.pipeline.lib.jdbc.multithread.util.OffsetQueryUtil;
 import com.streamsets.pipeline.stage.origin.jdbc.table.TableJdbcConfigBean;
@@ -30,7 +31,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.Collections;
 import java.util.LinkedHashMap;
@@ -71,15 +71,8 @@ public final class TableJdbcRunnable extends JdbcBaseRunnable {
       TableRuntimeContext tableRuntimeContext,
       BatchContext batchContext
   ) throws SQLException, StageException {
-    ResultSetMetaData md = rs.getMetaData();
-
-    LinkedHashMap<String, Field> fields = jdbcUtil.resultSetToFields(
-        rs,
-        commonSourceConfigBean,
-        errorRecordHandler,
-        tableJdbcConfigBean.unknownTypeAction,
-        getVendor()
-    );
+    JdbcRowReader rowReader = getRowReader(rs, null, getVendor());
+    LinkedHashMap<String, Field> fields = rowReader.read(rs, errorRecordHandler);
 
     // TODO: change offset format here for incremental mode (finished=true if result set end reached)
 
@@ -100,14 +93,14 @@ public final class TableJdbcRunnable extends JdbcBaseRunnable {
       jdbcUtil.setColumnSpecificHeaders(
           record,
           Collections.singleton(tableRuntimeContext.getSourceTableContext().getTableName()),
-          md,
+          rs.getMetaData(),
           JDBC_NAMESPACE_HEADER
       );
       record.getHeader().setAttribute(PARTITION_ATTRIBUTE, tableRuntimeContext.getDescription());
       record.getHeader().setAttribute(THREAD_NUMBER_ATTRIBUTE, String.valueOf(threadNumber));
     }
 
-    int columns = rs.getMetaData().getColumnCount();
+    int columns = rowReader.getColumnCount();
     if (fields.size() != columns) {
       errorRecordHandler.onError(JdbcErrors.JDBC_35, fields.size(), columns);
       return; // Don't output this record.
@@ -62,6 +62,8 @@ public class TableRuntimeContext {
 
   private boolean resultSetProduced = false;
 
+  private long rowsRead = 0;
+
   private Map<String, String> firstRecordedOffsets;
   private boolean firstRecordedOffsetsPassed = false;
 
@@ -508,7 +510,11 @@ public class TableRuntimeContext {
 
     lastPartition.partitionOffsetStart.forEach(
         (col, off) -> {
-          String basedOnStartOffset = lastPartition.generateNextPartitionOffset(col, off);
+          // continue from where the last partition ends, since the partition size may have changed since then
+          String basedOnStartOffset = lastPartition.partitionOffsetEnd.get(col);
+          if (basedOnStartOffset == null) {
+            basedOnStartOffset = lastPartition.generateNextPartitionOffset(col, off);
+          }
           nextStartingOffsets.put(col, basedOnStartOffset);
         }
     );
@@ -610,6 +616,14 @@ public class TableRuntimeContext {
     this.markedNoMoreData = markedNoMoreData;
   }
 
+  public long getRowsRead() {
+    return rowsRead;
+  }
+
+  public void addRowsRead(int rows) {
+    this.rowsRead += rows;
+  }
+
   public boolean isResultSetProduced() {
     return resultSetProduced;
   }
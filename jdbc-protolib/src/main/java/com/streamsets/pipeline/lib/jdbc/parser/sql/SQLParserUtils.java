@@ -42,7 +42,6 @@ public class SQLParserUtils {
 
   private SQLParserUtils() {}
 
-  @SuppressWarnings("unchecked")
   public static Map<String, String> process(
       SQLParser parser,
       String sql,
@@ -50,6 +49,27 @@ public class SQLParserUtils {
       boolean allowNulls,
       boolean caseSensitive,
       Set<String> columnsExpected
+  ) throws UnparseableSQLException {
+    // LogMiner only emits a handful of statement shapes, the single pass parser handles them without building a
+    // parse tree; anything else goes through the grammar below.
+    Map<String, String> colVals = SQLRedoParser.parse(sql, type, caseSensitive);
+    if (colVals == null) {
+      colVals = parse(parser, sql, type, caseSensitive);
+    }
+    if (allowNulls && columnsExpected != null) {
+      for (String col : columnsExpected) {
+        colVals.putIfAbsent(col, null);
+      }
+    }
+    return colVals;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, String> parse(
+      SQLParser parser,
+      String sql,
+      int type,
+      boolean caseSensitive
   ) throws UnparseableSQLException {
     Rule parseRule;
     switch (type) {
@@ -97,9 +117,6 @@ public class SQLParserUtils {
         colVals.put(key, formatValue(sql.substring(val.getStartIndex(), val.getEndIndex())));
       }
     }
-    if (allowNulls && columnsExpected != null) {
-      columnsExpected.forEach(col -> colVals.putIfAbsent(col,  null));
-    }
     return colVals;
   }
 
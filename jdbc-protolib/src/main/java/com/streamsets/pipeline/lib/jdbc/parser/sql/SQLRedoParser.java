@@ -0,0 +1,355 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.jdbc.parser.sql;
+
+import com.streamsets.pipeline.lib.jdbc.OracleCDCOperationCode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Single pass parser for the restricted INSERT/UPDATE/DELETE statements that LogMiner emits in SQL_REDO. It produces
+ * exactly the same column map as {@link SQLParser}, but walks the statement once without building a parse tree.
+ *
+ * Statements outside of the supported shapes (for example unquoted literals) are not rejected but reported as
+ * unsupported by returning null so that the caller can fall back to the general purpose parser.
+ */
+final class SQLRedoParser {
+  private static final String NULL_STRING = "NULL";
+  private static final String ROWID = "ROWID";
+
+  private final String sql;
+  private final int length;
+  private final boolean caseSensitive;
+  private final Map<String, String> columns = new HashMap<>();
+  private int pos;
+
+  private SQLRedoParser(String sql, boolean caseSensitive) {
+    this.sql = sql;
+    this.length = sql.length();
+    this.caseSensitive = caseSensitive;
+  }
+
+  /**
+   * Parses the given SQL_REDO statement.
+   *
+   * @param type One of OracleCDCOperationCode constants.
+   * @return column name to (unescaped) column value, or null if the statement is not one of the supported shapes.
+   */
+  static Map<String, String> parse(String sql, int type, boolean caseSensitive) {
+    SQLRedoParser parser = new SQLRedoParser(sql, caseSensitive);
+    boolean parsed;
+    switch (type) {
+      case OracleCDCOperationCode.INSERT_CODE:
+        parsed = parser.insert();
+        break;
+      case OracleCDCOperationCode.UPDATE_CODE:
+      case OracleCDCOperationCode.SELECT_FOR_UPDATE_CODE:
+        parsed = parser.update();
+        break;
+      case OracleCDCOperationCode.DELETE_CODE:
+        parsed = parser.delete();
+        break;
+      default:
+        parsed = false;
+    }
+    return parsed && parser.end() ? parser.columns : null;
+  }
+
+  private boolean insert() {
+    if (!keyword("INSERT") || !keyword("INTO") || !table()) {
+      return false;
+    }
+    whiteSpace();
+    if (!ch('(')) {
+      return false;
+    }
+    List<String> names = new ArrayList<>();
+    do {
+      whiteSpace();
+      String name = columnName();
+      if (name == null) {
+        return false;
+      }
+      names.add(name);
+      whiteSpace();
+    } while (ch(','));
+    if (!ch(')') || !keyword("VALUES")) {
+      return false;
+    }
+    whiteSpace();
+    if (!ch('(')) {
+      return false;
+    }
+    int i = 0;
+    do {
+      whiteSpace();
+      int start = pos;
+      if (i == names.size() || !columnValue()) {
+        return false;
+      }
+      put(names.get(i++), start);
+      whiteSpace();
+    } while (ch(','));
+    return i == names.size() && ch(')');
+  }
+
+  private boolean update() {
+    if (!keyword("UPDATE") || !table() || !tableAlias() || !keyword("SET")) {
+      return false;
+    }
+    do {
+      if (!columnNameValue()) {
+        return false;
+      }
+      whiteSpace();
+    } while (ch(','));
+    return whereClause();
+  }
+
+  private boolean delete() {
+    return keyword("DELETE") && keyword("FROM") && table() && tableAlias() && whereClause();
+  }
+
+  private boolean whereClause() {
+    whiteSpace();
+    if (!keyword("WHERE")) {
+      return true;
+    }
+    do {
+      if (!columnNameValue()) {
+        return false;
+      }
+    } while (keyword("AND"));
+    return true;
+  }
+
+  /**
+   * [alias.]name (= | IS) value
+   */
+  private boolean columnNameValue() {
+    whiteSpace();
+    String name = columnName();
+    if (name == null) {
+      int aliasEnd = letters(pos);
+      if (aliasEnd == pos || aliasEnd == length || sql.charAt(aliasEnd) != '.') {
+        return false;
+      }
+      pos = aliasEnd + 1;
+      name = columnName();
+      if (name == null) {
+        return false;
+      }
+    }
+    whiteSpace();
+    if (!ch('=') && !keyword("IS")) {
+      return false;
+    }
+    whiteSpace();
+    int start = pos;
+    if (!columnValue()) {
+      return false;
+    }
+    put(name, start);
+    return true;
+  }
+
+  private void put(String name, int valueStart) {
+    if (!columns.containsKey(name)) {
+      columns.put(name, formatValue(valueStart, pos));
+    }
+  }
+
+  private boolean table() {
+    whiteSpace();
+    return identifierEnd() > 0 && ch('.') && identifierEnd() > 0;
+  }
+
+  private boolean tableAlias() {
+    whiteSpace();
+    int end = letters(pos);
+    if (end > pos && !startsWith(pos, "SET") && !startsWith(pos, "WHERE")) {
+      pos = end;
+    }
+    return true;
+  }
+
+  /**
+   * Returns the formatted column name, or null if there is no column name at the current position.
+   */
+  private String columnName() {
+    String name;
+    int start = pos;
+    if (startsWith(pos, ROWID) && letters(pos) == pos + ROWID.length()) {
+      pos += ROWID.length();
+      name = sql.substring(start, pos);
+    } else if (identifierEnd() > 0) {
+      name = sql.substring(start + 1, pos - 1);
+    } else {
+      return null;
+    }
+    return caseSensitive ? name : name.toUpperCase();
+  }
+
+  /**
+   * Consumes a double quoted identifier and returns the position after its closing quote, or -1 if there is none or
+   * it uses the escapes that only the general purpose parser handles.
+   */
+  private int identifierEnd() {
+    if (pos == length || sql.charAt(pos) != '"') {
+      return -1;
+    }
+    int close = sql.indexOf('"', pos + 1);
+    if (close < 0 || sql.charAt(pos + 1) == '\'' || sql.charAt(close - 1) == '\'') {
+      return -1;
+    }
+    pos = close + 1;
+    return pos;
+  }
+
+  /**
+   * NULL, a quoted string or a (possibly nested) function call such as TO_DATE, TO_TIMESTAMP or HEXTORAW whose
+   * arguments are themselves column values.
+   */
+  private boolean columnValue() {
+    if (pos == length) {
+      return false;
+    }
+    char c = sql.charAt(pos);
+    if (c == '\'') {
+      return quoted();
+    }
+    int nameEnd = funcNameEnd();
+    if (nameEnd == pos) {
+      return false;
+    }
+    if (nameEnd < length && sql.charAt(nameEnd) == '(') {
+      pos = nameEnd + 1;
+      whiteSpace();
+      if (ch(')')) {
+        return true;
+      }
+      do {
+        whiteSpace();
+        if (!columnValue()) {
+          return false;
+        }
+        whiteSpace();
+      } while (ch(','));
+      return ch(')');
+    }
+    if (nameEnd - pos == NULL_STRING.length() && startsWith(pos, NULL_STRING)) {
+      pos = nameEnd;
+      return true;
+    }
+    // unquoted literal
+    return false;
+  }
+
+  private boolean quoted() {
+    int i = pos + 1;
+    while (i < length) {
+      if (sql.charAt(i) == '\'') {
+        if (i + 1 < length && sql.charAt(i + 1) == '\'') {
+          i += 2;
+          continue;
+        }
+        pos = i + 1;
+        return true;
+      }
+      i++;
+    }
+    return false;
+  }
+
+  private String formatValue(int start, int end) {
+    String value;
+    if (sql.charAt(start) == '\'') {
+      value = sql.substring(start + 1, end - 1);
+    } else if (end - start == NULL_STRING.length() && startsWith(start, NULL_STRING)) {
+      return null;
+    } else {
+      value = sql.substring(start, end);
+    }
+    return value.indexOf("''") < 0 ? value : value.replace("''", "'");
+  }
+
+  private boolean end() {
+    whiteSpace();
+    if (ch(';')) {
+      whiteSpace();
+    }
+    return pos == length;
+  }
+
+  private boolean keyword(String keyword) {
+    whiteSpace();
+    if (startsWith(pos, keyword)) {
+      pos += keyword.length();
+      return true;
+    }
+    return false;
+  }
+
+  private boolean startsWith(int at, String keyword) {
+    return sql.regionMatches(true, at, keyword, 0, keyword.length());
+  }
+
+  private boolean ch(char c) {
+    if (pos < length && sql.charAt(pos) == c) {
+      pos++;
+      return true;
+    }
+    return false;
+  }
+
+  private int letters(int from) {
+    int i = from;
+    while (i < length && isLetter(sql.charAt(i))) {
+      i++;
+    }
+    return i;
+  }
+
+  private int funcNameEnd() {
+    int i = pos;
+    while (i < length) {
+      char c = sql.charAt(i);
+      if (!isLetter(c) && !(c >= '0' && c <= '9') && c != '_') {
+        break;
+      }
+      i++;
+    }
+    return i;
+  }
+
+  private static boolean isLetter(char c) {
+    return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+  }
+
+  private void whiteSpace() {
+    while (pos < length) {
+      char c = sql.charAt(pos);
+      if (c != ' ' && c != '\n' && c != '\t' && c != '\r' && c != '\f') {
+        return;
+      }
+      pos++;
+    }
+  }
+
+}
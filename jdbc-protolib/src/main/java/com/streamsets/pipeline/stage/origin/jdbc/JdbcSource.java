@@ -35,6 +35,7 @@ import com.streamsets.pipeline.lib.event.NoMoreDataEvent;
 import com.streamsets.pipeline.lib.jdbc.BasicConnectionString;
 import com.streamsets.pipeline.lib.jdbc.HikariPoolConfigBean;
 import com.streamsets.pipeline.lib.jdbc.JdbcErrors;
+import com.streamsets.pipeline.lib.jdbc.JdbcRowReader;
 import com.streamsets.pipeline.lib.jdbc.JdbcUtil;
 import com.streamsets.pipeline.lib.jdbc.MSOperationCode;
 import com.streamsets.pipeline.lib.jdbc.UnknownTypeAction;
@@ -102,6 +103,7 @@ public class JdbcSource extends BaseSource {
   private HikariDataSource dataSource = null;
   private Connection connection = null;
   private ResultSet resultSet = null;
+  private JdbcRowReader rowReader;
   private long lastQueryCompletedTime = 0L;
   private String preparedQuery;
   private int queryRowCount = 0;
@@ -601,17 +603,18 @@ public class JdbcSource extends BaseSource {
 
   protected Record processRow(ResultSet resultSet, long rowCount) throws SQLException {
     Source.Context context = getContext();
-    ResultSetMetaData md = resultSet.getMetaData();
-    int numColumns = md.getColumnCount();
-
-    LinkedHashMap<String, Field> fields = jdbcUtil.resultSetToFields(
-        resultSet,
-        commonSourceConfigBean,
-        errorRecordHandler,
-        unknownTypeAction,
-        null,
-        hikariConfigBean.getVendor()
-    );
+    if (rowReader == null || !rowReader.isReaderFor(resultSet)) {
+      rowReader = jdbcUtil.createRowReader(
+          resultSet,
+          commonSourceConfigBean,
+          unknownTypeAction,
+          null,
+          hikariConfigBean.getVendor()
+      );
+    }
+    int numColumns = rowReader.getColumnCount();
+
+    LinkedHashMap<String, Field> fields = rowReader.read(resultSet, errorRecordHandler);
 
     if (fields.size() != numColumns) {
       errorRecordHandler.onError(JdbcErrors.JDBC_35, fields.size(), numColumns);
@@ -636,7 +639,7 @@ public class JdbcSource extends BaseSource {
       record.set(Field.create(row));
     }
     if (createJDBCNsHeaders) {
-      jdbcUtil.setColumnSpecificHeaders(record, Collections.emptySet(), md, jdbcNsHeaderPrefix);
+      jdbcUtil.setColumnSpecificHeaders(record, Collections.emptySet(), resultSet.getMetaData(), jdbcNsHeaderPrefix);
     }
     // We will add cdc operation type to record header even if createJDBCNsHeaders is false
     // we currently support CDC on only MS SQL.
@@ -21,4 +21,11 @@ public interface HashQueue<E> extends Queue<E> {
   E tail();
   void close();
   void completeInserts();
+
+  /**
+   * Persists changes made to an element obtained from this queue, for implementations that do not hand out the
+   * buffered instances themselves.
+   */
+  default void update(E e) {
+  }
 }
@@ -111,6 +111,20 @@ public class OracleCDCConfigBean {
   @ValueChooserModel(BufferingChooserValues.class)
   public BufferingValues bufferLocation;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      label = "Max Buffer Memory (MB)",
+      description = "Memory that buffered transactions may use before their records are spilled to disk",
+      displayPosition = 95,
+      group = "CDC",
+      defaultValue = "100",
+      min = 0,
+      dependsOn = "bufferLocation",
+      triggeredByValue = "ON_DISK"
+  )
+  public int bufferMemoryLimitMB;
+
   @ConfigDef(
       required = true,
       type = ConfigDef.Type.BOOLEAN,
@@ -197,6 +197,7 @@ public class OracleCDCSource extends BaseSource {
 
   private boolean sentInitialSchemaEvent = false;
   private File txnBufferLocation;
+  private TransactionSpillLog spillLog;
 
   private PreparedStatement selectFromLogMnrContents;
   private static final int MISSING_LOG_FILE = 1291;
@@ -800,7 +801,7 @@ public class OracleCDCSource extends BaseSource {
       HashQueue<RecordSequence> records =
           bufferedRecords.computeIfAbsent(key, x -> {
             x.setTxnStartTime(logMnrRecord.getLocalDateTime());
-            return createTransactionBuffer(key.txnId);
+            return createTransactionBuffer();
           });
 
       int nextSeq = records.isEmpty() ? 1 : records.tail().seq + 1;
@@ -829,6 +830,7 @@ public class OracleCDCSource extends BaseSource {
         for(RecordSequence rs : records) {
           if(count == lastOne) {
             rs.headers.put(SKIP, ONE);
+            records.update(rs);
             break;
           }
           count++;
@@ -857,7 +859,10 @@ public class OracleCDCSource extends BaseSource {
     if (record.getOperationCode() == ROLLBACK_CODE || record.getScn().compareTo(lastCommitSCN) < 0) {
       bufferedRecordsLock.lock();
       try {
-        bufferedRecords.remove(key);
+        HashQueue<RecordSequence> transactionRecords = bufferedRecords.remove(key);
+        if (transactionRecords != null) {
+          transactionRecords.close();
+        }
         LOG.info(ROLLBACK_MESSAGE, key.txnId);
       } finally {
         bufferedRecordsLock.unlock();
@@ -1595,6 +1600,11 @@ public class OracleCDCSource extends BaseSource {
         }
         Files.createDirectories(txnBufferLocation.toPath());
         LOG.info("Created " + txnBufferLocation.toString());
+        spillLog = new TransactionSpillLog(
+            txnBufferLocation,
+            TransactionSpillLog.DEFAULT_SEGMENT_SIZE,
+            configBean.bufferMemoryLimitMB * 1024L * 1024L
+        );
       } catch (IOException ex) {
         Throwables.propagate(ex);
       }
@@ -1879,6 +1889,9 @@ public class OracleCDCSource extends BaseSource {
     bufferedRecordsLock.lock();
     try {
       this.bufferedRecords.forEach((x, y) -> y.close());
+      if (spillLog != null) {
+        spillLog.close();
+      }
     } finally {
       bufferedRecordsLock.unlock();
     }
@@ -1962,6 +1975,7 @@ public class OracleCDCSource extends BaseSource {
             }
           }
           txnDiscarded.incrementAndGet();
+          entry.getValue().close();
           iter.remove();
         }
       }
@@ -1995,14 +2009,8 @@ public class OracleCDCSource extends BaseSource {
     this.dataSource = dataSource;
   }
 
-  private HashQueue<RecordSequence> createTransactionBuffer(String txnId) {
-    try {
-      return configBean.bufferLocation == BufferingValues.IN_MEMORY ? new InMemoryHashQueue<>() :
-          new FileBackedHashQueue<>(new File(txnBufferLocation, txnId));
-    } catch (IOException ex) {
-      LOG.error("Error while creating transaction buffer", ex);
-      throw new RuntimeException(ex);
-    }
+  private HashQueue<RecordSequence> createTransactionBuffer() {
+    return configBean.bufferLocation == BufferingValues.IN_MEMORY ? new InMemoryHashQueue<>() : spillLog.newQueue();
   }
 
   private class TransactionIdKey {
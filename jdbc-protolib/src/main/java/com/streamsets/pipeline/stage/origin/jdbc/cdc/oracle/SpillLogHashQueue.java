@@ -0,0 +1,360 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.jdbc.cdc.oracle;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Buffer of a single transaction backed by a {@link TransactionSpillLog}.
+ *
+ * Records are kept in insertion order in parallel primitive arrays: the record itself while it fits in the memory
+ * budget of the log, its log address otherwise. Lookups by RS_ID and SSN go through an open addressing index of
+ * positions, so no key objects are kept per record.
+ */
+class SpillLogHashQueue implements HashQueue<RecordSequence> {
+  private static final long IN_MEMORY = -1;
+  private static final int INITIAL_CAPACITY = 16;
+  private static final int EMPTY_SLOT = 0;
+  private static final int DELETED_SLOT = -1;
+
+  private final TransactionSpillLog log;
+  private RecordSequence[] records = new RecordSequence[INITIAL_CAPACITY];
+  private long[] addresses = new long[INITIAL_CAPACITY];
+  private int[] memory = new int[INITIAL_CAPACITY];
+  private long[] keys = new long[INITIAL_CAPACITY];
+  private int head;
+  private int tail;
+  // position of the first array element since the queue was created, positions never change once assigned
+  private int base;
+  private RecordSequence last;
+
+  // open addressing index: position + 1 of the record with the slot's key, EMPTY_SLOT or DELETED_SLOT
+  private int[] index = new int[INITIAL_CAPACITY * 2];
+  private int usedSlots;
+
+  SpillLogHashQueue(TransactionSpillLog log) {
+    this.log = log;
+  }
+
+  @Override
+  public RecordSequence tail() {
+    return last;
+  }
+
+  @Override
+  public int size() {
+    return tail - head;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return head == tail;
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    RecordSequence incoming = (RecordSequence) o;
+    return find(incoming.rsId, incoming.ssn.toString()) >= 0;
+  }
+
+  @Override
+  public boolean add(RecordSequence e) {
+    ensureCapacity();
+    int size = estimateSize(e);
+    if (log.reserveMemory(size)) {
+      records[tail] = e;
+      memory[tail] = size;
+      addresses[tail] = IN_MEMORY;
+    } else {
+      records[tail] = null;
+      memory[tail] = 0;
+      addresses[tail] = log.append(e);
+    }
+    keys[tail] = key(e.rsId, e.ssn.toString());
+    indexAdd(base + tail, keys[tail]);
+    tail++;
+    last = e;
+    return true;
+  }
+
+  @Override
+  public void update(RecordSequence e) {
+    int i = find(e.rsId, e.ssn.toString());
+    if (i >= 0 && addresses[i] != IN_MEMORY) {
+      long address = log.append(e);
+      log.release(addresses[i]);
+      addresses[i] = address;
+    }
+  }
+
+  @Override
+  public RecordSequence remove() {
+    if (isEmpty()) {
+      throw new NoSuchElementException();
+    }
+    RecordSequence record = get(head);
+    removeHead();
+    return record;
+  }
+
+  @Override
+  public RecordSequence poll() {
+    return isEmpty() ? null : remove();
+  }
+
+  @Override
+  public RecordSequence element() {
+    if (isEmpty()) {
+      throw new NoSuchElementException();
+    }
+    return get(head);
+  }
+
+  @Override
+  public RecordSequence peek() {
+    return isEmpty() ? null : get(head);
+  }
+
+  @Override
+  public void clear() {
+    while (!isEmpty()) {
+      removeHead();
+    }
+  }
+
+  @Override
+  public void close() {
+    clear();
+  }
+
+  @Override
+  public void completeInserts() {
+    // no op, records are readable as soon as they are added
+  }
+
+  @NotNull
+  @Override
+  public Iterator<RecordSequence> iterator() {
+    return new SpillLogIterator();
+  }
+
+  @Override
+  public boolean offer(RecordSequence e) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean remove(Object o) {
+    throw new UnsupportedOperationException();
+  }
+
+  @NotNull
+  @Override
+  public Object[] toArray() {
+    throw new UnsupportedOperationException();
+  }
+
+  @NotNull
+  @Override
+  public <T> T[] toArray(@NotNull T[] a) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean containsAll(@NotNull Collection<?> c) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean addAll(@NotNull Collection<? extends RecordSequence> c) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean removeAll(@NotNull Collection<?> c) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean retainAll(@NotNull Collection<?> c) {
+    throw new UnsupportedOperationException();
+  }
+
+  private RecordSequence get(int i) {
+    return addresses[i] == IN_MEMORY ? records[i] : log.read(addresses[i]);
+  }
+
+  private void removeHead() {
+    if (addresses[head] == IN_MEMORY) {
+      log.releaseMemory(memory[head]);
+    } else {
+      log.release(addresses[head]);
+    }
+    indexRemove(base + head, keys[head]);
+    records[head] = null;
+    head++;
+    if (head == tail) {
+      base += head;
+      head = 0;
+      tail = 0;
+      last = null;
+      Arrays.fill(index, EMPTY_SLOT);
+      usedSlots = 0;
+    }
+  }
+
+  private void ensureCapacity() {
+    if (tail < records.length) {
+      return;
+    }
+    int size = size();
+    if (head >= records.length / 2) {
+      // enough room after discarding the already removed records
+      System.arraycopy(records, head, records, 0, size);
+      System.arraycopy(addresses, head, addresses, 0, size);
+      System.arraycopy(memory, head, memory, 0, size);
+      System.arraycopy(keys, head, keys, 0, size);
+      Arrays.fill(records, size, records.length, null);
+    } else {
+      int capacity = records.length * 2;
+      RecordSequence[] newRecords = new RecordSequence[capacity];
+      System.arraycopy(records, head, newRecords, 0, size);
+      records = newRecords;
+      addresses = Arrays.copyOfRange(addresses, head, head + capacity);
+      memory = Arrays.copyOfRange(memory, head, head + capacity);
+      keys = Arrays.copyOfRange(keys, head, head + capacity);
+    }
+    base += head;
+    head = 0;
+    tail = size;
+  }
+
+  /**
+   * Returns the array index of the record with the given RS_ID and SSN, or -1.
+   */
+  private int find(String rsId, String ssn) {
+    long key = key(rsId, ssn);
+    int mask = index.length - 1;
+    for (int slot = slot(key, mask); index[slot] != EMPTY_SLOT; slot = (slot + 1) & mask) {
+      if (index[slot] != DELETED_SLOT) {
+        int i = index[slot] - 1 - base;
+        if (keys[i] == key) {
+          RecordSequence candidate = get(i);
+          if (candidate.rsId.equals(rsId) && candidate.ssn.toString().equals(ssn)) {
+            return i;
+          }
+        }
+      }
+    }
+    return -1;
+  }
+
+  private void indexAdd(int position, long key) {
+    if ((usedSlots + 1) * 2 > index.length) {
+      rebuildIndex();
+    }
+    int mask = index.length - 1;
+    int slot = slot(key, mask);
+    while (index[slot] != EMPTY_SLOT && index[slot] != DELETED_SLOT) {
+      slot = (slot + 1) & mask;
+    }
+    if (index[slot] == EMPTY_SLOT) {
+      usedSlots++;
+    }
+    index[slot] = position + 1;
+  }
+
+  private void indexRemove(int position, long key) {
+    int mask = index.length - 1;
+    for (int slot = slot(key, mask); index[slot] != EMPTY_SLOT; slot = (slot + 1) & mask) {
+      if (index[slot] == position + 1) {
+        index[slot] = DELETED_SLOT;
+        return;
+      }
+    }
+  }
+
+  private void rebuildIndex() {
+    int capacity = INITIAL_CAPACITY * 2;
+    while (capacity < (size() + 1) * 4) {
+      capacity <<= 1;
+    }
+    index = new int[capacity];
+    usedSlots = 0;
+    for (int i = head; i < tail; i++) {
+      indexAdd(base + i, keys[i]);
+    }
+  }
+
+  private static int slot(long key, int mask) {
+    return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+  }
+
+  private static long key(String rsId, String ssn) {
+    return ((long) rsId.hashCode() << 32) ^ (ssn.hashCode() & 0xFFFFFFFFL);
+  }
+
+  /**
+   * Rough on-heap footprint of a buffered record, dominated by its SQL and header strings.
+   */
+  private static int estimateSize(RecordSequence record) {
+    int size = 128 + 2 * record.sqlString.length();
+    for (Map.Entry<String, String> header : record.headers.entrySet()) {
+      size += 64 + 2 * (header.getKey().length() + (header.getValue() == null ? 0 : header.getValue().length()));
+    }
+    return size;
+  }
+
+  private class SpillLogIterator implements Iterator<RecordSequence> {
+    private int next = head;
+    private int lastReturned = -1;
+
+    @Override
+    public boolean hasNext() {
+      return next < tail;
+    }
+
+    @Override
+    public RecordSequence next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      lastReturned = next;
+      return get(next++);
+    }
+
+    /**
+     * Like the other transaction buffers, only removing the head of the queue is supported (which is the CDC
+     * use-case).
+     */
+    @Override
+    public void remove() {
+      if (lastReturned != head) {
+        throw new IllegalStateException("Only the head of the transaction buffer can be removed");
+      }
+      removeHead();
+      // removing the last record resets the positions
+      next = head;
+      lastReturned = -1;
+    }
+  }
+}
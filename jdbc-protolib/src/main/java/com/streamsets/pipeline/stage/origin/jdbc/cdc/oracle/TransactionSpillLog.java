@@ -0,0 +1,241 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.jdbc.cdc.oracle;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Spill log shared by all the transactions buffered on disk by the origin.
+ *
+ * Records are kept on heap while the shared memory budget allows it, the rest is serialized and appended to the
+ * current segment file of the log. A spilled record is addressed by a single long (segment id and position), so a
+ * transaction only needs a primitive array of addresses to find its records again. Every segment counts its live
+ * records and is deleted as soon as the transactions that wrote into it have been committed or rolled back.
+ */
+public class TransactionSpillLog implements Closeable {
+  private static final Logger LOG = LoggerFactory.getLogger(TransactionSpillLog.class);
+
+  public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+  static final String SEGMENT_PREFIX = "segment-";
+  private static final int LENGTH_SIZE = 4;
+
+  private final File directory;
+  private final int segmentSize;
+  private final long memoryLimit;
+  private final AtomicLong memoryUsed = new AtomicLong();
+  private final Map<Integer, Segment> segments = new HashMap<>();
+  private final ByteArrayOutputStream serializationBuffer = new ByteArrayOutputStream();
+  private final ByteBuffer lengthBuffer = ByteBuffer.allocate(LENGTH_SIZE);
+  private Segment active;
+  private int nextSegmentId;
+  private boolean closed;
+
+  private static class Segment {
+    final int id;
+    final File file;
+    final FileChannel channel;
+    int size;
+    int live;
+
+    Segment(int id, File file) throws IOException {
+      this.id = id;
+      this.file = file;
+      this.channel = FileChannel.open(
+          file.toPath(),
+          StandardOpenOption.CREATE_NEW,
+          StandardOpenOption.READ,
+          StandardOpenOption.WRITE
+      );
+    }
+  }
+
+  public TransactionSpillLog(File directory, int segmentSize, long memoryLimit) throws IOException {
+    Files.createDirectories(directory.toPath());
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    this.memoryLimit = memoryLimit;
+  }
+
+  /**
+   * Creates the buffer of a new transaction backed by this log.
+   */
+  public HashQueue<RecordSequence> newQueue() {
+    return new SpillLogHashQueue(this);
+  }
+
+  /**
+   * Reserves room in the shared in-memory tier, returns false if the record has to be spilled instead.
+   */
+  boolean reserveMemory(long bytes) {
+    long used;
+    do {
+      used = memoryUsed.get();
+      if (used + bytes > memoryLimit) {
+        return false;
+      }
+    } while (!memoryUsed.compareAndSet(used, used + bytes));
+    return true;
+  }
+
+  void releaseMemory(long bytes) {
+    memoryUsed.addAndGet(-bytes);
+  }
+
+  /**
+   * Appends the record to the log and returns its address.
+   */
+  synchronized long append(RecordSequence record) {
+    try {
+      serializationBuffer.reset();
+      try (ObjectOutputStream out = new ObjectOutputStream(serializationBuffer)) {
+        out.writeObject(record);
+      }
+      int length = serializationBuffer.size();
+      if (active == null || (active.size > 0 && active.size + LENGTH_SIZE + length > segmentSize)) {
+        active = new Segment(nextSegmentId, new File(directory, SEGMENT_PREFIX + nextSegmentId));
+        segments.put(active.id, active);
+        nextSegmentId++;
+      }
+      int position = active.size;
+      lengthBuffer.clear();
+      lengthBuffer.putInt(length).flip();
+      write(active.channel, lengthBuffer, position);
+      write(active.channel, ByteBuffer.wrap(serializationBuffer.toByteArray()), position + LENGTH_SIZE);
+      active.size += LENGTH_SIZE + length;
+      active.live++;
+      return ((long) active.id << 32) | position;
+    } catch (IOException ex) {
+      LOG.error("Error while spilling transaction record", ex);
+      throw Throwables.propagate(ex);
+    }
+  }
+
+  /**
+   * Reads back the record stored at the given address.
+   */
+  synchronized RecordSequence read(long address) {
+    Segment segment = segments.get(segmentId(address));
+    try {
+      lengthBuffer.clear();
+      read(segment.channel, lengthBuffer, position(address));
+      byte[] data = new byte[lengthBuffer.getInt(0)];
+      read(segment.channel, ByteBuffer.wrap(data), position(address) + LENGTH_SIZE);
+      try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data))) {
+        return (RecordSequence) in.readObject();
+      }
+    } catch (IOException | ClassNotFoundException ex) {
+      LOG.error("Error while reading spilled transaction record", ex);
+      throw Throwables.propagate(ex);
+    }
+  }
+
+  /**
+   * Marks the record at the given address as no longer needed, deleting its segment once it holds no live records.
+   */
+  synchronized void release(long address) {
+    Segment segment = segments.get(segmentId(address));
+    if (segment == null || --segment.live > 0) {
+      return;
+    }
+    try {
+      if (segment == active) {
+        // reuse the active segment from the start rather than rolling to a new file
+        segment.channel.truncate(0);
+        segment.size = 0;
+      } else {
+        segments.remove(segment.id);
+        delete(segment);
+      }
+    } catch (IOException ex) {
+      LOG.warn("Error while reclaiming spill log segment '{}': {}", segment.file, ex.toString(), ex);
+    }
+  }
+
+  @VisibleForTesting
+  synchronized int getSegmentCount() {
+    return segments.size();
+  }
+
+  @VisibleForTesting
+  long getMemoryUsed() {
+    return memoryUsed.get();
+  }
+
+  @Override
+  public synchronized void close() {
+    if (!closed) {
+      closed = true;
+      for (Segment segment : segments.values()) {
+        try {
+          delete(segment);
+        } catch (IOException ex) {
+          LOG.warn("Error while deleting spill log segment '{}': {}", segment.file, ex.toString(), ex);
+        }
+      }
+      segments.clear();
+      active = null;
+    }
+  }
+
+  private static void delete(Segment segment) throws IOException {
+    segment.channel.close();
+    Files.deleteIfExists(segment.file.toPath());
+  }
+
+  private static int segmentId(long address) {
+    return (int) (address >>> 32);
+  }
+
+  private static int position(long address) {
+    return (int) address;
+  }
+
+  private static void write(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      position += channel.write(buffer, position);
+    }
+  }
+
+  private static void read(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, position);
+      if (read < 0) {
+        throw new EOFException("Unexpected end of spill log segment");
+      }
+      position += read;
+    }
+  }
+
+}
@@ -0,0 +1,448 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.jdbc.cdc.postgres;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.impl.Utils;
+import org.postgresql.replication.LogSequenceNumber;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decoder for the binary logical replication protocol (version 1) of the built-in pgoutput plugin.
+ * <p/>
+ * pgoutput sends one message per change plus BEGIN/COMMIT markers, and describes each table once per session
+ * with a RELATION message that later changes reference by id. This decoder keeps those relations in a cache and
+ * assembles the changes between BEGIN and COMMIT into a single transaction field with the same layout as a
+ * wal2json document (xid, nextlsn, timestamp and a change list), so the rest of the origin is decoder agnostic.
+ * <p/>
+ * Instances are stateful and must be used by a single replication stream.
+ */
+class PgOutputDecoder {
+
+  private static final Instant POSTGRES_EPOCH = Instant.parse("2000-01-01T00:00:00Z");
+  private static final DateTimeFormatter TIMESTAMP_FORMAT =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSSx").withZone(ZoneOffset.UTC);
+
+  private static final String KIND = "kind";
+  private static final String SCHEMA = "schema";
+  private static final String TABLE = "table";
+  private static final String COLUMN_NAMES = "columnnames";
+  private static final String COLUMN_TYPES = "columntypes";
+  private static final String COLUMN_VALUES = "columnvalues";
+  private static final String OLD_KEYS = "oldkeys";
+  private static final String KEY_NAMES = "keynames";
+  private static final String KEY_TYPES = "keytypes";
+  private static final String KEY_VALUES = "keyvalues";
+
+  private static final byte NULL_VALUE = 'n';
+  private static final byte UNCHANGED_TOAST_VALUE = 'u';
+  private static final byte TEXT_VALUE = 't';
+
+  // Names for the built-in types, user defined types are announced by TYPE messages
+  private static final Map<Integer, String> BUILT_IN_TYPES = ImmutableMap.<Integer, String>builder()
+      .put(16, "boolean")
+      .put(17, "bytea")
+      .put(18, "\"char\"")
+      .put(19, "name")
+      .put(20, "bigint")
+      .put(21, "smallint")
+      .put(23, "integer")
+      .put(25, "text")
+      .put(26, "oid")
+      .put(114, "json")
+      .put(142, "xml")
+      .put(700, "real")
+      .put(701, "double precision")
+      .put(790, "money")
+      .put(829, "macaddr")
+      .put(869, "inet")
+      .put(650, "cidr")
+      .put(1042, "character")
+      .put(1043, "character varying")
+      .put(1082, "date")
+      .put(1083, "time without time zone")
+      .put(1114, "timestamp without time zone")
+      .put(1184, "timestamp with time zone")
+      .put(1186, "interval")
+      .put(1266, "time with time zone")
+      .put(1560, "bit")
+      .put(1562, "bit varying")
+      .put(1700, "numeric")
+      .put(2950, "uuid")
+      .put(3802, "jsonb")
+      .build();
+
+  // Types wal2json writes as bare JSON literals rather than strings
+  private enum ValueKind { STRING, NUMBER, BOOLEAN }
+
+  private static final class Column {
+    private final String name;
+    private final String type;
+    private final ValueKind kind;
+    private final boolean key;
+
+    private Column(String name, String type, ValueKind kind, boolean key) {
+      this.name = name;
+      this.type = type;
+      this.kind = kind;
+      this.key = key;
+    }
+  }
+
+  private static final class Relation {
+    private final String schema;
+    private final String table;
+    private final Column[] columns;
+
+    private Relation(String schema, String table, Column[] columns) {
+      this.schema = schema;
+      this.table = table;
+      this.columns = columns;
+    }
+  }
+
+  private final Map<Integer, Relation> relations = new HashMap<>();
+  private final Map<Integer, String> types = new HashMap<>();
+
+  private Field xid;
+  private String timestamp;
+  private List<Field> changes;
+
+  /**
+   * Decodes one pgoutput message.
+   *
+   * @return the transaction field when the message is the COMMIT closing a transaction, null otherwise.
+   */
+  Field decode(ByteBuffer message) throws IOException {
+    ByteBuffer buffer = message.duplicate();
+    try {
+      byte type = buffer.get();
+      switch (type) {
+        case 'B':
+          buffer.getLong(); // final LSN of the transaction
+          timestamp = formatTimestamp(buffer.getLong());
+          xid = integralField(Integer.toUnsignedLong(buffer.getInt()));
+          changes = new ArrayList<>();
+          return null;
+        case 'C':
+          return commit(buffer);
+        case 'R':
+          readRelation(buffer);
+          return null;
+        case 'Y':
+          int oid = buffer.getInt();
+          readString(buffer); // namespace
+          types.put(oid, readString(buffer));
+          return null;
+        case 'I':
+          readInsert(buffer);
+          return null;
+        case 'U':
+          readUpdate(buffer);
+          return null;
+        case 'D':
+          readDelete(buffer);
+          return null;
+        case 'O': // origin
+        case 'T': // truncate, not reported by wal2json either
+          return null;
+        default:
+          throw new IOException(Utils.format("Unknown pgoutput message type '{}'", (char) type));
+      }
+    } catch (RuntimeException e) {
+      // BufferUnderflowException and friends mean a truncated or unexpected message
+      throw new IOException(Utils.format("Malformed pgoutput message: {}", e.toString()), e);
+    }
+  }
+
+  @VisibleForTesting
+  int getCachedRelationCount() {
+    return relations.size();
+  }
+
+  private Field commit(ByteBuffer buffer) throws IOException {
+    if (changes == null) {
+      throw new IOException("COMMIT received outside of a transaction");
+    }
+    buffer.get(); // flags
+    buffer.getLong(); // commit LSN
+    long endLsn = buffer.getLong();
+
+    Map<String, Field> transaction = new LinkedHashMap<>();
+    transaction.put("xid", xid);
+    transaction.put("nextlsn", Field.create(LogSequenceNumber.valueOf(endLsn).asString()));
+    transaction.put("timestamp", Field.create(timestamp));
+    transaction.put("change", Field.create(changes));
+    changes = null;
+    return Field.create(transaction);
+  }
+
+  private void readRelation(ByteBuffer buffer) {
+    int id = buffer.getInt();
+    String schema = readString(buffer);
+    String table = readString(buffer);
+    buffer.get(); // replica identity setting
+    Column[] columns = new Column[buffer.getShort()];
+    for (int i = 0; i < columns.length; i++) {
+      boolean key = (buffer.get() & 1) != 0;
+      String name = readString(buffer);
+      int typeOid = buffer.getInt();
+      int typeModifier = buffer.getInt();
+      columns[i] = new Column(name, typeName(typeOid, typeModifier), valueKind(typeOid), key);
+    }
+    relations.put(id, new Relation(schema, table, columns));
+  }
+
+  private void readInsert(ByteBuffer buffer) throws IOException {
+    Relation relation = relation(buffer.getInt());
+    buffer.get(); // 'N'
+    Map<String, Field> change = newChange("insert", relation);
+    addColumns(change, relation, readTuple(buffer, relation));
+    addChange(change);
+  }
+
+  private void readUpdate(ByteBuffer buffer) throws IOException {
+    Relation relation = relation(buffer.getInt());
+    byte tupleType = buffer.get();
+    Field[] oldValues = null;
+    boolean fullOldRow = tupleType == 'O';
+    if (tupleType == 'K' || tupleType == 'O') {
+      oldValues = readTuple(buffer, relation);
+      buffer.get(); // 'N'
+    }
+    Field[] newValues = readTuple(buffer, relation);
+    Map<String, Field> change = newChange("update", relation);
+    addColumns(change, relation, newValues);
+    // like wal2json, identify the row by its new key values when the key did not change
+    addOldKeys(change, relation, oldValues == null ? newValues : oldValues, fullOldRow);
+    addChange(change);
+  }
+
+  private void readDelete(ByteBuffer buffer) throws IOException {
+    Relation relation = relation(buffer.getInt());
+    boolean fullOldRow = buffer.get() == 'O';
+    Map<String, Field> change = newChange("delete", relation);
+    addOldKeys(change, relation, readTuple(buffer, relation), fullOldRow);
+    addChange(change);
+  }
+
+  private Relation relation(int id) throws IOException {
+    Relation relation = relations.get(id);
+    if (relation == null) {
+      throw new IOException(Utils.format("Change references unknown relation '{}'", id));
+    }
+    return relation;
+  }
+
+  private void addChange(Map<String, Field> change) throws IOException {
+    if (changes == null) {
+      throw new IOException("Change received outside of a transaction");
+    }
+    changes.add(Field.create(change));
+  }
+
+  private static Map<String, Field> newChange(String kind, Relation relation) {
+    Map<String, Field> change = new LinkedHashMap<>();
+    change.put(KIND, Field.create(kind));
+    change.put(SCHEMA, Field.create(relation.schema));
+    change.put(TABLE, Field.create(relation.table));
+    return change;
+  }
+
+  /**
+   * Reads a TupleData section. Unchanged TOASTed values are returned as Java null so that, as wal2json does,
+   * they are left out of the change.
+   */
+  private static Field[] readTuple(ByteBuffer buffer, Relation relation) throws IOException {
+    int count = buffer.getShort();
+    if (count != relation.columns.length) {
+      throw new IOException(Utils.format(
+          "Tuple for '{}.{}' has {} columns, relation has {}",
+          relation.schema,
+          relation.table,
+          count,
+          relation.columns.length
+      ));
+    }
+    Field[] values = new Field[count];
+    for (int i = 0; i < count; i++) {
+      byte type = buffer.get();
+      switch (type) {
+        case NULL_VALUE:
+          values[i] = Field.create(Field.Type.STRING, null);
+          break;
+        case UNCHANGED_TOAST_VALUE:
+          values[i] = null;
+          break;
+        case TEXT_VALUE:
+          int length = buffer.getInt();
+          values[i] = valueField(relation.columns[i].kind, readString(buffer, length));
+          break;
+        default:
+          throw new IOException(Utils.format("Unknown tuple value type '{}'", (char) type));
+      }
+    }
+    return values;
+  }
+
+  private static void addColumns(Map<String, Field> change, Relation relation, Field[] values) {
+    List<Field> names = new ArrayList<>(values.length);
+    List<Field> types = new ArrayList<>(values.length);
+    List<Field> columnValues = new ArrayList<>(values.length);
+    for (int i = 0; i < values.length; i++) {
+      if (values[i] != null) {
+        names.add(Field.create(relation.columns[i].name));
+        types.add(Field.create(relation.columns[i].type));
+        columnValues.add(values[i]);
+      }
+    }
+    change.put(COLUMN_NAMES, Field.create(names));
+    change.put(COLUMN_TYPES, Field.create(types));
+    change.put(COLUMN_VALUES, Field.create(columnValues));
+  }
+
+  private static void addOldKeys(Map<String, Field> change, Relation relation, Field[] values, boolean fullRow) {
+    List<Field> names = new ArrayList<>();
+    List<Field> types = new ArrayList<>();
+    List<Field> keyValues = new ArrayList<>();
+    for (int i = 0; i < values.length; i++) {
+      if (values[i] != null && (fullRow || relation.columns[i].key)) {
+        names.add(Field.create(relation.columns[i].name));
+        types.add(Field.create(relation.columns[i].type));
+        keyValues.add(values[i]);
+      }
+    }
+    if (names.isEmpty()) {
+      return;
+    }
+    Map<String, Field> oldKeys = new LinkedHashMap<>();
+    oldKeys.put(KEY_NAMES, Field.create(names));
+    oldKeys.put(KEY_TYPES, Field.create(types));
+    oldKeys.put(KEY_VALUES, Field.create(keyValues));
+    change.put(OLD_KEYS, Field.create(oldKeys));
+  }
+
+  private String typeName(int oid, int modifier) {
+    String name = BUILT_IN_TYPES.get(oid);
+    if (name == null) {
+      name = types.getOrDefault(oid, String.valueOf(oid));
+    } else if (modifier >= 4 && (oid == 1042 || oid == 1043)) {
+      name += "(" + (modifier - 4) + ")";
+    } else if (modifier >= 4 && oid == 1700) {
+      name += "(" + ((modifier - 4) >> 16) + "," + ((modifier - 4) & 0xffff) + ")";
+    }
+    return name;
+  }
+
+  private static ValueKind valueKind(int oid) {
+    switch (oid) {
+      case 16:
+        return ValueKind.BOOLEAN;
+      case 20:
+      case 21:
+      case 23:
+      case 26:
+      case 700:
+      case 701:
+      case 1700:
+        return ValueKind.NUMBER;
+      default:
+        return ValueKind.STRING;
+    }
+  }
+
+  private static Field valueField(ValueKind kind, String text) {
+    switch (kind) {
+      case BOOLEAN:
+        return Field.create("t".equals(text));
+      case NUMBER:
+        return numberField(text);
+      default:
+        return Field.create(text);
+    }
+  }
+
+  /**
+   * Mirrors how the wal2json documents are typed: integral literals become the narrowest of INTEGER, LONG and
+   * DECIMAL, anything else numeric becomes DOUBLE, and NaN/Infinity (quoted by wal2json) stay strings.
+   */
+  private static Field numberField(String text) {
+    if (text.indexOf('.') < 0 && text.indexOf('e') < 0 && text.indexOf('E') < 0) {
+      try {
+        return integralField(Long.parseLong(text));
+      } catch (NumberFormatException e) {
+        try {
+          return Field.create(new BigDecimal(text));
+        } catch (NumberFormatException ex) {
+          return Field.create(text);
+        }
+      }
+    }
+    try {
+      double value = Double.parseDouble(text);
+      return Double.isNaN(value) || Double.isInfinite(value) ? Field.create(text) : Field.create(value);
+    } catch (NumberFormatException e) {
+      return Field.create(text);
+    }
+  }
+
+  private static Field integralField(long value) {
+    return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE ? Field.create((int) value) : Field.create(value);
+  }
+
+  private static String formatTimestamp(long microsSincePostgresEpoch) {
+    return TIMESTAMP_FORMAT.format(POSTGRES_EPOCH.plus(microsSincePostgresEpoch, ChronoUnit.MICROS));
+  }
+
+  private static String readString(ByteBuffer buffer) {
+    int start = buffer.position();
+    int end = start;
+    while (buffer.get(end) != 0) {
+      end++;
+    }
+    String value = readString(buffer, end - start);
+    buffer.get(); // terminator
+    return value;
+  }
+
+  private static String readString(ByteBuffer buffer, int length) {
+    String value;
+    if (buffer.hasArray()) {
+      value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+      buffer.position(buffer.position() + length);
+    } else {
+      byte[] bytes = new byte[length];
+      buffer.get(bytes);
+      value = new String(bytes, StandardCharsets.UTF_8);
+    }
+    return value;
+  }
+}
@@ -152,12 +152,12 @@ public class PostgresCDCConfigBean {
   )
   public String replicationType;
 
-  //HIDDEN - only choice supported today
   @ConfigDef(
       required = true,
       type = ConfigDef.Type.MODEL,
       label = "Output Decoder",
-      description = "Output Decoder installed with Postgres",
+      description = "Logical decoding output plugin used by the replication slot. pgoutput is built into " +
+          "PostgreSQL 10 and later, wal2json must be installed on the server.",
       displayPosition = 50,
       group = "CDC",
       defaultValue = "WAL2JSON"
@@ -165,6 +165,18 @@ public class PostgresCDCConfigBean {
   @ValueChooserModel(DecoderChooserValues.class)
   public DecoderValues decoderValue;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.STRING,
+      label = "Publications",
+      description = "Comma-separated list of publications to stream changes from",
+      displayPosition = 55,
+      group = "CDC",
+      dependsOn = "decoderValue",
+      triggeredByValue = "PGOUTPUT"
+  )
+  public String publications;
+
   @ConfigDef(
       required = true,
       type = ConfigDef.Type.MODEL,
@@ -25,7 +25,7 @@ import com.streamsets.pipeline.api.base.configurablestage.DSourceOffsetCommitter
 import com.streamsets.pipeline.lib.jdbc.BrandedHikariPoolConfigBean;
 
 @StageDef(
-    version = 2,
+    version = 3,
     label = "PostgreSQL CDC Client",
     description = "Origin that reads change events from a PostgreSQL database",
     icon = "rdbms.png",
@@ -43,7 +43,6 @@ import com.streamsets.pipeline.lib.jdbc.BrandedHikariPoolConfigBean;
     "postgresCDCConfigBean.baseConfigBean.caseSensitive",
     "postgresCDCConfigBean.baseConfigBean.changeTypes",
     "postgresCDCConfigBean.parseQuery",
-    "postgresCDCConfigBean.decoderValue",
     "postgresCDCConfigBean.minVersion",
     "postgresCDCConfigBean.replicationType"
 })
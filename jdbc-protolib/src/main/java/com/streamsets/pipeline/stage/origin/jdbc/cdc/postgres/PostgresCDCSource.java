@@ -41,6 +41,7 @@ import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
+import org.apache.commons.lang3.StringUtils;
 import org.postgresql.replication.LogSequenceNumber;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -272,6 +273,14 @@ public class PostgresCDCSource extends BaseSource implements OffsetCommitter {
       this.getConfigBean().decoderValue = DecoderValues.WAL2JSON;
     }
 
+    if (configBean.decoderValue == DecoderValues.PGOUTPUT && StringUtils.isBlank(configBean.publications)) {
+      issues.add(
+          getContext().createConfigIssue(Groups.CDC.name(),
+              "postgresCDCConfigBean.publications",
+              JdbcErrors.JDBC_408, configBean.publications)
+      );
+    }
+
     if (configBean.replicationType == null ) {
       this.getConfigBean().replicationType = "database";
     }
@@ -15,6 +15,7 @@
  */
 package com.streamsets.pipeline.stage.origin.jdbc.cdc.postgres;
 
+import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.api.Stage.ConfigIssue;
 import com.streamsets.pipeline.api.Stage.Context;
@@ -41,6 +42,7 @@ import org.postgresql.replication.fluent.logical.ChainedLogicalStreamBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.sql.Connection;
 import java.sql.DriverManager;
@@ -77,6 +79,7 @@ public class PostgresCDCWalReceiver {
   private String confirmedFlushLSN;
   private Connection connection = null;
   private PGReplicationStream stream;
+  private PgOutputDecoder pgOutputDecoder;
   private List<SchemaAndTable> schemasAndTables;
   PostgresCDCConfigBean configBean;
   private HikariPoolConfigBean hikariConfigBean;
@@ -217,10 +220,19 @@ public class PostgresCDCWalReceiver {
         .getReplicationAPI()
         .replicationStream()
         .logical()
-        .withSlotName(slotName)
-        .withSlotOption("include-xids", true)
-        .withSlotOption("include-timestamp", true)
-        .withSlotOption("include-lsn", true);
+        .withSlotName(slotName);
+    if (outputPlugin == DecoderValues.PGOUTPUT) {
+      streamBuilder
+          .withSlotOption("proto_version", 1)
+          .withSlotOption("publication_names", configBean.publications);
+      // relations are announced again on every new stream
+      pgOutputDecoder = new PgOutputDecoder();
+    } else {
+      streamBuilder
+          .withSlotOption("include-xids", true)
+          .withSlotOption("include-timestamp", true)
+          .withSlotOption("include-lsn", true);
+    }
 
     LogSequenceNumber streamLsn;
     LogSequenceNumber serverFlushedLsn = LogSequenceNumber.valueOf(confirmedFlushLSN);
@@ -474,12 +486,24 @@ public class PostgresCDCWalReceiver {
     PostgresWalRecord ret = null;
     try {
       ByteBuffer buffer = readNonBlocking();
-      if(buffer != null) {
-        ret = new PostgresWalRecord(
-            buffer,
-            getCurrentLSN(),
-            configBean.decoderValue
-        );
+      // pgoutput sends a message per change, keep reading until a transaction is complete or nothing is pending
+      while (buffer != null && ret == null) {
+        if (outputPlugin == DecoderValues.PGOUTPUT) {
+          Field transaction = decodePgOutput(buffer);
+          if (transaction != null) {
+            ret = new PostgresWalRecord(buffer, getCurrentLSN(), outputPlugin, transaction);
+          } else {
+            buffer = readNonBlocking();
+          }
+        } else {
+          ret = new PostgresWalRecord(
+              buffer,
+              getCurrentLSN(),
+              configBean.decoderValue
+          );
+        }
+      }
+      if (ret != null) {
         //sets next LSN
         setNextLSN(LogSequenceNumber.valueOf(ret.getNextLSN()));
       } else {
@@ -499,6 +523,15 @@ public class PostgresCDCWalReceiver {
     return ret;
   }
 
+  private Field decodePgOutput(ByteBuffer buffer) {
+    try {
+      return pgOutputDecoder.decode(buffer);
+    } catch (IOException e) {
+      LOG.error("Error decoding pgoutput message at LSN {}: {}", getCurrentLSN().asString(), e.getMessage(), e);
+      throw new StageException(JdbcErrors.JDBC_414, getCurrentLSN().asString(), e.getMessage(), e);
+    }
+  }
+
   public JdbcUtil getJdbcUtil() {
     return jdbcUtil;
   }
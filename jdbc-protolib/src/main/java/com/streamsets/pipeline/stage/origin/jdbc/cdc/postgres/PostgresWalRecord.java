@@ -15,13 +15,10 @@
  */
 package com.streamsets.pipeline.stage.origin.jdbc.cdc.postgres;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ObjectReader;
 import com.streamsets.pipeline.api.Field;
-import com.streamsets.pipeline.lib.util.JsonUtil;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 import java.util.List;
 import java.util.Map;
 import org.postgresql.replication.LogSequenceNumber;
@@ -56,6 +53,17 @@ public class PostgresWalRecord {
     this.decoder = decoder;
   }
 
+  /**
+   * Creates a record for a transaction that was already decoded, as done for pgoutput where a transaction spans
+   * several messages.
+   */
+  public PostgresWalRecord(ByteBuffer buffer, LogSequenceNumber lsn, DecoderValues decoder, Field field) {
+    this.buffer = buffer;
+    this.lsn = lsn;
+    this.field = field;
+    this.decoder = decoder;
+  }
+
   public PostgresWalRecord(PostgresWalRecord record, Field changes) {
     this.buffer = record.getBuffer();
     this.lsn = record.getLsn();
@@ -65,14 +73,17 @@ public class PostgresWalRecord {
   }
 
   private String bufferToString() {
-    int offset = buffer.arrayOffset();
-    byte[] source = buffer.array();
-    int length = source.length - offset;
-    return new String(source, offset, length);
+    return new String(
+        buffer.array(),
+        buffer.arrayOffset() + buffer.position(),
+        buffer.remaining(),
+        Charset.defaultCharset()
+    );
   }
 
   public String toString() {
-    return bufferToString() + " LSN: " + lsn.asString();
+    String value = decoder == DecoderValues.PGOUTPUT ? String.valueOf(getField()) : bufferToString();
+    return value + " LSN: " + lsn.asString();
   }
 
   public Field getField() {
@@ -83,13 +94,12 @@ public class PostgresWalRecord {
       switch(decoder) {
 
         case WAL2JSON:
-          JsonNode json;
           try {
-            ObjectMapper om = new ObjectMapper();
-            ObjectReader reader = om.reader();
-            json = reader.readTree(bufferToString());
-
-            field = JsonUtil.jsonToField(om.convertValue(json, Map.class));
+            field = Wal2JsonDecoder.decode(
+                buffer.array(),
+                buffer.arrayOffset() + buffer.position(),
+                buffer.remaining()
+            );
           } catch (IOException e) {
             field = null;
           }
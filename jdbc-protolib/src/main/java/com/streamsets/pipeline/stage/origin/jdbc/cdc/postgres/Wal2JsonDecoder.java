@@ -0,0 +1,93 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.jdbc.cdc.postgres;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.impl.Utils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decodes wal2json documents straight into {@link Field}s with a single streaming pass, without building an
+ * intermediate String, JSON tree or Map. Produces the same field types as {@code JsonUtil.jsonToField} over
+ * a Jackson-converted Map.
+ */
+final class Wal2JsonDecoder {
+
+  // JsonFactory is thread safe, parsers created from it are not and are created per document
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  private Wal2JsonDecoder() {
+  }
+
+  static Field decode(byte[] data, int offset, int length) throws IOException {
+    try (JsonParser parser = JSON_FACTORY.createParser(data, offset, length)) {
+      if (parser.nextToken() == null) {
+        throw new IOException("Empty wal2json document");
+      }
+      return readValue(parser);
+    }
+  }
+
+  private static Field readValue(JsonParser parser) throws IOException {
+    JsonToken token = parser.getCurrentToken();
+    switch (token) {
+      case START_OBJECT:
+        Map<String, Field> map = new LinkedHashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          String name = parser.getCurrentName();
+          parser.nextToken();
+          map.put(name, readValue(parser));
+        }
+        return Field.create(map);
+      case START_ARRAY:
+        List<Field> list = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+          list.add(readValue(parser));
+        }
+        return Field.create(list);
+      case VALUE_STRING:
+        return Field.create(parser.getText());
+      case VALUE_NUMBER_INT:
+        switch (parser.getNumberType()) {
+          case INT:
+            return Field.create(parser.getIntValue());
+          case LONG:
+            return Field.create(parser.getLongValue());
+          default:
+            return Field.create(new BigDecimal(parser.getBigIntegerValue()));
+        }
+      case VALUE_NUMBER_FLOAT:
+        return Field.create(parser.getDoubleValue());
+      case VALUE_TRUE:
+        return Field.create(true);
+      case VALUE_FALSE:
+        return Field.create(false);
+      case VALUE_NULL:
+        return Field.create(Field.Type.STRING, null);
+      default:
+        throw new IOException(Utils.format("Unexpected JSON token '{}'", token));
+    }
+  }
+}
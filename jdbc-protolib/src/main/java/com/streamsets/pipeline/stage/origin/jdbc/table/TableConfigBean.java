@@ -25,6 +25,8 @@ public interface TableConfigBean {
   String PARTITIONING_MODE_FIELD = "partitioningMode";
   String MAX_NUM_ACTIVE_PARTITIONS_FIELD = "maxNumActivePartitions";
   String PARTITION_SIZE_FIELD = "partitionSize";
+  String TARGET_ROWS_PER_PARTITION_FIELD = "targetRowsPerPartition";
+  int DEFAULT_TARGET_ROWS_PER_PARTITION = 0;
   String PARTITIONING_MODE_DEFAULT_VALUE_STR = "DISABLED";
   PartitioningMode PARTITIONING_MODE_DEFAULT_VALUE = PartitioningMode.valueOf(PARTITIONING_MODE_DEFAULT_VALUE_STR);
   String ENABLE_NON_INCREMENTAL_FIELD = "enableNonIncremental";
@@ -59,6 +61,8 @@ public interface TableConfigBean {
 
   String getPartitionSize();
 
+  int getTargetRowsPerPartition();
+
   int getMaxNumActivePartitions();
 
   String getExtraOffsetColumnConditions();
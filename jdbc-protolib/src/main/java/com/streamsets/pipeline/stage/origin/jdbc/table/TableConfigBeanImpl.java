@@ -184,6 +184,23 @@ public class TableConfigBeanImpl implements TableConfigBean {
   )
   public String partitionSize = DEFAULT_PARTITION_SIZE;
 
+  @ConfigDef(
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      required = false,
+      type = ConfigDef.Type.NUMBER,
+      label = "Target Rows per Partition",
+      description = "Adjusts the size of new partitions so that each one holds approximately this many rows, starting" +
+          " from table statistics when the database provides them, or from the partition size otherwise. Use 0 to" +
+          " always use the partition size.",
+      displayPosition = 105,
+      defaultValue = "" + DEFAULT_TARGET_ROWS_PER_PARTITION,
+      group = "TABLE",
+      dependsOn = "partitioningMode",
+      triggeredByValue = {"BEST_EFFORT", "REQUIRED"},
+      min = 0
+  )
+  public int targetRowsPerPartition = DEFAULT_TARGET_ROWS_PER_PARTITION;
+
   @ConfigDef(
       displayMode = ConfigDef.DisplayMode.ADVANCED,
       required = false,
@@ -274,6 +291,11 @@ public class TableConfigBeanImpl implements TableConfigBean {
     return partitionSize;
   }
 
+  @Override
+  public int getTargetRowsPerPartition() {
+    return targetRowsPerPartition;
+  }
+
   @Override
   public int getMaxNumActivePartitions() {
     return maxNumActivePartitions;
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.jdbc;
+
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.lib.jdbc.multithread.DatabaseVendor;
+import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
+import com.streamsets.testing.MicroBenchmark;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per row cost of converting an H2 result set into fields, per cell through {@link JdbcUtil#resultToField} as the
+ * origins did before row readers, and through a {@link JdbcRowReader}. Runs with the benchmark profile only.
+ */
+public class JdbcRowReaderBenchmark {
+  private static final String CONNECTION_STRING = "jdbc:h2:mem:row_reader_benchmark";
+  private static final String TABLE = "ROW_READER_BENCHMARK";
+  private static final String QUERY = "SELECT * FROM " + TABLE;
+  private static final int ROWS = 20_000;
+
+  private static final JdbcUtil jdbcUtil = UtilsProvider.getJdbcUtil();
+  private static final ErrorRecordHandler errorRecordHandler = Mockito.mock(ErrorRecordHandler.class);
+  private static Connection connection;
+
+  @BeforeClass
+  public static void setUp() throws SQLException {
+    connection = DriverManager.getConnection(CONNECTION_STRING, "sa", "sa");
+    try (Statement statement = connection.createStatement()) {
+      statement.execute(
+          "CREATE TABLE " + TABLE + " (P_ID INT NOT NULL PRIMARY KEY, BIG BIGINT, NAME VARCHAR(255), " +
+              "PRICE DECIMAL(10,2), RATIO DOUBLE, ACTIVE BOOLEAN, UPDATED TIMESTAMP, MY_DATE DATE, PAYLOAD VARBINARY(16))"
+      );
+    }
+    try (PreparedStatement insert = connection.prepareStatement(
+        "INSERT INTO " + TABLE + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)"
+    )) {
+      for (int i = 0; i < ROWS; i++) {
+        insert.setInt(1, i);
+        insert.setLong(2, i * 1_000_000_000L);
+        insert.setString(3, "name-" + i);
+        insert.setBigDecimal(4, new BigDecimal(i).movePointLeft(2));
+        insert.setDouble(5, i / 7.0);
+        insert.setBoolean(6, i % 2 == 0);
+        insert.setTimestamp(7, new Timestamp(1_500_000_000_000L + i * 1_001L));
+        insert.setDate(8, new Date(1_500_000_000_000L));
+        insert.setBytes(9, new byte[]{(byte) i, (byte) (i >> 8)});
+        insert.addBatch();
+      }
+      insert.executeBatch();
+    }
+  }
+
+  @AfterClass
+  public static void tearDown() throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("DROP TABLE IF EXISTS " + TABLE);
+    }
+    connection.close();
+  }
+
+  @Test
+  public void benchmarkRowConversion() throws Exception {
+    MicroBenchmark benchmark = new MicroBenchmark("JDBC row conversion", ROWS);
+    benchmark.measure("resultToField per cell", this::readAllPerCell);
+    benchmark.measure("row reader", this::readAllWithReader);
+  }
+
+  private Map<String, Field> readAllPerCell() throws Exception {
+    Map<String, Field> last = null;
+    try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(QUERY)) {
+      while (rs.next()) {
+        ResultSetMetaData md = rs.getMetaData();
+        LinkedHashMap<String, Field> fields = new LinkedHashMap<>(md.getColumnCount());
+        for (int i = 1; i <= md.getColumnCount(); i++) {
+          fields.put(md.getColumnLabel(i), jdbcUtil.resultToField(
+              md,
+              rs,
+              i,
+              0,
+              0,
+              DataType.USE_COLUMN_TYPE,
+              UnknownTypeAction.STOP_PIPELINE,
+              false,
+              DatabaseVendor.UNKNOWN
+          ));
+        }
+        last = fields;
+      }
+    }
+    return last;
+  }
+
+  private Map<String, Field> readAllWithReader() throws Exception {
+    Map<String, Field> last = null;
+    try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(QUERY)) {
+      JdbcRowReader reader = jdbcUtil.createRowReader(
+          rs,
+          0,
+          0,
+          Collections.emptyMap(),
+          UnknownTypeAction.STOP_PIPELINE,
+          null,
+          false,
+          DatabaseVendor.UNKNOWN
+      );
+      while (rs.next()) {
+        last = reader.read(rs, errorRecordHandler);
+      }
+    }
+    return last;
+  }
+}
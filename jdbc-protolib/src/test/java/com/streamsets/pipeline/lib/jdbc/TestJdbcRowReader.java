@@ -0,0 +1,173 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.jdbc;
+
+import com.google.common.collect.ImmutableSet;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.lib.jdbc.multithread.DatabaseVendor;
+import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+public class TestJdbcRowReader {
+  private static final String CONNECTION_STRING = "jdbc:h2:mem:row_reader";
+  private static final String TABLE = "ROW_READER_TEST";
+  private static final int ROWS = 200;
+
+  private final JdbcUtil jdbcUtil = UtilsProvider.getJdbcUtil();
+  private final ErrorRecordHandler errorRecordHandler = Mockito.mock(ErrorRecordHandler.class);
+  private Connection connection;
+
+  @Before
+  public void setUp() throws SQLException {
+    connection = DriverManager.getConnection(CONNECTION_STRING, "sa", "sa");
+    try (Statement statement = connection.createStatement()) {
+      statement.execute(
+          "CREATE TABLE " + TABLE + " (P_ID INT NOT NULL PRIMARY KEY, BIG BIGINT, NAME VARCHAR(255), " +
+              "PRICE DECIMAL(10,2), RATIO DOUBLE, ACTIVE BOOLEAN, UPDATED TIMESTAMP, MY_DATE DATE, PAYLOAD VARBINARY(16))"
+      );
+    }
+    try (PreparedStatement insert = connection.prepareStatement(
+        "INSERT INTO " + TABLE + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)"
+    )) {
+      for (int i = 0; i < ROWS; i++) {
+        insert.setInt(1, i);
+        if (i % 10 == 0) {
+          // every tenth row only has its key set
+          for (int c = 2; c <= 9; c++) {
+            insert.setObject(c, null);
+          }
+        } else {
+          insert.setLong(2, i * 1_000_000_000L);
+          insert.setString(3, "name-" + i);
+          insert.setBigDecimal(4, new java.math.BigDecimal(i).movePointLeft(2));
+          insert.setDouble(5, i / 7.0);
+          insert.setBoolean(6, i % 2 == 0);
+          insert.setTimestamp(7, new java.sql.Timestamp(1_500_000_000_000L + i * 1_001L));
+          insert.setDate(8, new java.sql.Date(1_500_000_000_000L));
+          insert.setBytes(9, new byte[]{(byte) i, (byte) (i >> 8)});
+        }
+        insert.addBatch();
+      }
+      insert.executeBatch();
+    }
+  }
+
+  @After
+  public void tearDown() throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("DROP TABLE IF EXISTS " + TABLE);
+    }
+    connection.close();
+  }
+
+  @Test
+  public void testMatchesResultToField() throws Exception {
+    try (Statement statement = connection.createStatement();
+         ResultSet rs = statement.executeQuery("SELECT * FROM " + TABLE + " WHERE P_ID < 100")) {
+      JdbcRowReader reader = jdbcUtil.createRowReader(
+          rs,
+          0,
+          0,
+          Collections.emptyMap(),
+          UnknownTypeAction.STOP_PIPELINE,
+          null,
+          false,
+          DatabaseVendor.UNKNOWN
+      );
+      Assert.assertTrue(reader.isReaderFor(rs));
+      Assert.assertEquals(9, reader.getColumnCount());
+
+      int rows = 0;
+      while (rs.next()) {
+        assertFieldsEqual(readPerCell(rs), reader.read(rs, errorRecordHandler));
+        rows++;
+      }
+      Assert.assertEquals(100, rows);
+    }
+    Mockito.verifyZeroInteractions(errorRecordHandler);
+  }
+
+  @Test
+  public void testRecordHeaderColumnsAreSkipped() throws Exception {
+    try (Statement statement = connection.createStatement();
+         ResultSet rs = statement.executeQuery("SELECT P_ID, NAME, PRICE FROM " + TABLE + " WHERE P_ID = 1")) {
+      JdbcRowReader reader = jdbcUtil.createRowReader(
+          rs,
+          0,
+          0,
+          Collections.emptyMap(),
+          UnknownTypeAction.STOP_PIPELINE,
+          ImmutableSet.of("NAME"),
+          false,
+          DatabaseVendor.UNKNOWN
+      );
+      Assert.assertTrue(rs.next());
+      Map<String, Field> fields = reader.read(rs, errorRecordHandler);
+      Assert.assertEquals(3, reader.getColumnCount());
+      Assert.assertEquals(2, fields.size());
+      Assert.assertEquals(1, fields.get("P_ID").getValueAsInteger());
+      Assert.assertEquals("2", fields.get("PRICE").getAttribute("scale"));
+      Assert.assertFalse(fields.containsKey("NAME"));
+    }
+  }
+
+  private LinkedHashMap<String, Field> readPerCell(ResultSet rs) throws Exception {
+    ResultSetMetaData md = rs.getMetaData();
+    LinkedHashMap<String, Field> fields = new LinkedHashMap<>(md.getColumnCount());
+    for (int i = 1; i <= md.getColumnCount(); i++) {
+      fields.put(md.getColumnLabel(i), jdbcUtil.resultToField(
+          md,
+          rs,
+          i,
+          0,
+          0,
+          DataType.USE_COLUMN_TYPE,
+          UnknownTypeAction.STOP_PIPELINE,
+          false,
+          DatabaseVendor.UNKNOWN
+      ));
+    }
+    return fields;
+  }
+
+  private static void assertFieldsEqual(Map<String, Field> expected, Map<String, Field> actual) {
+    Assert.assertEquals(expected.keySet(), actual.keySet());
+    Iterator<Field> actualFields = actual.values().iterator();
+    for (Field expectedField : expected.values()) {
+      Field actualField = actualFields.next();
+      Assert.assertEquals(expectedField.getType(), actualField.getType());
+      Assert.assertTrue(Objects.deepEquals(expectedField.getValue(), actualField.getValue()));
+      Assert.assertEquals(expectedField.getAttributes(), actualField.getAttributes());
+    }
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.jdbc.multithread;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+
+public class TestAdaptivePartitionSizer extends BaseMultithreadedTableProviderTest {
+  private static final String OFFSET_COL = "col";
+
+  private static TableContext createTable(String partitionSize, String minOffset, String maxOffset) {
+    return createTableContext(
+        "schema",
+        "table",
+        OFFSET_COL,
+        partitionSize,
+        minOffset,
+        maxOffset,
+        -1,
+        true,
+        false,
+        0
+    );
+  }
+
+  @Test
+  public void testInitialSizeFromStatistics() {
+    TableContext table = createTable("1000", "0", "1000000");
+    AdaptivePartitionSizer sizer = new AdaptivePartitionSizer(table, 100, 10000);
+
+    // 10000 rows over a range of 1000000 values is 100 rows for every 10000 values
+    Assert.assertEquals("10000", sizer.getPartitionSize());
+    Assert.assertEquals("10000", table.getOffsetColumnToPartitionOffsetAdjustments().get(OFFSET_COL));
+  }
+
+  @Test
+  public void testInitialSizeWithoutStatistics() {
+    TableContext table = createTable("1000", "0", "1000000");
+    AdaptivePartitionSizer sizer = new AdaptivePartitionSizer(table, 100, -1);
+    Assert.assertEquals("1000", sizer.getPartitionSize());
+  }
+
+  @Test
+  public void testInitialSizeBounds() {
+    AdaptivePartitionSizer sizer = new AdaptivePartitionSizer(createTable("10", "0", "100"), 100, 1000000);
+    Assert.assertEquals("1", sizer.getPartitionSize());
+
+    sizer = new AdaptivePartitionSizer(createTable("10", "0", "100"), 100, 1);
+    Assert.assertEquals("100", sizer.getPartitionSize());
+  }
+
+  @Test
+  public void testDensePartitionShrinksSize() {
+    TableContext table = createTable("1000", "0", "1000000");
+    AdaptivePartitionSizer sizer = new AdaptivePartitionSizer(table, 100, -1);
+
+    TableRuntimeContext partition = TableRuntimeContext.createInitialPartition(table);
+    Assert.assertEquals("1000", partition.getPartitionOffsetEnd().get(OFFSET_COL));
+    partition.addRowsRead(600);
+    partition.addRowsRead(400);
+    sizer.partitionFinished(partition);
+
+    // ten times the target moves the size halfway toward a quarter of the partition width
+    Assert.assertEquals("625", sizer.getPartitionSize());
+
+    TableRuntimeContext next = TableRuntimeContext.createNextPartition(partition);
+    Assert.assertEquals("1000", next.getPartitionOffsetStart().get(OFFSET_COL));
+    Assert.assertEquals("1625", next.getPartitionOffsetEnd().get(OFFSET_COL));
+  }
+
+  @Test
+  public void testSparsePartitionGrowsSize() {
+    TableContext table = createTable("1000", "0", "1000000");
+    AdaptivePartitionSizer sizer = new AdaptivePartitionSizer(table, 100, -1);
+
+    TableRuntimeContext partition = TableRuntimeContext.createInitialPartition(table);
+    sizer.partitionFinished(partition);
+    Assert.assertEquals("2500", sizer.getPartitionSize());
+
+    TableRuntimeContext next = TableRuntimeContext.createNextPartition(partition);
+    Assert.assertEquals("1000", next.getPartitionOffsetStart().get(OFFSET_COL));
+    Assert.assertEquals("3500", next.getPartitionOffsetEnd().get(OFFSET_COL));
+
+    next.addRowsRead(100);
+    sizer.partitionFinished(next);
+    Assert.assertEquals("2500", sizer.getPartitionSize());
+  }
+
+  @Test
+  public void testPartitionsWithoutReliableCountsAreIgnored() {
+    TableContext table = createTable("1000", "0", "500");
+    AdaptivePartitionSizer sizer = new AdaptivePartitionSizer(table, 100, -1);
+
+    // an empty partition past the max offset value of the table
+    TableRuntimeContext partition = TableRuntimeContext.createNextPartition(
+        TableRuntimeContext.createInitialPartition(table)
+    );
+    Assert.assertEquals("1000", partition.getPartitionOffsetStart().get(OFFSET_COL));
+    sizer.partitionFinished(partition);
+    Assert.assertEquals("1000", sizer.getPartitionSize());
+
+    // a partition that was resumed from a stored offset
+    TableRuntimeContext resumed = new TableRuntimeContext(
+        table,
+        false,
+        true,
+        1,
+        Collections.singletonMap(OFFSET_COL, "0"),
+        Collections.singletonMap(OFFSET_COL, "1000"),
+        Collections.singletonMap(OFFSET_COL, "900")
+    );
+    resumed.addRowsRead(10);
+    sizer.partitionFinished(resumed);
+    Assert.assertEquals("1000", sizer.getPartitionSize());
+  }
+}
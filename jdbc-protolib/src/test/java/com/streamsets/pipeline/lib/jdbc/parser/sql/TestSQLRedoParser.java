@@ -0,0 +1,90 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.jdbc.parser.sql;
+
+import com.google.common.collect.ImmutableMap;
+import com.streamsets.pipeline.lib.jdbc.OracleCDCOperationCode;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class TestSQLRedoParser {
+
+  @Test
+  public void testSameResultAsSQLParser() throws Exception {
+    for (Object[] data : TestSQLParser.data()) {
+      String sql = (String) data[0];
+      int code;
+      if (sql.startsWith("insert")) {
+        code = OracleCDCOperationCode.INSERT_CODE;
+      } else if (sql.startsWith("delete")) {
+        code = OracleCDCOperationCode.DELETE_CODE;
+      } else {
+        code = OracleCDCOperationCode.UPDATE_CODE;
+      }
+      Assert.assertEquals(sql, data[1], SQLRedoParser.parse(sql, code, false));
+    }
+  }
+
+  @Test
+  public void testQuotingAndFunctions() {
+    String sql = "insert into \"SCOTT\".\"EMP\"(\"ID\",\"Name\",\"RAW\",\"LOB\",\"TS\") values " +
+        "('1','O''Brien',HEXTORAW('0aff'),EMPTY_CLOB(),TO_TIMESTAMP_TZ(TO_CHAR('x'), 'fmt'));";
+    Map<String, String> expected = new HashMap<>();
+    expected.put("ID", "1");
+    expected.put("NAME", "O'Brien");
+    expected.put("RAW", "HEXTORAW('0aff')");
+    expected.put("LOB", "EMPTY_CLOB()");
+    expected.put("TS", "TO_TIMESTAMP_TZ(TO_CHAR('x'), 'fmt')");
+    Assert.assertEquals(expected, SQLRedoParser.parse(sql, OracleCDCOperationCode.INSERT_CODE, false));
+
+    expected.remove("NAME");
+    expected.put("Name", "O'Brien");
+    Assert.assertEquals(expected, SQLRedoParser.parse(sql, OracleCDCOperationCode.INSERT_CODE, true));
+  }
+
+  @Test
+  public void testUpdateWithoutWhereClause() {
+    Assert.assertEquals(
+        ImmutableMap.of("A", "1"),
+        SQLRedoParser.parse("update \"S\".\"T\" set \"A\" = '1'", OracleCDCOperationCode.SELECT_FOR_UPDATE_CODE, false)
+    );
+  }
+
+  @Test
+  public void testUnsupportedShapes() {
+    // unquoted literals are left to the general purpose parser
+    Assert.assertNull(SQLRedoParser.parse(
+        "delete from \"S\".\"T\" where \"A\" = 1",
+        OracleCDCOperationCode.DELETE_CODE,
+        false
+    ));
+    Assert.assertNull(SQLRedoParser.parse(
+        "insert into \"S\".\"T\"(\"A\",\"B\") values ('1')",
+        OracleCDCOperationCode.INSERT_CODE,
+        false
+    ));
+    Assert.assertNull(SQLRedoParser.parse(
+        " update \"SYS\".\"MANYCOLS\" set why are we testing this",
+        OracleCDCOperationCode.UPDATE_CODE,
+        false
+    ));
+    Assert.assertNull(SQLRedoParser.parse("select 1 from dual", OracleCDCOperationCode.DDL_CODE, false));
+  }
+
+}
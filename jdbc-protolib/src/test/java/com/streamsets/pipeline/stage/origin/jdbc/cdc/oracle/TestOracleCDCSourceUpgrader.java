@@ -201,6 +201,25 @@ public class TestOracleCDCSourceUpgrader {
 
   }
 
+  @Test
+  public void upgradeV13TOV14() throws Exception {
+    List<Config> configs = new ArrayList<>();
+
+    URL yamlResource = ClassLoader.getSystemClassLoader().getResource("upgrader/OracleCDCDSource.yaml");
+    StageUpgrader upgrader = new SelectorStageUpgrader(
+      "stage",
+      new OracleCDCSourceUpgrader(),
+      yamlResource
+    );
+
+    StageUpgrader.Context context = Mockito.mock(StageUpgrader.Context.class);
+    Mockito.doReturn(13).when(context).getFromVersion();
+    Mockito.doReturn(14).when(context).getToVersion();
+    configs = upgrader.upgrade(configs, context);
+
+    Assert.assertEquals(100, getConfigsAsMap(configs).get("oracleCDCConfigBean.bufferMemoryLimitMB"));
+  }
+
   private static Map<String, Object> getConfigsAsMap(List<Config> configs) {
     HashMap<String, Object> map = new HashMap<>();
     for (Config c : configs) {
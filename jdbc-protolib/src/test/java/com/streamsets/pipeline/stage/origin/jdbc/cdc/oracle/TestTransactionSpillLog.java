@@ -0,0 +1,106 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.jdbc.cdc.oracle;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+public class TestTransactionSpillLog {
+  private File dir;
+
+  @Before
+  public void setUp() throws Exception {
+    dir = Files.createTempDirectory("spill-log").toFile();
+  }
+
+  @After
+  public void tearDown() {
+    Assert.assertTrue(dir.delete());
+  }
+
+  private static RecordSequence record(int seq) {
+    Map<String, String> headers = new HashMap<>();
+    headers.put(OracleCDCSource.ROLLBACK, "0");
+    return new RecordSequence(headers, "insert into \"S\".\"T\"(\"ID\") values ('" + seq + "')", seq, 1,
+        "0x0001." + seq, seq, LocalDateTime.now());
+  }
+
+  @Test
+  public void testSpillAndReclaim() throws Exception {
+    // room for about two records in memory, tiny segments so that the transactions share several of them
+    TransactionSpillLog log = new TransactionSpillLog(dir, 1024, 800);
+    HashQueue<RecordSequence> txn1 = log.newQueue();
+    HashQueue<RecordSequence> txn2 = log.newQueue();
+    for (int i = 1; i <= 50; i++) {
+      txn1.add(record(i));
+      txn2.add(record(100 + i));
+    }
+    Assert.assertEquals(50, txn1.size());
+    Assert.assertEquals(150, txn2.tail().seq);
+    Assert.assertTrue(log.getMemoryUsed() <= 800);
+    Assert.assertTrue(log.getSegmentCount() > 1);
+
+    Assert.assertTrue(txn1.contains(record(30)));
+    Assert.assertFalse(txn1.contains(record(130)));
+    Assert.assertTrue(txn2.contains(record(130)));
+
+    // changes to spilled records are kept once updated
+    RecordSequence spilled = null;
+    for (RecordSequence r : txn1) {
+      if (r.seq == 40) {
+        spilled = r;
+      }
+    }
+    Assert.assertNotNull(spilled);
+    spilled.headers.put(OracleCDCSource.SKIP, OracleCDCSource.ONE);
+    txn1.update(spilled);
+
+    // commit of the first transaction, in order
+    Iterator<RecordSequence> it = txn1.iterator();
+    for (int i = 1; i <= 10; i++) {
+      Assert.assertEquals(i, it.next().seq);
+      it.remove();
+    }
+    Assert.assertEquals(11, txn1.peek().seq);
+    for (int i = 11; i <= 50; i++) {
+      RecordSequence r = txn1.remove();
+      Assert.assertEquals(i, r.seq);
+      Assert.assertEquals(i == 40 ? OracleCDCSource.ONE : null, r.headers.get(OracleCDCSource.SKIP));
+    }
+    Assert.assertTrue(txn1.isEmpty());
+    Assert.assertNull(txn1.tail());
+    Assert.assertNull(txn1.poll());
+
+    // rollback of the second transaction releases everything
+    txn2.close();
+    Assert.assertEquals(0, log.getMemoryUsed());
+    Assert.assertTrue(log.getSegmentCount() <= 1);
+
+    log.close();
+    Assert.assertEquals(0, log.getSegmentCount());
+    Assert.assertEquals(0, dir.list().length);
+  }
+
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.jdbc.cdc.postgres;
+
+import com.streamsets.pipeline.api.Field;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+public class TestPgOutputDecoder {
+
+  private static final int RELATION_ID = 16384;
+
+  private PgOutputDecoder decoder;
+  private ByteArrayOutputStream bytes;
+  private DataOutputStream out;
+
+  @Before
+  public void setUp() throws IOException {
+    decoder = new PgOutputDecoder();
+    message('R');
+    out.writeInt(RELATION_ID);
+    string("public");
+    string("idnames");
+    out.writeByte('d');
+    out.writeShort(3);
+    column(true, "id", 23, -1);
+    column(false, "name", 1043, 255 + 4);
+    column(false, "price", 1700, ((10 << 16) | 2) + 4);
+    Assert.assertNull(decoder.decode(buffer()));
+    Assert.assertEquals(1, decoder.getCachedRelationCount());
+  }
+
+  @Test
+  public void testTransaction() throws IOException {
+    message('B');
+    out.writeLong(100);
+    out.writeLong(584_000_000_000_000L);
+    out.writeInt(598);
+    Assert.assertNull(decoder.decode(buffer()));
+
+    message('I');
+    out.writeInt(RELATION_ID);
+    out.writeByte('N');
+    out.writeShort(3);
+    text("1");
+    text("a");
+    text("12.50");
+    Assert.assertNull(decoder.decode(buffer()));
+
+    message('U');
+    out.writeInt(RELATION_ID);
+    out.writeByte('N');
+    out.writeShort(3);
+    text("1");
+    out.writeByte('u');
+    text("99999999999");
+    Assert.assertNull(decoder.decode(buffer()));
+
+    message('D');
+    out.writeInt(RELATION_ID);
+    out.writeByte('K');
+    out.writeShort(3);
+    text("1");
+    out.writeByte('n');
+    out.writeByte('n');
+    Assert.assertNull(decoder.decode(buffer()));
+
+    message('C');
+    out.writeByte(0);
+    out.writeLong(100);
+    out.writeLong(0x16751E8L);
+    out.writeLong(584_000_000_000_000L);
+    Field transaction = decoder.decode(buffer());
+    Assert.assertNotNull(transaction);
+
+    Map<String, Field> map = transaction.getValueAsMap();
+    Assert.assertEquals(598, map.get("xid").getValueAsInteger());
+    Assert.assertEquals("0/16751E8", map.get("nextlsn").getValueAsString());
+    Assert.assertEquals("2018-07-04 06:13:20.000000+00", map.get("timestamp").getValueAsString());
+
+    List<Field> changes = map.get("change").getValueAsList();
+    Assert.assertEquals(3, changes.size());
+
+    Map<String, Field> insert = changes.get(0).getValueAsMap();
+    Assert.assertEquals("insert", PostgresWalRecord.getTypeFromChangeMap(insert));
+    Assert.assertEquals("public", PostgresWalRecord.getSchemaFromChangeMap(insert));
+    Assert.assertEquals("idnames", PostgresWalRecord.getTableFromChangeMap(insert));
+    Assert.assertEquals("character varying(255)", insert.get("columntypes").getValueAsList().get(1).getValueAsString());
+    Assert.assertEquals("numeric(10,2)", insert.get("columntypes").getValueAsList().get(2).getValueAsString());
+    List<Field> values = insert.get("columnvalues").getValueAsList();
+    Assert.assertEquals(Field.Type.INTEGER, values.get(0).getType());
+    Assert.assertEquals("a", values.get(1).getValueAsString());
+    Assert.assertEquals(Field.Type.DOUBLE, values.get(2).getType());
+
+    // unchanged TOAST values are left out and the key is taken from the new row
+    Map<String, Field> update = changes.get(1).getValueAsMap();
+    Assert.assertEquals(2, update.get("columnnames").getValueAsList().size());
+    Assert.assertEquals(99999999999L, update.get("columnvalues").getValueAsList().get(1).getValueAsLong());
+    Assert.assertEquals(
+        "id",
+        update.get("oldkeys").getValueAsMap().get("keynames").getValueAsList().get(0).getValueAsString()
+    );
+
+    Map<String, Field> delete = changes.get(2).getValueAsMap();
+    Assert.assertNull(delete.get("columnnames"));
+    Map<String, Field> oldKeys = delete.get("oldkeys").getValueAsMap();
+    Assert.assertEquals(1, oldKeys.get("keyvalues").getValueAsList().size());
+    Assert.assertEquals(1, oldKeys.get("keyvalues").getValueAsList().get(0).getValueAsInteger());
+  }
+
+  @Test
+  public void testNumberTyping() throws IOException {
+    message('B');
+    out.writeLong(100);
+    out.writeLong(0);
+    out.writeInt(-1);
+    decoder.decode(buffer());
+
+    message('I');
+    out.writeInt(RELATION_ID);
+    out.writeByte('N');
+    out.writeShort(3);
+    text("2147483648");
+    out.writeByte('n');
+    text("123456789012345678901234567890");
+    decoder.decode(buffer());
+
+    message('C');
+    out.writeByte(0);
+    out.writeLong(100);
+    out.writeLong(200);
+    out.writeLong(0);
+    Map<String, Field> transaction = decoder.decode(buffer()).getValueAsMap();
+
+    // xids are unsigned
+    Assert.assertEquals(4294967295L, transaction.get("xid").getValueAsLong());
+    List<Field> values = transaction.get("change").getValueAsList().get(0).getValueAsMap()
+        .get("columnvalues").getValueAsList();
+    Assert.assertEquals(Field.Type.LONG, values.get(0).getType());
+    Assert.assertNull(values.get(1).getValue());
+    Assert.assertEquals(new BigDecimal("123456789012345678901234567890"), values.get(2).getValueAsDecimal());
+  }
+
+  @Test(expected = IOException.class)
+  public void testUnknownRelation() throws IOException {
+    message('B');
+    out.writeLong(100);
+    out.writeLong(0);
+    out.writeInt(1);
+    decoder.decode(buffer());
+
+    message('I');
+    out.writeInt(RELATION_ID + 1);
+    out.writeByte('N');
+    out.writeShort(0);
+    decoder.decode(buffer());
+  }
+
+  @Test(expected = IOException.class)
+  public void testTruncatedMessage() throws IOException {
+    message('I');
+    out.writeInt(RELATION_ID);
+    decoder.decode(buffer());
+  }
+
+  private void message(char type) throws IOException {
+    bytes = new ByteArrayOutputStream();
+    out = new DataOutputStream(bytes);
+    out.writeByte(type);
+  }
+
+  private void column(boolean key, String name, int typeOid, int typeModifier) throws IOException {
+    out.writeByte(key ? 1 : 0);
+    string(name);
+    out.writeInt(typeOid);
+    out.writeInt(typeModifier);
+  }
+
+  private void string(String value) throws IOException {
+    out.write(value.getBytes(StandardCharsets.UTF_8));
+    out.writeByte(0);
+  }
+
+  private void text(String value) throws IOException {
+    byte[] data = value.getBytes(StandardCharsets.UTF_8);
+    out.writeByte('t');
+    out.writeInt(data.length);
+    out.write(data);
+  }
+
+  private ByteBuffer buffer() {
+    return ByteBuffer.wrap(bytes.toByteArray());
+  }
+}
@@ -54,4 +54,19 @@ public class TestPostgresCDCSourceUpgrader {
     Assert.assertEquals(15000, configValue.getValue());
 
   }
+
+  @Test
+  public void testV2ToV3() {
+    StageUpgrader.Context context = Mockito.mock(StageUpgrader.Context.class);
+    Mockito.doReturn(2).when(context).getFromVersion();
+    Mockito.doReturn(3).when(context).getToVersion();
+
+    List<Config> configs = postgresCDCSourceUpgrader.upgrade(new ArrayList<>(), context);
+
+    Assert.assertEquals(1, configs.size());
+
+    Config configValue = configs.get(0);
+    Assert.assertEquals("postgresCDCConfigBean.publications", configValue.getName());
+    Assert.assertEquals("", configValue.getValue());
+  }
 }
@@ -277,6 +277,22 @@ public class TestTableJdbcSourceUpgrader {
     );
   }
 
+  @Test
+  public void testUpgradeV10toV11() {
+    Mockito.doReturn(10).when(context).getFromVersion();
+    Mockito.doReturn(11).when(context).getToVersion();
+
+    List<Map<String, Object>> tables = new ArrayList<>();
+    tables.add(new HashMap<>());
+    configs.add(new Config("tableJdbcConfigBean.tableConfigs", tables));
+
+    configs = upgrader.upgrade(configs, context);
+
+    Config tablesConfig = UpgraderUtils.getConfigWithName(configs, "tableJdbcConfigBean.tableConfigs");
+    Map<String, Object> tableConfig = ((List<Map<String, Object>>) tablesConfig.getValue()).get(0);
+    Assert.assertEquals(0, tableConfig.get("targetRowsPerPartition"));
+  }
+
   private static void assertAllContain(String configKey, Object configValue, LinkedHashMap... tableConfigMaps) {
     for (LinkedHashMap<String, Object> tableConfigMap : tableConfigMaps) {
       assertThat(tableConfigMap, hasEntry(
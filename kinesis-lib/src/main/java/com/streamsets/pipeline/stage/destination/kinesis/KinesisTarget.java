@@ -33,8 +33,8 @@ import com.streamsets.pipeline.api.el.ELVars;
 import com.streamsets.pipeline.api.impl.Utils;
 import com.streamsets.pipeline.lib.el.ELUtils;
 import com.streamsets.pipeline.lib.el.RecordEL;
-import com.streamsets.pipeline.lib.generator.DataGenerator;
 import com.streamsets.pipeline.lib.generator.DataGeneratorFactory;
+import com.streamsets.pipeline.lib.generator.RecordSerializer;
 import com.streamsets.pipeline.stage.common.DefaultErrorRecordHandler;
 import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
 import com.streamsets.pipeline.stage.destination.lib.ResponseType;
@@ -49,7 +49,6 @@ import com.streamsets.pipeline.stage.lib.kinesis.RandomPartitioner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
@@ -75,6 +74,7 @@ public class KinesisTarget extends BaseTarget {
 
   private ErrorRecordHandler errorRecordHandler;
   private DataGeneratorFactory generatorFactory;
+  private RecordSerializer recordSerializer;
   private KinesisProducer kinesisProducer;
   private Partitioner partitioner;
 
@@ -133,6 +133,7 @@ public class KinesisTarget extends BaseTarget {
           issues
       );
       generatorFactory = conf.dataFormatConfig.getDataGeneratorFactory();
+      recordSerializer = new RecordSerializer(generatorFactory);
       try {
         KinesisProducerConfiguration producerConfig = KinesisProducerConfiguration.fromProperties(additionalConfigs)
                                                                                   .setCredentialsProvider(AWSKinesisUtil
@@ -200,6 +201,9 @@ public class KinesisTarget extends BaseTarget {
       kinesisProducer.destroy();
       kinesisProducer = null;
     }
+    if (recordSerializer != null) {
+      recordSerializer.close();
+    }
 
     super.destroy();
   }
@@ -212,23 +216,20 @@ public class KinesisTarget extends BaseTarget {
 
     while (batchIterator.hasNext()) {
       Record record = batchIterator.next();
-      ByteArrayOutputStream bytes = new ByteArrayOutputStream(ONE_MB);
       try {
-        DataGenerator generator = generatorFactory.getGenerator(bytes);
-        generator.write(record);
-        generator.close();
+        byte[] bytes = recordSerializer.serialize(record);
 
-        if (bytes.size() > ONE_MB) {
+        if (bytes.length > ONE_MB) {
           errorRecordHandler.onError(
               new OnRecordErrorException(
                   record,
                   Errors.KINESIS_08,
-                  bytes.size()
+                  bytes.length
               )
           );
           continue;
         }
-        ByteBuffer data = ByteBuffer.wrap(bytes.toByteArray());
+        ByteBuffer data = ByteBuffer.wrap(bytes);
 
         String partitionerKey = null;
         if (conf.partitionStrategy == PartitionStrategy.EXPRESSION) {
@@ -29,6 +29,7 @@ public enum Errors implements ErrorCode {
   MYSQL_008("Include tables format error: {}"),
   MYSQL_009("Couldn't parse JSON column value: {}"),
   MYSQL_010("Batch size greater than maximal batch size allowed in sdc.properties, maxBatchSize: {}"),
+  MYSQL_011("Batch of {} binlog events up to offset {} was not processed"),
   ;
   private final String msg;
 
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.mysql;
+
+import com.github.shyiko.mysql.binlog.event.DeleteRowsEventData;
+import com.github.shyiko.mysql.binlog.event.Event;
+import com.github.shyiko.mysql.binlog.event.EventData;
+import com.github.shyiko.mysql.binlog.event.EventType;
+import com.github.shyiko.mysql.binlog.event.UpdateRowsEventData;
+import com.github.shyiko.mysql.binlog.event.WriteRowsEventData;
+import com.google.common.collect.ImmutableMap;
+import com.streamsets.pipeline.stage.origin.mysql.schema.Table;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Splits row events between runners.
+ * <p>
+ * Each row goes to the runner selected by hash of its table and primary key value, so that all changes of
+ * the same row are always converted by the same runner and keep their binlog order. Updates are routed by
+ * the row image before the update. An update that moves a row to a key owned by another runner has to be
+ * ordered with changes of both keys, such event is a barrier: it's processed as a whole by one runner while
+ * no other event is in flight. Tables without known primary key are routed by table name only.
+ */
+class EventRouter {
+  private final int numberOfRunners;
+
+  /**
+   * Parts of one event keyed by index of the runner that should process them.
+   */
+  static class Route {
+    private final Map<Integer, EnrichedEvent> parts;
+    private final boolean barrier;
+
+    private Route(Map<Integer, EnrichedEvent> parts, boolean barrier) {
+      this.parts = parts;
+      this.barrier = barrier;
+    }
+
+    Map<Integer, EnrichedEvent> getParts() {
+      return parts;
+    }
+
+    /**
+     * Returns true if all earlier events have to be processed before this one is dispatched and this one has to be
+     * processed before any later event is dispatched.
+     */
+    boolean isBarrier() {
+      return barrier;
+    }
+  }
+
+  EventRouter(int numberOfRunners) {
+    this.numberOfRunners = numberOfRunners;
+  }
+
+  Route route(EnrichedEvent event) {
+    if (numberOfRunners == 1) {
+      return new Route(ImmutableMap.of(0, event), false);
+    }
+
+    Event binlogEvent = event.getEvent();
+    Table table = event.getTable();
+    int tableHash = Objects.hash(table.getDatabase(), table.getName());
+    if (table.getPrimaryKeyPositions().isEmpty()) {
+      return new Route(ImmutableMap.of(runnerFor(tableHash), event), false);
+    }
+
+    EventType eventType = binlogEvent.getHeader().getEventType();
+    switch (eventType) {
+      case PRE_GA_WRITE_ROWS:
+      case WRITE_ROWS:
+      case EXT_WRITE_ROWS: {
+        WriteRowsEventData data = binlogEvent.getData();
+        Map<Integer, List<Serializable[]>> rows = new LinkedHashMap<>();
+        for (Serializable[] row : data.getRows()) {
+          add(rows, runnerFor(rowHash(tableHash, table, data.getIncludedColumns(), row)), row);
+        }
+        Map<Integer, EnrichedEvent> parts = new LinkedHashMap<>();
+        for (Map.Entry<Integer, List<Serializable[]>> entry : rows.entrySet()) {
+          WriteRowsEventData part = new WriteRowsEventData();
+          part.setTableId(data.getTableId());
+          part.setIncludedColumns(data.getIncludedColumns());
+          part.setRows(entry.getValue());
+          parts.put(entry.getKey(), subEvent(event, part, rows.size()));
+        }
+        return new Route(parts, false);
+      }
+      case PRE_GA_UPDATE_ROWS:
+      case UPDATE_ROWS:
+      case EXT_UPDATE_ROWS: {
+        UpdateRowsEventData data = binlogEvent.getData();
+        Map<Integer, List<Map.Entry<Serializable[], Serializable[]>>> rows = new LinkedHashMap<>();
+        for (Map.Entry<Serializable[], Serializable[]> row : data.getRows()) {
+          int runner = runnerFor(rowHash(tableHash, table, data.getIncludedColumnsBeforeUpdate(), row.getKey()));
+          Integer keyAfterUpdate = keyHash(tableHash, table, data.getIncludedColumns(), row.getValue());
+          if (keyAfterUpdate != null && runnerFor(keyAfterUpdate) != runner) {
+            return new Route(ImmutableMap.of(runner, event), true);
+          }
+          add(rows, runner, row);
+        }
+        Map<Integer, EnrichedEvent> parts = new LinkedHashMap<>();
+        for (Map.Entry<Integer, List<Map.Entry<Serializable[], Serializable[]>>> entry : rows.entrySet()) {
+          UpdateRowsEventData part = new UpdateRowsEventData();
+          part.setTableId(data.getTableId());
+          part.setIncludedColumnsBeforeUpdate(data.getIncludedColumnsBeforeUpdate());
+          part.setIncludedColumns(data.getIncludedColumns());
+          part.setRows(entry.getValue());
+          parts.put(entry.getKey(), subEvent(event, part, rows.size()));
+        }
+        return new Route(parts, false);
+      }
+      case PRE_GA_DELETE_ROWS:
+      case DELETE_ROWS:
+      case EXT_DELETE_ROWS: {
+        DeleteRowsEventData data = binlogEvent.getData();
+        Map<Integer, List<Serializable[]>> rows = new LinkedHashMap<>();
+        for (Serializable[] row : data.getRows()) {
+          add(rows, runnerFor(rowHash(tableHash, table, data.getIncludedColumns(), row)), row);
+        }
+        Map<Integer, EnrichedEvent> parts = new LinkedHashMap<>();
+        for (Map.Entry<Integer, List<Serializable[]>> entry : rows.entrySet()) {
+          DeleteRowsEventData part = new DeleteRowsEventData();
+          part.setTableId(data.getTableId());
+          part.setIncludedColumns(data.getIncludedColumns());
+          part.setRows(entry.getValue());
+          parts.put(entry.getKey(), subEvent(event, part, rows.size()));
+        }
+        return new Route(parts, false);
+      }
+      default:
+        return new Route(ImmutableMap.of(runnerFor(tableHash), event), false);
+    }
+  }
+
+  private int runnerFor(int hash) {
+    return Math.floorMod(hash, numberOfRunners);
+  }
+
+  private static int rowHash(int tableHash, Table table, BitSet includedColumns, Serializable[] row) {
+    Integer keyHash = keyHash(tableHash, table, includedColumns, row);
+    // key is not part of the row image (e.g. binlog_row_image=MINIMAL), fall back to table ordering
+    return keyHash != null ? keyHash : tableHash;
+  }
+
+  /**
+   * @return hash of table and primary key value, null if the key is not part of the row image
+   */
+  private static Integer keyHash(int tableHash, Table table, BitSet includedColumns, Serializable[] row) {
+    int hash = tableHash;
+    for (int position : table.getPrimaryKeyPositions()) {
+      if (!includedColumns.get(position)) {
+        return null;
+      }
+      Serializable value = row[includedColumns.get(0, position).cardinality()];
+      int valueHash = value instanceof byte[] ? Arrays.hashCode((byte[]) value) : Objects.hashCode(value);
+      hash = 31 * hash + valueHash;
+    }
+    return hash;
+  }
+
+  private static <T> void add(Map<Integer, List<T>> rows, int runner, T row) {
+    List<T> runnerRows = rows.get(runner);
+    if (runnerRows == null) {
+      runnerRows = new ArrayList<>();
+      rows.put(runner, runnerRows);
+    }
+    runnerRows.add(row);
+  }
+
+  private static EnrichedEvent subEvent(EnrichedEvent event, EventData data, int parts) {
+    if (parts == 1) {
+      return event;
+    }
+    return new EnrichedEvent(new Event(event.getEvent().getHeader(), data), event.getTable(), event.getOffset());
+  }
+}
@@ -22,7 +22,7 @@ import com.streamsets.pipeline.api.GenerateResourceBundle;
 import com.streamsets.pipeline.api.StageDef;
 
 @StageDef(
-    version = 2,
+    version = 3,
     label = "MySQL Binary Log",
     description = "Reads MySQL binary log from MySQL server.",
     icon = "mysql.png",
@@ -39,9 +39,11 @@ import org.slf4j.LoggerFactory;
 
 public class MysqlSchemaRepository {
   private static final String TABLE_SCHEMA_SQL =
-      "SELECT COLUMN_NAME, COLUMN_TYPE FROM INFORMATION_SCHEMA.COLUMNS " +
+      "SELECT COLUMN_NAME, COLUMN_TYPE, COLUMN_KEY FROM INFORMATION_SCHEMA.COLUMNS " +
           "WHERE TABLE_SCHEMA = ? AND TABLE_NAME = ? ORDER BY ORDINAL_POSITION";
 
+  private static final String PRIMARY_KEY = "PRI";
+
   private static final Logger LOG = LoggerFactory.getLogger(MysqlSchemaRepository.class);
 
   private final DataSource dataSource;
@@ -80,6 +82,7 @@ public class MysqlSchemaRepository {
         stmt.setString(1, databaseAndTable.getDatabase());
         stmt.setString(2, databaseAndTable.getTable());
         List<Column> columns = new ArrayList<>();
+        List<Integer> primaryKeyPositions = new ArrayList<>();
         try(ResultSet rs = stmt.executeQuery()) {
           LOG.info("Loading schema for `{}`.`{}`", databaseAndTable.getDatabase(), databaseAndTable.getTable());
           while (rs.next()) {
@@ -88,15 +91,21 @@ public class MysqlSchemaRepository {
             MysqlType mysqlType = MysqlType.of(type);
 
             LOG.info("\tColumn `{}` of type '{}' mapped to {}", name, type, mysqlType.name());
+            if (PRIMARY_KEY.equals(rs.getString(3))) {
+              primaryKeyPositions.add(columns.size());
+            }
             columns.add(new Column(name, mysqlType));
           }
         }
         if (columns.isEmpty()) {
           return Optional.absent();
         } else {
-          return Optional.of(
-              new TableImpl(databaseAndTable.getDatabase(), databaseAndTable.getTable(), columns)
-          );
+          return Optional.of(new TableImpl(
+              databaseAndTable.getDatabase(),
+              databaseAndTable.getTable(),
+              columns,
+              primaryKeyPositions
+          ));
         }
       }
     } catch (SQLException e) {
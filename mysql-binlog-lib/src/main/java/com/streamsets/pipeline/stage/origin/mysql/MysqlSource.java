@@ -19,7 +19,13 @@ import java.io.IOException;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -30,10 +36,12 @@ import com.github.shyiko.mysql.binlog.network.SSLMode;
 import com.github.shyiko.mysql.binlog.network.ServerException;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
-import com.streamsets.pipeline.api.BatchMaker;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.streamsets.pipeline.api.BatchContext;
 import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.Source;
 import com.streamsets.pipeline.api.StageException;
-import com.streamsets.pipeline.api.base.BaseSource;
+import com.streamsets.pipeline.api.base.BasePushSource;
 import com.streamsets.pipeline.stage.origin.mysql.filters.Filter;
 import com.streamsets.pipeline.stage.origin.mysql.filters.Filters;
 import com.streamsets.pipeline.stage.origin.mysql.filters.IgnoreTableFilter;
@@ -44,7 +52,7 @@ import com.zaxxer.hikari.pool.HikariPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public abstract class MysqlSource extends BaseSource {
+public abstract class MysqlSource extends BasePushSource {
   private static final Logger LOG = LoggerFactory.getLogger(MysqlSource.class);
 
   /**
@@ -53,6 +61,12 @@ public abstract class MysqlSource extends BaseSource {
   List<String> MYSQL_DRIVERS  = ImmutableList.of("com.mysql.cj.jdbc.Driver", "com.mysql.jdbc.Driver");
 
   private static final String CONFIG_PREFIX = "config.";
+
+  /**
+   * How long dispatcher waits for next binlog event before re-checking runners and stop flag.
+   */
+  private static final long DISPATCH_POLL_MILLIS = 100;
+  private static final long DISPATCH_BACKOFF_MILLIS = 10;
   private BinaryLogConsumer consumer;
 
   private BinaryLogClient client;
@@ -65,6 +79,15 @@ public abstract class MysqlSource extends BaseSource {
 
   private Filter eventFilter;
 
+  private OffsetWatermark watermark;
+
+  private EventRouter eventRouter;
+
+  private List<BlockingQueue<RowEventWork>> runnerQueues;
+
+  // set while dispatcher waits for runners to process everything in flight
+  private volatile boolean draining;
+
   private int port;
   private long serverId;
 
@@ -208,7 +231,14 @@ public abstract class MysqlSource extends BaseSource {
   }
 
   @Override
-  public String produce(String lastSourceOffset, int maxBatchSize, BatchMaker batchMaker) throws StageException {
+  public int getNumberOfThreads() {
+    return getConfig().numberOfThreads;
+  }
+
+  @Override
+  public void produce(Map<String, String> lastOffsets, int maxBatchSize) throws StageException {
+    String lastSourceOffset = lastOffsets.get(Source.POLL_SOURCE_OFFSET_KEY);
+
     // client does not get connected in init(), instead it is connected on first
     // invocation of this produce(), as we need to advance it to specific offset
     if (client == null) {
@@ -218,61 +248,221 @@ public abstract class MysqlSource extends BaseSource {
       client = createBinaryLogClient();
       consumer = new BinaryLogConsumer(schemaRepository, eventBuffer, client);
 
+      watermark = new OffsetWatermark();
+      eventRouter = new EventRouter(getNumberOfThreads());
+      runnerQueues = new ArrayList<>(getNumberOfThreads());
+      for (int i = 0; i < getNumberOfThreads(); i++) {
+        runnerQueues.add(new LinkedBlockingQueue<RowEventWork>());
+      }
+
       connectClient(client, lastSourceOffset);
       LOG.info("Connected client with configuration: {}", getConfig());
     }
 
-    // in case of empty batch we don't want to stop
-    if (lastSourceOffset == null) {
-      lastSourceOffset = "";
-    }
-
     // since last invocation there could errors happen
     handleErrors();
 
-    int recordCounter = 0;
     int batchSize = getConfig().maxBatchSize > maxBatchSize ? maxBatchSize : getConfig().maxBatchSize;
     if (!getContext().isPreview() && checkBatchSize && getConfig().maxBatchSize > maxBatchSize) {
       getContext().reportError(Errors.MYSQL_010, maxBatchSize);
       checkBatchSize = false;
     }
 
+    ExecutorService executor = Executors.newFixedThreadPool(
+        getNumberOfThreads(),
+        new ThreadFactoryBuilder().setNameFormat("mysql-binlog-runner-%d").setDaemon(true).build()
+    );
+    List<Future<Void>> futures = new ArrayList<>(runnerQueues.size());
+    for (BlockingQueue<RowEventWork> queue : runnerQueues) {
+      futures.add(executor.submit(new RowEventRunner(queue, batchSize)));
+    }
+
+    try {
+      // this thread only reads the binlog in order and hands row events to runners
+      while (!getContext().isStopped()) {
+        checkRunners(futures);
+        EnrichedEvent event = eventBuffer.poll(DISPATCH_POLL_MILLIS, TimeUnit.MILLISECONDS);
+        // check errors
+        handleErrors();
+        if (event != null) {
+          dispatch(event, batchSize, futures);
+        }
+      }
+    } catch (StageException e) {
+      executor.shutdownNow();
+      throw e;
+    }
+
+    executor.shutdown();
+    try {
+      executor.awaitTermination(getConfig().maxWaitTime + getConfig().connectTimeout, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    checkRunners(futures);
+  }
+
+  private void dispatch(EnrichedEvent event, int queueCapacity, List<Future<Void>> futures) throws StageException {
+    String offset = event.getOffset().format();
+    // check if event should be filtered out, its offset still has to be committed in order
+    if (eventFilter.apply(event) != Filter.Result.PASS) {
+      LOG.trace(
+          "Event for {}.{} filtered out",
+          event.getTable().getDatabase(),
+          event.getTable().getName()
+      );
+      watermark.register(offset, 0);
+      return;
+    }
 
-    long startTime = System.currentTimeMillis();
-    while (recordCounter < batchSize && (startTime + getConfig().maxWaitTime) > System.currentTimeMillis()) {
-      long timeLeft = getConfig().maxWaitTime - (System.currentTimeMillis() - startTime);
-      if (timeLeft < 0) {
-        break;
+    EventRouter.Route route = eventRouter.route(event);
+    if (route.isBarrier()) {
+      // changes of both keys of the row have to stay ordered with this event
+      awaitRunners(futures);
+    }
+    Map<Integer, EnrichedEvent> parts = route.getParts();
+    long sequence = watermark.register(offset, parts.size());
+    for (Map.Entry<Integer, EnrichedEvent> part : parts.entrySet()) {
+      BlockingQueue<RowEventWork> queue = runnerQueues.get(part.getKey());
+      // slow runner holds the dispatcher back instead of buffering an unbounded part of the binlog
+      while (queue.size() >= queueCapacity && !getContext().isStopped()) {
+        checkRunners(futures);
+        try {
+          Thread.sleep(DISPATCH_BACKOFF_MILLIS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new StageException(Errors.MYSQL_001, e.toString(), e);
+        }
       }
-      EnrichedEvent event = eventBuffer.poll(timeLeft, TimeUnit.MILLISECONDS);
-      // check errors
-      handleErrors();
-
-      if (event != null) {
-        // move offset no matter if event is filtered out
-        lastSourceOffset = event.getOffset().format();
-
-        // check if event should be filtered out
-        if (eventFilter.apply(event) == Filter.Result.PASS) {
-          List<Record> records = recordConverter.toRecords(event);
-          // If we are in preview mode, make sure we don't send a huge number of messages.
-          if (getContext().isPreview() && recordCounter + records.size() > batchSize) {
-            records = records.subList(0, batchSize - recordCounter);
-          }
-          for (Record record : records) {
-            batchMaker.addRecord(record);
+      queue.add(new RowEventWork(sequence, part.getValue()));
+    }
+    if (route.isBarrier()) {
+      awaitRunners(futures);
+    }
+  }
+
+  /**
+   * Waits until runners processed all events dispatched so far, runners with pending events don't wait for a full
+   * batch meanwhile.
+   */
+  private void awaitRunners(List<Future<Void>> futures) throws StageException {
+    draining = true;
+    try {
+      while (!watermark.isDrained() && !getContext().isStopped()) {
+        checkRunners(futures);
+        try {
+          Thread.sleep(DISPATCH_BACKOFF_MILLIS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new StageException(Errors.MYSQL_001, e.toString(), e);
+        }
+      }
+    } finally {
+      draining = false;
+    }
+  }
+
+  private void checkRunners(List<Future<Void>> futures) throws StageException {
+    for (Future<Void> future : futures) {
+      if (future.isDone()) {
+        try {
+          future.get();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+          Throwables.propagateIfInstanceOf(e.getCause(), StageException.class);
+          throw Throwables.propagate(e.getCause());
+        }
+      }
+    }
+  }
+
+  private static class RowEventWork {
+    private final long sequence;
+    private final EnrichedEvent event;
+
+    private RowEventWork(long sequence, EnrichedEvent event) {
+      this.sequence = sequence;
+      this.event = event;
+    }
+  }
+
+  /**
+   * Converts row events routed to one runner into batches and commits the offset up to which all runners
+   * have processed the binlog.
+   */
+  private class RowEventRunner implements Callable<Void> {
+    private final BlockingQueue<RowEventWork> queue;
+    private final int batchSize;
+
+    private RowEventRunner(BlockingQueue<RowEventWork> queue, int batchSize) {
+      this.queue = queue;
+      this.batchSize = batchSize;
+    }
+
+    @Override
+    public Void call() throws StageException {
+      while (!getContext().isStopped()) {
+        BatchContext batchContext = getContext().startBatch();
+        List<Long> sequences = new ArrayList<>();
+        SourceOffset lastOffset = null;
+        int recordCounter = 0;
+        long startTime = System.currentTimeMillis();
+        try {
+          while (recordCounter < batchSize) {
+            long timeLeft = getConfig().maxWaitTime - (System.currentTimeMillis() - startTime);
+            if (timeLeft <= 0) {
+              break;
+            }
+            RowEventWork work = queue.poll(Math.min(timeLeft, DISPATCH_POLL_MILLIS), TimeUnit.MILLISECONDS);
+            if (work == null) {
+              if (draining && !sequences.isEmpty()) {
+                break;
+              }
+              continue;
+            }
+            sequences.add(work.sequence);
+            lastOffset = work.event.getOffset();
+
+            List<Record> records;
+            try {
+              records = recordConverter.toRecords(work.event);
+            } catch (RuntimeException e) {
+              throw new StageException(Errors.MYSQL_004, work.event, work.event.getOffset().format(), e.toString(), e);
+            }
+            // If we are in preview mode, make sure we don't send a huge number of messages.
+            if (getContext().isPreview() && recordCounter + records.size() > batchSize) {
+              records = records.subList(0, batchSize - recordCounter);
+            }
+            for (Record record : records) {
+              batchContext.getBatchMaker().addRecord(record);
+            }
+            recordCounter += records.size();
           }
-          recordCounter += records.size();
-        } else {
-          LOG.trace(
-              "Event for {}.{} filtered out",
-              event.getTable().getDatabase(),
-              event.getTable().getName()
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return null;
+        }
+
+        // empty batches are processed as well, they commit offsets of filtered out events.
+        // events of a failed batch are never completed and would hold the committed offset back for good, the
+        // origin stops instead so that a restart resumes before them.
+        if (!getContext().processBatch(batchContext)) {
+          throw new StageException(
+              Errors.MYSQL_011,
+              sequences.size(),
+              lastOffset == null ? null : lastOffset.format()
           );
         }
+        synchronized (watermark) {
+          String offset = watermark.complete(sequences);
+          if (offset != null) {
+            getContext().commitOffset(Source.POLL_SOURCE_OFFSET_KEY, offset);
+          }
+        }
       }
+      return null;
     }
-    return lastSourceOffset;
   }
 
   private void connectClient(BinaryLogClient client, String lastSourceOffset) throws StageException {
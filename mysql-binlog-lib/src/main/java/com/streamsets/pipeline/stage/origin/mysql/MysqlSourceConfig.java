@@ -88,6 +88,18 @@ public class MysqlSourceConfig {
   )
   public int maxBatchSize;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "1",
+      label = "Number of Threads",
+      description = "Number of threads that convert row events to records. Changes of rows with the same " +
+          "primary key are always handled by the same thread.",
+      displayPosition = 45,
+      group = "ADVANCED",
+      min = 1
+  )
+  public int numberOfThreads = 1;
 
   @ConfigDef(
       required = true,
@@ -212,6 +224,7 @@ public class MysqlSourceConfig {
         ", serverId=" + serverId +
         ", maxBatchSize=" + maxBatchSize +
         ", maxWaitTime=" + maxWaitTime +
+        ", numberOfThreads=" + numberOfThreads +
         ", startFromBeginning=" + startFromBeginning +
         ", offset=" + initialOffset +
         '}';
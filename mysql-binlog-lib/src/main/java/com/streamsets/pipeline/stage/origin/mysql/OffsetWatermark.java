@@ -0,0 +1,93 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.mysql;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tracks binlog events that have been handed to runners and computes the offset that is safe to commit.
+ * <p>
+ * Events are registered in binlog order together with the number of runners that received a part of them.
+ * An event's offset becomes committable only once all of its parts, and all parts of every earlier event,
+ * have been processed, so a restart never skips an event that some runner has not finished yet.
+ */
+class OffsetWatermark {
+
+  private static class PendingEvent {
+    private final String offset;
+    private int remainingParts;
+
+    private PendingEvent(String offset, int remainingParts) {
+      this.offset = offset;
+      this.remainingParts = remainingParts;
+    }
+  }
+
+  private final Deque<PendingEvent> pending = new ArrayDeque<>();
+  private final Map<Long, PendingEvent> bySequence = new HashMap<>();
+  private long nextSequence;
+
+  /**
+   * Registers next event in binlog order.
+   *
+   * @param offset formatted offset of the event
+   * @param parts number of runners that will process a part of the event, 0 for events that are not dispatched
+   * @return sequence number that runners report back through {@link #complete(Collection)}
+   */
+  synchronized long register(String offset, int parts) {
+    long sequence = nextSequence++;
+    PendingEvent event = new PendingEvent(offset, parts);
+    pending.addLast(event);
+    if (parts > 0) {
+      bySequence.put(sequence, event);
+    }
+    return sequence;
+  }
+
+  /**
+   * Marks one part of each given event as processed.
+   *
+   * @return newest offset below which all events have been fully processed, or null if it did not move
+   */
+  synchronized String complete(Collection<Long> sequences) {
+    for (Long sequence : sequences) {
+      PendingEvent event = bySequence.get(sequence);
+      if (event != null && --event.remainingParts == 0) {
+        bySequence.remove(sequence);
+      }
+    }
+    String offset = null;
+    while (!pending.isEmpty() && pending.peekFirst().remainingParts <= 0) {
+      offset = pending.pollFirst().offset;
+    }
+    return offset;
+  }
+
+  synchronized int size() {
+    return pending.size();
+  }
+
+  /**
+   * @return true if every part handed to runners so far has been processed
+   */
+  synchronized boolean isDrained() {
+    return bySequence.isEmpty();
+  }
+}
@@ -15,9 +15,16 @@
  */
 package com.streamsets.pipeline.stage.origin.mysql.schema;
 
+import java.util.List;
+
 public interface Table {
   Column getColumn(int position);
 
+  /**
+   * Positions of the primary key columns, in key order; empty if the table has no primary key or it is unknown.
+   */
+  List<Integer> getPrimaryKeyPositions();
+
   String getDatabase();
 
   String getName();
@@ -15,17 +15,24 @@
  */
 package com.streamsets.pipeline.stage.origin.mysql.schema;
 
+import java.util.Collections;
 import java.util.List;
 
 public class TableImpl implements Table {
   private final String database;
   private final String name;
   private final List<Column> columns;
+  private final List<Integer> primaryKeyPositions;
 
   public TableImpl(String database, String name, List<Column> columns) {
+    this(database, name, columns, Collections.<Integer>emptyList());
+  }
+
+  public TableImpl(String database, String name, List<Column> columns, List<Integer> primaryKeyPositions) {
     this.database = database;
     this.name = name;
     this.columns = columns;
+    this.primaryKeyPositions = primaryKeyPositions;
   }
 
   @Override
@@ -33,6 +40,11 @@ public class TableImpl implements Table {
     return columns.get(position);
   }
 
+  @Override
+  public List<Integer> getPrimaryKeyPositions() {
+    return primaryKeyPositions;
+  }
+
   @Override
   public String getDatabase() {
     return database;
@@ -15,6 +15,9 @@
  */
 package com.streamsets.pipeline.stage.origin.mysql.schema;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Table metadata with columns names and types. When MySql does not have metadata for some table
  * (the table has been dropped) this may be used - columns will have names <code>col_N</code>
@@ -34,6 +37,11 @@ public class TableWithoutColumnsNames implements Table {
     return new Column(String.format("col_%d", position), MysqlType.TEXT);
   }
 
+  @Override
+  public List<Integer> getPrimaryKeyPositions() {
+    return Collections.emptyList();
+  }
+
   @Override
   public String getDatabase() {
     return database;
@@ -18,10 +18,10 @@ package com.streamsets.pipeline.stage.origin.mysql;
 import com.google.common.base.Throwables;
 import com.streamsets.pipeline.api.OnRecordError;
 import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.Source;
 import com.streamsets.pipeline.api.Stage;
-import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.credential.CredentialValue;
-import com.streamsets.pipeline.sdk.SourceRunner;
+import com.streamsets.pipeline.sdk.PushSourceRunner;
 import com.streamsets.pipeline.sdk.StageRunner;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
@@ -47,9 +47,15 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -75,7 +81,7 @@ public abstract class AbstractMysqlSource {
   protected static GenericContainer mysql;
 
   protected static HikariDataSource ds;
-  protected SourceRunner runner;
+  protected PushSourceRunner runner;
 
   @After
   public void teardown() throws Exception {
@@ -86,7 +92,7 @@ public abstract class AbstractMysqlSource {
     }
     if (runner != null) {
       try {
-        runner.runDestroy();
+        destroy(runner);
       } catch (Exception ignored) {
         // just don't care. runner may have not even been initialized
       }
@@ -97,7 +103,7 @@ public abstract class AbstractMysqlSource {
   public void shouldFailWhenUserIsNotSuper() throws Exception {
     MysqlSourceConfig config = createConfig("test");
     MysqlSource source = createMysqlSource(config);
-    runner = new SourceRunner.Builder(MysqlDSource.class, source)
+    runner = new PushSourceRunner.Builder(MysqlDSource.class, source)
         .addOutputLane(LANE)
         .build();
     List<Stage.ConfigIssue> issues = runner.runValidateConfigs();
@@ -109,7 +115,7 @@ public abstract class AbstractMysqlSource {
     MysqlSourceConfig config = createConfig("root");
     config.port = "1";
     MysqlSource source = createMysqlSource(config);
-    runner = new SourceRunner.Builder(MysqlDSource.class, source)
+    runner = new PushSourceRunner.Builder(MysqlDSource.class, source)
         .addOutputLane(LANE)
         .build();
     List<Stage.ConfigIssue> issues = runner.runValidateConfigs();
@@ -120,13 +126,13 @@ public abstract class AbstractMysqlSource {
   public void shouldConvertAllMysqlTypes() throws Exception {
     MysqlSourceConfig config = createConfig("root");
     MysqlSource source = createMysqlSource(config);
-    runner = new SourceRunner.Builder(MysqlDSource.class, source)
+    runner = new PushSourceRunner.Builder(MysqlDSource.class, source)
         .addOutputLane(LANE)
         .build();
     runner.runInit();
 
     final String lastSourceOffset = null;
-    StageRunner.Output output = runner.runProduce(lastSourceOffset, MAX_BATCH_SIZE);
+    Output output = runProduce(runner, lastSourceOffset, MAX_BATCH_SIZE);
     assertThat(output.getRecords().get(LANE), is(empty()));
 
     // spec timezone in timestamp
@@ -159,7 +165,7 @@ public abstract class AbstractMysqlSource {
 
     execute(ds, sql);
 
-    output = runner.runProduce(output.getNewOffset(), MAX_BATCH_SIZE);
+    output = runProduce(runner, output.getNewOffset(), MAX_BATCH_SIZE);
     assertThat(output.getRecords().get(LANE), hasSize(1));
 
     DateTimeFormatter formatter = DateTimeFormat.forPattern("yyyy-MM-dd HH:mm:ss").withZoneUTC();
@@ -219,18 +225,18 @@ public abstract class AbstractMysqlSource {
     MysqlSourceConfig config = createConfig("root");
     config.startFromBeginning = true;
     MysqlSource source = createMysqlSource(config);
-    runner = new SourceRunner.Builder(MysqlDSource.class, source)
+    runner = new PushSourceRunner.Builder(MysqlDSource.class, source)
         .addOutputLane(LANE)
         .build();
     runner.runInit();
 
     final String lastSourceOffset = null;
-    StageRunner.Output output = runner.runProduce(lastSourceOffset, MAX_BATCH_SIZE);
+    Output output = runProduce(runner, lastSourceOffset, MAX_BATCH_SIZE);
     List<Record> records = new ArrayList<>();
 
     while (!output.getRecords().get(LANE).isEmpty()) {
       records.addAll(output.getRecords().get(LANE));
-      output = runner.runProduce(output.getNewOffset(), MAX_BATCH_SIZE);
+      output = runProduce(runner, output.getNewOffset(), MAX_BATCH_SIZE);
     }
 
     Record found = null;
@@ -250,24 +256,24 @@ public abstract class AbstractMysqlSource {
     MysqlSourceConfig config = createConfig("root");
     config.startFromBeginning = false;
     MysqlSource source = createMysqlSource(config);
-    runner = new SourceRunner.Builder(MysqlDSource.class, source)
+    runner = new PushSourceRunner.Builder(MysqlDSource.class, source)
         .addOutputLane(LANE)
         .build();
     runner.runInit();
 
     final String lastSourceOffset = null;
-    StageRunner.Output output = runner.runProduce(lastSourceOffset, MAX_BATCH_SIZE);
+    Output output = runProduce(runner, lastSourceOffset, MAX_BATCH_SIZE);
     List<Record> records = new ArrayList<>();
 
     while (!output.getRecords().get(LANE).isEmpty()) {
       records.addAll(output.getRecords().get(LANE));
-      output = runner.runProduce(output.getNewOffset(), MAX_BATCH_SIZE);
+      output = runProduce(runner, output.getNewOffset(), MAX_BATCH_SIZE);
     }
     assertThat(records, is(IsEmptyCollection.<Record>empty()));
 
     // add one more
     execute(ds, "INSERT INTO foo (bar) VALUES (2)");
-    output = runner.runProduce(output.getNewOffset(), MAX_BATCH_SIZE);
+    output = runProduce(runner, output.getNewOffset(), MAX_BATCH_SIZE);
     records.addAll(output.getRecords().get(LANE));
 
     Record found = null;
@@ -290,18 +296,18 @@ public abstract class AbstractMysqlSource {
 
     MysqlSourceConfig config = createConfig("root");
     MysqlSource source = createMysqlSource(config);
-    runner = new SourceRunner.Builder(MysqlDSource.class, source)
+    runner = new PushSourceRunner.Builder(MysqlDSource.class, source)
         .addOutputLane(LANE)
         .build();
     runner.runInit();
 
     final String lastSourceOffset = null;
-    StageRunner.Output output = runner.runProduce(lastSourceOffset, MAX_BATCH_SIZE);
+    Output output = runProduce(runner, lastSourceOffset, MAX_BATCH_SIZE);
     assertThat(output.getRecords().get(LANE), is(IsEmptyCollection.<Record>empty()));
 
     execute(ds, "DELETE FROM foo");
 
-    output = runner.runProduce(output.getNewOffset(), MAX_BATCH_SIZE);
+    output = runProduce(runner, output.getNewOffset(), MAX_BATCH_SIZE);
 
     List<Record> records = new ArrayList<>();
     records.addAll(output.getRecords().get(LANE));
@@ -314,16 +320,16 @@ public abstract class AbstractMysqlSource {
     }
 
     // no more data
-    output = runner.runProduce(output.getNewOffset(), MAX_BATCH_SIZE);
+    output = runProduce(runner, output.getNewOffset(), MAX_BATCH_SIZE);
     assertThat(output.getRecords().get(LANE), is(IsEmptyCollection.<Record>empty()));
 
     // no more data after reconnect
-    runner.runDestroy();
-    runner = new SourceRunner.Builder(MysqlDSource.class, source)
+    destroy(runner);
+    runner = new PushSourceRunner.Builder(MysqlDSource.class, source)
         .addOutputLane(LANE)
         .build();
     runner.runInit();
-    output = runner.runProduce(output.getNewOffset(), MAX_BATCH_SIZE);
+    output = runProduce(runner, output.getNewOffset(), MAX_BATCH_SIZE);
     assertThat(output.getRecords().get(LANE), is(IsEmptyCollection.<Record>empty()));
   }
 
@@ -336,18 +342,18 @@ public abstract class AbstractMysqlSource {
 
     MysqlSourceConfig config = createConfig("root");
     MysqlSource source = createMysqlSource(config);
-    runner = new SourceRunner.Builder(MysqlDSource.class, source)
+    runner = new PushSourceRunner.Builder(MysqlDSource.class, source)
         .addOutputLane(LANE)
         .build();
     runner.runInit();
 
     final String lastSourceOffset = null;
-    StageRunner.Output output = runner.runProduce(lastSourceOffset, count);
+    Output output = runProduce(runner, lastSourceOffset, count);
     assertThat(output.getRecords().get(LANE), is(IsEmptyCollection.<Record>empty()));
 
     execute(ds, "DELETE FROM foo");
 
-    output = runner.runProduce(output.getNewOffset(), count / 2);
+    output = runProduce(runner, output.getNewOffset(), count / 2);
 
     List<Record> records = new ArrayList<>();
     records.addAll(output.getRecords().get(LANE));
@@ -359,18 +365,18 @@ public abstract class AbstractMysqlSource {
   public void shouldHandlePartialUpdates() throws Exception {
     MysqlSourceConfig config = createConfig("root");
     MysqlSource source = createMysqlSource(config);
-    runner = new SourceRunner.Builder(MysqlDSource.class, source)
+    runner = new PushSourceRunner.Builder(MysqlDSource.class, source)
         .addOutputLane(LANE)
         .build();
     runner.runInit();
 
-    StageRunner.Output output = runner.runProduce(null, MAX_BATCH_SIZE);
+    Output output = runProduce(runner, null, MAX_BATCH_SIZE);
     List<Record> records = new ArrayList<>(output.getRecords().get(LANE));
     assertThat(records, is(Matchers.<Record>empty()));
 
     // add one more
     execute(ds, "INSERT INTO foo2 (a, b) VALUES (1, 2)");
-    output = runner.runProduce(null, MAX_BATCH_SIZE);
+    output = runProduce(runner, null, MAX_BATCH_SIZE);
     records = new ArrayList<>(output.getRecords().get(LANE));
     assertThat(records, hasSize(1));
 
@@ -380,7 +386,7 @@ public abstract class AbstractMysqlSource {
     assertThat(rec.get("/Data/c"), is(create(3)));
 
     execute(ds, "UPDATE foo2 set a = 11, c = 33");
-    output = runner.runProduce(null, MAX_BATCH_SIZE);
+    output = runProduce(runner, null, MAX_BATCH_SIZE);
     records = new ArrayList<>(output.getRecords().get(LANE));
     rec = records.get(0);
     assertThat(records, hasSize(1));
@@ -400,19 +406,19 @@ public abstract class AbstractMysqlSource {
     MysqlSource source = createMysqlSource(config);
     config.includeTables = "test.foo,t%.foo2";
     config.ignoreTables = "test.foo";
-    runner = new SourceRunner.Builder(MysqlDSource.class, source)
+    runner = new PushSourceRunner.Builder(MysqlDSource.class, source)
         .addOutputLane(LANE)
         .build();
     runner.runInit();
 
     final String lastSourceOffset = null;
-    StageRunner.Output output = runner.runProduce(lastSourceOffset, MAX_BATCH_SIZE);
+    Output output = runProduce(runner, lastSourceOffset, MAX_BATCH_SIZE);
     assertThat(output.getRecords().get(LANE), is(IsEmptyCollection.<Record>empty()));
 
     execute(ds, "INSERT INTO foo (bar) VALUES (1)");
     execute(ds, "INSERT INTO foo2 VALUES (1, 2, 3)");
 
-    output = runner.runProduce(output.getNewOffset(), MAX_BATCH_SIZE);
+    output = runProduce(runner, output.getNewOffset(), MAX_BATCH_SIZE);
     List<Record> records = output.getRecords().get(LANE);
     assertThat(records, hasSize(1));
     assertThat(records.get(0).get("/Table").getValueAsString(), is("foo2"));
@@ -426,19 +432,19 @@ public abstract class AbstractMysqlSource {
     MysqlSource source = createMysqlSource(config);
     config.includeTables = "";
     config.ignoreTables = "";
-    runner = new SourceRunner.Builder(MysqlDSource.class, source)
+    runner = new PushSourceRunner.Builder(MysqlDSource.class, source)
         .addOutputLane(LANE)
         .build();
     runner.runInit();
 
     final String lastSourceOffset = null;
-    StageRunner.Output output = runner.runProduce(lastSourceOffset, MAX_BATCH_SIZE);
+    Output output = runProduce(runner, lastSourceOffset, MAX_BATCH_SIZE);
     assertThat(output.getRecords().get(LANE), is(IsEmptyCollection.<Record>empty()));
 
     execute(ds, "INSERT INTO foo (bar) VALUES (1)");
     execute(ds, "INSERT INTO foo2 VALUES (1, 2, 3)");
 
-    output = runner.runProduce(output.getNewOffset(), MAX_BATCH_SIZE);
+    output = runProduce(runner, output.getNewOffset(), MAX_BATCH_SIZE);
     List<Record> records = output.getRecords().get(LANE);
     assertThat(records, hasSize(2));
   }
@@ -448,18 +454,18 @@ public abstract class AbstractMysqlSource {
     MysqlSourceConfig config = createConfig("root");
     MysqlSource source = createMysqlSource(config);
     config.ignoreTables = "test.foo";
-    runner = new SourceRunner.Builder(MysqlDSource.class, source)
+    runner = new PushSourceRunner.Builder(MysqlDSource.class, source)
         .addOutputLane(LANE)
         .build();
     runner.runInit();
 
     final String lastSourceOffset = null;
-    StageRunner.Output output = runner.runProduce(lastSourceOffset, MAX_BATCH_SIZE);
+    Output output = runProduce(runner, lastSourceOffset, MAX_BATCH_SIZE);
     assertThat(output.getRecords().get(LANE), is(IsEmptyCollection.<Record>empty()));
 
     execute(ds, "INSERT INTO foo (bar) VALUES (1)");
 
-    output = runner.runProduce(output.getNewOffset(), MAX_BATCH_SIZE);
+    output = runProduce(runner, output.getNewOffset(), MAX_BATCH_SIZE);
     List<Record> records = output.getRecords().get(LANE);
     assertThat(records, is(empty()));
     assertThat(output.getNewOffset(), not(isEmptyString()));
@@ -469,14 +475,14 @@ public abstract class AbstractMysqlSource {
   public void shouldCreateRecordWithoutColumnNamesWhenMetadataNotFound() throws Exception {
     MysqlSourceConfig config = createConfig("root");
     MysqlSource source = createMysqlSource(config);
-    runner = new SourceRunner.Builder(MysqlDSource.class, source)
+    runner = new PushSourceRunner.Builder(MysqlDSource.class, source)
         .addOutputLane(LANE)
         .setOnRecordError(OnRecordError.TO_ERROR)
         .build();
     runner.runInit();
 
     final String lastSourceOffset = null;
-    StageRunner.Output output = runner.runProduce(lastSourceOffset, MAX_BATCH_SIZE);
+    Output output = runProduce(runner, lastSourceOffset, MAX_BATCH_SIZE);
     String offset = output.getNewOffset();
 
     String sql = "INSERT INTO ALL_TYPES VALUES (\n" +
@@ -510,7 +516,7 @@ public abstract class AbstractMysqlSource {
     execute(ds, "DROP TABLE ALL_TYPES");
 
     // this should not fail due to onError policy
-    output = runner.runProduce(offset, MAX_BATCH_SIZE);
+    output = runProduce(runner, offset, MAX_BATCH_SIZE);
 
     assertThat(output.getRecords().get(LANE), hasSize(1));
 
@@ -570,18 +576,18 @@ public abstract class AbstractMysqlSource {
     MysqlSourceConfig tconfig = createConfig("root");
     tconfig.startFromBeginning = true;
     MysqlSource tsource = createMysqlSource(tconfig);
-    SourceRunner trunner = new SourceRunner.Builder(MysqlDSource.class, tsource)
+    PushSourceRunner trunner = new PushSourceRunner.Builder(MysqlDSource.class, tsource)
         .addOutputLane(LANE)
         .build();
-    StageRunner.Output toutput = null;
+    Output toutput = null;
     try {
       trunner.runInit();
-      toutput = trunner.runProduce(null, MAX_BATCH_SIZE);
+      toutput = runProduce(trunner, null, MAX_BATCH_SIZE);
       while (!toutput.getRecords().get(LANE).isEmpty()) {
-        toutput = trunner.runProduce(toutput.getNewOffset(), MAX_BATCH_SIZE);
+        toutput = runProduce(trunner, toutput.getNewOffset(), MAX_BATCH_SIZE);
       }
     } finally {
-      trunner.runDestroy();
+      destroy(trunner);
     }
     final String lastSourceOffset = toutput.getNewOffset();
 
@@ -591,14 +597,14 @@ public abstract class AbstractMysqlSource {
     List<Record> records = new Vector<>();
 
     List<String> serverIds = Arrays.asList("1", "2");
-    List<SourceRunner> runners = new ArrayList<>();
+    List<PushSourceRunner> runners = new ArrayList<>();
 
     for (String serverId: serverIds) {
       MysqlSourceConfig config = createConfig("root");
       config.startFromBeginning = false;
       config.serverId = serverId;
       MysqlSource source = createMysqlSource(config);
-      runner = new SourceRunner.Builder(MysqlDSource.class, source)
+      runner = new PushSourceRunner.Builder(MysqlDSource.class, source)
           .addOutputLane(LANE)
           .build();
       runner.runInit();
@@ -608,24 +614,24 @@ public abstract class AbstractMysqlSource {
     ExecutorService ec = Executors.newFixedThreadPool(2);
     CountDownLatch latch = new CountDownLatch(2);
 
-    for (final SourceRunner runner : runners) {
+    for (final PushSourceRunner runner : runners) {
       ec.submit(new Runnable() {
         @Override
         public void run() {
           try {
-            StageRunner.Output output = runner.runProduce(lastSourceOffset, MAX_BATCH_SIZE);
+            Output output = runProduce(runner, lastSourceOffset, MAX_BATCH_SIZE);
 
             while (!output.getRecords().get(LANE).isEmpty()) {
               records.addAll(output.getRecords().get(LANE));
-              output = runner.runProduce(output.getNewOffset(), MAX_BATCH_SIZE);
+              output = runProduce(runner, output.getNewOffset(), MAX_BATCH_SIZE);
             }
           } catch (Exception e) {
             throw Throwables.propagate(e);
           } finally {
             latch.countDown();
             try {
-              runner.runDestroy();
-            } catch (StageException e) {
+              destroy(runner);
+            } catch (Exception e) {
               e.printStackTrace();
             }
           }
@@ -644,6 +650,127 @@ public abstract class AbstractMysqlSource {
     assertThat(count, is(2));
   }
 
+  /**
+   * Lets the running origin produce one more batch and returns it, so that tests can drive the push origin
+   * batch by batch. The origin is started on first call with given offset, later calls ignore it.
+   */
+  protected static Output runProduce(PushSourceRunner runner, String lastSourceOffset, int maxBatchSize)
+      throws Exception {
+    ProduceState state = PRODUCE_STATES.get(runner);
+    if (state == null) {
+      state = new ProduceState(runner);
+      PRODUCE_STATES.put(runner, state);
+      Map<String, String> offsets = lastSourceOffset == null
+          ? Collections.<String, String>emptyMap()
+          : Collections.singletonMap(Source.POLL_SOURCE_OFFSET_KEY, lastSourceOffset);
+      runner.runProduce(offsets, maxBatchSize, state);
+    }
+    return state.next();
+  }
+
+  protected static void destroy(PushSourceRunner runner) throws Exception {
+    ProduceState state = PRODUCE_STATES.remove(runner);
+    if (state != null) {
+      state.stop();
+    }
+    runner.runDestroy();
+  }
+
+  private static final Map<PushSourceRunner, ProduceState> PRODUCE_STATES = new ConcurrentHashMap<>();
+
+  protected static class Output {
+    private final ProduceState state;
+    private final int index;
+    private final Map<String, List<Record>> records;
+
+    private Output(ProduceState state, int index, Map<String, List<Record>> records) {
+      this.state = state;
+      this.index = index;
+      this.records = records;
+    }
+
+    public Map<String, List<Record>> getRecords() {
+      return records;
+    }
+
+    /**
+     * Offset committed by the origin after this batch. Origin commits it only when it is let to continue
+     * with the next batch.
+     */
+    public String getNewOffset() throws InterruptedException {
+      return state.committedAfter(index);
+    }
+  }
+
+  /**
+   * Blocks the origin in callback of each batch until test asks for the next one.
+   */
+  private static class ProduceState implements PushSourceRunner.Callback {
+    private static final int BATCH_TIMEOUT_SECONDS = 60;
+
+    private final PushSourceRunner runner;
+    private final Semaphore permits = new Semaphore(0);
+    private final LinkedBlockingDeque<Output> batches = new LinkedBlockingDeque<>();
+    // offset committed before each batch, by batch index
+    private final List<String> committed = new CopyOnWriteArrayList<>();
+    private volatile boolean stopped;
+    // origin starts collecting the first batch right away
+    private boolean released = true;
+
+    private ProduceState(PushSourceRunner runner) {
+      this.runner = runner;
+    }
+
+    @Override
+    public void processBatch(StageRunner.Output output) {
+      committed.add(runner.getOffsets().get(Source.POLL_SOURCE_OFFSET_KEY));
+      batches.add(new Output(this, committed.size() - 1, output.getRecords()));
+      if (!stopped) {
+        permits.acquireUninterruptibly();
+      }
+    }
+
+    private synchronized Output next() throws InterruptedException {
+      release();
+      Output output = batches.pollFirst(BATCH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+      if (output == null) {
+        throw new AssertionError("Origin did not produce a batch");
+      }
+      released = false;
+      return output;
+    }
+
+    private synchronized String committedAfter(int index) throws InterruptedException {
+      if (committed.size() <= index + 1 && !stopped) {
+        // let the origin commit this batch, the offset is known once it hands over the next one
+        release();
+        Output next = batches.pollFirst(BATCH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        if (next == null) {
+          throw new AssertionError("Origin did not produce a batch");
+        }
+        batches.putFirst(next);
+      }
+      String offset = committed.size() > index + 1
+          ? committed.get(index + 1)
+          : runner.getOffsets().get(Source.POLL_SOURCE_OFFSET_KEY);
+      return offset == null ? "" : offset;
+    }
+
+    private void release() {
+      if (!released) {
+        released = true;
+        permits.release();
+      }
+    }
+
+    private void stop() throws ExecutionException, InterruptedException {
+      stopped = true;
+      runner.setStop();
+      permits.release(Short.MAX_VALUE);
+      runner.waitOnProduce();
+    }
+  }
+
   protected void execute(DataSource ds, String sql) throws SQLException {
     execute(ds, Collections.singletonList(sql));
   }
@@ -687,6 +814,7 @@ public abstract class AbstractMysqlSource {
     config.serverId = String.valueOf(SERVER_ID);
     config.maxWaitTime = 1000;
     config.maxBatchSize = 1000;
+    config.numberOfThreads = 1;
     config.connectTimeout = 5000;
     config.startFromBeginning = false;
     return config;
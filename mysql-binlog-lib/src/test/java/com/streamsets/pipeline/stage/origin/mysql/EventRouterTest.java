@@ -0,0 +1,172 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.mysql;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.github.shyiko.mysql.binlog.event.Event;
+import com.github.shyiko.mysql.binlog.event.EventData;
+import com.github.shyiko.mysql.binlog.event.EventHeaderV4;
+import com.github.shyiko.mysql.binlog.event.EventType;
+import com.github.shyiko.mysql.binlog.event.UpdateRowsEventData;
+import com.github.shyiko.mysql.binlog.event.WriteRowsEventData;
+import com.streamsets.pipeline.stage.origin.mysql.schema.Column;
+import com.streamsets.pipeline.stage.origin.mysql.schema.MysqlType;
+import com.streamsets.pipeline.stage.origin.mysql.schema.Table;
+import com.streamsets.pipeline.stage.origin.mysql.schema.TableImpl;
+import org.junit.Test;
+
+public class EventRouterTest {
+  private final Table table = new TableImpl(
+      "db",
+      "t",
+      Arrays.asList(new Column("id", MysqlType.INT), new Column("value", MysqlType.VARCHAR)),
+      Collections.singletonList(0)
+  );
+
+  @Test
+  public void shouldNotSplitForSingleRunner() {
+    EnrichedEvent event = writeEvent(table, 1, 2, 3);
+    Map<Integer, EnrichedEvent> parts = new EventRouter(1).route(event).getParts();
+    assertThat(parts.size(), is(1));
+    assertThat(parts.get(0), is(sameInstance(event)));
+  }
+
+  @Test
+  public void shouldRouteSameKeyToSameRunner() {
+    EventRouter router = new EventRouter(4);
+    Map<Integer, Integer> runnerByKey = new HashMap<>();
+    for (int i = 0; i < 3; i++) {
+      EnrichedEvent event = writeEvent(table, 1, 2, 3, 4, 5, 6, 7, 8);
+      Map<Integer, EnrichedEvent> parts = router.route(event).getParts();
+      int rows = 0;
+      for (Map.Entry<Integer, EnrichedEvent> part : parts.entrySet()) {
+        WriteRowsEventData data = part.getValue().getEvent().getData();
+        for (Serializable[] row : data.getRows()) {
+          Integer previous = runnerByKey.put((Integer) row[0], part.getKey());
+          if (previous != null) {
+            assertThat(part.getKey(), is(previous));
+          }
+          rows++;
+        }
+        assertThat(part.getValue().getOffset(), is(sameInstance(event.getOffset())));
+      }
+      assertThat(rows, is(8));
+    }
+  }
+
+  @Test
+  public void shouldRouteUpdateByKeyBeforeUpdate() {
+    EventRouter router = new EventRouter(4);
+    int insertRunner = router.route(writeEvent(table, 5)).getParts().keySet().iterator().next();
+
+    int updatedKey = 6;
+    while (runnerFor(router, updatedKey) != insertRunner) {
+      updatedKey++;
+    }
+    EventRouter.Route route = router.route(updateEvent(5, updatedKey));
+
+    assertThat(route.getParts().keySet().iterator().next(), is(insertRunner));
+    assertThat(route.isBarrier(), is(false));
+  }
+
+  @Test
+  public void shouldRouteKeyChangeToOtherRunnerAsBarrier() {
+    EventRouter router = new EventRouter(4);
+    int insertRunner = runnerFor(router, 5);
+    int otherKey = 6;
+    while (runnerFor(router, otherKey) == insertRunner) {
+      otherKey++;
+    }
+
+    EnrichedEvent event = updateEvent(1, 1, 5, otherKey);
+    EventRouter.Route route = router.route(event);
+
+    // the whole event goes to the runner of the key before the update
+    assertThat(route.isBarrier(), is(true));
+    assertThat(route.getParts().size(), is(1));
+    assertThat(route.getParts().get(insertRunner), is(sameInstance(event)));
+
+    // non key columns only
+    assertThat(router.route(updateEvent(otherKey, otherKey)).isBarrier(), is(false));
+  }
+
+  @Test
+  public void shouldRouteTableWithoutKeyToOneRunner() {
+    Table noKey = new TableImpl("db", "t", Arrays.asList(new Column("value", MysqlType.INT)));
+    EnrichedEvent event = writeEvent(noKey, 1, 2, 3, 4, 5, 6, 7, 8);
+    Map<Integer, EnrichedEvent> parts = new EventRouter(4).route(event).getParts();
+    assertThat(parts.size(), is(1));
+    assertThat(parts.values().iterator().next(), is(sameInstance(event)));
+  }
+
+  private EnrichedEvent writeEvent(Table table, int... keys) {
+    WriteRowsEventData data = new WriteRowsEventData();
+    data.setIncludedColumns(allColumns());
+    List<Serializable[]> rows = new ArrayList<>();
+    for (int key : keys) {
+      rows.add(new Serializable[]{key, "v" + key});
+    }
+    data.setRows(rows);
+    return event(EventType.EXT_WRITE_ROWS, table, data);
+  }
+
+  private int runnerFor(EventRouter router, int key) {
+    return router.route(writeEvent(table, key)).getParts().keySet().iterator().next();
+  }
+
+  /**
+   * @param keys pairs of key before and after update
+   */
+  private EnrichedEvent updateEvent(int... keys) {
+    UpdateRowsEventData data = new UpdateRowsEventData();
+    data.setIncludedColumnsBeforeUpdate(allColumns());
+    data.setIncludedColumns(allColumns());
+    List<Map.Entry<Serializable[], Serializable[]>> rows = new ArrayList<>();
+    for (int i = 0; i < keys.length; i += 2) {
+      rows.add(new AbstractMap.SimpleEntry<Serializable[], Serializable[]>(
+          new Serializable[]{keys[i], "a"},
+          new Serializable[]{keys[i + 1], "b"}
+      ));
+    }
+    data.setRows(rows);
+    return event(EventType.EXT_UPDATE_ROWS, table, data);
+  }
+
+  private EnrichedEvent event(EventType type, Table table, EventData data) {
+    EventHeaderV4 header = new EventHeaderV4();
+    header.setEventType(type);
+    return new EnrichedEvent(new Event(header, data), table, new BinLogPositionSourceOffset("binlog.000001", 4));
+  }
+
+  private BitSet allColumns() {
+    BitSet columns = new BitSet();
+    columns.set(0, 2);
+    return columns;
+  }
+}
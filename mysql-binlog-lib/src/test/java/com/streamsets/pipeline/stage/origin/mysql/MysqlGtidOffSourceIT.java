@@ -17,8 +17,7 @@ package com.streamsets.pipeline.stage.origin.mysql;
 
 import com.google.common.io.Resources;
 import com.streamsets.pipeline.api.Record;
-import com.streamsets.pipeline.sdk.SourceRunner;
-import com.streamsets.pipeline.sdk.StageRunner;
+import com.streamsets.pipeline.sdk.PushSourceRunner;
 import org.hamcrest.Matchers;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
@@ -64,12 +63,12 @@ public class MysqlGtidOffSourceIT extends AbstractMysqlSource {
   public void shouldWriteBinLogPosition() throws Exception {
     MysqlSourceConfig config = createConfig("root");
     MysqlSource source = createMysqlSource(config);
-    runner = new SourceRunner.Builder(MysqlDSource.class, source)
+    runner = new PushSourceRunner.Builder(MysqlDSource.class, source)
         .addOutputLane(LANE)
         .build();
     runner.runInit();
 
-    StageRunner.Output output = runner.runProduce(null, MAX_BATCH_SIZE);
+    Output output = runProduce(runner, null, MAX_BATCH_SIZE);
     List<Record> records = new ArrayList<>(output.getRecords().get(LANE));
     assertThat(records, is(Matchers.<Record>empty()));
 
@@ -78,7 +77,7 @@ public class MysqlGtidOffSourceIT extends AbstractMysqlSource {
         "INSERT INTO foo (bar) VALUES (2)",
         "INSERT INTO foo (bar) VALUES (3)")
     );
-    output = runner.runProduce(null, MAX_BATCH_SIZE);
+    output = runProduce(runner, null, MAX_BATCH_SIZE);
     records = new ArrayList<>(output.getRecords().get(LANE));
     assertThat(records, hasSize(2));
 
@@ -103,24 +102,24 @@ public class MysqlGtidOffSourceIT extends AbstractMysqlSource {
     MysqlSourceConfig config = createConfig("root");
     config.initialOffset = offset;
     MysqlSource source = createMysqlSource(config);
-    runner = new SourceRunner.Builder(MysqlDSource.class, source)
+    runner = new PushSourceRunner.Builder(MysqlDSource.class, source)
         .addOutputLane(LANE)
         .build();
     runner.runInit();
 
     final String lastSourceOffset = null;
-    StageRunner.Output output = runner.runProduce(lastSourceOffset, MAX_BATCH_SIZE);
+    Output output = runProduce(runner, lastSourceOffset, MAX_BATCH_SIZE);
     List<Record> records = new ArrayList<>();
 
     while (!output.getRecords().get(LANE).isEmpty()) {
       records.addAll(output.getRecords().get(LANE));
-      output = runner.runProduce(output.getNewOffset(), MAX_BATCH_SIZE);
+      output = runProduce(runner, output.getNewOffset(), MAX_BATCH_SIZE);
     }
     assertThat(records, hasSize(1));
 
     // add one more
     execute(ds, "INSERT INTO foo (bar) VALUES (3)");
-    output = runner.runProduce(output.getNewOffset(), MAX_BATCH_SIZE);
+    output = runProduce(runner, output.getNewOffset(), MAX_BATCH_SIZE);
     records.addAll(output.getRecords().get(LANE));
 
     assertThat(records, hasSize(2));
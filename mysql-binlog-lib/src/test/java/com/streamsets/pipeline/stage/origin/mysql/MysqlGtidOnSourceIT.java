@@ -19,8 +19,7 @@ import com.github.shyiko.mysql.binlog.GtidSet;
 import com.google.common.io.Resources;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.lib.operation.OperationType;
-import com.streamsets.pipeline.sdk.SourceRunner;
-import com.streamsets.pipeline.sdk.StageRunner;
+import com.streamsets.pipeline.sdk.PushSourceRunner;
 import org.hamcrest.Matchers;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
@@ -65,14 +64,14 @@ public class MysqlGtidOnSourceIT extends AbstractMysqlSource {
   public void shouldWriteGtidAndSeqNoAndIncompleteTx() throws Exception {
     MysqlSourceConfig config = createConfig("root");
     MysqlSource source = createMysqlSource(config);
-    runner = new SourceRunner.Builder(MysqlDSource.class, source)
+    runner = new PushSourceRunner.Builder(MysqlDSource.class, source)
         .addOutputLane(LANE)
         .build();
     runner.runInit();
 
     String serverGtid = getNextServerGtid();
 
-    StageRunner.Output output = runner.runProduce(null, MAX_BATCH_SIZE);
+    Output output = runProduce(runner, null, MAX_BATCH_SIZE);
     List<Record> records = new ArrayList<>(output.getRecords().get(LANE));
     assertThat(records, is(Matchers.<Record>empty()));
 
@@ -81,7 +80,7 @@ public class MysqlGtidOnSourceIT extends AbstractMysqlSource {
         "INSERT INTO foo (bar) VALUES (2)",
         "INSERT INTO foo (bar) VALUES (3)")
     );
-    output = runner.runProduce(null, MAX_BATCH_SIZE);
+    output = runProduce(runner, null, MAX_BATCH_SIZE);
     records = new ArrayList<>(output.getRecords().get(LANE));
     assertThat(records, hasSize(2));
 
@@ -117,7 +116,7 @@ public class MysqlGtidOnSourceIT extends AbstractMysqlSource {
         "INSERT INTO foo (bar) VALUES (2)",
         "INSERT INTO foo (bar) VALUES (3)")
     );
-    output = runner.runProduce(output.getNewOffset(), MAX_BATCH_SIZE);
+    output = runProduce(runner, output.getNewOffset(), MAX_BATCH_SIZE);
     records = new ArrayList<>(output.getRecords().get(LANE));
     assertThat(records, hasSize(2));
     assertThat(records.get(0).get("/GTID").getValueAsString(), is(nextServerGtid));
@@ -136,12 +135,12 @@ public class MysqlGtidOnSourceIT extends AbstractMysqlSource {
   public void shouldSkipIncompleteTransactions() throws Exception {
     MysqlSourceConfig config = createConfig("root");
     MysqlSource source = createMysqlSource(config);
-    runner = new SourceRunner.Builder(MysqlDSource.class, source)
+    runner = new PushSourceRunner.Builder(MysqlDSource.class, source)
         .addOutputLane(LANE)
         .build();
     runner.runInit();
 
-    StageRunner.Output output = runner.runProduce(null, MAX_BATCH_SIZE);
+    Output output = runProduce(runner, null, MAX_BATCH_SIZE);
     List<Record> records = new ArrayList<>(output.getRecords().get(LANE));
     assertThat(records, is(Matchers.<Record>empty()));
 
@@ -150,7 +149,7 @@ public class MysqlGtidOnSourceIT extends AbstractMysqlSource {
         "INSERT INTO foo (bar) VALUES (2)",
         "INSERT INTO foo (bar) VALUES (3)")
     );
-    output = runner.runProduce(null, MAX_BATCH_SIZE);
+    output = runProduce(runner, null, MAX_BATCH_SIZE);
     records = new ArrayList<>(output.getRecords().get(LANE));
     assertThat(records, hasSize(2));
 
@@ -158,13 +157,13 @@ public class MysqlGtidOnSourceIT extends AbstractMysqlSource {
     String offset2 = records.get(1).get("/Offset").getValueAsString();
 
     // reconnect
-    runner.runDestroy();
+    destroy(runner);
     source = createMysqlSource(config);
-    runner = new SourceRunner.Builder(MysqlDSource.class, source)
+    runner = new PushSourceRunner.Builder(MysqlDSource.class, source)
         .addOutputLane(LANE)
         .build();
     runner.runInit();
-    output = runner.runProduce(offset, MAX_BATCH_SIZE);
+    output = runProduce(runner, offset, MAX_BATCH_SIZE);
     records = new ArrayList<>(output.getRecords().get(LANE));
     assertThat(records, hasSize(1));
     assertThat(records.get(0).get("/Offset").getValueAsString(), is(offset2));
@@ -201,24 +200,24 @@ public class MysqlGtidOnSourceIT extends AbstractMysqlSource {
     MysqlSourceConfig config = createConfig("root");
     config.initialOffset = offset;
     MysqlSource source = createMysqlSource(config);
-    runner = new SourceRunner.Builder(MysqlDSource.class, source)
+    runner = new PushSourceRunner.Builder(MysqlDSource.class, source)
         .addOutputLane(LANE)
         .build();
     runner.runInit();
 
     final String lastSourceOffset = null;
-    StageRunner.Output output = runner.runProduce(lastSourceOffset, MAX_BATCH_SIZE);
+    Output output = runProduce(runner, lastSourceOffset, MAX_BATCH_SIZE);
     List<Record> records = new ArrayList<>();
 
     while (!output.getRecords().get(LANE).isEmpty()) {
       records.addAll(output.getRecords().get(LANE));
-      output = runner.runProduce(output.getNewOffset(), MAX_BATCH_SIZE);
+      output = runProduce(runner, output.getNewOffset(), MAX_BATCH_SIZE);
     }
     assertThat(records, hasSize(2));
 
     // add one more
     execute(ds, "INSERT INTO foo (bar) VALUES (3)");
-    output = runner.runProduce(output.getNewOffset(), MAX_BATCH_SIZE);
+    output = runProduce(runner, output.getNewOffset(), MAX_BATCH_SIZE);
     records.addAll(output.getRecords().get(LANE));
 
     assertThat(records, hasSize(3));
@@ -235,12 +234,12 @@ public class MysqlGtidOnSourceIT extends AbstractMysqlSource {
   public void testMultipleOperations() throws Exception {
     MysqlSourceConfig config = createConfig("root");
     MysqlSource source = createMysqlSource(config);
-    runner = new SourceRunner.Builder(MysqlDSource.class, source)
+    runner = new PushSourceRunner.Builder(MysqlDSource.class, source)
         .addOutputLane(LANE)
         .build();
     runner.runInit();
 
-    StageRunner.Output output = runner.runProduce(null, MAX_BATCH_SIZE);
+    Output output = runProduce(runner, null, MAX_BATCH_SIZE);
     List<Record> records = new ArrayList<>(output.getRecords().get(LANE));
     assertThat(records, is(Matchers.<Record>empty()));
 
@@ -250,7 +249,7 @@ public class MysqlGtidOnSourceIT extends AbstractMysqlSource {
         "UPDATE foo set bar = 3 where bar = 2",
         "DELETE from foo where bar = 3")
     );
-    output = runner.runProduce(null, MAX_BATCH_SIZE);
+    output = runProduce(runner, null, MAX_BATCH_SIZE);
     records = new ArrayList<>(output.getRecords().get(LANE));
     assertThat(records, hasSize(3));
 
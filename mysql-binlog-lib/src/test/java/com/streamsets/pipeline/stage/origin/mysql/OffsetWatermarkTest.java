@@ -0,0 +1,63 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.mysql;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+public class OffsetWatermarkTest {
+
+  @Test
+  public void shouldNotMovePastIncompleteEvent() {
+    OffsetWatermark watermark = new OffsetWatermark();
+    long first = watermark.register("1", 1);
+    long second = watermark.register("2", 1);
+
+    assertThat(watermark.complete(Collections.singletonList(second)), is(nullValue()));
+    assertThat(watermark.size(), is(2));
+    assertThat(watermark.complete(Collections.singletonList(first)), is("2"));
+    assertThat(watermark.size(), is(0));
+  }
+
+  @Test
+  public void shouldWaitForAllParts() {
+    OffsetWatermark watermark = new OffsetWatermark();
+    long sequence = watermark.register("1", 2);
+
+    assertThat(watermark.complete(Collections.singletonList(sequence)), is(nullValue()));
+    assertThat(watermark.isDrained(), is(false));
+    assertThat(watermark.complete(Collections.singletonList(sequence)), is("1"));
+    assertThat(watermark.isDrained(), is(true));
+  }
+
+  @Test
+  public void shouldCommitFilteredEventsInOrder() {
+    OffsetWatermark watermark = new OffsetWatermark();
+    watermark.register("1", 0);
+    long second = watermark.register("2", 1);
+    watermark.register("3", 0);
+
+    assertThat(watermark.complete(Collections.<Long>emptyList()), is("1"));
+    assertThat(watermark.complete(Collections.<Long>emptyList()), is(nullValue()));
+    assertThat(watermark.complete(Arrays.asList(second)), is("3"));
+  }
+}
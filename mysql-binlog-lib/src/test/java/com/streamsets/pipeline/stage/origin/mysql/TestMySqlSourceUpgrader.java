@@ -46,4 +46,20 @@ public class TestMySqlSourceUpgrader {
     Assert.assertEquals(upgraded.get(MysqlSourceConfig.CONFIG_PREFIX + "enableKeepAlive"), true);
     Assert.assertEquals(upgraded.get(MysqlSourceConfig.CONFIG_PREFIX + "keepAliveInterval"), 60000);
   }
+
+  @Test
+  public void testUpgradeFromV2toV3() {
+    List<Config> configs = new ArrayList<>();
+
+    StageUpgrader upgrader = new MySqlSourceUpgrader();
+
+    try {
+      upgrader.upgrade("", "MySQL Bin Log Origin", "test", 2, 3, configs);
+    } catch (StageException e) {
+      Assert.fail("Exception should not be thrown:" + e.getMessage());
+    }
+    Assert.assertEquals(1, configs.size());
+    Assert.assertEquals(MysqlSourceConfig.CONFIG_PREFIX + "numberOfThreads", configs.get(0).getName());
+    Assert.assertEquals(1, configs.get(0).getValue());
+  }
 }
@@ -29,7 +29,7 @@ import com.streamsets.pipeline.lib.jdbc.HikariPoolConfigBean;
 import com.streamsets.pipeline.stage.config.MySQLHikariPoolConfigBean;
 import com.streamsets.pipeline.stage.config.MySQLTableJdbcConfigBean;
 
-@StageDef(version = 1,
+@StageDef(version = 2,
     label = "MySQL Multitable Consumer",
     description = "Reads data from MySQL using table names",
     icon = "com_streamsets_pipeline_stage_origin_jdbc_table_MySQLMultitableDSource.svg",
@@ -0,0 +1,439 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.parser.net.netflow.v10;
+
+import com.google.common.base.Charsets;
+import com.google.common.cache.Cache;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.base.OnRecordErrorException;
+import com.streamsets.pipeline.api.impl.Utils;
+import com.streamsets.pipeline.lib.parser.net.netflow.Errors;
+import com.streamsets.pipeline.lib.parser.net.netflow.OutputValuesMode;
+import com.streamsets.pipeline.lib.parser.net.netflow.VersionSpecificNetflowDecoder;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.FlowKind;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.FlowSetTemplate;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.FlowSetTemplateCacheKey;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.NetflowV9TemplateCacheProvider;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.Inet6Address;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decoder for IPFIX (Netflow v10) messages, as specified by
+ * <a href="https://tools.ietf.org/html/rfc7011">RFC 7011</a>.
+ *
+ * Unlike Netflow v9, an IPFIX message header carries the length of the message, so this decoder waits for the whole
+ * message to be readable and then decodes it with absolute reads, without any intermediate state. Templates are
+ * compiled into an {@link IpfixTemplate} when they arrive and looked up once per data set.
+ */
+public class IpfixDecoder implements VersionSpecificNetflowDecoder<IpfixMessage> {
+  private static final Logger LOG = LoggerFactory.getLogger(IpfixDecoder.class);
+
+  public static final int IPFIX_VERSION = 10;
+  public static final int HEADER_SIZE = 16;
+  private static final int SET_HEADER_SIZE = 4;
+  private static final int TEMPLATE_SET_ID = 2;
+  private static final int OPTIONS_TEMPLATE_SET_ID = 3;
+  private static final int MIN_DATA_SET_ID = 256;
+  private static final int ENTERPRISE_BIT = 0x8000;
+  private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+  private final OutputValuesMode outputValuesMode;
+  private final Cache<FlowSetTemplateCacheKey, FlowSetTemplate> templateCache;
+
+  public IpfixDecoder(OutputValuesMode outputValuesMode, NetflowV9TemplateCacheProvider templateCacheProvider) {
+    this.outputValuesMode = outputValuesMode;
+    this.templateCache = templateCacheProvider.getFlowSetTemplateCache();
+  }
+
+  @Override
+  public void resetState() {
+    // no state is kept across invocations, a message is only decoded once it is entirely readable
+  }
+
+  @Override
+  public List<IpfixMessage> parse(
+      int netflowVersion,
+      int packetLength,
+      boolean packetLengthCheck,
+      ByteBuf buf,
+      InetSocketAddress sender,
+      InetSocketAddress recipient
+  ) throws OnRecordErrorException {
+    // the version (first 2 bytes) has already been read by the parent decoder
+    final int messageLength = buf.readUnsignedShort();
+    if (messageLength < HEADER_SIZE) {
+      throw new OnRecordErrorException(
+          Errors.NETFLOW_01,
+          Utils.format("IPFIX message length is invalid: {}", messageLength)
+      );
+    }
+    if (packetLengthCheck && packetLength < messageLength) {
+      throw new OnRecordErrorException(
+          Errors.NETFLOW_01,
+          Utils.format("IPFIX message length {} exceeds the packet length {}", messageLength, packetLength)
+      );
+    }
+    // with a ReplayingDecoder this throws its replay signal until the whole message has been received
+    final ByteBuf message = buf.readSlice(messageLength - 4);
+    return decodeMessage(message, messageLength, sender, recipient);
+  }
+
+  private List<IpfixMessage> decodeMessage(
+      ByteBuf message,
+      int messageLength,
+      InetSocketAddress sender,
+      InetSocketAddress recipient
+  ) throws OnRecordErrorException {
+    // indexes in the message buffer are offset by the 4 bytes of version and length
+    final long exportTime = message.getUnsignedInt(0);
+    final long sequenceNumber = message.getUnsignedInt(4);
+    final long observationDomainId = message.getUnsignedInt(8);
+    final byte[] observationDomainIdBytes = new byte[4];
+    message.getBytes(8, observationDomainIdBytes);
+    final MessageContext messageContext = new MessageContext(
+        messageLength,
+        exportTime,
+        sequenceNumber,
+        observationDomainId,
+        observationDomainIdBytes,
+        sender,
+        recipient
+    );
+
+    final List<IpfixMessage> result = new ArrayList<>();
+    final int end = message.capacity();
+    int index = HEADER_SIZE - 4;
+    while (end - index >= SET_HEADER_SIZE) {
+      final int setId = message.getUnsignedShort(index);
+      final int setLength = message.getUnsignedShort(index + 2);
+      if (setLength < SET_HEADER_SIZE || index + setLength > end) {
+        throw new OnRecordErrorException(
+            Errors.NETFLOW_01,
+            Utils.format("IPFIX set {} has invalid length {}", setId, setLength)
+        );
+      }
+      final int setEnd = index + setLength;
+      final int recordsIndex = index + SET_HEADER_SIZE;
+      if (setId == TEMPLATE_SET_ID) {
+        readTemplates(message, recordsIndex, setEnd, FlowKind.FLOWSET, messageContext);
+      } else if (setId == OPTIONS_TEMPLATE_SET_ID) {
+        readTemplates(message, recordsIndex, setEnd, FlowKind.OPTIONS, messageContext);
+      } else if (setId >= MIN_DATA_SET_ID) {
+        readDataRecords(message, recordsIndex, setEnd, setId, messageContext, result);
+      } else {
+        throw new OnRecordErrorException(Errors.NETFLOW_17, setId);
+      }
+      index = setEnd;
+    }
+    return result;
+  }
+
+  private void readTemplates(
+      ByteBuf buf,
+      int index,
+      int setEnd,
+      FlowKind kind,
+      MessageContext messageContext
+  ) throws OnRecordErrorException {
+    final int templateHeaderSize = kind == FlowKind.OPTIONS ? 6 : 4;
+    while (setEnd - index >= 4) {
+      final int templateId = buf.getUnsignedShort(index);
+      final int fieldCount = buf.getUnsignedShort(index + 2);
+      if (templateId < MIN_DATA_SET_ID) {
+        // padding at the end of the set
+        break;
+      }
+      final FlowSetTemplateCacheKey key = messageContext.templateKey(templateId);
+      if (fieldCount == 0) {
+        // template withdrawal
+        templateCache.invalidate(key);
+        index += 4;
+        continue;
+      }
+      if (setEnd - index < templateHeaderSize) {
+        throw corruptTemplate(templateId);
+      }
+      final int scopeFieldCount = kind == FlowKind.OPTIONS ? buf.getUnsignedShort(index + 4) : 0;
+      index += templateHeaderSize;
+
+      final int[] informationElementIds = new int[fieldCount];
+      final long[] enterpriseNumbers = new long[fieldCount];
+      final int[] fieldLengths = new int[fieldCount];
+      for (int i = 0; i < fieldCount; i++) {
+        if (setEnd - index < 4) {
+          throw corruptTemplate(templateId);
+        }
+        int informationElementId = buf.getUnsignedShort(index);
+        fieldLengths[i] = buf.getUnsignedShort(index + 2);
+        index += 4;
+        if ((informationElementId & ENTERPRISE_BIT) != 0) {
+          if (setEnd - index < 4) {
+            throw corruptTemplate(templateId);
+          }
+          informationElementId &= ~ENTERPRISE_BIT;
+          enterpriseNumbers[i] = buf.getUnsignedInt(index);
+          index += 4;
+        }
+        informationElementIds[i] = informationElementId;
+      }
+
+      final IpfixTemplate template = IpfixTemplate.compile(
+          kind,
+          templateId,
+          scopeFieldCount,
+          informationElementIds,
+          enterpriseNumbers,
+          fieldLengths
+      );
+      templateCache.put(key, template);
+      if (LOG.isTraceEnabled()) {
+        LOG.trace("Cached new IPFIX {} template {} with {} fields", kind.name(), key.toString(), fieldCount);
+      }
+    }
+  }
+
+  private static OnRecordErrorException corruptTemplate(int templateId) {
+    return new OnRecordErrorException(
+        Errors.NETFLOW_01,
+        Utils.format("IPFIX template {} is truncated", templateId)
+    );
+  }
+
+  private void readDataRecords(
+      ByteBuf buf,
+      int index,
+      int setEnd,
+      int templateId,
+      MessageContext messageContext,
+      List<IpfixMessage> result
+  ) throws OnRecordErrorException {
+    final FlowSetTemplate cachedTemplate = templateCache.getIfPresent(messageContext.templateKey(templateId));
+    if (!(cachedTemplate instanceof IpfixTemplate)) {
+      throw new OnRecordErrorException(Errors.NETFLOW_11, templateId);
+    }
+    final IpfixTemplate template = (IpfixTemplate) cachedTemplate;
+    final boolean interpreted = outputValuesMode != OutputValuesMode.RAW_ONLY;
+    final boolean raw = outputValuesMode != OutputValuesMode.INTERPRETED_ONLY;
+
+    final int minRecordLength = template.getMinRecordLength();
+    if (minRecordLength == 0) {
+      // nothing to decode, and no way to tell records apart
+      return;
+    }
+    while (setEnd - index >= minRecordLength) {
+      final int fieldCount = template.getFieldCount();
+      final Field[] values = interpreted ? new Field[fieldCount] : null;
+      final byte[][] rawValues = raw ? new byte[fieldCount][] : null;
+      index = decodeRecord(buf, index, setEnd, template, values, rawValues);
+      result.add(new IpfixMessage(
+          outputValuesMode,
+          template,
+          messageContext.messageLength,
+          messageContext.exportTime,
+          messageContext.sequenceNumber,
+          messageContext.observationDomainId,
+          messageContext.sender,
+          messageContext.recipient,
+          values,
+          rawValues
+      ));
+    }
+  }
+
+  /**
+   * Decodes one data record starting at the given index.
+   *
+   * @return index right after the record
+   */
+  private static int decodeRecord(
+      ByteBuf buf,
+      int index,
+      int setEnd,
+      IpfixTemplate template,
+      Field[] values,
+      byte[][] rawValues
+  ) throws OnRecordErrorException {
+    final IpfixFieldKind[] kinds = template.getFieldKinds();
+    final int[] lengths = template.getFieldLengths();
+    final int[] offsets = template.getFieldOffsets();
+
+    // fields at a fixed offset from the start of the record
+    final int fixedCount = template.getFixedLengthFieldCount();
+    for (int i = 0; i < fixedCount; i++) {
+      final int fieldIndex = index + offsets[i];
+      if (values != null) {
+        values[i] = readField(buf, fieldIndex, lengths[i], kinds[i]);
+      }
+      if (rawValues != null) {
+        rawValues[i] = ByteBufUtil.getBytes(buf, fieldIndex, lengths[i]);
+      }
+    }
+    if (template.isFixedLength()) {
+      return index + template.getRecordLength();
+    }
+
+    // from the first variable length field on, offsets depend on the record
+    int fieldIndex = fixedCount == 0 ? index : index + offsets[fixedCount - 1] + lengths[fixedCount - 1];
+    for (int i = fixedCount; i < lengths.length; i++) {
+      int length = lengths[i];
+      if (length == IpfixFieldKind.VARIABLE_LENGTH) {
+        if (fieldIndex >= setEnd) {
+          throw corruptRecord(template);
+        }
+        length = buf.getUnsignedByte(fieldIndex++);
+        if (length == 255) {
+          if (setEnd - fieldIndex < 2) {
+            throw corruptRecord(template);
+          }
+          length = buf.getUnsignedShort(fieldIndex);
+          fieldIndex += 2;
+        }
+      }
+      if (setEnd - fieldIndex < length) {
+        throw corruptRecord(template);
+      }
+      if (values != null) {
+        values[i] = readField(buf, fieldIndex, length, kinds[i]);
+      }
+      if (rawValues != null) {
+        rawValues[i] = ByteBufUtil.getBytes(buf, fieldIndex, length);
+      }
+      fieldIndex += length;
+    }
+    return fieldIndex;
+  }
+
+  private static OnRecordErrorException corruptRecord(IpfixTemplate template) {
+    return new OnRecordErrorException(
+        Errors.NETFLOW_01,
+        Utils.format("IPFIX data record for template {} is truncated", template.getTemplateId())
+    );
+  }
+
+  static Field readField(ByteBuf buf, int index, int length, IpfixFieldKind kind) throws OnRecordErrorException {
+    switch (kind) {
+      case UNSIGNED_INTEGER:
+        switch (length) {
+          case 1:
+            return Field.create((int) buf.getUnsignedByte(index));
+          case 2:
+            return Field.create(buf.getUnsignedShort(index));
+          case 3:
+            return Field.create(buf.getUnsignedMedium(index));
+          default:
+            return Field.create((int) readUnsignedLong(buf, index, length));
+        }
+      case UNSIGNED_LONG:
+        if (length == 4) {
+          return Field.create(buf.getUnsignedInt(index));
+        } else if (length == 8) {
+          return Field.create(buf.getLong(index));
+        }
+        return Field.create(readUnsignedLong(buf, index, length));
+      case UNSIGNED_DECIMAL:
+        if (length < 8) {
+          return Field.create(BigDecimal.valueOf(readUnsignedLong(buf, index, length)));
+        } else if (length == 8 && buf.getByte(index) >= 0) {
+          return Field.create(BigDecimal.valueOf(buf.getLong(index)));
+        }
+        return Field.create(new BigDecimal(new BigInteger(1, ByteBufUtil.getBytes(buf, index, length))));
+      case IPV4_ADDRESS:
+        return Field.create(new StringBuilder(15)
+            .append(buf.getUnsignedByte(index)).append('.')
+            .append(buf.getUnsignedByte(index + 1)).append('.')
+            .append(buf.getUnsignedByte(index + 2)).append('.')
+            .append(buf.getUnsignedByte(index + 3))
+            .toString());
+      case IPV6_ADDRESS:
+        try {
+          return Field.create(Inet6Address.getByAddress(ByteBufUtil.getBytes(buf, index, length)).getHostAddress());
+        } catch (UnknownHostException e) {
+          throw new OnRecordErrorException(Errors.NETFLOW_13, e.getClass().getSimpleName(), e.getMessage(), e);
+        }
+      case MAC_ADDRESS:
+        char[] chars = new char[Math.max(length * 3 - 1, 0)];
+        for (int i = 0; i < length; i++) {
+          final int b = buf.getUnsignedByte(index + i);
+          chars[i * 3] = HEX_DIGITS[b >> 4];
+          chars[i * 3 + 1] = HEX_DIGITS[b & 0x0F];
+          if (i < length - 1) {
+            chars[i * 3 + 2] = ':';
+          }
+        }
+        return Field.create(new String(chars));
+      case STRING:
+        return Field.create(buf.toString(index, length, Charsets.UTF_8));
+      case BYTES:
+      default:
+        return Field.create(ByteBufUtil.getBytes(buf, index, length));
+    }
+  }
+
+  private static long readUnsignedLong(ByteBuf buf, int index, int length) {
+    long value = 0;
+    for (int i = 0; i < length; i++) {
+      value = (value << 8) | buf.getUnsignedByte(index + i);
+    }
+    return value;
+  }
+
+  /**
+   * Header values of the message being decoded, shared by all of its data records.
+   */
+  private static class MessageContext {
+    private final int messageLength;
+    private final long exportTime;
+    private final long sequenceNumber;
+    private final long observationDomainId;
+    private final byte[] observationDomainIdBytes;
+    private final InetSocketAddress sender;
+    private final InetSocketAddress recipient;
+
+    private MessageContext(
+        int messageLength,
+        long exportTime,
+        long sequenceNumber,
+        long observationDomainId,
+        byte[] observationDomainIdBytes,
+        InetSocketAddress sender,
+        InetSocketAddress recipient
+    ) {
+      this.messageLength = messageLength;
+      this.exportTime = exportTime;
+      this.sequenceNumber = sequenceNumber;
+      this.observationDomainId = observationDomainId;
+      this.observationDomainIdBytes = observationDomainIdBytes;
+      this.sender = sender;
+      this.recipient = recipient;
+    }
+
+    private FlowSetTemplateCacheKey templateKey(int templateId) {
+      // template IDs are unique within an observation domain regardless of the template kind, so the data set lookup
+      // does not need to know whether it refers to an options template
+      return new FlowSetTemplateCacheKey(FlowKind.FLOWSET, observationDomainIdBytes, sender, templateId);
+    }
+  }
+}
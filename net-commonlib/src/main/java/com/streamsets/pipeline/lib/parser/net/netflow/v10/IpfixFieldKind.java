@@ -0,0 +1,174 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.parser.net.netflow.v10;
+
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.NetflowV9FieldType;
+
+/**
+ * How the value of an IPFIX field is turned into a {@link com.streamsets.pipeline.api.Field}. Chosen once per field
+ * when a template is compiled, from the information element and the length announced by the exporter.
+ */
+public enum IpfixFieldKind {
+  UNSIGNED_INTEGER,
+  UNSIGNED_LONG,
+  UNSIGNED_DECIMAL,
+  IPV4_ADDRESS,
+  IPV6_ADDRESS,
+  MAC_ADDRESS,
+  STRING,
+  BYTES,
+  ;
+
+  public static final int VARIABLE_LENGTH = 65535;
+
+  /**
+   * Information elements 1-127 share their IDs and semantics with the Netflow v9 field types. Values are interpreted
+   * the same way as {@link com.streamsets.pipeline.lib.parser.net.netflow.v9.NetflowV9Decoder} does, except that
+   * unsigned values may use reduced-size encoding (RFC 7011 section 6.2).
+   */
+  public static IpfixFieldKind forField(int informationElementId, long enterpriseNumber, int length) {
+    if (enterpriseNumber != 0) {
+      return BYTES;
+    }
+    if (informationElementId >= 128) {
+      return forIanaField(informationElementId, length);
+    }
+    NetflowV9FieldType type = NetflowV9FieldType.getTypeForId(informationElementId);
+    if (type == null) {
+      return BYTES;
+    }
+    switch (type) {
+      case IN_BYTES:
+      case IN_PKTS:
+      case FLOWS:
+      case INPUT_SNMP:
+      case OUTPUT_SNMP:
+      case SRC_AS:
+      case DST_AS:
+      case MUL_DST_PKTS:
+      case MUL_DST_BYTES:
+      case OUT_BYTES:
+      case OUT_PKTS:
+      case TOTAL_BYTES_EXP:
+      case TOTAL_PKTS_EXP:
+      case TOTAL_FLOWS_EXP:
+      case IN_PERMANENT_BYTES:
+      case IN_PERMANENT_PKTS:
+        return length == VARIABLE_LENGTH ? BYTES : UNSIGNED_DECIMAL;
+      case PROTOCOL:
+      case SRC_TOS:
+      case TCP_FLAGS:
+      case SRC_MASK:
+      case DST_MASK:
+      case IPV6_SRC_MASK:
+      case IPV6_DST_MASK:
+      case MUL_IGMP_TYPE:
+      case SAMPLING_ALGORITHM:
+      case ENGINE_TYPE:
+      case ENGINE_ID:
+      case MPLS_TOP_LABEL_TYPE:
+      case FLOW_SAMPLER_ID:
+      case FLOW_SAMPLER_MODE:
+      case MIN_TTL:
+      case MAX_TTL:
+      case DST_TOS:
+      case IP_PROTOCOL_VERSION:
+      case DIRECTION:
+      case FORWARDING_STATUS:
+      case MPLS_PREFIX_LEN:
+      case POSTIP_DIFF_SERV_CODE_POINTS:
+      case L4_SRC_PORT:
+      case L4_DST_PORT:
+      case MIN_PKT_LNGTH:
+      case MAX_PKT_LNGTH:
+      case ICMP_TYPE:
+      case FLOW_ACTIVE_TIMEOUT:
+      case FLOW_INACTIVE_TIMEOUT:
+      case IPV4_IDENT:
+      case SRC_VLAN:
+      case DST_VLAN:
+      case FRAGMENT_OFFSET:
+      case LAST_SWITCHED:
+      case FIRST_SWITCHED:
+      case SAMPLING_INTERVAL:
+      case IPV4_SRC_PREFIX:
+      case IPV4_DST_PREFIX:
+      case MPLS_TOP_LABEL_IP_ADDR:
+      case FLOW_SAMPLER_RANDOM_INTERVAL:
+      case IPV6_OPTION_HEADERS:
+      case SRC_TRAFFIC_INDEX:
+      case DST_TRAFFIC_INDEX:
+      case REPLICATION_FACTOR:
+        return unsigned(length);
+      case IPV4_SRC_ADDR:
+      case IPV4_DST_ADDR:
+      case IPV4_NEXT_HOP:
+      case BGP_IPV4_NEXT_HOP:
+        return length == 4 ? IPV4_ADDRESS : BYTES;
+      case IPV6_SRC_ADDR:
+      case IPV6_DST_ADDR:
+      case IPV6_NEXT_HOP:
+      case BGP_IPV6_NEXT_HOP:
+        return length == 16 ? IPV6_ADDRESS : BYTES;
+      case IN_SRC_MAC:
+      case OUT_DST_MAC:
+      case IN_DST_MAC:
+      case OUT_SRC_MAC:
+        return MAC_ADDRESS;
+      case IF_NAME:
+      case IF_DESC:
+      case SAMPLER_NAME:
+      case APPLICATION_DESCRIPTION:
+      case APPLICATION_NAME:
+        return STRING;
+      default:
+        return BYTES;
+    }
+  }
+
+  private static IpfixFieldKind forIanaField(int informationElementId, int length) {
+    switch (informationElementId) {
+      case 136: // flowEndReason
+      case 148: // flowId
+      case 150: // flowStartSeconds
+      case 151: // flowEndSeconds
+      case 152: // flowStartMilliseconds
+      case 153: // flowEndMilliseconds
+      case 160: // systemInitTimeMilliseconds
+      case 176: // icmpTypeIPv4
+      case 177: // icmpCodeIPv4
+        if (length <= 3) {
+          return UNSIGNED_INTEGER;
+        }
+        // identifiers and timestamps, where the full 64 bits are never used
+        return length <= 8 ? UNSIGNED_LONG : BYTES;
+      default:
+        return BYTES;
+    }
+  }
+
+  private static IpfixFieldKind unsigned(int length) {
+    if (length <= 3) {
+      return UNSIGNED_INTEGER;
+    } else if (length <= 7) {
+      return UNSIGNED_LONG;
+    } else if (length == VARIABLE_LENGTH) {
+      return BYTES;
+    } else {
+      return UNSIGNED_DECIMAL;
+    }
+  }
+}
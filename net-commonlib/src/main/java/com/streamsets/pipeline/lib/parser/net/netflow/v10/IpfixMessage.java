@@ -0,0 +1,176 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.parser.net.netflow.v10;
+
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.lib.parser.net.netflow.BaseNetflowMessage;
+import com.streamsets.pipeline.lib.parser.net.netflow.OutputValuesMode;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.FlowKind;
+
+import java.net.InetSocketAddress;
+import java.util.LinkedHashMap;
+
+/**
+ * One IPFIX data record, along with the header of the message it came in.
+ */
+public class IpfixMessage extends BaseNetflowMessage {
+
+  public static final String FIELD_VERSION = "version";
+  public static final String FIELD_LENGTH = "length";
+  public static final String FIELD_EXPORT_TIME = "exportTime";
+  public static final String FIELD_SEQUENCE_NUMBER = "sequenceNumber";
+  public static final String FIELD_OBSERVATION_DOMAIN_ID = "observationDomainId";
+
+  public static final String FIELD_FLOW_KIND = "flowKind";
+  public static final String FIELD_PACKET_HEADER = "packetHeader";
+  public static final String FIELD_RAW_VALUES = "rawValues";
+  public static final String FIELD_INTERPRETED_VALUES = "values";
+  public static final String FIELD_FLOW_TEMPLATE_ID = "flowTemplateId";
+
+  public static final String FIELD_SENDER = "sender";
+  public static final String FIELD_RECIPIENT = "recipient";
+
+  private final OutputValuesMode outputValuesMode;
+  private final IpfixTemplate template;
+  private final int length;
+  private final long exportTime;
+  private final long sequenceNumber;
+  private final long observationDomainId;
+  private final InetSocketAddress sender;
+  private final InetSocketAddress recipient;
+  private final Field[] interpretedValues;
+  private final byte[][] rawValues;
+
+  public IpfixMessage(
+      OutputValuesMode outputValuesMode,
+      IpfixTemplate template,
+      int length,
+      long exportTime,
+      long sequenceNumber,
+      long observationDomainId,
+      InetSocketAddress sender,
+      InetSocketAddress recipient,
+      Field[] interpretedValues,
+      byte[][] rawValues
+  ) {
+    this.outputValuesMode = outputValuesMode;
+    this.template = template;
+    this.length = length;
+    this.exportTime = exportTime;
+    this.sequenceNumber = sequenceNumber;
+    this.observationDomainId = observationDomainId;
+    this.sender = sender;
+    this.recipient = recipient;
+    this.interpretedValues = interpretedValues;
+    this.rawValues = rawValues;
+  }
+
+  public FlowKind getFlowKind() {
+    return template.getKind();
+  }
+
+  public int getFlowTemplateId() {
+    return template.getTemplateId();
+  }
+
+  public int getLength() {
+    return length;
+  }
+
+  public long getExportTime() {
+    return exportTime;
+  }
+
+  public long getSequenceNumber() {
+    return sequenceNumber;
+  }
+
+  public long getObservationDomainId() {
+    return observationDomainId;
+  }
+
+  public InetSocketAddress getSender() {
+    return sender;
+  }
+
+  public InetSocketAddress getRecipient() {
+    return recipient;
+  }
+
+  /**
+   * @return interpreted value of each template field, or null when only raw values are produced
+   */
+  public Field[] getInterpretedValues() {
+    return interpretedValues;
+  }
+
+  /**
+   * @return raw bytes of each template field, or null when only interpreted values are produced
+   */
+  public byte[][] getRawValues() {
+    return rawValues;
+  }
+
+  @Override
+  public void populateRecord(Record record) {
+    LinkedHashMap<String, Field> rootMap = new LinkedHashMap<>();
+    rootMap.put(FIELD_FLOW_KIND, Field.create(getFlowKind().name()));
+
+    if (sender != null) {
+      rootMap.put(FIELD_SENDER, Field.create(sender.toString()));
+    }
+    if (recipient != null) {
+      rootMap.put(FIELD_RECIPIENT, Field.create(recipient.toString()));
+    }
+
+    LinkedHashMap<String, Field> headerFields = new LinkedHashMap<>();
+    headerFields.put(FIELD_VERSION, Field.create(getNetflowVersion()));
+    headerFields.put(FIELD_LENGTH, Field.create(length));
+    headerFields.put(FIELD_EXPORT_TIME, Field.create(exportTime));
+    headerFields.put(FIELD_SEQUENCE_NUMBER, Field.create(sequenceNumber));
+    headerFields.put(FIELD_OBSERVATION_DOMAIN_ID, Field.create(observationDomainId));
+    rootMap.put(FIELD_PACKET_HEADER, Field.createListMap(headerFields));
+    rootMap.put(FIELD_FLOW_TEMPLATE_ID, Field.create(getFlowTemplateId()));
+
+    if (rawValues != null) {
+      rootMap.put(FIELD_RAW_VALUES, Field.createListMap(createFieldsMap(true)));
+    }
+    if (interpretedValues != null) {
+      rootMap.put(FIELD_INTERPRETED_VALUES, Field.createListMap(createFieldsMap(false)));
+    }
+
+    record.set(Field.createListMap(rootMap));
+  }
+
+  public LinkedHashMap<String, Field> createFieldsMap(boolean raw) {
+    final String[] names = template.getFieldNames();
+    LinkedHashMap<String, Field> fields = new LinkedHashMap<>(names.length * 2);
+    for (int i = 0; i < names.length; i++) {
+      fields.put(names[i], raw ? Field.create(rawValues[i]) : interpretedValues[i]);
+    }
+    return fields;
+  }
+
+  public OutputValuesMode getOutputValuesMode() {
+    return outputValuesMode;
+  }
+
+  @Override
+  public int getNetflowVersion() {
+    return 10;
+  }
+}
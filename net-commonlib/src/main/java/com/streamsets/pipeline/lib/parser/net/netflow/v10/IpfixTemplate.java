@@ -0,0 +1,173 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.parser.net.netflow.v10;
+
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.FlowKind;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.FlowSetTemplate;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.NetflowV9FieldTemplate;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.NetflowV9FieldType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * IPFIX template compiled when the template record arrives: the name, interpretation, length and offset of every
+ * field within a data record are resolved once, so that decoding a data record is a loop over these arrays.
+ *
+ * Offsets are fixed up to the first variable length field; past it they are computed while decoding each record.
+ */
+public class IpfixTemplate extends FlowSetTemplate {
+
+  private final FlowKind kind;
+  private final int scopeFieldCount;
+  private final String[] fieldNames;
+  private final IpfixFieldKind[] fieldKinds;
+  private final int[] fieldLengths;
+  private final int[] fieldOffsets;
+  private final int fixedLengthFieldCount;
+  private final int recordLength;
+  private final int minRecordLength;
+
+  private IpfixTemplate(
+      FlowKind kind,
+      int templateId,
+      List<NetflowV9FieldTemplate> fieldTemplates,
+      int scopeFieldCount,
+      String[] fieldNames,
+      IpfixFieldKind[] fieldKinds,
+      int[] fieldLengths
+  ) {
+    super(kind, templateId, fieldTemplates);
+    this.kind = kind;
+    this.scopeFieldCount = scopeFieldCount;
+    this.fieldNames = fieldNames;
+    this.fieldKinds = fieldKinds;
+    this.fieldLengths = fieldLengths;
+    this.fieldOffsets = new int[fieldLengths.length];
+
+    int offset = 0;
+    int fixedCount = 0;
+    int minLength = 0;
+    for (int i = 0; i < fieldLengths.length; i++) {
+      if (fieldLengths[i] == IpfixFieldKind.VARIABLE_LENGTH) {
+        // at least the one byte length prefix
+        minLength += 1;
+        fieldOffsets[i] = -1;
+        offset = -1;
+      } else {
+        minLength += fieldLengths[i];
+        fieldOffsets[i] = offset;
+        if (offset >= 0) {
+          offset += fieldLengths[i];
+          fixedCount++;
+        }
+      }
+    }
+    this.fixedLengthFieldCount = fixedCount;
+    this.recordLength = offset;
+    this.minRecordLength = minLength;
+  }
+
+  /**
+   * @param informationElementIds information element IDs of the fields, without the enterprise bit
+   * @param enterpriseNumbers enterprise numbers of the fields, 0 for IANA information elements
+   * @param fieldLengths field lengths, {@link IpfixFieldKind#VARIABLE_LENGTH} for variable length fields
+   */
+  public static IpfixTemplate compile(
+      FlowKind kind,
+      int templateId,
+      int scopeFieldCount,
+      int[] informationElementIds,
+      long[] enterpriseNumbers,
+      int[] fieldLengths
+  ) {
+    final int numFields = informationElementIds.length;
+    List<NetflowV9FieldTemplate> fieldTemplates = new ArrayList<>(numFields);
+    String[] names = new String[numFields];
+    IpfixFieldKind[] kinds = new IpfixFieldKind[numFields];
+    for (int i = 0; i < numFields; i++) {
+      final int id = informationElementIds[i];
+      final long enterprise = enterpriseNumbers[i];
+      NetflowV9FieldType type = enterprise == 0 && id < 128 ? NetflowV9FieldType.getTypeForId(id) : null;
+      fieldTemplates.add(new NetflowV9FieldTemplate(type, id, fieldLengths[i]));
+      if (type != null) {
+        names[i] = type.name();
+      } else if (enterprise == 0) {
+        names[i] = String.format("type_%d", id);
+      } else {
+        names[i] = String.format("type_%d_%d", enterprise, id);
+      }
+      kinds[i] = IpfixFieldKind.forField(id, enterprise, fieldLengths[i]);
+    }
+    return new IpfixTemplate(kind, templateId, fieldTemplates, scopeFieldCount, names, kinds, fieldLengths.clone());
+  }
+
+  public FlowKind getKind() {
+    return kind;
+  }
+
+  public int getScopeFieldCount() {
+    return scopeFieldCount;
+  }
+
+  public int getFieldCount() {
+    return fieldNames.length;
+  }
+
+  public String[] getFieldNames() {
+    return fieldNames;
+  }
+
+  IpfixFieldKind[] getFieldKinds() {
+    return fieldKinds;
+  }
+
+  int[] getFieldLengths() {
+    return fieldLengths;
+  }
+
+  int[] getFieldOffsets() {
+    return fieldOffsets;
+  }
+
+  /**
+   * @return number of leading fields at a fixed offset
+   */
+  int getFixedLengthFieldCount() {
+    return fixedLengthFieldCount;
+  }
+
+  /**
+   * @return true if no field has a variable length, so every data record has {@link #getRecordLength()} bytes
+   */
+  public boolean isFixedLength() {
+    return recordLength >= 0;
+  }
+
+  /**
+   * @return length of each data record, or -1 if the template has variable length fields
+   */
+  public int getRecordLength() {
+    return recordLength;
+  }
+
+  /**
+   * @return smallest possible length of a data record, anything shorter at the end of a set is padding
+   */
+  public int getMinRecordLength() {
+    return minRecordLength;
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.parser.net.netflow;
+
+import com.streamsets.testing.MicroBenchmark;
+import org.junit.Test;
+
+import java.util.List;
+
+import static com.streamsets.pipeline.lib.parser.net.netflow.TestIpfixDecoder.decode;
+import static com.streamsets.pipeline.lib.parser.net.netflow.TestIpfixDecoder.getMessagesBytes;
+import static com.streamsets.pipeline.lib.parser.net.netflow.TestIpfixDecoder.toIpfix;
+import static com.streamsets.pipeline.lib.parser.net.netflow.TestIpfixDecoder.toNetflowV9DataOnly;
+
+/**
+ * Per flow record cost of decoding the captured 7 flow Netflow v9 packet with the interpreting v9 decoder, and the
+ * same flows as IPFIX with the compiled template extractors. Templates arrive once, the rounds only decode data
+ * packets. Runs with the benchmark profile only.
+ */
+public class IpfixDecoderBenchmark {
+  private static final int PACKETS = 20_000;
+  private static final int FLOWS_PER_PACKET = 7;
+
+  @Test
+  public void benchmarkDataPackets() throws Exception {
+    final byte[] v9Bytes = getMessagesBytes("netflow-v9-packet-7_flows.bin");
+    final byte[] v9DataBytes = toNetflowV9DataOnly(v9Bytes);
+    final byte[] ipfixDataBytes = toIpfix(v9Bytes, false);
+
+    NetflowCommonDecoder v9Decoder = new NetflowCommonDecoder(OutputValuesMode.INTERPRETED_ONLY, -1, -1);
+    NetflowCommonDecoder ipfixDecoder = new NetflowCommonDecoder(OutputValuesMode.INTERPRETED_ONLY, -1, -1);
+    decode(v9Decoder, v9Bytes);
+    decode(ipfixDecoder, toIpfix(v9Bytes, true));
+
+    MicroBenchmark benchmark = new MicroBenchmark("Flow record decoding", PACKETS * FLOWS_PER_PACKET);
+    benchmark.measure("Netflow v9", () -> decodeAll(v9Decoder, v9DataBytes));
+    benchmark.measure("IPFIX", () -> decodeAll(ipfixDecoder, ipfixDataBytes));
+  }
+
+  private static List<BaseNetflowMessage> decodeAll(NetflowCommonDecoder decoder, byte[] bytes) throws Exception {
+    List<BaseNetflowMessage> last = null;
+    for (int i = 0; i < PACKETS; i++) {
+      last = decode(decoder, bytes);
+    }
+    return last;
+  }
+}
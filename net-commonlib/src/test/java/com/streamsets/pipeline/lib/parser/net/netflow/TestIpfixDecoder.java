@@ -0,0 +1,333 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.parser.net.netflow;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.primitives.Bytes;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.base.OnRecordErrorException;
+import com.streamsets.pipeline.lib.parser.net.NetTestUtils;
+import com.streamsets.pipeline.lib.parser.net.netflow.v10.IpfixMessage;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.FlowKind;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.NetflowV9Message;
+import com.streamsets.pipeline.sdk.RecordCreator;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+
+public class TestIpfixDecoder {
+  private static final int CISCO_ENTERPRISE_NUMBER = 9;
+  private static final InetSocketAddress SENDER = InetSocketAddress.createUnresolved("exporter", 4739);
+  private static final InetSocketAddress RECIPIENT = InetSocketAddress.createUnresolved("collector", 4739);
+
+  @Test
+  public void sameValuesAsNetflowV9() throws Exception {
+    final byte[] v9Bytes = getMessagesBytes("netflow-v9-packet-7_flows.bin");
+    final byte[] ipfixBytes = toIpfix(v9Bytes, true);
+
+    List<BaseNetflowMessage> v9Messages = decode(new NetflowCommonDecoder(OutputValuesMode.RAW_AND_INTERPRETED, -1, -1), v9Bytes);
+
+    // IPFIX messages are decoded at once, whatever the slicing of the stream
+    EmbeddedChannel ch = new EmbeddedChannel(new NetflowCommonDecoder(OutputValuesMode.RAW_AND_INTERPRETED, -1, -1));
+    for (List<Byte> slice : NetTestUtils.getRandomByteSlices(ipfixBytes)) {
+      ch.writeInbound(Unpooled.wrappedBuffer(Bytes.toArray(slice)));
+    }
+    List<IpfixMessage> ipfixMessages = new ArrayList<>();
+    Object object;
+    while ((object = ch.readInbound()) != null) {
+      Assert.assertTrue(object instanceof IpfixMessage);
+      ipfixMessages.add((IpfixMessage) object);
+    }
+    ch.finish();
+
+    Assert.assertEquals(7, v9Messages.size());
+    Assert.assertEquals(7, ipfixMessages.size());
+    for (int i = 0; i < v9Messages.size(); i++) {
+      NetflowV9Message v9Message = (NetflowV9Message) v9Messages.get(i);
+      IpfixMessage ipfixMessage = ipfixMessages.get(i);
+      Assert.assertEquals(FlowKind.FLOWSET, ipfixMessage.getFlowKind());
+      Assert.assertEquals(v9Message.getFlowTemplateId(), ipfixMessage.getFlowTemplateId());
+      Assert.assertEquals(v9Message.getUnixSeconds(), ipfixMessage.getExportTime());
+      Assert.assertEquals(v9Message.getSequenceNumber(), ipfixMessage.getSequenceNumber());
+      Assert.assertEquals(v9Message.getSourceId(), ipfixMessage.getObservationDomainId());
+
+      LinkedHashMap<String, Field> v9Values = v9Message.createFieldsMap(false);
+      LinkedHashMap<String, Field> ipfixValues = ipfixMessage.createFieldsMap(false);
+      Assert.assertEquals(new ArrayList<>(v9Values.keySet()), new ArrayList<>(ipfixValues.keySet()));
+      for (String name : v9Values.keySet()) {
+        Assert.assertEquals(name, v9Values.get(name), ipfixValues.get(name));
+      }
+      LinkedHashMap<String, Field> v9RawValues = v9Message.createFieldsMap(true);
+      LinkedHashMap<String, Field> ipfixRawValues = ipfixMessage.createFieldsMap(true);
+      for (String name : v9RawValues.keySet()) {
+        Assert.assertArrayEquals(
+            name,
+            v9RawValues.get(name).getValueAsByteArray(),
+            ipfixRawValues.get(name).getValueAsByteArray()
+        );
+      }
+
+      Record record = RecordCreator.create();
+      ipfixMessage.populateRecord(record);
+      Assert.assertEquals(10, record.get("/packetHeader/version").getValueAsInteger());
+      Assert.assertEquals(ipfixBytes.length, record.get("/packetHeader/length").getValueAsInteger());
+    }
+  }
+
+  @Test
+  public void ciscoAsaTemplatesAcrossPackets() throws Exception {
+    NetflowCommonDecoder decoder = new NetflowCommonDecoder(OutputValuesMode.INTERPRETED_ONLY, -1, -1);
+    Assert.assertEquals(
+        0,
+        decode(decoder, toIpfix(getMessagesBytes("ciscoasa/netflow9_test_cisco_asa_1_tpl.dat"), true)).size()
+    );
+    List<BaseNetflowMessage> messages = decode(
+        decoder,
+        toIpfix(getMessagesBytes("ciscoasa/netflow9_test_cisco_asa_1_data.dat"), true)
+    );
+    // a single data set of template 265, made of 102 byte records
+    Assert.assertEquals(14, messages.size());
+    for (BaseNetflowMessage message : messages) {
+      IpfixMessage ipfixMessage = (IpfixMessage) message;
+      Assert.assertEquals(265, ipfixMessage.getFlowTemplateId());
+      Assert.assertNull(ipfixMessage.getRawValues());
+      Record record = RecordCreator.create();
+      ipfixMessage.populateRecord(record);
+      Assert.assertFalse(record.has("/" + IpfixMessage.FIELD_RAW_VALUES));
+      Assert.assertTrue(record.has("/values/IPV4_SRC_ADDR"));
+      // Cisco vendor fields
+      Assert.assertTrue(record.has("/values/type_9_7232"));
+      Assert.assertEquals(Field.Type.LONG, record.get("/values/type_152").getType());
+    }
+  }
+
+  @Test
+  public void variableLengthEnterpriseAndOptionsFields() throws Exception {
+    ByteBuf sets = Unpooled.buffer();
+
+    // options template 300: scope field observationDomainId (149), then samplingInterval (34)
+    sets.writeShort(3).writeShort(4 + 6 + 8);
+    sets.writeShort(300).writeShort(2).writeShort(1);
+    sets.writeShort(149).writeShort(4);
+    sets.writeShort(34).writeShort(4);
+
+    // template 256: protocol, variable length interface name, enterprise field, source port
+    sets.writeShort(2).writeShort(4 + 4 + 4 * 4 + 4);
+    sets.writeShort(256).writeShort(4);
+    sets.writeShort(4).writeShort(1);
+    sets.writeShort(82).writeShort(65535);
+    sets.writeShort(0x8000 | 7).writeShort(2).writeInt(9);
+    sets.writeShort(7).writeShort(2);
+
+    // options data
+    sets.writeShort(300).writeShort(4 + 8);
+    sets.writeInt(42).writeInt(100);
+
+    // two data records, one short and one long (3 byte length prefix) name, plus padding
+    final String longName = new String(new char[300]).replace('\0', 'x');
+    final int dataLength = 4 + (1 + 1 + 3 + 2 + 2) + (1 + 3 + longName.length() + 2 + 2) + 2;
+    sets.writeShort(256).writeShort(dataLength);
+    sets.writeByte(6).writeByte(3).writeBytes("ge0".getBytes(StandardCharsets.UTF_8)).writeShort(0xBEEF).writeShort(443);
+    sets.writeByte(17).writeByte(255).writeShort(longName.length());
+    sets.writeBytes(longName.getBytes(StandardCharsets.UTF_8)).writeShort(1).writeShort(53);
+    sets.writeShort(0);
+
+    final byte[] message = ipfixMessage(1500000000L, 7, 42, toBytes(sets));
+    List<BaseNetflowMessage> messages = decode(
+        new NetflowCommonDecoder(OutputValuesMode.RAW_AND_INTERPRETED, -1, -1),
+        message
+    );
+    Assert.assertEquals(3, messages.size());
+
+    IpfixMessage options = (IpfixMessage) messages.get(0);
+    Assert.assertEquals(FlowKind.OPTIONS, options.getFlowKind());
+    Assert.assertEquals(300, options.getFlowTemplateId());
+    LinkedHashMap<String, Field> optionValues = options.createFieldsMap(false);
+    Assert.assertArrayEquals(new byte[]{0, 0, 0, 42}, optionValues.get("type_149").getValueAsByteArray());
+    Assert.assertEquals(Field.create(100L), optionValues.get("SAMPLING_INTERVAL"));
+
+    IpfixMessage first = (IpfixMessage) messages.get(1);
+    LinkedHashMap<String, Field> values = first.createFieldsMap(false);
+    Assert.assertEquals(Field.create(6), values.get("PROTOCOL"));
+    Assert.assertEquals(Field.create("ge0"), values.get("IF_NAME"));
+    Assert.assertArrayEquals(new byte[]{(byte) 0xBE, (byte) 0xEF}, values.get("type_9_7").getValueAsByteArray());
+    Assert.assertEquals(Field.create(443), values.get("L4_SRC_PORT"));
+
+    IpfixMessage second = (IpfixMessage) messages.get(2);
+    values = second.createFieldsMap(false);
+    Assert.assertEquals(Field.create(17), values.get("PROTOCOL"));
+    Assert.assertEquals(Field.create(longName), values.get("IF_NAME"));
+    Assert.assertEquals(Field.create(53), values.get("L4_SRC_PORT"));
+    Assert.assertEquals(longName.length(), second.createFieldsMap(true).get("IF_NAME").getValueAsByteArray().length);
+    Assert.assertEquals(42L, second.getObservationDomainId());
+  }
+
+  @Test
+  public void unknownTemplate() throws Exception {
+    ByteBuf sets = Unpooled.buffer();
+    sets.writeShort(999).writeShort(8).writeInt(0);
+    try {
+      decode(new NetflowCommonDecoder(OutputValuesMode.RAW_AND_INTERPRETED, -1, -1), ipfixMessage(0, 0, 0, toBytes(sets)));
+      Assert.fail("Expected OnRecordErrorException");
+    } catch (OnRecordErrorException e) {
+      Assert.assertEquals(Errors.NETFLOW_11, e.getErrorCode());
+    }
+  }
+
+  @Test
+  public void templateWithdrawal() throws Exception {
+    NetflowCommonDecoder decoder = new NetflowCommonDecoder(OutputValuesMode.INTERPRETED_ONLY, -1, -1);
+    ByteBuf template = Unpooled.buffer();
+    template.writeShort(2).writeShort(12).writeShort(256).writeShort(1).writeShort(4).writeShort(1);
+    decode(decoder, ipfixMessage(0, 0, 0, toBytes(template)));
+
+    ByteBuf data = Unpooled.buffer();
+    data.writeShort(256).writeShort(6).writeByte(6).writeByte(17);
+    Assert.assertEquals(2, decode(decoder, ipfixMessage(0, 1, 0, toBytes(data))).size());
+
+    ByteBuf withdrawal = Unpooled.buffer();
+    withdrawal.writeShort(2).writeShort(8).writeShort(256).writeShort(0);
+    decode(decoder, ipfixMessage(0, 2, 0, toBytes(withdrawal)));
+    try {
+      decode(decoder, ipfixMessage(0, 3, 0, toBytes(data.resetReaderIndex())));
+      Assert.fail("Expected OnRecordErrorException");
+    } catch (OnRecordErrorException e) {
+      Assert.assertEquals(Errors.NETFLOW_11, e.getErrorCode());
+    }
+  }
+
+  @Test
+  public void dataOnlyPacketsAfterTemplates() throws Exception {
+    final byte[] v9Bytes = getMessagesBytes("netflow-v9-packet-7_flows.bin");
+    final byte[] v9DataBytes = toNetflowV9DataOnly(v9Bytes);
+    final byte[] ipfixBytes = toIpfix(v9Bytes, true);
+    final byte[] ipfixDataBytes = toIpfix(v9Bytes, false);
+
+    NetflowCommonDecoder v9Decoder = new NetflowCommonDecoder(OutputValuesMode.INTERPRETED_ONLY, -1, -1);
+    NetflowCommonDecoder ipfixDecoder = new NetflowCommonDecoder(OutputValuesMode.INTERPRETED_ONLY, -1, -1);
+    // templates arrive once, later packets only carry data records
+    decode(v9Decoder, v9Bytes);
+    decode(ipfixDecoder, ipfixBytes);
+    for (int i = 0; i < 3; i++) {
+      Assert.assertEquals(7, decode(v9Decoder, v9DataBytes).size());
+      Assert.assertEquals(7, decode(ipfixDecoder, ipfixDataBytes).size());
+    }
+  }
+
+  static List<BaseNetflowMessage> decode(NetflowCommonDecoder decoder, byte[] bytes)
+      throws OnRecordErrorException {
+    List<BaseNetflowMessage> messages = new LinkedList<>();
+    decoder.decodeStandaloneBuffer(Unpooled.wrappedBuffer(bytes), messages, SENDER, RECIPIENT);
+    return messages;
+  }
+
+  /**
+   * Rewrites a captured Netflow v9 packet as the equivalent IPFIX message: data records use the same layout in both,
+   * the message header and the template set ID differ, and vendor field types (0x8000 and up) become enterprise
+   * fields of the Cisco enterprise number. Options templates are left out.
+   */
+  static byte[] toIpfix(byte[] v9Bytes, boolean includeTemplates) {
+    ByteBuf v9 = Unpooled.wrappedBuffer(v9Bytes);
+    v9.skipBytes(8);
+    final long unixSeconds = v9.readUnsignedInt();
+    final long sequenceNumber = v9.readUnsignedInt();
+    final long sourceId = v9.readUnsignedInt();
+    ByteBuf sets = Unpooled.buffer();
+    while (v9.readableBytes() >= 4) {
+      final int flowSetId = v9.readUnsignedShort();
+      final int length = v9.readUnsignedShort();
+      ByteBuf body = v9.readSlice(length - 4);
+      if (flowSetId == 0 && includeTemplates) {
+        ByteBuf templates = Unpooled.buffer();
+        while (body.readableBytes() >= 4) {
+          final int templateId = body.readUnsignedShort();
+          final int fieldCount = body.readUnsignedShort();
+          templates.writeShort(templateId).writeShort(fieldCount);
+          for (int i = 0; i < fieldCount; i++) {
+            final int type = body.readUnsignedShort();
+            templates.writeShort(type).writeShort(body.readUnsignedShort());
+            if ((type & 0x8000) != 0) {
+              templates.writeInt(CISCO_ENTERPRISE_NUMBER);
+            }
+          }
+        }
+        sets.writeShort(2).writeShort(4 + templates.readableBytes()).writeBytes(templates);
+      } else if (flowSetId >= 256) {
+        sets.writeShort(flowSetId).writeShort(length).writeBytes(body);
+      }
+    }
+    return ipfixMessage(unixSeconds, sequenceNumber, sourceId, toBytes(sets));
+  }
+
+  static byte[] toNetflowV9DataOnly(byte[] v9Bytes) {
+    ByteBuf v9 = Unpooled.wrappedBuffer(v9Bytes);
+    ByteBuf header = v9.readSlice(20);
+    ByteBuf out = Unpooled.buffer();
+    out.writeBytes(header, 0, 20);
+    // the v9 record count includes the template records that are dropped
+    int count = header.getUnsignedShort(2);
+    while (v9.readableBytes() >= 4) {
+      final int flowSetId = v9.getUnsignedShort(v9.readerIndex());
+      final int length = v9.getUnsignedShort(v9.readerIndex() + 2);
+      ByteBuf flowSet = v9.readSlice(length);
+      if (flowSetId >= 256) {
+        out.writeBytes(flowSet);
+      } else if (flowSetId == 0) {
+        flowSet.skipBytes(4);
+        while (flowSet.readableBytes() >= 4) {
+          flowSet.skipBytes(2);
+          flowSet.skipBytes(4 * flowSet.readUnsignedShort());
+          count--;
+        }
+      }
+    }
+    out.setShort(2, count);
+    return toBytes(out);
+  }
+
+  private static byte[] ipfixMessage(long exportTime, long sequenceNumber, long observationDomainId, byte[] sets) {
+    ByteBuf message = Unpooled.buffer();
+    message.writeShort(10).writeShort(16 + sets.length);
+    message.writeInt((int) exportTime).writeInt((int) sequenceNumber).writeInt((int) observationDomainId);
+    message.writeBytes(sets);
+    return toBytes(message);
+  }
+
+  private static byte[] toBytes(ByteBuf buf) {
+    byte[] bytes = new byte[buf.readableBytes()];
+    buf.readBytes(bytes);
+    return bytes;
+  }
+
+  static byte[] getMessagesBytes(String fileName) throws IOException {
+    InputStream is = Thread.currentThread().getContextClassLoader().getResourceAsStream(
+        "com/streamsets/pipeline/lib/parser/net/netflow/" + fileName
+    );
+    return ByteStreams.toByteArray(is);
+  }
+}
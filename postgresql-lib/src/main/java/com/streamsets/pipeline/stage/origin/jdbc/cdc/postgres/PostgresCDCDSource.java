@@ -44,6 +44,7 @@ import com.streamsets.pipeline.stage.config.PostgresHikariPoolConfigBean;
     "postgresCDCConfigBean.baseConfigBean.changeTypes",
     "postgresCDCConfigBean.parseQuery",
     "postgresCDCConfigBean.decoderValue",
+    "postgresCDCConfigBean.publications",
     "postgresCDCConfigBean.minVersion",
     "postgresCDCConfigBean.replicationType",
 })
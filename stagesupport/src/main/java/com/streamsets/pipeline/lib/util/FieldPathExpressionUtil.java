@@ -70,7 +70,32 @@ public class FieldPathExpressionUtil {
       return evaluateMatchingFieldPathsImpl(fieldExpression, elEval, elVars, record);
     } else {
       // else it does NOT contain one, so the field regex util (which is faster) can be used
-      return FieldRegexUtil.getMatchingFieldPaths(fieldExpression, recordEscapedFieldPaths);
+      return FieldRegexUtil.getMatchingFieldPaths(fieldExpression, record, recordEscapedFieldPaths);
+    }
+  }
+
+  /**
+   * Same as {@link #evaluateMatchingFieldPaths(String, ELEval, ELVars, Record, Iterable)}, but the record's escaped
+   * field paths are only gathered when the expression actually needs them. Field path expressions without EL made of
+   * names, /*, [*] and constant indexes are matched directly against the record's field tree.
+   *
+   * @param fieldExpression the field path expression to evaluate
+   * @param elEval the {@link ELEval} instance in which to evaluate the expression
+   * @param elVars the {@link ELVars} instance to use when evaluating the expression
+   * @param record the record against which to evaluate the expression
+   * @return a {@link List} of field paths satisfying the given expression within the given {@code record}
+   * @throws ELEvalException
+   */
+  public static List<String> evaluateMatchingFieldPaths(
+      String fieldExpression,
+      ELEval elEval,
+      ELVars elVars,
+      Record record
+  ) throws ELEvalException {
+    if (isFieldPathExpressionFast(fieldExpression)) {
+      return evaluateMatchingFieldPathsImpl(fieldExpression, elEval, elVars, record);
+    } else {
+      return FieldRegexUtil.getMatchingFieldPaths(fieldExpression, record);
     }
   }
 
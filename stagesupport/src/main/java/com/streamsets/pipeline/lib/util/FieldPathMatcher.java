@@ -0,0 +1,257 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.util;
+
+import com.streamsets.datacollector.util.EscapeUtil;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Compiled form of a wildcard field path.
+ * <p/>
+ * Paths made only of plain names ({@code /name}), map wildcards ({@code /*}), list wildcards ({@code [*]}) and
+ * constant list indexes ({@code [0]}) are matched structurally: the {@link Field} tree of the record is walked once,
+ * following only the branches that can match, and escaped paths are built only for the matching fields. Any other
+ * path is treated as a regular expression over the record's escaped field paths, exactly like
+ * {@link FieldRegexUtil#getMatchingFieldPaths(String, Iterable)} always did.
+ * <p/>
+ * Compiled matchers are cached by field path, as the same configured paths are matched against every record.
+ */
+final class FieldPathMatcher {
+
+  private static final int MAX_CACHED_MATCHERS = 1000;
+  private static final Map<String, FieldPathMatcher> CACHE = new ConcurrentHashMap<>();
+
+  private enum SegmentType { NAME, ANY_NAME, INDEX, ANY_INDEX }
+
+  private static final class Segment {
+    private final SegmentType type;
+    private final String name;
+    private final int index;
+
+    private Segment(SegmentType type, String name, int index) {
+      this.type = type;
+      this.name = name;
+      this.index = index;
+    }
+  }
+
+  private final String fieldPath;
+  private final Segment[] segments;
+  private volatile Pattern pattern;
+
+  private FieldPathMatcher(String fieldPath, Segment[] segments) {
+    this.fieldPath = fieldPath;
+    this.segments = segments;
+  }
+
+  static FieldPathMatcher get(String fieldPath) {
+    FieldPathMatcher matcher = CACHE.get(fieldPath);
+    if (matcher == null) {
+      if (CACHE.size() >= MAX_CACHED_MATCHERS) {
+        CACHE.clear();
+      }
+      matcher = new FieldPathMatcher(fieldPath, parse(fieldPath));
+      CACHE.put(fieldPath, matcher);
+    }
+    return matcher;
+  }
+
+  /**
+   * @return true if this path is matched by walking the field tree, false if it falls back to a regular expression
+   */
+  boolean isStructural() {
+    return segments != null;
+  }
+
+  /**
+   * Returns the escaped paths of all fields of the given record matching this path, in the same order as they appear
+   * in {@link Record#getEscapedFieldPaths()}.
+   */
+  List<String> match(Record record) {
+    if (!isStructural()) {
+      return match(record.getEscapedFieldPaths());
+    }
+    List<String> matchingFieldPaths = new ArrayList<>();
+    if (record.get() != null) {
+      walk(record.get(), 0, new StringBuilder(), matchingFieldPaths);
+    }
+    return matchingFieldPaths;
+  }
+
+  /**
+   * Returns the given escaped field paths that match this path, using its regular expression form.
+   */
+  List<String> match(Iterable<String> fieldPaths) {
+    Pattern pattern = this.pattern;
+    if (pattern == null) {
+      pattern = Pattern.compile(FieldRegexUtil.transformFieldPathRegex(fieldPath));
+      this.pattern = pattern;
+    }
+    List<String> matchingFieldPaths = new ArrayList<>();
+    for (String existingFieldPath : fieldPaths) {
+      if (pattern.matcher(existingFieldPath).matches()) {
+        matchingFieldPaths.add(existingFieldPath);
+      }
+    }
+    return matchingFieldPaths;
+  }
+
+  private void walk(Field field, int depth, StringBuilder path, List<String> matchingFieldPaths) {
+    if (depth == segments.length) {
+      matchingFieldPaths.add(path.toString());
+      return;
+    }
+    Segment segment = segments[depth];
+    int length = path.length();
+    switch (segment.type) {
+      case NAME:
+        Map<String, Field> map = getMap(field);
+        Field child = (map == null) ? null : map.get(segment.name);
+        if (child != null) {
+          path.append('/').append(segment.name);
+          walk(child, depth + 1, path, matchingFieldPaths);
+          path.setLength(length);
+        }
+        break;
+      case ANY_NAME:
+        map = getMap(field);
+        if (map != null) {
+          for (Map.Entry<String, Field> entry : map.entrySet()) {
+            String name = entry.getKey();
+            // same as the [^/\[]+ the regular expression form uses for map wildcards
+            if (!name.isEmpty() && name.indexOf('/') < 0 && name.indexOf('[') < 0) {
+              path.append('/').append(EscapeUtil.singleQuoteEscape(name));
+              walk(entry.getValue(), depth + 1, path, matchingFieldPaths);
+              path.setLength(length);
+            }
+          }
+        }
+        break;
+      case INDEX:
+        List<Field> list = getList(field);
+        if (list != null && segment.index < list.size()) {
+          path.append('[').append(segment.index).append(']');
+          walk(list.get(segment.index), depth + 1, path, matchingFieldPaths);
+          path.setLength(length);
+        }
+        break;
+      case ANY_INDEX:
+        list = getList(field);
+        if (list != null) {
+          for (int i = 0; i < list.size(); i++) {
+            path.append('[').append(i).append(']');
+            walk(list.get(i), depth + 1, path, matchingFieldPaths);
+            path.setLength(length);
+          }
+        }
+        break;
+      default:
+        throw new IllegalStateException("Unexpected segment type: " + segment.type);
+    }
+  }
+
+  private static Map<String, Field> getMap(Field field) {
+    switch (field.getType()) {
+      case MAP:
+        return field.getValueAsMap();
+      case LIST_MAP:
+        return field.getValueAsListMap();
+      default:
+        return null;
+    }
+  }
+
+  private static List<Field> getList(Field field) {
+    return (field.getType() == Field.Type.LIST) ? field.getValueAsList() : null;
+  }
+
+  /**
+   * Splits the path into structural segments, or returns null if any part of it needs the regular expression form.
+   */
+  private static Segment[] parse(String fieldPath) {
+    List<Segment> segments = new ArrayList<>();
+    int i = 0;
+    while (i < fieldPath.length()) {
+      char c = fieldPath.charAt(i);
+      if (c == '/') {
+        int end = i + 1;
+        while (end < fieldPath.length() && fieldPath.charAt(end) != '/' && fieldPath.charAt(end) != '[') {
+          end++;
+        }
+        String name = fieldPath.substring(i + 1, end);
+        if (name.equals("*")) {
+          segments.add(new Segment(SegmentType.ANY_NAME, null, -1));
+        } else if (isWord(name)) {
+          segments.add(new Segment(SegmentType.NAME, name, -1));
+        } else {
+          return null;
+        }
+        i = end;
+      } else if (c == '[') {
+        int end = fieldPath.indexOf(']', i);
+        if (end < 0) {
+          return null;
+        }
+        String index = fieldPath.substring(i + 1, end);
+        if (index.equals("*")) {
+          segments.add(new Segment(SegmentType.ANY_INDEX, null, -1));
+        } else if (isIndex(index)) {
+          segments.add(new Segment(SegmentType.INDEX, null, Integer.parseInt(index)));
+        } else {
+          return null;
+        }
+        i = end + 1;
+      } else {
+        return null;
+      }
+    }
+    return segments.isEmpty() ? null : segments.toArray(new Segment[0]);
+  }
+
+  // a name the regular expression form would match literally, and that is never quoted when escaped
+  private static boolean isWord(String name) {
+    if (name.isEmpty()) {
+      return false;
+    }
+    for (int i = 0; i < name.length(); i++) {
+      char c = name.charAt(i);
+      if (!(c == '_' || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9'))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // an index exactly as it appears in escaped field paths
+  private static boolean isIndex(String index) {
+    if (index.isEmpty() || index.length() > 9 || (index.length() > 1 && index.charAt(0) == '0')) {
+      return false;
+    }
+    for (int i = 0; i < index.length(); i++) {
+      if (index.charAt(i) < '0' || index.charAt(i) > '9') {
+        return false;
+      }
+    }
+    return true;
+  }
+}
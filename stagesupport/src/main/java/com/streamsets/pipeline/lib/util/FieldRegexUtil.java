@@ -16,11 +16,10 @@
 package com.streamsets.pipeline.lib.util;
 
 import com.streamsets.datacollector.record.PathElement;
+import com.streamsets.pipeline.api.Record;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -64,19 +63,32 @@ public class FieldRegexUtil {
     //Any reference to array index brackets [ ] must be escaped in the regex
     //Reference to * in map must be replaced by regex that matches a field name
     //Reference to * in array index must be replaced by \d+
+    //The compiled regex is cached per field path by FieldPathMatcher
+    return FieldPathMatcher.get(fieldPath).match(fieldPaths);
+  }
 
+  /**
+   * Same as {@link #getMatchingFieldPaths(String, Iterable)} against the record's escaped field paths, but simple
+   * wildcard paths (made of names, /*, [*] and constant indexes) are matched by walking the record's field tree, so
+   * the escaped paths of the non matching fields are never built.
+   */
+  public static List<String> getMatchingFieldPaths(String fieldPath, Record record) {
+    if(!hasWildCards(fieldPath)) {
+      return Arrays.asList(fieldPath);
+    }
+    return FieldPathMatcher.get(fieldPath).match(record);
+  }
 
-    fieldPath = transformFieldPathRegex(fieldPath);
-
-    Pattern pattern = Pattern.compile(fieldPath);
-    List<String> matchingFieldPaths = new ArrayList<>();
-    for(String existingFieldPath : fieldPaths) {
-      Matcher matcher = pattern.matcher(existingFieldPath);
-      if(matcher.matches()) {
-        matchingFieldPaths.add(existingFieldPath);
-      }
+  /**
+   * Matches the path structurally against the record if possible, or else against the given escaped field paths of
+   * that same record.
+   */
+  static List<String> getMatchingFieldPaths(String fieldPath, Record record, Iterable<String> fieldPaths) {
+    if(!hasWildCards(fieldPath)) {
+      return Arrays.asList(fieldPath);
     }
-    return matchingFieldPaths;
+    FieldPathMatcher matcher = FieldPathMatcher.get(fieldPath);
+    return matcher.isStructural() ? matcher.match(record) : matcher.match(fieldPaths);
   }
 
   public static String transformFieldPathRegex(String fieldPath) {
@@ -44,7 +44,6 @@ import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public final class TensorFlowProcessor extends SingleLaneProcessor {
@@ -188,7 +187,6 @@ public final class TensorFlowProcessor extends SingleLaneProcessor {
   }
 
   private void setInputConfigFields(Record record) {
-    Set<String> fieldPaths = record.getEscapedFieldPaths();
     for (TensorInputConfig inputConfig : conf.inputConfigs) {
       List<String> inputConfigFields = new ArrayList<>();
       for(String f: inputConfig.fields) {
@@ -196,8 +194,7 @@ public final class TensorFlowProcessor extends SingleLaneProcessor {
             f,
             fieldPathEval,
             fieldPathVars,
-            record,
-            fieldPaths
+            record
         );
         inputConfigFields.addAll(matchingFieldPaths);
       }
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.testing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Small harness for the microbenchmarks in the *Benchmark test classes. Those classes don't match the default
+ * surefire includes and only run with the benchmark profile:
+ *
+ * <pre>mvn test -Pbenchmark -pl &lt;module&gt;</pre>
+ *
+ * Each measured round runs a fixed number of operations, the results of a round are folded into a sink so that the
+ * JIT can't drop the work.
+ */
+public final class MicroBenchmark {
+  private static final Logger LOG = LoggerFactory.getLogger(MicroBenchmark.class);
+
+  private static final int DEFAULT_WARMUP_ROUNDS = 10;
+  private static final int DEFAULT_MEASURED_ROUNDS = 20;
+
+  private final String name;
+  private final int operationsPerRound;
+  private final int warmupRounds;
+  private final int measuredRounds;
+  private volatile int sink;
+
+  public MicroBenchmark(String name, int operationsPerRound) {
+    this(name, operationsPerRound, DEFAULT_WARMUP_ROUNDS, DEFAULT_MEASURED_ROUNDS);
+  }
+
+  public MicroBenchmark(String name, int operationsPerRound, int warmupRounds, int measuredRounds) {
+    this.name = name;
+    this.operationsPerRound = operationsPerRound;
+    this.warmupRounds = warmupRounds;
+    this.measuredRounds = measuredRounds;
+  }
+
+  /**
+   * Runs the round through the warm up and measured rounds and logs the time per operation.
+   *
+   * @param variant name of the measured variant, e.g. the code path before and after an optimization
+   * @param round runs {@code operationsPerRound} operations and returns any of their results
+   * @return best time per operation in nanoseconds over the measured rounds
+   */
+  public double measure(String variant, Callable<?> round) throws Exception {
+    for (int i = 0; i < warmupRounds; i++) {
+      consume(round.call());
+    }
+    long best = Long.MAX_VALUE;
+    long total = 0;
+    for (int i = 0; i < measuredRounds; i++) {
+      long start = System.nanoTime();
+      consume(round.call());
+      long elapsed = System.nanoTime() - start;
+      best = Math.min(best, elapsed);
+      total += elapsed;
+    }
+    double bestPerOperation = (double) best / operationsPerRound;
+    LOG.info(String.format(
+        "%s [%s]: best %.1f ns/op, mean %.1f ns/op over %d rounds of %d operations",
+        name,
+        variant,
+        bestPerOperation,
+        (double) total / measuredRounds / operationsPerRound,
+        measuredRounds,
+        operationsPerRound
+    ));
+    return bestPerOperation;
+  }
+
+  private void consume(Object result) {
+    sink += result == null ? 0 : System.identityHashCode(result);
+  }
+}